@@ -54,6 +54,7 @@ import com.ibm.bi.dml.hops.HopsException;
 import com.ibm.bi.dml.hops.OptimizerUtils;
 import com.ibm.bi.dml.hops.OptimizerUtils.OptimizationLevel;
 import com.ibm.bi.dml.hops.globalopt.GlobalOptimizerWrapper;
+import com.ibm.bi.dml.hops.rewrite.RewriteBlockSizeAndReblock;
 import com.ibm.bi.dml.lops.Lop;
 import com.ibm.bi.dml.lops.LopsException;
 import com.ibm.bi.dml.parser.DMLProgram;
@@ -611,6 +612,11 @@ public class DMLScript
 		}
 	
 		//Step 5: rewrite HOP DAGs (incl IPA and memory estimates)
+		//(with program-wide block size selection, if enabled)
+		if( OptimizerUtils.ALLOW_ADAPTIVE_BLOCKSIZE ) {
+			DMLTranslator.setDMLBlockSize( RewriteBlockSizeAndReblock
+				.selectBlocksize(prog, DMLTranslator.DMLBlockSize) );
+		}
 		dmlt.rewriteHopsDAG(prog);
 		
 		if (LOG.isDebugEnabled()) {
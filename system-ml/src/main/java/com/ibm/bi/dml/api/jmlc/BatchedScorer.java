@@ -0,0 +1,222 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.api.jmlc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.ibm.bi.dml.api.DMLException;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+
+/**
+ * JMLC (Java Machine Learning Connector) API:
+ * 
+ * Batching front-end for row-wise scoring scripts (i.e., scripts where output 
+ * row i only depends on input row i and bound inputs such as models). Concurrent 
+ * single-row scoring requests are collected within a latency window (or until the
+ * maximum batch size is reached), stacked into one input matrix, and scored with a 
+ * single script execution. The output rows are then returned to the individual 
+ * callers. This turns many matrix-vector into few matrix-matrix operations.
+ * 
+ * The first request of a batch acts as leader, i.e., it waits for the latency 
+ * window, executes the batch, and notifies all other requests of this batch. 
+ * Hence, there is no background thread and no need for explicit shutdown.
+ * Multiple batches are executed concurrently via the re-entrant executeScript.
+ */
+public class BatchedScorer 
+{
+	private PreparedScript _pstmt = null;
+	private String _inVarname = null;
+	private String _outVarname = null;
+	private int _maxBatchSize = -1;
+	private long _maxLatency = -1; //in ms
+	
+	//currently open batch (null if no pending requests)
+	private Batch _current = null;
+	
+	/**
+	 * 
+	 * @param pstmt prepared script with all other inputs (e.g., model) already bound
+	 * @param inVarname name of the matrix input that receives the stacked rows
+	 * @param outVarname name of the matrix output with one row per input row
+	 * @param maxBatchSize maximum number of rows per batch
+	 * @param maxLatency maximum time in ms a batch waits for additional requests
+	 */
+	public BatchedScorer( PreparedScript pstmt, String inVarname, String outVarname, int maxBatchSize, long maxLatency )
+	{
+		_pstmt = pstmt;
+		_inVarname = inVarname;
+		_outVarname = outVarname;
+		_maxBatchSize = Math.max(maxBatchSize, 1);
+		_maxLatency = Math.max(maxLatency, 0);
+	}
+	
+	/**
+	 * Scores a single row and blocks until the result of its batch is available.
+	 * 
+	 * @param row
+	 * @return
+	 * @throws DMLException
+	 */
+	public double[] score( double[] row ) 
+		throws DMLException
+	{
+		Batch batch = null;
+		int pos = -1;
+		boolean leader = false;
+		
+		//append row to the open batch or open a new batch
+		synchronized( this ) 
+		{
+			if( _current != null && _current.getNumColumns() != row.length ) {
+				throw new DMLException("Incompatible number of columns: "
+						+ row.length + " vs " + _current.getNumColumns() + ".");
+			}
+			if( _current == null ) {
+				_current = new Batch(row.length);
+				leader = true;
+			}
+			batch = _current;
+			pos = batch.addRow(row);
+			
+			//close full batch and wake up its leader
+			if( batch.getNumRows() >= _maxBatchSize ) {
+				_current = null;
+				notifyAll();
+			}
+		}
+		
+		if( leader ) 
+		{
+			//wait for latency window or full batch, and close the batch
+			try {
+				synchronized( this ) {
+					long end = System.currentTimeMillis() + _maxLatency;
+					long remaining = _maxLatency;
+					while( _current == batch && remaining > 0 ) {
+						wait( remaining );
+						remaining = end - System.currentTimeMillis();
+					}
+					if( _current == batch )
+						_current = null;
+				}
+			}
+			catch(InterruptedException ex) {
+				synchronized( this ) {
+					if( _current == batch )
+						_current = null;
+				}
+				Thread.currentThread().interrupt();
+			}
+			
+			//execute batch and notify all requests of this batch
+			executeBatch( batch );
+		}
+		
+		return batch.getResult( pos );
+	}
+	
+	/**
+	 * 
+	 * @param batch
+	 */
+	private void executeBatch( Batch batch ) 
+	{
+		double[][] out = null;
+		DMLException err = null;
+		try
+		{
+			//stack rows into one input matrix and execute script once
+			MatrixBlock in = DataConverter.convertToMatrixBlock( batch.getRows() );
+			HashMap<String, MatrixBlock> inputs = new HashMap<String, MatrixBlock>();
+			inputs.put( _inVarname, in );
+			out = _pstmt.executeScript( inputs ).getMatrix( _outVarname );
+			
+			if( out.length != batch.getNumRows() ) {
+				throw new DMLException("Number of output rows does not match number of "
+						+ "input rows: " + out.length + " vs " + batch.getNumRows() + ".");
+			}
+		}
+		catch(DMLException ex) {
+			err = ex;
+		}
+		catch(Exception ex) {
+			err = new DMLException(ex);
+		}
+		
+		batch.setResults( out, err );
+	}
+	
+	/**
+	 * Batch of pending scoring requests, which also serves as the
+	 * monitor for passing the results to the individual requests.
+	 */
+	private static class Batch
+	{
+		private ArrayList<double[]> _rows = new ArrayList<double[]>();
+		private int _ncol = -1;
+		private double[][] _results = null;
+		private DMLException _err = null;
+		private boolean _done = false;
+		
+		public Batch( int ncol ) {
+			_ncol = ncol;
+		}
+		
+		public int getNumColumns() {
+			return _ncol;
+		}
+		
+		public int getNumRows() {
+			return _rows.size();
+		}
+		
+		public int addRow( double[] row ) {
+			_rows.add( row );
+			return _rows.size()-1;
+		}
+		
+		public double[][] getRows() {
+			return _rows.toArray( new double[_rows.size()][] );
+		}
+		
+		public synchronized void setResults( double[][] results, DMLException err ) {
+			_results = results;
+			_err = err;
+			_done = true;
+			notifyAll();
+		}
+		
+		public synchronized double[] getResult( int pos ) 
+			throws DMLException 
+		{
+			try {
+				while( !_done )
+					wait();
+			}
+			catch(InterruptedException ex) {
+				throw new DMLException(ex);
+			}
+			
+			if( _err != null )
+				throw new DMLException("Failed to score batch.", _err);
+			return _results[pos];
+		}
+	}
+}
@@ -107,6 +107,15 @@ public class Connection
 	{
 		//prepare arguments
 		
+		//probe plan cache (reuse of compiled runtime program)
+		String key = null;
+		if( PlanCache.ENABLE_PLAN_CACHE ) {
+			key = PlanCache.createKey(script, args, inputs, outputs, parsePyDML, _conf);
+			PreparedScript ps = PlanCache.get(key);
+			if( ps != null )
+				return ps;
+		}
+		
 		//simplified compilation chain
 		Program rtprog = null;
 		try
@@ -151,7 +160,11 @@ public class Connection
 		}
 			
 		//return newly create precompiled script 
-		return new PreparedScript(rtprog, inputs, outputs);
+		PreparedScript ret = new PreparedScript(rtprog, inputs, outputs);
+		if( PlanCache.ENABLE_PLAN_CACHE )
+			PlanCache.put(key, ret);
+		
+		return ret;
 	}
 	
 	/**
@@ -37,6 +37,8 @@ public class JMLCUtils
 	/**
 	 * Removes rmvar instructions that would remove any of the given outputs.
 	 * This is important for keeping registered outputs after the program terminates.
+	 * Furthermore, this disables in-place recompile-once of functions, which would 
+	 * modify the shared program during concurrent executions of a prepared script.
 	 * 
 	 * @param prog
 	 */
@@ -48,6 +50,7 @@ public class JMLCUtils
 			for( Entry<String, FunctionProgramBlock> e : funcMap.entrySet() )
 			{
 				FunctionProgramBlock fpb = e.getValue();
+				fpb.setRecompileOnce(false);
 				for( ProgramBlock pb : fpb.getChildBlocks() )
 					rCleanupRuntimeProgram(pb, outputs);
 			}
@@ -0,0 +1,180 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.api.jmlc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.ibm.bi.dml.conf.DMLConfig;
+import com.ibm.bi.dml.hops.OptimizerUtils;
+import com.ibm.bi.dml.parser.DMLTranslator;
+
+/**
+ * Process-wide cache of compiled JMLC scripts in order to avoid repeated parsing,
+ * validation, and compilation on prepareScript for the same script. The cache 
+ * is keyed by the script text, arguments, input/output names, parser type, and 
+ * all configurations that affect compilation. Cached prepared scripts are never
+ * executed directly; instead, every lookup returns a new PreparedScript that shares 
+ * the runtime program but has its own symbol table (see PreparedScript copy 
+ * constructor). 
+ * 
+ * NOTE: Runtime programs are shareable because dynamic recompilation is not
+ * in-place but produces new instructions (synchronized on the hop dags).
+ */
+public class PlanCache 
+{
+	//enables/disables the plan cache for all connections
+	public static boolean ENABLE_PLAN_CACHE = true;
+	
+	//maximum number of cached plans (evicted in LRU order)
+	public static int CACHE_CAPACITY = 64;
+	
+	private static LinkedHashMap<String, PreparedScript> _cache = 
+			new LinkedHashMap<String, PreparedScript>(16, 0.75f, true);
+	private static long _hits = 0;
+	private static long _misses = 0;
+	
+	private PlanCache() {
+		//prevent instantiation via private constructor
+	}
+	
+	/**
+	 * Creates the cache key of a script and its compilation context.
+	 * 
+	 * @param script
+	 * @param args
+	 * @param inputs
+	 * @param outputs
+	 * @param parsePyDML
+	 * @param conf
+	 * @return
+	 */
+	public static String createKey( String script, HashMap<String,String> args, String[] inputs, 
+			String[] outputs, boolean parsePyDML, DMLConfig conf )
+	{
+		StringBuilder sb = new StringBuilder();
+		
+		//compilation context (config, opt level, block size, parser)
+		sb.append( conf.serializeDMLConfig() );
+		sb.append( '\u0000' );
+		sb.append( OptimizerUtils.getOptLevel() );
+		sb.append( '\u0000' );
+		sb.append( DMLTranslator.DMLBlockSize );
+		sb.append( '\u0000' );
+		sb.append( parsePyDML );
+		sb.append( '\u0000' );
+		
+		//arguments in sorted order (independent of hash map iteration order)
+		if( args != null )
+			for( Entry<String,String> e : new TreeMap<String,String>(args).entrySet() ) {
+				sb.append( e.getKey() );
+				sb.append( '=' );
+				sb.append( e.getValue() );
+				sb.append( '\u0000' );
+			}
+		
+		//inputs and outputs
+		sb.append( Arrays.toString(inputs) );
+		sb.append( '\u0000' );
+		sb.append( Arrays.toString(outputs) );
+		sb.append( '\u0000' );
+		
+		//script text
+		sb.append( script );
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Gets a new prepared script for the given key, which shares the runtime 
+	 * program with the cached entry, or null if there is no cached entry.
+	 * 
+	 * @param key
+	 * @return
+	 */
+	public static synchronized PreparedScript get( String key )
+	{
+		PreparedScript ps = _cache.get( key );
+		if( ps == null ) {
+			_misses++;
+			return null;
+		}
+		
+		_hits++;
+		return new PreparedScript( ps );
+	}
+	
+	/**
+	 * Puts a newly compiled prepared script into the cache and evicts
+	 * the least recently used entries if the capacity is exceeded.
+	 * 
+	 * @param key
+	 * @param ps
+	 */
+	public static synchronized void put( String key, PreparedScript ps )
+	{
+		//keep a private copy w/ empty symbol table as cache entry 
+		_cache.put( key, new PreparedScript(ps) );
+		
+		//lru eviction
+		while( _cache.size() > CACHE_CAPACITY ) {
+			String lru = _cache.keySet().iterator().next();
+			_cache.remove( lru );
+		}
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	public static synchronized int size()
+	{
+		return _cache.size();
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	public static synchronized long getNumHits()
+	{
+		return _hits;
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	public static synchronized long getNumMisses()
+	{
+		return _misses;
+	}
+	
+	/**
+	 * Removes all cached plans and resets the statistics.
+	 */
+	public static synchronized void clear()
+	{
+		_cache.clear();
+		_hits = 0;
+		_misses = 0;
+	}
+}
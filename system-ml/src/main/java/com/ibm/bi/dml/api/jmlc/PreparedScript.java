@@ -17,7 +17,9 @@
 
 package com.ibm.bi.dml.api.jmlc;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map.Entry;
 
 import com.ibm.bi.dml.api.DMLException;
 import com.ibm.bi.dml.conf.ConfigurationManager;
@@ -44,6 +46,13 @@ import com.ibm.bi.dml.runtime.util.DataConverter;
  * JMLC (Java Machine Learning Connector) API:
  * 
  * NOTE: Currently fused API and implementation in order to reduce complexity. 
+ * 
+ * Thread-safety: executeScript is re-entrant, i.e., one prepared script can be 
+ * executed by many threads concurrently. Every invocation uses its own execution 
+ * context and symbol table, which is initialized with a snapshot of the bound 
+ * inputs (shared, read-only, e.g., model matrices) and optionally per-invocation 
+ * inputs. Binding inputs via setScalar/setMatrix concurrently to execution only 
+ * affects subsequent invocations.
  */
 public class PreparedScript 
 {
@@ -54,7 +63,7 @@ public class PreparedScript
 	
 	//internal state (reused)
 	private Program _prog = null;
-	private LocalVariableMap _vars = null; 
+	private LocalVariableMap _vars = null; //bound inputs (shared by all invocations)
 	
 	/**
 	 * Meant to be invoked only from Connection
@@ -73,6 +82,21 @@ public class PreparedScript
 			_outVarnames.add( var );
 	}
 	
+	/**
+	 * Creates a shallow copy that shares the runtime program and input/output 
+	 * specification but has its own (empty) symbol table. Meant to be invoked 
+	 * only from PlanCache.
+	 * 
+	 * @param that
+	 */
+	protected PreparedScript( PreparedScript that )
+	{
+		_prog = that._prog;
+		_vars = new LocalVariableMap();
+		_inVarnames = that._inVarnames;
+		_outVarnames = that._outVarnames;
+	}
+	
 	/**
 	 * 
 	 * @param varname
@@ -85,7 +109,9 @@ public class PreparedScript
 		if( !_inVarnames.contains(varname) )
 			throw new DMLException("Unspecified input variable: "+varname);
 		
-		_vars.put(varname, scalar);
+		synchronized( _vars ) {
+			_vars.put(varname, scalar);
+		}
 	}
 	
 	/**
@@ -101,7 +127,9 @@ public class PreparedScript
 			throw new DMLException("Unspecified input variable: "+varname);
 		
 		BooleanObject bo = new BooleanObject(varname, scalar);
-		_vars.put(varname, bo);
+		synchronized( _vars ) {
+			_vars.put(varname, bo);
+		}
 	}
 	
 	/**
@@ -117,7 +145,9 @@ public class PreparedScript
 			throw new DMLException("Unspecified input variable: "+varname);
 		
 		IntObject io = new IntObject(varname, scalar);
-		_vars.put(varname, io);
+		synchronized( _vars ) {
+			_vars.put(varname, io);
+		}
 	}
 	
 	/**
@@ -133,7 +163,9 @@ public class PreparedScript
 			throw new DMLException("Unspecified input variable: "+varname);
 		
 		DoubleObject doo = new DoubleObject(varname, scalar);
-		_vars.put(varname, doo);	
+		synchronized( _vars ) {
+			_vars.put(varname, doo);
+		}
 	}
 	
 	/**
@@ -149,7 +181,9 @@ public class PreparedScript
 			throw new DMLException("Unspecified input variable: "+varname);
 		
 		StringObject so = new StringObject(varname, scalar);
-		_vars.put(varname, so);
+		synchronized( _vars ) {
+			_vars.put(varname, so);
+		}
 	}
 	
 	/**
@@ -165,19 +199,15 @@ public class PreparedScript
 			throw new DMLException("Unspecified input variable: "+varname);
 		
 		
-		DMLConfig conf = ConfigurationManager.getConfig();
-		String scratch_space = conf.getTextValue(DMLConfig.SCRATCH_SPACE);
-		int blocksize = conf.getIntValue(DMLConfig.DEFAULT_BLOCK_SIZE);
-		
-		//create new matrix object
-		MatrixCharacteristics mc = new MatrixCharacteristics(matrix.getNumRows(), matrix.getNumColumns(), blocksize, blocksize);
-		MatrixFormatMetaData meta = new MatrixFormatMetaData(mc, OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo);
-		MatrixObject mo = new MatrixObject(ValueType.DOUBLE, scratch_space+"/"+varname, meta);
-		mo.acquireModify(matrix); 
-		mo.release();
+		//create new matrix object, which is shared by all invocations
+		//(no cleanup on rmvar, because concurrent invocations might still read it)
+		MatrixObject mo = createMatrixObject(varname, matrix);
+		mo.enableCleanup(false);
 		
 		//put create matrix wrapper into symbol table
-		_vars.put(varname, mo);
+		synchronized( _vars ) {
+			_vars.put(varname, mo);
+		}
 	}
 	
 	/**
@@ -196,13 +226,60 @@ public class PreparedScript
 		setMatrix(varname, mb);
 	}
 	
+	/**
+	 * Binds a dense matrix given as row-major array without copying it. 
+	 * The array is owned by the caller and must not be modified until the 
+	 * input is rebound or cleared.
+	 * 
+	 * @param varname
+	 * @param matrix
+	 * @param rows
+	 * @param cols
+	 * @throws DMLException
+	 */
+	public void setMatrix(String varname, double[] matrix, int rows, int cols)
+		throws DMLException
+	{
+		if( !_inVarnames.contains(varname) )
+			throw new DMLException("Unspecified input variable: "+varname);
+		
+		MatrixBlock mb = new MatrixBlock(rows, cols, matrix);
+		setMatrix(varname, mb);
+	}
+	
+	/**
+	 * Binds a sparse matrix given in CSR format (row pointers, sorted column 
+	 * indexes per row, and values) without copying it. The arrays are owned 
+	 * by the caller and must not be modified until the input is rebound or 
+	 * cleared; they are never modified by the script execution.
+	 * 
+	 * @param varname
+	 * @param rowPtr
+	 * @param colInd
+	 * @param values
+	 * @param rows
+	 * @param cols
+	 * @throws DMLException
+	 */
+	public void setMatrix(String varname, int[] rowPtr, int[] colInd, double[] values, int rows, int cols)
+		throws DMLException
+	{
+		if( !_inVarnames.contains(varname) )
+			throw new DMLException("Unspecified input variable: "+varname);
+		
+		MatrixBlock mb = new MatrixBlock(rows, cols, rowPtr, colInd, values);
+		setMatrix(varname, mb);
+	}
+	
 	
 	/**
 	 * 
 	 */
 	public void clearParameters()
 	{
-		_vars.removeAll();
+		synchronized( _vars ) {
+			_vars.removeAll();
+		}
 	}
 	
 	/**
@@ -213,9 +290,34 @@ public class PreparedScript
 	public ResultVariables executeScript() 
 		throws DMLException
 	{
+		return executeScript( new HashMap<String, MatrixBlock>() );
+	}
+	
+	/**
+	 * Executes the script with the bound inputs and the given per-invocation 
+	 * matrix inputs, which take precedence over bound inputs of the same name. 
+	 * 
+	 * @param inputs
+	 * @return
+	 * @throws DMLException
+	 */
+	public ResultVariables executeScript( HashMap<String, MatrixBlock> inputs ) 
+		throws DMLException
+	{
+		//create symbol table of this invocation (snapshot of bound inputs)
+		LocalVariableMap vars = new LocalVariableMap();
+		synchronized( _vars ) {
+			vars.putAll( _vars );
+		}
+		for( Entry<String, MatrixBlock> e : inputs.entrySet() ) {
+			if( !_inVarnames.contains(e.getKey()) )
+				throw new DMLException("Unspecified input variable: "+e.getKey());
+			vars.put(e.getKey(), createMatrixObject(e.getKey(), e.getValue()));
+		}
+		
 		//create and populate execution context
 		ExecutionContext ec = ExecutionContextFactory.createContext(_prog);	
-		ec.setVariables(_vars);
+		ec.setVariables(vars);
 		
 		//core execute runtime program	
 		_prog.execute( ec );  
@@ -223,9 +325,33 @@ public class PreparedScript
 		//construct results
 		ResultVariables rvars = new ResultVariables();
 		for( String ovar : _outVarnames )
-			if( _vars.keySet().contains(ovar) )
-				rvars.addResult(ovar, _vars.get(ovar));
+			if( vars.keySet().contains(ovar) )
+				rvars.addResult(ovar, vars.get(ovar));
 			
 		return rvars;
 	}
+	
+	/**
+	 * 
+	 * @param varname
+	 * @param matrix
+	 * @return
+	 * @throws DMLException
+	 */
+	private static MatrixObject createMatrixObject( String varname, MatrixBlock matrix ) 
+		throws DMLException
+	{
+		DMLConfig conf = ConfigurationManager.getConfig();
+		String scratch_space = conf.getTextValue(DMLConfig.SCRATCH_SPACE);
+		int blocksize = conf.getIntValue(DMLConfig.DEFAULT_BLOCK_SIZE);
+		
+		//create new matrix object
+		MatrixCharacteristics mc = new MatrixCharacteristics(matrix.getNumRows(), matrix.getNumColumns(), blocksize, blocksize);
+		MatrixFormatMetaData meta = new MatrixFormatMetaData(mc, OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo);
+		MatrixObject mo = new MatrixObject(ValueType.DOUBLE, scratch_space+"/"+varname, meta);
+		mo.acquireModify(matrix); 
+		mo.release();
+		
+		return mo;
+	}
 }
@@ -79,6 +79,55 @@ public class ResultVariables
 		return ret;
 	}
 	
+	/**
+	 * Returns the output matrix block itself (no copy). The returned block 
+	 * must be treated as read-only.
+	 * 
+	 * @param varname
+	 * @return
+	 * @throws DMLException
+	 */
+	public MatrixBlock getMatrixBlock(String varname) 
+		throws DMLException
+	{
+		if( !_out.containsKey(varname) )
+			throw new DMLException("Non-existing output variable: "+varname);
+		
+		Data dat = _out.get(varname);
+		
+		//basic checks for data type	
+		if( !(dat instanceof MatrixObject) )
+			throw new DMLException("Expected matrix result '"+varname+"' not a matrix.");
+		
+		MatrixObject mo = (MatrixObject)dat;
+		MatrixBlock mb = mo.acquireRead();
+		mo.release();
+		
+		return mb;
+	}
+	
+	/**
+	 * Returns the output matrix as row-major array. For dense outputs, this 
+	 * is the underlying array itself (no copy, potentially larger than rows*cols), 
+	 * while empty or sparse outputs are converted into a new array. 
+	 * 
+	 * @param varname
+	 * @return
+	 * @throws DMLException
+	 */
+	public double[] getDenseArray(String varname) 
+		throws DMLException
+	{
+		MatrixBlock mb = getMatrixBlock(varname);
+		
+		//return view of allocated dense block
+		if( !mb.isInSparseFormat() && mb.getDenseArray() != null )
+			return mb.getDenseArray();
+		
+		//convert empty or sparse block
+		return DataConverter.convertToDoubleVector(mb);
+	}
+	
 	/**
 	 * 
 	 * 
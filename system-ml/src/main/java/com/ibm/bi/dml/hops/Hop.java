@@ -303,7 +303,10 @@ public abstract class Hop
 		}
 
 		//add reblock lop to output if required
-		if( _requiresReblock && et != ExecType.CP )
+		//(except for transform w/ direct binary block output)
+		if( _requiresReblock && et != ExecType.CP 
+			&& !(this instanceof ParameterizedBuiltinOp 
+				&& ((ParameterizedBuiltinOp)this).isTransformBinaryBlockOutput(et)) )
 		{
 			Lop input = getLops();
 			Lop reblock = null;
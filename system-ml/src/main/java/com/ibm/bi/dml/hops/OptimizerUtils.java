@@ -172,6 +172,14 @@ public class OptimizerUtils
 	 */
 	public static boolean ALLOW_SPLIT_HOP_DAGS = true;
 	
+	/**
+	 * Enables the cost-based selection of a program-wide block size according to 
+	 * the shapes and sparsity of all persistent reads (see RewriteBlockSizeAndReblock),
+	 * i.e., larger blocks for vectors and ultra-sparse matrices. Note that binary 
+	 * outputs are written with the selected block size (as recorded in their metadata).
+	 */
+	public static boolean ALLOW_ADAPTIVE_BLOCKSIZE = true;
+	
 	
 	/**
 	 * Enables parallel read/write of all text formats (textcell, csv, mm). 
@@ -20,6 +20,7 @@ package com.ibm.bi.dml.hops;
 import java.util.HashMap;
 import java.util.Map.Entry;
 
+import com.ibm.bi.dml.hops.Hop.MultiThreadedHop;
 import com.ibm.bi.dml.hops.rewrite.HopRewriteUtils;
 import com.ibm.bi.dml.lops.Aggregate;
 import com.ibm.bi.dml.lops.Data;
@@ -42,7 +43,7 @@ import com.ibm.bi.dml.runtime.util.UtilFunctions;
  * Defines the HOP for calling an internal function (with custom parameters) from a DML script. 
  * 
  */
-public class ParameterizedBuiltinOp extends Hop 
+public class ParameterizedBuiltinOp extends Hop implements MultiThreadedHop
 {
 	
 	private static boolean COMPILE_PARALLEL_REMOVEEMPTY = true;
@@ -57,6 +58,8 @@ public class ParameterizedBuiltinOp extends Hop
 
 	private boolean _bRmEmptyBC = false;
 	
+	private int _maxNumThreads = -1; //-1 for unlimited
+	
 	/**
 	 * List of "named" input parameters. They are maintained as a hashmap:
 	 * parameter names (String) are mapped as indices (Integer) into getInput()
@@ -119,6 +122,16 @@ public class ParameterizedBuiltinOp extends Hop
 		_outputPermutationMatrix = flag;
 	}
 	
+	@Override
+	public void setMaxNumThreads( int k ) {
+		_maxNumThreads = k;
+	}
+	
+	@Override
+	public int getMaxNumThreads() {
+		return _maxNumThreads;
+	}
+	
 	public Hop getTargetHop()
 	{
 		Hop targetHop = getInput().get(_paramIndexMap.get("target"));
@@ -192,10 +205,11 @@ public class ParameterizedBuiltinOp extends Hop
 					HopsParameterizedBuiltinLops.get(_op), getDataType(), getValueType(), et);
 			setOutputDimensions(pbilop);
 			setLineNumbers(pbilop);
-			// output of transform is always in CSV format
-			// to produce a blocked output, this lop must be 
-			// fed into CSV Reblock lop.
-			pbilop.getOutputParameters().setFormat(Format.CSV);
+			// output of transform is in CSV format, and to produce
+			// a blocked output, this lop must be fed into CSV Reblock 
+			// lop; on Spark, transform directly produces binary blocks.
+			pbilop.getOutputParameters().setFormat(
+				isTransformBinaryBlockOutput(et) ? Format.BINARY : Format.CSV);
 			setLops(pbilop);
 		}
 
@@ -205,6 +219,20 @@ public class ParameterizedBuiltinOp extends Hop
 		return getLops();
 	}
 	
+	/**
+	 * Indicates if transform directly produces a binary block output (instead 
+	 * of a csv output with subsequent csv reblock), which is the case for 
+	 * blocked outputs on Spark.
+	 * 
+	 * @param et
+	 * @return
+	 */
+	public boolean isTransformBinaryBlockOutput( ExecType et )
+	{
+		return _op == ParamBuiltinOp.TRANSFORM
+			&& et == ExecType.SPARK && requiresReblock();
+	}
+	
 	private void constructLopsGroupedAggregate(HashMap<String, Lop> inputlops, ExecType et) 
 		throws HopsException, LopsException 
 	{
@@ -287,8 +315,9 @@ public class ParameterizedBuiltinOp extends Hop
 		}
 		else //CP 
 		{
+			int k = OptimizerUtils.getConstrainedNumThreads(_maxNumThreads);
 			GroupedAggregate grp_agg = new GroupedAggregate(inputlops,
-					getDataType(), getValueType(), et);
+					getDataType(), getValueType(), et, k);
 			// output dimensions are unknown at compilation time
 			grp_agg.getOutputParameters().setDimensions(-1, -1, -1, -1, -1);
 			grp_agg.setAllPositions(this.getBeginLine(), this.getBeginColumn(), this.getEndLine(), this.getEndColumn());
@@ -988,6 +1017,7 @@ public class ParameterizedBuiltinOp extends Hop
 		ret._op = _op;
 		ret._outputEmptyBlocks = _outputEmptyBlocks;
 		ret._outputPermutationMatrix = _outputPermutationMatrix;
+		ret._maxNumThreads = _maxNumThreads;
 		ret._paramIndexMap = (HashMap<String, Integer>) _paramIndexMap.clone();
 		//note: no deep cp of params since read-only 
 		
@@ -1005,7 +1035,8 @@ public class ParameterizedBuiltinOp extends Hop
 					  && _paramIndexMap!=null && that2._paramIndexMap!=null
 					  && _paramIndexMap.size() == that2._paramIndexMap.size()
 					  && _outputEmptyBlocks == that2._outputEmptyBlocks
-					  && _outputPermutationMatrix == that2._outputPermutationMatrix );
+					  && _outputPermutationMatrix == that2._outputPermutationMatrix
+					  && _maxNumThreads == that2._maxNumThreads );
 		if( ret )
 		{
 			for( Entry<String,Integer> e : _paramIndexMap.entrySet() )
@@ -19,6 +19,7 @@ package com.ibm.bi.dml.hops;
 
 import java.util.ArrayList;
 
+import com.ibm.bi.dml.hops.Hop.MultiThreadedHop;
 import com.ibm.bi.dml.hops.rewrite.HopRewriteUtils;
 import com.ibm.bi.dml.lops.Aggregate;
 import com.ibm.bi.dml.lops.Group;
@@ -44,7 +45,7 @@ import com.ibm.bi.dml.runtime.matrix.MatrixCharacteristics;
  *  and (2) most importantly semantic of reshape is exactly a reorg op. 
  */
 
-public class ReorgOp extends Hop 
+public class ReorgOp extends Hop implements MultiThreadedHop
 {
 	
 	public static boolean FORCE_DIST_SORT_INDEXES = false;
@@ -52,6 +53,8 @@ public class ReorgOp extends Hop
 	public boolean bSortSPRewriteApplicable = false;
 	
 	private ReOrgOp op;
+	
+	private int _maxNumThreads = -1; //-1 for unlimited
 
 	private ReorgOp() {
 		//default constructor for clone
@@ -88,6 +91,16 @@ public class ReorgOp extends Hop
 		return op;
 	}
 	
+	@Override
+	public void setMaxNumThreads( int k ) {
+		_maxNumThreads = k;
+	}
+	
+	@Override
+	public int getMaxNumThreads() {
+		return _maxNumThreads;
+	}
+	
 	@Override
 	public String getOpString() {
 		String s = new String("");
@@ -110,8 +123,9 @@ public class ReorgOp extends Hop
 			case TRANSPOSE:
 			case DIAG:
 			{
+				int k = OptimizerUtils.getConstrainedNumThreads(_maxNumThreads);
 				Transform transform1 = new Transform( getInput().get(0).constructLops(), 
-						HopsTransf2Lops.get(op), getDataType(), getValueType(), et);
+						HopsTransf2Lops.get(op), getDataType(), getValueType(), et, k);
 				setOutputDimensions(transform1);
 				setLineNumbers(transform1);
 				setLops(transform1);
@@ -543,6 +557,7 @@ public class ReorgOp extends Hop
 		
 		//copy specific attributes
 		ret.op = op;
+		ret._maxNumThreads = _maxNumThreads;
 		
 		return ret;
 	}
@@ -555,6 +570,7 @@ public class ReorgOp extends Hop
 		
 		ReorgOp that2 = (ReorgOp)that;		
 		boolean ret =  (op == that2.op)
+				    && (_maxNumThreads == that2._maxNumThreads)
 				    && (getInput().size()==that.getInput().size());
 				
 		//compare all childs (see reshape, sort)
@@ -19,6 +19,7 @@ package com.ibm.bi.dml.hops;
 
 import java.util.ArrayList;
 
+import com.ibm.bi.dml.hops.Hop.MultiThreadedHop;
 import com.ibm.bi.dml.lops.Aggregate;
 import com.ibm.bi.dml.lops.Aggregate.OperationTypes;
 import com.ibm.bi.dml.lops.CombineUnary;
@@ -45,10 +46,12 @@ import com.ibm.bi.dml.runtime.matrix.MatrixCharacteristics;
  * 		Semantic: given a value, perform the operation (independent of other values)
  */
 
-public class UnaryOp extends Hop 
+public class UnaryOp extends Hop implements MultiThreadedHop
 {
 
 	private OpOp1 _op = null;
+	
+	private int _maxNumThreads = -1; //-1 for unlimited
 
 	
 	private UnaryOp() {
@@ -74,6 +77,16 @@ public class UnaryOp extends Hop
 		return _op;
 	}
 	
+	@Override
+	public void setMaxNumThreads( int k ) {
+		_maxNumThreads = k;
+	}
+	
+	@Override
+	public int getMaxNumThreads() {
+		return _maxNumThreads;
+	}
+	
 	public void printMe() throws HopsException {
 		if (LOG.isDebugEnabled()){
 			if (getVisited() != VisitStatus.DONE) {
@@ -148,8 +161,9 @@ public class UnaryOp extends Hop
 				}
 				else //default unary 
 				{
+					int k = OptimizerUtils.getConstrainedNumThreads(_maxNumThreads);
 					Unary unary1 = new Unary(input.constructLops(), HopsOpOp1LopsU.get(_op), 
-							                 getDataType(), getValueType(), et);
+							                 getDataType(), getValueType(), et, k);
 					setOutputDimensions(unary1);
 					setLineNumbers(unary1);
 					setLops(unary1);
@@ -718,6 +732,7 @@ public class UnaryOp extends Hop
 		
 		//copy specific attributes
 		ret._op = _op;
+		ret._maxNumThreads = _maxNumThreads;
 		
 		return ret;
 	}
@@ -741,6 +756,7 @@ public class UnaryOp extends Hop
 		
 		UnaryOp that2 = (UnaryOp)that;		
 		return (   _op == that2._op
+				&& _maxNumThreads == that2._maxNumThreads
 				&& getInput().get(0) == that2.getInput().get(0));
 	}
 }
@@ -93,10 +93,12 @@ import com.ibm.bi.dml.runtime.instructions.cp.IntObject;
 import com.ibm.bi.dml.runtime.instructions.cp.ScalarObject;
 import com.ibm.bi.dml.runtime.instructions.mr.RandInstruction;
 import com.ibm.bi.dml.runtime.instructions.mr.SeqInstruction;
+import com.ibm.bi.dml.runtime.io.BinaryBlockIndex;
 import com.ibm.bi.dml.runtime.matrix.MatrixCharacteristics;
 import com.ibm.bi.dml.runtime.matrix.MatrixFormatMetaData;
 import com.ibm.bi.dml.runtime.matrix.data.InputInfo;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.transform.DataTransform;
 import com.ibm.bi.dml.runtime.util.MapReduceTool;
 import com.ibm.bi.dml.utils.Explain;
 import com.ibm.bi.dml.utils.Explain.ExplainType;
@@ -1965,10 +1967,15 @@ public class Recompiler
 		// dimensions are not checked here, since the worst case dimensions 
 		// after transformations (with potential dummycoding) are typically unknown.
 		
+		// worst-case size of recode maps (all values distinct), which can 
+		// exceed the size of the input for many recoded columns
+		long rcdSize = (sizeOnHDFS <= CP_TRANSFORM_UNKNOWN_THRESHOLD_SIZE) ?
+			DataTransform.estimateRecodeMapsInMemorySize(inst, input, sizeOnHDFS) : 0;
+		
 		if( sizeOnHDFS > CP_TRANSFORM_UNKNOWN_THRESHOLD_SIZE 
-				|| sizeOnHDFS*4 > OptimizerUtils.getLocalMemBudget() )
+				|| sizeOnHDFS*4 + rcdSize > OptimizerUtils.getLocalMemBudget() )
 			ret = false;
-		LOG.info("checkCPTransform(): size = " + sizeOnHDFS + ", recompile to CP = " + ret);
+		LOG.info("checkCPTransform(): size = " + sizeOnHDFS + ", recode maps = " + rcdSize + ", recompile to CP = " + ret);
 		return ret;
 	}
 	
@@ -2103,6 +2110,21 @@ public class Recompiler
 						br.close();
 				}
 			}
+			
+			//exact dims and nnz from the block index header of binary block files 
+			//(if available and nnz unknown)
+			if( dop.getDataType()==DataType.MATRIX && dop.getInputFormatType()==FileFormatTypes.BINARY 
+				&& dop.getNnz() < 0 )
+			{
+				BinaryBlockIndex ix = BinaryBlockIndex.readIndex(dop.getFileName(), true);
+				if( ix != null && (!dop.dimsKnown() 
+					|| (ix.getNumRows()==dop.getDim1() && ix.getNumColumns()==dop.getDim2())) ) 
+				{
+					dop.setDim1(ix.getNumRows());
+					dop.setDim2(ix.getNumColumns());
+					dop.setNnz(ix.getNonZeros());
+				}
+			}
 		}
 		catch(Exception ex)
 		{
@@ -18,6 +18,7 @@
 package com.ibm.bi.dml.hops.rewrite;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 
 import com.ibm.bi.dml.api.DMLScript;
 import com.ibm.bi.dml.api.DMLScript.RUNTIME_PLATFORM;
@@ -28,18 +29,24 @@ import com.ibm.bi.dml.hops.Hop.DataOpTypes;
 import com.ibm.bi.dml.hops.Hop.FileFormatTypes;
 import com.ibm.bi.dml.hops.Hop.ParamBuiltinOp;
 import com.ibm.bi.dml.hops.HopsException;
+import com.ibm.bi.dml.hops.OptimizerUtils;
 import com.ibm.bi.dml.hops.ParameterizedBuiltinOp;
+import com.ibm.bi.dml.parser.DMLProgram;
 import com.ibm.bi.dml.parser.DMLTranslator;
+import com.ibm.bi.dml.parser.LanguageException;
 import com.ibm.bi.dml.parser.Expression.DataType;
 
 /**
  * Rule: BlockSizeAndReblock. For all statement blocks, determine
- * "optimal" block size, and place reblock Hops. For now, we just
- * use BlockSize 1K x 1K and do reblock after Persistent Reads and
- * before Persistent Writes.
+ * "optimal" block size, and place reblock Hops. By default, we 
+ * use BlockSize 1K x 1K (see selectBlocksize for the adaptive, 
+ * program-wide selection) and do reblock after Persistent Reads 
+ * and before Persistent Writes.
  */
 public class RewriteBlockSizeAndReblock extends HopRewriteRule
 {
+	//candidate block sizes of adaptive selection (multiples of default block size)
+	private static final int[] ADAPTIVE_BLOCKSIZE_FACTORS = new int[]{16, 8, 4, 2};
 	
 	@Override
 	public ArrayList<Hop> rewriteHopDAGs(ArrayList<Hop> roots, ProgramRewriteStatus state)
@@ -239,4 +246,125 @@ public class RewriteBlockSizeAndReblock extends HopRewriteRule
 	private static boolean isReblockValid() {
 		return ( DMLScript.rtplatform != RUNTIME_PLATFORM.SINGLE_NODE);
 	}
+	
+	/**
+	 * Cost-based selection of a program-wide block size according to the shapes and 
+	 * sparsity of all persistent matrix reads. We select the largest candidate block 
+	 * size (multiples of the default block size) such that (1) the estimated in-memory 
+	 * size of the largest block of any read does not exceed the size of a dense block 
+	 * of default block size, and (2) no binary block read requires an additional reblock. 
+	 * Hence, larger blocks are only used for vectors and (ultra-)sparse matrices, where 
+	 * the default leads to many tiny blocks and thus per-block and shuffle overheads. 
+	 * 
+	 * Note: The block size is selected per program and not per hop because binary 
+	 * operations, matrix multiplications, append etc require aligned blocks of their 
+	 * inputs, including transient variables across statement blocks.
+	 * 
+	 * @param dmlp
+	 * @param defaultBlocksize
+	 * @return
+	 * @throws HopsException
+	 * @throws LanguageException
+	 */
+	public static int selectBlocksize( DMLProgram dmlp, int defaultBlocksize ) 
+		throws HopsException, LanguageException
+	{
+		//collect all persistent matrix reads of the program
+		PersistentReadCollector collector = new PersistentReadCollector();
+		ProgramRewriter rewriter = new ProgramRewriter(collector);
+		rewriter.rewriteProgramHopDAGs(dmlp);
+		ArrayList<Hop> reads = collector.getPersistentReads();
+		
+		//check for unknown sizes (conservatively use default block size)
+		if( reads.isEmpty() )
+			return defaultBlocksize;
+		for( Hop read : reads )
+			if( !read.dimsKnown() )
+				return defaultBlocksize;
+		
+		//select largest valid candidate block size
+		long maxBlockSize = OptimizerUtils.estimateSizeExactSparsity(
+				defaultBlocksize, defaultBlocksize, 1.0);
+		for( int factor : ADAPTIVE_BLOCKSIZE_FACTORS )
+		{
+			int blocksize = factor * defaultBlocksize;
+			boolean valid = true;
+			for( Hop read : reads ) 
+			{
+				//binary block reads w/ different block sizes would require a reblock
+				if( ((DataOp)read).getInputFormatType() == FileFormatTypes.BINARY 
+					&& (read.getRowsInBlock() != blocksize || read.getColsInBlock() != blocksize) ) {
+					valid = false;
+					break;
+				}
+				
+				//estimate size of largest block (dense if nnz unknown)
+				double sp = (read.getNnz() >= 0) ? 
+					OptimizerUtils.getSparsity(read.getDim1(), read.getDim2(), read.getNnz()) : 1.0;
+				long size = OptimizerUtils.estimateSizeExactSparsity(
+					Math.min(read.getDim1(), blocksize), Math.min(read.getDim2(), blocksize), sp);
+				if( size > maxBlockSize ) {
+					valid = false;
+					break;
+				}
+			}
+			
+			if( valid ) {
+				LOG.debug("Selected adaptive block size "+blocksize+" for "+reads.size()+" persistent reads.");
+				return blocksize;
+			}
+		}
+		
+		return defaultBlocksize;
+	}
+	
+	/**
+	 * Read-only rule for collecting all persistent matrix reads of a program
+	 * (without modifying the hop dags or their visit status).
+	 */
+	private static class PersistentReadCollector extends HopRewriteRule
+	{
+		private HashSet<Long> _memo = new HashSet<Long>();
+		private ArrayList<Hop> _reads = new ArrayList<Hop>();
+		
+		public ArrayList<Hop> getPersistentReads() {
+			return _reads;
+		}
+		
+		@Override
+		public ArrayList<Hop> rewriteHopDAGs(ArrayList<Hop> roots, ProgramRewriteStatus state) 
+			throws HopsException 
+		{
+			if( roots != null )
+				for( Hop h : roots )
+					rCollectPersistentReads(h);
+			return roots;
+		}
+
+		@Override
+		public Hop rewriteHopDAG(Hop root, ProgramRewriteStatus state) 
+			throws HopsException 
+		{
+			if( root != null )
+				rCollectPersistentReads(root);
+			return root;
+		}
+		
+		private void rCollectPersistentReads(Hop hop)
+		{
+			if( _memo.contains(hop.getHopID()) )
+				return;
+			
+			for( Hop hi : hop.getInput() )
+				rCollectPersistentReads(hi);
+			
+			if( hop instanceof DataOp && hop.getDataType() == DataType.MATRIX
+				&& ((DataOp)hop).getDataOpType() == DataOpTypes.PERSISTENTREAD )
+			{
+				_reads.add(hop);
+			}
+			
+			_memo.add(hop.getHopID());
+		}
+	}
 }
@@ -102,6 +102,20 @@ public class Binary extends Lop
 		return getOpcode( operation );
 	}
 	
+	/**
+	 * Indicates if the operation is a cellwise arithmetic operation, which
+	 * supports multi-threaded execution in CP.
+	 * 
+	 * @return
+	 */
+	private boolean isArithmeticOperation()
+	{
+		return (   operation == OperationTypes.ADD || operation == OperationTypes.SUBTRACT
+				|| operation == OperationTypes.MULTIPLY || operation == OperationTypes.DIVIDE
+				|| operation == OperationTypes.MODULUS || operation == OperationTypes.INTDIV
+				|| operation == OperationTypes.MINUS1_MULTIPLY || operation == OperationTypes.POW );
+	}
+	
 	public static String getOpcode( OperationTypes op ) {
 		switch(op) {
 		/* Arithmetic */
@@ -177,8 +191,8 @@ public class Binary extends Lop
 		
 		sb.append( this.prepOutputOperand(output));
 		
-		//append degree of parallelism for matrix multiplications
-		if( operation == OperationTypes.MATMULT && getExecType()==ExecType.CP ) {
+		//append degree of parallelism for matrix multiplications and cellwise arithmetic
+		if( (operation == OperationTypes.MATMULT || isArithmeticOperation()) && getExecType()==ExecType.CP ) {
 			sb.append( OPERAND_DELIMITOR );
 			sb.append( numThreads );
 		}	
@@ -38,6 +38,8 @@ public class GroupedAggregate extends Lop
 	private static final String opcode = "groupedagg";
 	public static final String COMBINEDINPUT = "combinedinput";
 	
+	private int _numThreads = 1;
+	
 	/**
 	 * Constructor to perform grouped aggregate.
 	 * inputParameterLops <- parameters required to compute different aggregates (hashmap)
@@ -115,6 +117,13 @@ public class GroupedAggregate extends Lop
 		super(Lop.Type.GroupedAgg, dt, vt);
 		init(inputParameterLops, dt, vt, et);
 	}
+	
+	public GroupedAggregate(
+			HashMap<String, Lop> inputParameterLops, 
+			DataType dt, ValueType vt, ExecType et, int k) {
+		this(inputParameterLops, dt, vt, et);
+		_numThreads = k;
+	}
 
 	@Override
 	public String toString() {
@@ -177,6 +186,14 @@ public class GroupedAggregate extends Lop
 			}
 		}
 		
+		//append degree of parallelism
+		if( getExecType()==ExecType.CP ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append( Statement.GAGG_NUM_THREADS );
+			sb.append( Lop.NAME_VALUE_SEPARATOR );
+			sb.append( _numThreads );
+		}
+		
 		sb.append( OPERAND_DELIMITOR );
 		sb.append( this.prepOutputOperand(output));
 		
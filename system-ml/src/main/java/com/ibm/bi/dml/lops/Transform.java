@@ -43,6 +43,9 @@ public class Transform extends Lop
 	
 	private OperationTypes operation = null;
 	
+	//cp-specific parameters
+	private int _numThreads = 1;
+	
 	/**
 	 * Constructor when we have one input.
 	 * @param input
@@ -50,9 +53,15 @@ public class Transform extends Lop
 	 */
 
 	public Transform(Lop input, Transform.OperationTypes op, DataType dt, ValueType vt, ExecType et) 
+	{
+		this(input, op, dt, vt, et, 1);
+	}
+	
+	public Transform(Lop input, Transform.OperationTypes op, DataType dt, ValueType vt, ExecType et, int k) 
 	{
 		super(Lop.Type.Transform, dt, vt);		
 		init(input, op, dt, vt, et);
+		_numThreads = k;
 	}
 	
 	public Transform(Lop input, Transform.OperationTypes op, DataType dt, ValueType vt) 
@@ -160,6 +169,12 @@ public class Transform extends Lop
 		sb.append( OPERAND_DELIMITOR );
 		sb.append( this.prepOutputOperand(output));
 		
+		//append degree of parallelism for transpose
+		if( getExecType()==ExecType.CP && operation == OperationTypes.Transpose ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append( _numThreads );
+		}
+		
 		return sb.toString();
 	}
 
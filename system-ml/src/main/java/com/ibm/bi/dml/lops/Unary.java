@@ -44,6 +44,9 @@ public class Unary extends Lop
 	OperationTypes operation;
 
 	Lop valInput;
+	
+	//cp-specific parameters
+	private int numThreads = 1;
 
 	/**
 	 * Constructor to perform a unary operation with 2 inputs
@@ -53,8 +56,13 @@ public class Unary extends Lop
 	 */
 
 	public Unary(Lop input1, Lop input2, OperationTypes op, DataType dt, ValueType vt, ExecType et) {
+		this(input1, input2, op, dt, vt, et, 1);
+	}
+	
+	public Unary(Lop input1, Lop input2, OperationTypes op, DataType dt, ValueType vt, ExecType et, int k) {
 		super(Lop.Type.UNARY, dt, vt);
 		init(input1, input2, op, dt, vt, et);
+		numThreads = k;
 	}
 	
 	public Unary(Lop input1, Lop input2, OperationTypes op, DataType dt, ValueType vt) {
@@ -104,8 +112,13 @@ public class Unary extends Lop
 	 * @param op
 	 */
 	public Unary(Lop input1, OperationTypes op, DataType dt, ValueType vt, ExecType et) {
+		this(input1, op, dt, vt, et, 1);
+	}
+	
+	public Unary(Lop input1, OperationTypes op, DataType dt, ValueType vt, ExecType et, int k) {
 		super(Lop.Type.UNARY, dt, vt);
 		init(input1, op, dt, vt, et);
+		numThreads = k;
 	}
 	
 	public Unary(Lop input1, OperationTypes op, DataType dt, ValueType vt) {
@@ -308,6 +321,12 @@ public class Unary extends Lop
 			sb.append( OPERAND_DELIMITOR );
 			sb.append( this.prepOutputOperand(output));
 			
+			//append degree of parallelism for cellwise builtin functions
+			if( getExecType() == ExecType.CP && isMultiThreadedOp(operation) ) {
+				sb.append( OPERAND_DELIMITOR );
+				sb.append( numThreads );
+			}
+			
 			return sb.toString();
 
 		} else {
@@ -351,9 +370,40 @@ public class Unary extends Lop
 		
 		sb.append( this.prepOutputOperand(output));
 		
+		//append degree of parallelism for matrix-scalar arithmetic
+		if( getExecType() == ExecType.CP && isMultiThreadedOp(operation) ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append( numThreads );
+		}
+		
 		return sb.toString();
 	}
 	
+	/**
+	 * Indicates if the given operation supports multi-threaded execution in CP, 
+	 * i.e., matrix-scalar arithmetic and cellwise builtin functions. Note that 
+	 * log is excluded because its instruction type is determined by the number 
+	 * of operands.
+	 * 
+	 * @param op
+	 * @return
+	 */
+	public static boolean isMultiThreadedOp(OperationTypes op)
+	{
+		switch( op ) {
+			//matrix-scalar arithmetic
+			case ADD: case SUBTRACT: case SUBTRACT_NZ: case MULTIPLY: case MULTIPLY2: 
+			case DIVIDE: case MODULUS: case INTDIV: case MINUS1_MULTIPLY: case POW: case POW2:
+			//unary cellwise builtin functions
+			case ABS: case SIN: case COS: case TAN: case ASIN: case ACOS: case ATAN: 
+			case SQRT: case EXP: case ROUND: case CEIL: case FLOOR: 
+			case SPROP: case SIGMOID: case SELP:
+				return true;
+			default:
+				return false;
+		}
+	}
+	
 	@Override
 	public String getInstructions(int inputIndex1, int inputIndex2,
 			int outputIndex) throws LopsException {
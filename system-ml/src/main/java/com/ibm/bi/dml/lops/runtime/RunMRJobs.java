@@ -35,6 +35,7 @@ import com.ibm.bi.dml.parser.Expression.ValueType;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.DMLUnsupportedOperationException;
 import com.ibm.bi.dml.runtime.controlprogram.LocalVariableMap;
+import com.ibm.bi.dml.runtime.controlprogram.caching.AsyncExportQueue;
 import com.ibm.bi.dml.runtime.controlprogram.caching.MatrixObject;
 import com.ibm.bi.dml.runtime.controlprogram.context.ExecutionContext;
 import com.ibm.bi.dml.runtime.controlprogram.parfor.mqo.RuntimePiggybacking;
@@ -96,6 +97,10 @@ public class RunMRJobs
 		// Obtain references to all input matrices 
 		MatrixObject[] inputMatrices = inst.extractInputMatrices(ec);
 		
+		// wait for pending asynchronous exports of inputs
+		for(MatrixObject m : inputMatrices)
+			AsyncExportQueue.waitForPendingExports(m.getFileName());
+		
 		// export dirty matrices to HDFS
 		// note: for REBLOCK postponed until we know if necessary
 		if( !(inst.getJobType() == JobType.REBLOCK) )
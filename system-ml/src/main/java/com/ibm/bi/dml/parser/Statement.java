@@ -57,6 +57,7 @@ public abstract class Statement
 	public static final String GAGG_FN_CM       = "centralmoment";
 	public static final String GAGG_FN_CM_ORDER = "order";
 	public static final String GAGG_NUM_GROUPS  = "ngroups";
+	public static final String GAGG_NUM_THREADS = "k";
 	
 	public abstract boolean controlStatement();
 	
@@ -0,0 +1,199 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.compress;
+
+import java.io.Serializable;
+
+import com.ibm.bi.dml.runtime.instructions.cp.KahanObject;
+
+/**
+ * Abstract class for a group of columns of a compressed matrix block. Each
+ * column group stores the values of its columns for all rows of the block
+ * in an encoding-specific representation and implements the operations on
+ * compressed data (matrix-vector, vector-matrix, aggregates) directly over
+ * this representation, i.e., without decompression.
+ *
+ * Known implementation classes:
+ *    - ColGroupOLE (dictionary of distinct values, offset lists per value)
+ *    - ColGroupRLE (dictionary of distinct values, runs per value)
+ *    - ColGroupUncompressed (uncompressed matrix block of the columns)
+ *
+ */
+public abstract class ColGroup implements Serializable
+{
+	private static final long serialVersionUID = 2439785418908671481L;
+
+	public enum CompressionType {
+		OLE,          //offset-list encoding
+		RLE,          //run-length encoding
+		UNCOMPRESSED, //uncompressed matrix block
+	}
+
+	//column indexes of the group (w.r.t. the compressed matrix block)
+	protected int[] _colIndexes = null;
+
+	//number of rows of the group (i.e., of the compressed matrix block)
+	protected int _numRows = -1;
+
+	protected ColGroup(int[] colIndexes, int numRows)
+	{
+		_colIndexes = colIndexes;
+		_numRows = numRows;
+	}
+
+	/**
+	 * Get the column indexes of this group.
+	 *
+	 * @return
+	 */
+	public int[] getColIndices()
+	{
+		return _colIndexes;
+	}
+
+	/**
+	 * Get the number of columns of this group.
+	 *
+	 * @return
+	 */
+	public int getNumCols()
+	{
+		return _colIndexes.length;
+	}
+
+	/**
+	 * Get the number of rows of this group.
+	 *
+	 * @return
+	 */
+	public int getNumRows()
+	{
+		return _numRows;
+	}
+
+	/**
+	 * Get the position of the given column index within this group,
+	 * or -1 if the column is not part of this group.
+	 *
+	 * @param colIx
+	 * @return
+	 */
+	public int getColPos(int colIx)
+	{
+		for( int j=0; j<_colIndexes.length; j++ )
+			if( _colIndexes[j] == colIx )
+				return j;
+		return -1;
+	}
+
+	/**
+	 * Get the type of compression of this group.
+	 *
+	 * @return
+	 */
+	public abstract CompressionType getCompressionType();
+
+	/**
+	 * Get the number of non-zero values of this group.
+	 *
+	 * @return
+	 */
+	public abstract long getNonZeros();
+
+	/**
+	 * Get the in-memory size of this group in bytes.
+	 *
+	 * @return
+	 */
+	public abstract long estimateInMemorySize();
+
+	/**
+	 * Get the value of cell (r, c), where c is a column index of the
+	 * compressed matrix block, contained in this group.
+	 *
+	 * @param r
+	 * @param c
+	 * @return
+	 */
+	public abstract double get(int r, int c);
+
+	/**
+	 * Decompress the group into the given dense row-major array with
+	 * clen columns, where all other cells are left unchanged.
+	 *
+	 * @param c
+	 * @param clen
+	 */
+	public abstract void decompressToBlock(double[] c, int clen);
+
+	/**
+	 * Decompress the given column of the compressed matrix block, contained
+	 * in this group, into the given dense column vector of length numRows.
+	 *
+	 * @param c
+	 * @param colIx
+	 */
+	public abstract void decompressToColumn(double[] c, int colIx);
+
+	/**
+	 * Multiply the group with the given dense column vector (of length clen
+	 * of the compressed matrix block) and add the results of rows rl to ru-1
+	 * to the given dense output vector, i.e., c[rl:ru] += X[rl:ru,cols] %*% b[cols].
+	 *
+	 * @param b
+	 * @param c
+	 * @param rl
+	 * @param ru
+	 */
+	public abstract void rightMultByVector(double[] b, double[] c, int rl, int ru);
+
+	/**
+	 * Multiply the given dense row vector (of length numRows) with the group
+	 * and add the results to the given dense output vector (of length clen of
+	 * the compressed matrix block), i.e., c[cols] += a %*% X[,cols].
+	 *
+	 * @param a
+	 * @param c
+	 */
+	public abstract void leftMultByRowVector(double[] a, double[] c);
+
+	/**
+	 * Compute the sum of all values of this group.
+	 *
+	 * @param kbuff
+	 */
+	public abstract void computeSum(KahanObject kbuff);
+
+	/**
+	 * Compute the column sums of this group and add them to the given dense
+	 * output vector (of length clen of the compressed matrix block).
+	 *
+	 * @param c
+	 */
+	public abstract void computeColSums(double[] c);
+
+	/**
+	 * Compute the row sums of rows rl to ru-1 of this group and add them to
+	 * the given dense output vector (of length numRows).
+	 *
+	 * @param c
+	 * @param rl
+	 * @param ru
+	 */
+	public abstract void computeRowSums(double[] c, int rl, int ru);
+}
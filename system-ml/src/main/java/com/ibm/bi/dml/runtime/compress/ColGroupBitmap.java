@@ -0,0 +1,199 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.compress;
+
+import java.util.Arrays;
+
+import com.ibm.bi.dml.runtime.functionobjects.KahanPlus;
+import com.ibm.bi.dml.runtime.instructions.cp.KahanObject;
+
+/**
+ * Base class for dictionary-based column groups, which store the distinct
+ * non-zero value tuples of their columns once and encode, per distinct tuple,
+ * the rows in which it occurs. Rows that are not encoded are zero. The row
+ * encoding is stored in a single int array, where the encoding of tuple k
+ * is located at positions _ptr[k] to _ptr[k+1]-1.
+ *
+ */
+public abstract class ColGroupBitmap extends ColGroup
+{
+	private static final long serialVersionUID = -1635828933479403125L;
+
+	//distinct value tuples (row-major, size: numVals * numCols)
+	protected double[] _values = null;
+
+	//pointers to the row encodings of distinct tuples (size: numVals+1)
+	protected int[] _ptr = null;
+
+	//row encodings of all distinct tuples (offsets or runs)
+	protected int[] _data = null;
+
+	protected ColGroupBitmap(int[] colIndexes, int numRows, double[] values, int[] ptr, int[] data)
+	{
+		super(colIndexes, numRows);
+		_values = values;
+		_ptr = ptr;
+		_data = data;
+	}
+
+	/**
+	 * Get the number of distinct value tuples.
+	 *
+	 * @return
+	 */
+	public int getNumValues()
+	{
+		return _ptr.length - 1;
+	}
+
+	/**
+	 * Get the number of rows in which the given distinct tuple occurs.
+	 *
+	 * @param k
+	 * @return
+	 */
+	protected abstract int getCount(int k);
+
+	/**
+	 * Compute, per distinct tuple, the dot product of the tuple with the
+	 * respective entries of the given dense vector.
+	 *
+	 * @param b
+	 * @return
+	 */
+	protected double[] preaggregate(double[] b)
+	{
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		double[] ret = new double[numVals];
+		for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols ) {
+			double val = 0;
+			for( int j=0; j<numCols; j++ )
+				val += _values[valOff+j] * b[_colIndexes[j]];
+			ret[k] = val;
+		}
+		return ret;
+	}
+
+	/**
+	 * Compute, per distinct tuple, the sum of the tuple values.
+	 *
+	 * @return
+	 */
+	protected double[] sumValues()
+	{
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		double[] ret = new double[numVals];
+		for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols ) {
+			double val = 0;
+			for( int j=0; j<numCols; j++ )
+				val += _values[valOff+j];
+			ret[k] = val;
+		}
+		return ret;
+	}
+
+	/**
+	 * Add the given per-tuple aggregates, weighted by the tuple values,
+	 * to the entries of the given dense vector at the group's columns.
+	 *
+	 * @param aggs
+	 * @param c
+	 */
+	protected void postScaling(double[] aggs, double[] c)
+	{
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols ) {
+			double agg = aggs[k];
+			if( agg != 0 )
+				for( int j=0; j<numCols; j++ )
+					c[_colIndexes[j]] += agg * _values[valOff+j];
+		}
+	}
+
+	@Override
+	public long getNonZeros()
+	{
+		//note: tuples are non-zero, but might contain individual zeros
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		long nnz = 0;
+		for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols ) {
+			int cnt = getCount(k);
+			for( int j=0; j<numCols; j++ )
+				nnz += (_values[valOff+j]!=0) ? cnt : 0;
+		}
+		return nnz;
+	}
+
+	@Override
+	public long estimateInMemorySize()
+	{
+		//object overhead, 4 array references, 1 int, and array contents
+		long size = 52;
+		size += 16 + 4 * _colIndexes.length;
+		size += 16 + 8 * _values.length;
+		size += 16 + 4 * _ptr.length;
+		size += 16 + 4 * _data.length;
+		return size;
+	}
+
+	@Override
+	public void computeSum(KahanObject kbuff)
+	{
+		KahanPlus kplus = KahanPlus.getKahanPlusFnObject();
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols ) {
+			int cnt = getCount(k);
+			for( int j=0; j<numCols; j++ )
+				kplus.execute2(kbuff, cnt * _values[valOff+j]);
+		}
+	}
+
+	@Override
+	public void computeColSums(double[] c)
+	{
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols ) {
+			int cnt = getCount(k);
+			for( int j=0; j<numCols; j++ )
+				c[_colIndexes[j]] += cnt * _values[valOff+j];
+		}
+	}
+
+	@Override
+	public void decompressToBlock(double[] c, int clen)
+	{
+		final int numCols = getNumCols();
+		double[] tmp = new double[_numRows];
+		for( int j=0; j<numCols; j++ ) {
+			//decompress column-wise in order to reuse the row iteration
+			decompressToColumn(tmp, _colIndexes[j]);
+			int cix = _colIndexes[j];
+			for( int i=0, cpos=cix; i<_numRows; i++, cpos+=clen )
+				if( tmp[i] != 0 )
+					c[cpos] = tmp[i];
+			if( j < numCols-1 )
+				Arrays.fill(tmp, 0);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.compress;
+
+import java.util.Arrays;
+
+/**
+ * Column group with offset-list encoding (OLE), which stores, per distinct
+ * value tuple, the sorted list of row indexes in which it occurs. OLE is
+ * beneficial for columns with few distinct values but scattered occurrences.
+ *
+ */
+public class ColGroupOLE extends ColGroupBitmap
+{
+	private static final long serialVersionUID = -4802916390271366217L;
+
+	/**
+	 * Creates an OLE column group from the given distinct tuples and
+	 * sorted offset lists (no copy).
+	 *
+	 * @param colIndexes
+	 * @param numRows
+	 * @param values
+	 * @param ptr
+	 * @param offsets
+	 */
+	public ColGroupOLE(int[] colIndexes, int numRows, double[] values, int[] ptr, int[] offsets)
+	{
+		super(colIndexes, numRows, values, ptr, offsets);
+	}
+
+	@Override
+	public CompressionType getCompressionType()
+	{
+		return CompressionType.OLE;
+	}
+
+	@Override
+	protected int getCount(int k)
+	{
+		return _ptr[k+1] - _ptr[k];
+	}
+
+	@Override
+	public double get(int r, int c)
+	{
+		int j = getColPos(c);
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		for( int k=0; k<numVals; k++ )
+			if( Arrays.binarySearch(_data, _ptr[k], _ptr[k+1], r) >= 0 )
+				return _values[k*numCols+j];
+		return 0;
+	}
+
+	@Override
+	public void decompressToColumn(double[] c, int colIx)
+	{
+		int j = getColPos(colIx);
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		for( int k=0; k<numVals; k++ ) {
+			double val = _values[k*numCols+j];
+			for( int pos=_ptr[k]; pos<_ptr[k+1]; pos++ )
+				c[_data[pos]] = val;
+		}
+	}
+
+	@Override
+	public void rightMultByVector(double[] b, double[] c, int rl, int ru)
+	{
+		//pre-aggregate tuple values with the vector (once per tuple)
+		double[] aggs = preaggregate(b);
+
+		//scatter pre-aggregates to the rows of all offset lists
+		final int numVals = getNumValues();
+		for( int k=0; k<numVals; k++ ) {
+			double val = aggs[k];
+			if( val == 0 )
+				continue;
+			int pos = (rl==0) ? _ptr[k] : skipScan(k, rl);
+			int end = _ptr[k+1];
+			for( ; pos<end && _data[pos]<ru; pos++ )
+				c[_data[pos]] += val;
+		}
+	}
+
+	@Override
+	public void leftMultByRowVector(double[] a, double[] c)
+	{
+		//aggregate vector entries per offset list
+		final int numVals = getNumValues();
+		double[] aggs = new double[numVals];
+		for( int k=0; k<numVals; k++ ) {
+			double agg = 0;
+			for( int pos=_ptr[k]; pos<_ptr[k+1]; pos++ )
+				agg += a[_data[pos]];
+			aggs[k] = agg;
+		}
+
+		//scale aggregates by the tuple values
+		postScaling(aggs, c);
+	}
+
+	@Override
+	public void computeRowSums(double[] c, int rl, int ru)
+	{
+		double[] vals = sumValues();
+		final int numVals = getNumValues();
+		for( int k=0; k<numVals; k++ ) {
+			double val = vals[k];
+			int pos = (rl==0) ? _ptr[k] : skipScan(k, rl);
+			int end = _ptr[k+1];
+			for( ; pos<end && _data[pos]<ru; pos++ )
+				c[_data[pos]] += val;
+		}
+	}
+
+	/**
+	 * Get the position of the first offset of tuple k that is greater
+	 * than or equal to the given row index.
+	 *
+	 * @param k
+	 * @param rl
+	 * @return
+	 */
+	private int skipScan(int k, int rl)
+	{
+		int pos = Arrays.binarySearch(_data, _ptr[k], _ptr[k+1], rl);
+		return (pos >= 0) ? pos : -(pos+1);
+	}
+}
@@ -0,0 +1,154 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.compress;
+
+/**
+ * Column group with run-length encoding (RLE), which stores, per distinct
+ * value tuple, the sorted list of (start row, run length) pairs of its runs.
+ * RLE is beneficial for columns with few distinct values and long runs, e.g.,
+ * sorted or clustered columns.
+ *
+ */
+public class ColGroupRLE extends ColGroupBitmap
+{
+	private static final long serialVersionUID = 7450232907594748177L;
+
+	/**
+	 * Creates an RLE column group from the given distinct tuples and
+	 * sorted (start, length) run pairs (no copy).
+	 *
+	 * @param colIndexes
+	 * @param numRows
+	 * @param values
+	 * @param ptr
+	 * @param runs
+	 */
+	public ColGroupRLE(int[] colIndexes, int numRows, double[] values, int[] ptr, int[] runs)
+	{
+		super(colIndexes, numRows, values, ptr, runs);
+	}
+
+	@Override
+	public CompressionType getCompressionType()
+	{
+		return CompressionType.RLE;
+	}
+
+	@Override
+	protected int getCount(int k)
+	{
+		int cnt = 0;
+		for( int pos=_ptr[k]; pos<_ptr[k+1]; pos+=2 )
+			cnt += _data[pos+1];
+		return cnt;
+	}
+
+	@Override
+	public double get(int r, int c)
+	{
+		int j = getColPos(c);
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		for( int k=0; k<numVals; k++ )
+			for( int pos=_ptr[k]; pos<_ptr[k+1] && _data[pos]<=r; pos+=2 )
+				if( r < _data[pos]+_data[pos+1] )
+					return _values[k*numCols+j];
+		return 0;
+	}
+
+	@Override
+	public void decompressToColumn(double[] c, int colIx)
+	{
+		int j = getColPos(colIx);
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		for( int k=0; k<numVals; k++ ) {
+			double val = _values[k*numCols+j];
+			for( int pos=_ptr[k]; pos<_ptr[k+1]; pos+=2 ) {
+				int start = _data[pos];
+				int end = start + _data[pos+1];
+				for( int i=start; i<end; i++ )
+					c[i] = val;
+			}
+		}
+	}
+
+	@Override
+	public void rightMultByVector(double[] b, double[] c, int rl, int ru)
+	{
+		//pre-aggregate tuple values with the vector (once per tuple)
+		double[] aggs = preaggregate(b);
+
+		//scatter pre-aggregates to the rows of all overlapping runs
+		final int numVals = getNumValues();
+		for( int k=0; k<numVals; k++ ) {
+			double val = aggs[k];
+			if( val != 0 )
+				addToRuns(k, val, c, rl, ru);
+		}
+	}
+
+	@Override
+	public void leftMultByRowVector(double[] a, double[] c)
+	{
+		//aggregate vector entries per run
+		final int numVals = getNumValues();
+		double[] aggs = new double[numVals];
+		for( int k=0; k<numVals; k++ ) {
+			double agg = 0;
+			for( int pos=_ptr[k]; pos<_ptr[k+1]; pos+=2 ) {
+				int start = _data[pos];
+				int end = start + _data[pos+1];
+				for( int i=start; i<end; i++ )
+					agg += a[i];
+			}
+			aggs[k] = agg;
+		}
+
+		//scale aggregates by the tuple values
+		postScaling(aggs, c);
+	}
+
+	@Override
+	public void computeRowSums(double[] c, int rl, int ru)
+	{
+		double[] vals = sumValues();
+		final int numVals = getNumValues();
+		for( int k=0; k<numVals; k++ )
+			addToRuns(k, vals[k], c, rl, ru);
+	}
+
+	/**
+	 * Add the given value to all rows of tuple k's runs within rows rl to ru-1.
+	 *
+	 * @param k
+	 * @param val
+	 * @param c
+	 * @param rl
+	 * @param ru
+	 */
+	private void addToRuns(int k, double val, double[] c, int rl, int ru)
+	{
+		for( int pos=_ptr[k]; pos<_ptr[k+1] && _data[pos]<ru; pos+=2 ) {
+			int start = Math.max(_data[pos], rl);
+			int end = Math.min(_data[pos]+_data[pos+1], ru);
+			for( int i=start; i<end; i++ )
+				c[i] += val;
+		}
+	}
+}
@@ -0,0 +1,231 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.compress;
+
+import java.util.Arrays;
+
+import com.ibm.bi.dml.runtime.functionobjects.KahanPlus;
+import com.ibm.bi.dml.runtime.instructions.cp.KahanObject;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.data.SparseBlock;
+
+/**
+ * Column group that stores its columns as a regular (dense or sparse) matrix
+ * block, which is used for all columns that do not benefit from compression,
+ * e.g., columns with many distinct values.
+ *
+ */
+public class ColGroupUncompressed extends ColGroup
+{
+	private static final long serialVersionUID = 4870546053280378891L;
+
+	//uncompressed data of the group's columns (size: numRows x numCols)
+	private MatrixBlock _data = null;
+
+	/**
+	 * Creates an uncompressed column group from the given matrix block,
+	 * whose columns correspond to the given column indexes (no copy).
+	 *
+	 * @param colIndexes
+	 * @param data
+	 */
+	public ColGroupUncompressed(int[] colIndexes, MatrixBlock data)
+	{
+		super(colIndexes, data.getNumRows());
+		_data = data;
+	}
+
+	/**
+	 * Get the underlying matrix block of this group.
+	 *
+	 * @return
+	 */
+	public MatrixBlock getData()
+	{
+		return _data;
+	}
+
+	@Override
+	public CompressionType getCompressionType()
+	{
+		return CompressionType.UNCOMPRESSED;
+	}
+
+	@Override
+	public long getNonZeros()
+	{
+		return _data.getNonZeros();
+	}
+
+	@Override
+	public long estimateInMemorySize()
+	{
+		//object overhead, 2 references, 1 int, column indexes, and data
+		return 36 + 16 + 4 * _colIndexes.length + _data.estimateSizeInMemory();
+	}
+
+	@Override
+	public double get(int r, int c)
+	{
+		return _data.quickGetValue(r, getColPos(c));
+	}
+
+	@Override
+	public void decompressToBlock(double[] c, int clen)
+	{
+		if( _data.isEmptyBlock(false) )
+			return;
+		final int numCols = getNumCols();
+		if( _data.isInSparseFormat() ) {
+			SparseBlock a = _data.getSparseBlock();
+			for( int i=0, cix=0; i<_numRows; i++, cix+=clen ) {
+				if( a.isEmpty(i) )
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for( int p=apos; p<apos+alen; p++ )
+					c[cix+_colIndexes[aix[p]]] = avals[p];
+			}
+		}
+		else {
+			double[] a = _data.getDenseArray();
+			for( int i=0, aix=0, cix=0; i<_numRows; i++, aix+=numCols, cix+=clen )
+				for( int j=0; j<numCols; j++ )
+					if( a[aix+j] != 0 )
+						c[cix+_colIndexes[j]] = a[aix+j];
+		}
+	}
+
+	@Override
+	public void decompressToColumn(double[] c, int colIx)
+	{
+		int j = getColPos(colIx);
+		for( int i=0; i<_numRows; i++ )
+			c[i] = _data.quickGetValue(i, j);
+	}
+
+	@Override
+	public void rightMultByVector(double[] b, double[] c, int rl, int ru)
+	{
+		if( _data.isEmptyBlock(false) )
+			return;
+		final int numCols = getNumCols();
+		if( _data.isInSparseFormat() ) {
+			SparseBlock a = _data.getSparseBlock();
+			for( int i=rl; i<ru; i++ ) {
+				if( a.isEmpty(i) )
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				double val = 0;
+				for( int p=apos; p<apos+alen; p++ )
+					val += avals[p] * b[_colIndexes[aix[p]]];
+				c[i] += val;
+			}
+		}
+		else {
+			double[] a = _data.getDenseArray();
+			for( int i=rl, aix=rl*numCols; i<ru; i++, aix+=numCols ) {
+				double val = 0;
+				for( int j=0; j<numCols; j++ )
+					val += a[aix+j] * b[_colIndexes[j]];
+				c[i] += val;
+			}
+		}
+	}
+
+	@Override
+	public void leftMultByRowVector(double[] a, double[] c)
+	{
+		if( _data.isEmptyBlock(false) )
+			return;
+		final int numCols = getNumCols();
+		if( _data.isInSparseFormat() ) {
+			SparseBlock b = _data.getSparseBlock();
+			for( int i=0; i<_numRows; i++ ) {
+				if( a[i] == 0 || b.isEmpty(i) )
+					continue;
+				int bpos = b.pos(i);
+				int blen = b.size(i);
+				int[] bix = b.indexes(i);
+				double[] bvals = b.values(i);
+				for( int p=bpos; p<bpos+blen; p++ )
+					c[_colIndexes[bix[p]]] += a[i] * bvals[p];
+			}
+		}
+		else {
+			double[] b = _data.getDenseArray();
+			for( int i=0, bix=0; i<_numRows; i++, bix+=numCols ) {
+				if( a[i] == 0 )
+					continue;
+				for( int j=0; j<numCols; j++ )
+					c[_colIndexes[j]] += a[i] * b[bix+j];
+			}
+		}
+	}
+
+	@Override
+	public void computeSum(KahanObject kbuff)
+	{
+		if( _data.isEmptyBlock(false) )
+			return;
+		KahanPlus kplus = KahanPlus.getKahanPlusFnObject();
+		if( _data.isInSparseFormat() ) {
+			SparseBlock a = _data.getSparseBlock();
+			for( int i=0; i<_numRows; i++ ) {
+				if( a.isEmpty(i) )
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				for( int p=apos; p<apos+alen; p++ )
+					kplus.execute2(kbuff, avals[p]);
+			}
+		}
+		else {
+			double[] a = _data.getDenseArray();
+			int len = _numRows * getNumCols();
+			for( int i=0; i<len; i++ )
+				kplus.execute2(kbuff, a[i]);
+		}
+	}
+
+	@Override
+	public void computeColSums(double[] c)
+	{
+		double[] ones = new double[_numRows];
+		Arrays.fill(ones, 1);
+		leftMultByRowVector(ones, c);
+	}
+
+	@Override
+	public void computeRowSums(double[] c, int rl, int ru)
+	{
+		//vector of ones w.r.t. the columns of the compressed block
+		int maxCol = 0;
+		for( int j=0; j<_colIndexes.length; j++ )
+			maxCol = Math.max(maxCol, _colIndexes[j]);
+		double[] ones = new double[maxCol+1];
+		Arrays.fill(ones, 1);
+		rightMultByVector(ones, c, rl, ru);
+	}
+}
@@ -0,0 +1,263 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.compress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.data.SparseBlock;
+
+/**
+ * Uncompressed bitmap of a single column, i.e., the distinct non-zero values
+ * of the column and, per distinct value, the ascending list of row indexes
+ * in which it occurs. The bitmap is used to estimate the compressed sizes of
+ * the alternative encodings and to create the selected column group. The
+ * extraction is aborted if the number of distinct values exceeds a given
+ * maximum, in which case the column is not dictionary-encoded.
+ *
+ */
+class ColumnBitmap
+{
+	private HashMap<Double, Integer> _ids = new HashMap<Double, Integer>();
+	private ArrayList<Double> _values = new ArrayList<Double>();
+	private ArrayList<IntArrayList> _offsets = new ArrayList<IntArrayList>();
+	private int _numOffsets = 0;
+	private int _maxDistinct = -1;
+	private boolean _aborted = false;
+
+	protected ColumnBitmap(int maxDistinct)
+	{
+		_maxDistinct = maxDistinct;
+	}
+
+	/**
+	 * Extracts the bitmaps of all columns of the given block in a single
+	 * row-wise pass over the (dense or sparse) input.
+	 *
+	 * @param in
+	 * @param maxDistinct
+	 * @return
+	 */
+	public static ColumnBitmap[] extractBitmaps(MatrixBlock in, int maxDistinct)
+	{
+		final int rlen = in.getNumRows();
+		final int clen = in.getNumColumns();
+		ColumnBitmap[] ret = new ColumnBitmap[clen];
+		for( int j=0; j<clen; j++ )
+			ret[j] = new ColumnBitmap(maxDistinct);
+
+		if( in.isInSparseFormat() ) {
+			SparseBlock a = in.getSparseBlock();
+			for( int i=0; i<rlen; i++ ) {
+				if( a.isEmpty(i) )
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for( int p=apos; p<apos+alen; p++ )
+					if( avals[p] != 0 )
+						ret[aix[p]].add(avals[p], i);
+			}
+		}
+		else {
+			double[] a = in.getDenseArray();
+			for( int i=0, aix=0; i<rlen; i++, aix+=clen )
+				for( int j=0; j<clen; j++ )
+					if( a[aix+j] != 0 )
+						ret[j].add(a[aix+j], i);
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Appends a non-zero value at the given row, where rows are expected
+	 * in ascending order.
+	 *
+	 * @param v
+	 * @param row
+	 */
+	public void add(double v, int row)
+	{
+		if( _aborted )
+			return;
+
+		Integer id = _ids.get(v);
+		if( id == null ) {
+			//abort if too many distinct values
+			if( _values.size() >= _maxDistinct ) {
+				_aborted = true;
+				_ids = null;
+				_values = null;
+				_offsets = null;
+				return;
+			}
+			id = _values.size();
+			_ids.put(v, id);
+			_values.add(v);
+			_offsets.add(new IntArrayList());
+		}
+		_offsets.get(id).add(row);
+		_numOffsets++;
+	}
+
+	/**
+	 * Indicates if the extraction has been aborted due to too many
+	 * distinct values.
+	 *
+	 * @return
+	 */
+	public boolean isAborted()
+	{
+		return _aborted;
+	}
+
+	public int getNumValues()
+	{
+		return _values.size();
+	}
+
+	public int getNumOffsets()
+	{
+		return _numOffsets;
+	}
+
+	/**
+	 * Get the total number of runs of consecutive rows over all values.
+	 *
+	 * @return
+	 */
+	public int getNumRuns()
+	{
+		int runs = 0;
+		for( IntArrayList list : _offsets ) {
+			int[] off = list.values();
+			for( int p=0; p<list.size(); p++ )
+				if( p==0 || off[p] != off[p-1]+1 )
+					runs++;
+		}
+		return runs;
+	}
+
+	/**
+	 * Estimate the in-memory size of the OLE encoding in bytes.
+	 *
+	 * @return
+	 */
+	public long estimateSizeOLE()
+	{
+		return 8L * getNumValues() + 4L * (getNumValues()+1) + 4L * getNumOffsets();
+	}
+
+	/**
+	 * Estimate the in-memory size of the RLE encoding in bytes.
+	 *
+	 * @return
+	 */
+	public long estimateSizeRLE()
+	{
+		return 8L * getNumValues() + 4L * (getNumValues()+1) + 8L * getNumRuns();
+	}
+
+	/**
+	 * Creates an OLE column group for the given column index.
+	 *
+	 * @param colIx
+	 * @param numRows
+	 * @return
+	 */
+	public ColGroupOLE toOLE(int colIx, int numRows)
+	{
+		int numVals = getNumValues();
+		double[] values = getValues();
+		int[] ptr = new int[numVals+1];
+		int[] offsets = new int[_numOffsets];
+		for( int k=0, pos=0; k<numVals; k++ ) {
+			IntArrayList list = _offsets.get(k);
+			System.arraycopy(list.values(), 0, offsets, pos, list.size());
+			pos += list.size();
+			ptr[k+1] = pos;
+		}
+		return new ColGroupOLE(new int[]{colIx}, numRows, values, ptr, offsets);
+	}
+
+	/**
+	 * Creates an RLE column group for the given column index.
+	 *
+	 * @param colIx
+	 * @param numRows
+	 * @return
+	 */
+	public ColGroupRLE toRLE(int colIx, int numRows)
+	{
+		int numVals = getNumValues();
+		double[] values = getValues();
+		int[] ptr = new int[numVals+1];
+		int[] runs = new int[2*getNumRuns()];
+		for( int k=0, pos=0; k<numVals; k++ ) {
+			IntArrayList list = _offsets.get(k);
+			int[] off = list.values();
+			for( int p=0; p<list.size(); p++ ) {
+				if( p==0 || off[p] != off[p-1]+1 ) {
+					//start new run
+					runs[pos] = off[p];
+					runs[pos+1] = 1;
+					pos += 2;
+				}
+				else //extend current run
+					runs[pos-1]++;
+			}
+			ptr[k+1] = pos;
+		}
+		return new ColGroupRLE(new int[]{colIx}, numRows, values, ptr, runs);
+	}
+
+	private double[] getValues()
+	{
+		double[] ret = new double[_values.size()];
+		for( int k=0; k<ret.length; k++ )
+			ret[k] = _values.get(k);
+		return ret;
+	}
+
+	/**
+	 * Minimal growable list of primitive ints.
+	 */
+	private static class IntArrayList
+	{
+		private int[] _data = new int[4];
+		private int _size = 0;
+
+		public void add(int v) {
+			if( _size == _data.length )
+				_data = Arrays.copyOf(_data, 2*_size);
+			_data[_size++] = v;
+		}
+
+		public int size() {
+			return _size;
+		}
+
+		public int[] values() {
+			return _data;
+		}
+	}
+}
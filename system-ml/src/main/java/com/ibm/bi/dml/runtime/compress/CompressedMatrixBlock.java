@@ -0,0 +1,720 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.compress;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+import com.ibm.bi.dml.lops.MMTSJ.MMTSJType;
+import com.ibm.bi.dml.lops.MapMultChain.ChainType;
+import com.ibm.bi.dml.runtime.DMLRuntimeException;
+import com.ibm.bi.dml.runtime.DMLUnsupportedOperationException;
+import com.ibm.bi.dml.runtime.functionobjects.KahanPlus;
+import com.ibm.bi.dml.runtime.functionobjects.Multiply;
+import com.ibm.bi.dml.runtime.functionobjects.Plus;
+import com.ibm.bi.dml.runtime.functionobjects.ReduceAll;
+import com.ibm.bi.dml.runtime.functionobjects.ReduceCol;
+import com.ibm.bi.dml.runtime.functionobjects.ReduceRow;
+import com.ibm.bi.dml.runtime.instructions.cp.KahanObject;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixIndexes;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixValue;
+import com.ibm.bi.dml.runtime.matrix.data.SparseBlock;
+import com.ibm.bi.dml.runtime.matrix.operators.AggregateBinaryOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.AggregateUnaryOperator;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
+
+/**
+ * Matrix block that represents its data as a list of compressed column groups
+ * (see ColGroup), which are chosen per column by their estimated compressed
+ * size: offset lists (OLE) or run-length encoding (RLE) over a dictionary of
+ * distinct values, or uncompressed for columns with many distinct values.
+ *
+ * Matrix-vector and vector-matrix multiplications, the derived tsmm (t(X)%*%X)
+ * and mmchain (t(X)%*%(w*(X%*%v))) operations, as well as sum, rowSums and
+ * colSums are computed directly on the compressed representation. All other
+ * operations fall back to a decompressed copy. Compressed blocks are read-only;
+ * callers that are not aware of compression obtain a decompressed block from
+ * the buffer pool (see MatrixObject.acquireRead).
+ *
+ * NOTE: Column groups currently contain single columns, i.e., we do not
+ * co-code correlated columns into groups of value tuples yet, although the
+ * column group abstraction supports multi-column groups.
+ *
+ */
+public class CompressedMatrixBlock extends MatrixBlock
+{
+	private static final long serialVersionUID = 7319972089143154056L;
+
+	//minimum number of rows for compression
+	public static final int MIN_NUM_ROWS = 1024;
+
+	//maximum ratio of distinct values per column to rows for dictionary encoding
+	public static final double MAX_DISTINCT_RATIO = 0.1;
+
+	//minimum compression ratio (uncompressed/compressed in-memory size)
+	public static final double MIN_COMPRESSION_RATIO = 1.5;
+
+	//minimum number of rows per task for multi-threaded operations
+	private static final int MIN_PAR_ROWS = 4096;
+
+	private ArrayList<ColGroup> _colGroups = null;
+
+	protected CompressedMatrixBlock(int rl, int cl, long nnz, ArrayList<ColGroup> colGroups)
+	{
+		super(rl, cl, false);
+		nonZeros = nnz;
+		_colGroups = colGroups;
+	}
+
+	/**
+	 * Compresses the given matrix block if the compressed representation is
+	 * sufficiently smaller than the uncompressed in-memory representation,
+	 * otherwise the input block is returned unchanged.
+	 *
+	 * @param in
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public static MatrixBlock compress(MatrixBlock in)
+		throws DMLRuntimeException
+	{
+		final int rlen = in.getNumRows();
+		final int clen = in.getNumColumns();
+
+		//check for trivial cases (small, empty, already compressed)
+		if( in instanceof CompressedMatrixBlock || rlen < MIN_NUM_ROWS || in.isEmptyBlock(false) )
+			return in;
+
+		//extract distinct values and row offsets per column (single pass)
+		int maxDistinct = (int)(MAX_DISTINCT_RATIO * rlen);
+		ColumnBitmap[] bitmaps = ColumnBitmap.extractBitmaps(in, maxDistinct);
+
+		//select encoding per column by the estimated compressed size
+		ArrayList<ColGroup> groups = new ArrayList<ColGroup>();
+		int[] ucols = new int[clen];
+		int numUcols = 0;
+		for( int j=0; j<clen; j++ ) {
+			ColumnBitmap bm = bitmaps[j];
+			bitmaps[j] = null; //allow gc
+			if( bm.isAborted() ) {
+				ucols[numUcols++] = j;
+				continue;
+			}
+			long sizeUC = Math.min(8L * rlen, 12L * bm.getNumOffsets());
+			long sizeOLE = bm.estimateSizeOLE();
+			long sizeRLE = bm.estimateSizeRLE();
+			if( sizeUC <= Math.min(sizeOLE, sizeRLE) )
+				ucols[numUcols++] = j;
+			else if( sizeRLE < sizeOLE )
+				groups.add(bm.toRLE(j, rlen));
+			else
+				groups.add(bm.toOLE(j, rlen));
+		}
+
+		//create a single uncompressed group for all remaining columns
+		if( numUcols > 0 )
+			groups.add(createUncompressedGroup(in, Arrays.copyOf(ucols, numUcols)));
+
+		//check for sufficient compression ratio
+		long sizeCompressed = estimateSizeInMemory(groups);
+		if( in.estimateSizeInMemory() < MIN_COMPRESSION_RATIO * sizeCompressed )
+			return in;
+
+		//create compressed block with exact nnz
+		long nnz = 0;
+		for( ColGroup grp : groups )
+			nnz += grp.getNonZeros();
+		return new CompressedMatrixBlock(rlen, clen, nnz, groups);
+	}
+
+	/**
+	 * Creates an uncompressed column group of the given columns.
+	 *
+	 * @param in
+	 * @param cols
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static ColGroupUncompressed createUncompressedGroup(MatrixBlock in, int[] cols)
+		throws DMLRuntimeException
+	{
+		final int rlen = in.getNumRows();
+		final int clen = in.getNumColumns();
+		final int ncol = cols.length;
+
+		//copy columns into dense block
+		MatrixBlock ret = new MatrixBlock(rlen, ncol, false);
+		ret.allocateDenseBlock();
+		double[] c = ret.getDenseArray();
+		if( in.isInSparseFormat() ) {
+			int[] map = new int[clen];
+			Arrays.fill(map, -1);
+			for( int j=0; j<ncol; j++ )
+				map[cols[j]] = j;
+			SparseBlock a = in.getSparseBlock();
+			for( int i=0, cix=0; i<rlen; i++, cix+=ncol ) {
+				if( a.isEmpty(i) )
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for( int p=apos; p<apos+alen; p++ )
+					if( map[aix[p]] >= 0 )
+						c[cix+map[aix[p]]] = avals[p];
+			}
+		}
+		else {
+			double[] a = in.getDenseArray();
+			for( int i=0, aix=0, cix=0; i<rlen; i++, aix+=clen, cix+=ncol )
+				for( int j=0; j<ncol; j++ )
+					c[cix+j] = a[aix+cols[j]];
+		}
+
+		//convert to sparse if beneficial
+		ret.recomputeNonZeros();
+		ret.examSparsity();
+
+		return new ColGroupUncompressed(cols, ret);
+	}
+
+	/**
+	 * Get the column groups of this compressed block.
+	 *
+	 * @return
+	 */
+	public ArrayList<ColGroup> getColGroups()
+	{
+		return _colGroups;
+	}
+
+	/**
+	 * Decompresses this block into a regular (dense or sparse) matrix block.
+	 *
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public MatrixBlock decompress()
+		throws DMLRuntimeException
+	{
+		MatrixBlock ret = new MatrixBlock(rlen, clen, false, nonZeros);
+		ret.allocateDenseBlock();
+		double[] c = ret.getDenseArray();
+		for( ColGroup grp : _colGroups )
+			grp.decompressToBlock(c, clen);
+		ret.setNonZeros(nonZeros);
+		ret.examSparsity();
+		return ret;
+	}
+
+	//////////////////
+	// Operations on compressed data
+
+	@Override
+	public MatrixValue aggregateBinaryOperations(MatrixValue m1Value, MatrixValue m2Value, MatrixValue result, AggregateBinaryOperator op)
+		throws DMLUnsupportedOperationException, DMLRuntimeException
+	{
+		MatrixBlock m1 = (MatrixBlock) m1Value;
+		MatrixBlock m2 = (MatrixBlock) m2Value;
+		if( m1.getNumColumns() != m2.getNumRows() ) {
+			throw new DMLRuntimeException("Dimensions do not match for matrix multiplication ("+m1.getNumColumns()+"!="+m2.getNumRows()+").");
+		}
+		if( !(op.binaryFn instanceof Multiply && op.aggOp.increOp.fn instanceof Plus) ) {
+			throw new DMLRuntimeException("Unsupported binary aggregate operation: ("+op.binaryFn+", "+op.aggOp+").");
+		}
+
+		MatrixBlock ret = (result==null) ? new MatrixBlock() : (MatrixBlock) result;
+		if( m1 == this && m2.getNumColumns() == 1 ) {
+			//matrix-vector multiplication X %*% v
+			rightMultByVector(m2, ret, op.getNumThreads());
+		}
+		else if( m2 == this && m1.getNumRows() == 1 ) {
+			//vector-matrix multiplication t(v) %*% X
+			leftMultByVector(m1, ret, op.getNumThreads());
+		}
+		else {
+			//fallback to matrix multiplication over decompressed inputs
+			MatrixBlock dm1 = (m1 instanceof CompressedMatrixBlock) ? ((CompressedMatrixBlock)m1).decompress() : m1;
+			MatrixBlock dm2 = (m2 instanceof CompressedMatrixBlock) ? ((CompressedMatrixBlock)m2).decompress() : m2;
+			return dm1.aggregateBinaryOperations(dm1, dm2, ret, op);
+		}
+
+		return ret;
+	}
+
+	@Override
+	public MatrixBlock transposeSelfMatrixMultOperations( MatrixBlock out, MMTSJType tstype, int k )
+		throws DMLRuntimeException, DMLUnsupportedOperationException
+	{
+		//fallback to uncompressed tsmm for X %*% t(X)
+		if( tstype != MMTSJType.LEFT )
+			return decompress().transposeSelfMatrixMultOperations(out, tstype, k);
+
+		//create output matrix block
+		if( out == null )
+			out = new MatrixBlock(clen, clen, false);
+		else
+			out.reset(clen, clen, false);
+		out.allocateDenseBlock();
+
+		//compute t(X) %*% X as column-wise t(X[,j]) %*% X
+		//(over column ranges in order to reuse temporary vectors)
+		try {
+			int par = Math.max(Math.min(k, clen), 1);
+			int blklen = (int)Math.ceil((double)clen/par);
+			ArrayList<TransposeSelfMultTask> tasks = new ArrayList<TransposeSelfMultTask>();
+			for( int i=0; i<par & i*blklen<clen; i++ )
+				tasks.add(new TransposeSelfMultTask(this, out, i*blklen, Math.min((i+1)*blklen, clen)));
+			KernelThreadPool.invokeAll(tasks, par);
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+
+		out.recomputeNonZeros();
+		out.examSparsity();
+		return out;
+	}
+
+	@Override
+	public MatrixBlock chainMatrixMultOperations( MatrixBlock v, MatrixBlock w, MatrixBlock out, ChainType ctype, int k )
+		throws DMLRuntimeException, DMLUnsupportedOperationException
+	{
+		//check for transpose type
+		if( !(ctype == ChainType.XtXv || ctype == ChainType.XtwXv) )
+			throw new DMLRuntimeException("Invalid mmchain type '"+ctype.toString()+"'.");
+
+		//check for matching dimensions
+		if( clen != v.getNumRows() )
+			throw new DMLRuntimeException("Dimensions mismatch on mmchain operation ("+clen+" != "+v.getNumRows()+")");
+		if( v.getNumColumns() != 1 )
+			throw new DMLRuntimeException("Invalid input vector (column vector expected, but ncol="+v.getNumColumns()+")");
+		if( w!=null && w.getNumColumns() != 1 )
+			throw new DMLRuntimeException("Invalid weight vector (column vector expected, but ncol="+w.getNumColumns()+")");
+
+		//compute X %*% v (and weighting by w)
+		MatrixBlock tmp = new MatrixBlock();
+		rightMultByVector(v, tmp, k);
+		if( ctype == ChainType.XtwXv ) {
+			double[] a = tmp.getDenseArray();
+			double[] b = getDenseVector(w);
+			for( int i=0; i<rlen; i++ )
+				a[i] *= b[i];
+		}
+
+		//compute t(X) %*% tmp, i.e., t(t(tmp) %*% X)
+		MatrixBlock tmp2 = new MatrixBlock();
+		leftMultByVector(tmp, tmp2, k);
+
+		//prepare result (column vector)
+		if( out == null )
+			out = new MatrixBlock(clen, 1, false);
+		else
+			out.reset(clen, 1, false);
+		out.allocateDenseBlock();
+		System.arraycopy(tmp2.getDenseArray(), 0, out.getDenseArray(), 0, clen);
+		out.setNonZeros(tmp2.getNonZeros());
+		out.examSparsity();
+
+		return out;
+	}
+
+	@Override
+	public MatrixValue aggregateUnaryOperations(AggregateUnaryOperator op, MatrixValue result,
+			int blockingFactorRow, int blockingFactorCol, MatrixIndexes indexesIn, boolean inCP)
+		throws DMLUnsupportedOperationException, DMLRuntimeException
+	{
+		//fallback to uncompressed aggregates for all but sum, rowSums, colSums
+		//(in CP, where correction rows/columns are not retained)
+		if( !inCP || !(op.aggOp.increOp.fn instanceof KahanPlus)
+			|| !(op.indexFn instanceof ReduceAll || op.indexFn instanceof ReduceRow || op.indexFn instanceof ReduceCol) )
+		{
+			return decompress().aggregateUnaryOperations(op, result,
+					blockingFactorRow, blockingFactorCol, indexesIn, inCP);
+		}
+
+		MatrixBlock ret = (result==null) ? new MatrixBlock() : (MatrixBlock) result;
+		if( op.indexFn instanceof ReduceAll ) {
+			//sum over distinct values weighted by their counts
+			KahanObject kbuff = new KahanObject(0, 0);
+			for( ColGroup grp : _colGroups )
+				grp.computeSum(kbuff);
+			ret.reset(1, 1, false);
+			ret.quickSetValue(0, 0, kbuff._sum);
+		}
+		else if( op.indexFn instanceof ReduceRow ) {
+			//colSums over distinct values weighted by their counts
+			ret.reset(1, clen, false);
+			ret.allocateDenseBlock();
+			double[] c = ret.getDenseArray();
+			for( ColGroup grp : _colGroups )
+				grp.computeColSums(c);
+			ret.recomputeNonZeros();
+		}
+		else { //ReduceCol
+			//rowSums over pre-aggregated values per tuple
+			ret.reset(rlen, 1, false);
+			ret.allocateDenseBlock();
+			double[] c = ret.getDenseArray();
+			try {
+				int k = op.getNumThreads();
+				ArrayList<RowSumTask> tasks = new ArrayList<RowSumTask>();
+				int blklen = getRowBlockSize(k);
+				for( int i=0; i*blklen<rlen; i++ )
+					tasks.add(new RowSumTask(_colGroups, c, i*blklen, Math.min((i+1)*blklen, rlen)));
+				KernelThreadPool.invokeAll(tasks, k);
+			}
+			catch(Exception ex) {
+				throw new DMLRuntimeException(ex);
+			}
+			ret.recomputeNonZeros();
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Multiply this block with the given column vector (X %*% v).
+	 *
+	 * @param vector
+	 * @param result
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	private void rightMultByVector(MatrixBlock vector, MatrixBlock result, int k)
+		throws DMLRuntimeException
+	{
+		result.reset(rlen, 1, false);
+		result.allocateDenseBlock();
+		double[] b = getDenseVector(vector);
+		double[] c = result.getDenseArray();
+
+		try {
+			ArrayList<RightMultTask> tasks = new ArrayList<RightMultTask>();
+			int blklen = getRowBlockSize(k);
+			for( int i=0; i*blklen<rlen; i++ )
+				tasks.add(new RightMultTask(_colGroups, b, c, i*blklen, Math.min((i+1)*blklen, rlen)));
+			KernelThreadPool.invokeAll(tasks, k);
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+
+		result.recomputeNonZeros();
+	}
+
+	/**
+	 * Multiply the given row vector with this block (t(v) %*% X).
+	 *
+	 * @param vector
+	 * @param result
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	private void leftMultByVector(MatrixBlock vector, MatrixBlock result, int k)
+		throws DMLRuntimeException
+	{
+		result.reset(1, clen, false);
+		result.allocateDenseBlock();
+		double[] a = getDenseVector(vector);
+		double[] c = result.getDenseArray();
+
+		//parallelize over column groups (disjoint output columns)
+		try {
+			ArrayList<LeftMultTask> tasks = new ArrayList<LeftMultTask>();
+			for( ColGroup grp : _colGroups )
+				tasks.add(new LeftMultTask(grp, a, c));
+			KernelThreadPool.invokeAll(tasks, (rlen >= MIN_PAR_ROWS) ? k : 1);
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+
+		result.recomputeNonZeros();
+	}
+
+	/**
+	 * Get the number of rows per task for row-partitioned operations.
+	 *
+	 * @param k
+	 * @return
+	 */
+	private int getRowBlockSize(int k)
+	{
+		int par = Math.max(Math.min(k, rlen/MIN_PAR_ROWS), 1);
+		return (int)Math.ceil((double)rlen/par);
+	}
+
+	/**
+	 * Get the column group that contains the given column index.
+	 *
+	 * @param colIx
+	 * @return
+	 */
+	private ColGroup getColGroup(int colIx)
+	{
+		for( ColGroup grp : _colGroups )
+			if( grp.getColPos(colIx) >= 0 )
+				return grp;
+		return null;
+	}
+
+	/**
+	 * Get the values of the given vector as a dense array. Dense inputs are
+	 * copied because the input might be a shared decompressed copy.
+	 *
+	 * @param vector
+	 * @return
+	 */
+	private static double[] getDenseVector(MatrixBlock vector)
+	{
+		int rows = vector.getNumRows();
+		int cols = vector.getNumColumns();
+		if( !vector.isInSparseFormat() && vector.getDenseArray()!=null )
+			return Arrays.copyOf(vector.getDenseArray(), rows*cols);
+
+		double[] ret = new double[rows*cols];
+		if( !vector.isEmptyBlock(false) )
+			for( int i=0, ix=0; i<rows; i++ )
+				for( int j=0; j<cols; j++, ix++ )
+					ret[ix] = vector.quickGetValue(i, j);
+		return ret;
+	}
+
+	/**
+	 * Get the in-memory size of the given column groups.
+	 *
+	 * @param groups
+	 * @return
+	 */
+	private static long estimateSizeInMemory(ArrayList<ColGroup> groups)
+	{
+		//header of matrix block and list of groups
+		long size = 88 + 16 + 8L * groups.size();
+		for( ColGroup grp : groups )
+			size += grp.estimateInMemorySize();
+		return size;
+	}
+
+	//////////////////
+	// Meta data and serialization of compressed blocks
+
+	@Override
+	public boolean isAllocated()
+	{
+		return true;
+	}
+
+	@Override
+	public boolean isEmptyBlock(boolean safe)
+	{
+		return (nonZeros == 0);
+	}
+
+	@Override
+	public void recomputeNonZeros()
+	{
+		//nnz maintained exactly on compression
+	}
+
+	@Override
+	public void examSparsity()
+	{
+		//compressed blocks are never converted
+	}
+
+	@Override
+	public double getValue(int r, int c)
+	{
+		return quickGetValue(r, c);
+	}
+
+	@Override
+	public double quickGetValue(int r, int c)
+	{
+		ColGroup grp = getColGroup(c);
+		return (grp != null) ? grp.get(r, c) : 0;
+	}
+
+	@Override
+	public long estimateSizeInMemory()
+	{
+		return estimateSizeInMemory(_colGroups);
+	}
+
+	@Override
+	public long getExactSizeOnDisk()
+	{
+		//serialized in uncompressed format (see write)
+		return (nonZeros > 0) ?
+			estimateSizeOnDisk(rlen, clen, nonZeros) : HEADER_SIZE;
+	}
+
+	@Override
+	public void write(DataOutput out)
+		throws IOException
+	{
+		//write in uncompressed binary block format for compatibility
+		//with all readers (e.g., on eviction and export)
+		try {
+			decompress().write(out);
+		}
+		catch(DMLRuntimeException ex) {
+			throw new IOException("Failed to decompress matrix block.", ex);
+		}
+	}
+
+	@Override
+	public void readFields(DataInput in)
+		throws IOException
+	{
+		throw new IOException("Compressed matrix blocks cannot be deserialized.");
+	}
+
+	@Override
+	public void readFields(DataInput in, boolean readOnly)
+		throws IOException
+	{
+		throw new IOException("Compressed matrix blocks cannot be deserialized.");
+	}
+
+	/**
+	 * Task for computing a row range of a matrix-vector multiplication.
+	 */
+	private static class RightMultTask implements Callable<Object>
+	{
+		private ArrayList<ColGroup> _groups = null;
+		private double[] _b = null;
+		private double[] _c = null;
+		private int _rl = -1;
+		private int _ru = -1;
+
+		protected RightMultTask( ArrayList<ColGroup> groups, double[] b, double[] c, int rl, int ru )
+		{
+			_groups = groups;
+			_b = b;
+			_c = c;
+			_rl = rl;
+			_ru = ru;
+		}
+
+		@Override
+		public Object call()
+		{
+			for( ColGroup grp : _groups )
+				grp.rightMultByVector(_b, _c, _rl, _ru);
+			return null;
+		}
+	}
+
+	/**
+	 * Task for computing the output columns of a vector-matrix
+	 * multiplication that correspond to a single column group.
+	 */
+	private static class LeftMultTask implements Callable<Object>
+	{
+		private ColGroup _group = null;
+		private double[] _a = null;
+		private double[] _c = null;
+
+		protected LeftMultTask( ColGroup group, double[] a, double[] c )
+		{
+			_group = group;
+			_a = a;
+			_c = c;
+		}
+
+		@Override
+		public Object call()
+		{
+			_group.leftMultByRowVector(_a, _c);
+			return null;
+		}
+	}
+
+	/**
+	 * Task for computing the output rows cl to cu-1 of t(X) %*% X.
+	 */
+	private static class TransposeSelfMultTask implements Callable<Object>
+	{
+		private CompressedMatrixBlock _in = null;
+		private MatrixBlock _out = null;
+		private int _cl = -1;
+		private int _cu = -1;
+
+		protected TransposeSelfMultTask( CompressedMatrixBlock in, MatrixBlock out, int cl, int cu )
+		{
+			_in = in;
+			_out = out;
+			_cl = cl;
+			_cu = cu;
+		}
+
+		@Override
+		public Object call()
+		{
+			int rlen = _in.getNumRows();
+			int clen = _in.getNumColumns();
+			double[] c = _out.getDenseArray();
+			double[] col = new double[rlen];
+			double[] row = new double[clen];
+			for( int j=_cl; j<_cu; j++ ) {
+				//decompress column j and multiply with all groups
+				Arrays.fill(col, 0);
+				Arrays.fill(row, 0);
+				_in.getColGroup(j).decompressToColumn(col, j);
+				for( ColGroup grp : _in._colGroups )
+					grp.leftMultByRowVector(col, row);
+				System.arraycopy(row, 0, c, j*clen, clen);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Task for computing a row range of rowSums.
+	 */
+	private static class RowSumTask implements Callable<Object>
+	{
+		private ArrayList<ColGroup> _groups = null;
+		private double[] _c = null;
+		private int _rl = -1;
+		private int _ru = -1;
+
+		protected RowSumTask( ArrayList<ColGroup> groups, double[] c, int rl, int ru )
+		{
+			_groups = groups;
+			_c = c;
+			_rl = rl;
+			_ru = ru;
+		}
+
+		@Override
+		public Object call()
+		{
+			for( ColGroup grp : _groups )
+				grp.computeRowSums(_c, _rl, _ru);
+			return null;
+		}
+	}
+}
@@ -24,15 +24,31 @@ import com.ibm.bi.dml.runtime.controlprogram.parfor.util.IDSequence;
 import com.ibm.bi.dml.runtime.instructions.cp.Data;
 import com.ibm.bi.dml.runtime.instructions.spark.data.LineageObject;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.StringTokenizer;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Replaces <code>HashMap&lang;String, Data&rang;</code> as the table of
  * variable names and references.  No longer supports global consistency.
  * 
+ * In addition to the variable map, we maintain reference counts per data 
+ * object (by identity) in order to answer hasReferences/getNumReferences, 
+ * which are called on every rmvar, in constant instead of linear time.
+ * 
+ * Furthermore, variable names are mapped to global integer slots when operands 
+ * are created at instruction generation (see CPOperand). Each map keeps an 
+ * array-backed frame of these slots, which allows instructions to resolve their 
+ * operands without hashing. The frame is a cache of the variable map, i.e., a 
+ * slot holds either null or the current value of its variable; misses (e.g., 
+ * for variables put before their slot was allocated) fall back to the map.
+ * 
  */
 public class LocalVariableMap implements Cloneable
 {
@@ -41,22 +57,32 @@ public class LocalVariableMap implements Cloneable
 	private static String ELEMENT_DELIM = com.ibm.bi.dml.runtime.controlprogram.parfor.ProgramConverter.ELEMENT_DELIM;
 	private static IDSequence _seq = new IDSequence();
 	
+	//global registry of variable slots (bounded because recompilation creates new temporary names)
+	public static final int MAX_SLOTS = 4096;
+	private static final ConcurrentHashMap<String, Integer> _slots = new ConcurrentHashMap<String, Integer>();
+	private static final AtomicInteger _numSlots = new AtomicInteger(0);
+	
 	private HashMap <String, Data> localMap = null;
+	private IdentityHashMap <Data, Integer> refCounts = null;
+	private Data[] frame = null;
 	private final long localID;
 	
 	public LocalVariableMap()
 	{
 		localMap = new HashMap <String, Data>();
+		refCounts = new IdentityHashMap <Data, Integer>();
 		localID = _seq.getNextID();
 	}
 	
 	/**
+	 * Returns a read-only view of the variable names (modifications need to go 
+	 * through put/remove in order to keep the reference counts consistent).
 	 * 
 	 * @return
 	 */
 	public Set<String> keySet()
 	{
-		return localMap.keySet();
+		return Collections.unmodifiableSet(localMap.keySet());
 	}
 	
 	/**
@@ -70,6 +96,20 @@ public class LocalVariableMap implements Cloneable
 		return localMap.get( name );
 	}
 	
+	/**
+	 * Retrieves the data object given its slot and name, where the name is only
+	 * used if the slot is invalid or not (yet) populated.
+	 * 
+	 * @param slot : the slot of the variable name (see getSlot)
+	 * @param name : the variable name for the data object
+	 * @return the direct reference to the data object
+	 */
+	public Data get( int slot, String name )
+	{
+		Data ret = (slot >= 0 && frame != null && slot < frame.length) ? frame[slot] : null;
+		return (ret != null) ? ret : localMap.get( name );
+	}
+	
 	/**
 	 * Adds a new (name, value) pair to the variable map, or replaces an old pair with
 	 * the same name.  Several different variable names may refer to the same value.
@@ -79,7 +119,32 @@ public class LocalVariableMap implements Cloneable
 	 */
 	public void put(String name, Data val)
 	{
-		localMap.put( name, val );
+		put( getSlot(name), name, val );
+	}
+	
+	/**
+	 * Adds a new (name, value) pair to the variable map and the given slot of 
+	 * the frame, where the slot is expected to be the slot of the name.
+	 * 
+	 * @param slot : the slot of the variable name (see getSlot)
+	 * @param name : the variable name for the data value
+	 * @param val  : the data value object (such as envelope)
+	 */
+	public void put(int slot, String name, Data val)
+	{
+		Data old = localMap.put( name, val );
+		if( old != val ) {
+			decrementRefCount( old );
+			incrementRefCount( val );
+		}
+		
+		//maintain frame (grown on demand)
+		if( slot >= 0 && val != null && (frame == null || slot >= frame.length) ) {
+			int len = Math.min(Math.max(slot+1, (frame==null) ? 16 : 2*frame.length), MAX_SLOTS);
+			frame = (frame == null) ? new Data[len] : Arrays.copyOf(frame, len);
+		}
+		if( slot >= 0 && frame != null && slot < frame.length )
+			frame[slot] = val;
 	}
 
 	/**
@@ -90,7 +155,8 @@ public class LocalVariableMap implements Cloneable
 	{
 		if( vars == this || vars == null )
 			return;
-		localMap.putAll (vars.localMap);
+		for( Entry<String, Data> e : vars.localMap.entrySet() )
+			put( e.getKey(), e.getValue() );
 	}
 	
 	/**
@@ -99,7 +165,15 @@ public class LocalVariableMap implements Cloneable
 	 */
 	public Data remove( String name )
 	{
-		return localMap.remove( name );
+		Data old = localMap.remove( name );
+		decrementRefCount( old );
+		
+		//maintain frame
+		int slot = getSlot(name);
+		if( slot >= 0 && frame != null && slot < frame.length )
+			frame[slot] = null;
+		
+		return old;
 	}
 	
 	/**
@@ -108,6 +182,49 @@ public class LocalVariableMap implements Cloneable
 	public void removeAll()
 	{
 		localMap.clear();
+		refCounts.clear();
+		frame = null;
+	}
+	
+	/**
+	 * Obtains the slot of the given variable name, or -1 if no slot
+	 * has been allocated for this name.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public static int getSlot( String name )
+	{
+		Integer slot = (name != null) ? _slots.get(name) : null;
+		return (slot != null) ? slot : -1;
+	}
+	
+	/**
+	 * Obtains the slot of the given variable name and allocates a new slot 
+	 * if required. If the maximum number of slots is reached, this returns 
+	 * -1, i.e., the variable is only resolved by name.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public static int allocateSlot( String name )
+	{
+		if( name == null || name.isEmpty() )
+			return -1;
+		
+		Integer slot = _slots.get(name);
+		if( slot == null ) {
+			synchronized( _slots ) {
+				slot = _slots.get(name);
+				if( slot == null ) {
+					if( _numSlots.get() >= MAX_SLOTS )
+						return -1;
+					slot = _numSlots.getAndIncrement();
+					_slots.put(name, slot);
+				}
+			}
+		}
+		return slot;
 	}
 	
 	/**
@@ -117,7 +234,7 @@ public class LocalVariableMap implements Cloneable
 	 */
 	public boolean hasReferences( Data d )
 	{
-		return localMap.containsValue(d);
+		return (d != null) && refCounts.containsKey(d);
 	}
 
 	/**
@@ -147,13 +264,36 @@ public class LocalVariableMap implements Cloneable
 		if ( d == null )
 			return 0;
 		
-		int refCount = 0;		
-		for( Data tmpdat : localMap.values() ) 
-			if ( tmpdat == d ) 
-				if( ++refCount > 1 && earlyAbort )
-					return refCount;
+		//note: early abort is obsolete w/ maintained reference counts
+		Integer refCount = refCounts.get(d);
+		return (refCount != null) ? refCount : 0;
+	}
 	
-		return refCount;		
+	/**
+	 * 
+	 * @param d
+	 */
+	private void incrementRefCount( Data d )
+	{
+		if( d == null )
+			return;
+		Integer refCount = refCounts.get(d);
+		refCounts.put(d, (refCount != null) ? refCount+1 : 1);
+	}
+	
+	/**
+	 * 
+	 * @param d
+	 */
+	private void decrementRefCount( Data d )
+	{
+		if( d == null )
+			return;
+		Integer refCount = refCounts.get(d);
+		if( refCount == null || refCount <= 1 )
+			refCounts.remove(d);
+		else
+			refCounts.put(d, refCount-1);
 	}
 	
 	/**
@@ -25,6 +25,8 @@ import com.ibm.bi.dml.parser.DMLProgram;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.DMLScriptException;
 import com.ibm.bi.dml.runtime.DMLUnsupportedOperationException;
+import com.ibm.bi.dml.runtime.controlprogram.caching.AsyncExportQueue;
+import com.ibm.bi.dml.runtime.controlprogram.caching.AsyncExportQueue.ExportGroup;
 import com.ibm.bi.dml.runtime.controlprogram.context.ExecutionContext;
 
 
@@ -137,12 +139,17 @@ public class Program
 	{
 		ec.initDebugProgramCounters();
 		
+		//collect asynchronous exports (persistent writes) of this execution
+		ExportGroup exports = AsyncExportQueue.beginGroup();
+		boolean success = false;
+		
 		try
 		{
 			for (int i=0 ; i<_programBlocks.size() ; i++) {
 				ec.updateDebugState(i);
 				_programBlocks.get(i).execute(ec);
 			}
+			success = true;
 		}
 		catch(DMLScriptException e) {
 			throw e;
@@ -150,6 +157,11 @@ public class Program
 		catch(Exception e) {
 			throw new DMLRuntimeException(e);
 		}
+		finally {
+			//wait for pending exports of this execution, also on failures in
+			//order to prevent truncated outputs (errors only raised on success)
+			AsyncExportQueue.endGroup(exports, success);
+		}
 		
 		ec.clearDebugProgramCounters();
 	}
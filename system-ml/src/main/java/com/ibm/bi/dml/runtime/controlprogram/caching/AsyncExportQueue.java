@@ -0,0 +1,387 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.controlprogram.caching;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.ibm.bi.dml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+
+/**
+ * Queue of asynchronous exports (persistent writes) of in-memory matrices to HDFS.
+ * Exports are executed by a single background I/O thread in submission order, which
+ * guarantees that consecutive writes to the same file are applied in program order.
+ * The parallel text and binary writers are still used for the actual write, i.e., 
+ * the background thread only decouples the write from the control program. 
+ * 
+ * Memory: pending exports pin their matrix blocks (which remain reachable even if the
+ * buffer pool evicts the variable). The total size of pinned blocks is bounded by
+ * CACHING_ASYNC_EXPORT_SIZE of the max heap; writers block (back-pressure) if this 
+ * limit would be exceeded, but a single export is always admitted. In-place updates
+ * of a pinned block need to wait for its pending exports (see waitForPinnedExports).
+ * 
+ * Consistency: readers of a file (CP reads, MR/Spark jobs) wait for pending exports
+ * of this file, and every program execution waits for the pending exports it issued
+ * (see beginGroup/endGroup), including remote parfor workers. 
+ * 
+ * Errors: errors are tracked per file and per export group (i.e., program execution),
+ * which isolates concurrent executions (e.g., JMLC). An error of a file is thrown to 
+ * all subsequent readers of this file until the file is written again; an error of a
+ * group is thrown when the group is closed or on the next export of this group.
+ * 
+ */
+public class AsyncExportQueue 
+{
+	private static final Log LOG = LogFactory.getLog(AsyncExportQueue.class.getName());
+	
+	//limit of in-flight bytes (pinned matrices of pending exports)
+	private static long _limit;
+	
+	//current in-flight bytes, number of pending exports per file name and pinned 
+	//block, and export errors per file name
+	private static long _size = 0;
+	private static HashMap<String, Integer> _pending = new HashMap<String, Integer>();
+	private static IdentityHashMap<Object, Integer> _pinned = new IdentityHashMap<Object, Integer>();
+	private static HashMap<String, Exception> _errors = new HashMap<String, Exception>();
+	
+	//export group of the current thread (inherited by parfor workers)
+	private static final ExportGroup _defaultGroup = new ExportGroup(null);
+	private static final InheritableThreadLocal<ExportGroup> _group = new InheritableThreadLocal<ExportGroup>() {
+		@Override
+		protected ExportGroup initialValue() {
+			return _defaultGroup;
+		}
+	};
+	
+	//single-threaded background executor
+	private static ExecutorService _pool = null;
+	
+	//lock for all queue meta data 
+	private static final Object _lock = new Object();
+	
+	static 
+	{
+		long maxMem = InfrastructureAnalyzer.getLocalMaxMemory();
+		_limit = (long)(CacheableData.CACHING_ASYNC_EXPORT_SIZE * maxMem);
+	}
+	
+	/**
+	 * Schedules the given export task for the given file, where size is the 
+	 * in-memory size of the pinned matrix block. This call blocks if the limit 
+	 * of in-flight bytes would be exceeded. The export is registered with the
+	 * export group of the current thread.
+	 * 
+	 * @param fname
+	 * @param pinned
+	 * @param size
+	 * @param task
+	 * @throws CacheException
+	 */
+	public static void submit( String fname, Object pinned, long size, ExportTask task ) 
+		throws CacheException
+	{
+		ExportGroup group = _group.get();
+		
+		synchronized( _lock )
+		{
+			//raise errors of previous exports of this group
+			checkAndRaiseError( group );
+			
+			//wait for sufficient in-flight capacity (back-pressure)
+			try {
+				while( _size > 0 && _size+size > _limit )
+					_lock.wait();
+			}
+			catch(InterruptedException ex) {
+				throw new CacheException(ex);
+			}
+			
+			//register pending export (and reset errors of prior writes of this file)
+			increment( _pending, fname );
+			increment( _pinned, pinned );
+			_errors.remove( fname );
+			group._pending++;
+			_size += size;
+			
+			if( _pool == null )
+				_pool = Executors.newSingleThreadExecutor(new ExportThreadFactory());
+		}
+		
+		_pool.execute(new ExportRunner(fname, pinned, size, task, group));
+	}
+	
+	/**
+	 * Waits until all pending exports of the given file are completed, and
+	 * throws the error of the last export of this file (if any).
+	 * 
+	 * @param fname
+	 * @throws CacheException
+	 */
+	public static void waitForPendingExports( String fname ) 
+		throws CacheException
+	{
+		synchronized( _lock )
+		{
+			try {
+				while( _pending.containsKey(fname) )
+					_lock.wait();
+			}
+			catch(InterruptedException ex) {
+				throw new CacheException(ex);
+			}
+			
+			Exception err = _errors.get( fname );
+			if( err != null )
+				throw new CacheIOException("Asynchronous export of "+fname+" failed.", err);
+		}
+	}
+	
+	/**
+	 * Waits until all pending exports of the given pinned block are completed,
+	 * which is required before any in-place update of this block.
+	 * 
+	 * @param pinned
+	 * @throws CacheException
+	 */
+	public static void waitForPinnedExports( Object pinned ) 
+		throws CacheException
+	{
+		synchronized( _lock )
+		{
+			try {
+				while( _pinned.containsKey(pinned) )
+					_lock.wait();
+			}
+			catch(InterruptedException ex) {
+				throw new CacheException(ex);
+			}
+		}
+	}
+	
+	/**
+	 * Waits until all pending exports of the export group of the current
+	 * thread are completed, and throws the first error of this group.
+	 * 
+	 * @throws CacheException
+	 */
+	public static void waitForAllExports() 
+		throws CacheException
+	{
+		waitForGroup( _group.get(), true );
+	}
+	
+	/**
+	 * Opens a new export group for the current thread (and threads created
+	 * by it), which collects all subsequently submitted exports. 
+	 * 
+	 * @return
+	 */
+	public static ExportGroup beginGroup()
+	{
+		ExportGroup group = new ExportGroup( _group.get() );
+		_group.set( group );
+		return group;
+	}
+	
+	/**
+	 * Waits for all pending exports of the given group and restores the 
+	 * previous group of the current thread. This method should be called
+	 * in a finally block in order to guarantee that no exports are pending
+	 * (and potentially truncated on JVM exit) after a failed execution. 
+	 * 
+	 * @param group
+	 * @param raiseErrors throw the first export error of this group (false
+	 *        if the execution already failed with another exception)
+	 * @throws CacheException
+	 */
+	public static void endGroup( ExportGroup group, boolean raiseErrors ) 
+		throws CacheException
+	{
+		try {
+			waitForGroup( group, raiseErrors );
+		}
+		finally {
+			_group.set( group._parent );
+		}
+	}
+	
+	/**
+	 * 
+	 * @param group
+	 * @param raiseErrors
+	 * @throws CacheException
+	 */
+	private static void waitForGroup( ExportGroup group, boolean raiseErrors ) 
+		throws CacheException
+	{
+		synchronized( _lock )
+		{
+			try {
+				while( group._pending > 0 )
+					_lock.wait();
+			}
+			catch(InterruptedException ex) {
+				throw new CacheException(ex);
+			}
+			
+			if( raiseErrors )
+				checkAndRaiseError( group );
+			else if( group._error != null )
+				LOG.error("Asynchronous export failed after failed execution.", group._error);
+			group._error = null;
+		}
+	}
+	
+	/**
+	 * Must be called while holding the lock.
+	 * 
+	 * @param group
+	 * @throws CacheException
+	 */
+	private static void checkAndRaiseError( ExportGroup group ) 
+		throws CacheException
+	{
+		if( group._error != null ) {
+			Exception ex = group._error;
+			group._error = null;
+			throw new CacheIOException("Asynchronous export failed.", ex);
+		}
+	}
+	
+	/**
+	 * Must be called while holding the lock.
+	 * 
+	 * @param map
+	 * @param key
+	 */
+	private static <K> void increment( Map<K, Integer> map, K key )
+	{
+		Integer cnt = map.get(key);
+		map.put(key, (cnt!=null) ? cnt+1 : 1);
+	}
+	
+	/**
+	 * Must be called while holding the lock.
+	 * 
+	 * @param map
+	 * @param key
+	 */
+	private static <K> void decrement( Map<K, Integer> map, K key )
+	{
+		int cnt = map.get(key);
+		if( cnt > 1 )
+			map.put(key, cnt-1);
+		else
+			map.remove(key);
+	}
+	
+	/**
+	 * Export task executed by the background thread.
+	 */
+	public static interface ExportTask
+	{
+		public void export() throws Exception;
+	}
+	
+	/**
+	 * Group of exports issued by one program execution, which is used 
+	 * for waiting on and raising errors of these exports only. All fields
+	 * are guarded by the queue lock.
+	 */
+	public static class ExportGroup
+	{
+		private final ExportGroup _parent;
+		private int _pending = 0;
+		private Exception _error = null;
+		
+		private ExportGroup( ExportGroup parent ) {
+			_parent = parent;
+		}
+	}
+	
+	/**
+	 * Runnable that executes an export task and maintains the queue meta data.
+	 */
+	private static class ExportRunner implements Runnable
+	{
+		private final String _fname;
+		private final Object _pblock;
+		private final long _esize;
+		private final ExportTask _task;
+		private final ExportGroup _egroup;
+		
+		protected ExportRunner( String fname, Object pinned, long size, ExportTask task, ExportGroup group ) {
+			_fname = fname;
+			_pblock = pinned;
+			_esize = size;
+			_task = task;
+			_egroup = group;
+		}
+		
+		@Override
+		public void run() 
+		{
+			Exception err = null;
+			try {
+				_task.export();
+			}
+			catch(Exception ex) {
+				LOG.error("Failed to export "+_fname+".", ex);
+				err = ex;
+			}
+			
+			synchronized( _lock )
+			{
+				//keep the error for readers of this file and the issuing group
+				if( err != null ) {
+					_errors.put(_fname, err);
+					if( _egroup._error == null )
+						_egroup._error = err;
+				}
+				
+				//unregister export and notify blocked writers/readers
+				decrement(_pending, _fname);
+				decrement(_pinned, _pblock);
+				_egroup._pending--;
+				_size -= _esize;
+				_lock.notifyAll();
+			}
+		}
+	}
+	
+	/**
+	 * Thread factory for the named daemon export thread.
+	 */
+	private static class ExportThreadFactory implements ThreadFactory
+	{
+		@Override
+		public Thread newThread(Runnable r) 
+		{
+			Thread t = new Thread(r, "SystemML-async-export");
+			t.setDaemon(true);
+			return t;
+		}
+	}
+}
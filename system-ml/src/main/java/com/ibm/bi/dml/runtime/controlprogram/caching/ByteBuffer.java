@@ -25,16 +25,20 @@ import com.ibm.bi.dml.runtime.util.LocalFileUtils;
 
 /**
  * Wrapper for WriteBuffer byte array per matrix in order to
- * support matrix serialization outside global lock.
+ * support matrix serialization outside global lock. Deserialization,
+ * eviction and freeing of memory are synchronized per buffer, which
+ * allows concurrent reads while the buffer is evicted asynchronously.
  * 
  */
 public class ByteBuffer
 {
-	private boolean _serialized;	
+	private volatile boolean _serialized;	
 	private boolean _sparse;
+	private boolean _deep; //deep (byte) vs shallow serialization
+	private boolean _compressed;
 	private long _size;
 	
-	protected byte[]       _bdata = null; //sparse matrix
+	protected byte[]       _bdata = null; //sparse or compressed matrix
 	protected MatrixBlock  _mdata = null; //dense matrix
 	
 	public ByteBuffer( long size )
@@ -66,6 +70,16 @@ public class ByteBuffer
 					_bdata = new byte[(int)_size];
 				DataOutput dout = new CacheDataOutput(_bdata);
 				mb.write(dout);
+				_deep = true;
+				
+				//compress serialized block (if beneficial)
+				if( CacheableData.CACHING_BUFFER_COMPRESSION ) {
+					byte[] tmp = CacheCompression.compressIfBeneficial(_bdata);
+					if( tmp != _bdata && CacheableData.CACHING_BUFFER_PAGECACHE )
+						PageCache.putPage(_bdata);
+					_compressed = (tmp != _bdata);
+					_bdata = tmp;
+				}
 			}
 			else //SPARSE/DENSE -> DENSE
 			{
@@ -75,8 +89,20 @@ public class ByteBuffer
 				if( sparseSrc ) 
 					mb.examSparsity(); 
 				
-				//shallow serialize
-				_mdata = mb;
+				//deep serialize and compress low-cardinality dense blocks
+				//(if beneficial according to sample), otherwise shallow serialize
+				if(    CacheableData.CACHING_BUFFER_COMPRESSION 
+					&& _size <= Integer.MAX_VALUE && CacheCompression.isCompressible(mb) ) 
+				{
+					byte[] tmp = new byte[(int)_size];
+					mb.write(new CacheDataOutput(tmp));
+					_bdata = CacheCompression.compress(tmp, tmp.length, 
+							(int)(CacheCompression.MAX_RATIO_DENSE*tmp.length));
+					_deep = _compressed = (_bdata != null);
+				}
+				
+				if( !_deep )
+					_mdata = mb;
 			}
 		}
 		catch(Exception ex)
@@ -88,22 +114,30 @@ public class ByteBuffer
 	}
 	
 	/**
+	 * Deserializes the buffered matrix, or returns null if the buffer
+	 * has already been freed (e.g., after concurrent eviction).
 	 * 
 	 * @return
 	 * @throws IOException
 	 */
-	public MatrixBlock deserializeMatrix() 
+	public synchronized MatrixBlock deserializeMatrix() 
 		throws IOException
 	{
 		MatrixBlock ret = null;
 		
-		if( _sparse )
+		if( _deep )
 		{
+			//robustness for concurrent eviction
+			if( _bdata == null )
+				return null;
+			
 			//ByteArrayInputStream bis = new ByteArrayInputStream(_bdata);
 			//DataInputStream din = new DataInputStream(bis); 
-			CacheDataInput din = new CacheDataInput(_bdata);
+			CacheDataInput din = new CacheDataInput( _compressed ? 
+					CacheCompression.decompress(_bdata) : _bdata );
 			ret = new MatrixBlock();
-			ret.readFields(din);
+			ret.readFields(din, true); //read-only restore (csr if sparse)
+
 		}
 		else
 		{
@@ -118,12 +152,16 @@ public class ByteBuffer
 	 * @param fname
 	 * @throws IOException
 	 */
-	public void evictBuffer( String fname ) 
+	public synchronized void evictBuffer( String fname ) 
 		throws IOException
 	{
-		if( _sparse )
+		//robustness for concurrent delete
+		if( _bdata == null && _mdata == null )
+			return;
+		
+		if( _deep )
 		{
-			//write out byte serialized array
+			//write out byte serialized (and potentially compressed) array
 			LocalFileUtils.writeByteArrayToLocal(fname, _bdata);
 		}
 		else
@@ -133,6 +171,40 @@ public class ByteBuffer
 		}
 	}
 	
+	/**
+	 * Writes the serialized matrix into the given (e.g., direct) nio byte
+	 * buffer, or returns false if the buffer has already been freed.
+	 * 
+	 * @param buff
+	 * @return
+	 * @throws IOException
+	 */
+	public synchronized boolean writeBuffer( java.nio.ByteBuffer buff ) 
+		throws IOException
+	{
+		try
+		{
+			if( _deep ) 
+			{
+				if( _bdata == null )
+					return false;
+				buff.put(_bdata);
+			}
+			else 
+			{
+				if( _mdata == null )
+					return false;
+				_mdata.write(new OffHeapDataOutput(buff));
+			}
+		}
+		catch(RuntimeException ex)
+		{
+			throw new IOException("Failed to write matrix into off-heap buffer.", ex);
+		}
+		
+		return true;
+	}
+	
 	/**
 	 * Returns the buffer size in bytes.
 	 * 
@@ -143,6 +215,33 @@ public class ByteBuffer
 		return _size;
 	}
 	
+	/**
+	 * Returns the size of the serialized (and potentially compressed)
+	 * representation in bytes.
+	 * 
+	 * @return
+	 */
+	public synchronized long getSerializedSize()
+	{
+		return (_deep && _bdata != null) ? _bdata.length : _size;
+	}
+	
+	/**
+	 * Shrinks the buffer size to the size of the compressed representation
+	 * (if any), and returns the number of released bytes.
+	 * 
+	 * @return
+	 */
+	public synchronized long releaseUnusedSize()
+	{
+		long ret = 0;
+		if( _compressed && _bdata != null && _bdata.length < _size ) {
+			ret = _size - _bdata.length;
+			_size = _bdata.length;
+		}
+		return ret;
+	}
+	
 	/**
 	 * 
 	 * @return
@@ -152,12 +251,15 @@ public class ByteBuffer
 		return _sparse;
 	}
 	
-	public void freeMemory()
+	/**
+	 * 
+	 */
+	public synchronized void freeMemory()
 	{
 		//clear strong references to buffer/matrix
-		if( _sparse )
+		if( _deep )
 		{
-			if( CacheableData.CACHING_BUFFER_PAGECACHE )
+			if( CacheableData.CACHING_BUFFER_PAGECACHE && _bdata!=null )
 				PageCache.putPage(_bdata);
 			_bdata = null;
 		}
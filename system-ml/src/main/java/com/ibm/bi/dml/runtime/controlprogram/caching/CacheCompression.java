@@ -0,0 +1,385 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.controlprogram.caching;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.ibm.bi.dml.api.DMLScript;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+
+/**
+ * Fast, pure Java byte compression for buffer pool serialization, using an
+ * LZ4-style block format (sequences of literal runs and back-references with 
+ * 16bit offsets, greedy matching via a single-entry hash table). The codec 
+ * trades compression ratio for speed, which is the right trade-off on the 
+ * critical path of matrix eviction.
+ * 
+ * Compressed payloads are self-describing: they start with a negative magic 
+ * number (which never occurs for serialized matrix blocks, which start with 
+ * the non-negative number of rows), followed by the uncompressed length.
+ * 
+ */
+public class CacheCompression 
+{
+	//magic number of compressed payloads (negative int)
+	public static final int MAGIC = 0xC0DEC0DE;
+	public static final int HEADER_SIZE = 8;
+	
+	//adaptive selection: sample size and maximum ratio of compressed to 
+	//uncompressed size, for byte-serialized (sparse) and shallow (dense) 
+	//blocks, where the latter requires an additional deep serialization
+	public static final int SAMPLE_SIZE = 64*1024; //in bytes
+	public static final double MAX_RATIO_SPARSE = 0.75;
+	public static final double MAX_RATIO_DENSE = 0.5;
+	
+	private static final int MIN_MATCH = 4;
+	private static final int MAX_OFFSET = 65535;
+	private static final int HASH_LOG = 12;
+	
+	/**
+	 * Compresses the given serialized block if the estimated compressed
+	 * size is at most MAX_RATIO_SPARSE of the uncompressed size. Returns 
+	 * the compressed payload (incl header) or the input array otherwise.
+	 * 
+	 * @param data
+	 * @return
+	 */
+	public static byte[] compressIfBeneficial( byte[] data )
+	{
+		int len = data.length;
+		if( estimateRatio(data, len) > MAX_RATIO_SPARSE )
+			return data;
+		
+		byte[] ret = compress(data, len, (int)(MAX_RATIO_SPARSE*len));
+		return (ret != null) ? ret : data;
+	}
+	
+	/**
+	 * Indicates if the dense block of the given matrix block is estimated
+	 * to be compressible to at most MAX_RATIO_DENSE of its serialized size,
+	 * based on a sample of its leading values (e.g., for low-cardinality 
+	 * dense matrices).
+	 * 
+	 * @param mb
+	 * @return
+	 */
+	public static boolean isCompressible( MatrixBlock mb )
+	{
+		double[] a = mb.getDenseArray();
+		if( mb.isInSparseFormat() || a == null )
+			return false;
+		
+		//serialize sample of leading values (big endian, as DataOutput)
+		int n = Math.min(SAMPLE_SIZE/8, Math.min(a.length, mb.getNumRows()*mb.getNumColumns()));
+		byte[] sample = new byte[n*8];
+		for( int i=0, off=0; i<n; i++, off+=8 ) {
+			long tmp = Double.doubleToRawLongBits(a[i]);
+			for( int j=0; j<8; j++ )
+				sample[off+j] = (byte)((tmp >>> (56-8*j)) & 0xFF);
+		}
+		
+		return (estimateRatio(sample, sample.length) <= MAX_RATIO_DENSE);
+	}
+	
+	/**
+	 * Indicates if the given payload is compressed.
+	 * 
+	 * @param data
+	 * @return
+	 */
+	public static boolean isCompressed( byte[] data )
+	{
+		return (data.length >= HEADER_SIZE && readInt(data, 0) == MAGIC);
+	}
+	
+	/**
+	 * Indicates if the given local file contains a compressed payload.
+	 * 
+	 * @param fname
+	 * @return
+	 * @throws IOException
+	 */
+	public static boolean isCompressedFile( String fname ) 
+		throws IOException
+	{
+		DataInputStream in = new DataInputStream(new FileInputStream(fname));
+		try {
+			return (in.readInt() == MAGIC);
+		}
+		catch(EOFException ex) {
+			return false;
+		}
+		finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Compresses the given data into a new array of exact size (incl header),
+	 * or returns null if the compressed size would exceed maxLen.
+	 * 
+	 * @param src
+	 * @param len
+	 * @param maxLen
+	 * @return
+	 */
+	public static byte[] compress( byte[] src, int len, int maxLen )
+	{
+		byte[] dst = new byte[Math.max(maxLen, HEADER_SIZE+16)];
+		writeInt(MAGIC, dst, 0);
+		writeInt(len, dst, 4);
+		
+		int clen = compress(src, len, dst, HEADER_SIZE);
+		if( clen < 0 )
+			return null;
+		
+		if( DMLScript.STATISTICS )
+			CacheStatistics.incrementCompression(len, clen);
+		
+		return Arrays.copyOf(dst, clen);
+	}
+	
+	/**
+	 * Decompresses the given compressed payload (incl header) into a new array.
+	 * 
+	 * @param data
+	 * @return
+	 * @throws IOException
+	 */
+	public static byte[] decompress( byte[] data ) 
+		throws IOException
+	{
+		if( !isCompressed(data) )
+			throw new IOException("Invalid compressed payload.");
+		
+		byte[] ret = new byte[readInt(data, 4)];
+		int len = decompress(data, HEADER_SIZE, data.length-HEADER_SIZE, ret);
+		if( len != ret.length )
+			throw new IOException("Corrupted compressed payload: "+len+" vs "+ret.length+" bytes.");
+		
+		return ret;
+	}
+	
+	/**
+	 * Estimates the ratio of compressed to uncompressed size by compressing
+	 * a sample of leading bytes.
+	 * 
+	 * @param data
+	 * @param len
+	 * @return
+	 */
+	private static double estimateRatio( byte[] data, int len )
+	{
+		int slen = Math.min(len, SAMPLE_SIZE);
+		if( slen == 0 )
+			return 1;
+		
+		byte[] tmp = new byte[slen + HEADER_SIZE];
+		int clen = compress(data, slen, tmp, 0);
+		return (clen < 0) ? 1 : (double)clen/slen;
+	}
+	
+	/**
+	 * Core compression of src[0,len) into dst, starting at offset dpos.
+	 * Returns the end position in dst, or -1 if dst is too small.
+	 * 
+	 * @param src
+	 * @param len
+	 * @param dst
+	 * @param dpos
+	 * @return
+	 */
+	private static int compress( byte[] src, int len, byte[] dst, int dpos )
+	{
+		int[] htab = new int[1 << HASH_LOG];
+		Arrays.fill(htab, -1);
+		
+		int sp = 0, anchor = 0;
+		while( sp + MIN_MATCH <= len )
+		{
+			//probe hash table for match candidate
+			int seq = readInt(src, sp);
+			int h = (seq * -1640531535) >>> (32-HASH_LOG);
+			int ref = htab[h];
+			htab[h] = sp;
+			if( ref < 0 || sp-ref > MAX_OFFSET || readInt(src, ref) != seq ) {
+				sp++;
+				continue;
+			}
+			
+			//extend match 
+			int mlen = MIN_MATCH;
+			while( sp+mlen < len && src[ref+mlen] == src[sp+mlen] )
+				mlen++;
+			
+			//emit sequence of literals and match
+			dpos = writeSequence(src, anchor, sp-anchor, dst, dpos, sp-ref, mlen);
+			if( dpos < 0 )
+				return -1;
+			sp += mlen;
+			anchor = sp;
+		}
+		
+		//emit last literals (w/o match)
+		return writeSequence(src, anchor, len-anchor, dst, dpos, 0, 0);
+	}
+	
+	/**
+	 * Core decompression of src[off,off+len) into dst. Returns the number 
+	 * of decompressed bytes.
+	 * 
+	 * @param src
+	 * @param off
+	 * @param len
+	 * @param dst
+	 * @return
+	 * @throws IOException
+	 */
+	private static int decompress( byte[] src, int off, int len, byte[] dst ) 
+		throws IOException
+	{
+		int ip = off, end = off+len, op = 0;
+		try
+		{
+			while( ip < end )
+			{
+				int token = src[ip++] & 0xFF;
+				
+				//copy literals
+				int llen = token >>> 4;
+				if( llen == 15 ) {
+					int b = 0;
+					do { b = src[ip++] & 0xFF; llen += b; } while( b == 255 );
+				}
+				System.arraycopy(src, ip, dst, op, llen);
+				ip += llen; op += llen;
+				if( ip >= end ) //last sequence
+					break;
+				
+				//copy match (byte-wise if overlapping)
+				int offset = (src[ip] & 0xFF) | ((src[ip+1] & 0xFF) << 8);
+				ip += 2;
+				int mlen = token & 0x0F;
+				if( mlen == 15 ) {
+					int b = 0;
+					do { b = src[ip++] & 0xFF; mlen += b; } while( b == 255 );
+				}
+				mlen += MIN_MATCH;
+				int ref = op - offset;
+				if( offset >= mlen )
+					System.arraycopy(dst, ref, dst, op, mlen);
+				else
+					for( int i=0; i<mlen; i++ )
+						dst[op+i] = dst[ref+i];
+				op += mlen;
+			}
+		}
+		catch(IndexOutOfBoundsException ex) {
+			throw new IOException("Corrupted compressed payload.", ex);
+		}
+		
+		return op;
+	}
+	
+	/**
+	 * 
+	 * @param src
+	 * @param lpos
+	 * @param llen
+	 * @param dst
+	 * @param dpos
+	 * @param offset
+	 * @param mlen match length, 0 for the last sequence
+	 * @return
+	 */
+	private static int writeSequence( byte[] src, int lpos, int llen, byte[] dst, int dpos, int offset, int mlen )
+	{
+		//check for sufficient space (token, lengths, literals, offset)
+		int maxlen = 1 + llen/255 + 1 + llen + 2 + mlen/255 + 1;
+		if( dpos + maxlen > dst.length )
+			return -1;
+		
+		//write token and extended literal length
+		int mtok = (mlen > 0) ? mlen-MIN_MATCH : 0;
+		dst[dpos++] = (byte)((Math.min(llen, 15) << 4) | Math.min(mtok, 15));
+		dpos = writeLength(llen, dst, dpos);
+		
+		//write literals 
+		System.arraycopy(src, lpos, dst, dpos, llen);
+		dpos += llen;
+		
+		//write offset and extended match length
+		if( mlen > 0 ) {
+			dst[dpos++] = (byte)(offset & 0xFF);
+			dst[dpos++] = (byte)((offset >>> 8) & 0xFF);
+			dpos = writeLength(mtok, dst, dpos);
+		}
+		
+		return dpos;
+	}
+	
+	/**
+	 * 
+	 * @param len
+	 * @param dst
+	 * @param dpos
+	 * @return
+	 */
+	private static int writeLength( int len, byte[] dst, int dpos )
+	{
+		if( len >= 15 ) {
+			int rem = len - 15;
+			for( ; rem >= 255; rem -= 255 )
+				dst[dpos++] = (byte)255;
+			dst[dpos++] = (byte)rem;
+		}
+		return dpos;
+	}
+	
+	/**
+	 * 
+	 * @param ba
+	 * @param off
+	 * @return
+	 */
+	private static int readInt( byte[] ba, final int off )
+	{
+		return ((ba[off+0] & 0xFF) << 24) +
+			   ((ba[off+1] & 0xFF) << 16) +
+			   ((ba[off+2] & 0xFF) <<  8) +
+			   ((ba[off+3] & 0xFF) <<  0);
+	}
+	
+	/**
+	 * 
+	 * @param val
+	 * @param ba
+	 * @param off
+	 */
+	private static void writeInt( final int val, byte[] ba, final int off )
+	{
+		ba[ off+0 ] = (byte)((val >>> 24) & 0xFF);
+		ba[ off+1 ] = (byte)((val >>> 16) & 0xFF);
+		ba[ off+2 ] = (byte)((val >>>  8) & 0xFF);
+		ba[ off+3 ] = (byte)((val >>>  0) & 0xFF);
+	}
+}
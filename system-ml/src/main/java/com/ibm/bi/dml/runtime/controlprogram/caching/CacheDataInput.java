@@ -22,6 +22,7 @@ import java.io.IOException;
 
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlockDataInput;
 import com.ibm.bi.dml.runtime.matrix.data.SparseRow;
+import com.ibm.bi.dml.runtime.util.BulkSerializationUtils;
 
 public class CacheDataInput implements DataInput, MatrixBlockDataInput
 {
@@ -142,20 +143,9 @@ public class CacheDataInput implements DataInput, MatrixBlockDataInput
 	public long readDoubleArray(int len, double[] varr) 
 		throws IOException 
 	{
-		//counter for non-zero elements
-		long nnz = 0;
-		
-		int off = _count;
-		for( int i=0; i<len; i++ ) 
-		{
-			//core deserialization
-			long tmp = baToLong(_buff, off+i*8);
-			varr[i] = Double.longBitsToDouble( tmp );
-			
-			//nnz maintenance
-			nnz += (varr[i]!=0) ? 1 : 0; 
-		}
-		_count = off + len*8;
+		//bulk deserialization, incl nnz maintenance
+		long nnz = BulkSerializationUtils.bytesToDoubles(_buff, _count, varr, 0, len);
+		_count += len*8;
 		
 		return nnz;
 	}
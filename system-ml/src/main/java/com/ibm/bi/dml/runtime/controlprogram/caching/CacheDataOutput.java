@@ -22,7 +22,8 @@ import java.io.IOException;
 
 
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlockDataOutput;
-import com.ibm.bi.dml.runtime.matrix.data.SparseRow;
+import com.ibm.bi.dml.runtime.matrix.data.SparseBlock;
+import com.ibm.bi.dml.runtime.util.BulkSerializationUtils;
 
 /**
  * Customer DataOutput to serialize directly into the given byte array.
@@ -141,39 +142,32 @@ public class CacheDataOutput implements DataOutput, MatrixBlockDataOutput
 	public void writeDoubleArray(int len, double[] varr) 
 		throws IOException
 	{
-		//original buffer offset
-		int off = _count;
-		
-		//serialize entire array into buffer
-		for( int i=0; i<len; i++ )
-		{
-		    long tmp = Double.doubleToRawLongBits(varr[i]);
-		    longToBa(tmp, _buff, off+i*8);
-		}
+		//bulk serialization of entire array into buffer
+		BulkSerializationUtils.doublesToBytes(varr, 0, len, _buff, _count);
 		
 		//update buffer offset
-		_count = off + len*8;
+		_count += len*8;
 	}
 	
 	@Override
-	public void writeSparseRows(int rlen, SparseRow[] rows) 
+	public void writeSparseRows(int rlen, SparseBlock rows) 
 		throws IOException
 	{
-		int lrlen = Math.min(rows.length, rlen);
+		int lrlen = Math.min(rows.numRows(), rlen);
 		
 		//process existing rows
 		for( int i=0; i<lrlen; i++ )
 		{
-			SparseRow arow = rows[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !rows.isEmpty(i) )
 			{
-				int alen = arow.size();
-				int[] aix = arow.getIndexContainer();
-				double[] avals = arow.getValueContainer();
+				int apos = rows.pos(i);
+				int alen = rows.size(i);
+				int[] aix = rows.indexes(i);
+				double[] avals = rows.values(i);
 				
 				writeInt( alen );
 
-				for( int j=0; j<alen; j++ )
+				for( int j=apos; j<apos+alen; j++ )
 				{
 					intToBa(aix[j], _buff, _count);
 					long tmp2 = Double.doubleToRawLongBits(avals[j]);
@@ -53,14 +53,21 @@ public class CacheStatistics
 	private static AtomicInteger _numHitsTotal  = null;
 	private static AtomicInteger _numHitsMem    = null;
 	private static AtomicInteger _numHitsFSBuff = null;
+	private static AtomicInteger _numHitsOffHeap = null;
 	private static AtomicInteger _numHitsFS     = null;
 	private static AtomicInteger _numHitsHDFS   = null;
 	
 	//write statistics caching
 	private static AtomicInteger _numWritesFSBuff = null;
+	private static AtomicInteger _numWritesOffHeap = null;
 	private static AtomicInteger _numWritesFS     = null;
 	private static AtomicInteger _numWritesHDFS   = null;
 	
+	//compression statistics (buffer pool serialization)
+	private static AtomicInteger _numCompressed  = null;
+	private static AtomicLong _bytesUncompressed = null;
+	private static AtomicLong _bytesCompressed   = null;
+	
 	//time statistics caching
 	private static AtomicLong _ctimeAcquireR   = null; //in nano sec
 	private static AtomicLong _ctimeAcquireM   = null; //in nano sec
@@ -77,13 +84,19 @@ public class CacheStatistics
 		_numHitsTotal = new AtomicInteger(0);
 		_numHitsMem = new AtomicInteger(0);
 		_numHitsFSBuff = new AtomicInteger(0);
+		_numHitsOffHeap = new AtomicInteger(0);
 		_numHitsFS = new AtomicInteger(0);
 		_numHitsHDFS = new AtomicInteger(0);
 		
 		_numWritesFSBuff = new AtomicInteger(0);
+		_numWritesOffHeap = new AtomicInteger(0);
 		_numWritesFS = new AtomicInteger(0);
 		_numWritesHDFS = new AtomicInteger(0);
 		
+		_numCompressed = new AtomicInteger(0);
+		_bytesUncompressed = new AtomicLong(0);
+		_bytesCompressed = new AtomicLong(0);
+		
 		_ctimeAcquireR = new AtomicLong(0);
 		_ctimeAcquireM = new AtomicLong(0);
 		_ctimeRelease = new AtomicLong(0);
@@ -135,6 +148,16 @@ public class CacheStatistics
 		return _numHitsFSBuff.get();
 	}
 	
+	public static void incrementOffHeapHits()
+	{
+		_numHitsOffHeap.incrementAndGet();
+	}
+	
+	public static int getOffHeapHits()
+	{
+		return _numHitsOffHeap.get();
+	}
+	
 	public static void incrementFSHits()
 	{
 		_numHitsFS.incrementAndGet();
@@ -180,6 +203,16 @@ public class CacheStatistics
 		return _numWritesFSBuff.get();
 	}
 	
+	public static void incrementOffHeapWrites()
+	{
+		_numWritesOffHeap.incrementAndGet();
+	}
+	
+	public static int getOffHeapWrites()
+	{
+		return _numWritesOffHeap.get();
+	}
+	
 	public static void incrementFSWrites()
 	{
 		_numWritesFS.incrementAndGet();
@@ -210,6 +243,30 @@ public class CacheStatistics
 		return _numWritesHDFS.get();
 	}
 	
+	public static void incrementCompression(long ulen, long clen)
+	{
+		_numCompressed.incrementAndGet();
+		_bytesUncompressed.addAndGet(ulen);
+		_bytesCompressed.addAndGet(clen);
+	}
+	
+	public static int getNumCompressed()
+	{
+		return _numCompressed.get();
+	}
+	
+	/**
+	 * Get the ratio of uncompressed to compressed size over all compressed 
+	 * blocks, or 1 if no block has been compressed.
+	 * 
+	 * @return
+	 */
+	public static double getCompressionRatio()
+	{
+		long clen = _bytesCompressed.get();
+		return (clen > 0) ? (double)_bytesUncompressed.get()/clen : 1;
+	}
+	
 	public static void incrementAcquireRTime(long delta)
 	{
 		_ctimeAcquireR.addAndGet(delta);
@@ -259,6 +316,8 @@ public class CacheStatistics
 		sb.append("/");
 		sb.append(_numHitsFSBuff.get());
 		sb.append("/");
+		sb.append(_numHitsOffHeap.get());
+		sb.append("/");
 		sb.append(_numHitsFS.get());
 		sb.append("/");
 		sb.append(_numHitsHDFS.get());
@@ -272,6 +331,8 @@ public class CacheStatistics
 		StringBuilder sb = new StringBuilder();
 		sb.append(_numWritesFSBuff.get());
 		sb.append("/");
+		sb.append(_numWritesOffHeap.get());
+		sb.append("/");
 		sb.append(_numWritesFS.get());
 		sb.append("/");
 		sb.append(_numWritesHDFS.get());
@@ -280,6 +341,16 @@ public class CacheStatistics
 		return sb.toString();
 	}
 	
+	public static String displayCompression()
+	{	
+		StringBuilder sb = new StringBuilder();
+		sb.append(_numCompressed.get());
+		sb.append("/");
+		sb.append(String.format("%.2f", getCompressionRatio()));
+		
+		return sb.toString();
+	}
+	
 	public static String displayTime()
 	{	
 		StringBuilder sb = new StringBuilder();
@@ -59,7 +59,10 @@ public abstract class CacheableData extends Data
 	public static final double 	CACHING_BUFFER_SIZE = 0.15; 
 	public static final RPolicy CACHING_BUFFER_POLICY = RPolicy.FIFO; 
 	public static final boolean CACHING_BUFFER_PAGECACHE = false; 
+	public static final boolean CACHING_BUFFER_COMPRESSION = true; //adaptive compression of buffered/evicted blocks
 	public static final boolean CACHING_WRITE_CACHE_ON_READ = false;
+	public static final boolean CACHING_ASYNC_EXPORT = true; //asynchronous persistent writes (see AsyncExportQueue)
+	public static final double 	CACHING_ASYNC_EXPORT_SIZE = 0.1; //max in-flight matrices of async exports
 	
 	public static final String CACHING_COUNTER_GROUP_NAME    = "SystemML Caching Counters";
 	
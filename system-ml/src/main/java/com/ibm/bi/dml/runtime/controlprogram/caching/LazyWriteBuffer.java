@@ -21,6 +21,11 @@ import java.io.IOException;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import com.ibm.bi.dml.api.DMLScript;
 import com.ibm.bi.dml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
@@ -28,27 +33,55 @@ import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
 import com.ibm.bi.dml.runtime.util.LocalFileUtils;
 
 /**
+ * Buffer pool of serialized matrices, which are evicted to local FS in FIFO
+ * or LRU order if the buffer limit is exceeded.
  * 
+ * Concurrency: lookups are served by a concurrent (internally lock-striped) 
+ * index without any global lock. The eviction queue is only locked for constant
+ * time operations (insert, delete, reorder), and eviction to local FS is done by
+ * a background evictor thread outside this lock. Writers block (back-pressure) 
+ * only if the buffer has insufficient free space, until the evictor released 
+ * enough memory. Evicted matrices remain readable from the buffer until they 
+ * have been completely written to the off-heap tier (see OffHeapBuffer, if 
+ * configured) or local FS.
  * 
  */
 public class LazyWriteBuffer 
 {
+	private static final Log LOG = LogFactory.getLog(LazyWriteBuffer.class.getName());
 	
 	public enum RPolicy{
 		FIFO,
 		LRU
 	}
 	
+	//fraction of the buffer limit, above which the evictor proactively 
+	//evicts matrices in order to avoid blocking subsequent writers
+	public static final double EVICTION_WATERMARK = 0.9;
+	
 	//global size limit in bytes
 	private static long _limit; 
 	
-	//current size in bytes
-	private static long _size;  
+	//current size in bytes (incl matrices under eviction)
+	private static AtomicLong _size = new AtomicLong(0);  
+	
+	//index of <filename,buffer> pairs for lock-free lookups
+	private static ConcurrentHashMap<String, ByteBuffer> _mIndex;
 	
 	//eviction queue of <filename,buffer> pairs (implemented via linked hash map 
-	//for (1) queue semantics and (2) constant time get/insert/delete operations)
+	//for (1) queue semantics and (2) constant time get/insert/delete operations),
+	//which also serves as lock for all modifications of buffer pool meta data
 	private static EvictionQueue _mQueue;
 	
+	//sum of requested bytes of blocked writers 
+	private static long _requested = 0;
+	
+	//background evictor, last unreported eviction error (if any), and number
+	//of failed evictions since the last successful eviction
+	private static Evictor _evictor = null;
+	private static IOException _evictError = null;
+	private static int _evictFailures = 0;
+	
 	static 
 	{
 		//obtain the logical buffer size in bytes
@@ -71,45 +104,43 @@ public class LazyWriteBuffer
 	
 		if( !requiresWrite ) //if it fits in writebuffer
 		{			
-			ByteBuffer bbuff = null;
+			//create buffer (reserve mem), and lock
+			ByteBuffer bbuff = new ByteBuffer( lSize );
 			
 			//modify buffer pool
 			synchronized( _mQueue )
 			{
-				//evict matrices to make room (by default FIFO)
-				while( _size+lSize >= _limit )
-				{
-					//remove first entry from eviction queue
-					Entry<String, ByteBuffer> entry = _mQueue.removeFirst();
-					String ftmp = entry.getKey();
-					ByteBuffer tmp = entry.getValue();
-					
-					if( tmp != null )
-					{
-						//wait for pending serialization
-						tmp.checkSerialized();
-						
-						//evict matrix
-						tmp.evictBuffer(ftmp);
-						tmp.freeMemory();
-						_size-=tmp.getSize();
-						
-						if( DMLScript.STATISTICS )
-							CacheStatistics.incrementFSWrites();
-					}
-				}
-				
-				//create buffer (reserve mem), and lock
-				bbuff = new ByteBuffer( lSize );
+				//wait for async eviction to make room (back-pressure)
+				reserveMemory( lSize );
 				
 				//put placeholder into buffer pool 
+				ByteBuffer old = _mIndex.put(fname, bbuff);
+				if( old != null ) {
+					_mQueue.remove(fname);
+					_size.addAndGet(-old.getSize());
+					old.freeMemory();
+				}
 				_mQueue.addLast(fname, bbuff);
-				_size += lSize;	
+				
+				//trigger proactive eviction if necessary
+				if( _size.get() > EVICTION_WATERMARK * _limit )
+					_mQueue.notifyAll();
 			}
 			
 			//serialize matrix (outside synchronized critical path)
 			bbuff.serializeMatrix(mb);
 			
+			//release reserved but unused memory of compressed matrices
+			//(if not deleted or evicted in the meantime)
+			if( CacheableData.CACHING_BUFFER_COMPRESSION ) {
+				synchronized( _mQueue ) {
+					if( _mIndex.get(fname) == bbuff ) {
+						_size.addAndGet(-bbuff.releaseUnusedSize());
+						_mQueue.notifyAll();
+					}
+				}
+			}
+			
 			if( DMLScript.STATISTICS )
 				CacheStatistics.incrementFSBuffWrites();
 		}	
@@ -132,18 +163,21 @@ public class LazyWriteBuffer
 		
 		synchronized( _mQueue )
 		{
-			//remove queue entry 
-			ByteBuffer ldata = _mQueue.remove(fname);
+			//remove index and queue entry (the queue entry might not exist
+			//if the matrix is currently evicted, see Evictor) 
+			ByteBuffer ldata = _mIndex.remove(fname);
 			if( ldata != null )
 			{
-				_size -= ldata.getSize(); 
+				_mQueue.remove(fname);
+				_size.addAndGet(-ldata.getSize()); 
 				requiresDelete = false;
 				ldata.freeMemory(); //cleanup
+				_mQueue.notifyAll(); //notify blocked writers
 			}
 		}
 		
-		//delete from FS if required
-		if( requiresDelete )
+		//delete from off-heap tier or FS if required
+		if( requiresDelete && !OffHeapBuffer.deleteMatrix(fname) )
 			LocalFileUtils.deleteFileIfExists(fname, true);
 	}
 	
@@ -157,49 +191,159 @@ public class LazyWriteBuffer
 		throws IOException
 	{
 		MatrixBlock mb = null;
-		ByteBuffer ldata = null;
 		
-		//probe write buffer
-		synchronized( _mQueue )
+		//probe write buffer (lock-free)
+		ByteBuffer ldata = _mIndex.get(fname);
+		
+		//modify eviction order (accordingly to access)
+		if(    CacheableData.CACHING_BUFFER_POLICY == RPolicy.LRU 
+			&& ldata != null )
 		{
-			ldata = _mQueue.get(fname);
-			
-			//modify eviction order (accordingly to access)
-			if(    CacheableData.CACHING_BUFFER_POLICY == RPolicy.LRU 
-				&& ldata != null )
+			synchronized( _mQueue )
 			{
 				//reinsert entry at end of eviction queue
-				_mQueue.remove( fname );
-				_mQueue.addLast( fname, ldata );
+				//(if not removed or under eviction in the meantime)
+				if( _mQueue.remove( fname ) != null )
+					_mQueue.addLast( fname, ldata );
 			}
 		}
 		
-		//deserialize or read from FS if required
+		//deserialize, probe off-heap tier, or read from FS if required
+		//(null if concurrently evicted, then guaranteed to exist off-heap or on FS)
 		if( ldata != null )
-		{
 			mb = ldata.deserializeMatrix();
+		
+		if( mb != null )
+		{
 			if( DMLScript.STATISTICS )
 				CacheStatistics.incrementFSBuffHits();
 		}
+		else if( (mb = OffHeapBuffer.readMatrix(fname)) != null )
+		{
+			//nothing to do (off-heap stats maintained by OffHeapBuffer)
+		}
 		else
 		{
-			mb = LocalFileUtils.readMatrixBlockFromLocal(fname); //read from FS
+			mb = readMatrixFromLocal(fname); //read from FS
+
 			if( DMLScript.STATISTICS )
 				CacheStatistics.incrementFSHits();
 		}
 		
 		return mb;
 	}
+	
+	/**
+	 * Reads an evicted matrix from local FS, which might have been written
+	 * in compressed form (see CacheCompression).
+	 * 
+	 * @param fname
+	 * @return
+	 * @throws IOException
+	 */
+	private static MatrixBlock readMatrixFromLocal( String fname ) 
+		throws IOException
+	{
+		if( CacheableData.CACHING_BUFFER_COMPRESSION && CacheCompression.isCompressedFile(fname) ) {
+			byte[] data = CacheCompression.decompress(LocalFileUtils.readByteArrayFromLocal(fname));
+			MatrixBlock mb = new MatrixBlock();
+			mb.readFields(new CacheDataInput(data), true); //read-only restore
+			return mb;
+		}
+		
+		return LocalFileUtils.readMatrixBlockFromLocal(fname, new MatrixBlock(), true);
+	}
+	
+	/**
+	 * Waits until the buffer pool has sufficient free space for the given 
+	 * number of bytes, and reserves this space. Must be called while holding 
+	 * the lock of the eviction queue.
+	 * 
+	 * @param lSize
+	 * @throws IOException
+	 */
+	private static void reserveMemory( long lSize ) 
+		throws IOException
+	{
+		//robustness for writes after cleanup
+		if( _evictor == null )
+			startEvictor();
 		
+		//robustness for failed (e.g., proactive) evictions
+		checkEvictionError();
+		
+		_requested += lSize;
+		try 
+		{
+			while( _size.get()+lSize > _limit )
+			{
+				//robustness for failed evictions while waiting
+				checkEvictionError();
+				
+				//notify evictor and wait for released memory
+				_mQueue.notifyAll();
+				_mQueue.wait();
+			}
+		}
+		catch(InterruptedException ex) {
+			throw new IOException(ex);
+		}
+		finally {
+			_requested -= lSize;
+		}
+		
+		_size.addAndGet(lSize);
+	}
+	
+	/**
+	 * Raises (and resets) the last eviction error, if any. Failed matrices
+	 * remain in the buffer and are retried by subsequent evictions. Must be 
+	 * called while holding the lock of the eviction queue.
+	 * 
+	 * @throws IOException
+	 */
+	private static void checkEvictionError() 
+		throws IOException
+	{
+		if( _evictError != null ) {
+			IOException ex = _evictError;
+			_evictError = null;
+			_evictFailures = 0; //allow retry of failed matrices
+			_mQueue.notifyAll();
+			throw new IOException("Failed to evict buffered matrix.", ex);
+		}
+	}
+	
 	/**
 	 * 
 	 */
 	public static void init()
 	{
+		init( getWriteBufferSize() );
+	}
+	
+	/**
+	 * 
+	 * @param limit buffer size in bytes
+	 */
+	public static void init( long limit )
+	{
+		//stop evictor of previous initialization
+		stopEvictor();
+		
+		_limit = limit;
+		_mIndex = new ConcurrentHashMap<String, ByteBuffer>();
 		_mQueue = new EvictionQueue();		
-		_size = 0;
+		_size.set(0);
+		_requested = 0;
+		_evictError = null;
+		_evictFailures = 0;
 		if( CacheableData.CACHING_BUFFER_PAGECACHE )
 			PageCache.init();
+		OffHeapBuffer.init();
+		
+		//start background evictor
+		startEvictor();
 	}
 	
 	/**
@@ -207,12 +351,31 @@ public class LazyWriteBuffer
 	 */
 	public static void cleanup()
 	{
-		if( _mQueue!=null )
-			_mQueue.clear();
+		//wait for pending evictions
+		stopEvictor();
+		
+		if( _mQueue!=null ) {
+			synchronized( _mQueue ) {
+				_mQueue.clear();
+				_mIndex.clear();
+				_size.set(0);
+			}
+		}
+		OffHeapBuffer.cleanup();
 		if( CacheableData.CACHING_BUFFER_PAGECACHE )
 			PageCache.clear();
 	}
 	
+	/**
+	 * Get the current size of the write buffer in bytes.
+	 * 
+	 * @return
+	 */
+	public static long getSize()
+	{
+		return _size.get();
+	}
+	
 	/**
 	 * 
 	 * @return
@@ -230,21 +393,160 @@ public class LazyWriteBuffer
 	{
 		System.out.println("WRITE BUFFER STATUS ("+position+") --");
 		
-		//print buffer meta data
-		System.out.println("\tWB: Buffer Meta Data: " +
-				     "limit="+_limit+", " +
-				     "size[bytes]="+_size+", " +
-				     "size[elements]="+_mQueue.size()+"/"+_mQueue.size());
-		
-		//print current buffer entries
-		int count = _mQueue.size();
-		for( Entry<String, ByteBuffer> entry : _mQueue.entrySet() )
+		synchronized( _mQueue )
 		{
-			String fname = entry.getKey();
-			ByteBuffer bbuff = entry.getValue();
+			//print buffer meta data
+			System.out.println("\tWB: Buffer Meta Data: " +
+					     "limit="+_limit+", " +
+					     "size[bytes]="+_size.get()+", " +
+					     "size[elements]="+_mQueue.size()+"/"+_mIndex.size());
 			
-			System.out.println("\tWB: buffer element ("+count+"): "+fname+", "+bbuff.getSize()+", "+bbuff.isInSparseFormat());
-			count--;
+			//print current buffer entries
+			int count = _mQueue.size();
+			for( Entry<String, ByteBuffer> entry : _mQueue.entrySet() )
+			{
+				String fname = entry.getKey();
+				ByteBuffer bbuff = entry.getValue();
+				
+				System.out.println("\tWB: buffer element ("+count+"): "+fname+", "+bbuff.getSize()+", "+bbuff.isInSparseFormat());
+				count--;
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 */
+	private static void startEvictor()
+	{
+		_evictor = new Evictor(_mQueue);
+		_evictor.start();
+	}
+	
+	/**
+	 * 
+	 */
+	private static void stopEvictor()
+	{
+		if( _evictor == null )
+			return;
+		
+		synchronized( _evictor._queue ) {
+			_evictor._stop = true;
+			_evictor._queue.notifyAll();
+		}
+		try {
+			_evictor.join();
+		}
+		catch(InterruptedException ex) {
+			//ignore, evictor is daemon thread
+		}
+		_evictor = null;
+	}
+	
+	/**
+	 * Background thread that evicts buffered matrices to local FS in the 
+	 * order of the eviction queue, if blocked writers require memory or the
+	 * buffer size exceeds the eviction watermark. 
+	 * 
+	 */
+	private static class Evictor extends Thread
+	{
+		private final EvictionQueue _queue;
+		private boolean _stop = false;
+		
+		public Evictor( EvictionQueue queue ) 
+		{
+			super("SystemML-buffer-evictor");
+			setDaemon(true);
+			_queue = queue;
+		}
+		
+		@Override
+		public void run()
+		{
+			while( true )
+			{
+				String ftmp = null;
+				ByteBuffer tmp = null;
+				
+				//get next eviction candidate
+				synchronized( _queue )
+				{
+					try {
+						while( !_stop && !requiresEviction() )
+							_queue.wait();
+					}
+					catch(InterruptedException ex) {
+						return;
+					}
+					if( _stop )
+						return;
+					
+					//remove first entry from eviction queue, but keep it
+					//in the index until written to FS (for concurrent reads)
+					Entry<String, ByteBuffer> entry = _queue.removeFirst();
+					ftmp = entry.getKey();
+					tmp = entry.getValue();
+				}
+				
+				try
+				{
+					//wait for pending serialization
+					tmp.checkSerialized();
+					
+					//evict matrix to off-heap tier or local FS
+					//(outside synchronized critical path)
+					if( !OffHeapBuffer.writeMatrix(ftmp, tmp) ) {
+						tmp.evictBuffer(ftmp);
+						if( DMLScript.STATISTICS )
+							CacheStatistics.incrementFSWrites();
+					}
+					
+					synchronized( _queue )
+					{
+						//remove index entry, if not deleted in the meantime,
+						//otherwise delete the evicted matrix as well
+						if( _mIndex.remove(ftmp, tmp) )
+							_size.addAndGet(-tmp.getSize());
+						else if( !OffHeapBuffer.deleteMatrix(ftmp) )
+							LocalFileUtils.deleteFileIfExists(ftmp, true);
+						tmp.freeMemory();
+						_evictFailures = 0;
+						_queue.notifyAll(); //notify blocked writers
+					}
+				}
+				catch(IOException ex)
+				{
+					LOG.error("Failed to evict buffered matrix "+ftmp+".", ex);
+					synchronized( _queue ) 
+					{
+						//keep matrix in buffer (for retry at end of the queue), 
+						//pass error to the next writer, and continue eviction
+						if( _mIndex.get(ftmp) == tmp )
+							_queue.addLast(ftmp, tmp);
+						_evictError = ex;
+						_evictFailures++;
+						_queue.notifyAll();
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Must be called while holding the lock of the eviction queue.
+		 * 
+		 * @return
+		 */
+		private boolean requiresEviction()
+		{
+			//no eviction if all queued matrices failed since the last
+			//successful eviction (until reported or new matrices arrive)
+			if( _queue.isEmpty() || _evictFailures >= _queue.size() )
+				return false;
+			long size = _size.get();
+			return (   (_requested > 0 && size+_requested > _limit) 
+					|| size > EVICTION_WATERMARK * _limit );
 		}
 	}
 	
@@ -19,20 +19,26 @@ package com.ibm.bi.dml.runtime.controlprogram.caching;
 
 import java.io.IOException;
 import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 
 import com.ibm.bi.dml.api.DMLScript;
 import com.ibm.bi.dml.api.DMLScript.RUNTIME_PLATFORM;
+import com.ibm.bi.dml.conf.ConfigurationManager;
+import com.ibm.bi.dml.conf.DMLConfig;
 import com.ibm.bi.dml.hops.OptimizerUtils;
 import com.ibm.bi.dml.lops.Lop;
 import com.ibm.bi.dml.parser.DMLTranslator;
 import com.ibm.bi.dml.parser.Expression.DataType;
 import com.ibm.bi.dml.parser.Expression.ValueType;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
+import com.ibm.bi.dml.runtime.compress.CompressedMatrixBlock;
 import com.ibm.bi.dml.runtime.controlprogram.ParForProgramBlock.PDataPartitionFormat;
 import com.ibm.bi.dml.runtime.controlprogram.context.SparkExecutionContext;
 import com.ibm.bi.dml.runtime.instructions.spark.data.BroadcastObject;
 import com.ibm.bi.dml.runtime.instructions.spark.data.RDDObject;
 import com.ibm.bi.dml.runtime.instructions.spark.data.RDDProperties;
+import com.ibm.bi.dml.runtime.io.BinaryBlockIndex;
+import com.ibm.bi.dml.runtime.io.ReaderBinaryBlock;
 import com.ibm.bi.dml.runtime.matrix.MatrixCharacteristics;
 import com.ibm.bi.dml.runtime.matrix.MatrixDimensionsMetaData;
 import com.ibm.bi.dml.runtime.matrix.MatrixFormatMetaData;
@@ -71,6 +77,13 @@ public class MatrixObject extends CacheableData
 	 * Container object that holds the actual data.
 	 */
 	private MatrixBlock _data = null;
+	
+	/**
+	 * Cache for the decompressed copy of compressed data (reused across 
+	 * compression-unaware reads), evicted by garbage collector.
+	 */
+	private SoftReference<MatrixBlock> _decompressed = null;
+	private WeakReference<CompressedMatrixBlock> _decompressedSrc = null;
 
 	/**
 	 * The name of HDFS file in which the data is backed up.
@@ -128,6 +141,7 @@ public class MatrixObject extends CacheableData
 	private int _partitionSize = -1; //indicates n for BLOCKWISE_N
 	private String _partitionCacheName = null; //name of cache block
 	private MatrixBlock _partitionInMemory = null;
+	private int _numRangeReads = 0; //number of range reads via block index
 	
 	/**
 	 * Information relevant to specific external file formats
@@ -458,6 +472,21 @@ public class MatrixObject extends CacheableData
 	 */
 	public synchronized MatrixBlock acquireRead()
 		throws CacheException
+	{
+		return acquireRead(false);
+	}
+	
+	/**
+	 * Acquires a shared "read-only" lock (see acquireRead), where compression-aware
+	 * callers may obtain a compressed matrix block. All other callers obtain a 
+	 * decompressed copy, while the compressed block remains in the buffer pool.
+	 * 
+	 * @param allowCompressed
+	 * @return the matrix data reference
+	 * @throws CacheException 
+	 */
+	public synchronized MatrixBlock acquireRead( boolean allowCompressed )
+		throws CacheException
 	{
 		if( LOG.isTraceEnabled() )
 			LOG.trace("Acquire read "+_varName);
@@ -488,6 +517,10 @@ public class MatrixObject extends CacheableData
 					//read matrix from hdfs
 					_data = readMatrixFromHDFS( _hdfsFileName );
 					
+					//compress read-only matrix (if enabled and beneficial)
+					if( isCompressionEnabled() )
+						_data = compress( _data );
+					
 					//mark for initial local write despite read operation
 					_requiresLocalWrite = CACHING_WRITE_CACHE_ON_READ;
 				}
@@ -523,6 +556,11 @@ public class MatrixObject extends CacheableData
 			CacheStatistics.incrementAcquireRTime(t1-t0);
 		}
 		
+		//decompress for callers that are not aware of compression
+		//(reuse cached decompressed copy across repeated reads)
+		if( !allowCompressed && _data instanceof CompressedMatrixBlock )
+			return getDecompressed( (CompressedMatrixBlock)_data );
+		
 		return _data;
 	}
 	
@@ -574,6 +612,12 @@ public class MatrixObject extends CacheableData
 		_dirtyFlag = true;
 		_isAcquireFromEmpty = false;
 		
+		//decompress in place (compressed blocks are read-only)
+		if( _data instanceof CompressedMatrixBlock ) {
+			_data = getDecompressed( (CompressedMatrixBlock)_data );
+			clearDecompressed();
+		}
+		
 		if( DMLScript.STATISTICS ){
 			long t1 = System.nanoTime();
 			CacheStatistics.incrementAcquireMTime(t1-t0);
@@ -724,6 +768,7 @@ public class MatrixObject extends CacheableData
 		// clear the in-memory data
 		_data = null;	
 		clearCache();
+		clearDecompressed();
 		
 		// clear rdd/broadcast back refs
 		if( _rddHandle != null )
@@ -847,13 +892,19 @@ public class MatrixObject extends CacheableData
 				getCache();
 			super.acquire( false, _data==null ); //incl. read matrix if evicted	
 			
-			// b) write the matrix 
+			// b) write the matrix (persistent writes asynchronously, if possible)
 			try
 			{
-				writeMetaData( fName, outputFormat, formatProperties );
-				writeMatrixToHDFS( fName, outputFormat, replication, formatProperties );
-				if ( !pWrite )
-					_dirtyFlag = false;
+				if( pWrite && isAsyncExportEnabled() ) {
+					exportDataAsync( fName, outputFormat, replication, formatProperties );
+				}
+				else {
+					AsyncExportQueue.waitForPendingExports( fName );
+					writeMetaData( fName, outputFormat, formatProperties );
+					writeMatrixToHDFS( fName, outputFormat, replication, formatProperties );
+					if ( !pWrite )
+						_dirtyFlag = false;
+				}
 			}
 			catch (Exception e)
 			{
@@ -869,6 +920,8 @@ public class MatrixObject extends CacheableData
 			//CASE 2: matrix already in same format but different file on hdfs (copy matrix to fname)
 			try
 			{
+				AsyncExportQueue.waitForPendingExports( _hdfsFileName );
+				AsyncExportQueue.waitForPendingExports( fName );
 				MapReduceTool.deleteFileIfExistOnHDFS(fName);
 				MapReduceTool.deleteFileIfExistOnHDFS(fName+".mtd");
 				if( getRDDHandle()==null || getRDDHandle().allowsShortCircuitRead() )
@@ -887,6 +940,7 @@ public class MatrixObject extends CacheableData
 			//CASE 3: pending rdd operation (other than checkpoints)
 			try
 			{
+				AsyncExportQueue.waitForPendingExports( fName );
 				writeMatrixFromRDDtoHDFS(getRDDHandle(), fName, outputFormat);
 				writeMetaData( fName, outputFormat, formatProperties );
 			}
@@ -906,6 +960,49 @@ public class MatrixObject extends CacheableData
 		}
 	}
 
+	/**
+	 * Indicates if persistent writes of this matrix can be exported asynchronously,
+	 * which requires that the in-memory matrix block is not updated in-place. Since 
+	 * in-place updates might be enabled after the export was submitted (e.g., for 
+	 * parfor result variables), in-place left indexing additionally waits for 
+	 * pending exports of the pinned block.
+	 * 
+	 * @return
+	 */
+	private boolean isAsyncExportEnabled()
+	{
+		return CacheableData.CACHING_ASYNC_EXPORT
+			&& !isUpdateInPlace() && _data != null;
+	}
+	
+	/**
+	 * Schedules the export of the current in-memory matrix block. The export
+	 * task operates on a detached copy of the meta data and pins the matrix 
+	 * block until completed (independent of subsequent evictions). Must be 
+	 * called while the matrix is acquired.
+	 * 
+	 * @param fName
+	 * @param outputFormat
+	 * @param replication
+	 * @param formatProperties
+	 * @throws CacheException
+	 */
+	private void exportDataAsync( final String fName, final String outputFormat, final int replication, final FileFormatProperties formatProperties ) 
+		throws CacheException
+	{
+		final MatrixObject tmp = new MatrixObject(this);
+		tmp._data = _data;
+		
+		AsyncExportQueue.submit(fName, _data, _data.estimateSizeInMemory(), 
+			new AsyncExportQueue.ExportTask() {
+				@Override
+				public void export() throws Exception {
+					tmp.writeMetaData( fName, outputFormat, formatProperties );
+					tmp.writeMatrixToHDFS( fName, outputFormat, replication, formatProperties );
+				}
+			});
+	}
+	
 	/**
 	 * 
 	 * @param fName
@@ -1122,6 +1219,63 @@ public class MatrixObject extends CacheableData
 	}
 	
 	
+	/**
+	 * Reads the given cell range (1-based, inclusive) directly from a binary block 
+	 * file with block index, without reading the entire matrix into memory. This 
+	 * applies only if the matrix is not available in memory or in the buffer pool,
+	 * and only once per matrix object, i.e., repeated range accesses (e.g., in loops) 
+	 * fall back to the regular read, where the full matrix is subject to caching.
+	 * 
+	 * @param pred
+	 * @return the range as matrix block, or null if not applicable
+	 * @throws CacheException
+	 */
+	public synchronized MatrixBlock readMatrixRange( IndexRange pred ) 
+		throws CacheException
+	{
+		if( !BinaryBlockIndex.ENABLE_BLOCK_INDEX || _numRangeReads > 0 
+			|| _partitioned || _hdfsFileName == null || _dirtyFlag )
+			return null;
+		
+		//check for data in memory, buffer pool, or rdd
+		if( _data == null )
+			getCache();
+		if( _data != null || !isEmpty(true) || getRDDHandle() != null )
+			return null;
+		
+		MatrixFormatMetaData iimd = (MatrixFormatMetaData) _metaData;
+		MatrixCharacteristics mc = iimd.getMatrixCharacteristics();
+		if( iimd.getInputInfo() != InputInfo.BinaryBlockInputInfo || !mc.dimsKnown() )
+			return null;
+		
+		if( LOG.isTraceEnabled() )
+			LOG.trace("Acquire range "+_varName+" "+pred);
+		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
+		
+		MatrixBlock mb = null;
+		try
+		{
+			AsyncExportQueue.waitForPendingExports( _hdfsFileName );
+			ReaderBinaryBlock reader = new ReaderBinaryBlock(false);
+			mb = reader.readMatrixRangeFromHDFS(_hdfsFileName, mc.getRows(), mc.getCols(), 
+					mc.getRowsPerBlock(), mc.getColsPerBlock(), pred);
+			_numRangeReads++;
+		}
+		catch(Exception ex)
+		{
+			throw new CacheException(ex);
+		}
+		
+		if( DMLScript.STATISTICS ){
+			if( mb != null )
+				CacheStatistics.incrementHDFSHits();
+			long t1 = System.nanoTime();
+			CacheStatistics.incrementAcquireRTime(t1-t0);
+		}
+		
+		return mb;
+	}
+	
 	/**
 	 * 
 	 * @param pred
@@ -1261,6 +1415,88 @@ public class MatrixObject extends CacheableData
 	// ***                                     ***
 	// *******************************************
 	
+	/**
+	 * Indicates if read-only matrices are compressed in memory, which is
+	 * configured via 'cp.compressed.linalg'.
+	 * 
+	 * @return
+	 */
+	private static boolean isCompressionEnabled()
+	{
+		DMLConfig conf = ConfigurationManager.getConfig();
+		return (conf != null && conf.getBooleanValue(DMLConfig.CP_COMPRESSED_LINALG));
+	}
+	
+	/**
+	 * 
+	 * @param mb
+	 * @return
+	 * @throws CacheException
+	 */
+	private MatrixBlock compress( MatrixBlock mb ) 
+		throws CacheException
+	{
+		try {
+			return CompressedMatrixBlock.compress( mb );
+		}
+		catch(DMLRuntimeException ex) {
+			throw new CacheException("Compression of "+_varName+" failed.", ex);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param cmb
+	 * @return
+	 * @throws CacheException
+	 */
+	private MatrixBlock decompress( CompressedMatrixBlock cmb ) 
+		throws CacheException
+	{
+		try {
+			return cmb.decompress();
+		}
+		catch(DMLRuntimeException ex) {
+			throw new CacheException("Decompression of "+_varName+" failed.", ex);
+		}
+	}
+	
+	/**
+	 * Obtains the decompressed copy of the given compressed block, which is 
+	 * decompressed once and then reused until the compressed block is replaced 
+	 * (e.g., on modify, clear, or restore after eviction) or the copy is 
+	 * collected under memory pressure. The copy is shared by all readers and
+	 * hence, like the compressed block, read-only.
+	 * 
+	 * @param cmb
+	 * @return
+	 * @throws CacheException
+	 */
+	private MatrixBlock getDecompressed( CompressedMatrixBlock cmb ) 
+		throws CacheException
+	{
+		MatrixBlock ret = (_decompressed != null && _decompressedSrc.get() == cmb) ? 
+				_decompressed.get() : null;
+		if( ret == null ) {
+			ret = decompress( cmb );
+			_decompressed = new SoftReference<MatrixBlock>( ret );
+			_decompressedSrc = new WeakReference<CompressedMatrixBlock>( cmb );
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * 
+	 */
+	private void clearDecompressed()
+	{
+		if( _decompressed != null )
+			_decompressed.clear();
+		_decompressed = null;
+		_decompressedSrc = null;
+	}
+	
 	private boolean isUpdateInPlace()
 	{
 		return _updateInPlaceFlag;
@@ -1411,6 +1647,14 @@ public class MatrixObject extends CacheableData
 			begin = System.currentTimeMillis();
 		}
 			
+		//wait for pending asynchronous exports of this file
+		try {
+			AsyncExportQueue.waitForPendingExports( filePathAndName );
+		}
+		catch(CacheException ex) {
+			throw new IOException(ex);
+		}
+		
 		double sparsity = ( mc.getNonZeros() >= 0 ? ((double)mc.getNonZeros())/(mc.getRows()*mc.getCols()) : 1.0d) ; //expected sparsity
 		MatrixBlock newData = DataConverter.readMatrixFromHDFS(filePathAndName, iimd.getInputInfo(),
 				                           rlen, clen, mc.getRowsPerBlock(), mc.getColsPerBlock(), sparsity, _formatProperties);
@@ -1458,6 +1702,10 @@ public class MatrixObject extends CacheableData
 
 		if (_data != null)
 		{
+			//write in uncompressed format
+			MatrixBlock data = (_data instanceof CompressedMatrixBlock) ?
+				getDecompressed( (CompressedMatrixBlock)_data ) : _data;
+			
 			// Get the dimension information from the metadata stored within MatrixObject
 			MatrixCharacteristics mc = iimd.getMatrixCharacteristics ();
 			// Write the matrix to HDFS in requested format
@@ -1469,10 +1717,10 @@ public class MatrixObject extends CacheableData
 			if ( oinfo == OutputInfo.BinaryBlockOutputInfo && DMLScript.rtplatform == RUNTIME_PLATFORM.SINGLE_NODE &&
 				(mc.getRowsPerBlock() != DMLTranslator.DMLBlockSize || mc.getColsPerBlock() != DMLTranslator.DMLBlockSize) ) 
 			{
-				DataConverter.writeMatrixToHDFS(_data, filePathAndName, oinfo, new MatrixCharacteristics(mc.getRows(), mc.getCols(), DMLTranslator.DMLBlockSize, DMLTranslator.DMLBlockSize, mc.getNonZeros()), replication, formatProperties);
+				DataConverter.writeMatrixToHDFS(data, filePathAndName, oinfo, new MatrixCharacteristics(mc.getRows(), mc.getCols(), DMLTranslator.DMLBlockSize, DMLTranslator.DMLBlockSize, mc.getNonZeros()), replication, formatProperties);
 			}
 			else {
-				DataConverter.writeMatrixToHDFS(_data, filePathAndName, oinfo, mc, replication, formatProperties);
+				DataConverter.writeMatrixToHDFS(data, filePathAndName, oinfo, mc, replication, formatProperties);
 			}
 
 			if( LOG.isTraceEnabled() )
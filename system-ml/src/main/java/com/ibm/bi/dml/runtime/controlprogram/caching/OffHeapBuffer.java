@@ -0,0 +1,360 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.controlprogram.caching;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ibm.bi.dml.api.DMLScript;
+import com.ibm.bi.dml.conf.ConfigurationManager;
+import com.ibm.bi.dml.conf.DMLConfig;
+import com.ibm.bi.dml.runtime.controlprogram.caching.LazyWriteBuffer.RPolicy;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.util.LocalFileUtils;
+
+/**
+ * Off-heap tier of the buffer pool between the heap write buffer (see
+ * LazyWriteBuffer) and local FS. Matrices evicted from the write buffer are 
+ * serialized into direct byte buffers, which neither inflate the Java heap 
+ * nor add GC pressure, and which are restored via direct deserialization 
+ * without local FS reads. If the configured capacity is exceeded, entries 
+ * are spilled to local FS according to the buffer pool replacement policy.
+ * 
+ * Writes are issued only by the write buffer evictor, while reads and deletes
+ * are served concurrently via a lock-free index (analogous to LazyWriteBuffer).
+ * 
+ */
+public class OffHeapBuffer 
+{
+	//global size limit in bytes (0 if disabled)
+	private static long _limit = 0; 
+	
+	//current size in bytes (incl entries under spilling)
+	private static AtomicLong _size = new AtomicLong(0);
+	
+	//index of <filename,entry> pairs for lock-free lookups
+	private static ConcurrentHashMap<String, OffHeapEntry> _mIndex = null;
+	
+	//eviction queue of <filename,entry> pairs, which also serves as
+	//lock for all modifications of off-heap meta data 
+	private static LinkedHashMap<String, OffHeapEntry> _mQueue = null;
+	
+	/**
+	 * Initializes the off-heap tier with the capacity given by the 
+	 * configuration property 'cp.offheap.buffersize' (in MB).
+	 */
+	public static void init()
+	{
+		long limit = 0;
+		DMLConfig conf = ConfigurationManager.getConfig();
+		if( conf != null )
+			limit = (long)conf.getIntValue(DMLConfig.CP_OFFHEAP_BUFFERSIZE) * 1024 * 1024;
+		init( limit );
+	}
+	
+	/**
+	 * 
+	 * @param limit capacity in bytes (0 disables the off-heap tier)
+	 */
+	public static void init( long limit )
+	{
+		cleanup();
+		
+		_limit = Math.max(limit, 0);
+		_size.set(0);
+		_mIndex = new ConcurrentHashMap<String, OffHeapEntry>();
+		_mQueue = new LinkedHashMap<String, OffHeapEntry>();
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	public static boolean isEnabled()
+	{
+		return (_limit > 0 && _mQueue != null);
+	}
+	
+	/**
+	 * Moves the given serialized matrix into the off-heap tier, spilling
+	 * other entries to local FS if necessary. Returns false if the matrix
+	 * cannot be buffered off-heap (disabled, too large, or allocation failure), 
+	 * in which case the caller is responsible to write it to local FS.
+	 * 
+	 * @param fname
+	 * @param bbuff
+	 * @return
+	 * @throws IOException
+	 */
+	public static synchronized boolean writeMatrix( String fname, ByteBuffer bbuff ) 
+		throws IOException
+	{
+		long lSize = bbuff.getSerializedSize();
+		if( !isEnabled() || lSize > _limit || lSize > Integer.MAX_VALUE )
+			return false;
+		
+		//spill entries to make room (outside the queue lock)
+		while( _size.get() + lSize > _limit && spillFirst() );
+		
+		//allocate direct buffer and serialize matrix
+		java.nio.ByteBuffer dbuff = null;
+		try {
+			dbuff = java.nio.ByteBuffer.allocateDirect((int)lSize);
+		}
+		catch(OutOfMemoryError err) {
+			//direct memory limit exceeded (-XX:MaxDirectMemorySize)
+			return false;
+		}
+		if( !bbuff.writeBuffer(dbuff) ) {
+			freeDirectBuffer(dbuff); //freed concurrently
+			return false;
+		}
+		dbuff.flip();
+		
+		//put entry into off-heap tier
+		OffHeapEntry entry = new OffHeapEntry(dbuff, lSize);
+		synchronized( _mQueue )
+		{
+			OffHeapEntry old = _mIndex.put(fname, entry);
+			if( old != null ) {
+				_mQueue.remove(fname);
+				_size.addAndGet(-old.getSize());
+				old.freeMemory();
+			}
+			_mQueue.put(fname, entry);
+			_size.addAndGet(lSize);
+		}
+		
+		if( DMLScript.STATISTICS )
+			CacheStatistics.incrementOffHeapWrites();
+		
+		return true;
+	}
+	
+	/**
+	 * Reads the given matrix from the off-heap tier, or returns null if
+	 * not existing.
+	 * 
+	 * @param fname
+	 * @return
+	 * @throws IOException
+	 */
+	public static MatrixBlock readMatrix( String fname ) 
+		throws IOException
+	{
+		if( !isEnabled() )
+			return null;
+		
+		//probe off-heap tier (lock-free)
+		OffHeapEntry entry = _mIndex.get(fname);
+		if( entry == null )
+			return null;
+		
+		//modify eviction order (accordingly to access)
+		if( CacheableData.CACHING_BUFFER_POLICY == RPolicy.LRU ) {
+			synchronized( _mQueue ) {
+				if( _mQueue.remove(fname) != null )
+					_mQueue.put(fname, entry);
+			}
+		}
+		
+		//deserialize (null if concurrently spilled to local FS)
+		MatrixBlock mb = entry.deserializeMatrix();
+		if( mb != null && DMLScript.STATISTICS )
+			CacheStatistics.incrementOffHeapHits();
+		
+		return mb;
+	}
+	
+	/**
+	 * Deletes the given matrix from the off-heap tier and returns true if
+	 * it existed.
+	 * 
+	 * @param fname
+	 * @return
+	 */
+	public static boolean deleteMatrix( String fname )
+	{
+		if( !isEnabled() )
+			return false;
+		
+		synchronized( _mQueue )
+		{
+			OffHeapEntry entry = _mIndex.remove(fname);
+			if( entry != null ) {
+				_mQueue.remove(fname);
+				_size.addAndGet(-entry.getSize());
+				entry.freeMemory();
+			}
+			return (entry != null);
+		}
+	}
+	
+	/**
+	 * 
+	 */
+	public static void cleanup()
+	{
+		if( _mQueue == null )
+			return;
+		
+		synchronized( _mQueue )
+		{
+			for( OffHeapEntry entry : _mQueue.values() )
+				entry.freeMemory();
+			_mQueue.clear();
+			_mIndex.clear();
+			_size.set(0);
+		}
+	}
+	
+	/**
+	 * Get the current size of the off-heap tier in bytes.
+	 * 
+	 * @return
+	 */
+	public static long getSize()
+	{
+		return _size.get();
+	}
+	
+	/**
+	 * Spills the first entry of the eviction queue to local FS. The entry 
+	 * remains readable until it has been completely written.
+	 * 
+	 * @return false if there is no entry to spill
+	 * @throws IOException
+	 */
+	private static boolean spillFirst() 
+		throws IOException
+	{
+		String fname = null;
+		OffHeapEntry entry = null;
+		
+		synchronized( _mQueue ) 
+		{
+			if( _mQueue.isEmpty() )
+				return false;
+			
+			//remove first entry from eviction queue
+			Iterator<Entry<String, OffHeapEntry>> iter = _mQueue.entrySet().iterator();
+			Entry<String, OffHeapEntry> first = iter.next();
+			fname = first.getKey();
+			entry = first.getValue();
+			iter.remove();
+		}
+		
+		//write to local FS (outside synchronized critical path)
+		entry.spill(fname);
+		
+		if( DMLScript.STATISTICS )
+			CacheStatistics.incrementFSWrites();
+		
+		synchronized( _mQueue )
+		{
+			//remove index entry, if not deleted in the meantime,
+			//otherwise delete the spilled file as well
+			if( _mIndex.remove(fname, entry) )
+				_size.addAndGet(-entry.getSize());
+			else
+				LocalFileUtils.deleteFileIfExists(fname, true);
+			entry.freeMemory();
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Releases the native memory of the given direct buffer. Since there is
+	 * no public API for that, we invoke the buffer's cleaner via reflection
+	 * and otherwise fall back to release on garbage collection.
+	 * 
+	 * @param buff
+	 */
+	private static void freeDirectBuffer( java.nio.ByteBuffer buff )
+	{
+		if( buff == null || !buff.isDirect() )
+			return;
+		
+		try {
+			Method mcleaner = buff.getClass().getMethod("cleaner");
+			mcleaner.setAccessible(true);
+			Object cleaner = mcleaner.invoke(buff);
+			if( cleaner != null )
+				cleaner.getClass().getMethod("clean").invoke(cleaner);
+		}
+		catch(Exception ex) {
+			//ignore, released on garbage collection
+		}
+	}
+	
+	/**
+	 * Off-heap buffer per matrix, where deserialization, spilling and freeing 
+	 * of memory are synchronized per entry.
+	 */
+	private static class OffHeapEntry
+	{
+		private java.nio.ByteBuffer _buff = null;
+		private long _size = -1;
+		
+		public OffHeapEntry( java.nio.ByteBuffer buff, long size ) {
+			_buff = buff;
+			_size = size;
+		}
+		
+		public long getSize() {
+			return _size;
+		}
+		
+		public synchronized MatrixBlock deserializeMatrix() 
+			throws IOException
+		{
+			//robustness for concurrent spilling
+			if( _buff == null )
+				return null;
+			
+			MatrixBlock ret = new MatrixBlock();
+			if( _buff.limit() >= CacheCompression.HEADER_SIZE && _buff.getInt(0) == CacheCompression.MAGIC ) {
+				//decompress into heap array (see CacheCompression)
+				byte[] data = new byte[_buff.limit()];
+				_buff.duplicate().get(data);
+				ret.readFields(new CacheDataInput(CacheCompression.decompress(data)), true);
+			}
+			else
+				ret.readFields(new OffHeapDataInput(_buff.duplicate()), true);
+			return ret;
+		}
+		
+		public synchronized void spill( String fname ) 
+			throws IOException
+		{
+			if( _buff != null )
+				LocalFileUtils.writeByteBufferToLocal(fname, _buff.duplicate());
+		}
+		
+		public synchronized void freeMemory() {
+			freeDirectBuffer(_buff);
+			_buff = null;
+		}
+	}
+}
@@ -34,7 +34,7 @@ public class PageCache
 	/**
 	 * 
 	 */
-	public static void init()
+	public static synchronized void init()
 	{
 		_pool = new HashMap<Integer, LinkedList<SoftReference<byte[]>>>();
 	}
@@ -42,7 +42,7 @@ public class PageCache
 	/**
 	 * 
 	 */
-	public static void clear()
+	public static synchronized void clear()
 	{
 		_pool = null;
 	}
@@ -51,7 +51,7 @@ public class PageCache
 	 *
 	 * @param data
 	 */
-	public static void putPage( byte[] data )
+	public static synchronized void putPage( byte[] data )
 	{
 		//cleanup if too many different size lists
 		if( _pool.size()>CLEANUP_THRESHOLD )
@@ -70,7 +70,7 @@ public class PageCache
 	 * @param size
 	 * @return
 	 */
-	public static byte[] getPage( int size )
+	public static synchronized byte[] getPage( int size )
 	{
 		LinkedList<SoftReference<byte[]>> list = _pool.get( size );
 		if( list!=null ) {
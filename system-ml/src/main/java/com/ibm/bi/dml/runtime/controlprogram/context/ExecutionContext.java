@@ -34,6 +34,7 @@ import com.ibm.bi.dml.runtime.controlprogram.caching.CacheException;
 import com.ibm.bi.dml.runtime.controlprogram.caching.MatrixObject;
 import com.ibm.bi.dml.runtime.instructions.Instruction;
 import com.ibm.bi.dml.runtime.instructions.cp.BooleanObject;
+import com.ibm.bi.dml.runtime.instructions.cp.CPOperand;
 import com.ibm.bi.dml.runtime.instructions.cp.Data;
 import com.ibm.bi.dml.runtime.instructions.cp.DoubleObject;
 import com.ibm.bi.dml.runtime.instructions.cp.FunctionCallCPInstruction;
@@ -116,11 +117,28 @@ public class ExecutionContext
 		return _variables.get(name);
 	}
 	
+	/**
+	 * Retrieves the data object of the given operand via its symbol table slot.
+	 * 
+	 * @param op
+	 * @return
+	 */
+	public Data getVariable(CPOperand op) 
+	{
+		return _variables.get(op.getSlot(), op.getName());
+	}
+	
 	public void setVariable(String name, Data val) 
 		throws DMLRuntimeException
 	{
 		_variables.put(name, val);
 	}
+	
+	public void setVariable(CPOperand op, Data val) 
+		throws DMLRuntimeException
+	{
+		_variables.put(op.getSlot(), op.getName(), val);
+	}
 
 	public Data removeVariable(String name) 
 	{
@@ -177,6 +195,26 @@ public class ExecutionContext
 		}
 	}
 	
+	/**
+	 * Pins a matrix variable into memory, where compression-aware instructions
+	 * may obtain a compressed matrix block (see CompressedMatrixBlock).
+	 * 
+	 * @param varName
+	 * @param allowCompressed
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public MatrixBlock getMatrixInput(String varName, boolean allowCompressed) 
+		throws DMLRuntimeException 
+	{	
+		try {
+			MatrixObject mobj = (MatrixObject) getVariable(varName);
+			return mobj.acquireRead(allowCompressed);
+		} catch (CacheException e) {
+			throw new DMLRuntimeException( e );
+		}
+	}
+	
 	public void releaseMatrixInput(String varName) 
 		throws DMLRuntimeException 
 	{
@@ -219,7 +257,27 @@ public class ExecutionContext
 			return (ScalarObject) obj;
 		}
 	}
-
+	
+	/**
+	 * Obtains the scalar input of the given operand, where non-literal 
+	 * operands are resolved via their symbol table slot.
+	 * 
+	 * @param op
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public ScalarObject getScalarInput(CPOperand op)
+		throws DMLRuntimeException 
+	{
+		if( op.isLiteral() )
+			return getScalarInput(op.getName(), op.getValueType(), true);
+		
+		Data obj = getVariable(op);
+		if (obj == null) {
+			throw new DMLRuntimeException("Unknown variable: " + op.getName());
+		}
+		return (ScalarObject) obj;
+	}
 	
 	public void setScalarOutput(String varName, ScalarObject so) 
 		throws DMLRuntimeException 
@@ -227,6 +285,12 @@ public class ExecutionContext
 		setVariable(varName, so);
 	}
 	
+	public void setScalarOutput(CPOperand op, ScalarObject so) 
+		throws DMLRuntimeException 
+	{
+		setVariable(op, so);
+	}
+	
 	public void setMatrixOutput(String varName, MatrixBlock outputData) 
 		throws DMLRuntimeException 
 	{
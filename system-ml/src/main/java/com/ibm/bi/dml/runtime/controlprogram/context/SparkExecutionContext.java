@@ -41,6 +41,7 @@ import com.ibm.bi.dml.lops.Checkpoint;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.DMLUnsupportedOperationException;
 import com.ibm.bi.dml.runtime.controlprogram.Program;
+import com.ibm.bi.dml.runtime.controlprogram.caching.AsyncExportQueue;
 import com.ibm.bi.dml.runtime.controlprogram.caching.MatrixObject;
 import com.ibm.bi.dml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
 import com.ibm.bi.dml.runtime.instructions.spark.SPInstruction;
@@ -290,6 +291,9 @@ public class SparkExecutionContext extends ExecutionContext
 		//CASE 3: non-dirty (file exists on HDFS)
 		else
 		{
+			// wait for pending asynchronous exports of this file
+			AsyncExportQueue.waitForPendingExports( mo.getFileName() );
+			
 			// parallelize hdfs-resident file
 			// For binary block, these are: SequenceFileInputFormat.class, MatrixIndexes.class, MatrixBlock.class
 			if(inputInfo == InputInfo.BinaryBlockInputInfo) {
@@ -35,6 +35,7 @@ import com.ibm.bi.dml.hops.Hop;
 import com.ibm.bi.dml.hops.OptimizerUtils;
 import com.ibm.bi.dml.hops.recompile.Recompiler;
 import com.ibm.bi.dml.parser.DMLProgram;
+import com.ibm.bi.dml.parser.DMLTranslator;
 import com.ibm.bi.dml.parser.DataIdentifier;
 import com.ibm.bi.dml.parser.ForStatementBlock;
 import com.ibm.bi.dml.parser.IfStatementBlock;
@@ -137,6 +138,7 @@ public class ProgramConverter
 	public static final String PARFOR_PB_EFC     = " EFC" + LEVELIN;
 	
 	public static final String PARFOR_CONF_STATS = "stats";
+	public static final String PARFOR_CONF_BLOCKSIZE = "blocksize";
 	
 	
 	//exception msgs
@@ -849,6 +851,8 @@ public class ProgramConverter
 		
 		//handle additional configurations
 		sb.append( PARFOR_CONF_STATS + "=" + DMLScript.STATISTICS );
+		sb.append( ELEMENT_DELIM );
+		sb.append( PARFOR_CONF_BLOCKSIZE + "=" + DMLTranslator.DMLBlockSize );
 		sb.append( COMPONENTS_DELIM );
 		sb.append( NEWLINE );
 		
@@ -2225,9 +2229,15 @@ public class ProgramConverter
 	
 	public static void parseAndSetAdditionalConfigurations(String conf)
 	{
+		String[] confs = conf.split(ELEMENT_DELIM);
+		
 		//set statistics flag
-		String[] statsFlag = conf.split("=");
+		String[] statsFlag = confs[0].split("=");
 		DMLScript.STATISTICS = Boolean.parseBoolean(statsFlag[1]);
+		
+		//set block size (potentially selected per program, required for recompilation)
+		String[] blocksize = confs[1].split("=");
+		DMLTranslator.setDMLBlockSize(Integer.parseInt(blocksize[1]));
 	}
 
 	//////////
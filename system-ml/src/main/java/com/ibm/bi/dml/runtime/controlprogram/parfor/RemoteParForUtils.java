@@ -38,6 +38,7 @@ import com.ibm.bi.dml.parser.Expression.DataType;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.controlprogram.LocalVariableMap;
 import com.ibm.bi.dml.runtime.controlprogram.ParForProgramBlock;
+import com.ibm.bi.dml.runtime.controlprogram.caching.AsyncExportQueue;
 import com.ibm.bi.dml.runtime.controlprogram.caching.CacheStatistics;
 import com.ibm.bi.dml.runtime.controlprogram.caching.CacheableData;
 import com.ibm.bi.dml.runtime.controlprogram.caching.MatrixObject;
@@ -123,6 +124,9 @@ public class RemoteParForUtils
 			                                  HashMap<String,String> rvarFnames, OutputCollector<Writable, Writable> out ) 
 		throws DMLRuntimeException, IOException
 	{
+		//wait for pending asynchronous exports of the parfor body
+		AsyncExportQueue.waitForAllExports();
+		
 		//create key and value for reuse
 		LongWritable okey = new LongWritable( workerID ); 
 		Text ovalue = new Text();
@@ -179,6 +183,9 @@ public class RemoteParForUtils
 	{
 		ArrayList<String> ret = new ArrayList<String>();
 		
+		//wait for pending asynchronous exports of the parfor body
+		AsyncExportQueue.waitForAllExports();
+		
 		//foreach result variables probe if export necessary
 		for( String rvar : resultVars )
 		{
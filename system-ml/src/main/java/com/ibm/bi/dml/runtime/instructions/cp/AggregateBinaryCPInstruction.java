@@ -21,6 +21,7 @@ import com.ibm.bi.dml.parser.Expression.DataType;
 import com.ibm.bi.dml.parser.Expression.ValueType;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.DMLUnsupportedOperationException;
+import com.ibm.bi.dml.runtime.compress.CompressedMatrixBlock;
 import com.ibm.bi.dml.runtime.controlprogram.context.ExecutionContext;
 import com.ibm.bi.dml.runtime.functionobjects.Multiply;
 import com.ibm.bi.dml.runtime.functionobjects.Plus;
@@ -73,13 +74,14 @@ public class AggregateBinaryCPInstruction extends BinaryCPInstruction
 	public void processInstruction(ExecutionContext ec) 
 		throws DMLRuntimeException, DMLUnsupportedOperationException
 	{	
-		//get inputs
-		MatrixBlock matBlock1 = ec.getMatrixInput(input1.getName());
-        MatrixBlock matBlock2 = ec.getMatrixInput(input2.getName());
+		//get inputs (potentially compressed)
+		MatrixBlock matBlock1 = ec.getMatrixInput(input1.getName(), true);
+        MatrixBlock matBlock2 = ec.getMatrixInput(input2.getName(), true);
 		
-        //compute matrix multiplication
+        //compute matrix multiplication (on compressed input if necessary)
         AggregateBinaryOperator ab_op = (AggregateBinaryOperator) _optr;
-		MatrixBlock soresBlock = (MatrixBlock) (matBlock1.aggregateBinaryOperations(matBlock1, matBlock2, new MatrixBlock(), ab_op));
+        MatrixBlock main = (matBlock2 instanceof CompressedMatrixBlock) ? matBlock2 : matBlock1;
+		MatrixBlock soresBlock = (MatrixBlock) (main.aggregateBinaryOperations(matBlock1, matBlock2, new MatrixBlock(), ab_op));
 			
 		//release inputs/outputs
 		ec.releaseMatrixInput(input1.getName());
@@ -23,7 +23,9 @@ import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.DMLUnsupportedOperationException;
 import com.ibm.bi.dml.runtime.instructions.Instruction;
 import com.ibm.bi.dml.runtime.instructions.InstructionUtils;
+import com.ibm.bi.dml.runtime.matrix.operators.BinaryOperator;
 import com.ibm.bi.dml.runtime.matrix.operators.Operator;
+import com.ibm.bi.dml.runtime.matrix.operators.ScalarOperator;
 
 
 public abstract class ArithmeticBinaryCPInstruction extends BinaryCPInstruction 
@@ -44,7 +46,15 @@ public abstract class ArithmeticBinaryCPInstruction extends BinaryCPInstruction
 		CPOperand in1 = new CPOperand("", ValueType.UNKNOWN, DataType.UNKNOWN);
 		CPOperand in2 = new CPOperand("", ValueType.UNKNOWN, DataType.UNKNOWN);
 		CPOperand out = new CPOperand("", ValueType.UNKNOWN, DataType.UNKNOWN);
-		String opcode = parseBinaryInstruction(str, in1, in2, out);
+		
+		//parse instruction w/ optional degree of parallelism for matrix operations
+		InstructionUtils.checkNumFields(str, 3, 4);
+		String[] parts = InstructionUtils.getInstructionPartsWithValueType(str);
+		String opcode = parts[0];
+		in1.split(parts[1]);
+		in2.split(parts[2]);
+		out.split(parts[3]);
+		int k = (parts.length > 4) ? Integer.parseInt(parts[4]) : 1;
 		
 		// Arithmetic operations must be performed on DOUBLE or INT
 		ValueType vt1 = in1.getValueType();
@@ -72,6 +82,10 @@ public abstract class ArithmeticBinaryCPInstruction extends BinaryCPInstruction
 		Operator operator = (dt1 != dt2) ?
 					InstructionUtils.parseScalarBinaryOperator(opcode, (dt1 == DataType.SCALAR)) : 
 					InstructionUtils.parseBinaryOperator(opcode);
+		if( operator instanceof BinaryOperator )
+			((BinaryOperator)operator).setNumThreads(k);
+		else if( operator instanceof ScalarOperator )
+			((ScalarOperator)operator).setNumThreads(k);
 		
 		if ( opcode.equalsIgnoreCase("+") && dt1 == DataType.SCALAR && dt2 == DataType.SCALAR) 
 		{
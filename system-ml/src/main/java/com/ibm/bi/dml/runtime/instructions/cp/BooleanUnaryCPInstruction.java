@@ -58,7 +58,7 @@ public class BooleanUnaryCPInstruction extends UnaryCPInstruction
 		throws DMLRuntimeException 
 	{
 		// 1) Obtain data objects associated with inputs 
-		ScalarObject so = ec.getScalarInput(input1.getName(), input1.getValueType(), input1.isLiteral());
+		ScalarObject so = ec.getScalarInput(input1);
 		
 		// 2) Compute the result value & make an appropriate data object 
 		SimpleOperator dop = (SimpleOperator) _optr;
@@ -67,6 +67,6 @@ public class BooleanUnaryCPInstruction extends UnaryCPInstruction
 		ScalarObject sores = (ScalarObject) new BooleanObject(rval);
 		
 		// 3) Put the result value into ProgramBlock
-		ec.setScalarOutput(output.getName(), sores);
+		ec.setScalarOutput(output, sores);
 	}
 }
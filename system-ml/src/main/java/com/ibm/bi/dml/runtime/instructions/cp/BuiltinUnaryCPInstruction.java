@@ -56,14 +56,17 @@ public abstract class BuiltinUnaryCPInstruction extends UnaryCPInstruction
 		String opcode = null;
 		ValueFunction func = null;
 		
-		if( parts.length==4 ) //print or stop
+		if( parts.length==4 ) //print or stop, matrix w/ degree of parallelism
 		{
 			opcode = parts[0];
 			in.split(parts[1]);
 			out.split(parts[2]);
 			func = Builtin.getBuiltinFnObject(opcode);
 			
-			return new ScalarBuiltinCPInstruction(new SimpleOperator(func), in, out, opcode, str);
+			if( in.getDataType() == DataType.MATRIX )
+				return new MatrixBuiltinCPInstruction(new UnaryOperator(func, Integer.parseInt(parts[3])), in, out, opcode, str);
+			else
+				return new ScalarBuiltinCPInstruction(new SimpleOperator(func), in, out, opcode, str);
 		}
 		else //2+1, general case
 		{
@@ -19,6 +19,7 @@ package com.ibm.bi.dml.runtime.instructions.cp;
 
 import com.ibm.bi.dml.lops.Lop;
 import com.ibm.bi.dml.parser.Expression.*;
+import com.ibm.bi.dml.runtime.controlprogram.LocalVariableMap;
 import com.ibm.bi.dml.runtime.instructions.Instruction;
 
 
@@ -29,6 +30,7 @@ public class CPOperand
 	private ValueType _valueType;
 	private DataType _dataType;
 	private boolean _isLiteral;
+	private int _slot = -1; //symbol table slot (resolved on name changes)
 	
 	public CPOperand() {
 		this("", ValueType.UNKNOWN, DataType.UNKNOWN);
@@ -48,6 +50,7 @@ public class CPOperand
 		_valueType = vt;
 		_dataType = dt;
 		_isLiteral = literal;
+		resolveSlot();
 	}
 	
 	public String getName() {
@@ -66,8 +69,19 @@ public class CPOperand
 		return _isLiteral;
 	}
 	
+	/**
+	 * Returns the symbol table slot of this operand, or -1 for 
+	 * literals and variables without slot.
+	 * 
+	 * @return
+	 */
+	public int getSlot() {
+		return _slot;
+	}
+	
 	public void set_name(String name) {
 		_name = name;
+		resolveSlot();
 	}
 	
 	public void setValueType(ValueType vt) {
@@ -80,12 +94,14 @@ public class CPOperand
 	
 	public void set_literal(boolean literal) {
 		_isLiteral = literal;
+		resolveSlot();
 	}
 	
 	public void split_by_value_type_prefix ( String str ) {
 		String[] opr = str.split(Lop.VALUETYPE_PREFIX);
 		_name = opr[0];
 		_valueType = ValueType.valueOf(opr[1]);
+		resolveSlot();
 	}
 
 	public void split(String str){
@@ -106,11 +122,20 @@ public class CPOperand
 			_name = opr[0];
 			_valueType = ValueType.valueOf(opr[1]);
 		}
+		resolveSlot();
 	}
 	
 	public void copy(CPOperand o){
 		_name = o.getName();
 		_valueType = o.getValueType();
 		_dataType = o.getDataType();
+		resolveSlot();
+	}
+	
+	/**
+	 * 
+	 */
+	private void resolveSlot() {
+		_slot = _isLiteral ? -1 : LocalVariableMap.allocateSlot(_name);
 	}
 }
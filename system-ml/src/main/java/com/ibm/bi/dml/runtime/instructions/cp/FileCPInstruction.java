@@ -26,6 +26,7 @@ import com.ibm.bi.dml.runtime.functionobjects.RemoveFile;
 import com.ibm.bi.dml.runtime.functionobjects.RenameFile;
 import com.ibm.bi.dml.runtime.instructions.Instruction;
 import com.ibm.bi.dml.runtime.instructions.InstructionUtils;
+import com.ibm.bi.dml.runtime.io.BinaryBlockIndex;
 import com.ibm.bi.dml.runtime.matrix.operators.Operator;
 import com.ibm.bi.dml.runtime.matrix.operators.SimpleOperator;
 import com.ibm.bi.dml.runtime.util.MapReduceTool;
@@ -108,10 +109,18 @@ public class FileCPInstruction extends CPInstruction
 				case RemoveFile:
 					MapReduceTool.deleteFileIfExistOnHDFS(_input1);
 					MapReduceTool.deleteFileIfExistOnHDFS(_input1+".mtd");
+					MapReduceTool.deleteFileIfExistOnHDFS(BinaryBlockIndex.getIndexFileName(_input1));
 					break;
 				case MoveFile:
 					MapReduceTool.renameFileOnHDFS(_input1, _input2);
 					MapReduceTool.renameFileOnHDFS(_input1+".mtd", _input2+".mtd");
+					//move block index along with data (if available)
+					String idx1 = BinaryBlockIndex.getIndexFileName(_input1);
+					String idx2 = BinaryBlockIndex.getIndexFileName(_input2);
+					if( MapReduceTool.existsFileOnHDFS(idx1) )
+						MapReduceTool.renameFileOnHDFS(idx1, idx2);
+					else
+						MapReduceTool.deleteFileIfExistOnHDFS(idx2);
 					break;
 					
 				default:
@@ -77,8 +77,8 @@ public class MMTSJCPInstruction extends UnaryCPInstruction
 	public void processInstruction(ExecutionContext ec)
 		throws DMLUnsupportedOperationException, DMLRuntimeException 
 	{
-		//get inputs
-		MatrixBlock matBlock1 = ec.getMatrixInput(input1.getName());
+		//get inputs (potentially compressed)
+		MatrixBlock matBlock1 = ec.getMatrixInput(input1.getName(), true);
 
 		//execute operations 
 		MatrixBlock ret = (MatrixBlock) matBlock1.transposeSelfMatrixMultOperations(new MatrixBlock(), _type, _numThreads );
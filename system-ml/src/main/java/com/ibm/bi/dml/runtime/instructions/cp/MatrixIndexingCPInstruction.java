@@ -21,6 +21,7 @@ import com.ibm.bi.dml.parser.Expression.DataType;
 import com.ibm.bi.dml.parser.Expression.ValueType;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.DMLUnsupportedOperationException;
+import com.ibm.bi.dml.runtime.controlprogram.caching.AsyncExportQueue;
 import com.ibm.bi.dml.runtime.controlprogram.caching.MatrixObject;
 import com.ibm.bi.dml.runtime.controlprogram.context.ExecutionContext;
 import com.ibm.bi.dml.runtime.instructions.Instruction;
@@ -143,7 +144,10 @@ public class MatrixIndexingCPInstruction extends UnaryCPInstruction
 			
 			if( mo.isPartitioned() ) //via data partitioning
 				resultBlock = mo.readMatrixPartition( new IndexRange(rl+1,ru+1,cl+1,cu+1) );
-			else //via slicing the in-memory matrix
+			else //via block index of binary block file (if applicable)
+				resultBlock = mo.readMatrixRange( new IndexRange(rl+1,ru+1,cl+1,cu+1) );
+			
+			if( resultBlock == null ) //via slicing the in-memory matrix
 			{
 				//execute right indexing operation
 				MatrixBlock matBlock = ec.getMatrixInput(input1.getName());
@@ -167,6 +171,10 @@ public class MatrixIndexingCPInstruction extends UnaryCPInstruction
 			MatrixBlock matBlock = ec.getMatrixInput(input1.getName());
 			MatrixBlock resultBlock = null;
 			
+			//wait for pending asynchronous exports of the block before in-place updates
+			if( inplace )
+				AsyncExportQueue.waitForPinnedExports(matBlock);
+			
 			if(input2.getDataType() == DataType.MATRIX) //MATRIX<-MATRIX
 			{
 				MatrixBlock rhsMatBlock = ec.getMatrixInput(input2.getName());
@@ -156,8 +156,13 @@ public class ParameterizedBuiltinCPInstruction extends ComputationCPInstruction
 				ngroups = (int) Double.parseDouble(params.get(Statement.GAGG_NUM_GROUPS));
 			}
 			
+			int k = 1;
+			if ( params.get(Statement.GAGG_NUM_THREADS) != null) {
+				k = Integer.parseInt(params.get(Statement.GAGG_NUM_THREADS));
+			}
+			
 			// compute the result
-			MatrixBlock soresBlock = (MatrixBlock) (groups.groupedAggOperations(target, weights, new MatrixBlock(), ngroups, _optr));
+			MatrixBlock soresBlock = (MatrixBlock) (groups.groupedAggOperations(target, weights, new MatrixBlock(), ngroups, _optr, k));
 			
 			ec.setMatrixOutput(output.getName(), soresBlock);
 			// release locks
@@ -80,8 +80,12 @@ public class ReorgCPInstruction extends UnaryCPInstruction
 		String opcode = InstructionUtils.getOpCode(str);
 		
 		if ( opcode.equalsIgnoreCase("r'") ) {
-			parseUnaryInstruction(str, in, out); //max 2 operands
-			return new ReorgCPInstruction(new ReorgOperator(SwapIndex.getSwapIndexFnObject()), in, out, opcode, str);
+			InstructionUtils.checkNumFields(str, 2, 3); //w/ optional num threads
+			String[] parts = InstructionUtils.getInstructionPartsWithValueType(str);
+			in.split(parts[1]);
+			out.split(parts[2]);
+			int k = (parts.length > 3) ? Integer.parseInt(parts[3]) : 1;
+			return new ReorgCPInstruction(new ReorgOperator(SwapIndex.getSwapIndexFnObject(), k), in, out, opcode, str);
 		} 
 		else if ( opcode.equalsIgnoreCase("rdiag") ) {
 			parseUnaryInstruction(str, in, out); //max 2 operands
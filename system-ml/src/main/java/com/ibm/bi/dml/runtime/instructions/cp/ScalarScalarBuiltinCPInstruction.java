@@ -43,8 +43,8 @@ public class ScalarScalarBuiltinCPInstruction extends BuiltinBinaryCPInstruction
 		String opcode = getOpcode();
 		ScalarObject sores = null;
 		
-		ScalarObject so1 = ec.getScalarInput( input1.getName(), input1.getValueType(), input1.isLiteral() );
-		ScalarObject so2 = ec.getScalarInput(input2.getName(), input2.getValueType(), input2.isLiteral() );
+		ScalarObject so1 = ec.getScalarInput(input1);
+		ScalarObject so2 = ec.getScalarInput(input2);
 		
 		if ( opcode.equalsIgnoreCase("print") ) {
 			String buffer = "";
@@ -87,6 +87,6 @@ public class ScalarScalarBuiltinCPInstruction extends BuiltinBinaryCPInstruction
 		}
 		
 		// 3) Put the result value into ProgramBlock
-		ec.setScalarOutput(output.getName(), sores);
+		ec.setScalarOutput(output, sores);
 	}
 }
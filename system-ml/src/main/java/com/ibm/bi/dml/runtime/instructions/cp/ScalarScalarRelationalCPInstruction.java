@@ -39,8 +39,8 @@ public class ScalarScalarRelationalCPInstruction extends RelationalBinaryCPInstr
 	public void processInstruction(ExecutionContext ec) 
 		throws DMLRuntimeException
 	{
-		ScalarObject so1 = ec.getScalarInput(input1.getName(), input1.getValueType(), input1.isLiteral());
-		ScalarObject so2 = ec.getScalarInput(input2.getName(), input2.getValueType(), input2.isLiteral() );
+		ScalarObject so1 = ec.getScalarInput(input1);
+		ScalarObject so2 = ec.getScalarInput(input2);
 		ScalarObject sores = null;
 		
 		BinaryOperator dop = (BinaryOperator) _optr;
@@ -71,6 +71,6 @@ public class ScalarScalarRelationalCPInstruction extends RelationalBinaryCPInstr
 		}
 		else throw new DMLRuntimeException("compare(): Invalid combination of value types.");
 		
-		ec.setScalarOutput(output.getName(), sores);
+		ec.setScalarOutput(output, sores);
 	}
 }
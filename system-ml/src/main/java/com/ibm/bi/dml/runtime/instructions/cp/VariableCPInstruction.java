@@ -31,6 +31,7 @@ import com.ibm.bi.dml.runtime.controlprogram.parfor.ProgramConverter;
 import com.ibm.bi.dml.runtime.controlprogram.parfor.util.IDSequence;
 import com.ibm.bi.dml.runtime.instructions.Instruction;
 import com.ibm.bi.dml.runtime.instructions.InstructionUtils;
+import com.ibm.bi.dml.runtime.io.BinaryBlockIndex;
 import com.ibm.bi.dml.runtime.io.WriterMatrixMarket;
 import com.ibm.bi.dml.runtime.io.WriterTextCSV;
 import com.ibm.bi.dml.runtime.matrix.MatrixCharacteristics;
@@ -845,6 +846,7 @@ public class VariableCPInstruction extends CPInstruction
 			if (fpath != null) {
 				MapReduceTool.deleteFileIfExistOnHDFS(fpath);
 				MapReduceTool.deleteFileIfExistOnHDFS(fpath + ".mtd");
+				MapReduceTool.deleteFileIfExistOnHDFS(BinaryBlockIndex.getIndexFileName(fpath));
 			}
 		} catch (IOException e) {
 			throw new DMLRuntimeException(e);
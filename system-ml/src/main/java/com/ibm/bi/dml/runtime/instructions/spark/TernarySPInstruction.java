@@ -18,7 +18,7 @@
 package com.ibm.bi.dml.runtime.instructions.spark;
 
 import java.util.ArrayList;
-import java.util.Map.Entry;
+import java.util.Iterator;
 
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.function.Function;
@@ -50,6 +50,7 @@ import com.ibm.bi.dml.runtime.matrix.data.Pair;
 import com.ibm.bi.dml.runtime.matrix.mapred.IndexedMatrixValue;
 import com.ibm.bi.dml.runtime.matrix.operators.Operator;
 import com.ibm.bi.dml.runtime.matrix.operators.SimpleOperator;
+import com.ibm.bi.dml.runtime.util.LongLongDoubleHashMap.LLDoubleEntry;
 import com.ibm.bi.dml.runtime.util.UtilFunctions;
 
 public class TernarySPInstruction extends ComputationSPInstruction
@@ -473,16 +474,17 @@ public class TernarySPInstruction extends ComputationSPInstruction
 
 		private static final long serialVersionUID = -5933677686766674444L;
 		
-		@SuppressWarnings("deprecation")
 		@Override
 		public Iterable<Tuple2<MatrixIndexes, Double>> call(CTableMap ctableMap)
 				throws Exception {
 			ArrayList<Tuple2<MatrixIndexes, Double>> retVal = new ArrayList<Tuple2<MatrixIndexes, Double>>();
 			
-			for(Entry<MatrixIndexes, Double> ijv : ctableMap.entrySet()) {
-				long i = ijv.getKey().getRowIndex();
-				long j =  ijv.getKey().getColumnIndex();
-				double v =  ijv.getValue();
+			Iterator<LLDoubleEntry> iter = ctableMap.getIterator();
+			while( iter.hasNext() ) {
+				LLDoubleEntry ijv = iter.next();
+				long i = ijv.key1;
+				long j =  ijv.key2;
+				double v =  ijv.value;
 				
 				// retVal.add(new Tuple2<MatrixIndexes, MatrixCell>(blockIndexes, cell));
 				retVal.add(new Tuple2<MatrixIndexes, Double>(new MatrixIndexes(i, j), v));
@@ -50,7 +50,7 @@ import com.ibm.bi.dml.runtime.matrix.data.SparseRow;
 import com.ibm.bi.dml.runtime.matrix.mapred.IndexedMatrixValue;
 import com.ibm.bi.dml.runtime.matrix.mapred.ReblockBuffer;
 import com.ibm.bi.dml.runtime.util.DataConverter;
-import com.ibm.bi.dml.runtime.util.FastStringTokenizer;
+import com.ibm.bi.dml.runtime.util.FastByteTokenizer;
 import com.ibm.bi.dml.runtime.util.UtilFunctions;
 
 public class RDDConverterUtils 
@@ -340,17 +340,17 @@ public class RDDConverterUtils
 		{
 			ArrayList<Tuple2<MatrixIndexes,MatrixBlock>> ret = new ArrayList<Tuple2<MatrixIndexes,MatrixBlock>>();
 			ReblockBuffer rbuff = new ReblockBuffer(_bufflen, _rlen, _clen, _brlen, _bclen);
-			FastStringTokenizer st = new FastStringTokenizer(' ');
+			FastByteTokenizer st = new FastByteTokenizer(' ');
 			
 			while( arg0.hasNext() )
 			{
-				//get input string (ignore matrix market comments)
-				String strVal = arg0.next().toString();
-				if( strVal.startsWith("%") ) 
+				//get input line (ignore matrix market comments)
+				Text line = arg0.next();
+				if( line.getLength() > 0 && line.getBytes()[0] == '%' ) 
 					continue;
 				
 				//parse input ijv triple
-				st.reset( strVal );
+				st.reset( line.getBytes(), line.getLength() );
 				long row = st.nextLong();
 				long col = st.nextLong();
 				double val = st.nextDouble();
@@ -503,11 +503,12 @@ public class RDDConverterUtils
 			int ncblks = (int)Math.ceil((double)_clen/_bclen);
 			MatrixIndexes[] ix = new MatrixIndexes[ncblks];
 			MatrixBlock[] mb = new MatrixBlock[ncblks];
+			FastByteTokenizer st = new FastByteTokenizer(_delim);
 			
 			while( arg0.hasNext() )
 			{
 				Tuple2<Text,Long> tmp = arg0.next();
-				String row = tmp._1().toString();
+				Text row = tmp._1();
 				long rowix = tmp._2() + 1;
 				
 				long rix = UtilFunctions.computeBlockIndex(rowix, _brlen);
@@ -521,23 +522,24 @@ public class RDDConverterUtils
 					createBlocks(rowix, (int)len, ix, mb);
 				}
 				
-				//process row data
-				String[] parts = IOUtilFunctions.split(row, _delim);
+				//process row data (byte-level, w/o string conversion)
+				st.reset(row.getBytes(), row.getLength());
 				boolean emptyFound = false;
-				for( int cix=1, pix=0; cix<=ncblks; cix++ ) 
+				for( int cix=1; cix<=ncblks; cix++ ) 
 				{
 					int lclen = (int)UtilFunctions.computeBlockSize(_clen, cix, _bclen);				
 					for( int j=0; j<lclen; j++ ) {
-						String part = parts[pix++];
-						emptyFound |= part.isEmpty() && !_fill;
-						double val = (part.isEmpty() && _fill) ?
-								_fillValue : Double.parseDouble(part);
+						st.nextCell();
+						boolean empty = st.isEmptyCell();
+						emptyFound |= empty && !_fill;
+						double val = (empty && _fill) ?
+								_fillValue : st.getCellDouble();
 						mb[cix-1].appendValue(pos, j, val);
 					}	
 				}
 		
 				//sanity check empty cells filled w/ values
-				IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(row, _fill, emptyFound);
+				IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(st, _fill, emptyFound);
 			}
 		
 			//flush last blocks
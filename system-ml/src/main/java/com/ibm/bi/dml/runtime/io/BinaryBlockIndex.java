@@ -0,0 +1,502 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+
+import com.ibm.bi.dml.conf.ConfigurationManager;
+import com.ibm.bi.dml.runtime.DMLRuntimeException;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixIndexes;
+import com.ibm.bi.dml.runtime.util.IndexRange;
+
+/**
+ * Block index for binary block matrices that are written by CP into a single 
+ * sequence file. The index is stored as a small side file (fname.idx) and holds, 
+ * per block, the block indexes, the byte position of the record in the sequence 
+ * file (as returned by SequenceFile.Writer.getLength), and the number of non-zeros. 
+ * This allows readers to skip empty or irrelevant blocks (e.g., for column or row 
+ * range reads). The header additionally holds the total number of non-zeros, which 
+ * allows to obtain exact matrix characteristics by reading only the header. An 
+ * optional statistics section after the block entries holds the min/max values 
+ * per block, which is only read on request.
+ * 
+ * Note: The data file itself remains a regular binary block sequence file, i.e.,
+ * it is fully compatible with all MR/Spark readers. The index records length and 
+ * modification time of the data file and is ignored if it does not match anymore
+ * (e.g., if the file has been overwritten by an MR job or external tool).
+ * 
+ */
+public class BinaryBlockIndex 
+{
+	private static final Log LOG = LogFactory.getLog(BinaryBlockIndex.class.getName());
+	
+	public static boolean ENABLE_BLOCK_INDEX = true;
+	public static boolean ENABLE_BLOCK_STATS = true;
+	public static final String FILE_SUFFIX = ".idx";
+	
+	private static final int MAGIC = 0x42424958; //'BBIX'
+	private static final int VERSION = 3;
+	
+	//matrix meta data 
+	private long _rlen = -1;
+	private long _clen = -1;
+	private int _brlen = -1;
+	private int _bclen = -1;
+	private long _totalNnz = 0;
+	
+	//data file meta data (for stale index detection)
+	private long _flen = -1;
+	private long _ftime = -1;
+	
+	//block meta data (in order of file positions)
+	private int _size = 0;
+	private long[] _rix = null;
+	private long[] _cix = null;
+	private long[] _pos = null;
+	private long[] _nnz = null;
+	
+	//optional block statistics (null if not available)
+	private double[] _min = null;
+	private double[] _max = null;
+	
+	public BinaryBlockIndex( long rlen, long clen, int brlen, int bclen )
+	{
+		this(rlen, clen, brlen, bclen, ENABLE_BLOCK_STATS);
+	}
+	
+	public BinaryBlockIndex( long rlen, long clen, int brlen, int bclen, boolean stats )
+	{
+		_rlen = rlen;
+		_clen = clen;
+		_brlen = brlen;
+		_bclen = bclen;
+		
+		if( stats ) {
+			_min = new double[0];
+			_max = new double[0];
+		}
+		allocate( 16 );
+	}
+	
+	/**
+	 * Adds the given block, which starts at the given position of the data file.
+	 * 
+	 * @param ix
+	 * @param pos
+	 * @param block
+	 * @throws DMLRuntimeException
+	 */
+	public void addBlock( MatrixIndexes ix, long pos, MatrixBlock block ) 
+		throws DMLRuntimeException
+	{
+		if( _size == _pos.length )
+			allocate( 2 * _size );
+		
+		boolean empty = block.isEmptyBlock(false);
+		_rix[_size] = ix.getRowIndex();
+		_cix[_size] = ix.getColumnIndex();
+		_pos[_size] = pos;
+		_nnz[_size] = empty ? 0 : block.getNonZeros();
+		_totalNnz += _nnz[_size];
+		if( hasStatistics() ) {
+			_min[_size] = empty ? 0 : block.min();
+			_max[_size] = empty ? 0 : block.max();
+		}
+		_size++;
+	}
+	
+	public long getNumRows() {
+		return _rlen;
+	}
+	
+	public long getNumColumns() {
+		return _clen;
+	}
+	
+	public int getNumRowsPerBlock() {
+		return _brlen;
+	}
+	
+	public int getNumColumnsPerBlock() {
+		return _bclen;
+	}
+	
+	public int getNumBlocks() {
+		return _size;
+	}
+	
+	public long getRowIndex( int i ) {
+		return _rix[i];
+	}
+	
+	public long getColumnIndex( int i ) {
+		return _cix[i];
+	}
+	
+	public long getPosition( int i ) {
+		return _pos[i];
+	}
+	
+	public long getNonZeros( int i ) {
+		return _nnz[i];
+	}
+	
+	/**
+	 * Get the total number of non-zeros (available for header-only reads).
+	 * 
+	 * @return
+	 */
+	public long getNonZeros() {
+		return _totalNnz;
+	}
+	
+	/**
+	 * Indicates if min/max statistics per block are available, i.e., if they
+	 * were written and requested on read.
+	 * 
+	 * @return
+	 */
+	public boolean hasStatistics() {
+		return (_min != null);
+	}
+	
+	public double getMin( int i ) {
+		return _min[i];
+	}
+	
+	public double getMax( int i ) {
+		return _max[i];
+	}
+	
+	/**
+	 * Get the overall minimum value as aggregate of block minimums.
+	 * 
+	 * @return
+	 */
+	public double getMin()
+	{
+		double min = (_size > 0) ? Double.MAX_VALUE : 0;
+		for( int i=0; i<_size; i++ )
+			min = Math.min(min, _min[i]);
+		return min;
+	}
+	
+	/**
+	 * Get the overall maximum value as aggregate of block maximums.
+	 * 
+	 * @return
+	 */
+	public double getMax()
+	{
+		double max = (_size > 0) ? -Double.MAX_VALUE : 0;
+		for( int i=0; i<_size; i++ )
+			max = Math.max(max, _max[i]);
+		return max;
+	}
+	
+	/**
+	 * Get the positions (in the index) of all non-empty blocks that overlap
+	 * with the given cell range (1-based, inclusive).
+	 * 
+	 * @param range
+	 * @return
+	 */
+	public int[] getNonEmptyBlocks( IndexRange range )
+	{
+		long rbl = (range.rowStart-1)/_brlen + 1;
+		long rbu = (range.rowEnd-1)/_brlen + 1;
+		long cbl = (range.colStart-1)/_bclen + 1;
+		long cbu = (range.colEnd-1)/_bclen + 1;
+		
+		int[] ret = new int[_size];
+		int len = 0;
+		for( int i=0; i<_size; i++ )
+			if( _nnz[i] > 0 && _rix[i] >= rbl && _rix[i] <= rbu 
+				&& _cix[i] >= cbl && _cix[i] <= cbu )
+			{
+				ret[len++] = i;
+			}
+		
+		return Arrays.copyOf(ret, len);
+	}
+	
+	/**
+	 * Indicates if the index was created for a matrix with the given
+	 * dimensions and block sizes.
+	 * 
+	 * @param rlen
+	 * @param clen
+	 * @param brlen
+	 * @param bclen
+	 * @return
+	 */
+	public boolean isCompatible( long rlen, long clen, int brlen, int bclen )
+	{
+		return ( _rlen == rlen && _clen == clen 
+				&& _brlen == brlen && _bclen == bclen );
+	}
+	
+	/**
+	 * Writes the index for the given (already closed) data file, 
+	 * including its current length and modification time.
+	 * 
+	 * @param fs
+	 * @param path
+	 * @throws IOException
+	 */
+	public void writeIndex( FileSystem fs, Path path ) 
+		throws IOException
+	{
+		FileStatus fstat = fs.getFileStatus(path);
+		_flen = fstat.getLen();
+		_ftime = fstat.getModificationTime();
+		
+		DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(fs.create(getIndexPath(path), true)));
+		try
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(_rlen);
+			out.writeLong(_clen);
+			out.writeInt(_brlen);
+			out.writeInt(_bclen);
+			out.writeLong(_flen);
+			out.writeLong(_ftime);
+			out.writeLong(_totalNnz);
+			out.writeInt(_size);
+			for( int i=0; i<_size; i++ ) {
+				out.writeLong(_rix[i]);
+				out.writeLong(_cix[i]);
+				out.writeLong(_pos[i]);
+				out.writeLong(_nnz[i]);
+			}
+			
+			//optional statistics section
+			out.writeBoolean(hasStatistics());
+			if( hasStatistics() )
+				for( int i=0; i<_size; i++ ) {
+					out.writeDouble(_min[i]);
+					out.writeDouble(_max[i]);
+				}
+		}
+		finally
+		{
+			IOUtilFunctions.closeSilently(out);
+		}
+	}
+	
+	/**
+	 * Reads the index of the given data file. Since the index is purely an
+	 * optimization, this returns null if the index is disabled, does not
+	 * exist, is unreadable, or does not match the data file anymore.
+	 * 
+	 * @param fs
+	 * @param path
+	 * @return
+	 */
+	public static BinaryBlockIndex readIndex( FileSystem fs, Path path )
+	{
+		return readIndex(fs, path, false, false);
+	}
+	
+	/**
+	 * Reads the index of the given data file, where a header-only read obtains
+	 * dimensions, block sizes and the total number of non-zeros but no blocks.
+	 * 
+	 * @param fs
+	 * @param path
+	 * @param headerOnly
+	 * @return
+	 */
+	public static BinaryBlockIndex readIndex( FileSystem fs, Path path, boolean headerOnly )
+	{
+		return readIndex(fs, path, headerOnly, false);
+	}
+	
+	/**
+	 * Reads the index of the given data file, where the optional min/max statistics 
+	 * are only read on request (and if available).
+	 * 
+	 * @param fs
+	 * @param path
+	 * @param headerOnly
+	 * @param stats
+	 * @return
+	 */
+	public static BinaryBlockIndex readIndex( FileSystem fs, Path path, boolean headerOnly, boolean stats )
+	{
+		if( !ENABLE_BLOCK_INDEX )
+			return null;
+		
+		try
+		{
+			Path ipath = getIndexPath(path);
+			if( !fs.exists(ipath) )
+				return null;
+			FileStatus fstat = fs.getFileStatus(path);
+			if( fstat.isDirectory() )
+				return null;
+			
+			BinaryBlockIndex ret = null;
+			DataInputStream in = new DataInputStream(
+					new BufferedInputStream(fs.open(ipath)));
+			try
+			{
+				if( in.readInt() != MAGIC || in.readInt() != VERSION )
+					return null;
+				ret = new BinaryBlockIndex(in.readLong(), in.readLong(), in.readInt(), in.readInt(), false);
+				ret._flen = in.readLong();
+				ret._ftime = in.readLong();
+				ret._totalNnz = in.readLong();
+				int size = in.readInt();
+				if( !headerOnly ) {
+					ret._size = size;
+					ret.allocate( Math.max(size, 1) );
+					for( int i=0; i<size; i++ ) {
+						ret._rix[i] = in.readLong();
+						ret._cix[i] = in.readLong();
+						ret._pos[i] = in.readLong();
+						ret._nnz[i] = in.readLong();
+					}
+					
+					//optional statistics section
+					if( stats && in.readBoolean() ) {
+						ret._min = new double[ret._rix.length];
+						ret._max = new double[ret._rix.length];
+						for( int i=0; i<size; i++ ) {
+							ret._min[i] = in.readDouble();
+							ret._max[i] = in.readDouble();
+						}
+					}
+				}
+			}
+			finally
+			{
+				IOUtilFunctions.closeSilently(in);
+			}
+			
+			//check for stale index (data file rewritten)
+			if( fstat.getLen() != ret._flen || fstat.getModificationTime() != ret._ftime )
+				return null;
+			
+			return ret;
+		}
+		catch(IOException ex)
+		{
+			LOG.debug("Ignoring unreadable block index of "+path+".", ex);
+			return null;
+		}
+	}
+	
+	/**
+	 * Reads the index of the given data file from the default file system.
+	 * 
+	 * @param fname
+	 * @return
+	 */
+	public static BinaryBlockIndex readIndex( String fname )
+	{
+		return readIndex(fname, false, false);
+	}
+	
+	/**
+	 * Reads the index (or only its header) of the given data file from 
+	 * the default file system.
+	 * 
+	 * @param fname
+	 * @param headerOnly
+	 * @return
+	 */
+	public static BinaryBlockIndex readIndex( String fname, boolean headerOnly )
+	{
+		return readIndex(fname, headerOnly, false);
+	}
+	
+	/**
+	 * Reads the index (or only its header) of the given data file from 
+	 * the default file system, optionally including the block statistics.
+	 * 
+	 * @param fname
+	 * @param headerOnly
+	 * @param stats
+	 * @return
+	 */
+	public static BinaryBlockIndex readIndex( String fname, boolean headerOnly, boolean stats )
+	{
+		if( !ENABLE_BLOCK_INDEX )
+			return null;
+		
+		try {
+			JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+			return readIndex(FileSystem.get(job), new Path(fname), headerOnly, stats);
+		}
+		catch(IOException ex) {
+			return null;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param fname
+	 * @return
+	 */
+	public static String getIndexFileName( String fname )
+	{
+		return fname + FILE_SUFFIX;
+	}
+	
+	/**
+	 * 
+	 * @param path
+	 * @return
+	 */
+	public static Path getIndexPath( Path path )
+	{
+		return new Path(path.toString() + FILE_SUFFIX);
+	}
+	
+	/**
+	 * 
+	 * @param len
+	 */
+	private void allocate( int len )
+	{
+		_rix = (_rix == null) ? new long[len] : Arrays.copyOf(_rix, len);
+		_cix = (_cix == null) ? new long[len] : Arrays.copyOf(_cix, len);
+		_pos = (_pos == null) ? new long[len] : Arrays.copyOf(_pos, len);
+		_nnz = (_nnz == null) ? new long[len] : Arrays.copyOf(_nnz, len);
+		if( hasStatistics() ) {
+			_min = Arrays.copyOf(_min, len);
+			_max = Arrays.copyOf(_max, len);
+		}
+	}
+}
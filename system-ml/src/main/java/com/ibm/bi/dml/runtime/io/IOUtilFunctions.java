@@ -29,6 +29,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.mapred.RecordReader;
 
+import com.ibm.bi.dml.runtime.util.FastByteTokenizer;
 import com.ibm.bi.dml.runtime.util.UtilFunctions;
 
 public class IOUtilFunctions 
@@ -183,6 +184,40 @@ public class IOUtilFunctions
 		}
 	}
 	
+	/**
+	 * 
+	 * @param st
+	 * @param fill
+	 * @param emptyFound
+	 * @throws IOException
+	 */
+	public static void checkAndRaiseErrorCSVEmptyField(FastByteTokenizer st, boolean fill, boolean emptyFound) 
+		throws IOException
+	{
+		//line string only constructed on errors
+		if ( !fill && emptyFound) {
+			checkAndRaiseErrorCSVEmptyField(st.getLine(), fill, emptyFound);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param fname
+	 * @param st
+	 * @param realncol
+	 * @param ncol
+	 * @throws IOException
+	 */
+	public static void checkAndRaiseErrorCSVNumColumns(String fname, FastByteTokenizer st, int realncol, long ncol) 
+		throws IOException
+	{
+		//line string only constructed on errors
+		if( realncol != ncol ) {
+			throw new IOException("Invalid number of columns (" + realncol + ", expected=" + ncol + ") "
+					+ "found in delimited file (" + fname + ") for line: " + st.getLine());
+		}
+	}
+	
 	/**
 	 * Splits a string by a specified delimiter into all tokens, including empty.
 	 * NOTE: This method is meant as a faster drop-in replacement of the regular 
@@ -32,6 +32,7 @@ import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixIndexes;
 import com.ibm.bi.dml.runtime.matrix.mapred.IndexedMatrixValue;
 import com.ibm.bi.dml.runtime.matrix.mapred.MRJobConfiguration;
+import com.ibm.bi.dml.runtime.util.IndexRange;
 
 public class ReaderBinaryBlock extends MatrixReader
 {
@@ -50,9 +51,6 @@ public class ReaderBinaryBlock extends MatrixReader
 	public MatrixBlock readMatrixFromHDFS(String fname, long rlen, long clen, int brlen, int bclen, long estnnz) 
 		throws IOException, DMLRuntimeException 
 	{
-		//allocate output matrix block
-		MatrixBlock ret = createOutputMatrixBlock(rlen, clen, estnnz, false, false);
-		
 		//prepare file access
 		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());	
 		FileSystem fs = _localFS ? FileSystem.getLocal(job) : FileSystem.get(job);
@@ -60,7 +58,22 @@ public class ReaderBinaryBlock extends MatrixReader
 		
 		//check existence and non-empty file
 		checkValidInputFile(fs, path); 
+		
+		//exact nnz from block index header (if available), incl empty matrices
+		BinaryBlockIndex ix = BinaryBlockIndex.readIndex(fs, path, true);
+		if( ix != null && ix.isCompatible(rlen, clen, brlen, bclen) ) {
+			estnnz = ix.getNonZeros();
+			if( estnnz == 0 )
+				return createOutputMatrixBlock(rlen, clen, 0, false, false);
+		}
+		
+		//allocate output matrix block
+		MatrixBlock ret = createOutputMatrixBlock(rlen, clen, estnnz, false, false);
 	
+		//fast path for local files (memory-mapped, parallel read)
+		if( ReaderBinaryBlockMapped.isMappable(fs, path) )
+			return new ReaderBinaryBlockMapped().readMatrixFromLocal(fs, path, rlen, clen, brlen, bclen, estnnz);
+		
 		//core read 
 		readBinaryBlockMatrixFromHDFS(path, job, fs, ret, rlen, clen, brlen, bclen);
 		
@@ -72,6 +85,95 @@ public class ReaderBinaryBlock extends MatrixReader
 		return ret;
 	}
 	
+	/**
+	 * Reads the given cell range (1-based, inclusive) of a binary block matrix
+	 * by seeking to the overlapping non-empty blocks according to the block index.
+	 * All other blocks are neither read nor deserialized. 
+	 * 
+	 * @param fname
+	 * @param rlen
+	 * @param clen
+	 * @param brlen
+	 * @param bclen
+	 * @param range
+	 * @return the range as matrix block, or null if no valid block index exists
+	 * @throws IOException
+	 * @throws DMLRuntimeException
+	 */
+	@SuppressWarnings("deprecation")
+	public MatrixBlock readMatrixRangeFromHDFS(String fname, long rlen, long clen, int brlen, int bclen, IndexRange range) 
+		throws IOException, DMLRuntimeException 
+	{
+		//prepare file access
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());	
+		FileSystem fs = _localFS ? FileSystem.getLocal(job) : FileSystem.get(job);
+		Path path = new Path( (_localFS ? "file:///" : "") + fname); 
+		
+		//read and check block index (no fallback to full read here)
+		BinaryBlockIndex ix = BinaryBlockIndex.readIndex(fs, path);
+		if( ix == null || !ix.isCompatible(rlen, clen, brlen, bclen) )
+			return null;
+		
+		//probe overlapping non-empty blocks and allocate output
+		int[] blocks = ix.getNonEmptyBlocks(range);
+		long estnnz = 0;
+		for( int i : blocks )
+			estnnz += ix.getNonZeros(i);
+		long rows = range.rowEnd - range.rowStart + 1;
+		long cols = range.colEnd - range.colStart + 1;
+		MatrixBlock ret = createOutputMatrixBlock(rows, cols, Math.min(estnnz, rows*cols), false, false);
+		if( blocks.length == 0 )
+			return ret;
+		
+		//set up preferred custom serialization framework for binary block format
+		if( MRJobConfiguration.USE_BINARYBLOCK_SERIALIZATION )
+			MRJobConfiguration.addBinaryBlockSerializationFramework( job );
+		
+		MatrixIndexes key = new MatrixIndexes(); 
+		MatrixBlock value = new MatrixBlock();
+		MatrixBlock tmp = new MatrixBlock();
+		SequenceFile.Reader reader = new SequenceFile.Reader(fs, path, job);
+		try
+		{
+			for( int i : blocks ) //in order of file positions
+			{
+				//seek to record and read block
+				reader.seek(ix.getPosition(i));
+				if( !reader.next(key, value) || key.getRowIndex() != ix.getRowIndex(i) 
+					|| key.getColumnIndex() != ix.getColumnIndex(i) )
+				{
+					throw new IOException("Inconsistent block index for block ("+ix.getRowIndex(i)
+							+","+ix.getColumnIndex(i)+") of "+fname+".");
+				}
+				
+				//compute intersection of block and range (0-based, global)
+				long row_offset = (key.getRowIndex()-1)*brlen;
+				long col_offset = (key.getColumnIndex()-1)*bclen;
+				int rl = (int)Math.max(range.rowStart-1, row_offset);
+				int ru = (int)Math.min(range.rowEnd-1, row_offset+value.getNumRows()-1);
+				int cl = (int)Math.max(range.colStart-1, col_offset);
+				int cu = (int)Math.min(range.colEnd-1, col_offset+value.getNumColumns()-1);
+				
+				//slice block and copy into result
+				value.sliceOperations((int)(rl-row_offset), (int)(ru-row_offset), 
+						(int)(cl-col_offset), (int)(cu-col_offset), tmp);
+				int rix = (int)(rl-range.rowStart+1);
+				int cix = (int)(cl-range.colStart+1);
+				ret.copy(rix, rix+ru-rl, cix, cix+cu-cl, tmp, false);
+			}
+		}
+		finally
+		{
+			IOUtilFunctions.closeSilently(reader);
+		}
+		
+		//post-processing
+		ret.recomputeNonZeros();
+		ret.examSparsity();
+		
+		return ret;
+	}
+	
 	/**
 	 * 
 	 * @param fname
@@ -98,6 +200,10 @@ public class ReaderBinaryBlock extends MatrixReader
 		//check existence and non-empty file
 		checkValidInputFile(fs, path); 
 	
+		//fast path for local files (memory-mapped, parallel read)
+		if( ReaderBinaryBlockMapped.isMappable(fs, path) )
+			return new ReaderBinaryBlockMapped().readIndexedMatrixBlocksFromLocal(fs, path, rlen, clen, brlen, bclen);
+		
 		//core read 
 		readBinaryBlockMatrixBlocksFromHDFS(path, job, fs, ret, rlen, clen, brlen, bclen);
 		
@@ -0,0 +1,569 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.hadoop.mapred.JobConf;
+
+import com.ibm.bi.dml.conf.ConfigurationManager;
+import com.ibm.bi.dml.hops.OptimizerUtils;
+import com.ibm.bi.dml.runtime.DMLRuntimeException;
+import com.ibm.bi.dml.runtime.controlprogram.caching.OffHeapDataInput;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixIndexes;
+import com.ibm.bi.dml.runtime.matrix.mapred.IndexedMatrixValue;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
+
+/**
+ * Binary block reader for files on the local file system (e.g., single-node
+ * standalone or JMLC deployments), which memory-maps all sequence part files 
+ * and deserializes the matrix blocks directly from the mapped buffers. In 
+ * contrast to SequenceFile.Reader, this avoids the per-record overhead of the
+ * Hadoop IO stack as well as the copies into intermediate byte buffers.
+ * 
+ * The read is done in two phases: a sequential scan over all records that 
+ * only reads the record headers and block indexes, and a parallel 
+ * deserialization of disjoint ranges of row blocks. Since every task 
+ * writes to disjoint rows of the output, no synchronization is required
+ * for both dense and sparse outputs.
+ * 
+ * NOTE: Only uncompressed sequence files (version 6) of MatrixIndexes/MatrixBlock
+ * pairs with part files smaller than 2GB are supported. All other files are 
+ * read with the default binary block readers (see isMappable). Checksum files 
+ * of the local file system are not verified.
+ * 
+ */
+public class ReaderBinaryBlockMapped extends MatrixReader
+{
+	//global flag for enabling the memory-mapped read of local files
+	public static boolean ENABLE_MMAP_LOCAL_READ = true;
+	
+	private static final byte[] SEQ_MAGIC = new byte[]{(byte)'S', (byte)'E', (byte)'Q'};
+	private static final byte SEQ_VERSION = 6;
+	private static final int SYNC_ESCAPE = -1;
+	private static final int SYNC_HASH_SIZE = 16;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private int _numThreads = 1;
+	
+	public ReaderBinaryBlockMapped()
+	{
+		_numThreads = OptimizerUtils.getParallelTextReadParallelism();
+	}
+	
+	@Override
+	public MatrixBlock readMatrixFromHDFS(String fname, long rlen, long clen, int brlen, int bclen, long estnnz) 
+		throws IOException, DMLRuntimeException 
+	{
+		//prepare file access
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());	
+		FileSystem fs = FileSystem.getLocal(job);
+		Path path = new Path("file:///" + fname); 
+		
+		//check existence and non-empty file
+		checkValidInputFile(fs, path); 
+		
+		return readMatrixFromLocal(fs, path, rlen, clen, brlen, bclen, estnnz);
+	}
+	
+	/**
+	 * Reads a matrix from local sequence files, which are expected to be 
+	 * mappable (see isMappable).
+	 * 
+	 * @param fs
+	 * @param path
+	 * @param rlen
+	 * @param clen
+	 * @param brlen
+	 * @param bclen
+	 * @param estnnz
+	 * @return
+	 * @throws IOException
+	 * @throws DMLRuntimeException
+	 */
+	public MatrixBlock readMatrixFromLocal(FileSystem fs, Path path, long rlen, long clen, int brlen, int bclen, long estnnz) 
+		throws IOException, DMLRuntimeException 
+	{
+		//allocate output matrix block (incl sparse rows/dense block 
+		//because tasks write concurrently into disjoint rows)
+		MatrixBlock ret = createOutputMatrixBlock(rlen, clen, estnnz, true, true);
+		
+		//scan all records of all part files
+		ArrayList<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+		RecordIndex rix = scanRecords(fs, path, buffers, rlen, clen, brlen, bclen);
+		
+		//parallel deserialization per range of row blocks
+		int nrblks = (int)Math.max((rlen+brlen-1)/brlen, 1);
+		int k = Math.min(_numThreads, nrblks);
+		ArrayList<ReadMatrixTask> tasks = new ArrayList<ReadMatrixTask>();
+		for( int i=0; i<k; i++ )
+			tasks.add(new ReadMatrixTask(buffers, rix, ret, i*nrblks/k+1, (i+1)*nrblks/k, brlen, bclen));
+		executeTasks(tasks, k);
+		
+		//post-processing (nnz maintenance and sorting of appended sparse rows)
+		ret.recomputeNonZeros();
+		if( ret.isInSparseFormat() && clen>bclen )
+			ret.sortSparseRows();
+		ret.examSparsity();
+		
+		return ret;
+	}
+	
+	/**
+	 * Reads all matrix blocks from local sequence files, which are expected 
+	 * to be mappable (see isMappable).
+	 * 
+	 * @param fs
+	 * @param path
+	 * @param rlen
+	 * @param clen
+	 * @param brlen
+	 * @param bclen
+	 * @return
+	 * @throws IOException
+	 */
+	public ArrayList<IndexedMatrixValue> readIndexedMatrixBlocksFromLocal(FileSystem fs, Path path, long rlen, long clen, int brlen, int bclen) 
+		throws IOException 
+	{
+		//scan all records of all part files
+		ArrayList<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+		RecordIndex rix = scanRecords(fs, path, buffers, rlen, clen, brlen, bclen);
+		
+		//parallel deserialization per range of records
+		int k = Math.max(Math.min(_numThreads, rix.size), 1);
+		ArrayList<ReadMatrixBlocksTask> tasks = new ArrayList<ReadMatrixBlocksTask>();
+		for( int i=0; i<k; i++ )
+			tasks.add(new ReadMatrixBlocksTask(buffers, rix, (int)((long)i*rix.size/k), (int)((long)(i+1)*rix.size/k), rlen, clen, brlen, bclen));
+		List<Future<ArrayList<IndexedMatrixValue>>> rt = executeTasks(tasks, k);
+		
+		//concatenate partial results in order of records
+		ArrayList<IndexedMatrixValue> ret = new ArrayList<IndexedMatrixValue>(rix.size);
+		try {
+			for( Future<ArrayList<IndexedMatrixValue>> task : rt )
+				ret.addAll(task.get());
+		}
+		catch(Exception ex) {
+			throw new IOException("Failed to read matrix blocks.", ex);
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Indicates if the given file or directory of part files can be read via 
+	 * memory-mapped buffers, i.e., if it resides on the local file system and 
+	 * all part files are uncompressed MatrixIndexes/MatrixBlock sequence files 
+	 * smaller than 2GB.
+	 * 
+	 * @param fs
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static boolean isMappable(FileSystem fs, Path path) 
+		throws IOException
+	{
+		if( !ENABLE_MMAP_LOCAL_READ 
+			|| !(fs instanceof LocalFileSystem || fs instanceof RawLocalFileSystem) )
+			return false;
+		
+		for( Path lpath : getSequenceFilePaths(fs, path) ) {
+			File file = getLocalFile(fs, lpath);
+			if( !file.isFile() || file.length() > Integer.MAX_VALUE )
+				return false;
+			
+			//check sequence file header (read up to 4KB)
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			try {
+				byte[] buff = new byte[(int)Math.min(file.length(), 4096)];
+				raf.readFully(buff);
+				if( !isSupportedHeader(ByteBuffer.wrap(buff)) )
+					return false;
+			}
+			finally {
+				raf.close();
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Memory-maps all part files and scans their records in order to obtain the 
+	 * buffer positions and block indexes of all matrix blocks.
+	 * 
+	 * @param fs
+	 * @param path
+	 * @param buffers
+	 * @param rlen
+	 * @param clen
+	 * @param brlen
+	 * @param bclen
+	 * @return
+	 * @throws IOException
+	 */
+	private static RecordIndex scanRecords(FileSystem fs, Path path, ArrayList<ByteBuffer> buffers, long rlen, long clen, int brlen, int bclen) 
+		throws IOException
+	{
+		RecordIndex rix = new RecordIndex();
+		
+		for( Path lpath : getSequenceFilePaths(fs, path) ) 
+		{
+			//map entire part file (the mapping remains valid after close)
+			RandomAccessFile raf = new RandomAccessFile(getLocalFile(fs, lpath), "r");
+			ByteBuffer buff = null;
+			try {
+				FileChannel channel = raf.getChannel();
+				buff = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			finally {
+				raf.close();
+			}
+			
+			if( !isSupportedHeader(buff) )
+				throw new IOException("Unsupported sequence file format: "+lpath.toString());
+			int fileID = buffers.size();
+			buffers.add(buff);
+			
+			//scan records (int reclen, int keylen, key, value) and sync markers
+			while( buff.remaining() > 0 ) {
+				int reclen = buff.getInt();
+				if( reclen == SYNC_ESCAPE ) {
+					buff.position(buff.position() + SYNC_HASH_SIZE);
+					continue;
+				}
+				int keylen = buff.getInt();
+				int pos = buff.position();
+				long rowIndex = buff.getLong(pos);
+				long colIndex = buff.getLong(pos+8);
+				
+				//bound check per block (block dimensions checked on read)
+				if( rowIndex < 1 || (rowIndex-1)*brlen >= Math.max(rlen,1) 
+					|| colIndex < 1 || (colIndex-1)*bclen >= Math.max(clen,1) ) {
+					throw new IOException("Matrix block index ("+rowIndex+","+colIndex+") " +
+				              "out of overall matrix range [1:"+rlen+",1:"+clen+"].");
+				}
+				
+				rix.add(fileID, pos+keylen, rowIndex, colIndex);
+				buff.position(pos + reclen);
+			}
+		}
+		
+		return rix;
+	}
+	
+	/**
+	 * Parses the sequence file header and positions the buffer at the first 
+	 * record, if the format is supported.
+	 * 
+	 * @param buff
+	 * @return
+	 */
+	private static boolean isSupportedHeader(ByteBuffer buff)
+	{
+		try
+		{
+			//magic number and version
+			for( int i=0; i<SEQ_MAGIC.length; i++ )
+				if( buff.get() != SEQ_MAGIC[i] )
+					return false;
+			if( buff.get() != SEQ_VERSION )
+				return false;
+			
+			//key and value classes
+			if( !MatrixIndexes.class.getName().equals(readString(buff)) 
+				|| !MatrixBlock.class.getName().equals(readString(buff)) )
+				return false;
+			
+			//compression (record or block compressed)
+			boolean compressed = (buff.get() != 0);
+			boolean blockCompressed = (buff.get() != 0);
+			if( compressed || blockCompressed )
+				return false;
+			
+			//metadata (skip key/value pairs) and sync hash
+			int nmeta = buff.getInt();
+			for( int i=0; i<2*nmeta; i++ )
+				readString(buff);
+			buff.position(buff.position() + SYNC_HASH_SIZE);
+		}
+		catch(RuntimeException ex) {
+			//buffer underflow or illegal position on truncated header
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Reads a hadoop Text string, i.e., a vint length and utf-8 bytes.
+	 * 
+	 * @param buff
+	 * @return
+	 */
+	private static String readString(ByteBuffer buff)
+	{
+		int len = (int)readVLong(buff);
+		byte[] tmp = new byte[len];
+		buff.get(tmp);
+		return new String(tmp, UTF8);
+	}
+	
+	/**
+	 * Reads a hadoop variable-length encoded long (see WritableUtils.readVLong).
+	 * 
+	 * @param buff
+	 * @return
+	 */
+	private static long readVLong(ByteBuffer buff)
+	{
+		byte first = buff.get();
+		if( first >= -112 )
+			return first;
+		
+		boolean neg = (first < -120);
+		int len = neg ? (-119 - first) : (-111 - first);
+		long ret = 0;
+		for( int i=0; i<len-1; i++ )
+			ret = (ret << 8) | (buff.get() & 0xFF);
+		return neg ? ~ret : ret;
+	}
+	
+	/**
+	 * 
+	 * @param fs
+	 * @param path
+	 * @return
+	 */
+	private static File getLocalFile(FileSystem fs, Path path)
+	{
+		return new File(path.makeQualified(fs).toUri().getPath());
+	}
+	
+	/**
+	 * 
+	 * @param tasks
+	 * @param k
+	 * @return
+	 * @throws IOException
+	 */
+	private static <T> List<Future<T>> executeTasks(ArrayList<? extends Callable<T>> tasks, int k) 
+		throws IOException
+	{
+		try {
+			List<Future<T>> ret = KernelThreadPool.invokeAll(tasks, k);
+			
+			//check for errors (propagate task exceptions)
+			for( Future<T> task : ret )
+				task.get();
+			
+			return ret;
+		}
+		catch(Exception ex) {
+			throw new IOException("Failed parallel read of memory-mapped binary block files.", ex);
+		}
+	}
+	
+	/**
+	 * Index of all records, i.e., their part file, value buffer position, 
+	 * and block indexes in primitive arrays.
+	 */
+	private static class RecordIndex
+	{
+		private int[] files = new int[16];
+		private int[] pos = new int[16];
+		private long[] rix = new long[16];
+		private long[] cix = new long[16];
+		private int size = 0;
+		
+		private void add(int file, int vpos, long rowIndex, long colIndex) {
+			if( size == files.length ) {
+				int newCap = 2 * files.length;
+				files = Arrays.copyOf(files, newCap);
+				pos = Arrays.copyOf(pos, newCap);
+				rix = Arrays.copyOf(rix, newCap);
+				cix = Arrays.copyOf(cix, newCap);
+			}
+			files[size] = file;
+			pos[size] = vpos;
+			rix[size] = rowIndex;
+			cix[size] = colIndex;
+			size++;
+		}
+	}
+	
+	/**
+	 * Task for deserializing all blocks of the row block range [rl, ru] 
+	 * into the preallocated output matrix.
+	 */
+	private static class ReadMatrixTask implements Callable<Object> 
+	{
+		private ArrayList<ByteBuffer> _buffers = null;
+		private RecordIndex _rix = null;
+		private MatrixBlock _dest = null;
+		private long _rl = -1;
+		private long _ru = -1;
+		private int _brlen = -1;
+		private int _bclen = -1;
+		
+		public ReadMatrixTask(ArrayList<ByteBuffer> buffers, RecordIndex rix, MatrixBlock dest, long rl, long ru, int brlen, int bclen)
+		{
+			_buffers = buffers;
+			_rix = rix;
+			_dest = dest;
+			_rl = rl;
+			_ru = ru;
+			_brlen = brlen;
+			_bclen = bclen;
+		}
+		
+		@Override
+		public Object call() throws Exception 
+		{
+			//thread-local buffer views (independent positions)
+			ByteBuffer[] buffs = new ByteBuffer[_buffers.size()];
+			OffHeapDataInput[] in = new OffHeapDataInput[_buffers.size()];
+			MatrixBlock value = new MatrixBlock();
+			boolean sparse = _dest.isInSparseFormat();
+			long rlen = _dest.getNumRows();
+			long clen = _dest.getNumColumns();
+			
+			for( int i=0; i<_rix.size; i++ )
+			{
+				//filter blocks of other tasks
+				if( _rix.rix[i] < _rl || _rix.rix[i] > _ru )
+					continue;
+				
+				//deserialize block directly from mapped buffer
+				int fix = _rix.files[i];
+				if( in[fix] == null ) {
+					buffs[fix] = _buffers.get(fix).duplicate();
+					in[fix] = new OffHeapDataInput(buffs[fix]);
+				}
+				buffs[fix].position(_rix.pos[i]);
+				value.readFields(in[fix]);
+				
+				//empty block filter (skip entire block)
+				if( value.isEmptyBlock(false) )
+					continue;
+				
+				int row_offset = (int)(_rix.rix[i]-1)*_brlen;
+				int col_offset = (int)(_rix.cix[i]-1)*_bclen;
+				int rows = value.getNumRows();
+				int cols = value.getNumColumns();
+				
+				//bound check per block
+				if( row_offset + rows < 0 || row_offset + rows > rlen || col_offset + cols<0 || col_offset + cols > clen )
+				{
+					throw new IOException("Matrix block ["+(row_offset+1)+":"+(row_offset+rows)+","+(col_offset+1)+":"+(col_offset+cols)+"] " +
+							              "out of overall matrix range [1:"+rlen+",1:"+clen+"].");
+				}
+				
+				//copy block to result (disjoint rows, nnz recomputed by caller)
+				if( sparse )
+					_dest.appendToSparse(value, row_offset, col_offset);
+				else
+					_dest.copy( row_offset, row_offset+rows-1, 
+							   col_offset, col_offset+cols-1,
+							   value, false );
+			}
+			
+			return null;
+		}
+	}
+	
+	/**
+	 * Task for deserializing the records [rl, ru) into independent 
+	 * indexed matrix blocks.
+	 */
+	private static class ReadMatrixBlocksTask implements Callable<ArrayList<IndexedMatrixValue>> 
+	{
+		private ArrayList<ByteBuffer> _buffers = null;
+		private RecordIndex _rix = null;
+		private int _rl = -1;
+		private int _ru = -1;
+		private long _rlen = -1;
+		private long _clen = -1;
+		private int _brlen = -1;
+		private int _bclen = -1;
+		
+		public ReadMatrixBlocksTask(ArrayList<ByteBuffer> buffers, RecordIndex rix, int rl, int ru, long rlen, long clen, int brlen, int bclen)
+		{
+			_buffers = buffers;
+			_rix = rix;
+			_rl = rl;
+			_ru = ru;
+			_rlen = rlen;
+			_clen = clen;
+			_brlen = brlen;
+			_bclen = bclen;
+		}
+		
+		@Override
+		public ArrayList<IndexedMatrixValue> call() throws Exception 
+		{
+			ArrayList<IndexedMatrixValue> ret = new ArrayList<IndexedMatrixValue>(_ru-_rl);
+			ByteBuffer[] buffs = new ByteBuffer[_buffers.size()];
+			OffHeapDataInput[] in = new OffHeapDataInput[_buffers.size()];
+			
+			for( int i=_rl; i<_ru; i++ )
+			{
+				//deserialize block directly from mapped buffer
+				int fix = _rix.files[i];
+				if( in[fix] == null ) {
+					buffs[fix] = _buffers.get(fix).duplicate();
+					in[fix] = new OffHeapDataInput(buffs[fix]);
+				}
+				buffs[fix].position(_rix.pos[i]);
+				MatrixBlock value = new MatrixBlock();
+				value.readFields(in[fix]);
+				
+				int row_offset = (int)(_rix.rix[i]-1)*_brlen;
+				int col_offset = (int)(_rix.cix[i]-1)*_bclen;
+				int rows = value.getNumRows();
+				int cols = value.getNumColumns();
+				
+				//bound check per block
+				if( row_offset + rows < 0 || row_offset + rows > _rlen || col_offset + cols<0 || col_offset + cols > _clen )
+				{
+					throw new IOException("Matrix block ["+(row_offset+1)+":"+(row_offset+rows)+","+(col_offset+1)+":"+(col_offset+cols)+"] " +
+							              "out of overall matrix range [1:"+_rlen+",1:"+_clen+"].");
+				}
+				
+				ret.add(new IndexedMatrixValue(new MatrixIndexes(_rix.rix[i], _rix.cix[i]), value));
+			}
+			
+			return ret;
+		}
+	}
+}
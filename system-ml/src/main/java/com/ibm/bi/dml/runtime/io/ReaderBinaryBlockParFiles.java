@@ -21,8 +21,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -37,6 +35,7 @@ import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixIndexes;
 import com.ibm.bi.dml.runtime.matrix.mapred.IndexedMatrixValue;
 import com.ibm.bi.dml.runtime.matrix.mapred.MRJobConfiguration;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 public class ReaderBinaryBlockParFiles extends MatrixReader {
 
@@ -69,6 +68,10 @@ public class ReaderBinaryBlockParFiles extends MatrixReader {
 		//check existence and non-empty file
 		checkValidInputFile(fs, path); 
 	
+		//fast path for local files (memory-mapped, parallel read)
+		if( ReaderBinaryBlockMapped.isMappable(fs, path) )
+			return new ReaderBinaryBlockMapped().readMatrixFromLocal(fs, path, rlen, clen, brlen, bclen, estnnz);
+		
 		//core read 
 		readBinaryBlockMatrixFromHDFS(path, job, fs, ret, rlen, clen, brlen, bclen);
 		
@@ -105,6 +108,10 @@ public class ReaderBinaryBlockParFiles extends MatrixReader {
 		//check existence and non-empty file
 		checkValidInputFile(fs, path); 
 	
+		//fast path for local files (memory-mapped, parallel read)
+		if( ReaderBinaryBlockMapped.isMappable(fs, path) )
+			return new ReaderBinaryBlockMapped().readIndexedMatrixBlocksFromLocal(fs, path, rlen, clen, brlen, bclen);
+		
 		//core read 
 		readBinaryBlockMatrixBlocksFromHDFS(path, job, fs, ret, rlen, clen, brlen, bclen);
 		
@@ -137,7 +144,6 @@ public class ReaderBinaryBlockParFiles extends MatrixReader {
 		
 		FileInputFormat.addInputPath(job, path);
 		
-		ExecutorService pool = Executors.newFixedThreadPool(_numThreads);
 		try 
 		{
 			//create read tasks for all splits
@@ -148,8 +154,7 @@ public class ReaderBinaryBlockParFiles extends MatrixReader {
 			}
 
 			//wait until all tasks have been executed
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, _numThreads);	
 			
 			//early error notify in case not all tasks successful
 			for(ReadMatrixPerPartfileTask rt : tasks) {
@@ -185,7 +190,6 @@ public class ReaderBinaryBlockParFiles extends MatrixReader {
 		if( MRJobConfiguration.USE_BINARYBLOCK_SERIALIZATION )
 			MRJobConfiguration.addBinaryBlockSerializationFramework( job );
 		
-		ExecutorService pool = Executors.newFixedThreadPool(_numThreads);
 		try 
 		{
 			//create read tasks for all splits
@@ -196,8 +200,7 @@ public class ReaderBinaryBlockParFiles extends MatrixReader {
 			}
 			
 			//wait until all tasks have been executed
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, _numThreads);	
 			
 			//early error notify in case not all tasks successful
 			for(ReadMatrixBlockTask rt : tasks) {
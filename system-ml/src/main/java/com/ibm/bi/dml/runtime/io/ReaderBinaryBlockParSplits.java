@@ -21,8 +21,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -41,6 +39,7 @@ import com.ibm.bi.dml.runtime.matrix.data.MatrixIndexes;
 import com.ibm.bi.dml.runtime.matrix.mapred.IndexedMatrixValue;
 import com.ibm.bi.dml.runtime.matrix.mapred.MRJobConfiguration;
 import com.ibm.bi.dml.runtime.util.BinaryBlockInputFormat;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 public class ReaderBinaryBlockParSplits extends MatrixReader {
 
@@ -152,7 +151,6 @@ public class ReaderBinaryBlockParSplits extends MatrixReader {
 		BinaryBlockInputFormat informat = new BinaryBlockInputFormat();
 		InputSplit[] seqsplits = informat.getSplits(job, _numThreads);
 		
-		ExecutorService pool = Executors.newFixedThreadPool(_numThreads);
 		try 
 		{
 			//create read tasks for all splits
@@ -164,8 +162,7 @@ public class ReaderBinaryBlockParSplits extends MatrixReader {
 			}
 
 			//wait until all tasks have been executed
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, _numThreads);	
 			
 			//early error notify in case not all tasks successful
 			for(ReadMatrixPerSplitTask rt : tasks) {
@@ -201,7 +198,6 @@ public class ReaderBinaryBlockParSplits extends MatrixReader {
 		if( MRJobConfiguration.USE_BINARYBLOCK_SERIALIZATION )
 			MRJobConfiguration.addBinaryBlockSerializationFramework( job );
 		
-		ExecutorService pool = Executors.newFixedThreadPool(_numThreads);
 		try 
 		{
 			//create read tasks for all splits
@@ -212,8 +208,7 @@ public class ReaderBinaryBlockParSplits extends MatrixReader {
 			}
 			
 			//wait until all tasks have been executed
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, _numThreads);	
 			
 			//early error notify in case not all tasks successful
 			for(ReadMatrixBlockTask rt : tasks) {
@@ -19,6 +19,7 @@ package com.ibm.bi.dml.runtime.io;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -28,14 +29,16 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.util.LineReader;
 
 import com.ibm.bi.dml.conf.ConfigurationManager;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.matrix.CSVReblockMR;
 import com.ibm.bi.dml.runtime.matrix.data.CSVFileFormatProperties;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
-import com.ibm.bi.dml.runtime.util.UtilFunctions;
+import com.ibm.bi.dml.runtime.util.FastByteTokenizer;
 
 public class ReaderTextCSV extends MatrixReader
 {
@@ -115,7 +118,8 @@ public class ReaderTextCSV extends MatrixReader
 		boolean sparse = dest.isInSparseFormat();
 		
 		/////////////////////////////////////////
-		String value = null;
+		Text value = new Text();
+		FastByteTokenizer st = new FastByteTokenizer(delim);
 		int row = 0;
 		int col = -1;
 		double cellValue = 0;
@@ -123,9 +127,10 @@ public class ReaderTextCSV extends MatrixReader
 		
 		for(int fileNo=0; fileNo<files.size(); fileNo++)
 		{
-			BufferedReader br = new BufferedReader(new InputStreamReader(fs.open(files.get(fileNo))));
+			InputStream is = fs.open(files.get(fileNo));
+			LineReader lr = new LineReader(is);
 			if(fileNo==0 && hasHeader ) 
-				br.readLine(); //ignore header
+				lr.readLine(value); //ignore header
 			
 			// Read the data
 			boolean emptyValuesFound = false;
@@ -133,24 +138,23 @@ public class ReaderTextCSV extends MatrixReader
 			{
 				if( sparse ) //SPARSE<-value
 				{
-					while( (value=br.readLine())!=null ) //foreach line
+					while( lr.readLine(value) > 0 ) //foreach line
 					{
-						String cellStr = value.toString().trim();
+						st.reset(value.getBytes(), value.getLength());
 						emptyValuesFound = false;
-						String[] parts = IOUtilFunctions.split(cellStr, delim);
 						col = 0;
 						
-						for(String part : parts) //foreach cell
+						while( st.hasNextCell() ) //foreach cell
 						{
-							part = part.trim();
-							if ( part.isEmpty() ) {
+							st.nextCell();
+							if ( st.isEmptyCell() ) {
 								emptyValuesFound = true;
 								cellValue = fillValue;
 							}
 							else {
-								cellValue = UtilFunctions.parseToDouble(part);
+								cellValue = st.getCellDouble();
 							}
-							if ( cellValue != 0 ) {
+							if ( cellValue != 0 && col < clen ) {
 								dest.appendValue(row, col, cellValue);
 								lnnz++;
 							}
@@ -158,31 +162,30 @@ public class ReaderTextCSV extends MatrixReader
 						}
 						
 						//sanity checks for empty values and number of columns
-						IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(cellStr, fill, emptyValuesFound);
-						IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(path.toString(), cellStr, parts, clen);
+						IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(st, fill, emptyValuesFound);
+						IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(path.toString(), st, col, clen);
 						row++;
 					}
 				} 
 				else //DENSE<-value
 				{
-					while( (value=br.readLine())!=null ) //foreach line
+					while( lr.readLine(value) > 0 ) //foreach line
 					{
-						String cellStr = value.toString().trim();
+						st.reset(value.getBytes(), value.getLength());
 						emptyValuesFound = false;
-						String[] parts = IOUtilFunctions.split(cellStr, delim);
 						col = 0;
 						
-						for( String part : parts ) //foreach cell
+						while( st.hasNextCell() ) //foreach cell
 						{
-							part = part.trim();
-							if ( part.isEmpty() ) {
+							st.nextCell();
+							if ( st.isEmptyCell() ) {
 								emptyValuesFound = true;
 								cellValue = fillValue;
 							}
 							else {
-								cellValue = UtilFunctions.parseToDouble(part);
+								cellValue = st.getCellDouble();
 							}
-							if ( cellValue != 0 ) {
+							if ( cellValue != 0 && col < clen ) {
 								dest.setValueDenseUnsafe(row, col, cellValue);
 								lnnz++;
 							}
@@ -190,14 +193,14 @@ public class ReaderTextCSV extends MatrixReader
 						}
 						
 						//sanity checks for empty values and number of columns
-						IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(cellStr, fill, emptyValuesFound);
-						IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(path.toString(), cellStr, parts, clen);
+						IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(st, fill, emptyValuesFound);
+						IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(path.toString(), st, col, clen);
 						row++;
 					}
 				}
 			}
 			finally {
-				IOUtilFunctions.closeSilently(br);
+				IOUtilFunctions.closeSilently(is);
 			}
 		}
 		
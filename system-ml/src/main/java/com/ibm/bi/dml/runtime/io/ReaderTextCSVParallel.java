@@ -22,8 +22,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.fs.FileSystem;
@@ -43,6 +41,8 @@ import com.ibm.bi.dml.hops.OptimizerUtils;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.matrix.data.CSVFileFormatProperties;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.util.FastByteTokenizer;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 /**
  * Parallel version of ReaderTextCSV.java. To summarize, we do two passes in
@@ -151,8 +151,6 @@ public class ReaderTextCSVParallel extends MatrixReader
 		TextInputFormat informat = new TextInputFormat();
 		informat.configure(job);
 
-		ExecutorService pool = Executors.newFixedThreadPool(_numThreads);
-
 		try 
 		{
 			// create read tasks for all splits
@@ -162,8 +160,7 @@ public class ReaderTextCSVParallel extends MatrixReader
 				tasks.add( new CSVReadTask(split, _offsets, informat, job, dest, 
 					rlen, clen, hasHeader, delim, fill, fillValue, splitCount++) );
 			}
-			pool.invokeAll(tasks);
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, _numThreads);
 
 			// check return codes and aggregate nnz
 			long lnnz = 0;
@@ -220,14 +217,12 @@ public class ReaderTextCSVParallel extends MatrixReader
 		// count rows in parallel per split
 		try 
 		{
-			ExecutorService pool = Executors.newFixedThreadPool(_numThreads);
 			ArrayList<CountRowsTask> tasks = new ArrayList<CountRowsTask>();
 			for (InputSplit split : splits) {
 				tasks.add(new CountRowsTask(split, informat, job, hasHeader));
 				hasHeader = false;
 			}
-			pool.invokeAll(tasks);
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, _numThreads);
 
 			// collect row counts for offset computation
 			// early error notify in case not all tasks successful
@@ -424,6 +419,7 @@ public class ReaderTextCSVParallel extends MatrixReader
 					reader.next(key, value);
 				}
 
+				FastByteTokenizer st = new FastByteTokenizer(_delim);
 				boolean noFillEmpty = false;
 				row = _splitoffsets.getOffsetPerSplit(_splitCount);
 
@@ -432,22 +428,21 @@ public class ReaderTextCSVParallel extends MatrixReader
 					{
 						while (reader.next(key, value)) // foreach line
 						{
-							String cellStr = value.toString().trim();
-							String[] parts = IOUtilFunctions.split(cellStr, _delim);
+							st.reset(value.getBytes(), value.getLength());
 							col = 0;
 
-							for (String part : parts) // foreach cell
+							while (st.hasNextCell()) // foreach cell
 							{
-								part = part.trim();
-								if (part.isEmpty()) {
+								st.nextCell();
+								if (st.isEmptyCell()) {
 									noFillEmpty |= !_fill;
 									cellValue = _fillValue;
 								} 
 								else {
-									cellValue = IOUtilFunctions.parseDoubleParallel(part);
+									cellValue = st.getCellDouble();
 								}
 
-								if( cellValue != 0 ) {
+								if( cellValue != 0 && col < _clen ) {
 									_dest.appendValue(row, col, cellValue);
 									lnnz++;
 								}
@@ -455,8 +450,8 @@ public class ReaderTextCSVParallel extends MatrixReader
 							}
 
 							// sanity checks (number of columns, fill values)
-							IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(cellStr, _fill, noFillEmpty);
-							IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(_split.toString(), cellStr, parts, _clen);
+							IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(st, _fill, noFillEmpty);
+							IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(_split.toString(), st, col, _clen);
 							
 							row++;
 						}
@@ -465,21 +460,20 @@ public class ReaderTextCSVParallel extends MatrixReader
 					{
 						while (reader.next(key, value)) // foreach line
 						{
-							String cellStr = value.toString().trim();
-							String[] parts = IOUtilFunctions.split(cellStr, _delim);
+							st.reset(value.getBytes(), value.getLength());
 							col = 0;
 
-							for (String part : parts) // foreach cell
+							while (st.hasNextCell()) // foreach cell
 							{
-								part = part.trim();
-								if (part.isEmpty()) {
+								st.nextCell();
+								if (st.isEmptyCell()) {
 									noFillEmpty |= !_fill;
 									cellValue = _fillValue;
 								} 
 								else {
-									cellValue = IOUtilFunctions.parseDoubleParallel(part);
+									cellValue = st.getCellDouble();
 								}
-								if( cellValue != 0 ) {
+								if( cellValue != 0 && col < _clen ) {
 									_dest.setValueDenseUnsafe(row, col, cellValue);
 									lnnz++;
 								}
@@ -487,8 +481,8 @@ public class ReaderTextCSVParallel extends MatrixReader
 							}
 
 							// sanity checks (number of columns, fill values)
-							IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(cellStr, _fill, noFillEmpty);
-							IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(_split.toString(), cellStr, parts, _clen);
+							IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(st, _fill, noFillEmpty);
+							IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(_split.toString(), st, col, _clen);
 							
 							row++;
 						}
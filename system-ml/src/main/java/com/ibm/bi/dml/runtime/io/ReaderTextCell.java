@@ -17,10 +17,8 @@
 
 package com.ibm.bi.dml.runtime.io;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -32,12 +30,13 @@ import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.RecordReader;
 import org.apache.hadoop.mapred.Reporter;
 import org.apache.hadoop.mapred.TextInputFormat;
+import org.apache.hadoop.util.LineReader;
 
 import com.ibm.bi.dml.conf.ConfigurationManager;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.matrix.data.InputInfo;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
-import com.ibm.bi.dml.runtime.util.FastStringTokenizer;
+import com.ibm.bi.dml.runtime.util.FastByteTokenizer;
 
 public class ReaderTextCell extends MatrixReader
 {
@@ -125,7 +124,7 @@ public class ReaderTextCell extends MatrixReader
 		
 		try
 		{
-			FastStringTokenizer st = new FastStringTokenizer(' ');
+			FastByteTokenizer st = new FastByteTokenizer(' ');
 			
 			for(InputSplit split: splits)
 			{
@@ -137,7 +136,7 @@ public class ReaderTextCell extends MatrixReader
 					{
 						while( reader.next(key, value) )
 						{
-							st.reset( value.toString() ); //reinit tokenizer
+							st.reset( value.getBytes(), value.getLength() ); //reinit tokenizer
 							row = st.nextInt() - 1;
 							col = st.nextInt() - 1;
 							double lvalue = st.nextDouble();
@@ -150,7 +149,7 @@ public class ReaderTextCell extends MatrixReader
 					{
 						while( reader.next(key, value) )
 						{
-							st.reset( value.toString() ); //reinit tokenizer
+							st.reset( value.getBytes(), value.getLength() ); //reinit tokenizer
 							row = st.nextInt()-1;
 							col = st.nextInt()-1;
 							double lvalue = st.nextDouble();
@@ -220,28 +219,28 @@ public class ReaderTextCell extends MatrixReader
 	private void readRawTextCellMatrixFromInputStream( InputStream is, MatrixBlock dest, long rlen, long clen, int brlen, int bclen, boolean matrixMarket )
 			throws IOException
 	{
-		BufferedReader br = new BufferedReader(new InputStreamReader( is ));	
+		LineReader lr = new LineReader( is );
 		
 		boolean sparse = dest.isInSparseFormat();
-		String value = null;
+		Text value = new Text();
 		int row = -1;
 		int col = -1;
 		
 		// Read the header lines, if reading from a matrixMarket file
 		if ( matrixMarket ) {
-			value = br.readLine(); // header line
-			if ( value==null || !value.startsWith("%%") ) {
-				throw new IOException("Error while reading file in MatrixMarket format. Expecting a header line, but encountered, \"" + value +"\".");
+			String header = (lr.readLine(value) > 0) ? value.toString() : null; // header line
+			if ( header==null || !header.startsWith("%%") ) {
+				throw new IOException("Error while reading file in MatrixMarket format. Expecting a header line, but encountered, \"" + header +"\".");
 			}
 			
 			// skip until end-of-comments
-			while( (value = br.readLine())!=null && value.charAt(0) == '%' ) {
+			while( lr.readLine(value) > 0 && value.getLength() > 0 && value.getBytes()[0] == '%' ) {
 				//do nothing just skip comments
 			}
 			
 			// the first line after comments is the one w/ matrix dimensions
 			// validate (rlen clen nnz)
-			String[] fields = value.trim().split("\\s+"); 
+			String[] fields = value.toString().trim().split("\\s+"); 
 			long mm_rlen = Long.parseLong(fields[0]);
 			long mm_clen = Long.parseLong(fields[1]);
 			if ( rlen != mm_rlen || clen != mm_clen ) {
@@ -251,13 +250,13 @@ public class ReaderTextCell extends MatrixReader
 		
 		try
 		{			
-			FastStringTokenizer st = new FastStringTokenizer(' ');
+			FastByteTokenizer st = new FastByteTokenizer(' ');
 			
 			if( sparse ) //SPARSE<-value
 			{
-				while( (value=br.readLine())!=null )
+				while( lr.readLine(value) > 0 )
 				{
-					st.reset( value ); //reinit tokenizer
+					st.reset( value.getBytes(), value.getLength() ); //reinit tokenizer
 					row = st.nextInt()-1;
 					col = st.nextInt()-1;
 					double lvalue = st.nextDouble();
@@ -268,9 +267,9 @@ public class ReaderTextCell extends MatrixReader
 			} 
 			else //DENSE<-value
 			{
-				while( (value=br.readLine())!=null )
+				while( lr.readLine(value) > 0 )
 				{
-					st.reset( value ); //reinit tokenizer
+					st.reset( value.getBytes(), value.getLength() ); //reinit tokenizer
 					row = st.nextInt()-1;
 					col = st.nextInt()-1;	
 					double lvalue = st.nextDouble();
@@ -293,7 +292,7 @@ public class ReaderTextCell extends MatrixReader
 		}
 		finally
 		{
-			IOUtilFunctions.closeSilently(br);
+			IOUtilFunctions.closeSilently(is);
 		}
 	}
 }
@@ -14,14 +14,13 @@
  * limitations under the License.
  * 
  */
-
 package com.ibm.bi.dml.runtime.io;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -33,25 +32,32 @@ import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.RecordReader;
 import org.apache.hadoop.mapred.Reporter;
 import org.apache.hadoop.mapred.TextInputFormat;
+import org.apache.hadoop.util.LineReader;
 
 import com.ibm.bi.dml.conf.ConfigurationManager;
 import com.ibm.bi.dml.hops.OptimizerUtils;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.matrix.data.InputInfo;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
-import com.ibm.bi.dml.runtime.util.FastStringTokenizer;
+import com.ibm.bi.dml.runtime.matrix.data.SparseRow;
+import com.ibm.bi.dml.runtime.util.FastByteTokenizer;
 import com.ibm.bi.dml.runtime.util.MapReduceTool;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 /**
  * Parallel version of ReaderTextCell.java. To summarize, we create read tasks per split
  * and use a fixed-size thread pool, to executed these tasks. If the target matrix is dense,
- * the inserts are done lock-free. If the matrix is sparse, we use a buffer to collect
- * unordered input cells, lock the the target sparse matrix once, and append all buffered values.
+ * the inserts are done lock-free. If the matrix is sparse, we use a two-phase read: first, 
+ * we count the number of non-zeros per row over all splits in parallel, and allocate all 
+ * sparse rows with exact capacity; second, we read the splits again in parallel and insert 
+ * all cells lock-free at positions claimed via atomic per-row counters. This avoids both the 
+ * synchronization on the target block and the repeated growth of sparse rows. Since cells 
+ * of a row might be distributed over multiple splits, sparse rows are sorted afterwards.
  * 
  * Note MatrixMarket:
  * 1) For matrix market files each read task probes for comments until it finds data because
- *    for very small tasks or large comments, any split might encounter % or %%. Hence,
- *    the parallel reader does not do the validity check for.
+ *    for very small tasks or large comments, any split might encounter % or %%. The header
+ *    and meta data (dimensions, nnz) are read and validated once upfront.
  * 2) In extreme scenarios, the last comment might be in one split, and the following meta data
  *    in the subsequent split. This would create incorrect results or errors. However, this
  *    scenario is extremely unlikely (num threads > num lines if 1 comment line) and hence ignored 
@@ -86,17 +92,19 @@ public class ReaderTextCellParallel extends MatrixReader
 		//check existence and non-empty file
 		checkValidInputFile(fs, path);
 		
+		//validate matrix market header and obtain exact nnz
+		if( _isMMFile )
+			estnnz = readMatrixMarketHeader(fs, path, rlen, clen);
+		
 		//allocate output matrix block
 		MatrixBlock ret = createOutputMatrixBlock(rlen, clen, estnnz, true, false);
 	
 		//core read 
 		readTextCellMatrixFromHDFS(path, job, ret, rlen, clen, brlen, bclen, _isMMFile);
 		
-		//post-processing (representation-specific, change of sparse/dense block representation)
-		if( ret.isInSparseFormat() )
-			ret.sortSparseRows();
-		else
-			ret.recomputeNonZeros();			
+		//post-processing (change of sparse/dense block representation)
+		//(sparse rows already sorted and compacted by the sparse read)
+		ret.recomputeNonZeros();
 		ret.examSparsity();
 
 		return ret;
@@ -131,21 +139,46 @@ public class ReaderTextCellParallel extends MatrixReader
 			par = ( len < MIN_FILESIZE_MM ) ? 1: par; 
 		}	
 		
-		ExecutorService pool = Executors.newFixedThreadPool(par);
 		InputSplit[] splits = informat.getSplits(job, par);
 		
 		try 
 		{
-			//create read tasks for all splits
+			//first phase (sparse only): count nnz per row and allocate sparse rows
+			AtomicIntegerArray rpos = null;
+			if( dest.isInSparseFormat() ) 
+			{
+				rpos = new AtomicIntegerArray((int)rlen);
+				ArrayList<CountNnzTask> tasks = new ArrayList<CountNnzTask>();
+				for( InputSplit split : splits )
+					tasks.add(new CountNnzTask(split, informat, job, rpos, rlen, clen, matrixMarket));
+				KernelThreadPool.invokeAll(tasks, par);
+				for( CountNnzTask rt : tasks )
+					if( !rt.getReturnCode() )
+						throw new IOException("Count task for text input failed: " + rt.getErrMsg());
+				
+				//allocate sparse rows with exact capacity, and reset the 
+				//counters in order to reuse them as per-row insert positions
+				dest.allocateSparseRowsBlock();
+				SparseRow[] rows = dest.getSparseRows();
+				for( int i=0; i<rlen; i++ ) {
+					int lnnz = rpos.get(i);
+					if( lnnz > 0 ) {
+						rows[i] = new SparseRow(lnnz);
+						rows[i].setSize(lnnz);
+						rpos.set(i, 0);
+					}
+				}
+			}
+			
+			//second phase: create read tasks for all splits
 			ArrayList<ReadTask> tasks = new ArrayList<ReadTask>();
 			for( InputSplit split : splits ){
-				ReadTask t = new ReadTask(split, informat, job, dest, rlen, clen, matrixMarket);
+				ReadTask t = new ReadTask(split, informat, job, dest, rpos, rlen, clen, matrixMarket);
 				tasks.add(t);
 			}
 			
 			//wait until all tasks have been executed
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, par);	
 			
 			//early error notify in case not all tasks successful
 			for(ReadTask rt : tasks) {
@@ -153,7 +186,16 @@ public class ReaderTextCellParallel extends MatrixReader
 					throw new IOException("Read task for text input failed: " + rt.getErrMsg());
 				}
 			}
-
+			
+			//sort sparse rows (cells of a row might come from multiple splits)
+			//and remove explicitly stored zeros
+			if( dest.isInSparseFormat() ) {
+				for( SparseRow arow : dest.getSparseRows() )
+					if( arow != null ) {
+						arow.compact();
+						arow.sort();
+					}
+			}
 		} 
 		catch (Exception e) {
 			throw new IOException("Threadpool issue, while parallel read.", e);
@@ -161,6 +203,166 @@ public class ReaderTextCellParallel extends MatrixReader
 		
 	}
 	
+	/**
+	 * Reads and validates the matrix market header and meta data line 
+	 * (rows, cols, nnz) from the beginning of the file.
+	 * 
+	 * @param fs
+	 * @param path
+	 * @param rlen
+	 * @param clen
+	 * @return number of non-zeros according to the meta data
+	 * @throws IOException
+	 */
+	private static long readMatrixMarketHeader( FileSystem fs, Path path, long rlen, long clen ) 
+		throws IOException
+	{
+		InputStream is = fs.open(path);
+		try
+		{
+			LineReader lr = new LineReader( is );
+			Text value = new Text();
+			
+			String header = (lr.readLine(value) > 0) ? value.toString() : null; // header line
+			if ( header==null || !header.startsWith("%%") ) {
+				throw new IOException("Error while reading file in MatrixMarket format. Expecting a header line, but encountered, \"" + header +"\".");
+			}
+			
+			// skip until end-of-comments
+			while( lr.readLine(value) > 0 && value.getLength() > 0 && value.getBytes()[0] == '%' ) {
+				//do nothing just skip comments
+			}
+			
+			// the first line after comments is the one w/ matrix dimensions
+			// validate (rlen clen nnz)
+			String[] fields = value.toString().trim().split("\\s+"); 
+			long mm_rlen = Long.parseLong(fields[0]);
+			long mm_clen = Long.parseLong(fields[1]);
+			if ( rlen != mm_rlen || clen != mm_clen ) {
+				throw new IOException("Unexpected matrix dimensions while reading file in MatrixMarket format. Expecting dimensions [" + rlen + " rows, " + clen + " cols] but encountered [" + mm_rlen + " rows, " + mm_clen + "cols].");
+			}
+			
+			return (fields.length > 2) ? Long.parseLong(fields[2]) : -1;
+		}
+		finally
+		{
+			IOUtilFunctions.closeSilently(is);
+		}
+	}
+	
+	/**
+	 * Reads the first cell line of the given split into value, i.e., for matrix
+	 * market files, skips comments and the subsequent meta data line (if any).
+	 * 
+	 * @param reader
+	 * @param key
+	 * @param value
+	 * @param matrixMarket
+	 * @return true if value holds a cell line
+	 * @throws IOException
+	 */
+	private static boolean readFirstCell( RecordReader<LongWritable,Text> reader, LongWritable key, Text value, boolean matrixMarket ) 
+		throws IOException
+	{
+		if( !matrixMarket )
+			return reader.next(key, value);
+		
+		// skip until end-of-comments (%% or %)
+		boolean foundComment = false;
+		boolean next = false;
+		while( (next = reader.next(key, value)) && value.getLength() > 0 && value.getBytes()[0] == '%' ) {
+			//do nothing just skip comments
+			foundComment = true;
+		}
+		
+		// skip meta data after comments, otherwise process current value
+		return (next && foundComment) ? reader.next(key, value) : next;
+	}
+	
+	/**
+	 * First phase of sparse reads: counts the number of non-zeros
+	 * per row, without parsing the cell values.
+	 * 
+	 */
+	private static class CountNnzTask implements Callable<Object> 
+	{
+		private InputSplit _split = null;
+		private TextInputFormat _informat = null;
+		private JobConf _job = null;
+		private AtomicIntegerArray _rnnz = null;
+		private long _rlen = -1;
+		private long _clen = -1;
+		private boolean _matrixMarket = false;
+		
+		private boolean _rc = true;
+		private String _errMsg = null;
+		
+		public CountNnzTask( InputSplit split, TextInputFormat informat, JobConf job, AtomicIntegerArray rnnz, long rlen, long clen, boolean matrixMarket )
+		{
+			_split = split;
+			_informat = informat;
+			_job = job;
+			_rnnz = rnnz;
+			_rlen = rlen;
+			_clen = clen;
+			_matrixMarket = matrixMarket;
+		}
+
+		public boolean getReturnCode() {
+			return _rc;
+		}
+
+		public String getErrMsg() {
+			return _errMsg;
+		}
+		
+		@Override
+		public Object call() throws Exception 
+		{
+			//writables for reuse during read
+			LongWritable key = new LongWritable();
+			Text value = new Text();
+			
+			//required for error handling
+			int row = -1; 
+			int col = -1; 
+			
+			try
+			{
+				FastByteTokenizer st = new FastByteTokenizer(' ');
+				RecordReader<LongWritable,Text> reader = _informat.getRecordReader(_split, _job, Reporter.NULL);
+				
+				try
+				{
+					for( boolean next = readFirstCell(reader, key, value, _matrixMarket); 
+						 next; next = reader.next(key, value) )
+					{
+						st.reset( value.getBytes(), value.getLength() ); //reinit tokenizer
+						row = st.nextInt() - 1;
+						col = st.nextInt() - 1;
+						if( row < 0 || row >= _rlen || col < 0 || col >= _clen )
+							throw new IOException("Invalid cell index.");
+						_rnnz.incrementAndGet(row);
+					}
+				}
+				finally
+				{
+					if( reader != null )
+						reader.close();
+				}
+			}
+			catch(Exception ex)
+			{
+				//central error handling (return code, message) 
+				_rc = false;
+				_errMsg = getCellErrorMessage(row, col, _rlen, _clen, ex);
+				throw new RuntimeException(_errMsg, ex);
+			}
+			
+			return null;
+		}
+	}
+	
 	/**
 	 * 
 	 * 
@@ -172,6 +374,7 @@ public class ReaderTextCellParallel extends MatrixReader
 		private TextInputFormat _informat = null;
 		private JobConf _job = null;
 		private MatrixBlock _dest = null;
+		private AtomicIntegerArray _rpos = null;
 		private long _rlen = -1;
 		private long _clen = -1;
 		private boolean _matrixMarket = false;
@@ -179,13 +382,14 @@ public class ReaderTextCellParallel extends MatrixReader
 		private boolean _rc = true;
 		private String _errMsg = null;
 		
-		public ReadTask( InputSplit split, TextInputFormat informat, JobConf job, MatrixBlock dest, long rlen, long clen, boolean matrixMarket )
+		public ReadTask( InputSplit split, TextInputFormat informat, JobConf job, MatrixBlock dest, AtomicIntegerArray rpos, long rlen, long clen, boolean matrixMarket )
 		{
 			_split = split;
 			_sparse = dest.isInSparseFormat();
 			_informat = informat;
 			_job = job;
 			_dest = dest;
+			_rpos = rpos;
 			_rlen = rlen;
 			_clen = clen;
 			_matrixMarket = matrixMarket;
@@ -212,66 +416,39 @@ public class ReaderTextCellParallel extends MatrixReader
 			
 			try
 			{			
-				FastStringTokenizer st = new FastStringTokenizer(' ');
+				FastByteTokenizer st = new FastByteTokenizer(' ');
 				RecordReader<LongWritable,Text> reader = _informat.getRecordReader(_split, _job, Reporter.NULL);
-				
-				// Read the header lines, if reading from a matrixMarket file
-				if ( _matrixMarket ) {
-					
-					// skip until end-of-comments (%% or %)
-					boolean foundComment = false;
-					while( reader.next(key, value) && value.toString().charAt(0) == '%'  ) {
-						//do nothing just skip comments
-						foundComment = true;
-					}
-					
-					//process current value (otherwise ignore following meta data)
-					if( !foundComment ) {
-						st.reset( value.toString() ); //reinit tokenizer
-						row = st.nextInt()-1;
-						col = st.nextInt()-1;
-						double lvalue = st.nextDoubleForParallel();
-						synchronized( _dest ){ //sparse requires lock	
-							_dest.appendValue(row, col, lvalue);
-						}
-					}
-				}
-
 			
 				try
 				{
+					boolean next = readFirstCell(reader, key, value, _matrixMarket);
+					
 					if( _sparse ) //SPARSE<-value
 					{
-						CellBuffer buff = new CellBuffer();
+						//lock-free insert into pre-allocated sparse rows
+						SparseRow[] rows = _dest.getSparseRows();
 						
-						while( reader.next(key, value) )
+						for( ; next; next = reader.next(key, value) )
 						{
-							st.reset( value.toString() ); //reinit tokenizer
+							st.reset( value.getBytes(), value.getLength() ); //reinit tokenizer
 							row = st.nextInt() - 1;
 							col = st.nextInt() - 1;
-							double lvalue = st.nextDoubleForParallel();
+							double lvalue = st.nextDouble();
 							
-							buff.addCell(row, col, lvalue);
-							//capacity buffer flush on demand
-							if( buff.size()>=CellBuffer.CAPACITY ) 
-								synchronized( _dest ){ //sparse requires lock
-									buff.flushCellBufferToMatrixBlock(_dest);
-								}
-						}
-						
-						//final buffer flush 
-						synchronized( _dest ){ //sparse requires lock
-							buff.flushCellBufferToMatrixBlock(_dest);
+							int pos = _rpos.getAndIncrement(row);
+							SparseRow arow = rows[row];
+							arow.getIndexContainer()[pos] = col;
+							arow.getValueContainer()[pos] = lvalue;
 						}
 					} 
 					else //DENSE<-value
 					{
-						while( reader.next(key, value) )
+						for( ; next; next = reader.next(key, value) )
 						{
-							st.reset( value.toString() ); //reinit tokenizer
+							st.reset( value.getBytes(), value.getLength() ); //reinit tokenizer
 							row = st.nextInt()-1;
 							col = st.nextInt()-1;
-							double lvalue = st.nextDoubleForParallel();
+							double lvalue = st.nextDouble();
 							_dest.setValueDenseUnsafe( row, col, lvalue );
 						}
 					}
@@ -286,20 +463,8 @@ public class ReaderTextCellParallel extends MatrixReader
 			{
 				//central error handling (return code, message) 
 				_rc = false;
-				_errMsg = ex.getMessage();
-				
-				//post-mortem error handling and bounds checking
-				if( row < 0 || row + 1 > _rlen || col < 0 || col + 1 > _clen )
-				{
-					_errMsg = "Matrix cell ["+(row+1)+","+(col+1)+"] " +
-							  "out of overall matrix range [1:"+_rlen+",1:"+_clen+"]. "+ex.getMessage();
-					throw new RuntimeException(_errMsg, ex);
-				}
-				else
-				{
-					_errMsg = "Unable to read matrix in text cell format. "+ex.getMessage();
-					throw new RuntimeException(_errMsg, ex );
-				}
+				_errMsg = getCellErrorMessage(row, col, _rlen, _clen, ex);
+				throw new RuntimeException(_errMsg, ex);
 			}
 			
 			return null;
@@ -307,51 +472,25 @@ public class ReaderTextCellParallel extends MatrixReader
 	}
 	
 	/**
-	 * Useful class for buffering unordered cells before locking target onces and
-	 * appending all buffered cells.
+	 * Post-mortem error handling and bounds checking.
 	 * 
+	 * @param row
+	 * @param col
+	 * @param rlen
+	 * @param clen
+	 * @param ex
+	 * @return
 	 */
-	public static class CellBuffer
+	private static String getCellErrorMessage( int row, int col, long rlen, long clen, Exception ex )
 	{
-		public static final int CAPACITY = 102400; //100K elements 
-		
-		private int[] _rlen;
-		private int[] _clen;
-		private double[] _vals;
-		private int _pos;
-		
-		public CellBuffer( )
-		{
-			_rlen = new int[CAPACITY];
-			_clen = new int[CAPACITY];
-			_vals = new double[CAPACITY];
-			_pos = -1;
-		}
-		
-		public void addCell(int rlen, int clen, double val)
+		if( row < 0 || row + 1 > rlen || col < 0 || col + 1 > clen )
 		{
-			_pos++;
-			_rlen[_pos] = rlen;
-			_clen[_pos] = clen;
-			_vals[_pos] = val;
+			return "Matrix cell ["+(row+1)+","+(col+1)+"] " +
+				   "out of overall matrix range [1:"+rlen+",1:"+clen+"]. "+ex.getMessage();
 		}
-		
-		public void flushCellBufferToMatrixBlock( MatrixBlock dest )
-		{
-			for( int i=0; i<=_pos; i++ )
-				dest.appendValue(_rlen[i], _clen[i], _vals[i]);
-			
-			reset();
-		}
-		
-		public int size()
-		{
-			return _pos+1;
-		}
-		
-		public void reset()
+		else
 		{
-			_pos = -1;
+			return "Unable to read matrix in text cell format. "+ex.getMessage();
 		}
 	}
 }
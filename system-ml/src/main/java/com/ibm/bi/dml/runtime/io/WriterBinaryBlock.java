@@ -53,14 +53,23 @@ public class WriterBinaryBlock extends MatrixWriter
 		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
 		Path path = new Path( fname );
 
-		//if the file already exists on HDFS, remove it.
+		//if the file already exists on HDFS, remove it (incl block index).
 		MapReduceTool.deleteFileIfExistOnHDFS( fname );
-			
+		MapReduceTool.deleteFileIfExistOnHDFS( BinaryBlockIndex.getIndexFileName(fname) );
+		
+		//block index for range reads and exact meta data (if enabled)
+		BinaryBlockIndex ix = BinaryBlockIndex.ENABLE_BLOCK_INDEX ? 
+				new BinaryBlockIndex(rlen, clen, brlen, bclen) : null;
+		
 		//core write
 		if( src.isDiag() )
-			writeDiagBinaryBlockMatrixToHDFS(path, job, src, rlen, clen, brlen, bclen, _replication);
+			writeDiagBinaryBlockMatrixToHDFS(path, job, src, rlen, clen, brlen, bclen, _replication, ix);
 		else
-			writeBinaryBlockMatrixToHDFS(path, job, src, rlen, clen, brlen, bclen, _replication);
+			writeBinaryBlockMatrixToHDFS(path, job, src, rlen, clen, brlen, bclen, _replication, ix);
+		
+		//write block index after data file is closed 
+		if( ix != null )
+			ix.writeIndex(FileSystem.get(job), path);
 	}
 
 	@Override
@@ -75,11 +84,17 @@ public class WriterBinaryBlock extends MatrixWriter
 		SequenceFile.Writer writer = new SequenceFile.Writer(fs, job, path,
 				                        MatrixIndexes.class, MatrixBlock.class);
 		
+		BinaryBlockIndex ix = BinaryBlockIndex.ENABLE_BLOCK_INDEX ? 
+				new BinaryBlockIndex(rlen, clen, brlen, bclen) : null;
+		
 		MatrixIndexes index = new MatrixIndexes(1, 1);
 		MatrixBlock block = new MatrixBlock((int)Math.min(rlen, brlen),
 											(int)Math.min(clen, bclen), true);
-		writer.append(index, block);
+		appendBlock(writer, index, block, ix);
 		writer.close();
+		
+		if( ix != null )
+			ix.writeIndex(fs, path);
 	}
 	
 	/**
@@ -91,12 +106,14 @@ public class WriterBinaryBlock extends MatrixWriter
 	 * @param clen
 	 * @param brlen
 	 * @param bclen
+	 * @param replication
+	 * @param ix block index (optional)
 	 * @throws IOException
 	 * @throws DMLUnsupportedOperationException 
 	 * @throws DMLRuntimeException 
 	 */
 	@SuppressWarnings("deprecation")
-	protected void writeBinaryBlockMatrixToHDFS( Path path, JobConf job, MatrixBlock src, long rlen, long clen, int brlen, int bclen, int replication )
+	protected void writeBinaryBlockMatrixToHDFS( Path path, JobConf job, MatrixBlock src, long rlen, long clen, int brlen, int bclen, int replication, BinaryBlockIndex ix )
 		throws IOException, DMLRuntimeException, DMLUnsupportedOperationException
 	{
 		boolean sparse = src.isInSparseFormat();
@@ -136,7 +153,7 @@ public class WriterBinaryBlock extends MatrixWriter
 			{
 				//directly write single block
 				indexes.setIndexes(1, 1);
-				writer.append(indexes, src);
+				appendBlock(writer, indexes, src, ix);
 			}
 			else //general case
 			{
@@ -162,7 +179,7 @@ public class WriterBinaryBlock extends MatrixWriter
 						
 						//append block to sequence file
 						indexes.setIndexes(blockRow+1, blockCol+1);
-						writer.append(indexes, block);
+						appendBlock(writer, indexes, block, ix);
 							
 						//reset block for later reuse
 						block.reset();
@@ -185,12 +202,13 @@ public class WriterBinaryBlock extends MatrixWriter
 	 * @param brlen
 	 * @param bclen
 	 * @param replication
+	 * @param ix block index (optional)
 	 * @throws IOException
 	 * @throws DMLUnsupportedOperationException 
 	 * @throws DMLRuntimeException 
 	 */
 	@SuppressWarnings("deprecation")
-	protected void writeDiagBinaryBlockMatrixToHDFS( Path path, JobConf job, MatrixBlock src, long rlen, long clen, int brlen, int bclen, int replication ) 
+	protected void writeDiagBinaryBlockMatrixToHDFS( Path path, JobConf job, MatrixBlock src, long rlen, long clen, int brlen, int bclen, int replication, BinaryBlockIndex ix ) 
 		throws IOException, DMLRuntimeException, DMLUnsupportedOperationException
 	{
 		boolean sparse = src.isInSparseFormat();
@@ -230,7 +248,7 @@ public class WriterBinaryBlock extends MatrixWriter
 			{
 				//directly write single block
 				indexes.setIndexes(1, 1);
-				writer.append(indexes, src);
+				appendBlock(writer, indexes, src, ix);
 			}
 			else //general case
 			{
@@ -266,7 +284,7 @@ public class WriterBinaryBlock extends MatrixWriter
 						
 						//append block to sequence file
 						indexes.setIndexes(blockRow+1, blockCol+1);
-						writer.append(indexes, block);
+						appendBlock(writer, indexes, block, ix);
 						
 						//reset block for later reuse
 						if( blockRow!=blockCol )
@@ -280,6 +298,26 @@ public class WriterBinaryBlock extends MatrixWriter
 		}
 	}
 
+	/**
+	 * Appends the given block to the sequence file and maintains the
+	 * optional block index with the record position.
+	 * 
+	 * @param writer
+	 * @param indexes
+	 * @param block
+	 * @param ix
+	 * @throws IOException
+	 * @throws DMLRuntimeException
+	 */
+	private static void appendBlock( SequenceFile.Writer writer, MatrixIndexes indexes, MatrixBlock block, BinaryBlockIndex ix ) 
+		throws IOException, DMLRuntimeException
+	{
+		long pos = writer.getLength();
+		writer.append(indexes, block);
+		if( ix != null )
+			ix.addBlock(indexes, pos, block);
+	}
+	
 	/**
 	 * 
 	 * @param path
@@ -22,8 +22,6 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -40,6 +38,7 @@ import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
 import com.ibm.bi.dml.runtime.matrix.data.OutputInfo;
 import com.ibm.bi.dml.runtime.matrix.data.SparseRowsIterator;
 import com.ibm.bi.dml.runtime.util.MapReduceTool;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 public class WriterMatrixMarketParallel extends WriterMatrixMarket
 {
@@ -87,7 +86,6 @@ public class WriterMatrixMarketParallel extends WriterMatrixMarket
 		_numThreads = Math.min(_numThreads, numPartFiles);
 		
 		//create thread pool
-		ExecutorService pool = Executors.newFixedThreadPool(_numThreads);
 		
 		try 
 		{
@@ -119,8 +117,7 @@ public class WriterMatrixMarketParallel extends WriterMatrixMarket
 			}
 			
 			//wait until all tasks have been executed
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, _numThreads);	
 			
 			//early error notify in case not all tasks successful
 			for(WriteMMTask rt : tasks) {
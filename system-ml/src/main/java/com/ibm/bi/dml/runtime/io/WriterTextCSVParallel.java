@@ -17,13 +17,9 @@
 
 package com.ibm.bi.dml.runtime.io;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -40,7 +36,9 @@ import com.ibm.bi.dml.runtime.matrix.data.FileFormatProperties;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
 import com.ibm.bi.dml.runtime.matrix.data.OutputInfo;
 import com.ibm.bi.dml.runtime.matrix.data.SparseRow;
+import com.ibm.bi.dml.runtime.util.FastBufferedTextOutputStream;
 import com.ibm.bi.dml.runtime.util.MapReduceTool;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 public class WriterTextCSVParallel extends WriterTextCSV
 {
@@ -99,7 +97,6 @@ public class WriterTextCSVParallel extends WriterTextCSV
 		_numThreads = Math.min(_numThreads, numPartFiles);
 		
 		//create thread pool
-		ExecutorService pool = Executors.newFixedThreadPool(_numThreads);
 
 		try 
 		{
@@ -131,8 +128,7 @@ public class WriterTextCSVParallel extends WriterTextCSV
 			}
 			
 			//wait until all tasks have been executed
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, _numThreads);	
 			
 			//early error notify in case not all tasks successful
 			for(WriteCSVTask rt : tasks) {
@@ -185,16 +181,15 @@ public class WriterTextCSVParallel extends WriterTextCSV
 		public Object call() throws Exception 
 		{
 			FileSystem _fs = FileSystem.get(_job);
-	        BufferedWriter bw = null;
-	        
+			FastBufferedTextOutputStream out = null;
+			
 			boolean sparse = _src.isInSparseFormat();
 			int cols = _src.getNumColumns();
 
 			try
 			{
-				//for obj reuse and preventing repeated buffer re-allocations
-				StringBuilder sb = new StringBuilder();
-				bw = new BufferedWriter(new OutputStreamWriter(_fs.create(_path,true)));
+				//bounded output buffer, w/o string allocations per cell or row chunk
+				out = new FastBufferedTextOutputStream(_fs.create(_path,true));
 				
 				CSVFileFormatProperties csvProperties = (CSVFileFormatProperties)_formatProperties;
 				csvProperties = (csvProperties==null)? new CSVFileFormatProperties() : csvProperties;
@@ -204,21 +199,14 @@ public class WriterTextCSVParallel extends WriterTextCSV
 				// Write header line, if needed
 				if( csvProperties.hasHeader() && _rowStart == 0 ) 
 				{
-					//write row chunk-wise to prevent OOM on large number of columns
-					for( int bj=0; bj<cols; bj+=WriterTextCSV.BLOCKSIZE_J )
+					for( int j=0; j < cols; j++) 
 					{
-						for( int j=bj; j < Math.min(cols,bj+WriterTextCSV.BLOCKSIZE_J); j++) 
-						{
-							sb.append("C"+ (j+1));
-							if ( j < cols-1 )
-								sb.append(delim);
-						}
-						bw.write( sb.toString() );
-			            sb.setLength(0);	
+						out.append('C');
+						out.append(j+1);
+						if ( j < cols-1 )
+							out.append(delim);
 					}
-					sb.append('\n');
-					bw.write( sb.toString() );
-		            sb.setLength(0);
+					out.append('\n');
 				}
 				
 				// Write data lines
@@ -227,7 +215,6 @@ public class WriterTextCSVParallel extends WriterTextCSV
 					SparseRow[] sparseRows = _src.getSparseRows();
 					for( int i=(int)_rowStart; i<(_rowStart+_rowNum); i++ )
 					{
-						//write row chunk-wise to prevent OOM on large number of columns
 						int prev_jix = -1;
 						if(    sparseRows!=null && i<sparseRows.length 
 							&& sparseRows[i]!=null && !sparseRows[i].isEmpty() )
@@ -244,83 +231,61 @@ public class WriterTextCSVParallel extends WriterTextCSV
 								// output empty fields, if needed
 								for( int j2=prev_jix; j2<jix-1; j2++ ) {
 									if( !csvsparse )
-										sb.append('0');
-									sb.append(delim);
-								
-									//flush buffered string
-						            if( j2%WriterTextCSV.BLOCKSIZE_J==0 ){
-										bw.write( sb.toString() );
-							            sb.setLength(0);
-						            }
+										out.append('0');
+									out.append(delim);
 								}
 								
 								// output the value (non-zero)
-								sb.append( avals[j] );
+								out.append( avals[j] );
 								if( jix < cols-1)
-									sb.append(delim);
-								bw.write( sb.toString() );
-					            sb.setLength(0);
-					            
-					            //flush buffered string
-					            if( jix%WriterTextCSV.BLOCKSIZE_J==0 ){
-									bw.write( sb.toString() );
-						            sb.setLength(0);
-					            }
-					            
+									out.append(delim);
+								
 								prev_jix = jix;
 							}
 						}
 						
 						// Output empty fields at the end of the row.
 						// In case of an empty row, output (clen-1) empty fields
-						for( int bj=prev_jix+1; bj<cols; bj+=WriterTextCSV.BLOCKSIZE_J )
-						{
-							for( int j = bj; j < Math.min(cols,bj+WriterTextCSV.BLOCKSIZE_J); j++) {
-								if( !csvsparse )
-									sb.append('0');
-								if( j < cols-1 )
-									sb.append(delim);
-							}
-							bw.write( sb.toString() );
-				            sb.setLength(0);	
+						for( int j = prev_jix+1; j < cols; j++ ) {
+							if( !csvsparse )
+								out.append('0');
+							if( j < cols-1 )
+								out.append(delim);
 						}
-
-						sb.append('\n');
-						bw.write( sb.toString() ); 
-						sb.setLength(0); 
+						
+						out.append('\n');
 					}
 				}
 				else //DENSE
 				{
 					for( int i=(int)_rowStart; i<(_rowStart+_rowNum); i++ )
 					{
-						//write row chunk-wise to prevent OOM on large number of columns
-						for( int bj=0; bj<cols; bj+=WriterTextCSV.BLOCKSIZE_J )
+						for( int j=0; j<cols; j++ )
 						{
-							for( int j=bj; j<Math.min(cols,bj+WriterTextCSV.BLOCKSIZE_J); j++ )
-							{
-								double lvalue = _src.getValueDenseUnsafe(i, j);
-								if( lvalue != 0 ) //for nnz
-									sb.append(lvalue);
-								else if( !csvsparse ) 
-									sb.append('0');
-								
-								if( j != cols-1 )
-									sb.append(delim);
-							}
-							bw.write( sb.toString() );
-				            sb.setLength(0);
+							double lvalue = _src.getValueDenseUnsafe(i, j);
+							if( lvalue != 0 ) //for nnz
+								out.append(lvalue);
+							else if( !csvsparse ) 
+								out.append('0');
+							
+							if( j != cols-1 )
+								out.append(delim);
 						}
 						
-						sb.append('\n');
-						bw.write( sb.toString() ); //same as append
-						sb.setLength(0); 
+						out.append('\n');
 					}
 				}
 			}
+			catch(Exception ex) 
+			{
+				//central error handling (return code, message)
+				_rc = false;
+				_errMsg = ex.getMessage();
+				throw new RuntimeException(_errMsg, ex );
+			}
 			finally
 			{
-				IOUtilFunctions.closeSilently(bw);
+				IOUtilFunctions.closeSilently(out);
 			}			
 			return null;
 		}
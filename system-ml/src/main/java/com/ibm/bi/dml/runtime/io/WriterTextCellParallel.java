@@ -17,13 +17,9 @@
 
 package com.ibm.bi.dml.runtime.io;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -39,7 +35,9 @@ import com.ibm.bi.dml.runtime.matrix.data.IJV;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
 import com.ibm.bi.dml.runtime.matrix.data.OutputInfo;
 import com.ibm.bi.dml.runtime.matrix.data.SparseRowsIterator;
+import com.ibm.bi.dml.runtime.util.FastBufferedTextOutputStream;
 import com.ibm.bi.dml.runtime.util.MapReduceTool;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 public class WriterTextCellParallel extends WriterTextCell
 {
@@ -89,7 +87,6 @@ public class WriterTextCellParallel extends WriterTextCell
 		_numThreads = Math.min(_numThreads, numPartFiles);
 		
 		//create thread pool
-		ExecutorService pool = Executors.newFixedThreadPool(_numThreads);
 
 		try 
 		{
@@ -121,8 +118,7 @@ public class WriterTextCellParallel extends WriterTextCell
 			}
 			
 			//wait until all tasks have been executed
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, _numThreads);	
 			
 			//early error notify in case not all tasks successful
 			for(WriteTask rt : tasks) {
@@ -174,15 +170,14 @@ public class WriterTextCellParallel extends WriterTextCell
 		{
 			boolean entriesWritten = false;
 			FileSystem fs = FileSystem.get(_job);
-			BufferedWriter bw = null;
+			FastBufferedTextOutputStream out = null;
 			
 			int cols = _src.getNumColumns();
 
 			try
 			{
-				//for obj reuse and preventing repeated buffer re-allocations
-				StringBuilder sb = new StringBuilder();
-		        bw = new BufferedWriter(new OutputStreamWriter(fs.create(_path,true)));
+				//bounded output buffer, w/o string allocations per cell
+				out = new FastBufferedTextOutputStream(fs.create(_path,true));
 				
 				if( _src.isInSparseFormat() ) //SPARSE
 				{			   
@@ -192,14 +187,12 @@ public class WriterTextCellParallel extends WriterTextCell
 					{
 						IJV cell = iter.next();
 
-						sb.append(cell.i+1);
-						sb.append(' ');
-						sb.append(cell.j+1);
-						sb.append(' ');
-						sb.append(cell.v);
-						sb.append('\n');
-						bw.write( sb.toString() );
-						sb.setLength(0); 
+						out.append(cell.i+1);
+						out.append(' ');
+						out.append(cell.j+1);
+						out.append(' ');
+						out.append(cell.v);
+						out.append('\n');
 						entriesWritten = true;
 					}
 				}
@@ -207,20 +200,17 @@ public class WriterTextCellParallel extends WriterTextCell
 				{
 					for( int i=(int)_rowStart; i<(_rowStart+_rowNum); i++ )
 					{
-						String rowIndex = Integer.toString(i+1);					
 						for( int j=0; j<cols; j++ )
 						{
 							double lvalue = _src.getValueDenseUnsafe(i, j);
 							if( lvalue != 0 ) //for nnz
 							{
-								sb.append(rowIndex);
-								sb.append(' ');
-								sb.append( j+1 );
-								sb.append(' ');
-								sb.append( lvalue );
-								sb.append('\n');
-								bw.write( sb.toString() );
-								sb.setLength(0); 
+								out.append( i+1 );
+								out.append(' ');
+								out.append( j+1 );
+								out.append(' ');
+								out.append( lvalue );
+								out.append('\n');
 								entriesWritten = true;
 							}
 							
@@ -230,7 +220,7 @@ public class WriterTextCellParallel extends WriterTextCell
 				
 				//handle empty result
 				if ( !entriesWritten ) {
-			        bw.write("1 1 0\n");
+					out.append("1 1 0\n");
 				}
 			}
 			catch(Exception ex)
@@ -242,7 +232,7 @@ public class WriterTextCellParallel extends WriterTextCell
 			}
 			finally
 			{
-				IOUtilFunctions.closeSilently(bw);
+				IOUtilFunctions.closeSilently(out);
 			}
 			
 			return null;
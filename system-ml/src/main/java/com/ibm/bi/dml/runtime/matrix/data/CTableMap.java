@@ -17,9 +17,10 @@
 
 package com.ibm.bi.dml.runtime.matrix.data;
 
-import java.util.HashMap;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.Iterator;
+
+import com.ibm.bi.dml.runtime.util.LongLongDoubleHashMap;
+import com.ibm.bi.dml.runtime.util.LongLongDoubleHashMap.LLDoubleEntry;
 
 /**
  * Ctable map is an abstraction for the hashmap used for ctable's hash group-by
@@ -27,16 +28,19 @@ import java.util.Set;
  * easier to (1) exchange the underlying data structure and (2) maintain statistics 
  * like max row/column in order to prevent scans during data conversion.
  * 
+ * The underlying map is a primitive (long, long) -> double hash map, which
+ * avoids the allocation of MatrixIndexes keys and Double values per group.
+ * 
  */
 public class CTableMap 
 {
 	
-	private HashMap<MatrixIndexes, Double> _map = null;
+	private LongLongDoubleHashMap _map = null;
 	private long _maxRow = -1;
 	private long _maxCol = -1;
 	
 	public CTableMap() {
-		_map = new HashMap<MatrixIndexes, Double>();
+		_map = new LongLongDoubleHashMap();
 		_maxRow = -1;
 		_maxCol = -1;
 	}
@@ -51,13 +55,14 @@ public class CTableMap
 	}
 	
 	/**
+	 * Get an iterator over all (row, column, value) entries, where the
+	 * returned entry object is reused across calls of next.
 	 * 
 	 * @return
 	 */
-	@Deprecated
-	public Set<Entry<MatrixIndexes, Double>> entrySet()
+	public Iterator<LLDoubleEntry> getIterator()
 	{
-		return _map.entrySet();
+		return _map.getIterator();
 	}
 	
 	/**
@@ -84,8 +89,7 @@ public class CTableMap
 	 */
 	public double get( long row, long col )
 	{
-		MatrixIndexes key = new MatrixIndexes(row, col);		
-		return _map.get(key);
+		return _map.get(row, col);
 	}
 	
 	/**
@@ -97,18 +101,46 @@ public class CTableMap
 	public void aggregate(long row, long col, double w) 
 	{
 		//hash group-by for core ctable computation
-		MatrixIndexes key = new MatrixIndexes(row, col);		
-		Double oldval = _map.get(key);
-		if( oldval != null ) //existing group
-			_map.put(key, oldval+w);
-		else             //non-existing group 
-			_map.put(key, w);
+		_map.addValue(row, col, w);
 		
 		//maintain internal summaries 
 		_maxRow = Math.max(_maxRow, row);
 		_maxCol = Math.max(_maxCol, col);
 	}
 	
+	/**
+	 * Aggregates all groups of the given map into this map
+	 * (e.g., for merging thread-local partial ctables).
+	 * 
+	 * @param that
+	 */
+	public void aggregate(CTableMap that)
+	{
+		_map.addAll(that._map);
+		
+		//maintain internal summaries 
+		_maxRow = Math.max(_maxRow, that._maxRow);
+		_maxCol = Math.max(_maxCol, that._maxCol);
+	}
+	
+	/**
+	 * Adds all groups within the dimensions of the given 
+	 * (dense or sparse) matrix block to its cells.
+	 * 
+	 * @param mb
+	 */
+	public void addToMatrixBlock(MatrixBlock mb)
+	{
+		int rlen = mb.getNumRows();
+		int clen = mb.getNumColumns();
+		Iterator<LLDoubleEntry> iter = _map.getIterator();
+		while( iter.hasNext() ) {
+			LLDoubleEntry e = iter.next();
+			if( e.value != 0 && e.key1<=rlen && e.key2<=clen )
+				mb.addValue( (int)e.key1-1, (int)e.key2-1, e.value );
+		}
+	}
+	
 	/**
 	 * 
 	 * @param rlen
@@ -125,16 +157,31 @@ public class CTableMap
 		// copy map values into new matrix block
 		if( sparse ) //SPARSE <- cells
 		{
+			//count non-zeros per row for exact row allocation
+			int[] cnt = new int[rlen];
+			Iterator<LLDoubleEntry> iter = _map.getIterator();
+			while( iter.hasNext() ) {
+				LLDoubleEntry e = iter.next();
+				if( e.value != 0 && e.key1<=rlen && e.key2<=clen )
+					cnt[(int)e.key1-1]++;
+			}
+			
 			//append cells to sparse target (prevent shifting)
-			for( Entry<MatrixIndexes,Double> e : _map.entrySet() ) 
-			{
-				MatrixIndexes index = e.getKey();
-				double value = e.getValue();
-				int rix = (int)index.getRowIndex();
-				int cix = (int)index.getColumnIndex();
-				if( value != 0 && rix<=rlen && cix<=clen )
-					mb.appendValue( rix-1, cix-1, value );
+			mb.allocateSparseRowsBlock();
+			SparseRow[] rows = mb.sparseRows;
+			for( int i=0; i<rlen; i++ )
+				if( cnt[i] > 0 )
+					rows[i] = new SparseRow(cnt[i]);
+			long lnnz = 0;
+			iter = _map.getIterator();
+			while( iter.hasNext() ) {
+				LLDoubleEntry e = iter.next();
+				if( e.value != 0 && e.key1<=rlen && e.key2<=clen ) {
+					rows[(int)e.key1-1].append((int)e.key2-1, e.value);
+					lnnz++;
+				}
 			}
+			mb.nonZeros = lnnz;
 			
 			//sort sparse target representation
 			mb.sortSparseRows();
@@ -142,15 +189,18 @@ public class CTableMap
 		else  //DENSE <- cells
 		{
 			//directly insert cells into dense target 
-			for( Entry<MatrixIndexes,Double> e : _map.entrySet() ) 
-			{
-				MatrixIndexes index = e.getKey();
-				double value = e.getValue();
-				int rix = (int)index.getRowIndex();
-				int cix = (int)index.getColumnIndex();
-				if( value != 0 && rix<=rlen && cix<=clen )
-					mb.quickSetValue( rix-1, cix-1, value );
+			mb.allocateDenseBlock();
+			double[] c = mb.denseBlock;
+			long lnnz = 0;
+			Iterator<LLDoubleEntry> iter = _map.getIterator();
+			while( iter.hasNext() ) {
+				LLDoubleEntry e = iter.next();
+				if( e.value != 0 && e.key1<=rlen && e.key2<=clen ) {
+					c[(int)(e.key1-1)*clen + (int)e.key2-1] = e.value;
+					lnnz++;
+				}
 			}
+			mb.nonZeros = lnnz;
 		}
 		
 		return mb;
@@ -19,15 +19,16 @@ package com.ibm.bi.dml.runtime.matrix.data;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.ibm.bi.dml.lops.PartialAggregate.CorrectionLocationType;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.DMLUnsupportedOperationException;
 import com.ibm.bi.dml.runtime.functionobjects.Builtin;
 import com.ibm.bi.dml.runtime.functionobjects.Builtin.BuiltinFunctionCode;
+import com.ibm.bi.dml.runtime.functionobjects.CM;
 import com.ibm.bi.dml.runtime.functionobjects.IndexFunction;
 import com.ibm.bi.dml.runtime.functionobjects.KahanPlus;
 import com.ibm.bi.dml.runtime.functionobjects.Mean;
@@ -37,11 +38,16 @@ import com.ibm.bi.dml.runtime.functionobjects.ReduceCol;
 import com.ibm.bi.dml.runtime.functionobjects.ReduceDiag;
 import com.ibm.bi.dml.runtime.functionobjects.ReduceRow;
 import com.ibm.bi.dml.runtime.functionobjects.ValueFunction;
+import com.ibm.bi.dml.runtime.instructions.cp.CM_COV_Object;
 import com.ibm.bi.dml.runtime.instructions.cp.KahanObject;
 import com.ibm.bi.dml.runtime.matrix.operators.AggregateOperator;
 import com.ibm.bi.dml.runtime.matrix.operators.AggregateUnaryOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.CMOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.CMOperator.AggregateOperationTypes;
+import com.ibm.bi.dml.runtime.matrix.operators.Operator;
 import com.ibm.bi.dml.runtime.matrix.operators.UnaryOperator;
 import com.ibm.bi.dml.runtime.util.UtilFunctions;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 /**
  * MB:
@@ -56,7 +62,7 @@ import com.ibm.bi.dml.runtime.util.UtilFunctions;
  * This library currently covers the following opcodes:
  * ak+, uak+, uark+, uack+, uamin, uarmin, uacmin, uamax, uarmax, uacmax,
  * ua*, uamean, uarmean, uacmean, uarimax, uaktrace.
- * cumk+, cummin, cummax, cum*, tak+
+ * cumk+, cummin, cummax, cum*, tak+, groupedagg
  * 
  * TODO next opcode extensions: a+, colindexmax
  */
@@ -85,6 +91,12 @@ public class LibMatrixAgg
 		PROD,
 		INVALID,
 	}
+	
+	private enum GAggType {
+		KAHAN_SUM, //sum via primitive kahan buffers
+		COUNT,     //unweighted count via primitive buffers
+		CM,        //count, mean, variance, moments via cm objects
+	}
 
 	private LibMatrixAgg() {
 		//prevent instantiation via private constructor
@@ -241,7 +253,6 @@ public class LibMatrixAgg
 		//core multi-threaded unary aggregate computation
 		//(currently: always parallelization over number of rows)
 		try {
-			ExecutorService pool = Executors.newFixedThreadPool( k );
 			ArrayList<AggTask> tasks = new ArrayList<AggTask>();
 			int blklen = (int)(Math.ceil((double)m/k));
 			for( int i=0; i<k & i*blklen<m; i++ ) {
@@ -249,8 +260,7 @@ public class LibMatrixAgg
 						new RowAggTask(in, out, aggtype, uaop, i*blklen, Math.min((i+1)*blklen, m)) :
 						new PartialAggTask(in, out, aggtype, uaop, i*blklen, Math.min((i+1)*blklen, m)) );
 			}
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, k);	
 			//aggregate partial results
 			if( !(uaop.indexFn instanceof ReduceCol) ) {
 				out.copy(((PartialAggTask)tasks.get(0)).getResult()); //for init
@@ -358,13 +368,11 @@ public class LibMatrixAgg
 		
 		double val = -1;
 		try {
-			ExecutorService pool = Executors.newFixedThreadPool( k );
 			ArrayList<AggTernaryTask> tasks = new ArrayList<AggTernaryTask>();
 			int blklen = (int)(Math.ceil((double)in1.rlen/k));
 			for( int i=0; i<k & i*blklen<in1.rlen; i++ )
 				tasks.add( new AggTernaryTask(in1, in2, in3, i*blklen, Math.min((i+1)*blklen, in1.rlen)));
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, k);	
 			//aggregate partial results
 			KahanObject kbuff = new KahanObject(0, 0);
 			KahanPlus kplus = KahanPlus.getKahanPlusFnObject();
@@ -381,6 +389,79 @@ public class LibMatrixAgg
 		return val;			
 	}
 	
+	/**
+	 * Grouped aggregate of a target column or row vector by a column vector of 
+	 * group ids in [1,numGroups] and optional weights (aggregate(target, groups, fn)).
+	 * Row vectors are only supported for sum, which is sparse-safe.
+	 * 
+	 * @param groups
+	 * @param target
+	 * @param weights
+	 * @param result
+	 * @param numGroups
+	 * @param op
+	 * @throws DMLRuntimeException
+	 */
+	public static void groupedAggregate(MatrixBlock groups, MatrixBlock target, MatrixBlock weights, MatrixBlock result, int numGroups, Operator op) 
+		throws DMLRuntimeException
+	{
+		groupedAggregate(groups, target, weights, result, numGroups, op, 1);
+	}
+	
+	/**
+	 * Multi-threaded grouped aggregate, which computes thread-local partial 
+	 * aggregates over row partitions and merges them at the end.
+	 * 
+	 * @param groups
+	 * @param target
+	 * @param weights
+	 * @param result
+	 * @param numGroups
+	 * @param op
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public static void groupedAggregate(MatrixBlock groups, MatrixBlock target, MatrixBlock weights, MatrixBlock result, int numGroups, Operator op, int k) 
+		throws DMLRuntimeException
+	{
+		//prepare meta data
+		GAggType aggtype = getGroupedAggType(op, weights);
+		final int m = groups.rlen;
+		
+		//skip empty target blocks (sparse-safe sum)
+		if( aggtype == GAggType.KAHAN_SUM && target.isEmptyBlock(false) )
+			return;
+		
+		//Timing time = new Timing(true);
+		
+		//fall back to sequential version for small inputs or if the merge
+		//of partial aggregates would dominate the computation
+		int par = ( k <= 1 || m < PAR_NUMCELL_THRESHOLD || (long)numGroups*k > m ) ? 1 : k;
+		
+		try
+		{
+			//compute partial aggregates over row partitions
+			ArrayList<GrpAggTask> tasks = new ArrayList<GrpAggTask>();
+			int blklen = (int)(Math.ceil((double)m/par));
+			for( int i=0; i<par & i*blklen<m; i++ )
+				tasks.add( new GrpAggTask(groups, target, weights, numGroups, op, aggtype, i*blklen, Math.min((i+1)*blklen, m)) );
+			List<Future<Object>> rtasks = KernelThreadPool.invokeAll(tasks, par);
+			for( Future<Object> rtask : rtasks )
+				rtask.get(); //error handling
+			
+			//merge partial aggregates into first task and write final result
+			GrpAggTask first = tasks.get(0);
+			for( int i=1; i<tasks.size(); i++ )
+				first.merge(tasks.get(i));
+			first.writeResult(result, op);
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		//System.out.println("gagg k="+par+" ("+m+","+numGroups+","+aggtype+") in "+time.stop()+"ms.");
+	}
+	
 	/**
 	 * 
 	 * @param op
@@ -398,6 +479,30 @@ public class LibMatrixAgg
 		return (type != AggType.INVALID);
 	}
 	
+	/**
+	 * 
+	 * @param op
+	 * @param weights
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static GAggType getGroupedAggType( Operator op, MatrixBlock weights ) 
+		throws DMLRuntimeException
+	{
+		//the only aggregate operator that is supported here is sum,
+		//furthermore, we always use KahanPlus (correction exists)
+		if( op instanceof AggregateOperator )
+			return GAggType.KAHAN_SUM;
+		
+		//count, mean, variance, moments (count without cm objects)
+		if( op instanceof CMOperator ) {
+			boolean count = (((CMOperator)op).getAggOpType()==AggregateOperationTypes.COUNT);
+			return (count && weights==null) ? GAggType.COUNT : GAggType.CM;
+		}
+		
+		throw new DMLRuntimeException("Invalid operator (" + op + ") encountered while processing groupedAggregate.");
+	}
+	
 	/**
 	 * Recompute outputs (e.g., maxindex or minindex) according to block indexes from MR.
 	 * TODO: this should not be part of block operations but of the MR instruction.
@@ -628,14 +733,14 @@ public class LibMatrixAgg
 	private static void aggregateBinaryMatrixSparseDense(MatrixBlock in, MatrixBlock aggVal, MatrixBlock aggCorr) 
 			throws DMLRuntimeException
 	{
-		if( in.sparseRows==null || in.isEmptyBlock(false) )
+		if( in.isEmptyBlock(false) )
 			return;
 		
 		//allocate output arrays (if required)
 		aggVal.allocateDenseBlock(); //should always stay in dense
 		aggCorr.allocateDenseBlock(); //should always stay in dense
 		
-		SparseRow[] a = in.getSparseRows();
+		SparseBlock a = in.getSparseBlock();
 		double[] c = aggVal.getDenseArray();
 		double[] cc = aggCorr.getDenseArray();
 		
@@ -644,18 +749,18 @@ public class LibMatrixAgg
 		
 		final int m = in.rlen;
 		final int n = in.clen;
-		final int rlen = Math.min(a.length, m);
+		final int rlen = Math.min(a.numRows(), m);
 		
 		for( int i=0, cix=0; i<rlen; i++, cix+=n )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				int[] aix = arow.getIndexContainer();
-				double[] avals = arow.getValueContainer();
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
 				
-				for( int j=0; j<alen; j++ )
+				for( int j=apos; j<apos+alen; j++ )
 				{
 					int ix = cix+aix[j];
 					buffer1._sum        = c[ix];
@@ -683,27 +788,27 @@ public class LibMatrixAgg
 	private static void aggregateBinaryMatrixSparseGeneric(MatrixBlock in, MatrixBlock aggVal, MatrixBlock aggCorr) 
 			throws DMLRuntimeException
 	{
-		if( in.sparseRows==null || in.isEmptyBlock(false) )
+		if( in.isEmptyBlock(false) )
 			return;
 		
-		SparseRow[] a = in.getSparseRows();
+		SparseBlock a = in.getSparseBlock();
 		
 		KahanObject buffer1 = new KahanObject(0, 0);
 		KahanPlus akplus = KahanPlus.getKahanPlusFnObject();
 		
 		final int m = in.rlen;
-		final int rlen = Math.min(a.length, m);
+		final int rlen = Math.min(a.numRows(), m);
 		
 		for( int i=0; i<rlen; i++ )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				int[] aix = arow.getIndexContainer();
-				double[] avals = arow.getValueContainer();
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
 				
-				for( int j=0; j<alen; j++ )
+				for( int j=apos; j<apos+alen; j++ )
 				{
 					int jix = aix[j];
 					buffer1._sum        = aggVal.quickGetValue(i, jix);
@@ -804,27 +909,27 @@ public class LibMatrixAgg
 			throws DMLRuntimeException
 	{
 		//sparse-safe operation
-		if( in.sparseRows==null || in.isEmptyBlock(false) )
+		if( in.isEmptyBlock(false) )
 			return;
 		
-		SparseRow[] a = in.getSparseRows();
+		SparseBlock a = in.getSparseBlock();
 		
 		KahanObject buffer1 = new KahanObject(0, 0);
 		KahanPlus akplus = KahanPlus.getKahanPlusFnObject();
 		
 		final int m = in.rlen;
-		final int rlen = Math.min(a.length, m);
+		final int rlen = Math.min(a.numRows(), m);
 		
 		for( int i=0; i<rlen-1; i++ )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				int[] aix = arow.getIndexContainer();
-				double[] avals = arow.getValueContainer();
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
 				
-				for( int j=0; j<alen; j++ )
+				for( int j=apos; j<apos+alen; j++ )
 				{
 					int jix = aix[j];
 					double corr = in.quickGetValue(m-1, jix);
@@ -886,28 +991,28 @@ public class LibMatrixAgg
 			throws DMLRuntimeException
 	{
 		//sparse-safe operation
-		if( in.sparseRows==null || in.isEmptyBlock(false) )
+		if( in.isEmptyBlock(false) )
 			return;
 		
-		SparseRow[] a = in.getSparseRows();
+		SparseBlock a = in.getSparseBlock();
 		
 		KahanObject buffer1 = new KahanObject(0, 0);
 		KahanPlus akplus = KahanPlus.getKahanPlusFnObject();
 		
 		final int m = in.rlen;
 		final int n = in.clen;
-		final int rlen = Math.min(a.length, m);
+		final int rlen = Math.min(a.numRows(), m);
 		
 		for( int i=0; i<rlen; i++ )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				int[] aix = arow.getIndexContainer();
-				double[] avals = arow.getValueContainer();
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
 				
-				for( int j=0; j<alen && aix[j]<n-1; j++ )
+				for( int j=apos; j<apos+alen && aix[j]<n-1; j++ )
 				{
 					int jix = aix[j];
 					double corr = in.quickGetValue(i, n-1);
@@ -1045,7 +1150,7 @@ public class LibMatrixAgg
 		final int m = in.rlen;
 		final int n = in.clen;
 		
-		SparseRow[] a = in.getSparseRows();
+		SparseBlock a = in.getSparseBlock();
 		double[] c = out.getDenseArray();
 		
 		switch( optype )
@@ -1517,16 +1622,16 @@ public class LibMatrixAgg
 	 * @param kbuff
 	 * @param kplus
 	 */
-	private static void s_uakp( SparseRow[] a, double[] c, int m, int n, KahanObject kbuff, KahanPlus kplus, int rl, int ru )
+	private static void s_uakp( SparseBlock a, double[] c, int m, int n, KahanObject kbuff, KahanPlus kplus, int rl, int ru )
 	{
 		for( int i=rl; i<ru; i++ )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				sum(avals, 0, alen, kbuff, kplus);
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				sum(avals, apos, alen, kbuff, kplus);
 			}
 		}
 		c[0] = kbuff._sum;
@@ -1543,18 +1648,18 @@ public class LibMatrixAgg
 	 * @param kbuff
 	 * @param kplus
 	 */
-	private static void s_uarkp( SparseRow[] a, double[] c, int m, int n, KahanObject kbuff, KahanPlus kplus, int rl, int ru ) 
+	private static void s_uarkp( SparseBlock a, double[] c, int m, int n, KahanObject kbuff, KahanPlus kplus, int rl, int ru ) 
 	{
 		//compute row aggregates
 		for( int i=rl, cix=rl*2; i<ru; i++, cix+=2 )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
 				kbuff.set(0, 0); //reset buffer
-				sum( avals, 0, alen, kbuff, kplus );
+				sum( avals, apos, alen, kbuff, kplus );
 				c[cix+0] = kbuff._sum;
 				c[cix+1] = kbuff._correction;			
 			}
@@ -1571,7 +1676,7 @@ public class LibMatrixAgg
 	 * @param kbuff
 	 * @param kplus
 	 */
-	private static void s_uackp( SparseRow[] a, double[] c, int m, int n, KahanObject kbuff, KahanPlus kplus, int rl, int ru ) 
+	private static void s_uackp( SparseBlock a, double[] c, int m, int n, KahanObject kbuff, KahanPlus kplus, int rl, int ru ) 
 	{
 		//init result (for empty columns)
 		Arrays.fill(c, 0); 
@@ -1579,13 +1684,13 @@ public class LibMatrixAgg
 		//compute column aggregates
 		for( int i=rl; i<ru; i++ )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				int[] aix = arow.getIndexContainer();
-				sumAgg( avals, c, aix, alen, n, kbuff, kplus );
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				int[] aix = a.indexes(i);
+				sumAgg( avals, c, aix, apos, alen, n, kbuff, kplus );
 			}
 		}
 	}
@@ -1600,7 +1705,7 @@ public class LibMatrixAgg
 	 * @param kbuff
 	 * @param kplus
 	 */
-	private static void s_ucumkp( SparseRow[] a, double[] c, int m, int n, KahanObject kbuff, KahanPlus kplus )
+	private static void s_ucumkp( SparseBlock a, double[] c, int m, int n, KahanObject kbuff, KahanPlus kplus )
 	{
 		//init current row sum/correction arrays w/ neutral 0
 		double[] csums = new double[ 2*n ]; 
@@ -1609,13 +1714,13 @@ public class LibMatrixAgg
 		//scan once and compute prefix sums
 		for( int i=0, ix=0; i<m; i++, ix+=n )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				int[] aix = arow.getIndexContainer();
-				sumAgg( avals, csums, aix, alen, n, kbuff, kplus );
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				int[] aix = a.indexes(i);
+				sumAgg( avals, csums, aix, apos, alen, n, kbuff, kplus );
 			}
 			//always copy current sum (not sparse-safe)
 			System.arraycopy(csums, 0, c, ix, n);
@@ -1630,7 +1735,7 @@ public class LibMatrixAgg
 	 * @param m
 	 * @param n
 	 */
-	private static void s_ucumm( SparseRow[] a, double[] c, int m, int n )
+	private static void s_ucumm( SparseBlock a, double[] c, int m, int n )
 	{
 		//init current row prod arrays w/ neutral 1
 		double[] cprod = new double[ n ]; 
@@ -1643,15 +1748,14 @@ public class LibMatrixAgg
 		//scan once and compute prefix products
 		for( int i=0, ix=0; i<m; i++, ix+=n )
 		{
-			SparseRow arow = a[i];
-			
 			//multiply row of non-zero elements
-			if( arow!=null && !arow.isEmpty() ) {
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				int[] aix = arow.getIndexContainer();
-				productAgg( avals, cprod, aix, 0, alen );
-				countAgg( avals, cnt, aix, alen );
+			if( !a.isEmpty(i) ) {
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				int[] aix = a.indexes(i);
+				productAgg( avals, cprod, aix, apos, 0, alen );
+				countAgg( avals, cnt, aix, apos, alen );
 			}
 
 			//correction (not sparse-safe and cumulative)
@@ -1675,7 +1779,7 @@ public class LibMatrixAgg
 	 * @param init
 	 * @param builtin
 	 */
-	private static void s_ucummxx( SparseRow[] a, double[] c, int m, int n, double init, Builtin builtin ) 
+	private static void s_ucummxx( SparseBlock a, double[] c, int m, int n, double init, Builtin builtin ) 
 	{
 		//init current row min/max array w/ extreme value 
 		double[] cmxx = new double[ n ]; 
@@ -1688,14 +1792,14 @@ public class LibMatrixAgg
 		//compute column aggregates min/max
 		for( int i=0, ix=0; i<m; i++, ix+=n )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				int[] aix = arow.getIndexContainer();
-				builtinAgg( avals, cmxx, aix, alen, builtin );
-				countAgg( avals, cnt, aix, alen );
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				int[] aix = a.indexes(i);
+				builtinAgg( avals, cmxx, aix, apos, alen, builtin );
+				countAgg( avals, cnt, aix, apos, alen );
 			}
 			
 			//correction (not sparse-safe and cumulative)
@@ -1719,13 +1823,12 @@ public class LibMatrixAgg
 	 * @param kbuff
 	 * @param kplus
 	 */
-	private static void s_uakptrace( SparseRow[] a, double[] c, int m, int n, KahanObject kbuff, KahanPlus kplus, int rl, int ru ) 
+	private static void s_uakptrace( SparseBlock a, double[] c, int m, int n, KahanObject kbuff, KahanPlus kplus, int rl, int ru ) 
 	{
 		for( int i=rl; i<ru; i++ ) {
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() ) 
+			if( !a.isEmpty(i) ) 
 			{
-				double val = arow.get( i );
+				double val = a.get(i, i);
 				kplus.execute2(kbuff, val);
 			}
 		}
@@ -1743,22 +1846,22 @@ public class LibMatrixAgg
 	 * @param init
 	 * @param builtin
 	 */
-	private static void s_uamxx( SparseRow[] a, double[] c, int m, int n, double init, Builtin builtin, int rl, int ru )
+	private static void s_uamxx( SparseBlock a, double[] c, int m, int n, double init, Builtin builtin, int rl, int ru )
 	{
 		double ret = init; //keep init val
 		for( int i=rl; i<ru; i++ )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				double lval = builtin(avals, 0, init, alen, builtin);
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				double lval = builtin(avals, apos, init, alen, builtin);
 				ret = builtin.execute2(ret, lval);
 			}
 		
 			//correction (not sparse-safe)
-			if( arow==null || arow.size()<n )
+			if( a.size(i)<n )
 				ret = builtin.execute2(ret, 0); 
 		}
 		c[0] = ret; 
@@ -1774,22 +1877,22 @@ public class LibMatrixAgg
 	 * @param init
 	 * @param builtin
 	 */
-	private static void s_uarmxx( SparseRow[] a, double[] c, int m, int n, double init, Builtin builtin, int rl, int ru ) 
+	private static void s_uarmxx( SparseBlock a, double[] c, int m, int n, double init, Builtin builtin, int rl, int ru ) 
 	{
 		//init result (for empty rows)
 		Arrays.fill(c, rl, ru, init); //not sparse-safe
 		
 		for( int i=rl; i<ru; i++ )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				c[ i ] = builtin(avals, 0, init, alen, builtin);
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				c[ i ] = builtin(avals, apos, init, alen, builtin);
 			}
 			//correction (not sparse-safe)
-			if( arow==null || arow.size()<n )
+			if( a.size(i)<n )
 				c[ i ] = builtin.execute2(c[ i ], 0); 
 		}
 	}
@@ -1804,7 +1907,7 @@ public class LibMatrixAgg
 	 * @param init
 	 * @param builtin
 	 */
-	private static void s_uacmxx( SparseRow[] a, double[] c, int m, int n, double init, Builtin builtin, int rl, int ru ) 
+	private static void s_uacmxx( SparseBlock a, double[] c, int m, int n, double init, Builtin builtin, int rl, int ru ) 
 	{
 		//init output (base for incremental agg)
 		Arrays.fill(c, init);
@@ -1816,14 +1919,14 @@ public class LibMatrixAgg
 		//compute column aggregates min/max
 		for( int i=rl; i<ru; i++ )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				int[] aix = arow.getIndexContainer();
-				builtinAgg( avals, c, aix, alen, builtin );
-				countAgg( avals, cnt, aix, alen );
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				int[] aix = a.indexes(i);
+				builtinAgg( avals, c, aix, apos, alen, builtin );
+				countAgg( avals, cnt, aix, apos, alen );
 			}
 		}
 		
@@ -1846,32 +1949,32 @@ public class LibMatrixAgg
 	 * @param init
 	 * @param builtin
 	 */
-	private static void s_uarimxx( SparseRow[] a, double[] c, int m, int n, double init, Builtin builtin, int rl, int ru ) 
+	private static void s_uarimxx( SparseBlock a, double[] c, int m, int n, double init, Builtin builtin, int rl, int ru ) 
 	{
 		for( int i=rl, cix=rl*2; i<ru; i++, cix+=2 )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				int[] aix = arow.getIndexContainer();
-				int maxindex = indexmax(avals, 0, init, alen, builtin);
-				c[cix+0] = (double)aix[maxindex] + 1;
-				c[cix+1] = avals[maxindex]; //max value
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				int[] aix = a.indexes(i);
+				int maxindex = indexmax(avals, apos, init, alen, builtin);
+				c[cix+0] = (double)aix[apos+maxindex] + 1;
+				c[cix+1] = avals[apos+maxindex]; //max value
 				
 				//correction (not sparse-safe)	
 				if(alen < n && (builtin.execute2( 0, c[cix+1] ) == 1))
 				{
 					int ix = n-1; //find last 0 value
-					for( int j=alen-1; j>=0; j--, ix-- )
+					for( int j=apos+alen-1; j>=apos; j--, ix-- )
 						if( aix[j]!=ix )
 							break;
 					c[cix+0] = ix + 1; //max index (last)
 					c[cix+1] = 0; //max value
 				}
 			}
-			else //if( arow==null )
+			else //if( a.isEmpty(i) )
 			{
 				//correction (not sparse-safe)	
 				c[cix+0] = n; //max index (last)
@@ -1890,32 +1993,32 @@ public class LibMatrixAgg
 	 * @param init
 	 * @param builtin
 	 */
-	private static void s_uarimin( SparseRow[] a, double[] c, int m, int n, double init, Builtin builtin, int rl, int ru ) 
+	private static void s_uarimin( SparseBlock a, double[] c, int m, int n, double init, Builtin builtin, int rl, int ru ) 
 	{
 		for( int i=rl, cix=rl*2; i<ru; i++, cix+=2 )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				int[] aix = arow.getIndexContainer();
-				int minindex = indexmin(avals, 0, init, alen, builtin);
-				c[cix+0] = (double)aix[minindex] + 1;
-				c[cix+1] = avals[minindex]; //min value among non-zeros
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				int[] aix = a.indexes(i);
+				int minindex = indexmin(avals, apos, init, alen, builtin);
+				c[cix+0] = (double)aix[apos+minindex] + 1;
+				c[cix+1] = avals[apos+minindex]; //min value among non-zeros
 				
 				//correction (not sparse-safe)	
 				if(alen < n && (builtin.execute2( 0, c[cix+1] ) == 1))
 				{
 					int ix = n-1; //find last 0 value
-					for( int j=alen-1; j>=0; j--, ix-- )
+					for( int j=apos+alen-1; j>=apos; j--, ix-- )
 						if( aix[j]!=ix )
 							break;
 					c[cix+0] = ix + 1; //min index (last)
 					c[cix+1] = 0; //min value
 				}
 			}
-			else //if( arow==null )
+			else //if( a.isEmpty(i) )
 			{
 				//correction (not sparse-safe)	
 				c[cix+0] = n; //min index (last)
@@ -1934,7 +2037,7 @@ public class LibMatrixAgg
 	 * @param kbuff
 	 * @param kplus
 	 */
-	private static void s_uamean( SparseRow[] a, double[] c, int m, int n, KahanObject kbuff, Mean kmean, int rl, int ru )
+	private static void s_uamean( SparseBlock a, double[] c, int m, int n, KahanObject kbuff, Mean kmean, int rl, int ru )
 	{
 		int len = (ru-rl) * n;
 		int count = 0;
@@ -1943,17 +2046,17 @@ public class LibMatrixAgg
 		//note: before aggregate computation in order to
 		//exploit 0 sum (noop) and better numerical stability
 		for( int i=rl; i<ru; i++ )
-			count += (a[i]==null)? n : n-a[i].size();
+			count += n-a.size(i);
 		
 		//compute aggregate mean
 		for( int i=rl; i<ru; i++ )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				mean(avals, 0, alen, count, kbuff, kmean);
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				mean(avals, apos, alen, count, kbuff, kmean);
 				count += alen;
 			}
 		}
@@ -1976,22 +2079,22 @@ public class LibMatrixAgg
 	 * @param kbuff
 	 * @param kplus
 	 */
-	private static void s_uarmean( SparseRow[] a, double[] c, int m, int n, KahanObject kbuff, Mean kmean, int rl, int ru ) 
+	private static void s_uarmean( SparseBlock a, double[] c, int m, int n, KahanObject kbuff, Mean kmean, int rl, int ru ) 
 	{
 		for( int i=rl, cix=rl*3; i<ru; i++, cix+=3 )
 		{
 			//correction remaining tuples (not sparse-safe)
 			//note: before aggregate computation in order to
 			//exploit 0 sum (noop) and better numerical stability
-			int count = (a[i]==null)? n : n-a[i].size();
+			int count = n-a.size(i);
 			
 			kbuff.set(0, 0); //reset buffer
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				mean(avals, 0, alen, count, kbuff, kmean);
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				mean(avals, apos, alen, count, kbuff, kmean);
 			}
 			
 			//OLD VERSION: correction remaining tuples (not sparse-safe)
@@ -2015,7 +2118,7 @@ public class LibMatrixAgg
 	 * @param kbuff
 	 * @param kplus
 	 */
-	private static void s_uacmean( SparseRow[] a, double[] c, int m, int n, KahanObject kbuff, Mean kmean, int rl, int ru ) 
+	private static void s_uacmean( SparseBlock a, double[] c, int m, int n, KahanObject kbuff, Mean kmean, int rl, int ru ) 
 	{
 		//init output (base for incremental agg)
 		Arrays.fill(c, 0);
@@ -2026,26 +2129,26 @@ public class LibMatrixAgg
 		Arrays.fill(c, n, n*2, ru-rl);
 		for( int i=rl; i<ru; i++ ) 
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				int[] aix = arow.getIndexContainer();
-				countDisAgg( avals, c, aix, n, alen );
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				int[] aix = a.indexes(i);
+				countDisAgg( avals, c, aix, apos, n, alen );
 			}
 		} 
 		
 		//compute column aggregate means
 		for( int i=rl; i<ru; i++ )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				int[] aix = arow.getIndexContainer();
-				meanAgg( avals, c, aix, alen, n, kbuff, kmean );
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				int[] aix = a.indexes(i);
+				meanAgg( avals, c, aix, apos, alen, n, kbuff, kmean );
 			}
 		}
 	}
@@ -2058,17 +2161,17 @@ public class LibMatrixAgg
 	 * @param m
 	 * @param n
 	 */
-	private static void s_uam( SparseRow[] a, double[] c, int m, int n, int rl, int ru )
+	private static void s_uam( SparseBlock a, double[] c, int m, int n, int rl, int ru )
 	{
 		double ret = 1;
 		for( int i=rl; i<ru; i++ )
 		{
-			SparseRow arow = a[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				int alen = arow.size();
-				double[] avals = arow.getValueContainer();
-				ret *= product(avals, 0, alen);
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				double[] avals = a.values(i);
+				ret *= product(avals, apos, alen);
 				ret *= (alen<n) ? 0 : 1;
 			}
 			
@@ -2078,6 +2181,131 @@ public class LibMatrixAgg
 		c[0] = ret;
 	}
 	
+	/**
+	 * GROUPED SUM, opcode: groupedagg (fn=sum), column or row vector target. 
+	 * Partial aggregates and corrections are stored in c[2*(g-1)] and c[2*(g-1)+1].
+	 * 
+	 * @param groups
+	 * @param target
+	 * @param weights
+	 * @param c
+	 * @param numGroups
+	 * @param rl
+	 * @param ru
+	 */
+	private static void groupedAggregateKahanPlus( MatrixBlock groups, MatrixBlock target, MatrixBlock weights, double[] c, int numGroups, int rl, int ru )
+	{
+		KahanObject kbuff = new KahanObject(0, 0);
+		KahanPlus kplus = KahanPlus.getKahanPlusFnObject();
+		double[] gv = !groups.sparse ? groups.denseBlock : null;
+		double w = 1; //default weight
+		
+		if( target.sparse && target.getNumColumns()>1 ) //SPARSE row vector
+		{
+			SparseBlock a = target.getSparseBlock();
+			if( a == null || a.isEmpty(0) )
+				return;
+			int apos = a.posFIndexGTE(0, rl);
+			if( apos < 0 )
+				return;
+			int alen = a.pos(0) + a.size(0);
+			int[] aix = a.indexes(0);
+			double[] avals = a.values(0);
+			for( int j=apos; j<alen && aix[j]<ru; j++ ) //for each nnz
+			{
+				int g = (int)((gv!=null) ? gv[aix[j]] : groups.quickGetValue(aix[j], 0));
+				if ( g > numGroups )
+					continue;
+				if ( weights != null )
+					w = weights.quickGetValue(aix[j],0);
+				int cix = 2*(g-1);
+				kbuff.set(c[cix], c[cix+1]);
+				kplus.execute2(kbuff, avals[j]*w);
+				c[cix] = kbuff._sum;
+				c[cix+1] = kbuff._correction;
+			}
+		}
+		else //DENSE row vector, column vector (dense/sparse)
+		{
+			double[] a = !target.sparse ? target.denseBlock : null;
+			for( int i=rl; i<ru; i++ )
+			{
+				double d = (a!=null) ? a[i] : target.quickGetValue(i, 0);
+				if( d != 0 ) //sparse-safe
+				{
+					int g = (int)((gv!=null) ? gv[i] : groups.quickGetValue(i, 0));
+					if ( g > numGroups )
+						continue;
+					if ( weights != null )
+						w = weights.quickGetValue(i,0);
+					// c is 0-indexed, whereas range of values for g = [1,numGroups]
+					int cix = 2*(g-1);
+					kbuff.set(c[cix], c[cix+1]);
+					kplus.execute2(kbuff, d*w);
+					c[cix] = kbuff._sum;
+					c[cix+1] = kbuff._correction;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * GROUPED COUNT, opcode: groupedagg (fn=count), no weights.
+	 * 
+	 * @param groups
+	 * @param c
+	 * @param numGroups
+	 * @param rl
+	 * @param ru
+	 */
+	private static void groupedAggregateCount( MatrixBlock groups, double[] c, int numGroups, int rl, int ru )
+	{
+		double[] gv = !groups.sparse ? groups.denseBlock : null;
+		
+		for( int i=rl; i<ru; i++ )
+		{
+			int g = (int)((gv!=null) ? gv[i] : groups.quickGetValue(i, 0));
+			if ( g > numGroups )
+				continue;
+			c[g-1]++;
+		}
+	}
+	
+	/**
+	 * GROUPED CM, opcode: groupedagg (fn=count/mean/variance/centralmoment), 
+	 * column vector target. CM objects are allocated on demand per group.
+	 * 
+	 * @param groups
+	 * @param target
+	 * @param weights
+	 * @param cmValues
+	 * @param numGroups
+	 * @param cmFn
+	 * @param rl
+	 * @param ru
+	 * @throws DMLRuntimeException
+	 */
+	private static void groupedAggregateCM( MatrixBlock groups, MatrixBlock target, MatrixBlock weights, CM_COV_Object[] cmValues, int numGroups, CM cmFn, int rl, int ru ) 
+		throws DMLRuntimeException
+	{
+		double[] gv = !groups.sparse ? groups.denseBlock : null;
+		double[] a = !target.sparse ? target.denseBlock : null;
+		double w = 1; //default weight
+		
+		for( int i=rl; i<ru; i++ ) 
+		{
+			int g = (int)((gv!=null) ? gv[i] : groups.quickGetValue(i, 0));
+			if ( g > numGroups )
+				continue;
+			double d = (a!=null) ? a[i] : target.quickGetValue(i, 0);
+			if ( weights != null )
+				w = weights.quickGetValue(i,0);
+			// cmValues is 0-indexed, whereas range of values for g = [1,numGroups]
+			if( cmValues[g-1] == null )
+				cmValues[g-1] = new CM_COV_Object();
+			cmFn.execute(cmValues[g-1], d, w); 
+		}
+	}
 	
 	////////////////////////////////////////////
 	// performance-relevant utility functions //
@@ -2123,21 +2351,22 @@ public class LibMatrixAgg
 	 * 
 	 * @param a
 	 * @param c
+	 * @param aix
 	 * @param ai
 	 * @param len
 	 * @param clen
 	 * @param kbuff
 	 * @param kplus
 	 */
-	private static void sumAgg( double[] a, double[] c, int[] ai, final int len, final int n, KahanObject kbuff, KahanPlus kplus )
+	private static void sumAgg( double[] a, double[] c, int[] aix, int ai, final int len, final int n, KahanObject kbuff, KahanPlus kplus )
 	{
-		for( int i=0; i<len; i++ )
+		for( int i=ai; i<ai+len; i++ )
 		{
-			kbuff._sum        = c[ ai[i] ];
-			kbuff._correction = c[ ai[i]+n ];
+			kbuff._sum        = c[ aix[i] ];
+			kbuff._correction = c[ aix[i]+n ];
 			kplus.execute2( kbuff, a[i] );
-			c[ ai[i] ]      = kbuff._sum;
-			c[ ai[i]+n ] = kbuff._correction;
+			c[ aix[i] ]      = kbuff._sum;
+			c[ aix[i]+n ] = kbuff._correction;
 		}
 	}
 	
@@ -2191,17 +2420,18 @@ public class LibMatrixAgg
 	 * 
 	 * @param a
 	 * @param c
+	 * @param aix
 	 * @param ai
 	 * @param ci
 	 * @param len
 	 */
-	private static void productAgg( double[] a, double[] c, int[] ai, int ci, final int len )
+	private static void productAgg( double[] a, double[] c, int[] aix, int ai, int ci, final int len )
 	{
 		//always w/ NAN_AWARENESS: product without early abort; 
 		//even if val is 0, it might turn into NaN.
 		//(early abort would require column-flags and branches)
-		for( int i=0; i<len; i++ )
-			c[ ci + ai[i] ] *= a[ i ];	
+		for( int i=ai; i<ai+len; i++ )
+			c[ ci + aix[i] ] *= a[ i ];	
 	}
 	
 	/**
@@ -2260,22 +2490,23 @@ public class LibMatrixAgg
 	 * 
 	 * @param a
 	 * @param c
+	 * @param aix
 	 * @param ai
 	 * @param len
 	 * @param kbuff
 	 * @param kplus
 	 */
-	private static void meanAgg( double[] a, double[] c, int[] ai, final int len, final int n, KahanObject kbuff, Mean mean )
+	private static void meanAgg( double[] a, double[] c, int[] aix, int ai, final int len, final int n, KahanObject kbuff, Mean mean )
 	{
-		for( int i=0; i<len; i++ )
+		for( int i=ai; i<ai+len; i++ )
 		{
-			kbuff._sum        = c[ai[i]];
-			double count      = c[ai[i]+n] + 1;
-			kbuff._correction = c[ai[i]+2*n];
+			kbuff._sum        = c[aix[i]];
+			double count      = c[aix[i]+n] + 1;
+			kbuff._correction = c[aix[i]+2*n];
 			mean.execute2(kbuff, a[ i ], count);
-			c[ai[i]]     = kbuff._sum;
-			c[ai[i]+n]   = count;
-			c[ai[i]+2*n] = kbuff._correction;
+			c[aix[i]]     = kbuff._sum;
+			c[aix[i]+n]   = count;
+			c[aix[i]+2*n] = kbuff._correction;
 		}
 	}
 	
@@ -2317,14 +2548,15 @@ public class LibMatrixAgg
 	 * 
 	 * @param a
 	 * @param c
+	 * @param aix
 	 * @param ai
 	 * @param len
 	 * @param aggop
 	 */
-	private static void builtinAgg( double[] a, double[] c, int[] ai, final int len, Builtin aggop ) 
+	private static void builtinAgg( double[] a, double[] c, int[] aix, int ai, final int len, Builtin aggop ) 
 	{
-		for( int i=0; i<len; i++ )
-			c[ ai[i] ] = aggop.execute2( c[ ai[i] ], a[ i ] );
+		for( int i=ai; i<ai+len; i++ )
+			c[ aix[i] ] = aggop.execute2( c[ aix[i] ], a[ i ] );
 	}
 	
 	/**
@@ -2375,52 +2607,54 @@ public class LibMatrixAgg
 	 * 
 	 * @param a
 	 * @param c
+	 * @param aix
 	 * @param ai
 	 * @param len
 	 */
-	private static void countAgg( double[] a, int[] c, int[] ai, final int len ) 
+	private static void countAgg( double[] a, int[] c, int[] aix, int ai, final int len ) 
 	{
 		final int bn = len%8;
 		
 		//compute rest, not aligned to 8-block
-		for( int i=0; i<bn; i++ )
-			c[ ai[i] ]++;
+		for( int i=ai; i<ai+bn; i++ )
+			c[ aix[i] ]++;
 		
 		//unrolled 8-block (for better instruction level parallelism)
-		for( int i=bn; i<len; i+=8 )
+		for( int i=ai+bn; i<ai+len; i+=8 )
 		{
-			c[ ai[ i+0 ] ] ++;
-			c[ ai[ i+1 ] ] ++;
-			c[ ai[ i+2 ] ] ++;
-			c[ ai[ i+3 ] ] ++;
-			c[ ai[ i+4 ] ] ++;
-			c[ ai[ i+5 ] ] ++;
-			c[ ai[ i+6 ] ] ++;
-			c[ ai[ i+7 ] ] ++;
+			c[ aix[ i+0 ] ] ++;
+			c[ aix[ i+1 ] ] ++;
+			c[ aix[ i+2 ] ] ++;
+			c[ aix[ i+3 ] ] ++;
+			c[ aix[ i+4 ] ] ++;
+			c[ aix[ i+5 ] ] ++;
+			c[ aix[ i+6 ] ] ++;
+			c[ aix[ i+7 ] ] ++;
 		}
 	}
 	
-	private static void countDisAgg( double[] a, double[] c, int[] ai, final int ci, final int len ) 
+	private static void countDisAgg( double[] a, double[] c, int[] aix, int ai, final int ci, final int len ) 
 	{
 		final int bn = len%8;
 		
 		//compute rest, not aligned to 8-block
-		for( int i=0; i<bn; i++ )
-			c[ ci+ai[i] ]--;
+		for( int i=ai; i<ai+bn; i++ )
+			c[ ci+aix[i] ]--;
 		
 		//unrolled 8-block (for better instruction level parallelism)
-		for( int i=bn; i<len; i+=8 )
+		for( int i=ai+bn; i<ai+len; i+=8 )
 		{
-			c[ ci+ai[ i+0 ] ] --;
-			c[ ci+ai[ i+1 ] ] --;
-			c[ ci+ai[ i+2 ] ] --;
-			c[ ci+ai[ i+3 ] ] --;
-			c[ ci+ai[ i+4 ] ] --;
-			c[ ci+ai[ i+5 ] ] --;
-			c[ ci+ai[ i+6 ] ] --;
-			c[ ci+ai[ i+7 ] ] --;
+			c[ ci+aix[ i+0 ] ] --;
+			c[ ci+aix[ i+1 ] ] --;
+			c[ ci+aix[ i+2 ] ] --;
+			c[ ci+aix[ i+3 ] ] --;
+			c[ ci+aix[ i+4 ] ] --;
+			c[ ci+aix[ i+5 ] ] --;
+			c[ ci+aix[ i+6 ] ] --;
+			c[ ci+aix[ i+7 ] ] --;
 		}
 	}
+
 	
 	/////////////////////////////////////////////////////////
 	// Task Implementations for Multi-Threaded Operations  //
@@ -2546,5 +2780,123 @@ public class LibMatrixAgg
 			return _ret;
 		}
 	}
-}
+	
+	/**
+	 * 
+	 */
+	private static class GrpAggTask extends AggTask 
+	{
+		private MatrixBlock _groups = null;
+		private MatrixBlock _target = null;
+		private MatrixBlock _weights = null;
+		private int _numGroups = -1;
+		private GAggType _aggtype = null;
+		private CM _cmFn = null;
+		private int _rl = -1;
+		private int _ru = -1;
+		
+		//partial aggregates (primitive buffers or cm objects)
+		private double[] _c = null;
+		private CM_COV_Object[] _cm = null;
 
+		protected GrpAggTask( MatrixBlock groups, MatrixBlock target, MatrixBlock weights, int numGroups, Operator op, GAggType aggtype, int rl, int ru ) 
+		{
+			_groups = groups;
+			_target = target;
+			_weights = weights;
+			_numGroups = numGroups;
+			_aggtype = aggtype;
+			_rl = rl;
+			_ru = ru;
+			
+			//thread-local cm function object (stateful buffers)
+			if( aggtype == GAggType.CM )
+				_cmFn = CM.getCMFnObject(((CMOperator) op).getAggOpType());
+		}
+		
+		@Override
+		public Object call() throws DMLRuntimeException
+		{
+			switch( _aggtype ) 
+			{
+				case KAHAN_SUM:
+					_c = new double[2*_numGroups];
+					groupedAggregateKahanPlus(_groups, _target, _weights, _c, _numGroups, _rl, _ru);
+					break;
+				case COUNT:
+					_c = new double[_numGroups];
+					groupedAggregateCount(_groups, _c, _numGroups, _rl, _ru);
+					break;
+				case CM:
+					_cm = new CM_COV_Object[_numGroups];
+					groupedAggregateCM(_groups, _target, _weights, _cm, _numGroups, _cmFn, _rl, _ru);
+					break;
+			}
+			
+			return null;
+		}
+		
+		/**
+		 * Merges the partial aggregates of the given task into this task.
+		 * 
+		 * @param that
+		 * @throws DMLRuntimeException
+		 */
+		public void merge( GrpAggTask that ) 
+			throws DMLRuntimeException
+		{
+			switch( _aggtype ) 
+			{
+				case KAHAN_SUM: {
+					KahanObject kbuff = new KahanObject(0, 0);
+					KahanPlus kplus = KahanPlus.getKahanPlusFnObject();
+					for( int i=0; i<2*_numGroups; i+=2 ) {
+						kbuff.set(_c[i], _c[i+1]);
+						kplus.execute(kbuff, that._c[i], that._c[i+1]);
+						_c[i] = kbuff._sum;
+						_c[i+1] = kbuff._correction;
+					}
+					break;
+				}
+				case COUNT:
+					for( int i=0; i<_numGroups; i++ )
+						_c[i] += that._c[i];
+					break;
+				case CM:
+					for( int i=0; i<_numGroups; i++ ) {
+						if( that._cm[i] == null )
+							continue;
+						if( _cm[i] == null )
+							_cm[i] = that._cm[i];
+						else
+							_cmFn.execute(_cm[i], that._cm[i]);
+					}
+					break;
+			}
+		}
+		
+		/**
+		 * Writes the final aggregates into the given (numGroups x 1) result.
+		 * 
+		 * @param result
+		 * @param op
+		 * @throws DMLRuntimeException
+		 */
+		public void writeResult( MatrixBlock result, Operator op ) 
+			throws DMLRuntimeException
+		{
+			CM_COV_Object empty = new CM_COV_Object();
+			for( int i=0; i<_numGroups; i++ ) 
+			{
+				double val = -1;
+				switch( _aggtype ) {
+					case KAHAN_SUM: val = _c[2*i]; break;
+					case COUNT:     val = _c[i]; break;
+					case CM:        val = ((_cm[i]!=null) ? _cm[i] : empty).getRequiredResult(op); break;
+				}
+				// result is 0-indexed, so are the partial aggregates
+				result.quickSetValue(i, 0, val);
+			}
+		}
+	}
+}
@@ -17,7 +17,11 @@
 
 package com.ibm.bi.dml.runtime.matrix.data;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.functionobjects.Divide;
@@ -28,13 +32,16 @@ import com.ibm.bi.dml.runtime.functionobjects.Or;
 import com.ibm.bi.dml.runtime.functionobjects.Plus;
 import com.ibm.bi.dml.runtime.matrix.operators.BinaryOperator;
 import com.ibm.bi.dml.runtime.matrix.operators.ScalarOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.UnaryOperator;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 /**
  * MB:
  * Library for binary cellwise operations (incl arithmetic, relational, etc). Currently,
  * we don't have dedicated support for the individual operations but for categories of
  * operations and combinations of dense/sparse and MM/MV. Safe/unsafe refer to sparse-safe
- * and sparse-unsafe operations.
+ * and sparse-unsafe operations. Multi-threaded variants (incl unary cellwise operations) 
+ * parallelize over disjoint row partitions of the output.
  *  
  * 
  * 
@@ -43,6 +50,7 @@ import com.ibm.bi.dml.runtime.matrix.operators.ScalarOperator;
  */
 public class LibMatrixBincell 
 {
+	private static final long PAR_NUMCELL_THRESHOLD = 1024*1024;   //Min 1M elements
 
 	public enum BinaryAccessType {
 		MATRIX_MATRIX,
@@ -112,6 +120,159 @@ public class LibMatrixBincell
 			ret.examSparsity();
 	}
 	
+	/**
+	 * multi-threaded matrix-scalar, scalar-matrix binary operations.
+	 * 
+	 * @param m1
+	 * @param ret
+	 * @param op
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public static void bincellOp(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int k) 
+		throws DMLRuntimeException
+	{
+		//fall back to sequential version if necessary
+		if( !satisfiesMultiThreadingConstraints(m1, k) ) {
+			bincellOp(m1, ret, op);
+			return;
+		}
+		
+		//check internal assumptions 
+		if(   (op.sparseSafe && m1.isInSparseFormat()!=ret.isInSparseFormat())
+			||(!op.sparseSafe && ret.isInSparseFormat()) ) {
+			throw new DMLRuntimeException("Wrong output representation for safe="+op.sparseSafe+": "+m1.isInSparseFormat()+", "+ret.isInSparseFormat());
+		}
+		
+		//core multi-threaded scalar operation (parallelization over rows)
+		ret.allocateDenseOrSparseBlock();
+		try {
+			ArrayList<BincellTask> tasks = new ArrayList<BincellTask>();
+			int blklen = (int)(Math.ceil((double)m1.rlen/k));
+			for( int i=0; i<k & i*blklen<m1.rlen; i++ )
+				tasks.add(new BincellScalarTask(m1, ret, op, i*blklen, Math.min((i+1)*blklen, m1.rlen)));
+			List<Future<Object>> rtasks = KernelThreadPool.invokeAll(tasks, k);	
+			for( Future<Object> rtask : rtasks )
+				rtask.get(); //error handling
+			
+			//aggregate partial nnz
+			for( BincellTask task : tasks )
+				ret.nonZeros += task.getPartialNnz();
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		//ensure empty results sparse representation 
+		//(no additional memory requirements)
+		if( ret.isEmptyBlock(false) )
+			ret.examSparsity();
+	}
+	
+	/**
+	 * multi-threaded matrix-matrix binary operations, MM, MV
+	 * 
+	 * @param m1
+	 * @param m2
+	 * @param ret
+	 * @param op
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public static void bincellOp(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int k) 
+		throws DMLRuntimeException
+	{
+		//fall back to sequential version if necessary
+		if( !satisfiesMultiThreadingConstraints(m1, k) || !isParallelBinarySupported(m1, m2, ret, op) ) {
+			bincellOp(m1, m2, ret, op);
+			return;
+		}
+		
+		//core multi-threaded binary operation (parallelization over rows)
+		ret.allocateDenseOrSparseBlock();
+		try {
+			ArrayList<BincellTask> tasks = new ArrayList<BincellTask>();
+			int blklen = (int)(Math.ceil((double)m1.rlen/k));
+			for( int i=0; i<k & i*blklen<m1.rlen; i++ )
+				tasks.add(new BincellBinaryTask(m1, m2, ret, op, i*blklen, Math.min((i+1)*blklen, m1.rlen)));
+			List<Future<Object>> rtasks = KernelThreadPool.invokeAll(tasks, k);	
+			for( Future<Object> rtask : rtasks )
+				rtask.get(); //error handling
+			
+			//aggregate partial nnz
+			for( BincellTask task : tasks )
+				ret.nonZeros += task.getPartialNnz();
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		//ensure empty results sparse representation 
+		//(no additional memory requirements)
+		if( ret.isEmptyBlock(false) )
+			ret.examSparsity();
+	}
+	
+	/**
+	 * multi-threaded unary cellwise operations (e.g., exp, abs, sqrt), called by 
+	 * MatrixBlock.unaryOperations if the multi-threading constraints are satisfied.
+	 * 
+	 * @param m1
+	 * @param ret
+	 * @param op
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public static void unaryOp(MatrixBlock m1, MatrixBlock ret, UnaryOperator op, int k) 
+		throws DMLRuntimeException
+	{
+		//check internal assumptions 
+		if(   (op.sparseSafe && m1.isInSparseFormat()!=ret.isInSparseFormat())
+			||(!op.sparseSafe && ret.isInSparseFormat()) ) {
+			throw new DMLRuntimeException("Wrong output representation for safe="+op.sparseSafe+": "+m1.isInSparseFormat()+", "+ret.isInSparseFormat());
+		}
+		
+		//core multi-threaded unary operation (parallelization over rows)
+		ret.allocateDenseOrSparseBlock();
+		try {
+			ArrayList<BincellTask> tasks = new ArrayList<BincellTask>();
+			int blklen = (int)(Math.ceil((double)m1.rlen/k));
+			for( int i=0; i<k & i*blklen<m1.rlen; i++ )
+				tasks.add(new UnaryTask(m1, ret, op, i*blklen, Math.min((i+1)*blklen, m1.rlen)));
+			List<Future<Object>> rtasks = KernelThreadPool.invokeAll(tasks, k);	
+			for( Future<Object> rtask : rtasks )
+				rtask.get(); //error handling
+			
+			//aggregate partial nnz
+			for( BincellTask task : tasks )
+				ret.nonZeros += task.getPartialNnz();
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		//ensure empty results sparse representation 
+		//(no additional memory requirements)
+		if( ret.isEmptyBlock(false) )
+			ret.examSparsity();
+	}
+	
+	/**
+	 * Indicates if a multi-threaded cellwise operation over the given input is 
+	 * beneficial, i.e., if the input is non-empty and large enough to amortize 
+	 * the thread pool overhead. 
+	 * 
+	 * @param m1
+	 * @param k
+	 * @return
+	 */
+	public static boolean satisfiesMultiThreadingConstraints(MatrixBlock m1, int k)
+	{
+		return (   k > 1 && m1.rlen > k 
+				&& (long)m1.rlen*m1.clen >= PAR_NUMCELL_THRESHOLD
+				&& !m1.isEmptyBlock(false) );
+	}
+	
 	/**
 	 * NOTE: operations in place always require m1 and m2 to be of equal dimensions
 	 * 
@@ -199,6 +360,288 @@ public class LibMatrixBincell
 		return (op.fn instanceof Divide && rhs.getNonZeros()==(long)rhs.getNumRows()*rhs.getNumColumns());
 	}
 	
+	//////////////////////////////////////////////////////
+	// private multi-threaded implementations (row partitions)
+	///////////////////////////////////
+
+	/**
+	 * Indicates if the given combination of input/output representations and
+	 * access type is supported by the row-partitioned binary kernel. All other
+	 * cases (e.g., outer vector operations, sparse rhs vectors) use the 
+	 * sequential implementations.
+	 * 
+	 * @param m1
+	 * @param m2
+	 * @param ret
+	 * @param op
+	 * @return
+	 */
+	private static boolean isParallelBinarySupported(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op)
+	{
+		BinaryAccessType atype = getBinaryAccessType(m1, m2);
+		if( atype == BinaryAccessType.OUTER_VECTOR_VECTOR || atype == BinaryAccessType.INVALID )
+			return false;
+		
+		if( !ret.sparse ) //DENSE <- DENSE/SPARSE, DENSE
+			return !m2.sparse;
+		else if( m1.sparse && m2.sparse ) //SPARSE <- SPARSE, SPARSE (only MM)
+			return atype == BinaryAccessType.MATRIX_MATRIX 
+				&& (op.sparseSafe || isSparseSafeDivide(op, m2));
+		else if( m1.sparse ) //SPARSE <- SPARSE, DENSE (only *)
+			return op.fn instanceof Multiply;
+		
+		return false;
+	}
+	
+	/**
+	 * 
+	 * @param m1
+	 * @param ret
+	 * @param op
+	 * @param rl
+	 * @param ru
+	 * @throws DMLRuntimeException
+	 */
+	private static void bincellOpScalar(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int rl, int ru) 
+		throws DMLRuntimeException
+	{
+		final int n = m1.clen;
+		
+		if( m1.sparse && ret.sparse ) //SPARSE <- SPARSE (sparse-safe)
+		{
+			SparseBlock a = m1.getSparseBlock();
+			SparseRow[] c = ret.sparseRows;
+			
+			for( int i=rl; i<Math.min(ru, a.numRows()); i++ ) {
+				if( a.isEmpty(i) )
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				SparseRow crow = new SparseRow(alen, n);
+				for( int j=apos; j<apos+alen; j++ )
+					crow.append(aix[j], op.executeScalar(avals[j]));
+				if( !crow.isEmpty() )
+					c[i] = crow;
+			}
+		}
+		else if( m1.sparse ) //DENSE <- SPARSE (sparse-unsafe)
+		{
+			SparseBlock a = m1.getSparseBlock();
+			double[] c = ret.denseBlock;
+			
+			//init dense result with unsafe 0-value
+			Arrays.fill(c, rl*n, ru*n, op.executeScalar(0));
+			
+			//compute non-zero input values
+			for( int i=rl, cix=rl*n; i<Math.min(ru, a.numRows()); i++, cix+=n ) {
+				if( a.isEmpty(i) )
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for( int j=apos; j<apos+alen; j++ )
+					c[cix+aix[j]] = op.executeScalar(avals[j]);
+			}
+		}
+		else //DENSE <- DENSE
+		{
+			double[] a = m1.denseBlock;
+			double[] c = ret.denseBlock;
+			
+			for( int i=rl*n; i<ru*n; i++ )
+				c[i] = op.executeScalar(a[i]);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param m1
+	 * @param m2
+	 * @param ret
+	 * @param op
+	 * @param rl
+	 * @param ru
+	 * @throws DMLRuntimeException
+	 */
+	private static void bincellOpMatrix(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) 
+		throws DMLRuntimeException
+	{
+		BinaryAccessType atype = getBinaryAccessType(m1, m2);
+		final int n = m1.clen;
+		double[] b = m2.denseBlock; //null if sparse or empty
+		
+		if( !ret.sparse && !m1.sparse ) //DENSE <- DENSE, DENSE
+		{
+			double[] a = m1.denseBlock;
+			double[] c = ret.denseBlock;
+			
+			if( atype == BinaryAccessType.MATRIX_MATRIX ) {
+				for( int i=rl*n; i<ru*n; i++ )
+					c[i] = op.fn.execute((a!=null)?a[i]:0, (b!=null)?b[i]:0);
+			}
+			else if( atype == BinaryAccessType.MATRIX_COL_VECTOR ) {
+				for( int i=rl, ix=rl*n; i<ru; i++, ix+=n ) {
+					double v2 = (b!=null) ? b[i] : 0; //replicated value
+					for( int j=0; j<n; j++ )
+						c[ix+j] = op.fn.execute((a!=null)?a[ix+j]:0, v2);
+				}
+			}
+			else { //MATRIX_ROW_VECTOR
+				for( int i=rl, ix=rl*n; i<ru; i++, ix+=n )
+					for( int j=0; j<n; j++ )
+						c[ix+j] = op.fn.execute((a!=null)?a[ix+j]:0, (b!=null)?b[j]:0);
+			}
+		}
+		else if( !ret.sparse ) //DENSE <- SPARSE, DENSE
+		{
+			SparseBlock a = m1.getSparseBlock();
+			double[] c = ret.denseBlock;
+			
+			for( int i=rl, ix=rl*n; i<ru; i++, ix+=n ) {
+				//process zero values of left input (incl empty rows)
+				for( int j=0; j<n; j++ )
+					c[ix+j] = op.fn.execute(0, getDenseValue(b, atype, i, j, n));
+				//process non-zero values of left input
+				if( a!=null && a.numRows()>i && !a.isEmpty(i) ) {
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
+					for( int j=apos; j<apos+alen; j++ )
+						c[ix+aix[j]] = op.fn.execute(avals[j], getDenseValue(b, atype, i, aix[j], n));
+				}
+			}
+		}
+		else if( m2.sparse ) //SPARSE <- SPARSE, SPARSE (sparse-safe MM)
+		{
+			SparseBlock a = m1.getSparseBlock();
+			SparseBlock bs = m2.getSparseBlock();
+			SparseRow[] c = ret.sparseRows;
+			
+			for( int i=rl; i<ru; i++ ) {
+				boolean aexists = (a!=null && a.numRows()>i && !a.isEmpty(i));
+				boolean bexists = (bs!=null && bs.numRows()>i && !bs.isEmpty(i));
+				if( !aexists && !bexists )
+					continue;
+				int alen = aexists ? a.size(i) : 0;
+				int blen = bexists ? bs.size(i) : 0;
+				SparseRow crow = new SparseRow(Math.min(n, alen+blen), n);
+				mergeForSparseBinary(op, aexists ? a.values(i) : null, aexists ? a.indexes(i) : null, aexists ? a.pos(i) : 0, alen,
+						bexists ? bs.values(i) : null, bexists ? bs.indexes(i) : null, bexists ? bs.pos(i) : 0, blen, crow);
+				if( !crow.isEmpty() )
+					c[i] = crow;
+			}
+		}
+		else //SPARSE <- SPARSE, DENSE (sparse-safe *)
+		{
+			SparseBlock a = m1.getSparseBlock();
+			SparseRow[] c = ret.sparseRows;
+			
+			for( int i=rl; i<Math.min(ru, a.numRows()); i++ ) {
+				if( a.isEmpty(i) )
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				SparseRow crow = new SparseRow(alen, n);
+				for( int j=apos; j<apos+alen; j++ )
+					crow.append(aix[j], op.fn.execute(avals[j], getDenseValue(b, atype, i, aix[j], n)));
+				if( !crow.isEmpty() )
+					c[i] = crow;
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * @param m1
+	 * @param ret
+	 * @param op
+	 * @param rl
+	 * @param ru
+	 * @throws DMLRuntimeException
+	 */
+	private static void unaryOpRows(MatrixBlock m1, MatrixBlock ret, UnaryOperator op, int rl, int ru) 
+		throws DMLRuntimeException
+	{
+		final int n = m1.clen;
+		
+		if( m1.sparse && ret.sparse ) //SPARSE <- SPARSE (sparse-safe)
+		{
+			SparseBlock a = m1.getSparseBlock();
+			SparseRow[] c = ret.sparseRows;
+			
+			for( int i=rl; i<Math.min(ru, a.numRows()); i++ ) {
+				if( a.isEmpty(i) )
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				SparseRow crow = new SparseRow(alen, n);
+				for( int j=apos; j<apos+alen; j++ )
+					crow.append(aix[j], op.fn.execute(avals[j]));
+				if( !crow.isEmpty() )
+					c[i] = crow;
+			}
+		}
+		else if( m1.sparse ) //DENSE <- SPARSE (sparse-unsafe)
+		{
+			SparseBlock a = m1.getSparseBlock();
+			double[] c = ret.denseBlock;
+			
+			//init dense result with unsafe 0-value
+			Arrays.fill(c, rl*n, ru*n, op.fn.execute(0));
+			
+			//compute non-zero input values
+			for( int i=rl, cix=rl*n; i<Math.min(ru, a.numRows()); i++, cix+=n ) {
+				if( a.isEmpty(i) )
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for( int j=apos; j<apos+alen; j++ )
+					c[cix+aix[j]] = op.fn.execute(avals[j]);
+			}
+		}
+		else //DENSE <- DENSE
+		{
+			double[] a = m1.denseBlock;
+			double[] c = ret.denseBlock;
+			
+			for( int i=rl*n; i<ru*n; i++ )
+				c[i] = op.fn.execute(a[i]);
+		}
+	}
+	
+	/**
+	 * Get the (replicated) value of a dense or empty rhs matrix/vector for 
+	 * output cell (i,j) according to the given access type.
+	 * 
+	 * @param b
+	 * @param atype
+	 * @param i
+	 * @param j
+	 * @param n
+	 * @return
+	 */
+	private static double getDenseValue(double[] b, BinaryAccessType atype, int i, int j, int n)
+	{
+		if( b == null )
+			return 0;
+		else if( atype == BinaryAccessType.MATRIX_COL_VECTOR )
+			return b[i];
+		else if( atype == BinaryAccessType.MATRIX_ROW_VECTOR )
+			return b[j];
+		else
+			return b[i*n+j];
+	}
+	
 	//////////////////////////////////////////////////////
 	// private sparse-safe/sparse-unsafe implementations
 	///////////////////////////////////
@@ -250,51 +693,54 @@ public class LibMatrixBincell
 				if(ret.sparse)
 					ret.allocateSparseRowsBlock();	
 				
+				SparseBlock lblock = m1.getSparseBlock();
+				SparseBlock rblock = m2.getSparseBlock();
+				
 				//both sparse blocks existing
-				if(m1.sparseRows!=null && m2.sparseRows!=null)
+				if(lblock!=null && rblock!=null)
 				{
 					for(int r=0; r<rlen; r++)
 					{
-						SparseRow lrow = (m1.sparseRows.length>r && m1.sparseRows[r]!=null) ? m1.sparseRows[r] : null; 
-						SparseRow rrow = (m2.sparseRows.length>r && m2.sparseRows[r]!=null) ? m2.sparseRows[r] : null; 
+						boolean lexists = (lblock.numRows()>r && !lblock.isEmpty(r));
+						boolean rexists = (rblock.numRows()>r && !rblock.isEmpty(r));
 						
-						if( lrow!=null && rrow!=null)
+						if( lexists && rexists )
 						{
-							mergeForSparseBinary(op, lrow.getValueContainer(), lrow.getIndexContainer(), lrow.size(),
-									rrow.getValueContainer(), rrow.getIndexContainer(), rrow.size(), r, ret);	
+							mergeForSparseBinary(op, lblock.values(r), lblock.indexes(r), lblock.pos(r), lblock.size(r),
+									rblock.values(r), rblock.indexes(r), rblock.pos(r), rblock.size(r), r, ret);	
 						}
-						else if( rrow!=null )
+						else if( rexists )
 						{
-							appendRightForSparseBinary(op, rrow.getValueContainer(), 
-									rrow.getIndexContainer(), rrow.size(), 0, r, ret);
+							appendRightForSparseBinary(op, rblock.values(r), rblock.indexes(r), 
+									rblock.pos(r)+rblock.size(r), rblock.pos(r), r, ret);
 						}
-						else if( lrow!=null )
+						else if( lexists )
 						{
-							appendLeftForSparseBinary(op, lrow.getValueContainer(), 
-									lrow.getIndexContainer(), lrow.size(), 0, r, ret);
+							appendLeftForSparseBinary(op, lblock.values(r), lblock.indexes(r), 
+									lblock.pos(r)+lblock.size(r), lblock.pos(r), r, ret);
 						}
 						
 						// do nothing if both not existing
 					}
 				}
 				//right sparse block existing
-				else if( m2.sparseRows!=null )
+				else if( rblock!=null )
 				{
-					for(int r=0; r<Math.min(rlen, m2.sparseRows.length); r++)
-						if(m2.sparseRows[r]!=null)
+					for(int r=0; r<Math.min(rlen, rblock.numRows()); r++)
+						if( !rblock.isEmpty(r) )
 						{
-							appendRightForSparseBinary(op, m2.sparseRows[r].getValueContainer(), 
-									m2.sparseRows[r].getIndexContainer(), m2.sparseRows[r].size(), 0, r, ret);
+							appendRightForSparseBinary(op, rblock.values(r), rblock.indexes(r), 
+									rblock.pos(r)+rblock.size(r), rblock.pos(r), r, ret);
 						}
 				}
 				//left sparse block existing
 				else
 				{
 					for(int r=0; r<rlen; r++)
-						if( m1.sparseRows[r]!=null )
+						if( !lblock.isEmpty(r) )
 						{
-							appendLeftForSparseBinary(op, m1.sparseRows[r].getValueContainer(), 
-									m1.sparseRows[r].getIndexContainer(), m1.sparseRows[r].size(), 0, r, ret);
+							appendLeftForSparseBinary(op, lblock.values(r), lblock.indexes(r), 
+									lblock.pos(r)+lblock.size(r), lblock.pos(r), r, ret);
 						}
 				}
 			}
@@ -309,7 +755,7 @@ public class LibMatrixBincell
 				double[] c = ret.denseBlock;
 				
 				//1) process left input: assignment
-				int alen;
+				int apos, alen;
 				int[] aix;
 				double[] avals;
 				
@@ -317,16 +763,17 @@ public class LibMatrixBincell
 				{
 					Arrays.fill(ret.denseBlock, 0, ret.denseBlock.length, 0); 
 					
-					if( m1.sparseRows != null )
+					SparseBlock a = m1.getSparseBlock();
+					if( a != null )
 					{
 						for( int i=0, ix=0; i<m; i++, ix+=n ) {
-							SparseRow arow = m1.sparseRows[i];
-							if( arow != null && !arow.isEmpty() )
+							if( !a.isEmpty(i) )
 							{
-								alen = arow.size();
-								aix = arow.getIndexContainer();
-								avals = arow.getValueContainer();
-								for(int k = 0; k < alen; k++) 
+								apos = a.pos(i);
+								alen = a.size(i);
+								aix = a.indexes(i);
+								avals = a.values(i);
+								for(int k = apos; k < apos+alen; k++) 
 									c[ix+aix[k]] = avals[k];
 							}
 						}
@@ -343,16 +790,17 @@ public class LibMatrixBincell
 				//2) process right input: op.fn (+,-,*), * only if dense
 				if( m2.sparse ) //SPARSE right
 				{				
-					if(m2.sparseRows!=null)
+					SparseBlock a = m2.getSparseBlock();
+					if( a != null )
 					{
 						for( int i=0, ix=0; i<m; i++, ix+=n ) {
-							SparseRow arow = m2.sparseRows[i];
-							if( arow != null && !arow.isEmpty() )
+							if( !a.isEmpty(i) )
 							{
-								alen = arow.size();
-								aix = arow.getIndexContainer();
-								avals = arow.getValueContainer();
-								for(int k = 0; k < alen; k++) 
+								apos = a.pos(i);
+								alen = a.size(i);
+								aix = a.indexes(i);
+								avals = a.values(i);
+								for(int k = apos; k < apos+alen; k++) 
 									c[ix+aix[k]] = op.fn.execute(c[ix+aix[k]], avals[k]);
 							}
 						}	
@@ -498,7 +946,7 @@ public class LibMatrixBincell
 		
 		int rlen = m1.rlen;
 		int clen = m1.clen;
-		SparseRow[] a = m1.sparseRows;
+		SparseBlock a = m1.getSparseBlock();
 		BinaryAccessType atype = getBinaryAccessType(m1, m2);
 		
 		//early abort on skip and empty
@@ -514,28 +962,29 @@ public class LibMatrixBincell
 			for( int i=0; i<rlen; i++ )
 			{
 				double v2 = m2.quickGetValue(i, 0);
-				SparseRow arow = (a==null) ? null : a[i];
+				boolean aempty = (a==null || a.isEmpty(i));
 				
-				if( (skipEmpty && (arow==null || arow.isEmpty() || v2 == 0 ))
-					|| ((arow==null || arow.isEmpty()) && v2 == 0) )
+				if( (skipEmpty && (aempty || v2 == 0 ))
+					|| (aempty && v2 == 0) )
 				{
 					continue; //skip empty rows
 				}
 					
-				if( isMultiply && v2==1 ) //ROW COPY
+				if( isMultiply && v2==1 && a instanceof SparseBlockMCSR ) //ROW COPY
 				{
-					if( arow != null && !arow.isEmpty()  )
-						ret.appendRow(i, arow);
+					if( !aempty )
+						ret.appendRow(i, ((SparseBlockMCSR)a).getSparseRows()[i]);
 				}
 				else //GENERAL CASE
 				{
 					int lastIx = -1;
-					if( arow != null && !arow.isEmpty() ) 
+					if( !aempty ) 
 					{
-						int alen = arow.size();
-						int[] aix = arow.getIndexContainer();
-						double[] avals = arow.getValueContainer();
-						for( int j=0; j<alen; j++ )
+						int apos = a.pos(i);
+						int alen = a.size(i);
+						int[] aix = a.indexes(i);
+						double[] avals = a.values(i);
+						for( int j=apos; j<apos+alen; j++ )
 						{
 							//empty left
 							for( int k = lastIx+1; k<aix[j]; k++ ){
@@ -561,18 +1010,19 @@ public class LibMatrixBincell
 		{
 			for( int i=0; i<rlen; i++ )
 			{
-				SparseRow arow = (a==null) ? null : a[i];
+				boolean aempty = (a==null || a.isEmpty(i));
 				
-				if( skipEmpty && (arow==null || arow.isEmpty()) )
+				if( skipEmpty && aempty )
 					continue; //skip empty rows
 					
 				int lastIx = -1;
-				if( arow != null && !arow.isEmpty() ) 
+				if( !aempty ) 
 				{
-					int alen = arow.size();
-					int[] aix = arow.getIndexContainer();
-					double[] avals = arow.getValueContainer();
-					for( int j=0; j<alen; j++ )
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
+					for( int j=apos; j<apos+alen; j++ )
 					{
 						//empty left
 						for( int k = lastIx+1; k<aix[j]; k++ ){
@@ -661,15 +1111,17 @@ public class LibMatrixBincell
 			if( m2.sparse && isMultiply ) //SPARSE *
 			{
 				//note: sparse block guaranteed to be allocated (otherwise early about)
-				SparseRow brow = m2.sparseRows[0];
-				if( brow != null && !brow.isEmpty() ) 
+				SparseBlock b = m2.getSparseBlock();
+				if( !b.isEmpty(0) ) 
 				{
-					int blen = brow.size();
-					int[] bix = brow.getIndexContainer();
-					double[] bvals = brow.getValueContainer();
+					int bpos = b.pos(0);
+					int blen = b.size(0);
+					int[] bix = b.indexes(0);
+					double[] bvals = b.values(0);
 					for( int i=0; i<rlen; i++ ) {
 						//for each row iterate only over non-zeros elements in rhs
-						for( int j=0; j<blen; j++ ) {
+						for( int j=bpos; j<bpos+blen; j++ ) {
+
 							double v1 = m1.quickGetValue(i, bix[j]);
 							double v = op.fn.execute( v1, bvals[j] );
 							ret.appendValue(i, bix[j], v);					
@@ -833,15 +1285,16 @@ public class LibMatrixBincell
 		{	
 			//allocate sparse row structure
 			ret.allocateSparseRowsBlock();
-			SparseRow[] a = m1.sparseRows;
+			SparseBlock a = m1.getSparseBlock();
 			SparseRow[] c = ret.sparseRows;
 			
-			for(int r=0; r<Math.min(m1.rlen, m1.sparseRows.length); r++) {
-				if( a[r]!=null && !a[r].isEmpty() )
+			for(int r=0; r<Math.min(m1.rlen, a.numRows()); r++) {
+				if( !a.isEmpty(r) )
 				{
-					int alen = a[r].size();
-					int[] aix = a[r].getIndexContainer();
-					double[] avals = a[r].getValueContainer();
+					int apos = a.pos(r);
+					int alen = a.size(r);
+					int[] aix = a.indexes(r);
+					double[] avals = a.values(r);
 					
 					if( copyOnes ) //SPECIAL CASE: e.g., (X != 0) 
 					{
@@ -852,17 +1305,17 @@ public class LibMatrixBincell
 						//memcopy/memset of indexes and values
 						//note: currently we do a safe copy of values because in special cases there
 						//might exist zeros in a sparserow and we need to ensure result correctness
-						System.arraycopy(aix, 0, crow.getIndexContainer(), 0, alen);
+						System.arraycopy(aix, apos, crow.getIndexContainer(), 0, alen);
 						//Arrays.fill(crow.getValueContainer(), 0, alen, 1);
 						double[] cvals = crow.getValueContainer();
 						for(int j=0; j<alen; j++)
-							cvals[j] = (avals[j] != 0) ? 1 : 0;
+							cvals[j] = (avals[apos+j] != 0) ? 1 : 0;
 						c[r] = crow;
 						ret.nonZeros+=alen;
 					}
 					else //GENERAL CASE
 					{
-						for(int j=0; j<alen; j++) {
+						for(int j=apos; j<apos+alen; j++) {
 							double val = op.executeScalar(avals[j]);
 							ret.appendValue(r, aix[j], val);
 						}
@@ -917,7 +1370,7 @@ public class LibMatrixBincell
 		{
 			ret.allocateDenseBlock();
 			
-			SparseRow[] a = m1.sparseRows;
+			SparseBlock a = m1.getSparseBlock();
 			double[] c = ret.denseBlock;			
 			int m = m1.rlen;
 			int n = m1.clen;
@@ -929,16 +1382,18 @@ public class LibMatrixBincell
 			//compute non-zero input values
 			for(int i=0, cix=0; i<m; i++, cix+=n) 
 			{
-				if( a[i]!=null && !a[i].isEmpty() )
+				if( !a.isEmpty(i) )
 				{
-					int alen = a[i].size();
-					int[] aix = a[i].getIndexContainer();
-					double[] avals = a[i].getValueContainer();
-					for(int j=0; j<alen; j++) {
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
+					for(int j=apos; j<apos+alen; j++) {
 						double val = op.executeScalar(avals[j]);
 						c[ cix+aix[j] ] = val;
 					}
 				}
+
 			}
 		
 			//recompute non zeros 
@@ -987,19 +1442,23 @@ public class LibMatrixBincell
 		
 		if(m1ret.sparse && m2.sparse)
 		{
+			//convert read-only csr block if necessary
+			m1ret.csrToSparseRows();
+			
 			if(m1ret.sparseRows!=null)
 				m1ret.allocateSparseRowsBlock(false);
 			if(m2.sparseRows!=null)
 				m2.allocateSparseRowsBlock(false);
+			SparseBlock b = m2.getSparseBlock();
 			
-			if(m1ret.sparseRows!=null && m2.sparseRows!=null)
+			if(m1ret.sparseRows!=null && b!=null)
 			{
 				for(int r=0; r<rlen; r++)
 				{
-					if(m1ret.sparseRows[r]==null && m2.sparseRows[r]==null)
+					if(m1ret.sparseRows[r]==null && b.isEmpty(r))
 						continue;
 					
-					if(m2.sparseRows[r]==null)
+					if(b.isEmpty(r))
 					{
 						double[] values=m1ret.sparseRows[r].getValueContainer();
 						for(int i=0; i<m1ret.sparseRows[r].size(); i++)
@@ -1009,8 +1468,7 @@ public class LibMatrixBincell
 						int estimateSize=0;
 						if(m1ret.sparseRows[r]!=null)
 							estimateSize+=m1ret.sparseRows[r].size();
-						if(m2.sparseRows[r]!=null)
-							estimateSize+=m2.sparseRows[r].size();
+						estimateSize+=b.size(r);
 						estimateSize=Math.min(clen, estimateSize);
 						
 						//temp
@@ -1021,14 +1479,13 @@ public class LibMatrixBincell
 						{
 							m1ret.nonZeros-=thisRow.size();
 							mergeForSparseBinary(op, thisRow.getValueContainer(), 
-									thisRow.getIndexContainer(), thisRow.size(),
-									m2.sparseRows[r].getValueContainer(), 
-									m2.sparseRows[r].getIndexContainer(), m2.sparseRows[r].size(), r, m1ret);
+									thisRow.getIndexContainer(), 0, thisRow.size(),
+									b.values(r), b.indexes(r), b.pos(r), b.size(r), r, m1ret);
 							
 						}else
 						{
-							appendRightForSparseBinary(op, m2.sparseRows[r].getValueContainer(), 
-									m2.sparseRows[r].getIndexContainer(), m2.sparseRows[r].size(), 0, r, m1ret);
+							appendRightForSparseBinary(op, b.values(r), b.indexes(r), 
+									b.pos(r)+b.size(r), b.pos(r), r, m1ret);
 						}
 					}
 				}	
@@ -1038,13 +1495,13 @@ public class LibMatrixBincell
 				m1ret.sparseRows=new SparseRow[rlen];
 				for(int r=0; r<rlen; r++)
 				{
-					SparseRow brow = m2.sparseRows[r];
-					if( brow!=null && !brow.isEmpty() )
+					if( !b.isEmpty(r) )
 					{
-						m1ret.sparseRows[r] = new SparseRow( brow.size(), clen );
-						appendRightForSparseBinary(op, brow.getValueContainer(), brow.getIndexContainer(), brow.size(), 0, r, m1ret);
+						m1ret.sparseRows[r] = new SparseRow( b.size(r), clen );
+						appendRightForSparseBinary(op, b.values(r), b.indexes(r), b.pos(r)+b.size(r), b.pos(r), r, m1ret);
 					}
 				}				
+
 			}
 			else //that.sparseRows==null
 			{
@@ -1145,12 +1602,12 @@ public class LibMatrixBincell
 	 * @param result
 	 * @throws DMLRuntimeException
 	 */
-	private static void mergeForSparseBinary(BinaryOperator op, double[] values1, int[] cols1, int size1, 
-				double[] values2, int[] cols2, int size2, int resultRow, MatrixBlock result) 
+	private static void mergeForSparseBinary(BinaryOperator op, double[] values1, int[] cols1, int pos1, int size1, 
+				double[] values2, int[] cols2, int pos2, int size2, int resultRow, MatrixBlock result) 
 		throws DMLRuntimeException
 	{
-		int p1=0, p2=0, column;
-		while( p1<size1 && p2< size2 )
+		int p1=pos1, p2=pos2, column;
+		while( p1<pos1+size1 && p2<pos2+size2 )
 		{
 			double value = 0;
 			if(cols1[p1]<cols2[p2])
@@ -1176,8 +1633,9 @@ public class LibMatrixBincell
 		}
 		
 		//add left over
-		appendLeftForSparseBinary(op, values1, cols1, size1, p1, resultRow, result);
-		appendRightForSparseBinary(op, values2, cols2, size2, p2, resultRow, result);
+		appendLeftForSparseBinary(op, values1, cols1, pos1+size1, p1, resultRow, result);
+		appendRightForSparseBinary(op, values2, cols2, pos2+size2, p2, resultRow, result);
+
 	}
 	
 	/**
@@ -1223,5 +1681,159 @@ public class LibMatrixBincell
 		}
 	}
 	
+	/**
+	 * Merge of two sparse rows into the given output row, which allows
+	 * concurrent updates of disjoint rows (no nnz maintenance).
+	 * 
+	 * @param op
+	 * @param values1
+	 * @param cols1
+	 * @param pos1
+	 * @param size1
+	 * @param values2
+	 * @param cols2
+	 * @param pos2
+	 * @param size2
+	 * @param crow
+	 * @throws DMLRuntimeException
+	 */
+	private static void mergeForSparseBinary(BinaryOperator op, double[] values1, int[] cols1, int pos1, int size1, 
+			double[] values2, int[] cols2, int pos2, int size2, SparseRow crow) 
+		throws DMLRuntimeException
+	{
+		int p1=pos1, p2=pos2;
+		while( p1<pos1+size1 && p2<pos2+size2 )
+		{
+			if(cols1[p1]<cols2[p2]) {
+				crow.append(cols1[p1], op.fn.execute(values1[p1], 0));
+				p1++;
+			}
+			else if(cols1[p1]==cols2[p2]) {
+				crow.append(cols1[p1], op.fn.execute(values1[p1], values2[p2]));
+				p1++;
+				p2++;
+			}
+			else {
+				crow.append(cols2[p2], op.fn.execute(0, values2[p2]));
+				p2++;
+			}
+		}
+		
+		//add left over
+		for( ; p1<pos1+size1; p1++ )
+			crow.append(cols1[p1], op.fn.execute(values1[p1], 0));
+		for( ; p2<pos2+size2; p2++ )
+			crow.append(cols2[p2], op.fn.execute(0, values2[p2]));
+	}
+	
+	/**
+	 * 
+	 * 
+	 */
+	private static abstract class BincellTask implements Callable<Object> 
+	{
+		protected MatrixBlock _ret = null;
+		protected int _rl = -1;
+		protected int _ru = -1;
+		private long _nnz = -1;
+		
+		protected BincellTask( MatrixBlock ret, int rl, int ru )
+		{
+			_ret = ret;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		protected abstract void executeRows() 
+			throws DMLRuntimeException;
+		
+		@Override
+		public Object call() throws DMLRuntimeException
+		{
+			//core cellwise operation over row partition
+			executeRows();
+			
+			//maintain block nnz (upper bounds inclusive)
+			_nnz = _ret.recomputeNonZeros(_rl, _ru-1, 0, _ret.getNumColumns()-1);
+			
+			return null;
+		}
+		
+		public long getPartialNnz(){
+			return _nnz;
+		}
+	}
+	
+	/**
+	 * 
+	 * 
+	 */
+	private static class BincellScalarTask extends BincellTask 
+	{
+		private MatrixBlock _m1 = null;
+		private ScalarOperator _op = null;
+		
+		protected BincellScalarTask( MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int rl, int ru )
+		{
+			super(ret, rl, ru);
+			_m1 = m1;
+			_op = op;
+		}
+		
+		@Override
+		protected void executeRows() throws DMLRuntimeException
+		{
+			bincellOpScalar(_m1, _ret, _op, _rl, _ru);
+		}
+	}
+	
+	/**
+	 * 
+	 * 
+	 */
+	private static class BincellBinaryTask extends BincellTask 
+	{
+		private MatrixBlock _m1 = null;
+		private MatrixBlock _m2 = null;
+		private BinaryOperator _op = null;
+		
+		protected BincellBinaryTask( MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru )
+		{
+			super(ret, rl, ru);
+			_m1 = m1;
+			_m2 = m2;
+			_op = op;
+		}
+		
+		@Override
+		protected void executeRows() throws DMLRuntimeException
+		{
+			bincellOpMatrix(_m1, _m2, _ret, _op, _rl, _ru);
+		}
+	}
+	
+	/**
+	 * 
+	 * 
+	 */
+	private static class UnaryTask extends BincellTask 
+	{
+		private MatrixBlock _m1 = null;
+		private UnaryOperator _op = null;
+		
+		protected UnaryTask( MatrixBlock m1, MatrixBlock ret, UnaryOperator op, int rl, int ru )
+		{
+			super(ret, rl, ru);
+			_m1 = m1;
+			_op = op;
+		}
+		
+		@Override
+		protected void executeRows() throws DMLRuntimeException
+		{
+			unaryOpRows(_m1, _ret, _op, _rl, _ru);
+		}
+	}
+	
 }
 
@@ -22,8 +22,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,6 +33,7 @@ import com.ibm.bi.dml.runtime.util.NormalPRNGenerator;
 import com.ibm.bi.dml.runtime.util.PRNGenerator;
 import com.ibm.bi.dml.runtime.util.PoissonPRNGenerator;
 import com.ibm.bi.dml.runtime.util.UniformPRNGenerator;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 /**
  *  
@@ -425,7 +424,6 @@ public class LibMatrixDatagen
 		
 		try 
 		{
-			ExecutorService pool = Executors.newFixedThreadPool(k);
 			ArrayList<RandTask> tasks = new ArrayList<RandTask>();
 			int blklen = ((int)(Math.ceil((double)nrb/k)));
 			for( int i=0; i<k & i*blklen<nrb; i++ ) {
@@ -433,8 +431,7 @@ public class LibMatrixDatagen
 				tasks.add(new RandTask(invokedFromCP, i*blklen, Math.min((i+1)*blklen, nrb), 
 						               out, rgen, nnzInBlocks, bSeed, seeds) );	
 			}
-			pool.invokeAll(tasks);
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, k);
 			
 			//early error notify in case not all tasks successful
 			for(RandTask rt : tasks) 
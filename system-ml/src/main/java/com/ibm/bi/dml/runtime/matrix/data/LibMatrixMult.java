@@ -21,8 +21,6 @@ package com.ibm.bi.dml.runtime.matrix.data;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.commons.math3.util.FastMath;
 
@@ -36,6 +34,7 @@ import com.ibm.bi.dml.runtime.DMLUnsupportedOperationException;
 import com.ibm.bi.dml.runtime.functionobjects.SwapIndex;
 import com.ibm.bi.dml.runtime.matrix.operators.ReorgOperator;
 import com.ibm.bi.dml.runtime.util.UtilFunctions;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 /**
  * MB:
@@ -164,13 +163,11 @@ public class LibMatrixMult
 		//core multi-threaded matrix mult computation
 		//(currently: always parallelization over number of rows)
 		try {
-			ExecutorService pool = Executors.newFixedThreadPool( k );
 			ArrayList<MatrixMultTask> tasks = new ArrayList<MatrixMultTask>();
 			int blklen = (int)(Math.ceil((double)m1.rlen/k));
 			for( int i=0; i<k & i*blklen<m1.rlen; i++ )
 				tasks.add(new MatrixMultTask(m1, m2, ret, tm2, i*blklen, Math.min((i+1)*blklen, m1.rlen)));
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, k);	
 			ret.nonZeros = 0; //reset after execute
 			for( MatrixMultTask task : tasks )
 				ret.nonZeros += task.getPartialNnz();
@@ -269,14 +266,12 @@ public class LibMatrixMult
 		//core matrix mult chain computation
 		//(currently: always parallelization over number of rows)
 		try {
-			ExecutorService pool = Executors.newFixedThreadPool( k );
 			ArrayList<MatrixMultChainTask> tasks = new ArrayList<MatrixMultChainTask>();
 			int blklen = (int)(Math.ceil((double)mX.rlen/k));
 			blklen += (blklen%24 != 0)?24-blklen%24:0;
 			for( int i=0; i<k & i*blklen<mX.rlen; i++ )
 				tasks.add(new MatrixMultChainTask(mX, mV, mW, ret, ct, i*blklen, Math.min((i+1)*blklen, mX.rlen)));
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, k);	
 			//aggregate partial results
 			for( MatrixMultChainTask task : tasks )
 				vectAdd(task.getResult().denseBlock, ret.denseBlock, 0, 0, mX.clen);
@@ -363,14 +358,12 @@ public class LibMatrixMult
 	
 		//core multi-threaded matrix mult computation
 		try {
-			ExecutorService pool = Executors.newFixedThreadPool( k );
 			ArrayList<MatrixMultTransposeTask> tasks = new ArrayList<MatrixMultTransposeTask>();
 			//load balance via #tasks=2k due to triangular shape 
 			int blklen = (int)(Math.ceil((double)ret.rlen/(2*k)));
 			for( int i=0; i<2*k & i*blklen<ret.rlen; i++ )
 				tasks.add(new MatrixMultTransposeTask(m1, ret, leftTranspose, i*blklen, Math.min((i+1)*blklen, ret.rlen)));
-			pool.invokeAll(tasks);	
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, k);	
 		}
 		catch(Exception ex) {
 			throw new DMLRuntimeException(ex);
@@ -460,13 +453,11 @@ public class LibMatrixMult
 		
 		try
 		{
-			ExecutorService pool = Executors.newFixedThreadPool(k);
 			ArrayList<MatrixMultPermuteTask> tasks = new ArrayList<MatrixMultPermuteTask>();
 			int blklen = (int)(Math.ceil((double)pm1.rlen/k));
 			for( int i=0; i<k & i*blklen<pm1.rlen; i++ )
 				tasks.add(new MatrixMultPermuteTask(pm1, m2, ret1, ret2, i*blklen, Math.min((i+1)*blklen, pm1.rlen)));
-			pool.invokeAll(tasks);
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, k);
 		} 
 		catch (InterruptedException e) {
 			throw new DMLRuntimeException(e);
@@ -551,13 +542,11 @@ public class LibMatrixMult
 		
 		try 
 		{			
-			ExecutorService pool = Executors.newFixedThreadPool(k);
 			ArrayList<ScalarResultTask> tasks = new ArrayList<ScalarResultTask>();
 			int blklen = (int)(Math.ceil((double)mX.rlen/k));
 			for( int i=0; i<k & i*blklen<mX.rlen; i++ )
 				tasks.add(new MatrixMultWSLossTask(mX, mU, mV, mW, wt, i*blklen, Math.min((i+1)*blklen, mX.rlen)));
-			pool.invokeAll(tasks);
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, k);
 			//aggregate partial results
 			sumScalarResults(tasks, ret);
 		} 
@@ -642,13 +631,11 @@ public class LibMatrixMult
 		
 		try 
 		{			
-			ExecutorService pool = Executors.newFixedThreadPool(k);
 			ArrayList<MatrixMultWSigmoidTask> tasks = new ArrayList<MatrixMultWSigmoidTask>();
 			int blklen = (int)(Math.ceil((double)mW.rlen/k));
 			for( int i=0; i<k & i*blklen<mW.rlen; i++ )
 				tasks.add(new MatrixMultWSigmoidTask(mW, mU, mV, ret, wt, i*blklen, Math.min((i+1)*blklen, mW.rlen)));
-			pool.invokeAll(tasks);
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, k);
 			ret.nonZeros = 0; //reset after execute
 			for( MatrixMultWSigmoidTask task : tasks )
 				ret.nonZeros += task.getPartialNnz();
@@ -747,7 +734,6 @@ public class LibMatrixMult
 
 		try 
 		{			
-			ExecutorService pool = Executors.newFixedThreadPool(k);
 			ArrayList<MatrixMultWDivTask> tasks = new ArrayList<MatrixMultWDivTask>();			
 			//create tasks (for wdivmm-left, parallelization over columns;
 			//for wdivmm-right, parallelization over rows; both ensure disjoint results)
@@ -762,8 +748,7 @@ public class LibMatrixMult
 					tasks.add(new MatrixMultWDivTask(mW, mU, mV, ret, wt, i*blklen, Math.min((i+1)*blklen, mW.rlen), 0, mW.clen));
 			}
 			//execute tasks
-			pool.invokeAll(tasks);
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, k);
 			//aggregate partial nnz
 			for( MatrixMultWDivTask task : tasks )
 				ret.nonZeros += task.getPartialNnz();
@@ -842,13 +827,11 @@ public class LibMatrixMult
 		
 		try 
 		{			
-			ExecutorService pool = Executors.newFixedThreadPool(k);
 			ArrayList<ScalarResultTask> tasks = new ArrayList<ScalarResultTask>();
 			int blklen = (int)(Math.ceil((double)mW.rlen/k));
 			for( int i=0; i<k & i*blklen<mW.rlen; i++ )
 				tasks.add(new MatrixMultWCeTask(mW, mU, mV, wt, i*blklen, Math.min((i+1)*blklen, mW.rlen)));
-			pool.invokeAll(tasks);
-			pool.shutdown();
+			KernelThreadPool.invokeAll(tasks, k);
 			//aggregate partial results
 			sumScalarResults(tasks, ret);
 		} 
@@ -1012,7 +995,7 @@ public class LibMatrixMult
 			final int blocksizeK = 32; 
 			//note: in contrast to dense-dense, no blocking over j (would require maintaining blocksizeK indexes, counter-productive on skew)
 			
-			SparseRow[] b = m2.sparseRows;
+			SparseBlock b = m2.getSparseBlock();
 			
 			//blocked execution
 			for( int bi = rl; bi < ru; bi+=blocksizeI )
@@ -1029,12 +1012,12 @@ public class LibMatrixMult
 		    			for( int k = 0; k < bklen; k++ )
 						{
 							double val = a[aixi+k];
-							SparseRow brow = b[ bk+k ];
-							if( val != 0 && brow != null && !brow.isEmpty() ) {
-								int blen = brow.size();
-								int[] bix = brow.getIndexContainer();
-								double[] bvals = brow.getValueContainer();								
-								vectMultiplyAdd(val, bvals, c, bix, cixj, blen);
+							if( val != 0 && !b.isEmpty(bk+k) ) {
+								int bpos = b.pos(bk+k);
+								int blen = b.size(bk+k);
+								int[] bix = b.indexes(bk+k);
+								double[] bvals = b.values(bk+k);								
+								vectMultiplyAdd(val, bvals, c, bix, bpos, cixj, bpos+blen);
 							}
 						}
 		    		}
@@ -1042,19 +1025,20 @@ public class LibMatrixMult
 		}
 		else
 		{
+			SparseBlock b = m2.getSparseBlock();
 			for( int i=rl, aix=rl*cd, cix=rl*n; i < ru; i++, cix+=n ) 
 				for(int k = 0; k < cd; k++, aix++ ) 
 				{
 					double val = a[aix];
 					if( val!=0 )
 					{
-						SparseRow brow = m2.sparseRows[ k ];
-						if( brow != null && !brow.isEmpty() ) 
+						if( !b.isEmpty(k) ) 
 						{
-							int blen = brow.size();
-							int[] bix = brow.getIndexContainer();
-							double[] bvals = brow.getValueContainer();	
-							for(int j = 0; j < blen; j++)
+							int bpos = b.pos(k);
+							int blen = b.size(k);
+							int[] bix = b.indexes(k);
+							double[] bvals = b.values(k);	
+							for(int j = bpos; j < bpos+blen; j++)
 								c[cix+bix[j]] += val * bvals[j];								
 						}
 					}
@@ -1072,6 +1056,7 @@ public class LibMatrixMult
 	private static void matrixMultSparseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, int rl, int ru) 
 		throws DMLRuntimeException
 	{	
+		SparseBlock a = m1.getSparseBlock();
 		double[] b = m2.denseBlock;
 		double[] c = ret.denseBlock;
 		final int m = m1.rlen;
@@ -1082,59 +1067,59 @@ public class LibMatrixMult
 		
 			if( m==1 && n==1 ) //DOT PRODUCT
 			{
-				SparseRow arow = m1.sparseRows[0];
-				if( arow != null && !arow.isEmpty() )
+				if( !a.isEmpty(0) )
 				{
-					int alen = arow.size();
-					int[] aix = arow.getIndexContainer();
-					double[] avals = arow.getValueContainer();
+					int apos = a.pos(0);
+					int alen = a.size(0);
+					int[] aix = a.indexes(0);
+					double[] avals = a.values(0);
 					
-					c[0] = dotProduct(avals, b, aix, 0, alen);
+					c[0] = dotProduct(avals, b, aix, apos, 0, alen);
 				}
 			}
 			else if( n==1 ) //MATRIX-VECTOR
 			{
-				for( int i=rl; i<Math.min(ru, m1.sparseRows.length); i++ )
+				for( int i=rl; i<Math.min(ru, a.numRows()); i++ )
 				{
-					SparseRow arow = m1.sparseRows[i];
-					if( arow != null && !arow.isEmpty() ) 
+					if( !a.isEmpty(i) ) 
 					{
-						int alen = arow.size();
-						int[] aix = arow.getIndexContainer();
-						double[] avals = arow.getValueContainer();					
+						int apos = a.pos(i);
+						int alen = a.size(i);
+						int[] aix = a.indexes(i);
+						double[] avals = a.values(i);					
 					
-						c[i] = dotProduct(avals, b, aix, 0, alen);							
+						c[i] = dotProduct(avals, b, aix, apos, 0, alen);							
 					}
 				}
 			}
 			else //MATRIX-MATRIX
 			{
-				for( int i=rl, cix=rl*n; i<Math.min(ru, m1.sparseRows.length); i++, cix+=n )
+				for( int i=rl, cix=rl*n; i<Math.min(ru, a.numRows()); i++, cix+=n )
 				{
-					SparseRow arow = m1.sparseRows[i];
-					if( arow != null && !arow.isEmpty() ) 
+					if( !a.isEmpty(i) ) 
 					{
-						int alen = arow.size();
-						int[] aix = arow.getIndexContainer();
-						double[] avals = arow.getValueContainer();					
+						int apos = a.pos(i);
+						int alen = a.size(i);
+						int[] aix = a.indexes(i);
+						double[] avals = a.values(i);					
 						
-						if( alen==1 && avals[0]==1 ) //ROW SELECTION 
+						if( alen==1 && avals[apos]==1 ) //ROW SELECTION 
 						{
 							//plain memcopy for permutation matrices
-							System.arraycopy(b, aix[0]*n, c, cix, n);
+							System.arraycopy(b, aix[apos]*n, c, cix, n);
 						}
 						else //GENERAL CASE
 						{
 							//rest not aligned to blocks of 4 rows
 			    			final int bn = alen % 4;
 			    			switch( bn ){
-				    			case 1: vectMultiplyAdd(avals[0], b, c, aix[0]*n, cix, n); break;
-				    	    	case 2: vectMultiplyAdd2(avals[0],avals[1], b, c, aix[0]*n, aix[1]*n, cix, n); break;
-				    			case 3: vectMultiplyAdd3(avals[0],avals[1],avals[2], b, c, aix[0]*n, aix[1]*n, aix[2]*n, cix, n); break;
+				    			case 1: vectMultiplyAdd(avals[apos], b, c, aix[apos]*n, cix, n); break;
+				    	    	case 2: vectMultiplyAdd2(avals[apos],avals[apos+1], b, c, aix[apos]*n, aix[apos+1]*n, cix, n); break;
+				    			case 3: vectMultiplyAdd3(avals[apos],avals[apos+1],avals[apos+2], b, c, aix[apos]*n, aix[apos+1]*n, aix[apos+2]*n, cix, n); break;
 			    			}
 			    			
 			    			//compute blocks of 4 rows (core inner loop)
-			    			for( int k = bn; k<alen; k+=4 ) {
+			    			for( int k = apos+bn; k<apos+alen; k+=4 ) {
 			    				vectMultiplyAdd4( avals[k], avals[k+1], avals[k+2], avals[k+3], b, c, 
 			    						          aix[k]*n, aix[k+1]*n, aix[k+2]*n, aix[k+3]*n, cix, n );
 			    			}
@@ -1145,19 +1130,20 @@ public class LibMatrixMult
 		}
 		else
 		{
-			for( int i=rl, cix=rl*n; i<Math.min(ru, m1.sparseRows.length); i++, cix+=n )
+			for( int i=rl, cix=rl*n; i<Math.min(ru, a.numRows()); i++, cix+=n )
 			{
-				SparseRow arow = m1.sparseRows[i];
-				if( arow != null && !arow.isEmpty() ) 
+				if( !a.isEmpty(i) ) 
 				{
-					int alen = arow.size();
-					int[] aix = arow.getIndexContainer();
-					double[] avals = arow.getValueContainer();					
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);					
 					
-					for(int k = 0; k < alen; k++) 
+					for(int k = apos; k < apos+alen; k++) 
 					{
 						double val = avals[k];
 						for(int j = 0, bix=aix[k]*n; j < n; j++)
+
 							c[cix+j] += val * b[bix+j];								
 					}						
 				}
@@ -1175,32 +1161,34 @@ public class LibMatrixMult
 	private static void matrixMultSparseSparse(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, int rl, int ru) 
 		throws DMLRuntimeException
 	{	
+		SparseBlock a = m1.getSparseBlock();
+		SparseBlock b = m2.getSparseBlock();
 		double[] c = ret.denseBlock;
 		int n = m2.clen;
 		
 		// MATRIX-MATRIX (VV, MV not applicable here because V always dense)
 		if(LOW_LEVEL_OPTIMIZATION)
 		{
-			for( int i=rl, cix=rl*n; i<Math.min(ru, m1.sparseRows.length); i++, cix+=n )
+			for( int i=rl, cix=rl*n; i<Math.min(ru, a.numRows()); i++, cix+=n )
 			{
-				SparseRow arow = m1.sparseRows[i];
-				if( arow != null && !arow.isEmpty() ) 
+				if( !a.isEmpty(i) ) 
 				{
-					int alen = arow.size();
-					int[] aix = arow.getIndexContainer();
-					double[] avals = arow.getValueContainer();					
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);					
 					
-					for(int k = 0; k < alen; k++) 
+					for(int k = apos; k < apos+alen; k++) 
 					{
 						double val = avals[k];
-						SparseRow brow = m2.sparseRows[ aix[k] ];
-						if( brow != null && !brow.isEmpty() ) 
+						if( !b.isEmpty(aix[k]) ) 
 						{
-							int blen = brow.size();
-							int[] bix = brow.getIndexContainer();
-							double[] bvals = brow.getValueContainer();	
+							int bpos = b.pos(aix[k]);
+							int blen = b.size(aix[k]);
+							int[] bix = b.indexes(aix[k]);
+							double[] bvals = b.values(aix[k]);	
 							
-							vectMultiplyAdd(val, bvals, c, bix, cix, blen);
+							vectMultiplyAdd(val, bvals, c, bix, bpos, cix, bpos+blen);
 						}
 					}						
 				}
@@ -1208,25 +1196,25 @@ public class LibMatrixMult
 		}
 		else
 		{
-			for( int i=rl, cix=rl*n; i<Math.min(ru, m1.sparseRows.length); i++, cix+=n )
+			for( int i=rl, cix=rl*n; i<Math.min(ru, a.numRows()); i++, cix+=n )
 			{
-				SparseRow arow = m1.sparseRows[i];
-				if( arow != null && !arow.isEmpty() ) 
+				if( !a.isEmpty(i) ) 
 				{
-					int alen = arow.size();
-					int[] aix = arow.getIndexContainer();
-					double[] avals = arow.getValueContainer();					
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);					
 					
-					for(int k = 0; k < alen; k++) 
+					for(int k = apos; k < apos+alen; k++) 
 					{
 						double val = avals[k];
-						SparseRow brow = m2.sparseRows[ aix[k] ];
-						if( brow != null && !brow.isEmpty() ) 
+						if( !b.isEmpty(aix[k]) ) 
 						{
-							int blen = brow.size();
-							int[] bix = brow.getIndexContainer();
-							double[] bvals = brow.getValueContainer();	
-							for(int j = 0; j < blen; j++)
+							int bpos = b.pos(aix[k]);
+							int blen = b.size(aix[k]);
+							int[] bix = b.indexes(aix[k]);
+							double[] bvals = b.values(aix[k]);	
+							for(int j = bpos; j < bpos+blen; j++)
 								c[cix+bix[j]] += val * bvals[j];								
 						}
 					}						
@@ -1258,25 +1246,27 @@ public class LibMatrixMult
 		
 		if( leftUS ) //left is ultra-sparse (IKJ)
 		{
+			SparseBlock a = m1.getSparseBlock();
+			SparseBlock b = m2.getSparseBlock();
 			boolean rightSparse = m2.sparse;
 			
 			for( int i=rl; i<ru; i++ )
 			{
-				SparseRow arow = m1.sparseRows[ i ];
-				if( arow != null && !arow.isEmpty() ) 
+				if( !a.isEmpty(i) ) 
 				{
-					int alen = arow.size();
-					int[] aixs = arow.getIndexContainer();
-					double[] avals = arow.getValueContainer();	
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aixs = a.indexes(i);
+					double[] avals = a.values(i);	
 					
-					if( alen==1 && avals[0]==1 ) //ROW SELECTION (no aggregation)
+					if( alen==1 && avals[apos]==1 ) //ROW SELECTION (no aggregation)
 					{
-						int aix = aixs[0];
+						int aix = aixs[apos];
 						if( rightSparse ) { //sparse right matrix (full row copy)
-							if( m2.sparseRows!=null && m2.sparseRows[aix]!=null ) {
+							if( b!=null && !b.isEmpty(aix) ) {
 								ret.rlen=m;
 								ret.allocateSparseRowsBlock(false); //allocation on demand
-								ret.sparseRows[i] = new SparseRow(m2.sparseRows[aix]); 
+								ret.sparseRows[i] = copySparseRow(b, aix); 
 								ret.nonZeros += ret.sparseRows[i].size();
 							}
 						}
@@ -1287,7 +1277,7 @@ public class LibMatrixMult
 					}
 					else //GENERAL CASE
 					{
-						for( int k=0; k<alen; k++ )
+						for( int k=apos; k<apos+alen; k++ )
 						{
 							double aval = avals[k];
 							int aix = aixs[k];
@@ -1305,15 +1295,16 @@ public class LibMatrixMult
 		}
 		else //right is ultra-sparse (KJI)
 		{
+			SparseBlock b = m2.getSparseBlock();
 			for(int k = 0; k < cd; k++ ) 
 			{			
-				SparseRow brow = m2.sparseRows[ k ];
-				if( brow != null && !brow.isEmpty() ) 
+				if( !b.isEmpty(k) ) 
 				{
-					int blen = brow.size();
-					int[] bixs = brow.getIndexContainer();
-					double[] bvals = brow.getValueContainer();								
-					for( int j=0; j<blen; j++ )
+					int bpos = b.pos(k);
+					int blen = b.size(k);
+					int[] bixs = b.indexes(k);
+					double[] bvals = b.values(k);								
+					for( int j=bpos; j<bpos+blen; j++ )
 					{
 						double bval = bvals[j];
 						int bix = bixs[j];
@@ -1395,7 +1386,7 @@ public class LibMatrixMult
 	 */
 	private static void matrixMultChainSparse(MatrixBlock mX, MatrixBlock mV, MatrixBlock mW, MatrixBlock ret, ChainType ct, int rl, int ru) 
 	{
-		SparseRow[] a = mX.sparseRows;
+		SparseBlock a = mX.getSparseBlock();
 		double[] b = mV.denseBlock;
 		double[] w = (mW!=null) ? mW.denseBlock : null;
 		double[] c = ret.denseBlock;
@@ -1414,12 +1405,12 @@ public class LibMatrixMult
 
 			//compute 1st matrix-vector for row block
 			for( int j=0; j < tmplen; j++) {
-				SparseRow arow = a[bi+j];
-				if( arow != null && !arow.isEmpty() ) {
-					int alen = arow.size();
-					int[] aix = arow.getIndexContainer();
-					double[] avals = arow.getValueContainer();					
-					tmp[j] = dotProduct(avals, b, aix, 0, alen);							
+				if( !a.isEmpty(bi+j) ) {
+					int apos = a.pos(bi+j);
+					int alen = a.size(bi+j);
+					int[] aix = a.indexes(bi+j);
+					double[] avals = a.values(bi+j);					
+					tmp[j] = dotProduct(avals, b, aix, apos, 0, alen);							
 				}
 			}
 			
@@ -1429,12 +1420,12 @@ public class LibMatrixMult
 			
 			//compute 2nd matrix vector for row block and aggregate
 			for( int j=0; j < tmplen; j++) {
-				SparseRow arow = a[bi+j];
-				if( arow != null && !arow.isEmpty() && tmp[j] != 0 ) {
-					int alen = arow.size();
-					int[] aix = arow.getIndexContainer();
-					double[] avals = arow.getValueContainer();		
-					vectMultiplyAdd(tmp[j], avals, c, aix, 0, alen);							
+				if( !a.isEmpty(bi+j) && tmp[j] != 0 ) {
+					int apos = a.pos(bi+j);
+					int alen = a.size(bi+j);
+					int[] aix = a.indexes(bi+j);
+					double[] avals = a.values(bi+j);		
+					vectMultiplyAdd(tmp[j], avals, c, aix, apos, 0, apos+alen);							
 				}
 			}
 		}
@@ -1593,6 +1584,7 @@ public class LibMatrixMult
 	{
 		//2) transpose self matrix multiply sparse
 		// (compute only upper-triangular matrix due to symmetry)		
+		SparseBlock a = m1.getSparseBlock();
 		double[] c = ret.denseBlock;
 		int m = m1.rlen;
 		int n = m1.clen;
@@ -1603,41 +1595,43 @@ public class LibMatrixMult
 			//algorithm: scan rows, foreach row self join (KIJ)
 			if( LOW_LEVEL_OPTIMIZATION )
 			{
-				for( SparseRow arow : m1.sparseRows )
-					if( arow != null && !arow.isEmpty() ) 
+				for( int r=0; r<a.numRows(); r++ )
+					if( !a.isEmpty(r) ) 
 					{
-						int alen = arow.size();
-						int[] aix = arow.getIndexContainer();
-						double[] avals = arow.getValueContainer();					
-						int rlix = (rl==0) ? 0 : arow.searchIndexesFirstGTE(rl);
-						rlix = (rlix>=0) ? rlix : alen;
+						int apos = a.pos(r);
+						int alen = a.size(r);
+						int[] aix = a.indexes(r);
+						double[] avals = a.values(r);					
+						int rlix = (rl==0) ? apos : a.posFIndexGTE(r, rl);
+						rlix = (rlix>=0) ? rlix : apos+alen;
 						
-						for(int i = rlix; i < alen && aix[i]<ru; i++) 
+						for(int i = rlix; i < apos+alen && aix[i]<ru; i++) 
 						{
 							double val = avals[i];
 							if( val != 0 ) {
 								int ix2 = aix[i]*n;
-								vectMultiplyAdd(val, avals, c, aix, i, ix2, alen);
+								vectMultiplyAdd(val, avals, c, aix, i, ix2, apos+alen);
 							}
 						}
 					}
 			}
 			else
 			{
-				for( SparseRow arow : m1.sparseRows )
-					if( arow != null && !arow.isEmpty() ) 
+				for( int r=0; r<a.numRows(); r++ )
+					if( !a.isEmpty(r) ) 
 					{
-						int alen = arow.size();
-						int[] aix = arow.getIndexContainer();
-						double[] avals = arow.getValueContainer();					
-						int rlix = (rl==0) ? 0 : arow.searchIndexesFirstGTE(rl);
-						rlix = (rlix>=0) ? rlix : alen;
+						int apos = a.pos(r);
+						int alen = a.size(r);
+						int[] aix = a.indexes(r);
+						double[] avals = a.values(r);					
+						int rlix = (rl==0) ? apos : a.posFIndexGTE(r, rl);
+						rlix = (rlix>=0) ? rlix : apos+alen;
 						
-						for(int i = rlix; i < alen && aix[i]<ru; i++) 
+						for(int i = rlix; i < apos+alen && aix[i]<ru; i++) 
 						{
 							double val = avals[i];
 							if( val != 0 )
-								for(int j = i, ix2 = aix[i]*n; j < alen; j++)
+								for(int j = i, ix2 = aix[i]*n; j < apos+alen; j++)
 									c[ix2+aix[j]] += val * avals[j];
 						}
 					}
@@ -1647,12 +1641,12 @@ public class LibMatrixMult
 		{
 			if( m==1 ) //VECTOR 
 			{
-				SparseRow arow = m1.sparseRows[0];
-				if( arow !=null && !arow.isEmpty() )
+				if( !a.isEmpty(0) )
 				{
-					int alen = arow.size();
-					double[] avals = arow.getValueContainer();	
-					c[0] = dotProduct(avals, avals, alen);
+					int apos = a.pos(0);
+					int alen = a.size(0);
+					double[] avals = a.values(0);	
+					c[0] = dotProduct(avals, avals, apos, apos, alen);
 				}
 			}
 			else //MATRIX
@@ -1666,41 +1660,43 @@ public class LibMatrixMult
 				//algorithm: scan rows, foreach row self join (KIJ)
 				if( LOW_LEVEL_OPTIMIZATION )
 				{
-					for( SparseRow arow : m1.sparseRows )
-						if( arow != null && !arow.isEmpty() ) 
+					for( int r=0; r<a.numRows(); r++ )
+						if( !a.isEmpty(r) ) 
 						{
-							int alen = arow.size();
-							int[] aix = arow.getIndexContainer();
-							double[] avals = arow.getValueContainer();					
-							int rlix = (rl==0) ? 0 : arow.searchIndexesFirstGTE(rl);
-							rlix = (rlix>=0) ? rlix : alen;
+							int apos = a.pos(r);
+							int alen = a.size(r);
+							int[] aix = a.indexes(r);
+							double[] avals = a.values(r);					
+							int rlix = (rl==0) ? apos : a.posFIndexGTE(r, rl);
+							rlix = (rlix>=0) ? rlix : apos+alen;
 							
-							for(int i = rlix; i < alen && aix[i]<ru; i++) 
+							for(int i = rlix; i < apos+alen && aix[i]<ru; i++) 
 							{
 								double val = avals[i];
 								if( val != 0 ) {
 									int ix2 = aix[i]*m;
-									vectMultiplyAdd(val, avals, c, aix, i, ix2, alen);
+									vectMultiplyAdd(val, avals, c, aix, i, ix2, apos+alen);
 								}
 							}
 						}
 				}
 				else
 				{
-					for( SparseRow arow : m1.sparseRows )
-						if( arow != null && !arow.isEmpty() ) 
+					for( int r=0; r<a.numRows(); r++ )
+						if( !a.isEmpty(r) ) 
 						{
-							int alen = arow.size();
-							int[] aix = arow.getIndexContainer();
-							double[] avals = arow.getValueContainer();					
-							int rlix = (rl==0) ? 0 : arow.searchIndexesFirstGTE(rl);
-							rlix = (rlix>=0) ? rlix : alen;
+							int apos = a.pos(r);
+							int alen = a.size(r);
+							int[] aix = a.indexes(r);
+							double[] avals = a.values(r);					
+							int rlix = (rl==0) ? apos : a.posFIndexGTE(r, rl);
+							rlix = (rlix>=0) ? rlix : apos+alen;
 							
-							for(int i = rlix; i < alen && aix[i]<ru; i++) 
+							for(int i = rlix; i < apos+alen && aix[i]<ru; i++) 
 							{
 								double val = avals[i];
 								if( val != 0 )
-									for(int j = i, ix2 = aix[i]*m; j < alen; j++)
+									for(int j = i, ix2 = aix[i]*m; j < apos+alen; j++)
 										c[ix2+aix[j]] += val * avals[j];
 							}
 						}
@@ -1814,7 +1810,7 @@ public class LibMatrixMult
 	private static void matrixMultPermuteSparse( MatrixBlock pm1, MatrixBlock m2, MatrixBlock ret1, MatrixBlock ret2, int rl, int ru)
 	{
 		double[] a = pm1.denseBlock;
-		SparseRow[] b = m2.sparseRows;
+		SparseBlock b = m2.getSparseBlock();
 		SparseRow[] c = ret1.sparseRows;
 
 		final int brlen = ret1.getNumRows();
@@ -1838,8 +1834,9 @@ public class LibMatrixMult
 				}
 		
 				//memcopy entire sparse row into target position
-				if( b[i] != null )
-					c[bpos] = new SparseRow( b[i] );
+				if( !b.isEmpty(i) )
+					c[bpos] = copySparseRow( b, i );
+
 				lastblk = blk;
 			}
 		}
@@ -1943,8 +1940,8 @@ public class LibMatrixMult
 	 */
 	private static void matrixMultWSLossSparseDense(MatrixBlock mX, MatrixBlock mU, MatrixBlock mV, MatrixBlock mW, MatrixBlock ret, WeightsType wt, int rl, int ru)
 	{
-		SparseRow[] x = mX.sparseRows;
-		SparseRow[] w = (mW!=null)? mW.sparseRows : null;
+		SparseBlock x = mX.getSparseBlock();
+		SparseBlock w = (mW!=null)? mW.getSparseBlock() : null;
 		double[] u = mU.denseBlock;
 		double[] v = mV.denseBlock;
 		final int n = mX.clen; 
@@ -1956,11 +1953,12 @@ public class LibMatrixMult
 		{
 			// approach: iterate over W, point-wise in order to exploit sparsity
 			for( int i=rl, uix=rl*cd; i<ru; i++, uix+=cd )
-				if( w[i] != null && !w[i].isEmpty() ) {
-					int wlen = w[i].size();
-					int[] wix = w[i].getIndexContainer();
-					double[] wval = w[i].getValueContainer();
-					for( int k=0; k<wlen; k++ ) {
+				if( !w.isEmpty(i) ) {
+					int wpos = w.pos(i);
+					int wlen = w.size(i);
+					int[] wix = w.indexes(i);
+					double[] wval = w.values(i);
+					for( int k=wpos; k<wpos+wlen; k++ ) {
 						double xi = mX.quickGetValue(i, wix[k]);
 						double uvij = dotProduct(u, v, uix, wix[k]*cd, cd);
 						wsloss += wval[k]*(xi-uvij)*(xi-uvij);
@@ -1972,11 +1970,12 @@ public class LibMatrixMult
 		{
 			// approach: iterate over W, point-wise in order to exploit sparsity
 			for( int i=rl, uix=rl*cd; i<ru; i++, uix+=cd )
-				if( x[i] != null && !x[i].isEmpty() ) {
-					int xlen = x[i].size();
-					int[] xix = x[i].getIndexContainer();
-					double[] xval = x[i].getValueContainer();
-					for( int k=0; k<xlen; k++ ) {
+				if( !x.isEmpty(i) ) {
+					int xpos = x.pos(i);
+					int xlen = x.size(i);
+					int[] xix = x.indexes(i);
+					double[] xval = x.values(i);
+					for( int k=xpos; k<xpos+xlen; k++ ) {
 						double uvij = dotProduct(u, v, uix, xix[k]*cd, cd);
 						wsloss += (xval[k]-uvij)*(xval[k]-uvij);
 					}
@@ -2004,18 +2003,19 @@ public class LibMatrixMult
 			// approach: iterate over all cells of X and 
 			for( int i=rl, uix=rl*cd; i<ru; i++, uix+=cd ) 
 			{
-				if( x[i]==null || x[i].isEmpty() ) { //empty row
+				if( x.isEmpty(i) ) { //empty row
 					for( int j=0, vix=0; j<n; j++, vix+=cd) {
 						double uvij = dotProduct(u, v, uix, vix, cd);
 						wsloss += (-uvij)*(-uvij);
 					}
 				}
 				else { //non-empty row
-					int xlen = x[i].size();
-					int[] xix = x[i].getIndexContainer();
-					double[] xval = x[i].getValueContainer();
+					int xpos = x.pos(i);
+					int xlen = x.size(i);
+					int[] xix = x.indexes(i);
+					double[] xval = x.values(i);
 					int last = -1;
-					for( int k=0; k<xlen; k++ ) {
+					for( int k=xpos; k<xpos+xlen; k++ ) {
 						//process last nnz til current nnz
 						for( int k2=last+1; k2<xix[k]; k2++ ){
 							double uvij = dotProduct(u, v, uix, k2*cd, cd);
@@ -2061,14 +2061,15 @@ public class LibMatrixMult
 			// approach: iterate over W, point-wise in order to exploit sparsity
 			if( mW.sparse ) //SPARSE
 			{
-				SparseRow[] wrows = mW.sparseRows;
+				SparseBlock wrows = mW.getSparseBlock();
 				
 				for( int i=rl; i<ru; i++ )
-					if( wrows[i] != null && !wrows[i].isEmpty() ){
-						int wlen = wrows[i].size();
-						int[] wix = wrows[i].getIndexContainer();
-						double[] wval = wrows[i].getValueContainer();
-						for( int k=0; k<wlen; k++ ) {
+					if( !wrows.isEmpty(i) ){
+						int wpos = wrows.pos(i);
+						int wlen = wrows.size(i);
+						int[] wix = wrows.indexes(i);
+						double[] wval = wrows.values(i);
+						for( int k=wpos; k<wpos+wlen; k++ ) {
 							double uvij = dotProductGeneric(mU, mV, i, wix[k], cd);
 							double xi = mX.quickGetValue(i, wix[k]);
 							wsloss += wval[k]*(xi-uvij)*(xi-uvij);
@@ -2094,14 +2095,15 @@ public class LibMatrixMult
 			// approach: iterate over W, point-wise in order to exploit sparsity
 			if( mW.sparse ) //SPARSE
 			{
-				SparseRow[] xrows = mX.sparseRows;
+				SparseBlock xrows = mX.getSparseBlock();
 				
 				for( int i=rl; i<ru; i++ )
-					if( xrows[i] != null && !xrows[i].isEmpty() ){
-						int xlen = xrows[i].size();
-						int[] xix = xrows[i].getIndexContainer();
-						double[] xval = xrows[i].getValueContainer();
-						for( int k=0; k<xlen; k++ ) {
+					if( !xrows.isEmpty(i) ){
+						int xpos = xrows.pos(i);
+						int xlen = xrows.size(i);
+						int[] xix = xrows.indexes(i);
+						double[] xval = xrows.values(i);
+						for( int k=xpos; k<xpos+xlen; k++ ) {
 							double uvij = dotProductGeneric(mU, mV, i, xix[k], cd);
 							wsloss += (xval[k]-uvij)*(xval[k]-uvij);
 						}
@@ -2214,7 +2216,7 @@ public class LibMatrixMult
 	private static void matrixMultWSigmoidSparseDense(MatrixBlock mW, MatrixBlock mU, MatrixBlock mV, MatrixBlock ret, WSigmoidType wt, int rl, int ru) 
 		throws DMLRuntimeException
 	{
-		SparseRow[] w = mW.sparseRows;
+		SparseBlock w = mW.getSparseBlock();
 		SparseRow[] c = ret.sparseRows;
 		double[] u = mU.denseBlock;
 		double[] v = mV.denseBlock;
@@ -2226,13 +2228,14 @@ public class LibMatrixMult
 	
 		//approach: iterate over non-zeros of w, selective mm computation
 		for( int i=rl, uix=rl*cd; i<ru; i++, uix+=cd )
-			if( w[i] != null && !w[i].isEmpty() ) {
-				int wlen = w[i].size();
-				int[] wix = w[i].getIndexContainer();
-				double[] wval = w[i].getValueContainer();
+			if( !w.isEmpty(i) ) {
+				int wpos = w.pos(i);
+				int wlen = w.size(i);
+				int[] wix = w.indexes(i);
+				double[] wval = w.values(i);
 				c[i] = new SparseRow(wlen, n);
 				
-				for( int k=0; k<wlen; k++ ) {
+				for( int k=wpos; k<wpos+wlen; k++ ) {
 					double cval = wsigmoid(wval[k], u, v, uix, wix[k]*cd, flagminus, flaglog, cd);
 					c[i].append(wix[k], cval);
 				}
@@ -2264,17 +2267,18 @@ public class LibMatrixMult
 		if( mW.sparse ) //SPARSE
 		{
 			//w and c always in same representation
-			SparseRow[] w = mW.sparseRows;
+			SparseBlock w = mW.getSparseBlock();
 			SparseRow[] c = ret.sparseRows;
 			
 			for( int i=rl; i<ru; i++ )
-				if( w[i] != null && !w[i].isEmpty() ) {
-					int wlen = w[i].size();
-					int[] wix = w[i].getIndexContainer();
-					double[] wval = w[i].getValueContainer();
+				if( !w.isEmpty(i) ) {
+					int wpos = w.pos(i);
+					int wlen = w.size(i);
+					int[] wix = w.indexes(i);
+					double[] wval = w.values(i);
 					c[i] = new SparseRow(wlen, n);
 					
-					for( int k=0; k<wlen; k++ ) {
+					for( int k=wpos; k<wpos+wlen; k++ ) {
 						double cval = wsigmoid(wval[k], mU, mV, i, wix[k], flagminus, flaglog, cd);
 						c[i].append(wix[k], cval);
 					}
@@ -2367,26 +2371,27 @@ public class LibMatrixMult
 		final boolean minus = wt.isMinus();
 		final int cd = mU.clen;
 		
-		SparseRow[] w = mW.sparseRows;
+		SparseBlock w = mW.getSparseBlock();
 		double[] u = mU.denseBlock;
 		double[] v = mV.denseBlock;
 		double[] c = ret.denseBlock;
 		
 		//approach: iterate over non-zeros of w, selective mm computation
 		for( int i=rl, uix=rl*cd; i<ru; i++, uix+=cd ) {
-			if( w[i] != null && !w[i].isEmpty() ) {
-				int wlen = w[i].size();
-				int[] wix = w[i].getIndexContainer();
-				double[] wval = w[i].getValueContainer();
+			if( !w.isEmpty(i) ) {
+				int wpos = w.pos(i);
+				int wlen = w.size(i);
+				int[] wix = w.indexes(i);
+				double[] wval = w.values(i);
 			
 				if( basic ) {
-					for( int k=0; k<wlen; k++ )
+					for( int k=wpos; k<wpos+wlen; k++ )
 						ret.appendValue( i, wix[k], wval[k] * dotProduct(u, v, uix, wix[k]*cd, cd));
 				}
 				else { //left/right minus default
-					int k = (cl==0) ? 0 : w[i].searchIndexesFirstGTE(cl);
-					k = (k>=0) ? k : wlen;
-					for( ; k<wlen && wix[k]<cu; k++ )
+					int k = (cl==0) ? wpos : w.posFIndexGTE(i, cl);
+					k = (k>=0) ? k : wpos+wlen;
+					for( ; k<wpos+wlen && wix[k]<cu; k++ )
 						wdivmm(wval[k], u, v, c, uix, wix[k]*cd, left, mult, minus, cd);
 				}
 			}
@@ -2421,16 +2426,17 @@ public class LibMatrixMult
 		//approach: iterate over non-zeros of w, selective mm computation
 		if( mW.sparse ) //SPARSE
 		{
-			SparseRow[] w = mW.sparseRows;
+			SparseBlock w = mW.getSparseBlock();
 			
 			for( int i=rl; i<ru; i++ ) {
-				if( w[i] != null && !w[i].isEmpty() ) {
-					int wlen = w[i].size();
-					int[] wix = w[i].getIndexContainer();
-					double[] wval = w[i].getValueContainer();
-					int k = (cl==0) ? 0 : w[i].searchIndexesFirstGTE(cl);
-					k = (k>=0) ? k : wlen;
-					for( ; k<wlen && wix[k]<cu; k++ ) { 
+				if( !w.isEmpty(i) ) {
+					int wpos = w.pos(i);
+					int wlen = w.size(i);
+					int[] wix = w.indexes(i);
+					double[] wval = w.values(i);
+					int k = (cl==0) ? wpos : w.posFIndexGTE(i, cl);
+					k = (k>=0) ? k : wpos+wlen;
+					for( ; k<wpos+wlen && wix[k]<cu; k++ ) { 
 						if( basic ) {
 							double uvij = dotProductGeneric(mU,mV, i, wix[k], cd);
 							ret.appendValue(i, wix[k], uvij);
@@ -2514,7 +2520,7 @@ public class LibMatrixMult
 	 */
 	private static void matrixMultWCeMMSparseDense(MatrixBlock mW, MatrixBlock mU, MatrixBlock mV, MatrixBlock ret, WCeMMType wt, int rl, int ru)
 	{
-		SparseRow[] w = mW.sparseRows;
+		SparseBlock w = mW.getSparseBlock();
 		double[] u = mU.denseBlock;
 		double[] v = mV.denseBlock;
 		final int cd = mU.clen;
@@ -2522,11 +2528,12 @@ public class LibMatrixMult
 		
 		// approach: iterate over all cells of X and 
 		for( int i=rl, uix=rl*cd; i<ru; i++, uix+=cd ) {
-			if( w[i]!=null && !w[i].isEmpty() ) { 
-				int wlen = w[i].size();
-				int[] wix = w[i].getIndexContainer();
-				double[] wval = w[i].getValueContainer();
-				for( int k=0; k<wlen; k++ ) {
+			if( !w.isEmpty(i) ) { 
+				int wpos = w.pos(i);
+				int wlen = w.size(i);
+				int[] wix = w.indexes(i);
+				double[] wval = w.values(i);
+				for( int k=wpos; k<wpos+wlen; k++ ) {
 					double uvij = dotProduct(u, v, uix, wix[k]*cd, cd);
 					wceval += wval[k] * FastMath.log(uvij);					
 				}
@@ -2556,14 +2563,15 @@ public class LibMatrixMult
 		//approach: iterate over non-zeros of w, selective mm computation
 		if( mW.sparse ) //SPARSE
 		{
-			SparseRow[] w = mW.sparseRows;
+			SparseBlock w = mW.getSparseBlock();
 			
 			for( int i=rl; i<ru; i++ )
-				if( w[i] != null && !w[i].isEmpty() ) {
-					int wlen = w[i].size();
-					int[] wix = w[i].getIndexContainer();
-					double[] wval = w[i].getValueContainer();
-					for( int k=0; k<wlen; k++ ) {
+				if( !w.isEmpty(i) ) {
+					int wpos = w.pos(i);
+					int wlen = w.size(i);
+					int[] wix = w.indexes(i);
+					double[] wval = w.values(i);
+					for( int k=wpos; k<wpos+wlen; k++ ) {
 						double uvij = dotProductGeneric(mU, mV, i, wix[k], cd);
 						wceval += wval[k] * FastMath.log(uvij);	
 					}
@@ -2667,17 +2675,17 @@ public class LibMatrixMult
 		return val; 
 	}
 	
-	private static double dotProduct( double[] a, double[] b, int[] aix, final int bi, final int len )
+	private static double dotProduct( double[] a, double[] b, int[] aix, int ai, final int bi, final int len )
 	{
 		double val = 0;
 		final int bn = len%8;
 				
 		//compute rest
-		for( int i = 0; i < bn; i++ )
+		for( int i = ai; i < ai+bn; i++ )
 			val += a[ i ] * b[ bi+aix[i] ];
 		
 		//unrolled 8-block (for better instruction-level parallelism)
-		for( int i = bn; i < len; i+=8 )
+		for( int i = ai+bn; i < ai+len; i+=8 )
 		{
 			//read 64B cacheline of a
 			//read 64B of b via 'gather'
@@ -3336,12 +3344,35 @@ public class LibMatrixMult
 		
 		return knnz;
 	}
+	
+	/**
+	 * Creates an independent sparse row from row r of the given sparse block,
+	 * which might be in MCSR or (read-only) CSR representation.
+	 * 
+	 * @param a
+	 * @param r
+	 * @return
+	 */
+	private static SparseRow copySparseRow( SparseBlock a, int r )
+	{
+		int apos = a.pos(r);
+		int alen = a.size(r);
+		int[] aix = a.indexes(r);
+		double[] avals = a.values(r);
+		
+		SparseRow ret = new SparseRow(alen);
+		for( int j=apos; j<apos+alen; j++ )
+			ret.append(aix[j], avals[j]);
+		
+		return ret;
+	}
 
 	/**
 	 * 
 	 * @param tasks
 	 * @param ret
 	 */
+
 	private static void sumScalarResults(ArrayList<ScalarResultTask> tasks, MatrixBlock ret)
 	{
 		//aggregate partial results
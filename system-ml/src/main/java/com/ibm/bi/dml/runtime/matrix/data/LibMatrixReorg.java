@@ -25,6 +25,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.DMLUnsupportedOperationException;
@@ -36,6 +37,7 @@ import com.ibm.bi.dml.runtime.matrix.operators.ReorgOperator;
 import com.ibm.bi.dml.runtime.util.DataConverter;
 import com.ibm.bi.dml.runtime.util.SortUtils;
 import com.ibm.bi.dml.runtime.util.UtilFunctions;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 
 /**
  * MB:
@@ -57,6 +59,12 @@ public class LibMatrixReorg
 	public static final boolean SHALLOW_DENSE_ROWWISE_RESHAPE = true;
 	public static final boolean ALLOW_BLOCK_REUSE = false;
 	
+	//minimum number of elements for multi-threaded transpose
+	private static final long PAR_NUMCELL_THRESHOLD = 1024*1024;   //Min 1M elements
+	
+	//blocking according to typical L2 cache sizes (multi-threaded transpose)
+	private static final int TRANSPOSE_BLOCKSIZE = 128;
+	
 	private enum ReorgType {
 		TRANSPOSE,
 		DIAG,
@@ -98,7 +106,10 @@ public class LibMatrixReorg
 		switch( type )
 		{
 			case TRANSPOSE: 
-				return transpose(in, out);
+				if( op.getNumThreads() > 1 )
+					return transpose(in, out, op.getNumThreads());
+				else
+					return transpose(in, out);
 			case DIAG:      
 				return diag(in, out); 
 			case SORT:      
@@ -139,6 +150,70 @@ public class LibMatrixReorg
 		
 		return out;
 	}
+	
+	/**
+	 * Multi-threaded transpose, where each task computes a disjoint range of 
+	 * output rows (i.e., input columns) in a cache-blocked manner. Sparse-to-sparse
+	 * transpose uses two passes: (1) count the non-zeros per output row, and 
+	 * (2) scatter into exactly preallocated output rows (no reallocations).
+	 * 
+	 * @param in
+	 * @param out
+	 * @param k
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public static MatrixBlock transpose( MatrixBlock in, MatrixBlock out, int k ) 
+		throws DMLRuntimeException
+	{
+		//fall back to sequential version if necessary
+		//(vector transpose is a copy, dense-sparse transpose is rare)
+		if(    k <= 1 || (long)in.rlen*in.clen < PAR_NUMCELL_THRESHOLD 
+			|| in.rlen == 1 || in.clen == 1 || in.clen <= k 
+			|| in.isEmptyBlock(false) || (!in.sparse && out.sparse) ) {
+			return transpose(in, out);
+		}
+		
+		//Timing time = new Timing(true);
+		
+		final int n = in.clen;
+		final int m2 = out.rlen;
+		final int n2 = out.clen;
+		
+		//allocate output arrays (incl exact sparse rows via nnz per column)
+		if( in.sparse && out.sparse ) {
+			out.reset(m2, n2, true); //always sparse
+			out.allocateSparseRowsBlock();
+			int[] cnt = countNnzPerColumn(in, k);
+			SparseRow[] c = out.sparseRows;
+			for( int i=0; i<m2; i++ )
+				if( cnt[i] > 0 )
+					c[i] = new SparseRow(cnt[i]);
+		}
+		else {
+			out.reset(m2, n2, false); //always dense
+			out.allocateDenseBlock(false);
+		}
+		
+		//core multi-threaded transpose (parallelization over output rows,
+		//with partitions aligned to the block size of the cache-blocked kernels)
+		try {
+			ArrayList<TransposeTask> tasks = new ArrayList<TransposeTask>();
+			int blklen = (int)(Math.ceil((double)n/k/TRANSPOSE_BLOCKSIZE)*TRANSPOSE_BLOCKSIZE);
+			for( int i=0; i<k & i*blklen<n; i++ )
+				tasks.add(new TransposeTask(in, out, i*blklen, Math.min((i+1)*blklen, n)));
+			KernelThreadPool.invokeAll(tasks, k);	
+		}
+		catch(InterruptedException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		out.nonZeros = in.nonZeros;
+		
+		//System.out.println("r' k="+k+" ("+in.rlen+", "+in.clen+", "+in.sparse+", "+out.sparse+") in "+time.stop()+" ms.");
+		
+		return out;
+	}
 
 	/**
 	 * 
@@ -187,6 +262,9 @@ public class LibMatrixReorg
 	public static MatrixBlock sort(MatrixBlock in, MatrixBlock out, int by, boolean desc, boolean ixret) 
 		throws DMLRuntimeException
 	{
+		//convert read-only csr block if necessary
+		in.csrToSparseRows();
+		
 		//meta data gathering and preparation
 		boolean sparse = in.isInSparseFormat();
 		int rlen = in.rlen;
@@ -649,6 +727,7 @@ public class LibMatrixReorg
 			//we don't need to create a copy, given our copy on write semantics.
 			//however, note that with update in-place this would be an invalid optimization
 			out.denseBlock = in.denseBlock;
+			out.denseBlockShared = in.denseBlockShared;
 			return;
 		}
 		
@@ -857,6 +936,137 @@ public class LibMatrixReorg
 		out.nonZeros = in.nonZeros;
 	}
 	
+	/**
+	 * Cache-blocked transpose of input columns [cl,cu) into the corresponding
+	 * output rows, which allows concurrent computation of disjoint column ranges.
+	 * 
+	 * @param in
+	 * @param out
+	 * @param cl
+	 * @param cu
+	 */
+	private static void transposeDenseToDense(MatrixBlock in, MatrixBlock out, int cl, int cu)
+	{
+		final int m = in.rlen;
+		final int n = in.clen;
+		final int n2 = out.clen;
+		
+		double[] a = in.getDenseArray();
+		double[] c = out.getDenseArray();
+		
+		//blocked execution (w/ column blocks as outer loop for 
+		//locality of output rows, i.e., fewer TLB misses on wide inputs)
+		for( int bj = cl; bj<cu; bj+=TRANSPOSE_BLOCKSIZE )
+			for( int bi = 0; bi<m; bi+=TRANSPOSE_BLOCKSIZE )
+			{
+				int bimin = Math.min(bi+TRANSPOSE_BLOCKSIZE, m);
+				int bjmin = Math.min(bj+TRANSPOSE_BLOCKSIZE, cu);
+				//core transpose operation
+				for( int i=bi; i<bimin; i++ )
+				{
+					int aix = i * n + bj;
+					int cix = bj * n2 + i;
+					transposeRow(a, c, aix, cix, n2, bjmin-bj);
+				}
+			}
+	}
+	
+	/**
+	 * Cache-blocked transpose of input columns [cl,cu) of a sparse input into 
+	 * the corresponding sparse or dense output rows. Sparse output rows are 
+	 * expected to be preallocated, and appends happen in increasing row order.
+	 * 
+	 * @param in
+	 * @param out
+	 * @param cl
+	 * @param cu
+	 */
+	private static void transposeSparse(MatrixBlock in, MatrixBlock out, int cl, int cu)
+	{
+		final int m = in.rlen;
+		final int n2 = out.clen;
+		
+		SparseBlock a = in.getSparseBlock();
+		SparseRow[] c = out.sparse ? out.sparseRows : null;
+		double[] cd = out.sparse ? null : out.getDenseArray();
+		
+		//temporary array for block boundaries (for preventing binary search) 
+		int[] ix = new int[TRANSPOSE_BLOCKSIZE];
+		
+		//blocked execution
+		for( int bi = 0; bi<Math.min(m, a.numRows()); bi+=TRANSPOSE_BLOCKSIZE )
+		{
+			int bimin = Math.min(bi+TRANSPOSE_BLOCKSIZE, Math.min(m, a.numRows()));
+			
+			//find start positions of column range (once per row block)
+			for( int i=bi, iix=0; i<bimin; i++, iix++ )
+				ix[iix] = a.isEmpty(i) ? -1 : a.posFIndexGTE(i, cl);
+			
+			for( int bj = cl; bj<cu; bj+=TRANSPOSE_BLOCKSIZE )
+			{
+				int bjmin = Math.min(bj+TRANSPOSE_BLOCKSIZE, cu);
+				
+				//core transpose operation
+				for( int i=bi, iix=0; i<bimin; i++, iix++ )
+				{
+					if( ix[iix] < 0 ) //empty row or no entries >= cl
+						continue;
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
+					int j = ix[iix]; //last block boundary
+					if( c != null ) {
+						for( ; j<apos+alen && aix[j]<bjmin; j++ )
+							c[aix[j]].append(i, avals[j]);
+					}
+					else {
+						for( ; j<apos+alen && aix[j]<bjmin; j++ )
+							cd[ aix[j]*n2+i ] = avals[j];
+					}
+					ix[iix] = j; //keep block boundary
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Computes the number of non-zeros per column of a sparse input, 
+	 * via partial counts over disjoint row partitions.
+	 * 
+	 * @param in
+	 * @param k
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static int[] countNnzPerColumn(MatrixBlock in, int k) 
+		throws DMLRuntimeException
+	{
+		final int m = in.rlen;
+		final int n = in.clen;
+		int[] cnt = new int[n];
+		
+		try {
+			ArrayList<CountNnzTask> tasks = new ArrayList<CountNnzTask>();
+			int blklen = (int)(Math.ceil((double)m/k));
+			for( int i=0; i<k & i*blklen<m; i++ )
+				tasks.add(new CountNnzTask(in, i*blklen, Math.min((i+1)*blklen, m)));
+			KernelThreadPool.invokeAll(tasks, k);	
+			
+			//aggregate partial counts
+			for( CountNnzTask task : tasks ) {
+				int[] pcnt = task.getResult();
+				for( int j=0; j<n; j++ )
+					cnt[j] += pcnt[j];
+			}
+		}
+		catch(InterruptedException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		return cnt;
+	}
+	
 	/**
 	 * 
 	 * @param a
@@ -955,6 +1165,7 @@ public class LibMatrixReorg
 			//we don't need to create a copy, given our copy on write semantics.
 			//however, note that with update in-place this would be an invalid optimization
 			out.denseBlock = in.denseBlock;
+			out.denseBlockShared = in.denseBlockShared;
 			return;
 		}
 		
@@ -1014,6 +1225,9 @@ public class LibMatrixReorg
 	 */
 	private static void reshapeSparse( MatrixBlock in, MatrixBlock out, int rows, int cols, boolean rowwise )
 	{
+		//convert read-only csr block if necessary
+		in.csrToSparseRows();
+		
 		int rlen = in.rlen;
 		int clen = in.clen;
 		
@@ -1225,6 +1439,9 @@ public class LibMatrixReorg
 	private static void reshapeSparseToDense( MatrixBlock in, MatrixBlock out, int rows, int cols, boolean rowwise ) 
 		throws DMLRuntimeException
 	{
+		//convert read-only csr block if necessary
+		in.csrToSparseRows();
+		
 		int rlen = in.rlen;
 		int clen = in.clen;
 		
@@ -1521,6 +1738,9 @@ public class LibMatrixReorg
             long rows1, long cols1,
             long rows2, long cols2, int brlen2, int bclen2, boolean rowwise )
     {
+		//convert read-only csr block if necessary
+		in.csrToSparseRows();
+		
 		if( in.isEmptyBlock(false) )
 			return;
 		
@@ -1645,6 +1865,9 @@ public class LibMatrixReorg
 	private static MatrixBlock removeEmptyRows(MatrixBlock in, MatrixBlock ret, MatrixBlock select) 
 		throws DMLRuntimeException, DMLUnsupportedOperationException 
 	{	
+		//convert read-only csr block if necessary
+		in.csrToSparseRows();
+		
 		final int m = in.rlen;
 		final int n = in.clen;
 		boolean[] flags = null; 
@@ -1744,6 +1967,9 @@ public class LibMatrixReorg
 	private static MatrixBlock removeEmptyColumns(MatrixBlock in, MatrixBlock ret, MatrixBlock select) 
 		throws DMLRuntimeException, DMLUnsupportedOperationException 
 	{
+		//convert read-only csr block if necessary
+		in.csrToSparseRows();
+		
 		final int m = in.rlen;
 		final int n = in.clen;
 		
@@ -2061,4 +2287,77 @@ public class LibMatrixReorg
 			return (val0 > val1 ? -1 : (val0 == val1 ? 0 : 1));
 		}		
 	}
+	
+	/**
+	 * 
+	 * 
+	 */
+	private static class TransposeTask implements Callable<Object>
+	{
+		private MatrixBlock _in = null;
+		private MatrixBlock _out = null;
+		private int _cl = -1;
+		private int _cu = -1;
+		
+		protected TransposeTask(MatrixBlock in, MatrixBlock out, int cl, int cu)
+		{
+			_in = in;
+			_out = out;
+			_cl = cl;
+			_cu = cu;
+		}
+		
+		@Override
+		public Object call() 
+		{
+			if( !_in.sparse )
+				transposeDenseToDense(_in, _out, _cl, _cu);
+			else
+				transposeSparse(_in, _out, _cl, _cu);
+			
+			return null;
+		}
+	}
+	
+	/**
+	 * 
+	 * 
+	 */
+	private static class CountNnzTask implements Callable<Object>
+	{
+		private MatrixBlock _in = null;
+		private int _rl = -1;
+		private int _ru = -1;
+		private int[] _cnt = null;
+		
+		protected CountNnzTask(MatrixBlock in, int rl, int ru)
+		{
+			_in = in;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Object call() 
+		{
+			SparseBlock a = _in.getSparseBlock();
+			_cnt = new int[_in.clen];
+			
+			for( int i=_rl; i<Math.min(_ru, a.numRows()); i++ ) {
+				if( a.isEmpty(i) )
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				for( int j=apos; j<apos+alen; j++ )
+					_cnt[aix[j]]++;
+			}
+			
+			return null;
+		}
+		
+		public int[] getResult() {
+			return _cnt;
+		}
+	}
 }
@@ -29,7 +29,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.apache.commons.math3.random.Well1024a;
 import org.apache.hadoop.io.DataInputBuffer;
@@ -45,7 +48,6 @@ import com.ibm.bi.dml.parser.DMLTranslator;
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.DMLUnsupportedOperationException;
 import com.ibm.bi.dml.runtime.functionobjects.Builtin;
-import com.ibm.bi.dml.runtime.functionobjects.CM;
 import com.ibm.bi.dml.runtime.functionobjects.CTable;
 import com.ibm.bi.dml.runtime.functionobjects.DiagIndex;
 import com.ibm.bi.dml.runtime.functionobjects.Divide;
@@ -73,10 +75,13 @@ import com.ibm.bi.dml.runtime.matrix.operators.Operator;
 import com.ibm.bi.dml.runtime.matrix.operators.QuaternaryOperator;
 import com.ibm.bi.dml.runtime.matrix.operators.ReorgOperator;
 import com.ibm.bi.dml.runtime.matrix.operators.ScalarOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.SimpleOperator;
 import com.ibm.bi.dml.runtime.matrix.operators.UnaryOperator;
+import com.ibm.bi.dml.runtime.util.BulkSerializationUtils;
 import com.ibm.bi.dml.runtime.util.FastBufferedDataInputStream;
 import com.ibm.bi.dml.runtime.util.FastBufferedDataOutputStream;
 import com.ibm.bi.dml.runtime.util.IndexRange;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 import com.ibm.bi.dml.runtime.util.UtilFunctions;
 
 
@@ -91,11 +96,17 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public static final double ULTRA_SPARSITY_TURN_POINT = 0.00004; 
 	//basic header (int rlen, int clen, byte type)
 	public static final int HEADER_SIZE = 9;
+	//use compressed sparse rows (CSR) for read-only sparse blocks (e.g., on buffer pool restore)
+	public static final boolean READONLY_SPARSE_CSR = true;
+	//minimum number of input cells for multi-threaded ctable (thread-local maps and merge)
+	private static final long PAR_CTABLE_NUMCELL_THRESHOLD = 64*1024;
+	//number of values per chunk for bulk (de)serialization over generic data input/output
+	private static final int BULK_SERIALIZE_BLOCKSIZE = 8*1024;
 	
 	public enum BlockType{
 		EMPTY_BLOCK,  
 		ULTRA_SPARSE_BLOCK, //ultra sparse representation, in-mem same as sparse
-		SPARSE_BLOCK, //sparse representation, see sparseRows 
+		SPARSE_BLOCK, //sparse representation, see sparseRows/sparseBlockCSR 
 		DENSE_BLOCK, //dense representation, see denseBlock			
 	}
 	
@@ -108,6 +119,11 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	//matrix data (sparse or dense)
 	protected double[] denseBlock    = null;
 	protected SparseRow[] sparseRows = null;
+	
+	//read-only sparse representation (CSR), mutually exclusive with sparseRows,
+	//converted back to sparseRows on the first update (see csrToSparseRows)
+	protected volatile SparseBlockCSR sparseBlockCSR = null;
+	protected boolean denseBlockShared = false; //caller-owned dense array (copy on write)
 		
 	//sparse-block-specific attributes (allocation only)
 	protected int estimatedNNzsPerRow = -1; 
@@ -168,6 +184,56 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		this.copy(that);
 	}
 	
+	/**
+	 * Creates a dense block that directly wraps the given row-major array
+	 * (no copy). The array is owned by the caller and must not be modified
+	 * while the block is in use. Any update of the block replaces the array
+	 * by a private copy, hence the caller-owned array is never modified.
+	 * 
+	 * @param rl
+	 * @param cl
+	 * @param arr
+	 * @throws DMLRuntimeException
+	 */
+	public MatrixBlock(int rl, int cl, double[] arr) 
+		throws DMLRuntimeException
+	{
+		this(rl, cl, false);
+		if( arr.length < (long)rl*cl )
+			throw new DMLRuntimeException("Dense array of length "+arr.length+" too small for "+rl+"x"+cl+" block.");
+		
+		denseBlock = arr;
+		denseBlockShared = true;
+		recomputeNonZeros();
+	}
+	
+	/**
+	 * Creates a read-only sparse block in CSR format that directly wraps the 
+	 * given row pointer, column index, and value arrays (no copy). Column indexes 
+	 * need to be sorted per row. Any update converts the block into sparse rows, 
+	 * hence the caller-owned arrays are never modified. 
+	 * 
+	 * @param rl
+	 * @param cl
+	 * @param rowPtr
+	 * @param colInd
+	 * @param values
+	 * @throws DMLRuntimeException
+	 */
+	public MatrixBlock(int rl, int cl, int[] rowPtr, int[] colInd, double[] values) 
+		throws DMLRuntimeException
+	{
+		this(rl, cl, true);
+		if( rowPtr.length != rl+1 )
+			throw new DMLRuntimeException("Row pointer array of length "+rowPtr.length+" does not match "+rl+" rows.");
+		int nnz = rowPtr[rl];
+		if( colInd.length < nnz || values.length < nnz )
+			throw new DMLRuntimeException("Column index or value array too small for "+nnz+" non-zeros.");
+		
+		sparseBlockCSR = new SparseBlockCSR(rowPtr, colInd, values, nnz);
+		nonZeros = nnz;
+	}
+	
 	////////
 	// Initialization methods
 	// (reset, init, allocate, etc)
@@ -188,8 +254,10 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		{
 			if(denseBlock!=null)
 			{
-				if(denseBlock.length<rlen*clen)
-					denseBlock=null;
+				if(denseBlock.length<rlen*clen || denseBlockShared) {
+					denseBlock=null; //no reuse of caller-owned array
+					denseBlockShared=false;
+				}
 				else
 					Arrays.fill(denseBlock, 0, rlen*clen, 0);
 			}
@@ -230,6 +298,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	
 	public void resetSparse()
 	{
+		//drop read-only csr block (no reuse)
+		sparseBlockCSR = null;
+		
 		if(sparseRows!=null)
 		{
 			for(int i=0; i<Math.min(rlen, sparseRows.length); i++)
@@ -241,6 +312,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public void resetDenseWithValue(int rl, int cl, double v) 
 		throws DMLRuntimeException 
 	{	
+		denseBlockCopyOnWrite();
 		estimatedNNzsPerRow=-1;
 		rlen=rl;
 		clen=cl;
@@ -363,7 +435,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public boolean isAllocated()
 	{
 		if( sparse )
-			return (sparseRows!=null);
+			return (sparseRows!=null || sparseBlockCSR!=null);
 		else
 			return (denseBlock!=null);
 	}
@@ -406,9 +478,13 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		}
 		
 		//allocate block if non-existing or too small (guaranteed to be 0-initialized),
+		//otherwise reuse existing block (private copy if caller-owned)
 		if(denseBlock == null || denseBlock.length < limit ) {
 			denseBlock = new double[(int)limit];
+			denseBlockShared = false;
 		}
+		else
+			denseBlockCopyOnWrite();
 		
 		//clear nnz if necessary
 		if( clearNNZ ) {
@@ -430,6 +506,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	 */
 	public void allocateSparseRowsBlock(boolean clearNNZ)
 	{	
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		//allocate block if non-existing or too small (guaranteed to be 0-initialized),
 		if( sparseRows == null ) {
 			sparseRows=new SparseRow[rlen];
@@ -480,8 +559,10 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	{
 		if(dense)
 			denseBlock = null;
-		if(sparse)
+		if(sparse) {
 			sparseRows = null;
+			sparseBlockCSR = null;
+		}
 	}
 	
 	////////
@@ -578,7 +659,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public boolean isEmptyBlock(boolean safe)
 	{
 		boolean ret = false;
-		if( sparse && sparseRows==null )
+		if( sparse && sparseRows==null && sparseBlockCSR==null )
 			ret = true;
 		else if( !sparse && denseBlock==null ) 	
 			ret = true;
@@ -612,20 +693,109 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		return denseBlock;
 	}
 	
+	/**
+	 * Returns the updatable sparse rows (MCSR) of this block, which requires
+	 * the conversion of a read-only CSR block. Read-only kernels should
+	 * use getSparseBlock instead.
+	 * 
+	 * @return
+	 */
 	public SparseRow[] getSparseRows()
 	{
 		if(!sparse)
 			return null;
+		csrToSparseRows();
 		return sparseRows;
 	}
 	
+	/**
+	 * Returns a read-only sparse block abstraction over the current sparse 
+	 * representation (CSR or MCSR), or null if dense or not allocated.
+	 * 
+	 * @return
+	 */
+	public SparseBlock getSparseBlock()
+	{
+		if( !sparse )
+			return null;
+		SparseBlock csr = sparseBlockCSR;
+		if( csr != null )
+			return csr;
+		return (sparseRows!=null) ? new SparseBlockMCSR(sparseRows, rlen) : null;
+	}
+	
+	/**
+	 * Indicates if this block is in read-only compressed sparse rows (CSR) format.
+	 * 
+	 * @return
+	 */
+	public boolean isInSparseCSRFormat()
+	{
+		return sparse && sparseBlockCSR!=null;
+	}
+	
+	/**
+	 * Converts the sparse rows (MCSR) of this block into the more compact
+	 * compressed sparse rows (CSR) format. This should only be used for read-
+	 * mostly blocks because any subsequent update requires the conversion
+	 * back to MCSR. 
+	 */
+	public void sparseRowsToCSR()
+	{
+		if( !sparse || sparseRows==null || sparseBlockCSR!=null )
+			return;
+		
+		//recompute nnz to guarantee a correct csr allocation
+		recomputeNonZeros();
+		if( nonZeros > Integer.MAX_VALUE )
+			return; //keep mcsr
+		
+		sparseBlockCSR = new SparseBlockCSR(sparseRows, rlen, (int)nonZeros);
+		sparseRows = null;
+	}
+	
+	/**
+	 * Converts a read-only CSR block back into updatable sparse rows (MCSR).
+	 * This method is a no-op if the block is not in CSR format. Since read-only
+	 * blocks might be shared across threads, the conversion is synchronized;
+	 * the sparse rows are published before the volatile csr block is cleared.
+	 */
+	protected void csrToSparseRows()
+	{
+		if( sparseBlockCSR == null )
+			return;
+		
+		synchronized( this ) {
+			SparseBlockCSR csr = sparseBlockCSR;
+			if( csr != null ) {
+				sparseRows = csr.toSparseRows(estimatedNNzsPerRow, clen);
+				sparseBlockCSR = null;
+			}
+		}
+	}
+	
+	/**
+	 * Replaces a caller-owned dense array (see MatrixBlock(int,int,double[])) by a 
+	 * private copy before the first update. Analogous to read-only CSR blocks, this 
+	 * method is a no-op for blocks with private dense arrays.
+	 */
+	protected void denseBlockCopyOnWrite()
+	{
+		if( !denseBlockShared )
+			return;
+		
+		if( denseBlock != null )
+			denseBlock = Arrays.copyOf(denseBlock, denseBlock.length);
+		denseBlockShared = false;
+	}
+	
 	public SparseRowsIterator getSparseRowsIterator()
 	{
 		//check for valid format, should have been checked from outside
 		if( !sparse )
 			throw new RuntimeException("getSparseCellInterator should not be called for dense format");
 		
-		return new SparseRowsIterator(rlen, sparseRows);
+		return new SparseRowsIterator(rlen, getSparseBlock());
 	}
 	
 	public SparseRowsIterator getSparseRowsIterator(int rowStart, int rowNum)
@@ -634,7 +804,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		if( !sparse )
 			throw new RuntimeException("getSparseCellInterator should not be called for dense format");
 		
-		return new SparseRowsIterator(rowStart, rowStart+rowNum, sparseRows);
+		return new SparseRowsIterator(rowStart, rowStart+rowNum, getSparseBlock());
 	}
 	
 	@Override
@@ -643,6 +813,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		int limit=rlen*clen;
 		if(sparse)
 		{
+			csrToSparseRows();
 			if(sparseRows==null)
 			{
 				for(int i=0; i<limit; i++)
@@ -681,6 +852,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		int limit=rlen*clen;
 		if(sparse)
 		{
+			csrToSparseRows();
 			if(sparseRows==null)
 			{
 				ret.put(0.0, limit);
@@ -737,6 +909,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		
 		if(sparse)
 		{
+			SparseBlockCSR csr = sparseBlockCSR;
+			if( csr!=null )
+				return csr.get(r, c);
 			if(sparseRows==null || sparseRows.length<=r || sparseRows[r]==null)
 				return 0;
 			return sparseRows[r].get(c);
@@ -751,10 +926,13 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	@Override
 	public void setValue(int r, int c, double v) 
 	{
+		denseBlockCopyOnWrite();
 		if(r>rlen || c > clen)
 			throw new RuntimeException("indexes ("+r+","+c+") out of range ("+rlen+","+clen+")");
 		if(sparse)
 		{
+			//convert read-only csr block if necessary
+			csrToSparseRows();
 			if( (sparseRows==null || sparseRows.length<=r || sparseRows[r]==null) && v==0.0)
 				return;
 			//allocation on demand
@@ -829,6 +1007,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	{
 		if(sparse)
 		{
+			SparseBlockCSR csr = sparseBlockCSR;
+			if( csr!=null )
+				return csr.get(r, c);
 			if( sparseRows==null || sparseRows.length<=r || sparseRows[r]==null )
 				return 0;
 			return sparseRows[r].get(c);
@@ -851,6 +1032,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	{
 		if(sparse)
 		{
+			//convert read-only csr block if necessary
+			csrToSparseRows();
+			
 			//early abort
 			if( (sparseRows==null || sparseRows.length<=r || sparseRows[r]==null) && v==0 )
 				return;
@@ -898,11 +1082,15 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	 */	
 	public void setValueDenseUnsafe(int r, int c, double v) 
 	{
+		denseBlockCopyOnWrite();
 		denseBlock[r*clen+c]=v;		
 	}
 	
 	public double getValueSparseUnsafe(int r, int c) 
 	{
+		SparseBlockCSR csr = sparseBlockCSR;
+		if( csr!=null )
+			return csr.get(r, c);
 		if(sparseRows==null || sparseRows.length<=r || sparseRows[r]==null)
 			return 0;
 		return sparseRows[r].get(c);	
@@ -987,20 +1175,21 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		
 		if( that.sparse ) //SPARSE <- SPARSE
 		{
+			SparseBlock b = that.getSparseBlock();
 			for( int i=0; i<that.rlen; i++ )
 			{
-				SparseRow brow = that.sparseRows[i];
-				if( brow!=null && !brow.isEmpty() )
+				if( !b.isEmpty(i) )
 				{
 					int aix = rowoffset+i;
-					int len = brow.size();
-					int[] ix = brow.getIndexContainer();
-					double[] val = brow.getValueContainer();
+					int pos = b.pos(i);
+					int len = b.size(i);
+					int[] ix = b.indexes(i);
+					double[] val = b.values(i);
 					
 					if( sparseRows[aix]==null )
 						sparseRows[aix] = new SparseRow(estimatedNNzsPerRow,clen);
 					
-					for( int j=0; j<len; j++ )
+					for( int j=pos; j<pos+len; j++ )
 						sparseRows[aix].append(coloffset+ix[j], val[j]);		
 				}
 			}
@@ -1329,7 +1518,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		sparse = false;
 		
 		//early abort on empty blocks
-		if(sparseRows==null)
+		if(sparseRows==null && sparseBlockCSR==null)
 			return;
 		
 		int limit=rlen*clen;
@@ -1341,28 +1530,35 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		allocateDenseBlock(false);
 		Arrays.fill(denseBlock, 0, limit, 0);
 		
-		//copy sparse to dense
-		SparseRow[] a = sparseRows;
+		//copy sparse to dense (from csr or mcsr)
+		SparseBlock a = (sparseBlockCSR!=null) ? 
+				sparseBlockCSR : new SparseBlockMCSR(sparseRows, rlen);
 		double[] c = denseBlock;
 		
-		for( int i=0, cix=0; i<rlen; i++, cix+=clen)
-			if( a[i] != null && !a[i].isEmpty() ) {
-				int alen = a[i].size();
-				int[] aix = a[i].getIndexContainer();
-				double[] avals = a[i].getValueContainer();
-				for(int j=0; j<alen; j++)
+		for( int i=0, cix=0; i<a.numRows(); i++, cix+=clen)
+			if( !a.isEmpty(i) ) {
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for(int j=apos; j<apos+alen; j++)
 					if( avals[j] != 0 )
 						c[ cix+aix[j] ] = avals[j];
 			}
 		
 		//cleanup sparse rows
 		sparseRows = null;
+		sparseBlockCSR = null;
 	}
 
 	public void recomputeNonZeros()
 	{
 		nonZeros=0;
-		if( sparse && sparseRows!=null )
+		if( sparse && sparseBlockCSR!=null )
+		{
+			nonZeros = sparseBlockCSR.size();
+		}
+		else if( sparse && sparseRows!=null )
 		{
 			int limit = Math.min(rlen, sparseRows.length);
 			for(int i=0; i<limit; i++)
@@ -1387,31 +1583,33 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		long nnz = 0;
 		if(sparse)
 		{
-			if(sparseRows!=null)
+			SparseBlock a = getSparseBlock();
+			if(a!=null)
 			{
-				int rlimit = Math.min( ru+1, Math.min(rlen, sparseRows.length) );
+				int rlimit = Math.min( ru+1, a.numRows() );
 				if( cl==0 && cu==clen-1 ) //specific case: all cols
 				{
 					for(int i=rl; i<rlimit; i++)
-						if(sparseRows[i]!=null && !sparseRows[i].isEmpty())
-							nnz+=sparseRows[i].size();	
+						if(!a.isEmpty(i))
+							nnz+=a.size(i);	
 				}
 				else if( cl==cu ) //specific case: one column
 				{
 					for(int i=rl; i<rlimit; i++)
-						if(sparseRows[i]!=null && !sparseRows[i].isEmpty())
-							nnz += (sparseRows[i].get(cl)!=0) ? 1 : 0;
+						if(!a.isEmpty(i))
+							nnz += (a.get(i, cl)!=0) ? 1 : 0;
 				}
 				else //general case
 				{
 					int astart,aend;
 					for(int i=rl; i<rlimit; i++)
-						if(sparseRows[i]!=null && !sparseRows[i].isEmpty())
+						if(!a.isEmpty(i))
 						{
-							SparseRow arow = sparseRows[i];
-							astart = arow.searchIndexesFirstGTE(cl);
-							aend = arow.searchIndexesFirstGTE(cu);
-							nnz += (astart!=-1) ? (aend-astart+1) : 0;
+							astart = a.posFIndexGTE(i, cl);
+							aend = a.posFIndexGTE(i, cu+1);
+							if( aend == -1 ) //all remaining
+								aend = a.pos(i)+a.size(i);
+							nnz += (astart!=-1) ? (aend-astart) : 0;
 						}
 				}
 			}
@@ -1469,6 +1667,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		
 		if( this == that ) //prevent data loss (e.g., on sparse-dense conversion)
 			throw new RuntimeException( "Copy must not overwrite itself!" );
+		denseBlockCopyOnWrite();
 		
 		this.rlen=that.rlen;
 		this.clen=that.clen;
@@ -1493,6 +1692,14 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 			return;
 		}
 	
+		//shallow copy of read-only csr block (immutable, hence safe to share)
+		SparseBlockCSR csr = that.sparseBlockCSR;
+		if( csr != null ) {
+			sparseRows = null;
+			sparseBlockCSR = csr;
+			return;
+		}
+		
 		allocateSparseRowsBlock(false);
 		for(int i=0; i<Math.min(that.sparseRows.length, rlen); i++)
 		{
@@ -1540,14 +1747,17 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		//allocate and init dense block (w/o overwriting nnz)
 		allocateDenseBlock(false);
 		
+		SparseBlock a = that.getSparseBlock();
 		int start=0;
-		for(int r=0; r<Math.min(that.sparseRows.length, rlen); r++, start+=clen)
+		for(int r=0; r<Math.min(a.numRows(), rlen); r++, start+=clen)
 		{
-			if(that.sparseRows[r]==null) 
+			if(a.isEmpty(r)) 
 				continue;
-			double[] values=that.sparseRows[r].getValueContainer();
-			int[] cols=that.sparseRows[r].getIndexContainer();
-			for(int i=0; i<that.sparseRows[r].size(); i++)
+			int apos = a.pos(r);
+			int alen = a.size(r);
+			double[] values=a.values(r);
+			int[] cols=a.indexes(r);
+			for(int i=apos; i<apos+alen; i++)
 			{
 				denseBlock[start+cols[i]]=values[i];
 			}
@@ -1604,6 +1814,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public void copy(int rl, int ru, int cl, int cu, MatrixBlock src, boolean awareDestNZ ) 
 		throws DMLRuntimeException 
 	{	
+		denseBlockCopyOnWrite();
 		if(sparse && src.sparse)
 			copySparseToSparse(rl, ru, cl, cu, src, awareDestNZ);
 		else if(sparse && !src.sparse)
@@ -1616,6 +1827,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 
 	private void copySparseToSparse(int rl, int ru, int cl, int cu, MatrixBlock src, boolean awareDestNZ)
 	{	
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		//handle empty src and dest
 		if( src.isEmptyBlock(false) )
 		{
@@ -1633,24 +1847,25 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		}
 		
 		//copy values
-		int alen;
+		SparseBlock a = src.getSparseBlock();
+		int apos, alen;
 		int[] aix;
 		double[] avals;
 		
 		for( int i=0; i<src.rlen; i++ )
 		{
-			SparseRow arow = src.sparseRows[i];
-			if( arow != null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				alen = arow.size();
-				aix = arow.getIndexContainer();
-				avals = arow.getValueContainer();		
+				apos = a.pos(i);
+				alen = a.size(i);
+				aix = a.indexes(i);
+				avals = a.values(i);		
 				
 				if( sparseRows[rl+i] == null || sparseRows[rl+i].isEmpty()  )
 				{
 					sparseRows[rl+i] = new SparseRow(estimatedNNzsPerRow, clen); 
 					SparseRow brow = sparseRows[rl+i];
-					for( int j=0; j<alen; j++ )
+					for( int j=apos; j<apos+alen; j++ )
 						brow.append(cl+aix[j], avals[j]);
 					
 					if( awareDestNZ )
@@ -1660,17 +1875,17 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 				{
 					SparseRow brow = sparseRows[rl+i];
 					int lnnz = brow.size();
-					if( cl==cu && cl==aix[0] ) 
+					if( cl==cu && cl==aix[apos] ) 
 					{
-						if (avals[0]==0)
+						if (avals[apos]==0)
 							brow.delete(cl);
 						else
-							brow.set(cl, avals[0] );
+							brow.set(cl, avals[apos] );
 					}
 					else
 					{
 						brow.deleteIndexRange(cl, cu);
-						for( int j=0; j<alen; j++ )
+						for( int j=apos; j<apos+alen; j++ )
 							brow.set(cl+aix[j], avals[j]);
 					}
 					nonZeros += (brow.size() - lnnz);
@@ -1680,7 +1895,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 					SparseRow brow = sparseRows[rl+i];
 
 					//brow.set(cl, arow);	
-					for( int j=0; j<alen; j++ )
+					for( int j=apos; j<apos+alen; j++ )
 						brow.set(cl+aix[j], avals[j]);
 				}				
 			}
@@ -1708,20 +1923,21 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		}
 
 		//copy values
-		int alen;
+		SparseBlock a = src.getSparseBlock();
+		int apos, alen;
 		int[] aix;
 		double[] avals;
 		
 		for( int i=0, ix=rl*clen; i<src.rlen; i++, ix+=clen )
 		{	
-			SparseRow arow = src.sparseRows[i];
-			if( arow != null && !arow.isEmpty() )
+			if( !a.isEmpty(i) )
 			{
-				alen = arow.size();
-				aix = arow.getIndexContainer();
-				avals = arow.getValueContainer();
+				apos = a.pos(i);
+				alen = a.size(i);
+				aix = a.indexes(i);
+				avals = a.values(i);
 				
-				for( int j=0; j<alen; j++ )
+				for( int j=apos; j<apos+alen; j++ )
 					denseBlock[ix+cl+aix[j]] = avals[j];
 				
 				if(awareDestNZ)
@@ -1732,6 +1948,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 
 	private void copyDenseToSparse(int rl, int ru, int cl, int cu, MatrixBlock src, boolean awareDestNZ)
 	{
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		//handle empty src and dest
 		if( src.isEmptyBlock(false) )
 		{
@@ -1892,6 +2111,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public void merge(MatrixBlock that, boolean appendOnly) 
 		throws DMLRuntimeException
 	{
+		denseBlockCopyOnWrite();
 		//check for empty input source (nothing to merge)
 		if( that == null || that.isEmptyBlock(false) )
 			return;
@@ -1929,18 +2149,18 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		if( that.sparse ) //DENSE <- SPARSE
 		{
 			double[] a = denseBlock;
-			SparseRow[] b = that.sparseRows;
+			SparseBlock b = that.getSparseBlock();
 			int m = rlen;
 			int n = clen;
 			
 			for( int i=0, aix=0; i<m; i++, aix+=n )
-				if( b[i] != null && !b[i].isEmpty() )
+				if( !b.isEmpty(i) )
 				{
-					SparseRow brow = b[i];
-					int blen = brow.size();
-					int[] bix = brow.getIndexContainer();
-					double[] bval = brow.getValueContainer();
-					for( int j=0; j<blen; j++ )
+					int bpos = b.pos(i);
+					int blen = b.size(i);
+					int[] bix = b.indexes(i);
+					double[] bval = b.values(i);
+					for( int j=bpos; j<bpos+blen; j++ )
 						if( bval[j] != 0 )
 							a[ aix + bix[j] ] = bval[j];
 				}
@@ -1963,29 +2183,35 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	 */
 	private void mergeIntoSparse(MatrixBlock that, boolean appendOnly)
 	{
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		if( that.sparse ) //SPARSE <- SPARSE
 		{
 			SparseRow[] a = sparseRows;
-			SparseRow[] b = that.sparseRows;
+			SparseBlock b = that.getSparseBlock();
 			int m = rlen;
 			
 			for( int i=0; i<m; i++ ) 
 			{
-				if( b[i] != null && !b[i].isEmpty() )
+				if( !b.isEmpty(i) )
 				{
+					int bpos = b.pos(i);
+					int blen = b.size(i);
+					int[] bix = b.indexes(i);
+					double[] bval = b.values(i);
+					
 					if( a[i] == null || a[i].isEmpty() ) {
 						//copy entire sparse row (no sort required)
-						a[i] = new SparseRow(b[i]); 
+						a[i] = new SparseRow(blen); 
+						for( int j=bpos; j<bpos+blen; j++ )
+							a[i].append(bix[j], bval[j]);
 					}
 					else
 					{
 						boolean appended = false;
 						SparseRow arow = a[i];
-						SparseRow brow = b[i];
-						int blen = brow.size();
-						int[] bix = brow.getIndexContainer();
-						double[] bval = brow.getValueContainer();
-						for( int j=0; j<blen; j++ ) {
+						for( int j=bpos; j<bpos+blen; j++ ) {
 							if( bval[j] != 0 ) {
 								arow.append(bix[j], bval[j]);
 								appended = true;
@@ -2027,6 +2253,21 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	@Override
 	public void readFields(DataInput in) 
 		throws IOException 
+	{
+		readFields(in, false);
+	}
+	
+	/**
+	 * Deserializes the matrix block from the given data input. If the block
+	 * is known to be read-only (e.g., on restore from the buffer pool), sparse
+	 * blocks are read into the more compact CSR representation.
+	 * 
+	 * @param in
+	 * @param readOnly
+	 * @throws IOException
+	 */
+	public void readFields(DataInput in, boolean readOnly) 
+		throws IOException 
 	{
 		//read basic header (int rlen, int clen, byte type)
 		rlen = in.readInt();
@@ -2046,7 +2287,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 					nonZeros = readNnzInfo( in, true );
 					sparse = evalSparseFormatInMemory(rlen, clen, nonZeros);
 					cleanupBlock(true, true); //clean all
-					if( sparse )
+					if( sparse && readOnly && READONLY_SPARSE_CSR )
+						readUltraSparseBlockCSR(in);
+					else if( sparse )
 						readUltraSparseBlock(in);
 					else
 						readUltraSparseToDense(in);
@@ -2055,7 +2298,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 					nonZeros = readNnzInfo( in, false );
 					sparse = evalSparseFormatInMemory(rlen, clen, nonZeros);
 					cleanupBlock(sparse, !sparse); 
-					if( sparse )
+					if( sparse && readOnly && READONLY_SPARSE_CSR && nonZeros<=Integer.MAX_VALUE )
+						readSparseBlockCSR(in);
+					else if( sparse )
 						readSparseBlock(in);
 					else
 						readSparseToDense(in);
@@ -2104,13 +2349,15 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 			nonZeros = mbin.readDoubleArray(limit, denseBlock);			
 			((FastBufferedDataInputStream)mbin).close();
 		}
-		else //default deserialize
+		else //default deserialize (chunk-wise bulk conversion)
 		{
-			for( int i=0; i<limit; i++ )
+			byte[] buff = new byte[Math.min(limit, BULK_SERIALIZE_BLOCKSIZE) * 8];
+			int blen = buff.length / 8;
+			for( int i=0; i<limit; i+=blen )
 			{
-				denseBlock[i]=in.readDouble();
-				if(denseBlock[i]!=0)
-					nonZeros++;
+				int lblen = Math.min(blen, limit-i);
+				in.readFully(buff, 0, lblen*8);
+				nonZeros += BulkSerializationUtils.bytesToDoubles(buff, 0, denseBlock, i, lblen);
 			}
 		}
 	}
@@ -2123,6 +2370,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	private void readSparseBlock(DataInput in) 
 		throws IOException 
 	{			
+		sparseBlockCSR = null; //no reuse of read-only csr block
 		allocateSparseRowsBlock(false); 
 		resetSparse(); //reset all sparse rows
 		
@@ -2160,6 +2408,37 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		}
 	}
 	
+	/**
+	 * Reads a serialized sparse block directly into the CSR representation,
+	 * without intermediate sparse rows.
+	 * 
+	 * @param in
+	 * @throws IOException
+	 */
+	private void readSparseBlockCSR(DataInput in) 
+		throws IOException 
+	{
+		int nnz = (int)nonZeros;
+		int[] rptr = new int[rlen+1];
+		int[] indexes = new int[nnz];
+		double[] values = new double[nnz];
+		
+		int pos = 0;
+		for( int r=0; r<rlen; r++ )
+		{
+			rptr[r] = pos;
+			int nr = in.readInt();
+			for( int j=0; j<nr; j++, pos++ ) {
+				indexes[pos] = in.readInt();
+				values[pos] = in.readDouble();
+			}
+		}
+		rptr[rlen] = pos;
+		
+		sparseRows = null;
+		sparseBlockCSR = new SparseBlockCSR(rptr, indexes, values, pos);
+	}
+	
 	/**
 	 * 
 	 * @param in
@@ -2220,6 +2499,36 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		}	
 	}
 	
+	/**
+	 * Reads a serialized ultra-sparse block directly into the CSR representation.
+	 * Since ijv-triples are written in row-major order, we can construct the row 
+	 * pointers via per-row counts and a subsequent prefix sum.
+	 * 
+	 * @param in
+	 * @throws IOException
+	 */
+	private void readUltraSparseBlockCSR(DataInput in) 
+		throws IOException 
+	{
+		//note: ultra-sparse nnz always < rlen, hence int sufficient
+		int nnz = (int)nonZeros;
+		int[] rptr = new int[rlen+1];
+		int[] indexes = new int[nnz];
+		double[] values = new double[nnz];
+		
+		for( int i=0; i<nnz; i++ ) {
+			int r = in.readInt();
+			indexes[i] = (clen > 1) ? in.readInt() : 0;
+			values[i] = in.readDouble();
+			rptr[r+1]++;
+		}
+		for( int r=0; r<rlen; r++ )
+			rptr[r+1] += rptr[r];
+		
+		sparseRows = null;
+		sparseBlockCSR = new SparseBlockCSR(rptr, indexes, values, nnz);
+	}
+	
 	/**
 	 * 
 	 * @param in
@@ -2268,7 +2577,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		if( sparseSrc )
 		{
 			//write sparse to *
-			if( sparseRows==null || nonZeros==0 ) 
+			if( getSparseBlock()==null || nonZeros==0 ) 
 				writeEmptyBlock(out);
 			else if( nonZeros<rlen && sparseDst ) 
 				writeSparseToUltraSparse(out); 
@@ -2317,8 +2626,17 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		if( out instanceof MatrixBlockDataOutput ) //fast serialize
 			((MatrixBlockDataOutput)out).writeDoubleArray(limit, denseBlock);
 		else //general case (if fast serialize not supported)
-			for(int i=0; i<limit; i++)
-				out.writeDouble(denseBlock[i]);
+		{
+			//chunk-wise bulk conversion (e.g., for writables in spark)
+			byte[] buff = new byte[Math.min(limit, BULK_SERIALIZE_BLOCKSIZE) * 8];
+			int blen = buff.length / 8;
+			for( int i=0; i<limit; i+=blen )
+			{
+				int lblen = Math.min(blen, limit-i);
+				BulkSerializationUtils.doublesToBytes(denseBlock, i, lblen, buff, 0);
+				out.write(buff, 0, lblen*8);
+			}
+		}
 	}
 	
 	/**
@@ -2332,22 +2650,24 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		out.writeByte( BlockType.SPARSE_BLOCK.ordinal() );
 		writeNnzInfo( out, false );
 		
+		SparseBlock a = getSparseBlock();
 		if( out instanceof MatrixBlockDataOutput ) //fast serialize
-			((MatrixBlockDataOutput)out).writeSparseRows(rlen, sparseRows);
+			((MatrixBlockDataOutput)out).writeSparseRows(rlen, a);
 		else //general case (if fast serialize not supported)
 		{
 			int r=0;
-			for(;r<Math.min(rlen, sparseRows.length); r++)
+			for(;r<Math.min(rlen, a.numRows()); r++)
 			{
-				if(sparseRows[r]==null)
+				if(a.isEmpty(r))
 					out.writeInt(0);
 				else
 				{
-					int nr=sparseRows[r].size();
+					int pos=a.pos(r);
+					int nr=a.size(r);
 					out.writeInt(nr);
-					int[] cols=sparseRows[r].getIndexContainer();
-					double[] values=sparseRows[r].getValueContainer();
-					for(int j=0; j<nr; j++)
+					int[] cols=a.indexes(r);
+					double[] values=a.values(r);
+					for(int j=pos; j<pos+nr; j++)
 					{
 						out.writeInt(cols[j]);
 						out.writeDouble(values[j]);
@@ -2371,17 +2691,19 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		out.writeByte( BlockType.ULTRA_SPARSE_BLOCK.ordinal() );
 		writeNnzInfo( out, true );
 		
+		SparseBlock a = getSparseBlock();
 		long wnnz = 0;
 		if( clen > 1 ) //ULTRA-SPARSE BLOCK
 		{
 			//block: write ijv-triples
-			for(int r=0;r<Math.min(rlen, sparseRows.length); r++)
-				if(sparseRows[r]!=null && !sparseRows[r].isEmpty() )
+			for(int r=0;r<Math.min(rlen, a.numRows()); r++)
+				if( !a.isEmpty(r) )
 				{
-					int alen = sparseRows[r].size();
-					int[] aix = sparseRows[r].getIndexContainer();
-					double[] avals = sparseRows[r].getValueContainer();
-					for(int j=0; j<alen; j++) {
+					int apos = a.pos(r);
+					int alen = a.size(r);
+					int[] aix = a.indexes(r);
+					double[] avals = a.values(r);
+					for(int j=apos; j<apos+alen; j++) {
 						//ultra-sparse block: write ijv-triples
 						out.writeInt(r);
 						out.writeInt(aix[j]);
@@ -2393,10 +2715,10 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		else //ULTRA-SPARSE COL
 		{
 			//block: write iv-pairs (should never happen since always dense)
-			for(int r=0;r<Math.min(rlen, sparseRows.length); r++)
-				if(sparseRows[r]!=null && !sparseRows[r].isEmpty() ) {
+			for(int r=0;r<Math.min(rlen, a.numRows()); r++)
+				if( !a.isEmpty(r) ) {
 					out.writeInt(r);
-					out.writeDouble(sparseRows[r].getValueContainer()[0]);
+					out.writeDouble(a.values(r)[a.pos(r)]);
 					wnnz++;
 				}
 		}
@@ -2419,27 +2741,28 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		out.writeByte( BlockType.DENSE_BLOCK.ordinal() );
 		
 		//write data (from sparse to dense)
-		if( sparseRows==null ) //empty block
+		SparseBlock a = getSparseBlock();
+		if( a==null ) //empty block
 			for( int i=0; i<rlen*clen; i++ )
 				out.writeDouble(0);
 		else //existing sparse block
 		{
 			for( int i=0; i<rlen; i++ )
 			{
-				if( i<sparseRows.length && sparseRows[i]!=null && !sparseRows[i].isEmpty() )
+				if( i<a.numRows() && !a.isEmpty(i) )
 				{
-					SparseRow arow = sparseRows[i];
-					int alen = arow.size();
-					int[] aix = arow.getIndexContainer();
-					double[] avals = arow.getValueContainer();
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
 					//foreach non-zero value, fill with 0s if required
-					for( int j=0, j2=0; j2<alen; j++, j2++ ) {
+					for( int j=0, j2=apos; j2<apos+alen; j++, j2++ ) {
 						for( ; j<aix[j2]; j++ )
 							out.writeDouble( 0 );
 						out.writeDouble( avals[j2] );
 					}					
 					//remaining 0 values in row
-					for( int j=aix[alen-1]+1; j<clen; j++)
+					for( int j=aix[apos+alen-1]+1; j<clen; j++)
 						out.writeDouble( 0 );
 				}
 				else //empty row
@@ -2642,7 +2965,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		if( sparseSrc )
 		{
 			//write sparse to *
-			if(sparseRows==null || lnonZeros==0)
+			if(getSparseBlock()==null || lnonZeros==0)
 				return HEADER_SIZE; //empty block
 			else if( lnonZeros<lrlen && sparseDst )
 				return estimateSizeUltraSparseOnDisk(lrlen, lclen, lnonZeros); //ultra sparse block
@@ -2674,6 +2997,11 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	 */
 	public long estimateSizeInMemory() 
 	{
+		//exact size of read-only csr block (smaller than the mcsr estimate)
+		SparseBlockCSR csr = sparseBlockCSR;
+		if( sparse && csr != null )
+			return 44 + csr.getExactSizeInMemory();
+		
 		double sp = OptimizerUtils.getSparsity(rlen, clen, nonZeros);
 		return estimateSizeInMemory(rlen, clen, sp);
 	}
@@ -2955,7 +3283,10 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 			ret.reset(rlen, clen, sp, this.nonZeros);
 		
 		//core scalar operations
-		LibMatrixBincell.bincellOp(this, ret, op);
+		if( op.getNumThreads() > 1 )
+			LibMatrixBincell.bincellOp(this, ret, op, op.getNumThreads());
+		else
+			LibMatrixBincell.bincellOp(this, ret, op);
 		
 		return ret;
 	}
@@ -2986,6 +3317,11 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 			//e.g., cumsum/cumprod/cummin/cumax
 			LibMatrixAgg.aggregateUnaryMatrix(this, ret, op);
 		}
+		else if( LibMatrixBincell.satisfiesMultiThreadingConstraints(this, op.getNumThreads()) )
+		{
+			//multi-threaded execute unary operations (row partitions)
+			LibMatrixBincell.unaryOp(this, ret, op, op.getNumThreads());
+		}
 		else
 		{
 			//default execute unary operations
@@ -3021,16 +3357,17 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		
 		if( sparse ) //SPARSE <- SPARSE
 		{
-			SparseRow[] a = sparseRows;
+			SparseBlock a = getSparseBlock();
 			
 			for(int i=0; i<m; i++) {
-				if( a[i]!=null && !a[i].isEmpty() )
+				if( !a.isEmpty(i) )
 				{
-					int alen = a[i].size();
-					int[] aix = a[i].getIndexContainer();
-					double[] avals = a[i].getValueContainer();
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
 					
-					for( int j=0; j<alen; j++ ) {
+					for( int j=apos; j<apos+alen; j++ ) {
 						double val = op.fn.execute(avals[j]);
 						ret.appendValue(i, aix[j], val);
 					}
@@ -3096,6 +3433,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public void unaryOperationsInPlace(UnaryOperator op) 
 		throws DMLUnsupportedOperationException, DMLRuntimeException
 	{
+		denseBlockCopyOnWrite();
 		if(op.sparseSafe)
 			sparseUnaryOperationsInPlace(op);
 		else
@@ -3118,6 +3456,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		
 		if(sparse)
 		{
+			//convert read-only csr block if necessary
+			csrToSparseRows();
+			
 			nonZeros=0;
 			for(int r=0; r<Math.min(rlen, sparseRows.length); r++)
 			{
@@ -3221,7 +3562,10 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 			ret.reset(rows, cols, resultSparse.sparse, resultSparse.estimatedNonZeros);
 		
 		//core binary cell operation
-		LibMatrixBincell.bincellOp( this, that, ret, op );
+		if( op.getNumThreads() > 1 )
+			LibMatrixBincell.bincellOp( this, that, ret, op, op.getNumThreads() );
+		else
+			LibMatrixBincell.bincellOp( this, that, ret, op );
 		
 		return ret;
 	}
@@ -3232,6 +3576,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public void binaryOperationsInPlace(BinaryOperator op, MatrixValue thatValue) 
 		throws DMLUnsupportedOperationException, DMLRuntimeException
 	{
+		denseBlockCopyOnWrite();
 		MatrixBlock that=checkType(thatValue);
 		if( !LibMatrixBincell.isValidDimensionsBinary(this, that) ) {
 			throw new RuntimeException("block sizes are not matched for binary " +
@@ -3255,6 +3600,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 			MatrixValue newWithCorrection)
 	throws DMLUnsupportedOperationException, DMLRuntimeException
 	{
+		denseBlockCopyOnWrite();
 		//assert(aggOp.correctionExists); 
 		MatrixBlock cor=checkType(correction);
 		MatrixBlock newWithCor=checkType(newWithCorrection);
@@ -3422,6 +3768,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public void incrementalAggregate(AggregateOperator aggOp, MatrixValue newWithCorrection)
 		throws DMLUnsupportedOperationException, DMLRuntimeException
 	{
+		denseBlockCopyOnWrite();
 		//assert(aggOp.correctionExists);
 		MatrixBlock newWithCor=checkType(newWithCorrection);
 		KahanObject buffer=new KahanObject(0, 0);
@@ -3589,6 +3936,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 			CellIndex temp = new CellIndex(0, 0);
 			if(sparse)
 			{
+				csrToSparseRows();
 				if(sparseRows!=null)
 				{
 					for(int r=0; r<Math.min(rlen, sparseRows.length); r++)
@@ -4011,14 +4359,15 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		if( isEmptyBlock(false) ) 
 			return;
 		
+		SparseBlock a = getSparseBlock();
+		
 		if( cl==cu ) //COLUMN VECTOR 
 		{
 			//note: always dense dest
 			dest.allocateDenseBlock();
 			for( int i=rl; i<=ru; i++ ) {
-				SparseRow arow = sparseRows[i];
-				if( arow != null && !arow.isEmpty() ) {
-					double val = arow.get(cl);
+				if( !a.isEmpty(i) ) {
+					double val = a.get(i, cl);
 					if( val != 0 ) {
 						dest.denseBlock[i-rl] = val;
 						dest.nonZeros++;
@@ -4026,7 +4375,7 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 				}
 			}
 		}
-		else if( rl==ru && cl==0 && cu==clen-1 ) //ROW VECTOR 
+		else if( rl==ru && cl==0 && cu==clen-1 && a instanceof SparseBlockMCSR ) //ROW VECTOR 
 		{
 			//note: always sparse dest, but also works for dense
 			dest.appendRow(0, sparseRows[rl]);
@@ -4034,15 +4383,15 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		else //general case (sparse/dense dest)
 		{
 			for(int i=rl; i <= ru; i++) 
-				if(sparseRows[i] != null && !sparseRows[i].isEmpty()) 
+				if( !a.isEmpty(i) ) 
 				{
-					SparseRow arow = sparseRows[i];
-					int alen = arow.size();
-					int[] aix = arow.getIndexContainer();
-					double[] avals = arow.getValueContainer();
-					int astart = (cl>0)?arow.searchIndexesFirstGTE(cl):0;
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
+					int astart = (cl>0) ? a.posFIndexGTE(i, cl) : apos;
 					if( astart != -1 )
-						for( int j=astart; j<alen && aix[j] <= cu; j++ )
+						for( int j=astart; j<apos+alen && aix[j] <= cu; j++ )
 							dest.appendValue(i-rl, aix[j]-cl, avals[j]);	
 				}
 		}
@@ -4100,6 +4449,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public void sliceOperations(ArrayList<IndexedMatrixValue> outlist, IndexRange range, int rowCut, int colCut, 
 			int normalBlockRowFactor, int normalBlockColFactor, int boundaryRlen, int boundaryClen)
 	{
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		MatrixBlock topleft=null, topright=null, bottomleft=null, bottomright=null;
 		Iterator<IndexedMatrixValue> p=outlist.iterator();
 		int blockRowFactor=normalBlockRowFactor, blockColFactor=normalBlockColFactor;
@@ -4251,6 +4603,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public MatrixValue zeroOutOperations(MatrixValue result, IndexRange range, boolean complementary)
 			throws DMLUnsupportedOperationException, DMLRuntimeException 
 	{
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		checkType(result);
 		double currentSparsity=(double)nonZeros/(double)rlen/(double)clen;
 		double estimatedSps=currentSparsity*(double)(range.rowEnd-range.rowStart+1)
@@ -4416,6 +4771,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	private void sparseAggregateUnaryHelp(AggregateUnaryOperator op, MatrixBlock result,
 			int blockingFactorRow, int blockingFactorCol, MatrixIndexes indexesIn) throws DMLRuntimeException
 	{
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		//initialize result
 		if(op.aggOp.initialValue!=0)
 			result.resetDenseWithValue(result.rlen, result.clen, op.aggOp.initialValue);
@@ -4560,6 +4918,10 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	 */
 	public void dropLastRowsOrColums(CorrectionLocationType correctionLocation) 
 	{
+		denseBlockCopyOnWrite();
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		//do nothing 
 		if(   correctionLocation==CorrectionLocationType.NONE 
 	       || correctionLocation==CorrectionLocationType.INVALID )
@@ -4653,6 +5015,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public CM_COV_Object cmOperations(CMOperator op) 
 		throws DMLRuntimeException 
 	{
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		// dimension check for input column vectors
 		if ( this.getNumColumns() != 1) {
 			throw new DMLRuntimeException("Central Moment can not be computed on [" 
@@ -4697,6 +5062,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public CM_COV_Object cmOperations(CMOperator op, MatrixBlock weights) 
 		throws DMLRuntimeException 
 	{
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		/* this._data must be a 1 dimensional vector */
 		if ( this.getNumColumns() != 1 || weights.getNumColumns() != 1) {
 			throw new DMLRuntimeException("Central Moment can be computed only on 1-dimensional column matrices.");
@@ -4736,6 +5104,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public CM_COV_Object covOperations(COVOperator op, MatrixBlock that) 
 		throws DMLRuntimeException 
 	{
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		/* this._data must be a 1 dimensional vector */
 		if ( this.getNumColumns() != 1 || that.getNumColumns() != 1 ) {
 			throw new DMLRuntimeException("Covariance can be computed only on 1-dimensional column matrices."); 
@@ -4775,6 +5146,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public CM_COV_Object covOperations(COVOperator op, MatrixBlock that, MatrixBlock weights) 
 		throws DMLRuntimeException 
 	{
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		/* this._data must be a 1 dimensional vector */
 		if ( this.getNumColumns() != 1 || that.getNumColumns() != 1 || weights.getNumColumns() != 1) {
 			throw new DMLRuntimeException("Covariance can be computed only on 1-dimensional column matrices."); 
@@ -5170,6 +5544,25 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	 */
 	public MatrixValue groupedAggOperations(MatrixValue tgt, MatrixValue wghts, MatrixValue ret, int ngroups, Operator op) 
 		throws DMLRuntimeException, DMLUnsupportedOperationException 
+	{
+		return groupedAggOperations(tgt, wghts, ret, ngroups, op, 1);
+	}
+	
+	/**
+	 * Multi-threaded grouped aggregate, see groupedAggOperations(tgt, wghts, ret, ngroups, op).
+	 * 
+	 * @param tgt
+	 * @param wghts
+	 * @param ret
+	 * @param ngroups
+	 * @param op
+	 * @param k
+	 * @return
+	 * @throws DMLRuntimeException
+	 * @throws DMLUnsupportedOperationException
+	 */
+	public MatrixValue groupedAggOperations(MatrixValue tgt, MatrixValue wghts, MatrixValue ret, int ngroups, Operator op, int k) 
+		throws DMLRuntimeException, DMLUnsupportedOperationException 
 	{
 		//setup input matrices
 		// this <- groups
@@ -5212,138 +5605,15 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		else
 			result.reset(numGroups, 1, result_sparsity);
 
-		// Compute the result
-		double w = 1; // default weight
-		
-		//CM operator for count, mean, variance
-		//note: current support only for column vectors
-		if(op instanceof CMOperator) {
-			// initialize required objects for storing the result of CM operations
-			CM cmFn = CM.getCMFnObject(((CMOperator) op).getAggOpType());
-			CM_COV_Object[] cmValues = new CM_COV_Object[numGroups];
-			for ( int i=0; i < numGroups; i++ )
-				cmValues[i] = new CM_COV_Object();
-			
-			for ( int i=0; i < this.getNumRows(); i++ ) {
-				int g = (int) this.quickGetValue(i, 0);
-				if ( g > numGroups )
-					continue;
-				double d = target.quickGetValue(i,0);
-				if ( weights != null )
-					w = weights.quickGetValue(i,0);
-				// cmValues is 0-indexed, whereas range of values for g = [1,numGroups]
-				cmFn.execute(cmValues[g-1], d, w); 
-			}
-			
-			// extract the required value from each CM_COV_Object
-			for ( int i=0; i < numGroups; i++ )
-				// result is 0-indexed, so is cmValues
-				result.quickSetValue(i, 0, cmValues[i].getRequiredResult(op));
-		}
-		//Aggregate operator for sum (via kahan sum)
-		//note: support for row/column vectors and dense/sparse
-		else if( op instanceof AggregateOperator ) 
-		{
-			//the only aggregate operator that is supported here is sum,
-			//furthermore, we always use KahanPlus and hence aggop.correctionExists is true
-			
-			AggregateOperator aggop = (AggregateOperator) op;
-				
-			//default case for aggregate(sum)
-			groupedAggregateKahanPlus(target, weights, result, aggop);
-		}
-		else
-			throw new DMLRuntimeException("Invalid operator (" + op + ") encountered while processing groupedAggregate.");
+		// Compute the result (multi-threaded for large inputs)
+		//note: cm operators only supported for column vectors, sum 
+		//for row/column vectors and dense/sparse (sparse-safe)
+		LibMatrixAgg.groupedAggregate(this, target, weights, result, numGroups, op, k);
 		
 		return result;
 	}
 	
 
-	/**
-	 * This is a specific implementation for aggregate(fn="sum"), where we use KahanPlus for numerical
-	 * stability. In contrast to other functions of aggregate, this implementation supports row and column
-	 * vectors for target and exploits sparse representations since KahanPlus is sparse-safe.
-	 * 
-	 * @param target
-	 * @param weights
-	 * @param op
-	 * @throws DMLRuntimeException 
-	 */
-	private void groupedAggregateKahanPlus( MatrixBlock target, MatrixBlock weights, MatrixBlock result, AggregateOperator aggop ) throws DMLRuntimeException
-	{
-		boolean rowVector = target.getNumColumns()>1;
-		double w = 1; //default weight
-		
-		//skip empty blocks (sparse-safe operation)
-		if( target.isEmptyBlock(false) ) 
-			return;
-		
-		//init group buffers
-		KahanObject[] buffer = new KahanObject[numGroups];
-		for(int i=0; i < numGroups; i++ )
-			buffer[i] = new KahanObject(aggop.initialValue, 0);
-			
-		if( rowVector ) //target is rowvector
-		{	
-			if( target.sparse ) //SPARSE target
-			{
-				if( target.sparseRows[0]!=null )
-				{
-					int len = target.sparseRows[0].size();
-					int[] aix = target.sparseRows[0].getIndexContainer();
-					double[] avals = target.sparseRows[0].getValueContainer();	
-					for( int j=0; j<len; j++ ) //for each nnz
-					{
-						int g = (int) this.quickGetValue(aix[j], 0);		
-						if ( g > numGroups )
-							continue;
-						if ( weights != null )
-							w = weights.quickGetValue(aix[j],0);
-						aggop.increOp.fn.execute(buffer[g-1], avals[j]*w);						
-					}
-				}
-					
-			}
-			else //DENSE target
-			{
-				for ( int i=0; i < target.getNumColumns(); i++ ) {
-					double d = target.denseBlock[ i ];
-					if( d != 0 ) //sparse-safe
-					{
-						int g = (int) this.quickGetValue(i, 0);		
-						if ( g > numGroups )
-							continue;
-						if ( weights != null )
-							w = weights.quickGetValue(i,0);
-						// buffer is 0-indexed, whereas range of values for g = [1,numGroups]
-						aggop.increOp.fn.execute(buffer[g-1], d*w);
-					}
-				}
-			}
-		}
-		else //column vector (always dense, but works for sparse as well)
-		{
-			for ( int i=0; i < this.getNumRows(); i++ ) 
-			{
-				double d = target.quickGetValue(i,0);
-				if( d != 0 ) //sparse-safe
-				{
-					int g = (int) this.quickGetValue(i, 0);		
-					if ( g > numGroups )
-						continue;
-					if ( weights != null )
-						w = weights.quickGetValue(i,0);
-					// buffer is 0-indexed, whereas range of values for g = [1,numGroups]
-					aggop.increOp.fn.execute(buffer[g-1], d*w);
-				}
-			}
-		}
-		
-		// extract the results from group buffers
-		for ( int i=0; i < numGroups; i++ )
-			result.quickSetValue(i, 0, buffer[i]._sum);
-	}
-
 	/**
 	 * 
 	 * @param ret
@@ -5397,6 +5667,9 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 	public MatrixValue replaceOperations(MatrixValue result, double pattern, double replacement) 
 		throws DMLUnsupportedOperationException, DMLRuntimeException
 	{
+		//convert read-only csr block if necessary
+		csrToSparseRows();
+		
 		MatrixBlock ret = checkType(result);
 		examSparsity(); //ensure its in the right format
 		ret.reset(rlen, clen, sparse);
@@ -5503,6 +5776,13 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		CTable ctable = CTable.getCTableFnObject();
 		double v2 = scalarThat;
 		
+		//multi-threaded ctable over row partitions (if beneficial)
+		int k = getCTableNumThreads(op);
+		if( k > 1 ) {
+			ternaryOperationsParallel(null, v2, that2, 0, false, resultMap, resultBlock, k);
+			return;
+		}
+		
 		//sparse-unsafe ctable execution
 		//(because input values of 0 are invalid and have to result in errors) 
 		if ( resultBlock == null ) {
@@ -5543,6 +5823,13 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		double v2 = scalarThat;
 		double w = scalarThat2;
 		
+		//multi-threaded ctable over row partitions (if beneficial)
+		int k = getCTableNumThreads(op);
+		if( k > 1 ) {
+			ternaryOperationsParallel(null, v2, null, w, false, resultMap, resultBlock, k);
+			return;
+		}
+		
 		//sparse-unsafe ctable execution
 		//(because input values of 0 are invalid and have to result in errors) 
 		if ( resultBlock == null ) { 
@@ -5637,29 +5924,35 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 			if( this.isEmptyBlock(false) && that.isEmptyBlock(false) )
 				return;
 			
-			SparseRow[] a = this.sparseRows;
-			SparseRow[] b = that.sparseRows;
+			SparseBlock a = this.getSparseBlock();
+			SparseBlock b = that.getSparseBlock();
 			for( int i=0; i<rlen; i++ )
 			{
-				SparseRow arow = a[i];
-				SparseRow brow = b[i];
-				if( arow != null && !arow.isEmpty() )
+				if( !a.isEmpty(i) )
 				{
-					int alen = arow.size();
-					double[] avals = arow.getValueContainer();
-					double[] bvals = brow.getValueContainer();
+					int apos = a.pos(i);
+					int bpos = b.pos(i);
+					int alen = a.size(i);
+					double[] avals = a.values(i);
+					double[] bvals = b.values(i);
 					
 					if( resultBlock == null ) {
 						for( int j=0; j<alen; j++ )
-							ctable.execute(avals[j], bvals[j], w, ignoreZeros, resultMap);		
+							ctable.execute(avals[apos+j], bvals[bpos+j], w, ignoreZeros, resultMap);		
 					}
 					else {
 						for( int j=0; j<alen; j++ )
-							ctable.execute(avals[j], bvals[j], w, ignoreZeros, resultBlock);			
+							ctable.execute(avals[apos+j], bvals[bpos+j], w, ignoreZeros, resultBlock);			
 					}
 				}
 			}	
 		}
+		else if( getCTableNumThreads(op) > 1 ) //MULTI-THREADED GENERIC INPUTS
+		{
+			//multi-threaded ctable over row partitions (incl nnz maintenance)
+			ternaryOperationsParallel(that, 0, null, w, ignoreZeros, resultMap, resultBlock, getCTableNumThreads(op));
+			return;
+		}
 		else //SPARSE-UNSAFE | GENERIC INPUTS
 		{
 			//sparse-unsafe ctable execution
@@ -5733,6 +6026,13 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		MatrixBlock that2 = checkType(that2Val);
 		CTable ctable = CTable.getCTableFnObject();
 		
+		//multi-threaded ctable over row partitions (if beneficial)
+		int k = getCTableNumThreads(op);
+		if( k > 1 ) {
+			ternaryOperationsParallel(that, 0, that2, 0, false, resultMap, resultBlock, k);
+			return;
+		}
+		
 		//sparse-unsafe ctable execution
 		//(because input values of 0 are invalid and have to result in errors) 
 		if(resultBlock == null) 
@@ -5760,6 +6060,117 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		}
 	}
 	
+	/**
+	 * Get the degree of parallelism for ctable operations, where we 
+	 * use a single thread for small inputs.
+	 * 
+	 * @param op
+	 * @return
+	 */
+	private int getCTableNumThreads(Operator op)
+	{
+		int k = (op instanceof SimpleOperator) ? ((SimpleOperator)op).getNumThreads() : 1;
+		return ((long)rlen*clen >= PAR_CTABLE_NUMCELL_THRESHOLD) ? k : 1;
+	}
+	
+	/**
+	 * Multi-threaded ctable D = ctable(this, B or v2, W or w), which computes
+	 * thread-local ctables over row partitions of the inputs and merges them 
+	 * into the result block (if output dimensions known and dense) or the 
+	 * result map. 
+	 * 
+	 * @param that input B (or null for scalar v2)
+	 * @param scalarThat scalar v2
+	 * @param that2 input W (or null for scalar w)
+	 * @param scalarThat2 scalar w
+	 * @param ignoreZeros
+	 * @param resultMap
+	 * @param resultBlock
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	private void ternaryOperationsParallel(MatrixBlock that, double scalarThat, MatrixBlock that2, double scalarThat2, 
+			boolean ignoreZeros, CTableMap resultMap, MatrixBlock resultBlock, int k) 
+		throws DMLRuntimeException
+	{
+		try
+		{
+			//compute thread-local ctables over row partitions
+			ArrayList<CTableTask> tasks = new ArrayList<CTableTask>();
+			int blklen = (int)(Math.ceil((double)rlen/k));
+			for( int i=0; i<k & i*blklen<rlen; i++ )
+				tasks.add(new CTableTask(this, that, scalarThat, that2, scalarThat2, 
+						ignoreZeros, i*blklen, Math.min((i+1)*blklen, rlen)));
+			List<Future<CTableMap>> rtasks = KernelThreadPool.invokeAll(tasks, k);	
+			
+			//merge partial ctables (incl error handling of invalid inputs)
+			for( Future<CTableMap> rtask : rtasks ) {
+				CTableMap partial = rtask.get();
+				if( resultBlock != null )
+					partial.addToMatrixBlock(resultBlock);
+				else
+					resultMap.aggregate(partial);
+			}
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		//maintain nnz (if necessary)
+		if( resultBlock != null )
+			resultBlock.recomputeNonZeros();
+	}
+	
+	/**
+	 * Task for computing a partial ctable over a row partition, where
+	 * v2 and w are either taken from matrices or scalars.
+	 */
+	private static class CTableTask implements Callable<CTableMap> 
+	{
+		private MatrixBlock _in1 = null;
+		private MatrixBlock _in2 = null;
+		private double _scalar2 = 0;
+		private MatrixBlock _in3 = null;
+		private double _scalar3 = 0;
+		private boolean _ignoreZeros = false;
+		private int _rl = -1;
+		private int _ru = -1;
+		
+		protected CTableTask( MatrixBlock in1, MatrixBlock in2, double scalar2, MatrixBlock in3, double scalar3, 
+				boolean ignoreZeros, int rl, int ru )
+		{
+			_in1 = in1;
+			_in2 = in2;
+			_scalar2 = scalar2;
+			_in3 = in3;
+			_scalar3 = scalar3;
+			_ignoreZeros = ignoreZeros;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public CTableMap call() throws DMLRuntimeException
+		{
+			CTable ctable = CTable.getCTableFnObject();
+			CTableMap ret = new CTableMap();
+			int clen = _in1.clen;
+			
+			//sparse-unsafe ctable execution
+			//(because input values of 0 are invalid and have to result in errors) 
+			for( int i=_rl; i<_ru; i++ )
+				for( int j=0; j<clen; j++ )
+				{
+					double v1 = _in1.quickGetValue(i, j);
+					double v2 = (_in2 != null) ? _in2.quickGetValue(i, j) : _scalar2;
+					double w = (_in3 != null) ? _in3.quickGetValue(i, j) : _scalar3;
+					ctable.execute(v1, v2, w, _ignoreZeros, ret);
+				}
+			
+			return ret;
+		}
+	}
+	
 	@Override
 	public MatrixValue quaternaryOperations(QuaternaryOperator qop, MatrixValue um, MatrixValue vm, MatrixValue wm, MatrixValue out)
 		throws DMLUnsupportedOperationException, DMLRuntimeException
@@ -6117,7 +6528,11 @@ public class MatrixBlock extends MatrixValue implements Externalizable
 		sb.append(clen);
 		sb.append("\n");
 		
-		if(sparse)
+		if(sparse && sparseBlockCSR!=null)
+		{
+			sb.append(sparseBlockCSR.toString());
+		}
+		else if(sparse)
 		{
 			int len=0;
 			if(sparseRows!=null)
@@ -28,6 +28,7 @@ import java.io.IOException;
  * Known implementation classes:
  *    - FastBufferedDataInputStream
  *    - CacheDataInput
+ *    - OffHeapDataInput
  *    
  */
 public interface MatrixBlockDataInput 
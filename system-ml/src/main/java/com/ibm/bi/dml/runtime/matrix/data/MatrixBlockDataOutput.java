@@ -29,6 +29,7 @@ import java.io.IOException;
  * Known implementation classes:
  *    - CacheDataOutput (cache serialization into in-memory write buffer)
  *    - FastBufferedDataOutputStream (cache eviction to local file system)
+ *    - OffHeapDataOutput (cache eviction to off-heap buffer pool tier)
  * 
  */
 public interface MatrixBlockDataOutput 
@@ -44,12 +45,13 @@ public interface MatrixBlockDataOutput
 		throws IOException;
 	
 	/**
-	 * Writes the sparse rows array of a sparse block to the data output.
+	 * Writes the sparse rows of a sparse block (MCSR or CSR) to the data output.
 	 * 
 	 * @param rlen
 	 * @param rows
 	 * @throws IOException
 	 */
-	public void writeSparseRows(int rlen, SparseRow[] rows) 
+	public void writeSparseRows(int rlen, SparseBlock rows) 
+
 		throws IOException;
 }
@@ -0,0 +1,171 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.ibm.bi.dml.runtime.matrix.data;
+
+import java.io.Serializable;
+
+/**
+ * Abstraction of the sparse representation of a matrix block, which allows
+ * kernels to read sparse data independent of the physical layout. Every row
+ * is exposed as a (pos, size) range into the index and value arrays returned
+ * by indexes(r) and values(r), i.e., the non-zeros of row r are at positions
+ * pos(r) to pos(r)+size(r)-1, ordered by column index.
+ *
+ * Known implementation classes:
+ *    - SparseBlockMCSR (modified CSR, one SparseRow object per row, updatable)
+ *    - SparseBlockCSR (compressed sparse rows, three contiguous arrays, read-only)
+ *
+ * Note: In contrast to SparseRow, this abstraction intentionally provides
+ * only read access. Updates are applied to the MCSR representation and
+ * the CSR representation is only used for read-mostly blocks.
+ */
+public abstract class SparseBlock implements Serializable
+{
+	private static final long serialVersionUID = -5008747088111141395L;
+
+	public enum Type {
+		MCSR, //modified compressed sparse rows (SparseRow[])
+		CSR,  //compressed sparse rows (rowptr, colidx, values)
+	}
+
+	/**
+	 * Get the number of rows in the sparse block.
+	 *
+	 * @return
+	 */
+	public abstract int numRows();
+
+	/**
+	 * Get the total number of non-zero values in the sparse block.
+	 *
+	 * @return
+	 */
+	public abstract long size();
+
+	/**
+	 * Get the number of non-zero values in row r.
+	 *
+	 * @param r
+	 * @return
+	 */
+	public abstract int size(int r);
+
+	/**
+	 * Indicates if row r contains no non-zero values.
+	 *
+	 * @param r
+	 * @return
+	 */
+	public abstract boolean isEmpty(int r);
+
+	/**
+	 * Get the starting position of row r in the index and value arrays
+	 * returned by indexes(r) and values(r).
+	 *
+	 * @param r
+	 * @return
+	 */
+	public abstract int pos(int r);
+
+	/**
+	 * Get the column index array that contains row r.
+	 *
+	 * @param r
+	 * @return
+	 */
+	public abstract int[] indexes(int r);
+
+	/**
+	 * Get the value array that contains row r.
+	 *
+	 * @param r
+	 * @return
+	 */
+	public abstract double[] values(int r);
+
+	/**
+	 * Get the value of cell (r,c), or 0 if not existing.
+	 *
+	 * @param r
+	 * @param c
+	 * @return
+	 */
+	public abstract double get(int r, int c);
+
+	/**
+	 * Get the position of the first column index greater than or
+	 * equal to the given column index in row r, or -1 if not existing.
+	 *
+	 * @param r
+	 * @param c
+	 * @return
+	 */
+	public abstract int posFIndexGTE(int r, int c);
+
+	/**
+	 * Indicates if all rows are stored in single contiguous index
+	 * and value arrays.
+	 *
+	 * @return
+	 */
+	public abstract boolean isContiguous();
+
+	/**
+	 * Get the in-memory size of the sparse block in bytes.
+	 *
+	 * @return
+	 */
+	public abstract long getExactSizeInMemory();
+
+	/**
+	 * Get the type of the sparse block representation.
+	 *
+	 * @return
+	 */
+	public abstract Type getType();
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append(getType().toString());
+		sb.append(": rlen=");
+		sb.append(numRows());
+		sb.append(", nnz=");
+		sb.append(size());
+		sb.append("\n");
+		for( int i=0; i<numRows(); i++ ) {
+			if( isEmpty(i) )
+				continue;
+			int apos = pos(i);
+			int alen = size(i);
+			int[] aix = indexes(i);
+			double[] avals = values(i);
+			sb.append(i);
+			sb.append(": ");
+			for( int j=apos; j<apos+alen; j++ ) {
+				sb.append(aix[j]);
+				sb.append(": ");
+				sb.append(avals[j]);
+				sb.append("\t");
+			}
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,211 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.ibm.bi.dml.runtime.matrix.data;
+
+import java.util.Arrays;
+
+/**
+ * SparseBlock implementation in compressed sparse rows (CSR) format, i.e.,
+ * a row pointer array of length rlen+1 and contiguous column index and value
+ * arrays of length nnz. Compared to MCSR, this avoids the per-row object and
+ * array overheads (~116B per non-empty row) and scattered allocations, which
+ * is especially important for ultra-sparse, tall blocks.
+ *
+ * The CSR representation is read-only; it is constructed in a single pass
+ * (e.g., on deserialization or conversion from MCSR) and converted back to
+ * MCSR by MatrixBlock on the first update.
+ *
+ */
+public class SparseBlockCSR extends SparseBlock
+{
+	private static final long serialVersionUID = 1922673868466164244L;
+
+	private int[] _ptr = null;       //row pointer array (size: rlen+1)
+	private int[] _indexes = null;   //column index array (size: >=nnz)
+	private double[] _values = null; //value array (size: >=nnz)
+	private int _size = 0;           //number of non-zeros
+
+	/**
+	 * Creates a CSR block from existing arrays (no copy).
+	 *
+	 * @param rowPtr
+	 * @param colInd
+	 * @param values
+	 * @param nnz
+	 */
+	public SparseBlockCSR(int[] rowPtr, int[] colInd, double[] values, int nnz)
+	{
+		_ptr = rowPtr;
+		_indexes = colInd;
+		_values = values;
+		_size = nnz;
+	}
+
+	/**
+	 * Creates a CSR block as a deep copy of the given sparse rows.
+	 *
+	 * @param rows
+	 * @param rlen
+	 * @param nnz
+	 */
+	public SparseBlockCSR(SparseRow[] rows, int rlen, int nnz)
+	{
+		_ptr = new int[rlen+1];
+		_indexes = new int[nnz];
+		_values = new double[nnz];
+
+		int lrlen = Math.min(rows.length, rlen);
+		int pos = 0;
+		for( int i=0; i<lrlen; i++ ) {
+			_ptr[i] = pos;
+			SparseRow arow = rows[i];
+			if( arow!=null && !arow.isEmpty() ) {
+				int alen = arow.size();
+				System.arraycopy(arow.getIndexContainer(), 0, _indexes, pos, alen);
+				System.arraycopy(arow.getValueContainer(), 0, _values, pos, alen);
+				pos += alen;
+			}
+		}
+		Arrays.fill(_ptr, lrlen, rlen+1, pos);
+		_size = pos;
+	}
+
+	/**
+	 * Converts the CSR block into an array of independent sparse rows (MCSR),
+	 * where empty rows are represented as null.
+	 *
+	 * @param estnnz estimated number of non-zeros per row (for sparse row allocation)
+	 * @param maxnnz maximum number of non-zeros per row (i.e., number of columns)
+	 * @return
+	 */
+	public SparseRow[] toSparseRows(int estnnz, int maxnnz)
+	{
+		int rlen = numRows();
+		SparseRow[] rows = new SparseRow[rlen];
+		for( int i=0; i<rlen; i++ ) {
+			int apos = _ptr[i];
+			int alen = _ptr[i+1] - apos;
+			if( alen > 0 ) {
+				SparseRow arow = new SparseRow(Math.max(estnnz, alen), maxnnz);
+				arow.recap(alen);
+				System.arraycopy(_indexes, apos, arow.getIndexContainer(), 0, alen);
+				System.arraycopy(_values, apos, arow.getValueContainer(), 0, alen);
+				arow.setSize(alen);
+				rows[i] = arow;
+			}
+		}
+		return rows;
+	}
+
+	@Override
+	public int numRows()
+	{
+		return _ptr.length-1;
+	}
+
+	@Override
+	public long size()
+	{
+		return _size;
+	}
+
+	@Override
+	public int size(int r)
+	{
+		return _ptr[r+1] - _ptr[r];
+	}
+
+	@Override
+	public boolean isEmpty(int r)
+	{
+		return (_ptr[r+1] == _ptr[r]);
+	}
+
+	@Override
+	public int pos(int r)
+	{
+		return _ptr[r];
+	}
+
+	@Override
+	public int[] indexes(int r)
+	{
+		return _indexes;
+	}
+
+	@Override
+	public double[] values(int r)
+	{
+		return _values;
+	}
+
+	@Override
+	public double get(int r, int c)
+	{
+		int index = Arrays.binarySearch(_indexes, _ptr[r], _ptr[r+1], c);
+		return (index >= 0) ? _values[index] : 0;
+	}
+
+	@Override
+	public int posFIndexGTE(int r, int c)
+	{
+		int index = Arrays.binarySearch(_indexes, _ptr[r], _ptr[r+1], c);
+		if( index < 0 )
+			index = Math.abs(index+1);
+		return (index < _ptr[r+1]) ? index : -1;
+	}
+
+	@Override
+	public boolean isContiguous()
+	{
+		return true;
+	}
+
+	@Override
+	public long getExactSizeInMemory()
+	{
+		return estimateMemory(numRows(), _values.length);
+	}
+
+	@Override
+	public Type getType()
+	{
+		return Type.CSR;
+	}
+
+	/**
+	 * Get the estimated in-memory size of a CSR block with the given number
+	 * of rows and non-zeros.
+	 *
+	 * @param nrows
+	 * @param nnz
+	 * @return
+	 */
+	public static long estimateMemory(long nrows, long nnz)
+	{
+		//object overhead, 3 array references, 1 int
+		long size = 44;
+
+		//array headers (16B each) and contents
+		size += 16 + 4 * (nrows+1); //row pointers
+		size += 16 + 4 * nnz;       //column indexes
+		size += 16 + 8 * nnz;       //values
+
+		return size;
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.ibm.bi.dml.runtime.matrix.data;
+
+/**
+ * SparseBlock view over the modified compressed sparse rows (MCSR)
+ * representation, i.e., an array of independently allocated SparseRow
+ * objects. This view does not copy any data, hence all updates of the
+ * underlying sparse rows are directly visible.
+ *
+ */
+public class SparseBlockMCSR extends SparseBlock
+{
+	private static final long serialVersionUID = -4743624499258436199L;
+
+	private SparseRow[] _rows = null;
+	private int _rlen = -1;
+
+	public SparseBlockMCSR(SparseRow[] rows, int rlen)
+	{
+		_rows = rows;
+		_rlen = Math.min(rows.length, rlen);
+	}
+
+	/**
+	 * Get the underlying sparse rows array.
+	 *
+	 * @return
+	 */
+	public SparseRow[] getSparseRows()
+	{
+		return _rows;
+	}
+
+	@Override
+	public int numRows()
+	{
+		return _rlen;
+	}
+
+	@Override
+	public long size()
+	{
+		long nnz = 0;
+		for( int i=0; i<_rlen; i++ )
+			if( _rows[i]!=null )
+				nnz += _rows[i].size();
+		return nnz;
+	}
+
+	@Override
+	public int size(int r)
+	{
+		SparseRow arow = _rows[r];
+		return (arow!=null) ? arow.size() : 0;
+	}
+
+	@Override
+	public boolean isEmpty(int r)
+	{
+		SparseRow arow = _rows[r];
+		return (arow==null || arow.isEmpty());
+	}
+
+	@Override
+	public int pos(int r)
+	{
+		//rows always start at position 0
+		return 0;
+	}
+
+	@Override
+	public int[] indexes(int r)
+	{
+		return _rows[r].getIndexContainer();
+	}
+
+	@Override
+	public double[] values(int r)
+	{
+		return _rows[r].getValueContainer();
+	}
+
+	@Override
+	public double get(int r, int c)
+	{
+		SparseRow arow = _rows[r];
+		return (arow!=null) ? arow.get(c) : 0;
+	}
+
+	@Override
+	public int posFIndexGTE(int r, int c)
+	{
+		SparseRow arow = _rows[r];
+		return (arow!=null) ? arow.searchIndexesFirstGTE(c) : -1;
+	}
+
+	@Override
+	public boolean isContiguous()
+	{
+		return false;
+	}
+
+	@Override
+	public long getExactSizeInMemory()
+	{
+		//array of references and object overheads per allocated row
+		//(see MatrixBlock.estimateSizeSparseInMemory for the constants)
+		long size = 16 + 8L * _rows.length;
+		for( int i=0; i<_rlen; i++ )
+			if( _rows[i]!=null )
+				size += 108 + 12L * _rows[i].capacity();
+		return size;
+	}
+
+	@Override
+	public Type getType()
+	{
+		return Type.MCSR;
+	}
+}
@@ -29,35 +29,36 @@ public class SparseRowsIterator implements Iterator<IJV>
 {
 	
 	private int rlen = 0;
-	private SparseRow[] sparseRows = null;
+	private SparseBlock sparseBlock = null;
 	private int curRow = -1;
 	private int curColIndex = -1;
+	private int curColEnd = -1;
 	private int[] colIndexes = null;
 	private double[] values = null;
 	private boolean nothingLeft = false;
 	private IJV retijv = new IJV();
 
 	//allow initialization from package or subclasses
-	protected SparseRowsIterator(int nrows, SparseRow[] mtx)
+	protected SparseRowsIterator(int nrows, SparseBlock mtx)
 	{
 		rlen=nrows;
-		sparseRows=mtx;
+		sparseBlock=mtx;
 		curRow=0;
 		
-		if(sparseRows==null)
+		if(sparseBlock==null)
 			nothingLeft=true;
 		else
 			findNextNonZeroRow();
 	}
 	
 	//allow initialization from package or subclasses
-	protected SparseRowsIterator(int currow, int nrows, SparseRow[] mtx)
+	protected SparseRowsIterator(int currow, int nrows, SparseBlock mtx)
 	{
 		rlen=nrows;
-		sparseRows=mtx;
+		sparseBlock=mtx;
 		curRow=currow;
 		
-		if(sparseRows==null)
+		if(sparseBlock==null)
 			nothingLeft=true;
 		else
 			findNextNonZeroRow();
@@ -75,7 +76,7 @@ public class SparseRowsIterator implements Iterator<IJV>
 	public IJV next( ) {
 		retijv.set(curRow, colIndexes[curColIndex], values[curColIndex]);
 		curColIndex++;
-		if(curColIndex>=sparseRows[curRow].size())
+		if(curColIndex>=curColEnd)
 		{
 			curRow++;
 			findNextNonZeroRow();
@@ -94,15 +95,18 @@ public class SparseRowsIterator implements Iterator<IJV>
 	 */
 	private void findNextNonZeroRow() 
 	{
-		while(curRow<Math.min(rlen, sparseRows.length) && (sparseRows[curRow]==null || sparseRows[curRow].isEmpty()))
+		int lrlen = Math.min(rlen, sparseBlock.numRows());
+		while(curRow<lrlen && sparseBlock.isEmpty(curRow))
 			curRow++;
-		if(curRow>=Math.min(rlen, sparseRows.length))
+		if(curRow>=lrlen)
 			nothingLeft=true;
 		else
 		{
-			curColIndex=0;
-			colIndexes=sparseRows[curRow].getIndexContainer();
-			values=sparseRows[curRow].getValueContainer();
+			curColIndex=sparseBlock.pos(curRow);
+			curColEnd=curColIndex+sparseBlock.size(curRow);
+			colIndexes=sparseBlock.indexes(curRow);
+			values=sparseBlock.values(curRow);
 		}
+
 	}
 }
@@ -86,7 +86,7 @@ public class CSVReblockMapper extends MapperBase implements Mapper<LongWritable,
 			{
 				if(cells[k+start] == null || cells[k+start].isEmpty())
 				{
-					IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(null, fill, true);
+					IOUtilFunctions.checkAndRaiseErrorCSVEmptyField((String)null, fill, true);
 					row.getRow().data.appendValue(0, k, fillValue);
 				}
 				else
@@ -20,6 +20,7 @@ package com.ibm.bi.dml.runtime.matrix.mapred;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map.Entry;
 
 import org.apache.hadoop.mapred.Reporter;
@@ -30,6 +31,7 @@ import com.ibm.bi.dml.runtime.matrix.data.CTableMap;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixCell;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixIndexes;
+import com.ibm.bi.dml.runtime.util.LongLongDoubleHashMap.LLDoubleEntry;
 
 
 public class GMRCtableBuffer 
@@ -123,7 +125,6 @@ public class GMRCtableBuffer
 	 * @param reporter
 	 * @throws RuntimeException
 	 */
-	@SuppressWarnings("deprecation")
 	public void flushBuffer( Reporter reporter ) 
 		throws RuntimeException 
 	{
@@ -147,9 +148,11 @@ public class GMRCtableBuffer
 					}
 					
 					//output result data 
-					for(Entry<MatrixIndexes, Double> e: resultMap.entrySet()) {
-						key = e.getKey();
-						value.setValue(e.getValue());
+					Iterator<LLDoubleEntry> iter = resultMap.getIterator();
+					while( iter.hasNext() ) {
+						LLDoubleEntry e = iter.next();
+						key = new MatrixIndexes(e.key1, e.key2);
+						value.setValue(e.value);
 						for(Integer i: resultIDs) {
 							_collector.collectOutput(key, value, i, reporter);
 						}
@@ -47,10 +47,20 @@ public class BinaryOperator  extends Operator implements Serializable
 	private static final long serialVersionUID = -2547950181558989209L;
 
 	public ValueFunction fn;
+	private int k; //num threads
 	
 	public BinaryOperator(ValueFunction p)
 	{
-		fn=p;
+		//default degree of parallelism is 1 
+		//(for example in MR/Spark because we parallelize over the number of blocks)
+		this( p, 1 );
+	}
+	
+	public BinaryOperator(ValueFunction p, int numThreads)
+	{
+		fn = p;
+		k = numThreads;
+		
 		//as long as (0 op 0)=0, then op is sparseSafe
 		if(fn instanceof Plus || fn instanceof Multiply || fn instanceof Minus 
 				|| fn instanceof And || fn instanceof Or)
@@ -59,6 +69,14 @@ public class BinaryOperator  extends Operator implements Serializable
 			sparseSafe=false;
 	}
 	
+	public void setNumThreads(int numThreads) {
+		k = numThreads;
+	}
+	
+	public int getNumThreads(){
+		return k;
+	}
+	
 	/**
 	 * Method for getting the hop binary operator type for a given function object.
 	 * This is used in order to use a common code path for consistency between 
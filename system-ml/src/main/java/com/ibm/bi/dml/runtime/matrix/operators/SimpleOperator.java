@@ -29,8 +29,24 @@ public class SimpleOperator extends Operator
 	private static final long serialVersionUID = 625147299273287379L;
 
 	public FunctionObject fn;
+	private int k; //num threads
 	
 	public SimpleOperator ( FunctionObject f ) {
+		//default degree of parallelism is 1 
+		//(for example in MR/Spark because we parallelize over the number of blocks)
+		this( f, 1 );
+	}
+	
+	public SimpleOperator ( FunctionObject f, int numThreads ) {
 		fn = f;
+		k = numThreads;
+	}
+	
+	public void setNumThreads(int numThreads) {
+		k = numThreads;
+	}
+	
+	public int getNumThreads(){
+		return k;
 	}
 }
@@ -27,9 +27,19 @@ public class UnaryOperator extends Operator
 	private static final long serialVersionUID = 2441990876648978637L;
 
 	public ValueFunction fn;
+	private int k; //num threads
+	
 	public UnaryOperator(ValueFunction p)
+	{
+		//default degree of parallelism is 1 
+		//(for example in MR/Spark because we parallelize over the number of blocks)
+		this( p, 1 );
+	}
+	
+	public UnaryOperator(ValueFunction p, int numThreads)
 	{
 		fn = p;
+		k = numThreads;
 		sparseSafe = false;
 		
 		if(fn instanceof Builtin)
@@ -44,4 +54,12 @@ public class UnaryOperator extends Operator
 			}
 		}
 	}
+	
+	public void setNumThreads(int numThreads) {
+		k = numThreads;
+	}
+	
+	public int getNumThreads(){
+		return k;
+	}
 }
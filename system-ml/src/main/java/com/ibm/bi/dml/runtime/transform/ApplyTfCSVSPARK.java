@@ -19,6 +19,7 @@ package com.ibm.bi.dml.runtime.transform;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.io.LongWritable;
@@ -36,7 +37,12 @@ import scala.Tuple2;
 
 import com.ibm.bi.dml.runtime.DMLRuntimeException;
 import com.ibm.bi.dml.runtime.controlprogram.context.SparkExecutionContext;
+import com.ibm.bi.dml.runtime.instructions.spark.utils.RDDAggregateUtils;
+import com.ibm.bi.dml.runtime.matrix.MatrixCharacteristics;
 import com.ibm.bi.dml.runtime.matrix.data.CSVFileFormatProperties;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixIndexes;
+import com.ibm.bi.dml.runtime.util.UtilFunctions;
 
 
 public class ApplyTfCSVSPARK {
@@ -95,6 +101,68 @@ public class ApplyTfCSVSPARK {
 		
 		return applyRDD;
 	}
+	
+	/**
+	 * Apply transformation metadata and generate the result in binary block format, 
+	 * where each transformed row is encoded directly into the output blocks (see 
+	 * TfUtils.apply), i.e., without csv strings and a subsequent csv reblock. The
+	 * given matrix characteristics provide the number of transformed columns and
+	 * block sizes, and obtain the number of rows after transformation.
+	 * 
+	 * @param sec
+	 * @param inputRDD
+	 * @param tfMtdPath
+	 * @param specFile
+	 * @param tmpPath
+	 * @param prop
+	 * @param numCols
+	 * @param headerLine
+	 * @param mcOut
+	 * @return
+	 */
+	public static JavaPairRDD<MatrixIndexes, MatrixBlock> runSparkJobBB(
+			SparkExecutionContext sec, JavaRDD<Tuple2<LongWritable, Text>> inputRDD, 
+			String tfMtdPath, String specFile, 
+			String tmpPath, CSVFileFormatProperties prop, 
+			int numCols, String headerLine, MatrixCharacteristics mcOut
+		) throws IOException, IllegalArgumentException, JSONException {
+
+		// Load transformation metadata and broadcast it, where the dummycoded 
+		// maps and header files are constructed once before the apply
+		JobConf job = new JobConf();
+		FileSystem fs = FileSystem.get(job);
+		
+		String[] naStrings = TfUtils.parseNAStrings(prop.getNAStrings());
+		JSONObject spec = TfUtils.readSpec(fs, specFile);
+		TfUtils _tfmapper = new TfUtils(headerLine, prop.hasHeader(), prop.getDelim(), naStrings, spec, numCols, tfMtdPath, null, tmpPath);
+		
+		_tfmapper.loadTfMetadata();
+		_tfmapper.processHeaderLine();
+
+		Broadcast<TfUtils> bcast_tf = sec.getSparkContext().broadcast(_tfmapper);
+		
+		// Compute row offsets per partition (number of rows after omit)
+		List<Tuple2<Integer,Long>> counts = inputRDD
+				.mapPartitionsWithIndex(new CountTfRowsMap(bcast_tf), true)
+				.collect();
+		long[] offsets = new long[inputRDD.partitions().size()];
+		for( Tuple2<Integer,Long> c : counts )
+			if( c._1() + 1 < offsets.length )
+				offsets[c._1()+1] = c._2();
+		for( int i=1; i<offsets.length; i++ )
+			offsets[i] += offsets[i-1];
+		long numRows = 0;
+		for( Tuple2<Integer,Long> c : counts )
+			numRows += c._2();
+		mcOut.setDimension(numRows, mcOut.getCols());
+		
+		// Encode transformed rows into (partial) blocks, and merge partial 
+		// blocks of block rows that span multiple partitions
+		JavaPairRDD<MatrixIndexes, MatrixBlock> out = JavaPairRDD.fromJavaRDD( 
+				inputRDD.mapPartitionsWithIndex(new ApplyTfBBMap(bcast_tf, offsets, mcOut), true));
+		
+		return RDDAggregateUtils.mergeByKey( out );
+	}
 
 	public static class ApplyTfCSVMap implements Function2<Integer, Iterator<Tuple2<LongWritable, Text>>, Iterator<String>> {
 
@@ -153,6 +221,139 @@ public class ApplyTfCSVSPARK {
 		}
 		
 	}
+	
+	/**
+	 * Counts the number of rows per partition after omit (and w/o header).
+	 */
+	public static class CountTfRowsMap implements Function2<Integer, Iterator<Tuple2<LongWritable, Text>>, Iterator<Tuple2<Integer,Long>>> {
+
+		private static final long serialVersionUID = -2187357637419036453L;
+
+		TfUtils _tfmapper = null;
+		
+		CountTfRowsMap(Broadcast<TfUtils> tf) {
+			_tfmapper = tf.getValue();
+		}
+		
+		@Override
+		public Iterator<Tuple2<Integer,Long>> call(Integer partitionID,
+				Iterator<Tuple2<LongWritable, Text>> csvLines) throws Exception {
+			
+			boolean first = true;
+			long count = 0;
+			
+			while(csvLines.hasNext()) {
+				Tuple2<LongWritable, Text> rec = csvLines.next();
+				
+				if (first && partitionID == 0) {
+					first = false;
+					if (_tfmapper.hasHeader() )
+						continue; 
+				}
+				
+				if(!_tfmapper.omit(_tfmapper.getWords(rec._2())))
+					count++;
+			}
+			
+			ArrayList<Tuple2<Integer,Long>> ret = new ArrayList<Tuple2<Integer,Long>>();
+			ret.add(new Tuple2<Integer,Long>(partitionID, count));
+			return ret.iterator();
+		}
+	}
+	
+	/**
+	 * Applies the transformation metadata and encodes the transformed rows of a 
+	 * partition directly into blocks, where the partition's first row index is 
+	 * given by the precomputed row offsets.
+	 */
+	public static class ApplyTfBBMap implements Function2<Integer, Iterator<Tuple2<LongWritable, Text>>, Iterator<Tuple2<MatrixIndexes,MatrixBlock>>> {
+
+		private static final long serialVersionUID = 7314096517321349265L;
+
+		TfUtils _tfmapper = null;
+		private long[] _offsets = null;
+		private long _rlen = -1;
+		private long _clen = -1;
+		private int _brlen = -1;
+		private int _bclen = -1;
+		
+		ApplyTfBBMap(Broadcast<TfUtils> tf, long[] offsets, MatrixCharacteristics mc) {
+			_tfmapper = tf.getValue();
+			_offsets = offsets;
+			_rlen = mc.getRows();
+			_clen = mc.getCols();
+			_brlen = mc.getRowsPerBlock();
+			_bclen = mc.getColsPerBlock();
+		}
+		
+		@Override
+		public Iterator<Tuple2<MatrixIndexes,MatrixBlock>> call(Integer partitionID,
+				Iterator<Tuple2<LongWritable, Text>> csvLines) throws Exception {
+			
+			ArrayList<Tuple2<MatrixIndexes,MatrixBlock>> ret = new ArrayList<Tuple2<MatrixIndexes,MatrixBlock>>();
+			
+			//dummycoded outputs are natively sparse
+			boolean sparse = (_clen > _tfmapper.getNumCols());
+			boolean first = true;
+			long rowix = _offsets[partitionID] + 1;
+			long rix = -1;
+			MatrixBlock rows = null;
+			
+			while(csvLines.hasNext()) {
+				Tuple2<LongWritable, Text> rec = csvLines.next();
+				
+				if (first && partitionID == 0) {
+					first = false;
+					if (_tfmapper.hasHeader() )
+						continue; 
+				}
+				
+				String[] words = _tfmapper.getWords(rec._2());
+				if( _tfmapper.omit(words) )
+					continue;
+				
+				//create new row block (of all columns) for current global row index
+				if( rows == null || rix != UtilFunctions.computeBlockIndex(rowix, _brlen) ) {
+					if( rows != null )
+						flushBlocksToList(rix, rows, ret);
+					rix = UtilFunctions.computeBlockIndex(rowix, _brlen);
+					int lrlen = UtilFunctions.computeBlockSize(_rlen, rix, _brlen);
+					rows = new MatrixBlock(lrlen, (int)_clen, sparse);
+				}
+				
+				try {
+					_tfmapper.apply(words, false, rows, UtilFunctions.computeCellInBlock(rowix, _brlen));
+				} 
+				catch(DMLRuntimeException e) {
+					throw new RuntimeException(e.getMessage() + ": " + rec._2().toString());
+				}
+				rowix++;
+			}
+			
+			//flush last row block
+			if( rows != null )
+				flushBlocksToList(rix, rows, ret);
+			
+			return ret.iterator();
+		}
+		
+		// Splits the row block into column blocks and adds them to the output list.
+		private void flushBlocksToList( long rix, MatrixBlock rows, ArrayList<Tuple2<MatrixIndexes,MatrixBlock>> ret ) 
+			throws DMLRuntimeException
+		{
+			int ncblks = (int)Math.ceil((double)_clen/_bclen);
+			for( int cix=1; cix<=ncblks; cix++ ) {
+				MatrixBlock mb = rows;
+				if( ncblks > 1 ) {
+					int cl = (cix-1)*_bclen;
+					int cu = cl + UtilFunctions.computeBlockSize(_clen, cix, _bclen) - 1;
+					mb = rows.sliceOperations(0, rows.getNumRows()-1, cl, cu, new MatrixBlock());
+				}
+				mb.examSparsity(); //ensure right representation
+				ret.add(new Tuple2<MatrixIndexes,MatrixBlock>(new MatrixIndexes(rix, cix), mb));
+			}
+		}
+	}
 
 	
 }
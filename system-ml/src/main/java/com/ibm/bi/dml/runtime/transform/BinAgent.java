@@ -222,6 +222,22 @@ public class BinAgent extends TransformationAgent {
 	}
 	
 	
+	/**
+	 * Merges the partial min/max statistics of the given agent into this agent,
+	 * used for multi-threaded transform in CP.
+	 * 
+	 * @param that
+	 */
+	void merge(BinAgent that) {
+		if ( _binList == null )
+			return;
+		
+		for(int i=0; i <_binList.length; i++) {
+			_min[i] = Math.min(_min[i], that._min[i]);
+			_max[i] = Math.max(_max[i], that._max[i]);
+		}
+	}
+	
 	public void outputTransformationMetadata(String outputDir, FileSystem fs, TfUtils agents) throws IOException {
 		if(_binList == null)
 			return;
@@ -304,23 +320,34 @@ public class BinAgent extends TransformationAgent {
 	
 		for(int i=0; i < _binList.length; i++) {
 			int colID = _binList[i];
-			
-			try {
-			double val = UtilFunctions.parseToDouble(words[colID-1]);
+			words[colID-1] = Integer.toString(getBinID(i, words[colID-1]));
+		}
+		
+		return words;
+	}
+	
+	/**
+	 * Get the bin id (1-based) of the given word for the i-th binned column.
+	 * 
+	 * @param i
+	 * @param word
+	 * @return
+	 */
+	public int getBinID(int i, String word) 
+	{
+		try {
+			double val = UtilFunctions.parseToDouble(word);
 			int binid = 1;
 			double tmp = _min[i] + _binWidths[i];
 			while(val > tmp && binid < _numBins[i]) {
 				tmp += _binWidths[i];
 				binid++;
 			}
-			words[colID-1] = Integer.toString(binid);
-			} catch(NumberFormatException e)
-			{
-				throw new RuntimeException("Encountered \"" + words[colID-1] + "\" in column ID \"" + colID + "\", when expecting a numeric value. Consider adding \"" + words[colID-1] + "\" to na.strings, along with an appropriate imputation method.");
-			}
+			return binid;
+		} 
+		catch(NumberFormatException e) {
+			throw new RuntimeException("Encountered \"" + word + "\" in column ID \"" + _binList[i] + "\", when expecting a numeric value. Consider adding \"" + word + "\" to na.strings, along with an appropriate imputation method.");
 		}
-		
-		return words;
 	}
 	
 	/**
@@ -19,23 +19,28 @@ package com.ibm.bi.dml.runtime.transform;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
-import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.TextInputFormat;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.wink.json4j.JSONArray;
@@ -46,6 +51,7 @@ import scala.Tuple2;
 
 import com.ibm.bi.dml.conf.ConfigurationManager;
 import com.ibm.bi.dml.conf.DMLConfig;
+import com.ibm.bi.dml.hops.OptimizerUtils;
 import com.ibm.bi.dml.lops.CSVReBlock;
 import com.ibm.bi.dml.lops.Lop;
 import com.ibm.bi.dml.lops.LopProperties.ExecType;
@@ -63,17 +69,21 @@ import com.ibm.bi.dml.runtime.instructions.mr.CSVReblockInstruction;
 import com.ibm.bi.dml.runtime.instructions.spark.ParameterizedBuiltinSPInstruction;
 import com.ibm.bi.dml.runtime.instructions.spark.data.RDDObject;
 import com.ibm.bi.dml.runtime.instructions.spark.utils.RDDConverterUtils;
+import com.ibm.bi.dml.runtime.io.IOUtilFunctions;
 import com.ibm.bi.dml.runtime.matrix.CSVReblockMR;
 import com.ibm.bi.dml.runtime.matrix.CSVReblockMR.AssignRowIDMRReturn;
 import com.ibm.bi.dml.runtime.matrix.JobReturn;
 import com.ibm.bi.dml.runtime.matrix.MatrixCharacteristics;
+import com.ibm.bi.dml.runtime.matrix.MatrixFormatMetaData;
 import com.ibm.bi.dml.runtime.matrix.data.CSVFileFormatProperties;
 import com.ibm.bi.dml.runtime.matrix.data.FileFormatProperties;
 import com.ibm.bi.dml.runtime.matrix.data.InputInfo;
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixIndexes;
 import com.ibm.bi.dml.runtime.matrix.data.OutputInfo;
 import com.ibm.bi.dml.runtime.matrix.mapred.MRJobConfiguration;
 import com.ibm.bi.dml.runtime.transform.TransformationAgent.TX_METHOD;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
 import com.ibm.bi.dml.runtime.util.MapReduceTool;
 import com.ibm.bi.dml.runtime.util.UtilFunctions;
 import com.ibm.bi.dml.utils.JSONHelper;
@@ -1087,86 +1097,113 @@ public class DataTransform {
 	}
 	
 	/**
-	 * Helper function to fetch and sort the list of part files under the given
-	 * input directory.
+	 * Estimates the in-memory size of the recode maps of an in-memory transform before 
+	 * reading the input, which allows to decide upfront for CP or MR. We assume the worst 
+	 * case of all values of recoded columns being distinct, where the number of rows is 
+	 * taken from the input characteristics or bounded by the input size (at least one 
+	 * character and delimiter per cell). On build, thread-local and merged maps coexist, 
+	 * while on apply only the given maps are loaded.
 	 * 
+	 * @param inst
 	 * @param input
-	 * @param fs
+	 * @param sizeOnHDFS
 	 * @return
-	 * @throws FileNotFoundException
 	 * @throws IOException
 	 */
-	@SuppressWarnings("unchecked")
-	private static ArrayList<Path> collectInputFiles(String input, FileSystem fs) throws FileNotFoundException, IOException 
+	public static long estimateRecodeMapsInMemorySize(MRJobInstruction inst, MatrixObject input, long sizeOnHDFS) 
+		throws IOException 
 	{
-		Path path = new Path(input);
-		ArrayList<Path> files=new ArrayList<Path>();
-		if(fs.isDirectory(path))
-		{
-			for(FileStatus stat: fs.listStatus(path, CSVReblockMR.hiddenFileFilter))
-				files.add(stat.getPath());
-			Collections.sort(files);
+		String[] insts = inst.getIv_shuffleInstructions().split(Instruction.INSTRUCTION_DELIM);
+		TransformOperands oprnds = new TransformOperands(insts[0], input);
+		
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		FileSystem fs = FileSystem.get(job);
+		
+		// number of recoded columns (spec with column names/positions, or ids on apply)
+		int nrcd = 0;
+		String specFile = oprnds.isApply ? oprnds.applyTxPath + "/" + "spec.json" : oprnds.specFile;
+		JSONObject spec = TfUtils.readSpec(fs, specFile);
+		Object rcd = spec.get(TX_METHOD.RECODE.toString());
+		if( rcd instanceof JSONArray )
+			nrcd = ((JSONArray)rcd).size();
+		else if( rcd instanceof JSONObject )
+			nrcd = ((JSONArray)((JSONObject)rcd).get(TransformationAgent.JSON_ATTRS)).size();
+		if( nrcd == 0 )
+			return 0;
+		
+		// number of columns and worst-case number of rows
+		long ncols = input.getNumColumns();
+		if( ncols <= 0 ) {
+			String smallestFile = CSVReblockMR.findSmallestFile(job, oprnds.inputPath);
+			String headerLine = readHeaderLine(fs, oprnds.inputCSVProperties, smallestFile);
+			ncols = processColumnNames(fs, oprnds.inputCSVProperties, headerLine, smallestFile).size();
 		}
-		else
-			files.add(path);
-
-		return files;
+		ncols = Math.max(ncols, 1);
+		long nrows = (input.getNumRows() > 0) ? input.getNumRows() : 
+			Math.max(sizeOnHDFS / (2 * ncols), 1);
+		double avgKeyLen = Math.max((double)sizeOnHDFS / (nrows * ncols) - 1, 1);
+		
+		long mapSize = RecodeMap.estimateInMemorySize(nrows, avgKeyLen);
+		return (oprnds.isApply ? 1 : 2) * nrcd * mapSize;
 	}
 	
-	private static int[] countNumRows(ArrayList<Path> files, CSVFileFormatProperties prop, FileSystem fs, TfUtils agents) throws IOException 
+	/**
+	 * Helper function to obtain the input splits (byte ranges) of all part files
+	 * under the given input path, sorted by file name and offset.
+	 * 
+	 * @param job
+	 * @param informat
+	 * @param inputPath
+	 * @param k
+	 * @return
+	 * @throws IOException
+	 */
+	private static InputSplit[] getInputSplits(JobConf job, TextInputFormat informat, String inputPath, int k) 
+		throws IOException 
 	{
-		int[] rows = new int[2];
-		int numRows=0, numRowsTf=0;
-		
-		OmitAgent oa = agents.getOmitAgent();
-		
-		if(!oa.isApplicable())
-		{
-			for(int fileNo=0; fileNo<files.size(); fileNo++)
-			{
-				BufferedReader br = new BufferedReader(new InputStreamReader(fs.open(files.get(fileNo))));
-				if(fileNo==0 && prop.hasHeader() ) 
-					br.readLine(); //ignore header
-				
-				while ( br.readLine() != null)
-					numRows++;
-				br.close();
+		FileInputFormat.addInputPath(job, new Path(inputPath));
+		informat.configure(job);
+		InputSplit[] splits = informat.getSplits(job, k);
+		
+		// sort splits by path and offset such that the header is in the first split
+		Arrays.sort(splits, new Comparator<InputSplit>() {
+			@Override
+			public int compare(InputSplit o1, InputSplit o2) {
+				FileSplit s1 = (FileSplit) o1;
+				FileSplit s2 = (FileSplit) o2;
+				int cmp = s1.getPath().toString().compareTo(s2.getPath().toString());
+				return (cmp != 0) ? cmp : (s1.getStart() < s2.getStart()) ? -1 : (s1.getStart() > s2.getStart()) ? 1 : 0;
 			}
-			numRowsTf = numRows;
+		});
+		
+		return splits;
+	}
+	
+	/**
+	 * Helper function to execute the given transform tasks and check for errors.
+	 * 
+	 * @param tasks
+	 * @param k
+	 * @throws IOException
+	 */
+	private static void executeTasks(ArrayList<? extends Callable<Object>> tasks, int k) 
+		throws IOException 
+	{
+		try {
+			for( Future<Object> task : KernelThreadPool.invokeAll(tasks, k) )
+				task.get(); //error handling
 		}
-		else
-		{
-			String line = null;
-			String[] words;
-			
-			Pattern delim = Pattern.compile(Pattern.quote(prop.getDelim()));
-			
-			for(int fileNo=0; fileNo<files.size(); fileNo++)
-			{
-				BufferedReader br = new BufferedReader(new InputStreamReader(fs.open(files.get(fileNo))));
-				if(fileNo==0 && prop.hasHeader() ) 
-					br.readLine(); //ignore header
-				
-				while ( (line=br.readLine()) != null)
-				{
-					numRows++;
-					
-					words = delim.split(line, -1);
-					if(!oa.omit(words, agents))
-						numRowsTf++;
-				}
-				br.close();
-			}
+		catch(Exception ex) {
+			throw new IOException("Failed to execute parallel transform tasks.", ex);
 		}
-		
-		rows[0] = numRows;
-		rows[1] = numRowsTf;
-		
-		return rows;
 	}
 	
 	/**
-	 * Main method to create and/or apply transformation metdata in-memory, on a single node.
+	 * Main method to create and/or apply transformation metadata in-memory, on a single node.
+	 * The input is split into contiguous ranges of input splits (byte ranges of part files), 
+	 * which are processed in parallel: first, to build thread-local transformation metadata 
+	 * (merged into the given agents) or count the number of rows, and second, to apply the 
+	 * transformation metadata with known row offsets.
 	 * 
 	 * @param job
 	 * @param fs
@@ -1196,32 +1233,42 @@ public class DataTransform {
 		BinAgent _ba = agents.getBinAgent();
 		DummycodeAgent _da = agents.getDummycodeAgent();
 
-		// List of files to read
-		ArrayList<Path> files = collectInputFiles(inputPath, fs);
+		// Input splits to read, grouped into k contiguous ranges
+		int k = OptimizerUtils.getParallelTextReadParallelism();
+		TextInputFormat informat = new TextInputFormat();
+		InputSplit[] splits = getInputSplits(job, informat, inputPath, k);
+		int numTasks = Math.max(Math.min(k, splits.length), 1);
+		int blklen = (int)Math.ceil((double)splits.length/numTasks);
+		numTasks = Math.max((int)Math.ceil((double)splits.length/blklen), 1);
 				
 		// ---------------------------------
 		// Construct transformation metadata
 		// ---------------------------------
 		
-		String line = null;
-		String[] words  = null;
-		
-		int numColumnsTf=0;
-		BufferedReader br = null;
+		// build thread-local metadata (or count rows) per range of splits
+		ArrayList<TfPrepareTask> ptasks = new ArrayList<TfPrepareTask>();
+		for( int i=0; i<numTasks; i++ ) {
+			TfUtils lagents = isApply ? agents : //read-only omit
+				new TfUtils(headerLine, prop.hasHeader(), prop.getDelim(), na, spec, ncols, tfMtdPath, null, null );
+			ptasks.add(new TfPrepareTask(Arrays.copyOfRange(splits, Math.min(i*blklen, splits.length), Math.min((i+1)*blklen, splits.length)), 
+					informat, job, lagents, i==0 && prop.hasHeader(), !isApply));
+		}
+		executeTasks(ptasks, k);
+		
+		// compute row offsets per range of splits (for ordered output)
+		long[] rowOffsets = new long[numTasks];
+		long numRows = 0, numRowsTf = 0;
+		for( int i=0; i<numTasks; i++ ) {
+			rowOffsets[i] = numRowsTf;
+			numRows += ptasks.get(i).getNumRows();
+			numRowsTf += ptasks.get(i).getNumValidRows();
+		}
 		
 		if (!isApply) {
-			for(int fileNo=0; fileNo<files.size(); fileNo++)
-			{
-				br = new BufferedReader(new InputStreamReader(fs.open(files.get(fileNo))));
-				if(fileNo==0 && prop.hasHeader() ) 
-					br.readLine(); //ignore header
-				
-				line = null;
-				while ( (line = br.readLine()) != null) {
-					agents.prepareTfMtd(line);
-				}
-				br.close();
-			}
+			// merge thread-local metadata (incl row counts)
+			for( TfPrepareTask task : ptasks )
+				agents.mergeTfMtd(task.getAgents());
+			ptasks.clear();
 			
 			if(agents.getValid() == 0) 
 				throw new DMLRuntimeException(ERROR_MSG_ZERO_ROWS);
@@ -1237,15 +1284,14 @@ public class DataTransform {
 			_mia.loadTxMtd(job, fs, tmp, agents);
 			_ba.loadTxMtd(job, fs, tmp, agents);
 			
-			_da.setRecodeMapsCP( _ra.getCPRecodeMaps() );
+			_da.setRecodeMaps( _ra.getCPRecodeMaps() );
 			_da.setNumBins(_ba.getBinList(), _ba.getNumBins());
 			_da.loadTxMtd(job, fs, tmp, agents);
 		}
 		else {
-			// Count the number of rows
-			int rows[] = countNumRows(files, prop, fs, agents);
-			agents.setTotal(rows[0]);
-			agents.setValid(rows[1]);
+			// Set the number of rows
+			agents.setTotal(numRows);
+			agents.setValid(numRowsTf);
 			
 			if(agents.getValid() == 0) 
 				throw new DMLRuntimeException("Number of rows in the transformed output (potentially, after ommitting the ones with missing values) is zero. Cannot proceed.");
@@ -1266,11 +1312,9 @@ public class DataTransform {
 		// Apply transformation metadata
 		// -----------------------------
         
-		numColumnsTf = getNumColumnsTf(fs, headerLine, prop.getDelim(), tfMtdPath);
+		int numColumnsTf = getNumColumnsTf(fs, headerLine, prop.getDelim(), tfMtdPath);
 
 		MapReduceTool.deleteFileIfExistOnHDFS(result.getFileName());
-		BufferedWriter out=new BufferedWriter(new OutputStreamWriter(fs.create(new Path(result.getFileName()),true)));		
-		StringBuilder sb = new StringBuilder();
 		
 		MatrixBlock mb = null; 
 		if ( isBB ) 
@@ -1284,54 +1328,23 @@ public class DataTransform {
 				mb.allocateDenseBlock();
 		}
 
-		int rowID = 0; // rowid to be used in filling the matrix block
-		
-		for(int fileNo=0; fileNo<files.size(); fileNo++)
-		{
-			br = new BufferedReader(new InputStreamReader(fs.open(files.get(fileNo))));
-			if ( fileNo == 0 ) 
-			{
-				String header = null;
-				if ( prop.hasHeader() )
-					br.readLine(); // ignore the header line from data file
-				
-				header = headerLine;
-				String dcdHeader = _da.constructDummycodedHeader(header, agents.getDelim());
-				numColumnsTf = _da.genDcdMapsAndColTypes(fs, tfMtdPath, ncols, agents);
-				DataTransform.generateHeaderFiles(fs, tfMtdPath, header, dcdHeader);
-			}
-			
-			line = null;
-			while ( (line = br.readLine()) != null) {
-				words = agents.getWords(line);
-
-				if(!agents.omit(words))
-				{
-					words = agents.apply(words, !isApply);
-	
-					if (isCSV)
-					{
-						out.write( agents.checkAndPrepOutputString(words, sb) );
-						out.write("\n");
-					}
-					
-					if( isBB ) 
-					{
-						agents.check(words);
-						for(int c=0; c<words.length; c++)
-						{
-							if(words[c] == null || words[c].isEmpty())
-								;
-							else 
-								mb.appendValue(rowID, c, UtilFunctions.parseToDouble(words[c]));
-						}
-					}
-					rowID++;
-				}
-			}
-			br.close();
+		// construct dummycoded header and maps (once, before the parallel apply)
+		String dcdHeader = _da.constructDummycodedHeader(headerLine, agents.getDelim());
+		numColumnsTf = _da.genDcdMapsAndColTypes(fs, tfMtdPath, ncols, agents);
+		DataTransform.generateHeaderFiles(fs, tfMtdPath, headerLine, dcdHeader);
+		
+		// apply metadata per range of splits with shared (read-only) agents, where 
+		// csv output is written to one part file per range in order to preserve the order
+		if( isCSV && numTasks > 1 )
+			MapReduceTool.createDirIfNotExistOnHDFS(result.getFileName(), DMLConfig.DEFAULT_SHARED_DIR_PERMISSION);
+		ArrayList<TfApplyTask> atasks = new ArrayList<TfApplyTask>();
+		for( int i=0; i<numTasks; i++ ) {
+			Path path = !isCSV ? null : (numTasks > 1) ? 
+				new Path(result.getFileName(), String.format("0-m-%05d",i)) : new Path(result.getFileName());
+			atasks.add(new TfApplyTask(Arrays.copyOfRange(splits, Math.min(i*blklen, splits.length), Math.min((i+1)*blklen, splits.length)), 
+					informat, job, agents, i==0 && prop.hasHeader(), !isApply, fs, path, mb, (int)rowOffsets[i]));
 		}
-		out.close();
+		executeTasks(atasks, k);
 		
 		if(mb != null)
 		{
@@ -1391,6 +1404,15 @@ public class DataTransform {
 		
 		long numRowsTf=0, numColumnsTf=0;
 		JavaPairRDD<Long, String> tfPairRDD = null;
+		JavaPairRDD<MatrixIndexes, MatrixBlock> tfBlockRDD = null;
+		
+		// binary block output (w/o csv reblock) if requested by the compiled plan
+		MatrixObject outMO = outputMatrices[0];
+		String outVar = outMO.getVarName();
+		MatrixCharacteristics mcOut = sec.getMatrixCharacteristics(outVar);
+		boolean isBB = (outMO.getMetaData() instanceof MatrixFormatMetaData
+			&& ((MatrixFormatMetaData)outMO.getMetaData()).getOutputInfo() == OutputInfo.BinaryBlockOutputInfo);
+		MatrixCharacteristics mcBB = null;
 		
 		if (!oprnds.isApply) {
 			// build specification file with column IDs insteadof column names
@@ -1413,9 +1435,17 @@ public class DataTransform {
 			
 			numColumnsTf = getNumColumnsTf(fs, outHeader, oprnds.inputCSVProperties.getDelim(), oprnds.txMtdPath);
 			
-			tfPairRDD = ApplyTfCSVSPARK.runSparkJob(sec, csvLines, 
+			if( isBB ) {
+				mcBB = new MatrixCharacteristics(numRowsTf, numColumnsTf, mcOut.getRowsPerBlock(), mcOut.getColsPerBlock());
+				tfBlockRDD = ApplyTfCSVSPARK.runSparkJobBB(sec, csvLines, 
+													oprnds.txMtdPath, specFileWithIDs, tmpPath, 
+													oprnds.inputCSVProperties, numColumns, outHeader, mcBB);
+			}
+			else {
+				tfPairRDD = ApplyTfCSVSPARK.runSparkJob(sec, csvLines, 
 													oprnds.txMtdPath, specFileWithIDs, tmpPath, 
 													oprnds.inputCSVProperties, numColumns, outHeader);
+			}
 
 			
 			MapReduceTool.deleteFileIfExistOnHDFS(new Path(partOffsetsFile), job);
@@ -1434,31 +1464,220 @@ public class DataTransform {
 												oprnds.txMtdPath);
 			
 			// Apply transformation metadata, and perform actual transformation 
-			tfPairRDD = ApplyTfCSVSPARK.runSparkJob(sec, csvLines, 
+			if( isBB ) {
+				mcBB = new MatrixCharacteristics(numRowsTf, numColumnsTf, mcOut.getRowsPerBlock(), mcOut.getColsPerBlock());
+				tfBlockRDD = ApplyTfCSVSPARK.runSparkJobBB(sec, csvLines, 
+													oprnds.txMtdPath, specFileWithIDs, tmpPath, 
+													oprnds.inputCSVProperties, numColumns, outHeader, mcBB);
+			}
+			else {
+				tfPairRDD = ApplyTfCSVSPARK.runSparkJob(sec, csvLines, 
 													oprnds.txMtdPath, specFileWithIDs, tmpPath, 
 													oprnds.inputCSVProperties, numColumns, outHeader);
-			
+			}
 		}
 		
 		// copy auxiliary data (old and new header lines) from temporary location to txMtdPath
 		moveFilesFromTmp(fs, tmpPath, oprnds.txMtdPath);
 
+		if( tfBlockRDD != null )
+		{
+			// binary block output (encoded directly by the apply)
+			outMO.setRDDHandle(new RDDObject(tfBlockRDD, outVar));
+			sec.addLineageRDD(outVar, inst.getParams().get("target"));
+			
+			//update output statistics (required for correctness)
+			mcOut.setDimension(mcBB.getRows(), numColumnsTf);
+			mcOut.setNonZeros(-1);
+			return;
+		}
+		
 		// convert to csv output format (serialized longwritable/text)
 		JavaPairRDD<LongWritable, Text> outtfPairRDD = 
 				RDDConverterUtils.stringToSerializableText(tfPairRDD);
 		
 		if ( outtfPairRDD != null ) 
 		{
-			MatrixObject outMO = outputMatrices[0];
-			String outVar = outMO.getVarName();
 			outMO.setRDDHandle(new RDDObject(outtfPairRDD, outVar));
 			sec.addLineageRDD(outVar, inst.getParams().get("target"));
 			
 			//update output statistics (required for correctness)
-			MatrixCharacteristics mcOut = sec.getMatrixCharacteristics(outVar);
 			mcOut.setDimension(numRowsTf, numColumnsTf);
 			mcOut.setNonZeros(-1);
 		}
 	}
+	
+	/**
+	 * Task for building thread-local transformation metadata (or counting the 
+	 * number of total and valid rows) over a contiguous range of input splits.
+	 */
+	private static class TfPrepareTask implements Callable<Object> 
+	{
+		private InputSplit[] _splits = null;
+		private TextInputFormat _informat = null;
+		private JobConf _job = null;
+		private TfUtils _agents = null;
+		private boolean _hasHeader = false;
+		private boolean _build = false;
+		
+		private long _numRows = 0;
+		private long _numValidRows = 0;
+		
+		protected TfPrepareTask( InputSplit[] splits, TextInputFormat informat, JobConf job, TfUtils agents, boolean hasHeader, boolean build )
+		{
+			_splits = splits;
+			_informat = informat;
+			_job = job;
+			_agents = agents;
+			_hasHeader = hasHeader;
+			_build = build;
+		}
+		
+		@Override
+		public Object call() throws Exception
+		{
+			LongWritable key = new LongWritable();
+			Text value = new Text();
+			
+			for( int i=0; i<_splits.length; i++ )
+			{
+				RecordReader<LongWritable,Text> reader = _informat.getRecordReader(_splits[i], _job, Reporter.NULL);
+				try
+				{
+					if( i==0 && _hasHeader )
+						reader.next(key, value); //ignore header
+					
+					while( reader.next(key, value) ) {
+						if( _build ) {
+							//thread-local agents maintain row counts
+							_agents.prepareTfMtd(value.toString());
+						}
+						else {
+							_numRows++;
+							if( !_agents.omit(_agents.getWords(value.toString())) )
+								_numValidRows++;
+						}
+					}
+				}
+				finally {
+					IOUtilFunctions.closeSilently(reader);
+				}
+			}
+			
+			if( _build ) {
+				_numRows = _agents.getTotal();
+				_numValidRows = _agents.getValid();
+			}
+			
+			return null;
+		}
+		
+		public TfUtils getAgents() {
+			return _agents;
+		}
+		
+		public long getNumRows() {
+			return _numRows;
+		}
+		
+		public long getNumValidRows() {
+			return _numValidRows;
+		}
+	}
+	
+	/**
+	 * Task for applying transformation metadata over a contiguous range of input 
+	 * splits, where the output is written to a separate csv part file and/or the 
+	 * disjoint rows of the output matrix block starting at the given row offset.
+	 * 
+	 * Note: the agents are shared across tasks, which is safe because apply only
+	 * reads the transformation metadata. 
+	 */
+	private static class TfApplyTask implements Callable<Object> 
+	{
+		private InputSplit[] _splits = null;
+		private TextInputFormat _informat = null;
+		private JobConf _job = null;
+		private TfUtils _agents = null;
+		private boolean _hasHeader = false;
+		private boolean _optimizeMaps = false;
+		private FileSystem _fs = null;
+		private Path _path = null;
+		private MatrixBlock _mb = null;
+		private int _rowOffset = -1;
+		
+		protected TfApplyTask( InputSplit[] splits, TextInputFormat informat, JobConf job, TfUtils agents, boolean hasHeader, 
+				boolean optimizeMaps, FileSystem fs, Path path, MatrixBlock mb, int rowOffset )
+		{
+			_splits = splits;
+			_informat = informat;
+			_job = job;
+			_agents = agents;
+			_hasHeader = hasHeader;
+			_optimizeMaps = optimizeMaps;
+			_fs = fs;
+			_path = path;
+			_mb = mb;
+			_rowOffset = rowOffset;
+		}
+		
+		@Override
+		public Object call() throws Exception
+		{
+			LongWritable key = new LongWritable();
+			Text value = new Text();
+			StringBuilder sb = new StringBuilder();
+			String[] words = null;
+			int rowID = _rowOffset; // rowid to be used in filling the matrix block
+			
+			BufferedWriter out = null;
+			if( _path != null )
+				out = new BufferedWriter(new OutputStreamWriter(_fs.create(_path, true)));
+			
+			try
+			{
+				for( int i=0; i<_splits.length; i++ )
+				{
+					RecordReader<LongWritable,Text> reader = _informat.getRecordReader(_splits[i], _job, Reporter.NULL);
+					try
+					{
+						if( i==0 && _hasHeader )
+							reader.next(key, value); //ignore header
+						
+						while( reader.next(key, value) ) {
+							words = _agents.getWords(value.toString());
+							
+							if(!_agents.omit(words))
+							{
+								if( _mb != null ) 
+								{
+									//encode the row directly into disjoint rows of the preallocated
+									//block (no string output and parsing), where nnz is recomputed 
+									//once all tasks are finished
+									_agents.apply((out != null) ? words.clone() : words, _optimizeMaps, _mb, rowID);
+								}
+								
+								if (out != null)
+								{
+									words = _agents.apply(words, _optimizeMaps);
+									out.write( _agents.checkAndPrepOutputString(words, sb) );
+									out.write("\n");
+								}
+								rowID++;
+							}
+						}
+					}
+					finally {
+						IOUtilFunctions.closeSilently(reader);
+					}
+				}
+			}
+			finally {
+				if( out != null )
+					out.close();
+			}
+			
+			return null;
+		}
+	}
 }
-
@@ -23,7 +23,6 @@ import java.io.OutputStreamWriter;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.regex.Pattern;
 
 import org.apache.hadoop.fs.FileSystem;
@@ -35,8 +34,8 @@ import org.apache.wink.json4j.JSONArray;
 import org.apache.wink.json4j.JSONException;
 import org.apache.wink.json4j.JSONObject;
 
-import com.google.common.base.Functions;
-import com.google.common.collect.Ordering;
+import com.ibm.bi.dml.runtime.DMLRuntimeException;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
 import com.ibm.bi.dml.runtime.util.UtilFunctions;
 
 public class DummycodeAgent extends TransformationAgent {	
@@ -46,8 +45,7 @@ public class DummycodeAgent extends TransformationAgent {
 	private int[] _dcdList = null;
 	private long numCols = 0;
 	
-	private HashMap<Integer, HashMap<String,String>> _finalMaps = null;
-	private HashMap<Integer, HashMap<String,Long>> _finalMapsCP = null;
+	private HashMap<Integer, RecodeMap> _finalMaps = null;
 	private int[] _binList = null;
 	private int[] _numBins = null;
 	
@@ -98,14 +96,10 @@ public class DummycodeAgent extends TransformationAgent {
 		// Nothing to do here
 	}
 
-	public void setRecodeMaps(HashMap<Integer, HashMap<String,String>> maps) {
+	public void setRecodeMaps(HashMap<Integer, RecodeMap> maps) {
 		_finalMaps = maps;
 	}
 	
-	public void setRecodeMapsCP(HashMap<Integer, HashMap<String,Long>> maps) {
-		_finalMapsCP = maps;
-	}
-	
 	public void setNumBins(int[] binList, int[] numbins) {
 		_binList = binList;
 		_numBins = numbins;
@@ -212,65 +206,35 @@ public class DummycodeAgent extends TransformationAgent {
 			return header;
 		
 		String[] names = delim.split(header, -1);
-		List<String> newNames = null;
 		
 		StringBuilder sb = new StringBuilder();
 		
 		// Dummycoding can be performed on either on a recoded column or on a binned column
 		
 		// process recoded columns
-		if(_finalMapsCP != null && _dcdList != null) 
+		if(_finalMaps != null && _dcdList != null) 
 		{
 			for(int i=0; i <_dcdList.length; i++) 
 			{
 				int colID = _dcdList[i];
-				HashMap<String,Long> map = _finalMapsCP.get(colID);
+				RecodeMap map = _finalMaps.get(colID);
 				String colName = UtilFunctions.unquote(names[colID-1]);
 				
 				if ( map != null  ) 
 				{
-					// order map entries by their recodeID
-					Ordering<String> valueComparator = Ordering.natural().onResultOf(Functions.forMap(map));
-					newNames = valueComparator.sortedCopy(map.keySet());
-					
-					// construct concatenated string of map entries
-					sb.setLength(0);
-					for(int idx=0; idx < newNames.size(); idx++) 
-					{
-						if(idx==0) 
-							sb.append( colName + DCD_NAME_SEP + newNames.get(idx));
-						else
-							sb.append( delim + colName + DCD_NAME_SEP + newNames.get(idx));
-					}
-					names[colID-1] = sb.toString();			// replace original column name with dcd name
-				}
-			}
-		}
-		else if(_finalMaps != null && _dcdList != null) {
-			for(int i=0; i <_dcdList.length; i++) {
-				int colID = _dcdList[i];
-				HashMap<String,String> map = _finalMaps.get(colID);
-				String colName = UtilFunctions.unquote(names[colID-1]);
-				
-				if ( map != null ) 
-				{
-					// order map entries by their recodeID (represented as Strings .. "1", "2", etc.)
-					Ordering<String> orderByID = new Ordering<String>() 
-					{
-			    		public int compare(String s1, String s2) {
-			        		return (Integer.parseInt(s1) - Integer.parseInt(s2));
-			    		}
-					};
+					// order map entries by their recodeID (1, 2, etc.)
+					String[] newNames = new String[map.size()];
+					for(int j=0; j < map.size(); j++)
+						newNames[(int)map.getValue(j)-1] = map.getKey(j);
 					
-					newNames = orderByID.onResultOf(Functions.forMap(map)).sortedCopy(map.keySet());
 					// construct concatenated string of map entries
 					sb.setLength(0);
-					for(int idx=0; idx < newNames.size(); idx++) 
+					for(int idx=0; idx < newNames.length; idx++) 
 					{
 						if(idx==0) 
-							sb.append( colName + DCD_NAME_SEP + newNames.get(idx));
+							sb.append( colName + DCD_NAME_SEP + newNames[idx]);
 						else
-							sb.append( delim + colName + DCD_NAME_SEP + newNames.get(idx));
+							sb.append( delim + colName + DCD_NAME_SEP + newNames[idx]);
 					}
 					names[colID-1] = sb.toString();			// replace original column name with dcd name
 				}
@@ -331,16 +295,10 @@ public class DummycodeAgent extends TransformationAgent {
 		for(int i=0; i<_dcdList.length; i++) {
 			int colID = _dcdList[i];
 			
-			// Find the domain size for colID using _finalMaps or _finalMapsCP
+			// Find the domain size for colID using _finalMaps
 			int domainSize = 0;
-			if(_finalMaps != null) {
-				if(_finalMaps.get(colID) != null)
-					domainSize = _finalMaps.get(colID).size();
-			}
-			else {
-				if(_finalMapsCP.get(colID) != null)
-					domainSize = _finalMapsCP.get(colID).size();
-			}
+			if(_finalMaps != null && _finalMaps.get(colID) != null)
+				domainSize = _finalMaps.get(colID).size();
 			
 			if ( domainSize != 0 ) {
 				// dummycoded column
@@ -399,6 +357,65 @@ public class DummycodeAgent extends TransformationAgent {
 		return nwords;
 	}
 	
+	/**
+	 * Method to apply all transformations (after missing value imputation) and 
+	 * encode the resulting row directly into row rowID of the given output block. 
+	 * In contrast to apply, recode and bin ids are obtained as numbers and dummycoded 
+	 * columns are set to 1 at their output position, which avoids materializing the 
+	 * transformed row as strings and parsing them again.  
+	 * 
+	 * Note: values are appended in ascending column order; the number of non-zeros 
+	 * of the output block needs to be recomputed by the caller.
+	 * 
+	 * @param words
+	 * @param agents
+	 * @param optimizeMaps
+	 * @param out
+	 * @param rowID
+	 * @throws DMLRuntimeException
+	 */
+	public void apply(String[] words, TfUtils agents, boolean optimizeMaps, MatrixBlock out, int rowID) 
+		throws DMLRuntimeException 
+	{
+		RecodeAgent ra = agents.getRecodeAgent();
+		BinAgent ba = agents.getBinAgent();
+		boolean checkEmptyString = ( agents.getNAStrings() != null );
+		
+		for(int colID=1, idx=0, ncolID=1; colID <= words.length; colID++) 
+		{
+			String w = words[colID-1];
+			double val = 0;
+			int ix = -1;
+			
+			// obtain numeric value of recoded, binned, or numeric column
+			if( (ix = ra.isRecoded(colID)) >= 0 )
+				val = ra.getCode(ix, w, optimizeMaps, agents);
+			else if( (ix = ba.isBinned(colID)) >= 0 )
+				val = ba.getBinID(ix, w);
+			else if( w == null || w.isEmpty() ) {
+				if( checkEmptyString )
+					throw new DMLRuntimeException("When na.strings are provided, empty string \"\" is considered as a missing value, and it must be imputed appropriately. Encountered an unhandled empty string in column ID: " + colID);
+			}
+			else
+				val = UtilFunctions.parseToDouble(w);
+			
+			if(_dcdList != null && idx < _dcdList.length && colID==_dcdList[idx]) {
+				// dummycoded columns
+				int rcdVal = UtilFunctions.toInt(val);
+				if( rcdVal < 1 || rcdVal > _domainSizes[idx] )
+					throw new DMLRuntimeException("Error in dummycoding: colID="+colID + ", rcdVal=" + rcdVal+", word="+w + ", domainSize=" + _domainSizes[idx] + ", dummyCodedLength=" + _dummycodedLength);
+				out.appendValue(rowID, ncolID-1+rcdVal-1, 1);
+				ncolID += _domainSizes[idx];
+				idx++;
+			}
+			else {
+				if( val != 0 )
+					out.appendValue(rowID, ncolID-1, val);
+				ncolID++;
+			}
+		}
+	}
+	
 	/**
 	 * Check if the given column ID is subjected to this transformation.
 	 * 
@@ -536,6 +536,52 @@ public class MVImputeAgent extends TransformationAgent {
 		br.close();
 	}
 	
+	/**
+	 * Merges the partial counts, means, and variances of the given agent into 
+	 * this agent, used for multi-threaded transform in CP. Note that the logic
+	 * is similar to mergeAndOutputTransformationMetadata but without encoding.
+	 * 
+	 * @param that
+	 * @throws IOException
+	 */
+	void merge(MVImputeAgent that) throws IOException {
+		try {
+			if(_mvList != null)
+			for(int i=0; i < _mvList.length; i++) {
+				mergeMean(_meanList[i], _countList[i], that._meanList[i], that._countList[i]);
+				_countList[i] += that._countList[i];
+				if( _varList[i] != null )
+					_varFn.execute(_varList[i], that._varList[i]);
+			}
+			
+			if(_scnomvList != null)
+			for(int i=0; i < _scnomvList.length; i++) {
+				mergeMean(_scnomvMeanList[i], _scnomvCountList[i], that._scnomvMeanList[i], that._scnomvCountList[i]);
+				_scnomvCountList[i] += that._scnomvCountList[i];
+				_varFn.execute(_scnomvVarList[i], that._scnomvVarList[i]);
+			}
+		} catch(DMLRuntimeException e) {
+			throw new IOException(e);
+		}
+	}
+	
+	/**
+	 * Merges two partial means with their counts, where the result is
+	 * stored in mean1.
+	 * 
+	 * @param mean1
+	 * @param count1
+	 * @param mean2
+	 * @param count2
+	 */
+	private static void mergeMean(KahanObject mean1, long count1, KahanObject mean2, long count2) {
+		long count = count1 + count2;
+		if( count2 > 0 ) {
+			double delta = mean2._sum - mean1._sum;
+			KahanPlus.getKahanPlusFnObject().execute2(mean1, delta*count2/count);
+		}
+	}
+	
 	public void outputTransformationMetadata(String outputDir, FileSystem fs, TfUtils agents) throws IOException {
 		
 		try{
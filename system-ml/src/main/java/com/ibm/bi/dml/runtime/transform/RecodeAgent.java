@@ -24,7 +24,9 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map.Entry;
 import java.util.Iterator;
 import java.util.List;
 
@@ -39,7 +41,6 @@ import org.apache.wink.json4j.JSONObject;
 
 import scala.Tuple2;
 
-import com.google.common.collect.Ordering;
 import com.ibm.bi.dml.runtime.transform.MVImputeAgent.MVMethod;
 import com.ibm.bi.dml.runtime.util.UtilFunctions;
 
@@ -51,8 +52,8 @@ public class RecodeAgent extends TransformationAgent {
 	private int[] _mvrcdList = null;
 	private int[] _fullrcdList = null;
 
-	// HashMap< columnID, HashMap<distinctValue, count> >
-	private HashMap<Integer, HashMap<String, Long>> _rcdMaps  = new HashMap<Integer, HashMap<String, Long>>();
+	// HashMap< columnID, RecodeMap<distinctValue, count> >
+	private HashMap<Integer, RecodeMap> _rcdMaps  = new HashMap<Integer, RecodeMap>();
 	
 	RecodeAgent(JSONObject parsedSpec) throws JSONException {
 		
@@ -101,19 +102,32 @@ public class RecodeAgent extends TransformationAgent {
 		String w = null;
 		for (int colID : _fullrcdList) {
 			w = UtilFunctions.unquote(words[colID-1].trim());
-			if(_rcdMaps.get(colID) == null ) 
-				_rcdMaps.put(colID, new HashMap<String, Long>());
-			
-			HashMap<String, Long> map = _rcdMaps.get(colID);
-			Long count = map.get(w);
-			if(count == null)
-				map.put(w, new Long(1));
+			RecodeMap map = _rcdMaps.get(colID);
+			if( map == null ) {
+				map = new RecodeMap();
+				_rcdMaps.put(colID, map);
+			}
+			map.add(w, 1);
+		}
+	}
+	
+	/**
+	 * Merges the partial recode maps (distinct values and counts) of the given
+	 * agent into this agent, used for multi-threaded transform in CP.
+	 * 
+	 * @param that
+	 */
+	void merge(RecodeAgent that) {
+		for( Entry<Integer, RecodeMap> e : that._rcdMaps.entrySet() ) {
+			RecodeMap map = _rcdMaps.get(e.getKey());
+			if( map == null )
+				_rcdMaps.put(e.getKey(), e.getValue());
 			else
-				map.put(w, count+1);
+				map.addAll(e.getValue());
 		}
 	}
 	
-	private HashMap<String, Long> handleMVConstant(int colID, TfUtils agents, HashMap<String, Long> map)
+	private RecodeMap handleMVConstant(int colID, TfUtils agents, RecodeMap map)
 	{
 		MVImputeAgent mvagent = agents.getMVImputeAgent();
 		if ( mvagent.getMethod(colID) == MVMethod.CONSTANT ) 
@@ -124,12 +138,8 @@ public class RecodeAgent extends TransformationAgent {
 				throw new RuntimeException("Expecting a constant replacement value for column ID " + colID);
 			
 			repValue = UtilFunctions.unquote(repValue);
-			Long count = map.get(repValue);
 			long mvCount = agents.getValid() - mvagent.getNonMVCount(colID);
-			if(count == null)
-				map.put(repValue, mvCount);
-			else
-				map.put(repValue, count + mvCount);
+			map.add(repValue, mvCount);
 		}
 		return map;
 	}
@@ -160,7 +170,7 @@ public class RecodeAgent extends TransformationAgent {
 			for(int i=0; i < _fullrcdList.length; i++) 
 			{
 				int colID = _fullrcdList[i];
-				HashMap<String, Long> map = _rcdMaps.get(colID);
+				RecodeMap map = _rcdMaps.get(colID);
 				
 				if(map != null) 
 				{
@@ -168,12 +178,12 @@ public class RecodeAgent extends TransformationAgent {
 					
 					if ( out != null ) {
 						IntWritable iw = new IntWritable(colID);
-						for(String s : map.keySet()) 
-							out.collect(iw, new DistinctValue(s, map.get(s)));
+						for(int j=0; j < map.size(); j++) 
+							out.collect(iw, new DistinctValue(map.getKey(j), map.getValue(j)));
 					}
 					else if ( list != null ) {
-						for(String s : map.keySet()) 
-							list.add(new Tuple2<Integer,DistinctValue>(colID, new DistinctValue(s, map.get(s))) );
+						for(int j=0; j < map.size(); j++) 
+							list.add(new Tuple2<Integer,DistinctValue>(colID, new DistinctValue(map.getKey(j), map.getValue(j))) );
 					}
 				}
 			}
@@ -199,14 +209,15 @@ public class RecodeAgent extends TransformationAgent {
 	 * @param colID
 	 * @param fs
 	 * @param mvagent
+	 * @return compacted recode map (distinct value to recode index)
 	 * @throws IOException
 	 */
-	private void writeMetadata(HashMap<String,Long> map, String outputDir, int colID, FileSystem fs, TfUtils agents, boolean fromCP) throws IOException {
+	private RecodeMap writeMetadata(RecodeMap map, String outputDir, int colID, FileSystem fs, TfUtils agents, boolean fromCP) throws IOException {
 		// output recode maps and mode
 		
 		MVImputeAgent mvagent = agents.getMVImputeAgent();
 		String mode = null;
-		Long count = null;
+		long count = 0;
 		int rcdIndex = 0, modeIndex = 0;
 		long maxCount = Long.MIN_VALUE;
 		
@@ -218,20 +229,28 @@ public class RecodeAgent extends TransformationAgent {
 		if(isRecoded)
 			br = new BufferedWriter(new OutputStreamWriter(fs.create(pt,true)));		
 
-		// remove NA strings
-		if ( agents.getNAStrings() != null)
-			for(String naword : agents.getNAStrings()) 
-				map.remove(naword);
-		
 		if(fromCP)
 			map = handleMVConstant(colID, agents,  map);
 		
-		if ( map.size() == 0 ) 
+		// remove NA strings (except a constant replacement value)
+		List<String> newNames = new ArrayList<String>(map.size());
+		List<String> naStrings = (agents.getNAStrings() != null) ? Arrays.asList(agents.getNAStrings()) : null;
+		String repValue = fromCP ? mvagent.getReplacement(colID) : null;
+		repValue = (repValue != null) ? UtilFunctions.unquote(repValue) : null;
+		for(int i=0; i < map.size(); i++) {
+			String w = map.getKey(i);
+			if( naStrings == null || w.equals(repValue) || !naStrings.contains(w) )
+				newNames.add(w);
+		}
+		
+		if ( newNames.size() == 0 ) 
 			throw new RuntimeException("Can not proceed since \"" + agents.getName(colID) + "\" (id=" + colID + ") contains only the missing values, and not a single valid value -- set imputation method to \"constant\".");
 		
 		// Order entries by category (string) value
-		Ordering<String> valueComparator = Ordering.natural();
-		List<String> newNames = valueComparator.sortedCopy(map.keySet());
+		Collections.sort(newNames);
+		
+		// Compacted map of recode indexes (useful when invoked from CP)
+		RecodeMap rcdMap = new RecodeMap(newNames.size(), map.getKeyBytes());
 
 		for(String w : newNames) { //map.keySet()) {
 				count = map.get(w);
@@ -247,8 +266,7 @@ public class RecodeAgent extends TransformationAgent {
 					modeIndex = rcdIndex;
 				}
 				
-				// Replace count with recode index (useful when invoked from CP)
-				map.put(w, (long)rcdIndex);
+				rcdMap.put(w, rcdIndex);
 		}
 		
 		if(br != null)		
@@ -270,7 +288,7 @@ public class RecodeAgent extends TransformationAgent {
 			// output number of distinct values
 			pt=new Path(outputDir+"/Recode/"+ agents.getName(colID) + NDISTINCT_FILE_SUFFIX);
 			br=new BufferedWriter(new OutputStreamWriter(fs.create(pt,true)));
-			br.write(""+map.size());
+			br.write(""+rcdMap.size());
 			br.close();
 		}
 		
@@ -282,6 +300,7 @@ public class RecodeAgent extends TransformationAgent {
 			br.close();
 		}
 		
+		return rcdMap;
 	}
 	
 	public void outputTransformationMetadata(String outputDir, FileSystem fs, TfUtils agents) throws IOException {
@@ -290,7 +309,7 @@ public class RecodeAgent extends TransformationAgent {
 		
 		for(int i=0; i<_fullrcdList.length; i++) {
 			int colID = _fullrcdList[i];
-			writeMetadata(_rcdMaps.get(colID), outputDir, colID, fs, agents, true);
+			_rcdMaps.put(colID, writeMetadata(_rcdMaps.get(colID), outputDir, colID, fs, agents, true));
 		}
 	}
 	
@@ -303,23 +322,13 @@ public class RecodeAgent extends TransformationAgent {
 	 */
 	@Override
 	public void mergeAndOutputTransformationMetadata(Iterator<DistinctValue> values, String outputDir, int colID, FileSystem fs, TfUtils agents) throws IOException {
-		HashMap<String, Long> map = new HashMap<String,Long>();
+		RecodeMap map = new RecodeMap();
 		
 		DistinctValue d = new DistinctValue();
-		String word = null;
-		Long count = null, val = null;
 		while(values.hasNext()) {
 			d.reset();
 			d = values.next();
-			
-			word = d.getWord();
-			count = d.getCount();
-			
-			val = map.get(word);
-			if(val == null) 
-				map.put(word, count);
-			else 
-				map.put(word, val+count);
+			map.add(d.getWord(), d.getCount());
 		}
 		
 		writeMetadata(map, outputDir, colID, fs, agents, false);
@@ -327,13 +336,28 @@ public class RecodeAgent extends TransformationAgent {
 	
 	// ------------------------------------------------------------------------------------------------
 	
-	public HashMap<Integer, HashMap<String,Long>> getCPRecodeMaps() { return _rcdMaps; }
+	public HashMap<Integer, RecodeMap> getCPRecodeMaps() { return _rcdMaps; }
 	
-	HashMap<Integer, HashMap<String,String>> _finalMaps = null;
-	public HashMap<Integer, HashMap<String,String>> getRecodeMaps() {
+	HashMap<Integer, RecodeMap> _finalMaps = null;
+	public HashMap<Integer, RecodeMap> getRecodeMaps() {
 		return _finalMaps;
 	}
 	
+	/**
+	 * Get the in-memory size of all recode maps (build and apply) in bytes.
+	 * 
+	 * @return
+	 */
+	public long getInMemorySize() {
+		long size = 0;
+		for( RecodeMap map : _rcdMaps.values() )
+			size += map.getInMemorySize();
+		if( _finalMaps != null )
+			for( RecodeMap map : _finalMaps.values() )
+				size += map.getInMemorySize();
+		return size;
+	}
+	
 	/**
 	 * Method to load recode maps of all attributes, at once.
 	 * 
@@ -345,7 +369,7 @@ public class RecodeAgent extends TransformationAgent {
 		if ( _rcdList == null )
 			return;
 		
-		_finalMaps = new HashMap<Integer, HashMap<String, String>>();
+		_finalMaps = new HashMap<Integer, RecodeMap>();
 	
 		if(fs.isDirectory(txMtdDir)) {
 			for(int i=0; i<_rcdList.length;i++) {
@@ -354,11 +378,11 @@ public class RecodeAgent extends TransformationAgent {
 				Path path = new Path( txMtdDir + "/Recode/" + agents.getName(colID) + RCD_MAP_FILE_SUFFIX);
 				TfUtils.checkValidInputFile(fs, path, true); 
 				
-				HashMap<String,String> map = new HashMap<String,String>();
+				RecodeMap map = new RecodeMap();
 				
 				BufferedReader br = new BufferedReader(new InputStreamReader(fs.open(path)));
 				String line = null, word=null;
-				String rcdIndex = null;
+				long rcdIndex = -1;
 				
 				// Example line to parse: "WN (1)67492",1,61975
 				while((line=br.readLine())!=null) {
@@ -370,7 +394,7 @@ public class RecodeAgent extends TransformationAgent {
 					int idx = idxQuote+2;
 					while(line.charAt(idx) != TXMTD_SEP.charAt(0))
 						idx++;
-					rcdIndex = line.substring(idxQuote+2,idx); 
+					rcdIndex = UtilFunctions.parseToLong(line.substring(idxQuote+2,idx)); 
 					
 					map.put(word, rcdIndex);
 				}
@@ -398,7 +422,8 @@ public class RecodeAgent extends TransformationAgent {
 		for(int i=0; i < _rcdList.length; i++) {
 			int colID = _rcdList[i];
 			try {
-				words[colID-1] = _finalMaps.get(colID).get(UtilFunctions.unquote(words[colID-1].trim()));
+				long code = _finalMaps.get(colID).get(UtilFunctions.unquote(words[colID-1].trim()));
+				words[colID-1] = (code >= 0) ? Long.toString(code) : null;
 			} catch(NullPointerException e) {
 				System.err.println("Maps for colID="+colID + " may be null (map = " + _finalMaps.get(colID) + ")");
 				throw new RuntimeException(e);
@@ -421,21 +446,46 @@ public class RecodeAgent extends TransformationAgent {
 		return ( idx >= 0 ? idx : -1);
 	}
 
+	/**
+	 * Get the recode id of the given word for the i-th recoded column, using 
+	 * either the recode maps built in CP (optimizeMaps) or the loaded final maps.
+	 * 
+	 * @param i
+	 * @param word
+	 * @param optimizeMaps
+	 * @param agents
+	 * @return
+	 */
+	public double getCode(int i, String word, boolean optimizeMaps, TfUtils agents) 
+	{
+		int colID = _rcdList[i];
+		String w = UtilFunctions.unquote(word.trim());
+		
+		if( optimizeMaps ) {
+			long code = _rcdMaps.get(colID).get(w);
+			if( code < 0 ) {
+				if(w.isEmpty() && agents.isNA("") )
+					throw new RuntimeException("Empty string (a missing value) in column ID " + colID + " is not handled. Consider adding an imputation method on this column.");		
+				throw new RuntimeException("ColID="+colID + ", word=" + word + ", maps entry not found (map = " + _rcdMaps.get(colID) + ")");
+			}
+			return code;
+		}
+		else {
+			RecodeMap map = _finalMaps.get(colID);
+			if( map == null )
+				throw new RuntimeException("Maps for colID="+colID + " may be null (map = " + map + ")");
+			long code = map.get(w);
+			return (code >= 0) ? code : 0;
+		}
+	}
+	
 	public String[] cp_apply(String[] words, TfUtils agents) {
 		if ( _rcdList == null )
 			return words;
 		
-		String w = null;
 		for(int i=0; i < _rcdList.length; i++) {
 			int colID = _rcdList[i];
-			try {
-				w = UtilFunctions.unquote(words[colID-1].trim());
-				words[colID-1] = Long.toString(_rcdMaps.get(colID).get(w));
-			} catch(NullPointerException e) {
-				if(w.isEmpty() && agents.isNA("") )
-					throw new RuntimeException("Empty string (a missing value) in column ID " + colID + " is not handled. Consider adding an imputation method on this column.");		
-				throw new RuntimeException("ColID="+colID + ", word=" + words[colID-1] + ", maps entry not found (map = " + _rcdMaps.get(colID) + ")");
-			}
+			words[colID-1] = Long.toString((long)getCode(i, words[colID-1], true, agents));
 		}
 			
 		return words;
@@ -445,9 +495,9 @@ public class RecodeAgent extends TransformationAgent {
 	public void printMaps() {
 		for(Integer k : _rcdMaps.keySet()) {
 			System.out.println("Column " + k);
-			HashMap<String,Long> map = _rcdMaps.get(k);
-			for(String w : map.keySet()) {
-				System.out.println("    " + w + " : " + map.get(w));
+			RecodeMap map = _rcdMaps.get(k);
+			for(int i=0; i < map.size(); i++) {
+				System.out.println("    " + map.getKey(i) + " : " + map.getValue(i));
 			}
 		}
 	}
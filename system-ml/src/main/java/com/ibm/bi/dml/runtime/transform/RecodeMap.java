@@ -0,0 +1,439 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+
+package com.ibm.bi.dml.runtime.transform;
+
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Compact per-column recode dictionary from distinct values to long values,
+ * which are counts during metadata construction and recode ids during apply. 
+ * In contrast to a HashMap&lt;String,Long&gt;, this map does not allocate 
+ * String, Long, or entry objects per distinct value. All keys are stored as 
+ * UTF-8 bytes in a single byte array (addressed by an offset array), values 
+ * and hash codes in primitive arrays, and the hash table itself is an int 
+ * array of entry ids with open addressing (linear probing). Lookups by String 
+ * compare the characters against the stored bytes and hence do not allocate 
+ * for ASCII values.
+ * 
+ * Entries are kept in insertion order and cannot be removed. Recode maps are
+ * compacted by building a new, exactly sized map in the final recode order.
+ * 
+ */
+public class RecodeMap implements Serializable
+{
+	private static final long serialVersionUID = -3398402913434569453L;
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final int INIT_CAPACITY = 16;
+	private static final double LOAD_FACTOR = 0.75;
+	
+	private byte[] _data = null;    //concatenated utf-8 keys
+	private int[] _offsets = null;  //key offsets (key i in [_offsets[i], _offsets[i+1]))
+	private int[] _hashes = null;   //string hash codes of keys
+	private long[] _values = null;  //values (counts or recode ids)
+	private int[] _table = null;    //hash table of entry ids+1 (0 for empty slots)
+	private int _size = 0;
+	
+	public RecodeMap()
+	{
+		this(INIT_CAPACITY);
+	}
+	
+	/**
+	 * 
+	 * @param capacity expected number of entries
+	 */
+	public RecodeMap(int capacity)
+	{
+		this(capacity, capacity * 8);
+	}
+	
+	/**
+	 * 
+	 * @param capacity expected number of entries
+	 * @param keyBytes expected total size of all keys in bytes
+	 */
+	public RecodeMap(int capacity, int keyBytes)
+	{
+		capacity = Math.max(capacity, 1);
+		_data = new byte[Math.max(keyBytes, 1)];
+		_offsets = new int[capacity + 1];
+		_hashes = new int[capacity];
+		_values = new long[capacity];
+		_table = new int[getTableSize(capacity)];
+	}
+	
+	/**
+	 * Get the number of distinct keys.
+	 * 
+	 * @return
+	 */
+	public int size()
+	{
+		return _size;
+	}
+	
+	/**
+	 * Get the value of the given key, or -1 if not existing.
+	 * 
+	 * @param key
+	 * @return
+	 */
+	public long get(String key)
+	{
+		int ix = _table[indexOf(key, key.hashCode())];
+		return (ix > 0) ? _values[ix-1] : -1;
+	}
+	
+	/**
+	 * Sets the value of the given key, where non-existing keys are inserted.
+	 * 
+	 * @param key
+	 * @param value
+	 */
+	public void put(String key, long value)
+	{
+		int h = key.hashCode();
+		int pos = indexOf(key, h);
+		if( _table[pos] > 0 )
+			_values[_table[pos]-1] = value;
+		else {
+			byte[] bkey = key.getBytes(UTF8);
+			insert(pos, bkey, 0, bkey.length, h, value);
+		}
+	}
+	
+	/**
+	 * Adds the given value to the value of the given key, where non-existing 
+	 * keys are inserted with the given value (e.g., for counting).
+	 * 
+	 * @param key
+	 * @param value
+	 */
+	public void add(String key, long value)
+	{
+		int h = key.hashCode();
+		int pos = indexOf(key, h);
+		if( _table[pos] > 0 )
+			_values[_table[pos]-1] += value;
+		else {
+			byte[] bkey = key.getBytes(UTF8);
+			insert(pos, bkey, 0, bkey.length, h, value);
+		}
+	}
+	
+	/**
+	 * Adds all entries of the given map to this map, without materializing
+	 * the keys of the given map as strings.
+	 * 
+	 * @param that
+	 */
+	public void addAll(RecodeMap that)
+	{
+		for( int i=0; i<that._size; i++ ) {
+			int off = that._offsets[i];
+			int len = that._offsets[i+1] - off;
+			int h = that._hashes[i];
+			int pos = indexOf(that._data, off, len, h);
+			if( _table[pos] > 0 )
+				_values[_table[pos]-1] += that._values[i];
+			else
+				insert(pos, that._data, off, len, h, that._values[i]);
+		}
+	}
+	
+	/**
+	 * Get the key of the i-th entry (in insertion order).
+	 * 
+	 * @param i
+	 * @return
+	 */
+	public String getKey(int i)
+	{
+		return new String(_data, _offsets[i], _offsets[i+1]-_offsets[i], UTF8);
+	}
+	
+	/**
+	 * Get the value of the i-th entry (in insertion order).
+	 * 
+	 * @param i
+	 * @return
+	 */
+	public long getValue(int i)
+	{
+		return _values[i];
+	}
+	
+	/**
+	 * Get all keys (in insertion order).
+	 * 
+	 * @return
+	 */
+	public String[] getKeys()
+	{
+		String[] ret = new String[_size];
+		for( int i=0; i<_size; i++ )
+			ret[i] = getKey(i);
+		return ret;
+	}
+	
+	/**
+	 * Get the total size of all keys in bytes.
+	 * 
+	 * @return
+	 */
+	public int getKeyBytes()
+	{
+		return _offsets[_size];
+	}
+	
+	/**
+	 * Get the in-memory size of this map in bytes.
+	 * 
+	 * @return
+	 */
+	public long getInMemorySize()
+	{
+		//object overhead, 5 array references, 1 int
+		long size = 64;
+		size += 16 + _data.length;
+		size += 16 + 4L * _offsets.length;
+		size += 16 + 4L * _hashes.length;
+		size += 16 + 8L * _values.length;
+		size += 16 + 4L * _table.length;
+		return size;
+	}
+	
+	/**
+	 * Get the estimated in-memory size of a map with the given number of 
+	 * distinct keys and average key length (in bytes), which allows to 
+	 * estimate the memory requirements of recoding upfront. This is an 
+	 * upper bound for maps built by incremental inserts.
+	 * 
+	 * @param ndistinct
+	 * @param avgKeyLen
+	 * @return
+	 */
+	public static long estimateInMemorySize(long ndistinct, double avgKeyLen)
+	{
+		//worst-case array sizes due to growth by factor 2 
+		long capacity = Math.max(2 * ndistinct, INIT_CAPACITY);
+		long keyBytes = Math.max(2 * (long)Math.ceil(ndistinct * avgKeyLen), 8 * INIT_CAPACITY);
+		long tableSize = Math.max((long)Math.ceil(2 * ndistinct / LOAD_FACTOR), getTableSize(INIT_CAPACITY));
+		long size = 64 + 5 * 16;
+		size += keyBytes;
+		size += (4 + 4 + 8) * capacity + 4;
+		size += 4 * tableSize;
+		return size;
+	}
+	
+	/**
+	 * Get a string representation of (a prefix of) the entries in insertion
+	 * order, e.g., for error messages.
+	 * 
+	 * @return
+	 */
+	@Override
+	public String toString()
+	{
+		final int maxEntries = 10;
+		StringBuilder sb = new StringBuilder();
+		sb.append("RecodeMap[size=");
+		sb.append(_size);
+		sb.append("] {");
+		for( int i=0; i<Math.min(_size, maxEntries); i++ ) {
+			if( i > 0 )
+				sb.append(", ");
+			sb.append(getKey(i));
+			sb.append('=');
+			sb.append(_values[i]);
+		}
+		if( _size > maxEntries )
+			sb.append(", ...");
+		sb.append('}');
+		return sb.toString();
+	}
+	
+	/**
+	 * Get the slot of the given string key, i.e., its position if existing,
+	 * otherwise the position of the first empty slot of its probe sequence.
+	 * 
+	 * @param key
+	 * @param h
+	 * @return
+	 */
+	private int indexOf(String key, int h)
+	{
+		final int mask = _table.length - 1;
+		int pos = hash(h) & mask;
+		while( _table[pos] > 0 && !equalsKey(_table[pos]-1, key, h) )
+			pos = (pos + 1) & mask;
+		return pos;
+	}
+	
+	/**
+	 * Get the slot of the given byte key, i.e., its position if existing,
+	 * otherwise the position of the first empty slot of its probe sequence.
+	 * 
+	 * @param data
+	 * @param off
+	 * @param len
+	 * @param h
+	 * @return
+	 */
+	private int indexOf(byte[] data, int off, int len, int h)
+	{
+		final int mask = _table.length - 1;
+		int pos = hash(h) & mask;
+		while( _table[pos] > 0 && !equalsKey(_table[pos]-1, data, off, len, h) )
+			pos = (pos + 1) & mask;
+		return pos;
+	}
+	
+	/**
+	 * 
+	 * @param ix
+	 * @param key
+	 * @param h
+	 * @return
+	 */
+	private boolean equalsKey(int ix, String key, int h)
+	{
+		if( _hashes[ix] != h )
+			return false;
+		
+		//compare characters against stored bytes (ascii fast path),
+		//note: utf-8 encoding requires at least one byte per char
+		int off = _offsets[ix];
+		int len = _offsets[ix+1] - off;
+		int klen = key.length();
+		if( klen > len )
+			return false;
+		for( int i=0; i<klen; i++ ) {
+			char c = key.charAt(i);
+			if( c >= 0x80 ) { //non-ascii
+				byte[] bkey = key.getBytes(UTF8);
+				return equalsKey(ix, bkey, 0, bkey.length, h);
+			}
+			if( _data[off+i] != c )
+				return false;
+		}
+		return (klen == len);
+	}
+	
+	/**
+	 * 
+	 * @param ix
+	 * @param data
+	 * @param off
+	 * @param len
+	 * @param h
+	 * @return
+	 */
+	private boolean equalsKey(int ix, byte[] data, int off, int len, int h)
+	{
+		int off2 = _offsets[ix];
+		if( _hashes[ix] != h || _offsets[ix+1] - off2 != len )
+			return false;
+		for( int i=0; i<len; i++ )
+			if( _data[off2+i] != data[off+i] )
+				return false;
+		return true;
+	}
+	
+	/**
+	 * Appends a new entry and registers it in the given empty slot.
+	 * 
+	 * @param pos
+	 * @param data
+	 * @param off
+	 * @param len
+	 * @param h
+	 * @param value
+	 */
+	private void insert(int pos, byte[] data, int off, int len, int h, long value)
+	{
+		//grow entry arrays if necessary
+		if( _size == _values.length ) {
+			int newCap = 2 * _values.length;
+			_offsets = Arrays.copyOf(_offsets, newCap + 1);
+			_hashes = Arrays.copyOf(_hashes, newCap);
+			_values = Arrays.copyOf(_values, newCap);
+		}
+		int dpos = _offsets[_size];
+		if( dpos + len > _data.length )
+			_data = Arrays.copyOf(_data, Math.max(2 * _data.length, dpos + len));
+		
+		//append key bytes, hash, and value
+		System.arraycopy(data, off, _data, dpos, len);
+		_offsets[_size+1] = dpos + len;
+		_hashes[_size] = h;
+		_values[_size] = value;
+		_table[pos] = ++_size;
+		
+		//resize if load factor exceeded
+		if( _size > LOAD_FACTOR * _table.length )
+			resize(2 * _table.length);
+	}
+	
+	/**
+	 * 
+	 * @param newSize
+	 */
+	private void resize(int newSize)
+	{
+		//rehash all entries into new table (entry arrays unchanged)
+		_table = new int[newSize];
+		final int mask = newSize - 1;
+		for( int i=0; i<_size; i++ ) {
+			int pos = hash(_hashes[i]) & mask;
+			while( _table[pos] > 0 )
+				pos = (pos + 1) & mask;
+			_table[pos] = i+1;
+		}
+	}
+	
+	/**
+	 * Get the table size (power of two) for the given number of entries.
+	 * 
+	 * @param capacity
+	 * @return
+	 */
+	private static int getTableSize(int capacity)
+	{
+		int len = INIT_CAPACITY;
+		while( len * LOAD_FACTOR < capacity )
+			len <<= 1;
+		return len;
+	}
+	
+	/**
+	 * Bit spreading of string hash codes (as in java.util.HashMap).
+	 * 
+	 * @param h
+	 * @return
+	 */
+	private static int hash(int h)
+	{
+		h ^= (h >>> 20) ^ (h >>> 12);
+		return h ^ (h >>> 7) ^ (h >>> 4);
+	}
+}
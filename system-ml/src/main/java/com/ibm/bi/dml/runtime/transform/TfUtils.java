@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import org.apache.hadoop.filecache.DistributedCache;
@@ -44,6 +45,7 @@ import com.ibm.bi.dml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
 import com.ibm.bi.dml.runtime.io.MatrixReader;
 import com.ibm.bi.dml.runtime.matrix.CSVReblockMR;
 import com.ibm.bi.dml.runtime.matrix.CSVReblockMR.OffsetCount;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
 import com.ibm.bi.dml.runtime.matrix.mapred.MRJobConfiguration;
 import com.ibm.bi.dml.runtime.util.MapReduceTool;
 import com.ibm.bi.dml.runtime.util.UtilFunctions;
@@ -63,7 +65,7 @@ public class TfUtils implements Serializable{
 	
 	private long _numRecordsInPartFile;		// Total number of records in the data file
 	private long _numValidRecords;			// (_numRecordsInPartFile - #of omitted records)
-	private long _numTransformedRows; 		// Number of rows after applying transformations
+	private AtomicLong _numTransformedRows = new AtomicLong(0); // Number of rows after applying transformations (concurrent CP apply)
 	private long _numTransformedColumns; 	// Number of columns after applying transformations
 
 	private String _headerLine = null;
@@ -174,7 +176,7 @@ public class TfUtils implements Serializable{
 	{
 		_numRecordsInPartFile = 0;
 		_numValidRecords = 0;
-		_numTransformedRows = 0;
+		_numTransformedRows.set(0);
 		_numTransformedColumns = 0;
 		
 		_headerLine = headerLine;
@@ -247,7 +249,7 @@ public class TfUtils implements Serializable{
 	public void incrValid() { _numValidRecords++; }
 	public long getValid()  { return _numValidRecords; }
 	public long getTotal()  { return _numRecordsInPartFile; }
-	public long getNumTransformedRows() 	{ return _numTransformedRows; }
+	public long getNumTransformedRows() 	{ return _numTransformedRows.get(); }
 	public long getNumTransformedColumns() 	{ return _numTransformedColumns; }
 	
 	public String getHeader() 		{ return _headerLine; }
@@ -303,6 +305,22 @@ public class TfUtils implements Serializable{
 		return getDelim().split(line.trim(), -1);
 	}
 	
+	/**
+	 * Merges the partial transformation metadata (row counts, recode maps, 
+	 * bin and impute statistics) of the given agents into these agents.
+	 * 
+	 * @param that
+	 * @throws IOException
+	 */
+	public void mergeTfMtd(TfUtils that) throws IOException {
+		_numRecordsInPartFile += that._numRecordsInPartFile;
+		_numValidRecords += that._numValidRecords;
+		
+		getMVImputeAgent().merge(that.getMVImputeAgent());
+		getRecodeAgent().merge(that.getRecodeAgent());
+		getBinAgent().merge(that.getBinAgent());
+	}
+	
 	/**
 	 * Process a given row to construct transformation metadata.
 	 * 
@@ -424,11 +442,30 @@ public class TfUtils implements Serializable{
 		words = getBinAgent().apply(words, this);
 		words = getDummycodeAgent().apply(words, this);
 		
-		_numTransformedRows++;
+		_numTransformedRows.incrementAndGet();
 		
 		return words;
 	}
 	
+	/**
+	 * Function to apply transformation metadata on a given row and to encode
+	 * the transformed row directly into row rowID of the given output block.
+	 * 
+	 * @param words
+	 * @param optimizeMaps
+	 * @param out
+	 * @param rowID
+	 * @throws DMLRuntimeException
+	 */
+	public void apply( String[] words, boolean optimizeMaps, MatrixBlock out, int rowID ) 
+		throws DMLRuntimeException
+	{
+		words = getMVImputeAgent().apply(words, this);
+		getDummycodeAgent().apply(words, this, optimizeMaps, out, rowID);
+		
+		_numTransformedRows.incrementAndGet();
+	}
+	
 	public void check(String []words) throws DMLRuntimeException 
 	{
 		boolean checkEmptyString = ( getNAStrings() != null );
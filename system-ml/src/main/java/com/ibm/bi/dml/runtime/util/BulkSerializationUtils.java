@@ -0,0 +1,174 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * Bulk conversion between double arrays and their big-endian byte 
+ * representation (as used by DataInput/DataOutput and hence all binary 
+ * block formats). Instead of assembling every value from individual bytes, 
+ * the byte array is copied (in chunks) into a thread-local direct byte 
+ * buffer, and the values are copied via a DoubleBuffer view. For direct 
+ * buffers, both copies are bulk memory copies (with byte swapping on 
+ * little-endian platforms), which allows (de)serialization of large dense 
+ * blocks at close to memory bandwidth.
+ * 
+ * Known callers: FastBufferedDataInputStream, FastBufferedDataOutputStream,
+ * CacheDataInput, and CacheDataOutput (i.e., LocalFileUtils, the buffer pool, 
+ * and BinaryBlockSerialization).
+ * 
+ */
+public class BulkSerializationUtils 
+{
+	//minimum number of values for bulk conversion (otherwise value-by-value)
+	private static final int BULK_MIN_LEN = 64;
+	
+	//size of thread-local direct staging buffers (in bytes)
+	private static final int STAGING_SIZE = 64 * 1024;
+	
+	private static ThreadLocal<ByteBuffer> _staging = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocateDirect(STAGING_SIZE).order(ByteOrder.BIG_ENDIAN);
+		}
+	};
+	
+	private BulkSerializationUtils() {
+		//prevent instantiation via private constructor
+	}
+	
+	/**
+	 * Deserializes len big-endian doubles from the given byte array (starting 
+	 * at off) into the given double array (starting at doff), and returns the 
+	 * number of non-zeros.
+	 * 
+	 * @param src
+	 * @param off
+	 * @param dest
+	 * @param doff
+	 * @param len
+	 * @return
+	 */
+	public static long bytesToDoubles(byte[] src, int off, double[] dest, int doff, int len)
+	{
+		if( len < BULK_MIN_LEN ) {
+			//value-by-value for small arrays
+			for( int i=0, pos=off; i<len; i++, pos+=8 )
+				dest[doff+i] = Double.longBitsToDouble(bytesToLong(src, pos));
+		}
+		else {
+			//chunk-wise bulk copy via direct staging buffer
+			ByteBuffer buff = _staging.get();
+			buff.clear(); //view starts at current position
+			DoubleBuffer dbuff = buff.asDoubleBuffer();
+			int blen = STAGING_SIZE / 8;
+			for( int i=0; i<len; i+=blen ) {
+				int lblen = Math.min(blen, len-i);
+				buff.clear();
+				buff.put(src, off+i*8, lblen*8);
+				dbuff.clear();
+				dbuff.get(dest, doff+i, lblen);
+			}
+		}
+		
+		return computeNnz(dest, doff, len);
+	}
+	
+	/**
+	 * Serializes len doubles from the given double array (starting at soff)
+	 * as big-endian bytes into the given byte array (starting at off).
+	 * 
+	 * @param src
+	 * @param soff
+	 * @param len
+	 * @param dest
+	 * @param off
+	 */
+	public static void doublesToBytes(double[] src, int soff, int len, byte[] dest, int off)
+	{
+		if( len < BULK_MIN_LEN ) {
+			//value-by-value for small arrays
+			for( int i=0, pos=off; i<len; i++, pos+=8 )
+				longToBytes(Double.doubleToRawLongBits(src[soff+i]), dest, pos);
+		}
+		else {
+			//chunk-wise bulk copy via direct staging buffer
+			ByteBuffer buff = _staging.get();
+			buff.clear(); //view starts at current position
+			DoubleBuffer dbuff = buff.asDoubleBuffer();
+			int blen = STAGING_SIZE / 8;
+			for( int i=0; i<len; i+=blen ) {
+				int lblen = Math.min(blen, len-i);
+				dbuff.clear();
+				dbuff.put(src, soff+i, lblen);
+				buff.clear();
+				buff.get(dest, off+i*8, lblen*8);
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * @param a
+	 * @param off
+	 * @param len
+	 * @return
+	 */
+	public static long computeNnz(double[] a, int off, int len)
+	{
+		long nnz = 0;
+		for( int i=off; i<off+len; i++ )
+			nnz += (a[i]!=0) ? 1 : 0;
+		return nnz;
+	}
+	
+	/**
+	 * 
+	 * @param ba
+	 * @param off
+	 * @return
+	 */
+	private static long bytesToLong(byte[] ba, int off)
+	{
+		return ((long)(ba[off+0] & 0xff) << 56) + ((long)(ba[off+1] & 0xff) << 48) +
+			   ((long)(ba[off+2] & 0xff) << 40) + ((long)(ba[off+3] & 0xff) << 32) +
+			   ((long)(ba[off+4] & 0xff) << 24) + ((long)(ba[off+5] & 0xff) << 16) +
+			   ((long)(ba[off+6] & 0xff) <<  8) + ((long)(ba[off+7] & 0xff));
+	}
+	
+	/**
+	 * 
+	 * @param val
+	 * @param ba
+	 * @param off
+	 */
+	private static void longToBytes(long val, byte[] ba, int off)
+	{
+		ba[off+0] = (byte)(val >>> 56);
+		ba[off+1] = (byte)(val >>> 48);
+		ba[off+2] = (byte)(val >>> 40);
+		ba[off+3] = (byte)(val >>> 32);
+		ba[off+4] = (byte)(val >>> 24);
+		ba[off+5] = (byte)(val >>> 16);
+		ba[off+6] = (byte)(val >>>  8);
+		ba[off+7] = (byte)(val);
+	}
+}
@@ -390,7 +390,7 @@ public class DataConverter
 				while( iter.hasNext() )
 				{
 					IJV cell = iter.next();
-					ret[cell.i*rows+cell.j] = cell.v;
+					ret[cell.i*cols+cell.j] = cell.v;
 				}
 			}
 			else
@@ -178,22 +178,15 @@ public class FastBufferedDataInputStream extends FilterInputStream implements Da
 		long nnz = 0;
 		
 		//outer loop for buffered read
-		for( int i=0; i<len; i+=_bufflen/8 ) 
+		int blen = _bufflen/8;
+		for( int i=0; i<len; i+=blen ) 
 		{
 			//read next 8KB block from input 
-			//note: cast to long to prevent overflows w/ len*8
-			int maxNB = (int)Math.min(_bufflen, ((long)len-i)*8);
-			readFully(_buff, 0, maxNB);
+			int lblen = Math.min(blen, len-i);
+			readFully(_buff, 0, lblen*8);
 			
-			for( int j=0, ix=i; j<maxNB; j+=8, ix++ ) 
-			{
-				//core deserialization
-				long tmp = baToLong(_buff, j);
-				varr[ix] = Double.longBitsToDouble( tmp );
-				
-				//nnz maintenance
-				nnz += (varr[ix]!=0) ? 1 : 0; 
-			}
+			//bulk deserialization, incl nnz maintenance
+			nnz += BulkSerializationUtils.bytesToDoubles(_buff, 0, varr, i, lblen);
 		}
 		
 		return nnz;
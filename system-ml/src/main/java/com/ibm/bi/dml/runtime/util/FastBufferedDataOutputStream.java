@@ -23,7 +23,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 import com.ibm.bi.dml.runtime.matrix.data.MatrixBlockDataOutput;
-import com.ibm.bi.dml.runtime.matrix.data.SparseRow;
+import com.ibm.bi.dml.runtime.matrix.data.SparseBlock;
 
 /**
  * This buffered output stream is essentially a merged version of
@@ -219,14 +219,10 @@ public class FastBufferedDataOutputStream extends FilterOutputStream implements
 		int blen = _bufflen/8;
 		for( int i=0; i<len; i+=Math.min(len-i, blen) )
 		{
-			//write values of current block
+			//write values of current block (bulk serialization)
 			int lblen = Math.min(len-i, blen);
-			for( int j=0; j<lblen; j++ )
-			{
-				long tmp = Double.doubleToRawLongBits(varr[i+j]);
-				longToBa(tmp, _buff, _count);
-				_count += 8;
-			}	
+			BulkSerializationUtils.doublesToBytes(varr, i, lblen, _buff, _count);
+			_count += lblen*8;
 			
 			//flush buffer for current block
 			flushBuffer(); //based on count
@@ -234,21 +230,21 @@ public class FastBufferedDataOutputStream extends FilterOutputStream implements
 	}
 
 	@Override
-	public void writeSparseRows(int rlen, SparseRow[] rows) 
+	public void writeSparseRows(int rlen, SparseBlock rows) 
 		throws IOException
 	{
-		int lrlen = Math.min(rows.length, rlen);
+		int lrlen = Math.min(rows.numRows(), rlen);
 		
 		//process existing rows
 		for( int i=0; i<lrlen; i++ )
 		{
-			SparseRow arow = rows[i];
-			if( arow!=null && !arow.isEmpty() )
+			if( !rows.isEmpty(i) )
 			{
-				int alen = arow.size();
+				int apos = rows.pos(i);
+				int alen = rows.size(i);
 				int alen2 = alen*12;
-				int[] aix = arow.getIndexContainer();
-				double[] avals = arow.getValueContainer();
+				int[] aix = rows.indexes(i);
+				double[] avals = rows.values(i);
 				
 				writeInt( alen );
 				
@@ -257,7 +253,7 @@ public class FastBufferedDataOutputStream extends FilterOutputStream implements
 					if (_count+alen2 > _bufflen) 
 					    flushBuffer();
 					
-					for( int j=0; j<alen; j++ )
+					for( int j=apos; j<apos+alen; j++ )
 					{
 						long tmp2 = Double.doubleToRawLongBits(avals[j]);
 						intToBa(aix[j], _buff, _count);
@@ -268,7 +264,7 @@ public class FastBufferedDataOutputStream extends FilterOutputStream implements
 				else
 				{
 					//row does not fit in buffer
-					for( int j=0; j<alen; j++ )
+					for( int j=apos; j<apos+alen; j++ )
 					{
 						if (_count+12 > _bufflen) 
 						    flushBuffer();
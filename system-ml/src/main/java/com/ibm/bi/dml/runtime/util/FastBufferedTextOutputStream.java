@@ -0,0 +1,227 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Buffered output stream for text formats (text cell, matrix market, csv), which
+ * formats numbers directly into a fixed-size byte buffer. In contrast to the 
+ * combination of StringBuilder, BufferedWriter and OutputStreamWriter, this avoids
+ * String allocations per cell or row chunk, the char-to-byte encoding, and it
+ * bounds the memory per writer by the buffer size independent of the row length.
+ * 
+ * Doubles are formatted exactly as Double.toString (via a reused StringBuilder, 
+ * which appends the digits without intermediate String objects), with a fast 
+ * path for integer values. Like FastBufferedDataOutputStream, this stream is 
+ * not synchronized (single writer).
+ * 
+ */
+public class FastBufferedTextOutputStream extends FilterOutputStream
+{
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	//max abs integer value formatted w/o exponent by Double.toString
+	private static final double MAX_PLAIN_INT = 1e7;
+	
+	protected byte[] _buff;
+	protected int _bufflen;
+	protected int _count;
+	
+	//reused buffers for number formatting
+	private final StringBuilder _sb = new StringBuilder(32);
+	private final byte[] _digits = new byte[20];
+	
+	public FastBufferedTextOutputStream(OutputStream out) 
+	{
+		this(out, 65536);
+	}
+
+	public FastBufferedTextOutputStream(OutputStream out, int size) 
+	{
+		super(out);
+		
+		//min size for largest formatted number (w/o checks per char) 
+		if(size < 64) 
+			throw new IllegalArgumentException("Buffer size < 64.");
+		
+		_buff = new byte[size];
+		_bufflen = size;
+	}
+	
+	@Override
+	public void write(int b) 
+		throws IOException 
+	{
+		if (_count >= _bufflen) {
+			flushBuffer();
+		}
+		_buff[_count++] = (byte)b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) 
+		throws IOException 
+	{
+		if (len >= _bufflen) {
+			flushBuffer();
+			out.write(b, off, len);
+			return;
+		}
+		if (len > _bufflen - _count) {
+			flushBuffer();
+		}
+		System.arraycopy(b, off, _buff, _count, len);
+		_count += len;
+	}
+	
+	@Override
+	public void flush() 
+		throws IOException 
+	{
+		flushBuffer();
+		out.flush();
+	}
+	
+	private void flushBuffer() 
+		throws IOException 
+	{
+		if(_count > 0) 
+		{
+			out.write(_buff, 0, _count);
+			_count = 0;
+		}
+	}
+	
+	/////////////////////////////
+	// Text formatting
+	/////////////////////////////
+	
+	/**
+	 * Appends a single ASCII character (e.g., delimiter or newline).
+	 * 
+	 * @param c
+	 * @throws IOException
+	 */
+	public void append(char c) 
+		throws IOException 
+	{
+		write(c);
+	}
+	
+	/**
+	 * Appends a string in UTF-8 encoding, with a fast path for ASCII. 
+	 * 
+	 * @param s
+	 * @throws IOException
+	 */
+	public void append(String s) 
+		throws IOException 
+	{
+		int len = s.length();
+		if( len > _bufflen - _count )
+			flushBuffer();
+		if( len > _bufflen ) {
+			write(s.getBytes(UTF8));
+			return;
+		}
+		for( int i=0; i<len; i++ ) {
+			char c = s.charAt(i);
+			if( c >= 0x80 ) { //non-ASCII
+				_count -= i;
+				write(s.getBytes(UTF8));
+				return;
+			}
+			_buff[_count++] = (byte)c;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param v
+	 * @throws IOException
+	 */
+	public void append(int v) 
+		throws IOException 
+	{
+		append((long)v);
+	}
+	
+	/**
+	 * 
+	 * @param v
+	 * @throws IOException
+	 */
+	public void append(long v) 
+		throws IOException 
+	{
+		if( _bufflen - _count < 20 )
+			flushBuffer();
+		
+		if( v == Long.MIN_VALUE ) {
+			append(Long.toString(v));
+			return;
+		}
+		if( v < 0 ) {
+			_buff[_count++] = '-';
+			v = -v;
+		}
+		
+		//write digits in reverse order, then copy
+		int pos = _digits.length;
+		do {
+			_digits[--pos] = (byte)('0' + (v % 10));
+			v /= 10;
+		} 
+		while( v != 0 );
+		int len = _digits.length - pos;
+		System.arraycopy(_digits, pos, _buff, _count, len);
+		_count += len;
+	}
+	
+	/**
+	 * Appends a double in the format of Double.toString.
+	 * 
+	 * @param v
+	 * @throws IOException
+	 */
+	public void append(double v) 
+		throws IOException 
+	{
+		//fast path for integer values (e.g., 7 -> "7.0"), 
+		//excluding -0.0 and values formatted w/ exponent
+		if( v != 0 && v == (long)v && Math.abs(v) < MAX_PLAIN_INT ) {
+			append((long)v);
+			_buff[_count++] = '.';
+			_buff[_count++] = '0';
+			return;
+		}
+		
+		//general case (exact Double.toString format, ASCII only)
+		_sb.setLength(0);
+		_sb.append(v);
+		int len = _sb.length();
+		if( len > _bufflen - _count )
+			flushBuffer();
+		for( int i=0; i<len; i++ )
+			_buff[_count++] = (byte)_sb.charAt(i);
+	}
+}
@@ -0,0 +1,438 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.util;
+
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.NoSuchElementException;
+
+/**
+ * Byte-level counterpart of FastStringTokenizer for text cell, matrix market and 
+ * csv inputs. The tokenizer operates directly on the byte buffer of a line (e.g., 
+ * the backing array of a hadoop Text) and parses ints, longs and doubles without 
+ * creating intermediate String objects per token. 
+ * 
+ * Two modes of tokenization are supported: (1) nextInt/nextLong/nextDouble skip
+ * over leading delimiters (text cell, matrix market), and (2) nextCell and the 
+ * related methods preserve empty cells and trim whitespace per cell (csv).
+ * 
+ * Doubles are parsed via the exact fast path for decimals with a mantissa of at 
+ * most 2^53 and a decimal exponent of at most 22, where both operands are exactly 
+ * representable and hence a single multiplication/division is correctly rounded. 
+ * All other inputs (e.g., long mantissas, large exponents, NaN, Infinity) fall back 
+ * to Double.parseDouble, which guarantees results identical to the string-based readers.
+ * 
+ */
+public class FastByteTokenizer implements Serializable
+{
+	private static final long serialVersionUID = -2352585768441302683L;
+	
+	private static final Charset ASCII = Charset.forName("ISO-8859-1");
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+	private static final int MAX_FAST_DIGITS = 18;
+	private static final double[] POW10 = new double[]{ 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 
+		1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 
+		1e20, 1e21, 1e22 };
+	
+	private byte[] _del   = null;
+	private byte[] _buff  = null;
+	private int    _end   = -1;
+	private int    _pos   = -1;
+	private boolean _done = true;
+	
+	//current csv cell (trimmed)
+	private int _cbeg = -1;
+	private int _cend = -1;
+	
+	/**
+	 * 
+	 * @param delimiter
+	 */
+	public FastByteTokenizer(char delimiter) 
+	{
+		this( String.valueOf(delimiter) );
+	}
+	
+	/**
+	 * 
+	 * @param delimiter
+	 */
+	public FastByteTokenizer(String delimiter) 
+	{
+		_del = delimiter.getBytes(UTF8);
+		if( _del.length == 0 )
+			throw new IllegalArgumentException("Empty delimiter.");
+	}
+
+	/**
+	 * Resets the tokenizer to the first len bytes of the given buffer, 
+	 * e.g., reset(value.getBytes(), value.getLength()) for a hadoop Text.
+	 * Leading and trailing whitespace of the line is ignored.
+	 * 
+	 * @param buff
+	 * @param len
+	 */
+	public void reset( byte[] buff, int len )
+	{
+		int beg = 0;
+		while( beg < len && isWhitespace(buff[beg]) )
+			beg++;
+		while( len > beg && isWhitespace(buff[len-1]) )
+			len--;
+		
+		_buff = buff;
+		_pos = beg;
+		_end = len;
+		_done = (beg >= len);
+	}
+	
+	/**
+	 * Returns the current line as a String (for error messages only).
+	 * 
+	 * @return
+	 */
+	public String getLine()
+	{
+		return (_buff != null) ? new String(_buff, 0, _end, UTF8) : null;
+	}
+	
+	////////////////////////////////////////
+	// Custom parsing methods for textcell
+	////////////////////////////////////////
+	
+	public int nextInt()
+	{
+		nextToken();
+		return parseInt(_buff, _cbeg, _cend);
+	}
+	
+	public long nextLong()
+	{
+		nextToken();
+		return parseLong(_buff, _cbeg, _cend);
+	}
+	
+	public double nextDouble()
+	{
+		nextToken();
+		return parseDouble(_buff, _cbeg, _cend);
+	}
+	
+	////////////////////////////////////////
+	// Custom parsing methods for csv
+	////////////////////////////////////////
+	
+	/**
+	 * Indicates if there are remaining cells in the current line, 
+	 * including empty cells after a trailing delimiter.
+	 * 
+	 * @return
+	 */
+	public boolean hasNextCell()
+	{
+		return !_done;
+	}
+	
+	/**
+	 * Advances to the next cell of the current line, where empty cells are 
+	 * preserved and whitespace around cell values is trimmed.
+	 * 
+	 * @exception NoSuchElementException
+	 *                if no cells remain
+	 */
+	public void nextCell()
+	{
+		if( _done )
+			throw new NoSuchElementException();
+		
+		//find end of cell (next delimiter or end of line)
+		int ix = indexOfDelim(_pos);
+		int beg = _pos;
+		int end = (ix >= 0) ? ix : _end;
+		_pos = (ix >= 0) ? ix + _del.length : _end;
+		_done = (ix < 0);
+		
+		//trim cell value
+		while( beg < end && isWhitespace(_buff[beg]) )
+			beg++;
+		while( end > beg && isWhitespace(_buff[end-1]) )
+			end--;
+		_cbeg = beg;
+		_cend = end;
+	}
+	
+	/**
+	 * Indicates if the current cell is empty.
+	 * 
+	 * @return
+	 */
+	public boolean isEmptyCell()
+	{
+		return (_cbeg >= _cend);
+	}
+	
+	/**
+	 * Parses the current cell as double.
+	 * 
+	 * @return
+	 */
+	public double getCellDouble()
+	{
+		return parseDouble(_buff, _cbeg, _cend);
+	}
+	
+	/**
+	 * Indicates if the current cell is a literal zero (e.g., 0 or 0.0),
+	 * which allows to count non-zeros without number parsing.
+	 * 
+	 * @return
+	 */
+	public boolean isZeroCell()
+	{
+		int len = _cend - _cbeg;
+		return (len==1 && _buff[_cbeg]=='0')
+			|| (len==3 && _buff[_cbeg]=='0' && _buff[_cbeg+1]=='.' && _buff[_cbeg+2]=='0');
+	}
+	
+	/**
+	 * Counts the number of cells of the current line (w/o changing
+	 * the tokenizer state).
+	 * 
+	 * @return
+	 */
+	public int countCells()
+	{
+		if( _done )
+			return 0;
+		int ret = 1;
+		for( int ix = indexOfDelim(_pos); ix >= 0; ix = indexOfDelim(ix + _del.length) )
+			ret++;
+		return ret;
+	}
+	
+	////////////////////////////////////////
+	// Static byte-level parsing primitives
+	////////////////////////////////////////
+	
+	/**
+	 * 
+	 * @param buff
+	 * @param beg
+	 * @param end
+	 * @return
+	 */
+	public static int parseInt( byte[] buff, int beg, int end )
+	{
+		long ret = parseLong(buff, beg, end);
+		if( ret < Integer.MIN_VALUE || ret > Integer.MAX_VALUE )
+			return Integer.parseInt(new String(buff, beg, end-beg, ASCII)); //throws
+		return (int)ret;
+	}
+	
+	/**
+	 * 
+	 * @param buff
+	 * @param beg
+	 * @param end
+	 * @return
+	 */
+	public static long parseLong( byte[] buff, int beg, int end )
+	{
+		int pos = beg;
+		boolean neg = false;
+		if( pos < end && (buff[pos]=='-' || buff[pos]=='+') )
+			neg = (buff[pos++]=='-');
+		
+		//fast path for up to 18 digits (no overflow)
+		long ret = 0;
+		if( pos < end && end-pos <= MAX_FAST_DIGITS ) {
+			for( ; pos < end; pos++ ) {
+				int d = buff[pos] - '0';
+				if( d < 0 || d > 9 )
+					break;
+				ret = ret * 10 + d;
+			}
+			if( pos == end )
+				return neg ? -ret : ret;
+		}
+		
+		//fall-back to default impl (overflow checks, error messages)
+		return Long.parseLong(new String(buff, beg, end-beg, ASCII));
+	}
+	
+	/**
+	 * 
+	 * @param buff
+	 * @param beg
+	 * @param end
+	 * @return
+	 */
+	public static double parseDouble( byte[] buff, int beg, int end )
+	{
+		int pos = beg;
+		boolean neg = false;
+		if( pos < end && (buff[pos]=='-' || buff[pos]=='+') )
+			neg = (buff[pos++]=='-');
+		
+		//parse mantissa digits (w/ optional decimal point)
+		long mant = 0;
+		int ndigits = 0;
+		int nfrac = 0;
+		boolean point = false;
+		boolean valid = false;
+		for( ; pos < end; pos++ ) {
+			byte b = buff[pos];
+			int d = b - '0';
+			if( d >= 0 && d <= 9 ) {
+				valid = true;
+				if( mant == 0 && d == 0 ) {
+					//skip leading zeros (not counted as digits)
+					if( point ) nfrac++;
+					continue;
+				}
+				if( ++ndigits > MAX_FAST_DIGITS )
+					return parseDoubleSlow(buff, beg, end);
+				mant = mant * 10 + d;
+				if( point ) nfrac++;
+			}
+			else if( b == '.' && !point )
+				point = true;
+			else
+				break;
+		}
+		
+		//parse optional exponent
+		int exp = 0;
+		if( valid && pos < end && (buff[pos]=='e' || buff[pos]=='E') ) {
+			pos++;
+			boolean eneg = false;
+			if( pos < end && (buff[pos]=='-' || buff[pos]=='+') )
+				eneg = (buff[pos++]=='-');
+			int epos = pos;
+			for( ; pos < end && pos-epos < 4; pos++ ) {
+				int d = buff[pos] - '0';
+				if( d < 0 || d > 9 )
+					break;
+				exp = exp * 10 + d;
+			}
+			if( pos == epos )
+				valid = false;
+			exp = eneg ? -exp : exp;
+		}
+		
+		//fall-back to default impl for special cases and errors
+		//(e.g., NaN, Infinity, hex, type suffixes, invalid numbers)
+		if( !valid || pos != end || mant > MAX_EXACT_MANTISSA )
+			return parseDoubleSlow(buff, beg, end);
+		
+		//exact fast path (single correctly rounded operation)
+		int e10 = exp - nfrac;
+		double ret = mant;
+		if( mant != 0 ) {
+			if( e10 < 0 && e10 >= -22 )
+				ret = ret / POW10[-e10];
+			else if( e10 > 0 && e10 <= 22 )
+				ret = ret * POW10[e10];
+			else if( e10 != 0 )
+				return parseDoubleSlow(buff, beg, end);
+		}
+		return neg ? -ret : ret;
+	}
+	
+	/**
+	 * 
+	 * @param buff
+	 * @param beg
+	 * @param end
+	 * @return
+	 */
+	private static double parseDoubleSlow( byte[] buff, int beg, int end )
+	{
+		return Double.parseDouble(new String(buff, beg, end-beg, ASCII));
+	}
+	
+	/**
+	 * 
+	 * @param b
+	 * @return
+	 */
+	private static boolean isWhitespace( byte b )
+	{
+		//consistent with String.trim (unsigned byte <= ' ')
+		return (b >= 0 && b <= ' ');
+	}
+	
+	/**
+	 * Returns the start position of the next delimiter at or after
+	 * pos, or -1 if there is no such delimiter in the current line.
+	 * 
+	 * @param pos
+	 * @return
+	 */
+	private int indexOfDelim( int pos )
+	{
+		byte d0 = _del[0];
+		int dlen = _del.length;
+		for( int i=pos; i<=_end-dlen; i++ ) {
+			if( _buff[i] != d0 )
+				continue;
+			boolean match = true;
+			for( int j=1; j<dlen && match; j++ )
+				match = (_buff[i+j] == _del[j]);
+			if( match )
+				return i;
+		}
+		return -1;
+	}
+	
+	/**
+	 * 
+	 * @param pos
+	 * @return
+	 */
+	private boolean isDelimAt( int pos )
+	{
+		int dlen = _del.length;
+		if( pos > _end-dlen )
+			return false;
+		for( int j=0; j<dlen; j++ )
+			if( _buff[pos+j] != _del[j] )
+				return false;
+		return true;
+	}
+	
+	/**
+	 * Advances to the next token, skipping leading delimiters.
+	 */
+	private void nextToken()
+	{
+		//find start (skip over leading delimiters)
+		int dlen = _del.length;
+		while( !_done && isDelimAt(_pos) )
+			_pos += dlen;
+		if( _done || _pos >= _end )
+			throw new NoSuchElementException();
+		
+		//find end (next delimiter)
+		int ix = indexOfDelim(_pos);
+		_cbeg = _pos;
+		_cend = (ix >= 0) ? ix : _end;
+		_pos = (ix >= 0) ? ix + dlen : _end;
+	}
+}
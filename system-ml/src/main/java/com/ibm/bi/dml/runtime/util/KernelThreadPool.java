@@ -0,0 +1,190 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.ibm.bi.dml.runtime.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.bi.dml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+
+/**
+ * Process-wide thread pool shared by all multi-threaded CP kernels (matrix mult,
+ * aggregates, reorg, datagen) and parallel readers/writers. In contrast to a
+ * thread pool per operation, this avoids thread creation and teardown for every
+ * invocation and bounds the total number of kernel threads by the local
+ * parallelism, even if multiple parfor workers run multi-threaded operations
+ * concurrently.
+ *
+ * Nested parallelism: the calling thread always participates in the execution
+ * of its own tasks, and calls from within a kernel thread are executed inline.
+ * Hence, callers make progress even if all pool threads are busy, and nested
+ * kernels neither deadlock nor oversubscribe the available cores.
+ *
+ */
+public class KernelThreadPool
+{
+	private static ExecutorService _pool = null;
+
+	private KernelThreadPool() {
+		//prevent instantiation via private constructor
+	}
+
+	/**
+	 * Executes the given tasks with a degree of parallelism of at most k (including
+	 * the calling thread) and waits until all tasks are completed. Similar to
+	 * ExecutorService.invokeAll, exceptions of individual tasks are not thrown but
+	 * exposed via the returned futures.
+	 *
+	 * @param tasks
+	 * @param k
+	 * @return
+	 * @throws InterruptedException
+	 */
+	public static <T> List<Future<T>> invokeAll( Collection<? extends Callable<T>> tasks, int k )
+		throws InterruptedException
+	{
+		//wrap tasks into futures for result and exception handling
+		ArrayList<FutureTask<T>> ftasks = new ArrayList<FutureTask<T>>(tasks.size());
+		for( Callable<T> task : tasks )
+			ftasks.add(new FutureTask<T>(task));
+		ArrayList<Future<T>> ret = new ArrayList<Future<T>>(ftasks);
+
+		//sequential execution for single task/thread or nested parallelism
+		int par = Math.min(k, ftasks.size());
+		if( par <= 1 || isKernelThread() ) {
+			for( FutureTask<T> ftask : ftasks )
+				ftask.run();
+			return ret;
+		}
+
+		//parallel execution via par-1 pool threads and the calling thread,
+		//which pull tasks from a shared queue in order to respect k
+		AtomicInteger next = new AtomicInteger(0);
+		ExecutorService pool = getPool();
+		for( int i=0; i<par-1; i++ )
+			pool.execute(new TaskRunner<T>(ftasks, next));
+		new TaskRunner<T>(ftasks, next).run();
+
+		//wait for completion of all tasks (not runners, which might still
+		//be queued if the pool is busy, but then find no remaining tasks)
+		for( FutureTask<T> ftask : ftasks ) {
+			try {
+				ftask.get();
+			}
+			catch(ExecutionException ex) {
+				//ignore, exposed via returned futures
+			}
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Indicates if the current thread is a thread of the kernel pool.
+	 *
+	 * @return
+	 */
+	public static boolean isKernelThread()
+	{
+		return (Thread.currentThread() instanceof KernelThread);
+	}
+
+	/**
+	 * Get the number of threads of the shared kernel pool.
+	 *
+	 * @return
+	 */
+	public static int getPoolSize()
+	{
+		return InfrastructureAnalyzer.getLocalParallelism();
+	}
+
+	/**
+	 * Lazily creates the shared pool of daemon threads.
+	 *
+	 * @return
+	 */
+	private static synchronized ExecutorService getPool()
+	{
+		if( _pool == null ) {
+			_pool = Executors.newFixedThreadPool(
+				getPoolSize(), new KernelThreadFactory());
+		}
+
+		return _pool;
+	}
+
+	/**
+	 * Runnable that executes tasks from the shared list until all tasks
+	 * have been claimed.
+	 */
+	private static class TaskRunner<T> implements Runnable
+	{
+		private ArrayList<FutureTask<T>> _tasks = null;
+		private AtomicInteger _next = null;
+
+		protected TaskRunner( ArrayList<FutureTask<T>> tasks, AtomicInteger next ) {
+			_tasks = tasks;
+			_next = next;
+		}
+
+		@Override
+		public void run()
+		{
+			int ix = -1;
+			while( (ix = _next.getAndIncrement()) < _tasks.size() )
+				_tasks.get(ix).run();
+		}
+	}
+
+	/**
+	 * Thread factory for named daemon threads, which do not prevent
+	 * the JVM from exiting.
+	 */
+	private static class KernelThreadFactory implements ThreadFactory
+	{
+		private AtomicInteger _count = new AtomicInteger(0);
+
+		@Override
+		public Thread newThread(Runnable r)
+		{
+			Thread t = new KernelThread(r, "SystemML-kernel-"+_count.getAndIncrement());
+			t.setDaemon(true);
+			return t;
+		}
+	}
+
+	/**
+	 * Marker thread class for detecting nested kernel parallelism.
+	 */
+	private static class KernelThread extends Thread
+	{
+		protected KernelThread(Runnable r, String name) {
+			super(r, name);
+		}
+	}
+}
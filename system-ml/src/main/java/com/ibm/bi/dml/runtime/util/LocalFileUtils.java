@@ -17,10 +17,13 @@
 
 package com.ibm.bi.dml.runtime.util;
 
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.HashMap;
 
 import com.ibm.bi.dml.api.DMLScript;
@@ -74,6 +77,23 @@ public class LocalFileUtils
 	 */
 	public static MatrixBlock readMatrixBlockFromLocal(String filePathAndName, MatrixBlock ret)
 		throws IOException
+	{
+		return readMatrixBlockFromLocal(filePathAndName, ret, false);
+	}
+	
+	/**
+	 * Reads a matrix block from local file system, where read-only blocks 
+	 * (e.g., on restore from the buffer pool) might use a compact CSR
+	 * representation if sparse (see MatrixBlock.readFields).
+	 * 
+	 * @param filePathAndName
+	 * @param ret
+	 * @param readOnly
+	 * @return
+	 * @throws IOException
+	 */
+	public static MatrixBlock readMatrixBlockFromLocal(String filePathAndName, MatrixBlock ret, boolean readOnly)
+		throws IOException
 	{
 		FileInputStream fis = new FileInputStream( filePathAndName );
 		//BufferedInputStream bis = new BufferedInputStream( fis, BUFFER_SIZE );
@@ -82,8 +102,9 @@ public class LocalFileUtils
 		
 		try
 		{
-			ret.readFields(in);
+			ret.readFields(in, readOnly);
 		}
+
 		finally
 		{
 			if( in != null )
@@ -93,6 +114,36 @@ public class LocalFileUtils
 		return ret;
 	}
 	
+	/**
+	 * Reads the entire content of the given local file into a byte array.
+	 * 
+	 * @param filePathAndName
+	 * @return
+	 * @throws IOException
+	 */
+	public static byte[] readByteArrayFromLocal( String filePathAndName )
+		throws IOException
+	{
+		File f = new File( filePathAndName );
+		if( f.length() > Integer.MAX_VALUE )
+			throw new IOException("File too large for byte array: "+filePathAndName);
+		
+		byte[] ret = new byte[(int)f.length()];
+		DataInputStream in = new DataInputStream( new FileInputStream(f) );
+		
+		try
+		{
+			in.readFully( ret );
+		}
+		finally
+		{
+			if( in != null )
+				in.close();
+		}
+		
+		return ret;
+	}
+	
 	/**
 	 * 
 	 * @param filePathAndName
@@ -164,6 +215,32 @@ public class LocalFileUtils
 				fos.close ();	
 		}	
 	}
+	
+	/**
+	 * Writes the remaining bytes of the given (e.g., direct) nio byte buffer
+	 * to local FS, without copying the data into an intermediate heap array.
+	 * 
+	 * @param filePathAndName
+	 * @param data
+	 * @throws IOException
+	 */
+	public static void writeByteBufferToLocal( String filePathAndName, ByteBuffer data )
+		throws IOException
+	{		
+		FileOutputStream fos = new FileOutputStream( filePathAndName );
+		
+		try 
+		{
+			FileChannel fc = fos.getChannel();
+			while( data.hasRemaining() )
+				fc.write( data );
+		}
+		finally
+		{
+			if( fos != null )
+				fos.close ();	
+		}	
+	}
 
 	/**
 	 * 
@@ -0,0 +1,277 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.runtime.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Primitive hash map from (long, long) key pairs to double values, which
+ * is used for hash group-by aggregation (e.g., in ctable). In contrast to a
+ * HashMap&lt;MatrixIndexes, Double&gt;, this map does not allocate key or
+ * value objects per entry and stores all entries in three contiguous arrays
+ * with open addressing (linear probing).
+ *
+ * NOTE: The key pair (Long.MIN_VALUE, *) is reserved for empty slots.
+ *
+ */
+public class LongLongDoubleHashMap
+{
+	private static final long EMPTY = Long.MIN_VALUE;
+	private static final int INIT_CAPACITY = 16;
+	private static final double LOAD_FACTOR = 0.75;
+
+	private long[] _keys1 = null;
+	private long[] _keys2 = null;
+	private double[] _values = null;
+	private int _size = 0;
+
+	public LongLongDoubleHashMap()
+	{
+		this(INIT_CAPACITY);
+	}
+
+	/**
+	 *
+	 * @param capacity expected number of entries
+	 */
+	public LongLongDoubleHashMap(int capacity)
+	{
+		allocate(getTableSize(capacity));
+	}
+
+	/**
+	 * Get the number of entries.
+	 *
+	 * @return
+	 */
+	public int size()
+	{
+		return _size;
+	}
+
+	/**
+	 * Get the value of the given key pair, or 0 if not existing.
+	 *
+	 * @param key1
+	 * @param key2
+	 * @return
+	 */
+	public double get(long key1, long key2)
+	{
+		int ix = indexOf(key1, key2);
+		return (_keys1[ix] != EMPTY) ? _values[ix] : 0;
+	}
+
+	/**
+	 * Indicates if the given key pair exists.
+	 *
+	 * @param key1
+	 * @param key2
+	 * @return
+	 */
+	public boolean containsKey(long key1, long key2)
+	{
+		return (_keys1[indexOf(key1, key2)] != EMPTY);
+	}
+
+	/**
+	 * Adds the given value to the value of the given key pair,
+	 * where non-existing keys are inserted with the given value.
+	 *
+	 * @param key1
+	 * @param key2
+	 * @param value
+	 */
+	public void addValue(long key1, long key2, double value)
+	{
+		int ix = indexOf(key1, key2);
+		if( _keys1[ix] != EMPTY ) { //existing entry
+			_values[ix] += value;
+			return;
+		}
+
+		//insert new entry
+		_keys1[ix] = key1;
+		_keys2[ix] = key2;
+		_values[ix] = value;
+		_size++;
+
+		//resize if load factor exceeded
+		if( _size > LOAD_FACTOR * _keys1.length )
+			resize(2 * _keys1.length);
+	}
+
+	/**
+	 * Adds all entries of the given map to this map.
+	 *
+	 * @param that
+	 */
+	public void addAll(LongLongDoubleHashMap that)
+	{
+		long[] keys1 = that._keys1;
+		long[] keys2 = that._keys2;
+		double[] values = that._values;
+		for( int i=0; i<keys1.length; i++ )
+			if( keys1[i] != EMPTY )
+				addValue(keys1[i], keys2[i], values[i]);
+	}
+
+	/**
+	 * Get an iterator over all entries. The returned entry object is
+	 * reused across calls of next, i.e., callers must not keep references.
+	 *
+	 * @return
+	 */
+	public Iterator<LLDoubleEntry> getIterator()
+	{
+		return new LLDoubleEntryIterator();
+	}
+
+	/**
+	 * Get the slot of the given key pair, i.e., its position if existing,
+	 * otherwise the position of the first empty slot of its probe sequence.
+	 *
+	 * @param key1
+	 * @param key2
+	 * @return
+	 */
+	private int indexOf(long key1, long key2)
+	{
+		final int mask = _keys1.length - 1;
+		int ix = hash(key1, key2) & mask;
+		while( _keys1[ix] != EMPTY && (_keys1[ix] != key1 || _keys2[ix] != key2) )
+			ix = (ix + 1) & mask;
+		return ix;
+	}
+
+	/**
+	 *
+	 * @param newSize
+	 */
+	private void resize(int newSize)
+	{
+		long[] keys1 = _keys1;
+		long[] keys2 = _keys2;
+		double[] values = _values;
+
+		//rehash all entries into new arrays
+		allocate(newSize);
+		for( int i=0; i<keys1.length; i++ )
+			if( keys1[i] != EMPTY ) {
+				int ix = indexOf(keys1[i], keys2[i]);
+				_keys1[ix] = keys1[i];
+				_keys2[ix] = keys2[i];
+				_values[ix] = values[i];
+			}
+	}
+
+	/**
+	 *
+	 * @param len
+	 */
+	private void allocate(int len)
+	{
+		_keys1 = new long[len];
+		_keys2 = new long[len];
+		_values = new double[len];
+		Arrays.fill(_keys1, EMPTY);
+	}
+
+	/**
+	 * Get the table size (power of two) for the given number of entries.
+	 *
+	 * @param capacity
+	 * @return
+	 */
+	private static int getTableSize(int capacity)
+	{
+		int len = INIT_CAPACITY;
+		while( len * LOAD_FACTOR < capacity )
+			len <<= 1;
+		return len;
+	}
+
+	/**
+	 * Hash function over both keys with bit spreading (as in
+	 * java.util.HashMap), since row and column indexes are
+	 * often small consecutive integers.
+	 *
+	 * @param key1
+	 * @param key2
+	 * @return
+	 */
+	private static int hash(long key1, long key2)
+	{
+		long h = key1 * 0x9E3779B97F4A7C15L + key2;
+		int h2 = (int)(h ^ (h >>> 32));
+		h2 ^= (h2 >>> 20) ^ (h2 >>> 12);
+		return h2 ^ (h2 >>> 7) ^ (h2 >>> 4);
+	}
+
+	/**
+	 * Entry of (long, long) key pair and double value.
+	 */
+	public static class LLDoubleEntry
+	{
+		public long key1 = -1;
+		public long key2 = -1;
+		public double value = -1;
+	}
+
+	/**
+	 * Iterator over all non-empty slots.
+	 */
+	private class LLDoubleEntryIterator implements Iterator<LLDoubleEntry>
+	{
+		private LLDoubleEntry _entry = new LLDoubleEntry();
+		private int _pos = -1;
+
+		public LLDoubleEntryIterator() {
+			findNext();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return (_pos < _keys1.length);
+		}
+
+		@Override
+		public LLDoubleEntry next() {
+			if( !hasNext() )
+				throw new NoSuchElementException();
+			_entry.key1 = _keys1[_pos];
+			_entry.key2 = _keys2[_pos];
+			_entry.value = _values[_pos];
+			findNext();
+			return _entry;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		private void findNext() {
+			_pos++;
+			while( _pos < _keys1.length && _keys1[_pos] == EMPTY )
+				_pos++;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.aggregate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.instructions.mr.GroupedAggregateInstruction;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.operators.Operator;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests that the multi-threaded grouped aggregate produces the same results 
+ * as the single-threaded grouped aggregate, for all aggregation functions, 
+ * with and without weights, and for dense/sparse target vectors.
+ */
+public class FullGroupedAggregateMultiThreadedTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "FullGroupedAggregateMultiThreadedTest";
+	private final static String TEST_DIR = "functions/aggregate/";
+	
+	private final static int k = 4;
+	
+	//number of rows above the parallelization threshold of 1M
+	private final static int rows = 1200007;
+	private final static int numGroups = 17;
+	private final static int maxWeight = 3;
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.05;
+	private final static double eps = 1e-8;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "R" })   ); 
+	}
+	
+	@Test
+	public void testSumDense() throws Exception {
+		runGroupedAggregateTest("sum", null, sparsity1, false, false, -1);
+	}
+	
+	@Test
+	public void testSumSparse() throws Exception {
+		runGroupedAggregateTest("sum", null, sparsity2, false, false, -1);
+	}
+	
+	@Test
+	public void testSumDenseWeights() throws Exception {
+		runGroupedAggregateTest("sum", null, sparsity1, true, false, -1);
+	}
+	
+	@Test
+	public void testSumSparseRowVector() throws Exception {
+		runGroupedAggregateTest("sum", null, sparsity2, false, true, -1);
+	}
+	
+	@Test
+	public void testSumDenseRowVector() throws Exception {
+		runGroupedAggregateTest("sum", null, sparsity1, false, true, -1);
+	}
+	
+	@Test
+	public void testSumDenseSubsetOfGroups() throws Exception {
+		runGroupedAggregateTest("sum", null, sparsity1, false, false, numGroups-5);
+	}
+	
+	@Test
+	public void testCountDense() throws Exception {
+		runGroupedAggregateTest("count", null, sparsity1, false, false, -1);
+	}
+	
+	@Test
+	public void testCountDenseWeights() throws Exception {
+		runGroupedAggregateTest("count", null, sparsity1, true, false, -1);
+	}
+	
+	@Test
+	public void testMeanSparse() throws Exception {
+		runGroupedAggregateTest("mean", null, sparsity2, false, false, -1);
+	}
+	
+	@Test
+	public void testMeanDenseWeights() throws Exception {
+		runGroupedAggregateTest("mean", null, sparsity1, true, false, -1);
+	}
+	
+	@Test
+	public void testVarianceDense() throws Exception {
+		runGroupedAggregateTest("variance", null, sparsity1, false, false, -1);
+	}
+	
+	@Test
+	public void testVarianceDenseSubsetOfGroups() throws Exception {
+		runGroupedAggregateTest("variance", null, sparsity1, false, false, numGroups-5);
+	}
+	
+	@Test
+	public void testCentralMoment3Dense() throws Exception {
+		runGroupedAggregateTest("centralmoment", "3", sparsity1, false, false, -1);
+	}
+	
+	@Test
+	public void testCentralMoment4SparseWeights() throws Exception {
+		runGroupedAggregateTest("centralmoment", "4", sparsity2, true, false, -1);
+	}
+	
+	/**
+	 * 
+	 * @param fn
+	 * @param order
+	 * @param sparsity
+	 * @param weights
+	 * @param rowVector
+	 * @param ngroups
+	 * @throws Exception
+	 */
+	private void runGroupedAggregateTest( String fn, String order, double sparsity, boolean weights, boolean rowVector, int ngroups ) 
+		throws Exception
+	{
+		//generate groups, target, and weights
+		double[][] G = getRandomMatrix(rows, 1, 1, numGroups, 1.0, 7);
+		for( int i=0; i<rows; i++ )
+			G[i][0] = Math.floor(G[i][0]);
+		MatrixBlock groups = DataConverter.convertToMatrixBlock(G);
+		
+		MatrixBlock target = DataConverter.convertToMatrixBlock(
+				getRandomMatrix(rowVector ? 1 : rows, rowVector ? rows : 1, 0, 1, sparsity, 3));
+		target.examSparsity();
+		
+		MatrixBlock wghts = null;
+		if( weights ) {
+			double[][] W = getRandomMatrix(rows, 1, 1, maxWeight+1, 1.0, 11);
+			for( int i=0; i<rows; i++ )
+				W[i][0] = Math.floor(W[i][0]);
+			wghts = DataConverter.convertToMatrixBlock(W);
+		}
+		
+		//compute grouped aggregates single- and multi-threaded
+		Operator op = GroupedAggregateInstruction.parseGroupedAggOperator(fn, order);
+		MatrixBlock ret1 = (MatrixBlock) groups.groupedAggOperations(target, wghts, new MatrixBlock(), ngroups, op, 1);
+		MatrixBlock ret2 = (MatrixBlock) groups.groupedAggOperations(target, wghts, new MatrixBlock(), ngroups, op, k);
+		
+		//compare results
+		Assert.assertEquals(ret1.getNumRows(), ret2.getNumRows());
+		Assert.assertEquals(ret1.getNumColumns(), ret2.getNumColumns());
+		Assert.assertEquals(ret1.getNonZeros(), ret2.getNonZeros());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret1), 
+				DataConverter.convertToDoubleMatrix(ret2), ret1.getNumRows(), ret1.getNumColumns(), eps);
+	}
+}
@@ -0,0 +1,282 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.binary.matrix_full_cellwise;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.DMLRuntimeException;
+import com.ibm.bi.dml.runtime.functionobjects.Builtin;
+import com.ibm.bi.dml.runtime.functionobjects.ValueFunction;
+import com.ibm.bi.dml.runtime.instructions.InstructionUtils;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.operators.BinaryOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.RightScalarOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.ScalarOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.UnaryOperator;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+
+/**
+ * Tests that the multi-threaded cellwise binary, scalar and unary operations
+ * produce exactly the same results (values, nnz, and representation) as the 
+ * single-threaded operations.
+ */
+public class FullCellwiseMultiThreadedTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "FullCellwiseMultiThreadedTest";
+	private final static String TEST_DIR = "functions/binary/matrix_full_cellwise/";
+	
+	//above the multi-threading threshold of 1M cells
+	private final static int rows = 1521;
+	private final static int cols = 1003;
+	private final static int k = 4;
+	
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.05;
+	
+	private final static String[] BINARY_OPS = new String[]{"+", "-", "*", "/", ">", "=="};
+	private final static String[] UNARY_OPS = new String[]{"abs", "sqrt", "exp", "round"};
+	
+	private enum InputType {
+		MATRIX,
+		COL_VECTOR,
+		ROW_VECTOR,
+	}
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "R" })   ); 
+	}
+	
+	@Test
+	public void testMatrixMatrixDenseDense() throws Exception {
+		runBinaryTest(InputType.MATRIX, sparsity1, sparsity1);
+	}
+	
+	@Test
+	public void testMatrixMatrixDenseSparse() throws Exception {
+		runBinaryTest(InputType.MATRIX, sparsity1, sparsity2);
+	}
+	
+	@Test
+	public void testMatrixMatrixSparseDense() throws Exception {
+		runBinaryTest(InputType.MATRIX, sparsity2, sparsity1);
+	}
+	
+	@Test
+	public void testMatrixMatrixSparseSparse() throws Exception {
+		runBinaryTest(InputType.MATRIX, sparsity2, sparsity2);
+	}
+	
+	@Test
+	public void testMatrixColVectorDense() throws Exception {
+		runBinaryTest(InputType.COL_VECTOR, sparsity1, 1.0);
+	}
+	
+	@Test
+	public void testMatrixColVectorSparse() throws Exception {
+		runBinaryTest(InputType.COL_VECTOR, sparsity2, 1.0);
+	}
+	
+	@Test
+	public void testMatrixRowVectorDense() throws Exception {
+		runBinaryTest(InputType.ROW_VECTOR, sparsity1, 1.0);
+	}
+	
+	@Test
+	public void testMatrixRowVectorSparse() throws Exception {
+		runBinaryTest(InputType.ROW_VECTOR, sparsity2, 1.0);
+	}
+	
+	@Test
+	public void testMatrixScalarDense() throws Exception {
+		runScalarTest(sparsity1);
+	}
+	
+	@Test
+	public void testMatrixScalarSparse() throws Exception {
+		runScalarTest(sparsity2);
+	}
+	
+	@Test
+	public void testUnaryDense() throws Exception {
+		runUnaryTest(sparsity1);
+	}
+	
+	@Test
+	public void testUnarySparse() throws Exception {
+		runUnaryTest(sparsity2);
+	}
+	
+	@Test
+	public void testTaskErrors() throws Exception {
+		runTaskErrorTest(sparsity1);
+	}
+	
+	@Test
+	public void testTaskErrorsSparse() throws Exception {
+		runTaskErrorTest(sparsity2);
+	}
+	
+	/**
+	 * 
+	 * @param type
+	 * @param sp1
+	 * @param sp2
+	 * @throws Exception
+	 */
+	private void runBinaryTest( InputType type, double sp1, double sp2 ) 
+		throws Exception
+	{
+		MatrixBlock m1 = createInput(rows, cols, sp1, 7);
+		MatrixBlock m2 = (type==InputType.MATRIX) ? createInput(rows, cols, sp2, 3) :
+			(type==InputType.COL_VECTOR) ? createInput(rows, 1, sp2, 3) : createInput(1, cols, sp2, 3);
+		
+		for( String opcode : BINARY_OPS ) {
+			BinaryOperator op1 = InstructionUtils.parseBinaryOperator(opcode);
+			BinaryOperator opk = InstructionUtils.parseBinaryOperator(opcode);
+			opk.setNumThreads(k);
+			MatrixBlock ret1 = (MatrixBlock)m1.binaryOperations(op1, m2, new MatrixBlock());
+			MatrixBlock retk = (MatrixBlock)m1.binaryOperations(opk, m2, new MatrixBlock());
+			compareBlocks(opcode, ret1, retk);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param sp
+	 * @throws Exception
+	 */
+	private void runScalarTest( double sp ) 
+		throws Exception
+	{
+		MatrixBlock m1 = createInput(rows, cols, sp, 7);
+		
+		for( String opcode : BINARY_OPS ) {
+			ScalarOperator op1 = InstructionUtils.parseScalarBinaryOperator(opcode, false, 0.5);
+			ScalarOperator opk = InstructionUtils.parseScalarBinaryOperator(opcode, false, 0.5);
+			opk.setNumThreads(k);
+			MatrixBlock ret1 = (MatrixBlock)m1.scalarOperations(op1, new MatrixBlock());
+			MatrixBlock retk = (MatrixBlock)m1.scalarOperations(opk, new MatrixBlock());
+			compareBlocks(opcode, ret1, retk);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param sp
+	 * @throws Exception
+	 */
+	private void runUnaryTest( double sp ) 
+		throws Exception
+	{
+		MatrixBlock m1 = createInput(rows, cols, sp, 7);
+		
+		for( String opcode : UNARY_OPS ) {
+			UnaryOperator op1 = new UnaryOperator(Builtin.getBuiltinFnObject(opcode), 1);
+			UnaryOperator opk = new UnaryOperator(Builtin.getBuiltinFnObject(opcode), k);
+			MatrixBlock ret1 = (MatrixBlock)m1.unaryOperations(op1, new MatrixBlock());
+			MatrixBlock retk = (MatrixBlock)m1.unaryOperations(opk, new MatrixBlock());
+			compareBlocks(opcode, ret1, retk);
+		}
+	}
+	
+	/**
+	 * Checks that errors of individual tasks (here, a value function w/o 
+	 * implementation) are thrown instead of returning a corrupted block.
+	 * 
+	 * @param sp
+	 * @throws Exception
+	 */
+	private void runTaskErrorTest( double sp ) 
+		throws Exception
+	{
+		MatrixBlock m1 = createInput(rows, cols, sp, 7);
+		MatrixBlock m2 = createInput(rows, cols, sp, 3);
+		ValueFunction fn = new ValueFunction();
+		
+		try {
+			ScalarOperator sop = new RightScalarOperator(fn, 0.5);
+			sop.setNumThreads(k);
+			m1.scalarOperations(sop, new MatrixBlock());
+			Assert.fail("Expected DMLRuntimeException for scalar operation.");
+		}
+		catch(DMLRuntimeException ex) {
+			//expected
+		}
+		
+		try {
+			m1.binaryOperations(new BinaryOperator(fn, k), m2, new MatrixBlock());
+			Assert.fail("Expected DMLRuntimeException for binary operation.");
+		}
+		catch(DMLRuntimeException ex) {
+			//expected
+		}
+		
+		try {
+			m1.unaryOperations(new UnaryOperator(fn, k), new MatrixBlock());
+			Assert.fail("Expected DMLRuntimeException for unary operation.");
+		}
+		catch(DMLRuntimeException ex) {
+			//expected
+		}
+	}
+	
+	/**
+	 * 
+	 * @param rlen
+	 * @param clen
+	 * @param sp
+	 * @param seed
+	 * @return
+	 * @throws Exception
+	 */
+	private MatrixBlock createInput( int rlen, int clen, double sp, long seed ) 
+		throws Exception
+	{
+		MatrixBlock ret = DataConverter.convertToMatrixBlock(getRandomMatrix(rlen, clen, -1, 1, sp, seed));
+		ret.examSparsity();
+		return ret;
+	}
+	
+	/**
+	 * Compares the given blocks for exactly equal values (incl NaNs, but 
+	 * w/o distinguishing signed zeros), number of non-zeros and sparse/dense 
+	 * representation.
+	 * 
+	 * @param opcode
+	 * @param expected
+	 * @param actual
+	 */
+	private static void compareBlocks( String opcode, MatrixBlock expected, MatrixBlock actual )
+	{
+		String msg = "Operation '"+opcode+"': ";
+		Assert.assertEquals(msg+"nnz", expected.getNonZeros(), actual.getNonZeros());
+		Assert.assertEquals(msg+"sparse", expected.isInSparseFormat(), actual.isInSparseFormat());
+		for( int i=0; i<expected.getNumRows(); i++ )
+			for( int j=0; j<expected.getNumColumns(); j++ ) {
+				double v1 = expected.quickGetValue(i, j);
+				double v2 = actual.quickGetValue(i, j);
+				if( v1 != v2 && !(Double.isNaN(v1) && Double.isNaN(v2)) )
+					Assert.fail(msg+"wrong value at ("+i+","+j+"): "+v2+" (expected "+v1+").");
+			}
+	}
+}
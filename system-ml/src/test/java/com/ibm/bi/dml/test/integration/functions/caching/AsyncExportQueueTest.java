@@ -0,0 +1,310 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.caching;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.controlprogram.caching.AsyncExportQueue;
+import com.ibm.bi.dml.runtime.controlprogram.caching.AsyncExportQueue.ExportGroup;
+import com.ibm.bi.dml.runtime.controlprogram.caching.AsyncExportQueue.ExportTask;
+import com.ibm.bi.dml.runtime.controlprogram.caching.CacheException;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+
+/**
+ * Tests for the consistency, error handling, and back-pressure of 
+ * asynchronous exports (independent of the actual matrix writers).
+ */
+public class AsyncExportQueueTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "AsyncExportQueueTest";
+	private final static String TEST_DIR = "functions/caching/";
+	
+	//size that exceeds the in-flight limit for any two exports
+	private final static long LARGE_SIZE = Long.MAX_VALUE/4;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "X" })   ); 
+	}
+	
+	@Test
+	public void testWriteThenReadSameFile() 
+		throws Exception
+	{
+		final File file = File.createTempFile("async_export", ".txt");
+		file.deleteOnExit();
+		String fname = file.getAbsolutePath();
+		
+		ExportGroup group = AsyncExportQueue.beginGroup();
+		try 
+		{
+			//slow export that writes the file content at the end
+			AsyncExportQueue.submit(fname, new Object(), 1, new ExportTask() {
+				@Override
+				public void export() throws Exception {
+					Thread.sleep(300);
+					writeFile(file, "1 1 7.0");
+				}
+			});
+			
+			//reader waits for pending exports of this file
+			AsyncExportQueue.waitForPendingExports(fname);
+			Assert.assertEquals("1 1 7.0", readFile(file));
+		}
+		finally {
+			AsyncExportQueue.endGroup(group, true);
+		}
+	}
+	
+	@Test
+	public void testErrorPropagationPerFile() 
+		throws Exception
+	{
+		ExportGroup group = AsyncExportQueue.beginGroup();
+		
+		//note: submit raises prior errors of the group, hence failing task last
+		AsyncExportQueue.submit("async_success", new Object(), 1, createNoOpTask());
+		AsyncExportQueue.submit("async_fail", new Object(), 1, createFailingTask());
+		
+		//other files are not affected by the error
+		AsyncExportQueue.waitForPendingExports("async_success");
+		
+		//error is raised to every reader of the failed file
+		for( int i=0; i<2; i++ ) {
+			try {
+				AsyncExportQueue.waitForPendingExports("async_fail");
+				Assert.fail("Expected export error not raised.");
+			}
+			catch(CacheException ex) {
+				//expected
+			}
+		}
+		
+		//error is raised once on closing the issuing group
+		try {
+			AsyncExportQueue.endGroup(group, true);
+			Assert.fail("Expected export error not raised.");
+		}
+		catch(CacheException ex) {
+			//expected
+		}
+		
+		//new write of the failed file resets the error
+		group = AsyncExportQueue.beginGroup();
+		AsyncExportQueue.submit("async_fail", new Object(), 1, createNoOpTask());
+		AsyncExportQueue.waitForPendingExports("async_fail");
+		AsyncExportQueue.endGroup(group, true);
+	}
+	
+	@Test
+	public void testErrorIsolationAcrossGroups() 
+		throws Exception
+	{
+		final CacheException[] err = new CacheException[1];
+		
+		//concurrent execution w/ failing export
+		Thread t = new Thread() {
+			@Override
+			public void run() {
+				ExportGroup group = AsyncExportQueue.beginGroup();
+				try {
+					AsyncExportQueue.submit("async_fail2", new Object(), 1, createFailingTask());
+					AsyncExportQueue.endGroup(group, true);
+				}
+				catch(CacheException ex) {
+					err[0] = ex;
+				}
+			}
+		};
+		t.start();
+		t.join();
+		
+		//execution w/o failing exports is not affected 
+		ExportGroup group = AsyncExportQueue.beginGroup();
+		AsyncExportQueue.submit("async_success2", new Object(), 1, createNoOpTask());
+		AsyncExportQueue.endGroup(group, true);
+		
+		Assert.assertNotNull("Export error not raised to issuing execution.", err[0]);
+	}
+	
+	@Test
+	public void testBackPressure() 
+		throws Exception
+	{
+		final CountDownLatch release = new CountDownLatch(1);
+		ExportGroup group = AsyncExportQueue.beginGroup();
+		
+		try
+		{
+			//first export is always admitted (blocks until released)
+			AsyncExportQueue.submit("async_large1", new Object(), LARGE_SIZE, new ExportTask() {
+				@Override
+				public void export() throws Exception {
+					release.await();
+				}
+			});
+			
+			//second export exceeds the in-flight limit and hence blocks
+			Thread t = new Thread() {
+				@Override
+				public void run() {
+					try {
+						AsyncExportQueue.submit("async_large2", new Object(), LARGE_SIZE, createNoOpTask());
+					}
+					catch(CacheException ex) {
+						throw new RuntimeException(ex);
+					}
+				}
+			};
+			t.start();
+			t.join(300);
+			Assert.assertTrue("Export admitted despite exceeded limit.", t.isAlive());
+			
+			//completion of the first export admits the second export
+			release.countDown();
+			t.join(10000);
+			Assert.assertFalse("Export not admitted after completed export.", t.isAlive());
+		}
+		finally {
+			release.countDown();
+			AsyncExportQueue.endGroup(group, true);
+		}
+	}
+	
+	@Test
+	public void testWaitForPinnedBlock() 
+		throws Exception
+	{
+		final CountDownLatch started = new CountDownLatch(1);
+		final boolean[] done = new boolean[1];
+		Object block = new Object();
+		ExportGroup group = AsyncExportQueue.beginGroup();
+		
+		AsyncExportQueue.submit("async_pinned", block, 1, new ExportTask() {
+			@Override
+			public void export() throws Exception {
+				started.countDown();
+				Thread.sleep(300);
+				done[0] = true;
+			}
+		});
+		Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+		
+		//in-place updates wait for the pending export of the pinned block
+		AsyncExportQueue.waitForPinnedExports(block);
+		Assert.assertTrue("Returned before export of pinned block completed.", done[0]);
+		
+		AsyncExportQueue.endGroup(group, true);
+	}
+	
+	@Test
+	public void testWaitOnFailedExecution() 
+		throws Exception
+	{
+		final boolean[] done = new boolean[1];
+		ExportGroup group = AsyncExportQueue.beginGroup();
+		
+		AsyncExportQueue.submit("async_failed_exec", new Object(), 1, new ExportTask() {
+			@Override
+			public void export() throws Exception {
+				Thread.sleep(300);
+				done[0] = true;
+				throw new IOException("Injected export failure.");
+			}
+		});
+		
+		//closing the group after a failed execution waits but does not raise
+		AsyncExportQueue.endGroup(group, false);
+		Assert.assertTrue("Returned before pending export completed.", done[0]);
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	private static ExportTask createNoOpTask()
+	{
+		return new ExportTask() {
+			@Override
+			public void export() throws Exception {
+				//do nothing
+			}
+		};
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	private static ExportTask createFailingTask()
+	{
+		return new ExportTask() {
+			@Override
+			public void export() throws Exception {
+				throw new IOException("Injected export failure.");
+			}
+		};
+	}
+	
+	/**
+	 * 
+	 * @param file
+	 * @param content
+	 * @throws IOException
+	 */
+	private static void writeFile( File file, String content ) 
+		throws IOException
+	{
+		FileWriter out = new FileWriter(file);
+		try {
+			out.write(content);
+		}
+		finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	private static String readFile( File file ) 
+		throws IOException
+	{
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			return in.readLine();
+		}
+		finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.caching;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.controlprogram.caching.ByteBuffer;
+import com.ibm.bi.dml.runtime.controlprogram.caching.CacheCompression;
+import com.ibm.bi.dml.runtime.controlprogram.caching.LazyWriteBuffer;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Round-trip tests for the buffer pool compression, on raw byte arrays 
+ * and on matrices buffered in memory or evicted to local FS.
+ */
+public class CacheCompressionTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "CacheCompressionTest";
+	private final static String TEST_DIR = "functions/caching/";
+	
+	private final static int rows = 400;
+	private final static int cols = 250;
+	private final static double eps = 1e-10;
+	
+	//lengths around the token/length encoding boundaries and the max match offset
+	private final static int[] lengths = new int[]{0, 1, 3, 4, 5, 15, 16, 270, 65543, 200000};
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "X" })   ); 
+	}
+	
+	@Test
+	public void testRoundTripZeros() 
+		throws Exception
+	{
+		for( int len : lengths )
+			runRoundTripTest(new byte[len]);
+	}
+	
+	@Test
+	public void testRoundTripPattern() 
+		throws Exception
+	{
+		for( int len : lengths ) {
+			byte[] data = new byte[len];
+			for( int i=0; i<len; i++ )
+				data[i] = (byte)(i % 7);
+			runRoundTripTest(data);
+		}
+	}
+	
+	@Test
+	public void testRoundTripRandom() 
+		throws Exception
+	{
+		Random rand = new Random(7);
+		for( int len : lengths ) {
+			byte[] data = new byte[len];
+			rand.nextBytes(data);
+			runRoundTripTest(data);
+		}
+	}
+	
+	@Test
+	public void testRoundTripFarRepetition() 
+		throws Exception
+	{
+		//repetition beyond the max match offset
+		byte[] data = new byte[140000];
+		new Random(7).nextBytes(data);
+		System.arraycopy(data, 0, data, 70000, 1000);
+		runRoundTripTest(data);
+	}
+	
+	@Test
+	public void testAdaptiveCompression() 
+		throws Exception
+	{
+		byte[] zeros = new byte[100000];
+		byte[] random = new byte[100000];
+		new Random(7).nextBytes(random);
+		
+		//compress only if beneficial
+		Assert.assertNotSame(zeros, CacheCompression.compressIfBeneficial(zeros));
+		Assert.assertSame(random, CacheCompression.compressIfBeneficial(random));
+		
+		//no compression if exceeding the given maximum length
+		Assert.assertNull(CacheCompression.compress(random, random.length, random.length/2));
+		Assert.assertFalse(CacheCompression.isCompressed(random));
+	}
+	
+	@Test
+	public void testCorruptedPayload() 
+		throws Exception
+	{
+		byte[] data = CacheCompression.compress(new byte[1000], 1000, 1000);
+		try {
+			CacheCompression.decompress(Arrays.copyOf(data, data.length-3));
+			Assert.fail("Expected error on truncated payload not raised.");
+		}
+		catch(IOException ex) {
+			//expected
+		}
+		try {
+			CacheCompression.decompress(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+			Assert.fail("Expected error on uncompressed payload not raised.");
+		}
+		catch(IOException ex) {
+			//expected
+		}
+	}
+	
+	@Test
+	public void testMatrixRoundTripDense() 
+		throws Exception
+	{
+		double[][] X = new double[rows][cols];
+		for( int i=0; i<rows; i++ )
+			for( int j=0; j<cols; j++ )
+				X[i][j] = (i/100)%4 + j%3;
+		runMatrixRoundTripTest(DataConverter.convertToMatrixBlock(X), true);
+	}
+	
+	@Test
+	public void testMatrixRoundTripSparse() 
+		throws Exception
+	{
+		double[][] X = new double[rows][cols];
+		for( int i=0; i<rows; i++ )
+			for( int j=0; j<cols; j+=10 )
+				X[i][j] = 1;
+		runMatrixRoundTripTest(DataConverter.convertToMatrixBlock(X), true);
+	}
+	
+	@Test
+	public void testMatrixRoundTripIncompressible() 
+		throws Exception
+	{
+		double[][] X = getRandomMatrix(rows, cols, 0, 1, 1.0, 7);
+		runMatrixRoundTripTest(DataConverter.convertToMatrixBlock(X), false);
+	}
+	
+	/**
+	 * 
+	 * @param data
+	 * @throws Exception
+	 */
+	private static void runRoundTripTest(byte[] data) 
+		throws Exception
+	{
+		byte[] cdata = CacheCompression.compress(data, data.length, 2*data.length+64);
+		Assert.assertNotNull(cdata);
+		Assert.assertTrue(CacheCompression.isCompressed(cdata));
+		Assert.assertArrayEquals("Round trip failed for length "+data.length+".", 
+				data, CacheCompression.decompress(cdata));
+	}
+	
+	/**
+	 * 
+	 * @param mb
+	 * @param compressed
+	 * @throws Exception
+	 */
+	private static void runMatrixRoundTripTest(MatrixBlock mb, boolean compressed) 
+		throws Exception
+	{
+		mb.examSparsity();
+		File file = File.createTempFile("cache_compression", ".dat");
+		String fname = file.getAbsolutePath();
+		LazyWriteBuffer.init();
+		
+		try
+		{
+			//serialize into buffer (compressed if beneficial)
+			long size = mb.getExactSizeOnDisk();
+			ByteBuffer bbuff = new ByteBuffer(size);
+			bbuff.serializeMatrix(mb);
+			Assert.assertEquals(compressed, bbuff.getSerializedSize() < size);
+			
+			//restore from in-memory buffer
+			compareBlocks(mb, bbuff.deserializeMatrix());
+			
+			//evict to local FS, and restore via the write buffer 
+			bbuff.evictBuffer(fname);
+			Assert.assertEquals(compressed, CacheCompression.isCompressedFile(fname));
+			compareBlocks(mb, LazyWriteBuffer.readMatrix(fname));
+		}
+		finally {
+			file.delete();
+		}
+	}
+	
+	/**
+	 * 
+	 * @param expected
+	 * @param actual
+	 * @throws Exception
+	 */
+	private static void compareBlocks(MatrixBlock expected, MatrixBlock actual) 
+		throws Exception
+	{
+		Assert.assertNotNull(actual);
+		Assert.assertEquals(expected.getNumRows(), actual.getNumRows());
+		Assert.assertEquals(expected.getNumColumns(), actual.getNumColumns());
+		Assert.assertEquals(expected.getNonZeros(), actual.getNonZeros());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected), 
+				DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), eps);
+	}
+}
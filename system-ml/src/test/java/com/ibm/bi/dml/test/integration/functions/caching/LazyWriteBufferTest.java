@@ -0,0 +1,211 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.caching;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.controlprogram.caching.LazyWriteBuffer;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.runtime.util.LocalFileUtils;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests for the eviction and restore of matrices from the write buffer 
+ * (incl local FS), and the handling of failed background evictions.
+ */
+public class LazyWriteBufferTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "LazyWriteBufferTest";
+	private final static String TEST_DIR = "functions/caching/";
+	
+	//small buffer in order to force evictions
+	private final static long limit = 1024*1024;
+	private final static int numMatrices = 20;
+	private final static double eps = 1e-10;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "X" })   ); 
+	}
+	
+	@Test
+	public void testEvictRestoreDense() 
+		throws Exception
+	{
+		runEvictRestoreTest(100, 250, 1.0);
+	}
+	
+	@Test
+	public void testEvictRestoreSparse() 
+		throws Exception
+	{
+		runEvictRestoreTest(400, 1000, 0.05);
+	}
+	
+	@Test
+	public void testProactiveEvictionError() 
+		throws Exception
+	{
+		String dir = createTempDir();
+		LazyWriteBuffer.init(limit);
+		
+		try
+		{
+			//matrix that cannot be evicted (non-existing parent directory), 
+			//followed by matrices that exceed the eviction watermark but not
+			//the buffer limit (i.e., proactive eviction w/o blocked writers)
+			String bad = dir + "/missing/bad";
+			MatrixBlock[] mb = new MatrixBlock[5];
+			String[] fnames = new String[5];
+			for( int i=0; i<5; i++ ) {
+				mb[i] = createMatrix(100, 250, 1.0, i);
+				fnames[i] = (i==0) ? bad : dir + "/good" + i;
+				LazyWriteBuffer.writeMatrix(fnames[i], mb[i]);
+			}
+			
+			//eviction continues with other matrices despite the failure
+			long watermark = (long)(LazyWriteBuffer.EVICTION_WATERMARK * limit);
+			for( int i=0; i<1000 && LazyWriteBuffer.getSize() > watermark; i++ )
+				Thread.sleep(10);
+			Assert.assertTrue("Eviction stalled after failed eviction.", 
+					LazyWriteBuffer.getSize() <= watermark);
+			
+			//error is raised to the next writer, even if not blocked
+			MatrixBlock mb5 = createMatrix(10, 10, 1.0, 5);
+			try {
+				LazyWriteBuffer.writeMatrix(dir + "/good5", mb5);
+				Assert.fail("Expected eviction error not raised.");
+			}
+			catch(IOException ex) {
+				//expected
+			}
+			
+			//error is raised once, and the failed matrix remains readable
+			LazyWriteBuffer.writeMatrix(dir + "/good5", mb5);
+			compareBlocks(mb5, LazyWriteBuffer.readMatrix(dir + "/good5"));
+			for( int i=0; i<5; i++ )
+				compareBlocks(mb[i], LazyWriteBuffer.readMatrix(fnames[i]));
+			
+			for( int i=0; i<5; i++ )
+				LazyWriteBuffer.deleteMatrix(fnames[i]);
+			LazyWriteBuffer.deleteMatrix(dir + "/good5");
+		}
+		finally {
+			LazyWriteBuffer.cleanup();
+			LazyWriteBuffer.init();
+			LocalFileUtils.rDelete(new File(dir));
+		}
+	}
+	
+	/**
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @param sparsity
+	 * @throws Exception
+	 */
+	private void runEvictRestoreTest(int rows, int cols, double sparsity) 
+		throws Exception
+	{
+		String dir = createTempDir();
+		LazyWriteBuffer.init(limit);
+		
+		try
+		{
+			//write matrices of total size larger than the buffer
+			MatrixBlock[] mb = new MatrixBlock[numMatrices];
+			for( int i=0; i<numMatrices; i++ ) {
+				mb[i] = createMatrix(rows, cols, sparsity, i);
+				LazyWriteBuffer.writeMatrix(dir + "/" + i, mb[i]);
+				Assert.assertTrue("Buffer limit exceeded.", LazyWriteBuffer.getSize() <= limit);
+			}
+			
+			//read (restore) all matrices, incl evicted ones, in reverse order
+			for( int i=numMatrices-1; i>=0; i-- )
+				compareBlocks(mb[i], LazyWriteBuffer.readMatrix(dir + "/" + i));
+			
+			//delete all matrices from buffer and local FS
+			for( int i=0; i<numMatrices; i++ )
+				LazyWriteBuffer.deleteMatrix(dir + "/" + i);
+			Assert.assertEquals(0, LazyWriteBuffer.getSize());
+			
+			LazyWriteBuffer.cleanup(); //wait for pending evictions
+			for( int i=0; i<numMatrices; i++ )
+				Assert.assertFalse("Evicted matrix not deleted.", new File(dir + "/" + i).exists());
+		}
+		finally {
+			LazyWriteBuffer.cleanup();
+			LazyWriteBuffer.init();
+			LocalFileUtils.rDelete(new File(dir));
+		}
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	private static String createTempDir()
+	{
+		File dir = new File(System.getProperty("java.io.tmpdir"), "lwb_" + System.nanoTime());
+		dir.mkdirs();
+		return dir.getAbsolutePath();
+	}
+	
+	/**
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @param sparsity
+	 * @param seed
+	 * @return
+	 * @throws Exception
+	 */
+	private MatrixBlock createMatrix(int rows, int cols, double sparsity, long seed) 
+		throws Exception
+	{
+		MatrixBlock mb = DataConverter.convertToMatrixBlock(
+				getRandomMatrix(rows, cols, 0, 1, sparsity, seed));
+		mb.examSparsity();
+		return mb;
+	}
+	
+	/**
+	 * 
+	 * @param expected
+	 * @param actual
+	 * @throws Exception
+	 */
+	private static void compareBlocks(MatrixBlock expected, MatrixBlock actual) 
+		throws Exception
+	{
+		Assert.assertNotNull(actual);
+		Assert.assertEquals(expected.getNumRows(), actual.getNumRows());
+		Assert.assertEquals(expected.getNumColumns(), actual.getNumColumns());
+		Assert.assertEquals(expected.getNonZeros(), actual.getNonZeros());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected), 
+				DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), eps);
+	}
+}
@@ -0,0 +1,231 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.caching;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.controlprogram.caching.ByteBuffer;
+import com.ibm.bi.dml.runtime.controlprogram.caching.LazyWriteBuffer;
+import com.ibm.bi.dml.runtime.controlprogram.caching.OffHeapBuffer;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.runtime.util.LocalFileUtils;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests for the off-heap tier of the buffer pool, incl spilling to local
+ * FS if the off-heap capacity is exceeded.
+ */
+public class OffHeapBufferTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "OffHeapBufferTest";
+	private final static String TEST_DIR = "functions/caching/";
+	
+	//small write buffer and off-heap tier in order to force spilling
+	private final static long limit = 1024*1024;
+	private final static long offHeapLimit = 1024*1024;
+	private final static int numMatrices = 20;
+	private final static double eps = 1e-10;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "X" })   ); 
+	}
+	
+	@Test
+	public void testOffHeapSpillDense() 
+		throws Exception
+	{
+		runOffHeapSpillTest(100, 250, 1.0);
+	}
+	
+	@Test
+	public void testOffHeapSpillSparse() 
+		throws Exception
+	{
+		runOffHeapSpillTest(400, 1000, 0.05);
+	}
+	
+	@Test
+	public void testOffHeapWriteReadDelete() 
+		throws Exception
+	{
+		OffHeapBuffer.init(offHeapLimit);
+		
+		try
+		{
+			MatrixBlock mb = createMatrix(100, 250, 1.0, 7);
+			ByteBuffer bbuff = createBuffer(mb);
+			
+			//write and read of buffered matrix
+			Assert.assertTrue(OffHeapBuffer.writeMatrix("offheap_a", bbuff));
+			Assert.assertEquals(bbuff.getSerializedSize(), OffHeapBuffer.getSize());
+			compareBlocks(mb, OffHeapBuffer.readMatrix("offheap_a"));
+			Assert.assertNull(OffHeapBuffer.readMatrix("offheap_b"));
+			
+			//overwrite of existing matrix replaces the old entry
+			Assert.assertTrue(OffHeapBuffer.writeMatrix("offheap_a", bbuff));
+			Assert.assertEquals(bbuff.getSerializedSize(), OffHeapBuffer.getSize());
+			
+			//delete releases the entry
+			Assert.assertTrue(OffHeapBuffer.deleteMatrix("offheap_a"));
+			Assert.assertFalse(OffHeapBuffer.deleteMatrix("offheap_a"));
+			Assert.assertEquals(0, OffHeapBuffer.getSize());
+			Assert.assertNull(OffHeapBuffer.readMatrix("offheap_a"));
+		}
+		finally {
+			OffHeapBuffer.init();
+		}
+	}
+	
+	@Test
+	public void testOffHeapRejectTooLargeOrDisabled() 
+		throws Exception
+	{
+		MatrixBlock mb = createMatrix(100, 250, 1.0, 7);
+		ByteBuffer bbuff = createBuffer(mb);
+		
+		try
+		{
+			//matrix larger than the off-heap capacity
+			OffHeapBuffer.init(bbuff.getSerializedSize()-1);
+			Assert.assertFalse(OffHeapBuffer.writeMatrix("offheap_large", bbuff));
+			Assert.assertEquals(0, OffHeapBuffer.getSize());
+			
+			//disabled off-heap tier
+			OffHeapBuffer.init(0);
+			Assert.assertFalse(OffHeapBuffer.isEnabled());
+			Assert.assertFalse(OffHeapBuffer.writeMatrix("offheap_large", bbuff));
+			Assert.assertNull(OffHeapBuffer.readMatrix("offheap_large"));
+		}
+		finally {
+			OffHeapBuffer.init();
+		}
+	}
+	
+	/**
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @param sparsity
+	 * @throws Exception
+	 */
+	private void runOffHeapSpillTest(int rows, int cols, double sparsity) 
+		throws Exception
+	{
+		String dir = createTempDir();
+		LazyWriteBuffer.init(limit);
+		OffHeapBuffer.init(offHeapLimit);
+		
+		try
+		{
+			//write matrices of total size larger than both tiers
+			MatrixBlock[] mb = new MatrixBlock[numMatrices];
+			for( int i=0; i<numMatrices; i++ ) {
+				mb[i] = createMatrix(rows, cols, sparsity, i);
+				LazyWriteBuffer.writeMatrix(dir + "/" + i, mb[i]);
+				Assert.assertTrue("Off-heap limit exceeded.", OffHeapBuffer.getSize() <= offHeapLimit);
+			}
+			Assert.assertTrue("No matrix moved off-heap.", OffHeapBuffer.getSize() > 0);
+			Assert.assertTrue("No matrix spilled to local FS.", new File(dir).list().length > 0);
+			
+			//read all matrices from write buffer, off-heap tier, or local FS
+			for( int i=numMatrices-1; i>=0; i-- )
+				compareBlocks(mb[i], LazyWriteBuffer.readMatrix(dir + "/" + i));
+			
+			//delete all matrices from all tiers
+			for( int i=0; i<numMatrices; i++ )
+				LazyWriteBuffer.deleteMatrix(dir + "/" + i);
+			
+			LazyWriteBuffer.cleanup(); //wait for pending evictions
+			Assert.assertEquals(0, OffHeapBuffer.getSize());
+			Assert.assertEquals("Spilled matrices not deleted.", 0, new File(dir).list().length);
+		}
+		finally {
+			LazyWriteBuffer.cleanup();
+			LazyWriteBuffer.init();
+			LocalFileUtils.rDelete(new File(dir));
+		}
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	private static String createTempDir()
+	{
+		File dir = new File(System.getProperty("java.io.tmpdir"), "ohb_" + System.nanoTime());
+		dir.mkdirs();
+		return dir.getAbsolutePath();
+	}
+	
+	/**
+	 * 
+	 * @param mb
+	 * @return
+	 * @throws Exception
+	 */
+	private static ByteBuffer createBuffer(MatrixBlock mb) 
+		throws Exception
+	{
+		ByteBuffer bbuff = new ByteBuffer(mb.getExactSizeOnDisk());
+		bbuff.serializeMatrix(mb);
+		return bbuff;
+	}
+	
+	/**
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @param sparsity
+	 * @param seed
+	 * @return
+	 * @throws Exception
+	 */
+	private MatrixBlock createMatrix(int rows, int cols, double sparsity, long seed) 
+		throws Exception
+	{
+		MatrixBlock mb = DataConverter.convertToMatrixBlock(
+				getRandomMatrix(rows, cols, 0, 1, sparsity, seed));
+		mb.examSparsity();
+		return mb;
+	}
+	
+	/**
+	 * 
+	 * @param expected
+	 * @param actual
+	 * @throws Exception
+	 */
+	private static void compareBlocks(MatrixBlock expected, MatrixBlock actual) 
+		throws Exception
+	{
+		Assert.assertNotNull(actual);
+		Assert.assertEquals(expected.getNumRows(), actual.getNumRows());
+		Assert.assertEquals(expected.getNumColumns(), actual.getNumColumns());
+		Assert.assertEquals(expected.getNonZeros(), actual.getNonZeros());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected), 
+				DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), eps);
+	}
+}
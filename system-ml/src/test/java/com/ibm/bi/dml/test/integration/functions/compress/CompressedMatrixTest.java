@@ -0,0 +1,240 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.compress;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.lops.MMTSJ.MMTSJType;
+import com.ibm.bi.dml.lops.MapMultChain.ChainType;
+import com.ibm.bi.dml.parser.Expression.ValueType;
+import com.ibm.bi.dml.runtime.DMLRuntimeException;
+import com.ibm.bi.dml.runtime.compress.CompressedMatrixBlock;
+import com.ibm.bi.dml.runtime.controlprogram.caching.CacheableData;
+import com.ibm.bi.dml.runtime.controlprogram.caching.MatrixObject;
+import com.ibm.bi.dml.runtime.functionobjects.Multiply;
+import com.ibm.bi.dml.runtime.functionobjects.Plus;
+import com.ibm.bi.dml.runtime.instructions.InstructionUtils;
+import com.ibm.bi.dml.runtime.matrix.MatrixCharacteristics;
+import com.ibm.bi.dml.runtime.matrix.MatrixFormatMetaData;
+import com.ibm.bi.dml.runtime.matrix.data.InputInfo;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.data.OutputInfo;
+import com.ibm.bi.dml.runtime.matrix.operators.AggregateBinaryOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.AggregateOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.AggregateUnaryOperator;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests for operations over compressed matrix blocks (compression-aware and
+ * via decompression), compared against the uncompressed block.
+ */
+public class CompressedMatrixTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "CompressedMatrixTest";
+	private final static String TEST_DIR = "functions/compress/";
+	
+	private final static int rows = 2345;
+	private final static int cols = 12;
+	private final static double eps = 1e-8;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "R" })   ); 
+	}
+	
+	@Test
+	public void testCompressedDense() 
+		throws Exception
+	{
+		runCompressedOperationsTest(1.0, 1);
+	}
+	
+	@Test
+	public void testCompressedSparse() 
+		throws Exception
+	{
+		runCompressedOperationsTest(0.1, 1);
+	}
+	
+	@Test
+	public void testCompressedDenseMultiThreaded() 
+		throws Exception
+	{
+		runCompressedOperationsTest(1.0, 4);
+	}
+	
+	@Test
+	public void testCompressedSparseMultiThreaded() 
+		throws Exception
+	{
+		runCompressedOperationsTest(0.1, 4);
+	}
+	
+	@Test
+	public void testInvalidDimensions() 
+		throws Exception
+	{
+		MatrixBlock cmb = CompressedMatrixBlock.compress(createLowCardinalityBlock(1.0));
+		MatrixBlock v = DataConverter.convertToMatrixBlock(getRandomMatrix(cols+1, 1, -1, 1, 1.0, 3));
+		AggregateBinaryOperator abop = new AggregateBinaryOperator(Multiply.getMultiplyFnObject(), 
+				new AggregateOperator(0, Plus.getPlusFnObject()));
+		try {
+			cmb.aggregateBinaryOperations(cmb, v, new MatrixBlock(), abop);
+			Assert.fail("Expected DMLRuntimeException for invalid dimensions.");
+		}
+		catch(DMLRuntimeException ex) {
+			//expected
+		}
+	}
+	
+	@Test
+	public void testDecompressedReadReuse() 
+		throws Exception
+	{
+		MatrixBlock mb = createLowCardinalityBlock(1.0);
+		MatrixBlock cmb = CompressedMatrixBlock.compress(mb);
+		Assert.assertTrue(cmb instanceof CompressedMatrixBlock);
+		
+		boolean caching = CacheableData.isCachingActive();
+		CacheableData.disableCaching();
+		try 
+		{
+			MatrixCharacteristics mc = new MatrixCharacteristics(rows, cols, 1000, 1000, mb.getNonZeros());
+			MatrixObject mo = new MatrixObject(ValueType.DOUBLE, "/tmp/compressed", 
+				new MatrixFormatMetaData(mc, OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo));
+			mo.acquireModify(cmb);
+			mo.release();
+			
+			//compression-aware read obtains the compressed block
+			Assert.assertSame(cmb, mo.acquireRead(true));
+			mo.release();
+			
+			//repeated compression-unaware reads reuse one decompressed copy
+			MatrixBlock d1 = mo.acquireRead(false);
+			mo.release();
+			MatrixBlock d2 = mo.acquireRead(false);
+			mo.release();
+			Assert.assertFalse(d1 instanceof CompressedMatrixBlock);
+			Assert.assertSame(d1, d2);
+			compareBlocks(mb, d1);
+			
+			//modify decompresses in place and drops the cached copy
+			MatrixBlock m = mo.acquireModify();
+			Assert.assertFalse(m instanceof CompressedMatrixBlock);
+			m.quickSetValue(0, 0, 7);
+			mo.release();
+			Assert.assertEquals(7, mo.acquireRead(false).quickGetValue(0, 0), 0);
+			mo.release();
+			mo.clearData();
+		}
+		finally {
+			if( caching )
+				CacheableData.enableCaching();
+		}
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @param k
+	 * @throws Exception
+	 */
+	private void runCompressedOperationsTest(double sparsity, int k) 
+		throws Exception
+	{
+		MatrixBlock mb = createLowCardinalityBlock(sparsity);
+		MatrixBlock cmb = CompressedMatrixBlock.compress(mb);
+		Assert.assertTrue(cmb instanceof CompressedMatrixBlock);
+		
+		//compression-unaware operations over decompressed copy
+		compareBlocks(mb, ((CompressedMatrixBlock)cmb).decompress());
+		for( int i=0; i<rows; i+=97 )
+			for( int j=0; j<cols; j++ )
+				Assert.assertEquals(mb.quickGetValue(i, j), cmb.quickGetValue(i, j), 0);
+		
+		//matrix-vector and vector-matrix multiplication
+		MatrixBlock v = DataConverter.convertToMatrixBlock(getRandomMatrix(cols, 1, -1, 1, 1.0, 3));
+		MatrixBlock u = DataConverter.convertToMatrixBlock(getRandomMatrix(1, rows, -1, 1, 1.0, 4));
+		AggregateBinaryOperator abop = new AggregateBinaryOperator(Multiply.getMultiplyFnObject(), 
+				new AggregateOperator(0, Plus.getPlusFnObject()), k);
+		compareBlocks((MatrixBlock)mb.aggregateBinaryOperations(mb, v, new MatrixBlock(), abop),
+				(MatrixBlock)cmb.aggregateBinaryOperations(cmb, v, new MatrixBlock(), abop));
+		compareBlocks((MatrixBlock)mb.aggregateBinaryOperations(u, mb, new MatrixBlock(), abop),
+				(MatrixBlock)cmb.aggregateBinaryOperations(u, cmb, new MatrixBlock(), abop));
+		
+		//transpose-self matrix multiplication (aware for left, fallback for right)
+		compareBlocks(mb.transposeSelfMatrixMultOperations(new MatrixBlock(), MMTSJType.LEFT, k),
+				cmb.transposeSelfMatrixMultOperations(new MatrixBlock(), MMTSJType.LEFT, k));
+		compareBlocks(mb.transposeSelfMatrixMultOperations(new MatrixBlock(), MMTSJType.RIGHT, k),
+				cmb.transposeSelfMatrixMultOperations(new MatrixBlock(), MMTSJType.RIGHT, k));
+		
+		//matrix multiplication chain
+		MatrixBlock w = DataConverter.convertToMatrixBlock(getRandomMatrix(rows, 1, 0, 1, 1.0, 5));
+		compareBlocks(mb.chainMatrixMultOperations(v, null, new MatrixBlock(), ChainType.XtXv, k),
+				cmb.chainMatrixMultOperations(v, null, new MatrixBlock(), ChainType.XtXv, k));
+		compareBlocks(mb.chainMatrixMultOperations(v, w, new MatrixBlock(), ChainType.XtwXv, k),
+				cmb.chainMatrixMultOperations(v, w, new MatrixBlock(), ChainType.XtwXv, k));
+		
+		//unary aggregates (aware for sums, fallback for others)
+		for( String opcode : new String[]{"uak+", "uark+", "uack+", "uamax", "uarmin"} ) {
+			AggregateUnaryOperator auop = InstructionUtils.parseBasicAggregateUnaryOperator(opcode);
+			compareBlocks((MatrixBlock)mb.aggregateUnaryOperations(auop, new MatrixBlock(), 1000, 1000, null, true),
+					(MatrixBlock)cmb.aggregateUnaryOperations(auop, new MatrixBlock(), 1000, 1000, null, true));
+		}
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @return
+	 * @throws Exception
+	 */
+	private MatrixBlock createLowCardinalityBlock(double sparsity) 
+		throws Exception
+	{
+		//few distinct values per column (rounded), with runs in the first columns
+		double[][] X = getRandomMatrix(rows, cols, 1, 5, sparsity, 7);
+		for( int i=0; i<rows; i++ )
+			for( int j=0; j<cols; j++ )
+				X[i][j] = (j < 3) ? (i / 100) % 4 : Math.round(X[i][j]);
+		
+		MatrixBlock mb = DataConverter.convertToMatrixBlock(X);
+		mb.examSparsity();
+		return mb;
+	}
+	
+	/**
+	 * 
+	 * @param expected
+	 * @param actual
+	 * @throws Exception
+	 */
+	private static void compareBlocks(MatrixBlock expected, MatrixBlock actual) 
+		throws Exception
+	{
+		Assert.assertEquals(expected.getNumRows(), actual.getNumRows());
+		Assert.assertEquals(expected.getNumColumns(), actual.getNumColumns());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected), 
+				DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), eps);
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.util.BulkSerializationUtils;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+
+/**
+ * Round-trip tests of the bulk double (de)serialization against DataOutput, 
+ * for lengths below, at, and above the bulk threshold (64 values) and the 
+ * staging buffer size (8192 values), with non-zero source and target offsets.
+ */
+public class BulkSerializationTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "BulkSerializationTest";
+	private final static String TEST_DIR = "functions/io/";
+	
+	private final static int[] LENGTHS = new int[] {
+		0, 1, 63, 64, 65, 8191, 8192, 8193, 3*8192+17 };
+	private final static byte SENTINEL = (byte)0x5A;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "X" })   ); 
+	}
+	
+	@Test
+	public void testRoundTripNoOffsets() 
+		throws IOException
+	{
+		for( int len : LENGTHS )
+			runRoundTripTest(len, 0, 0, 0);
+	}
+	
+	@Test
+	public void testRoundTripOffsets() 
+		throws IOException
+	{
+		for( int len : LENGTHS )
+			runRoundTripTest(len, 3, 13, 7);
+	}
+	
+	/**
+	 * 
+	 * @param len
+	 * @param soff
+	 * @param boff
+	 * @param doff
+	 * @throws IOException
+	 */
+	private void runRoundTripTest( int len, int soff, int boff, int doff ) 
+		throws IOException
+	{
+		//create values w/ zeros and special values
+		Random rand = new Random(len);
+		double[] src = new double[soff+len+5];
+		for( int i=0; i<src.length; i++ )
+			src[i] = (rand.nextDouble() < 0.3) ? 0 : rand.nextGaussian();
+		double[] special = new double[]{ -0.0, Double.NaN, Double.POSITIVE_INFINITY, 
+				Double.NEGATIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE };
+		for( int i=0; i<special.length && i<len; i++ )
+			src[soff+(i*7919)%len] = special[i];
+		long nnz = 0;
+		for( int i=soff; i<soff+len; i++ )
+			nnz += (src[i]!=0) ? 1 : 0;
+		
+		//reference serialization via DataOutput
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(bos);
+		for( int i=soff; i<soff+len; i++ )
+			dos.writeDouble(src[i]);
+		dos.close();
+		byte[] ref = bos.toByteArray();
+		
+		//bulk serialization (w/ untouched bytes outside the range)
+		byte[] bytes = new byte[boff+len*8+11];
+		Arrays.fill(bytes, SENTINEL);
+		BulkSerializationUtils.doublesToBytes(src, soff, len, bytes, boff);
+		Assert.assertArrayEquals("len="+len, ref, Arrays.copyOfRange(bytes, boff, boff+len*8));
+		for( int i=0; i<boff; i++ )
+			Assert.assertEquals(SENTINEL, bytes[i]);
+		for( int i=boff+len*8; i<bytes.length; i++ )
+			Assert.assertEquals(SENTINEL, bytes[i]);
+		
+		//bulk deserialization (w/ untouched values outside the range)
+		double[] dest = new double[doff+len+5];
+		Arrays.fill(dest, 7);
+		long lnnz = BulkSerializationUtils.bytesToDoubles(bytes, boff, dest, doff, len);
+		Assert.assertEquals("len="+len, nnz, lnnz);
+		for( int i=0; i<len; i++ )
+			if( Double.doubleToRawLongBits(src[soff+i]) != Double.doubleToRawLongBits(dest[doff+i]) )
+				Assert.fail("Wrong value at position "+i+" (len="+len+"): "+dest[doff+i]+" (expected "+src[soff+i]+").");
+		for( int i=0; i<doff; i++ )
+			Assert.assertEquals(7, dest[i], 0);
+		for( int i=doff+len; i<dest.length; i++ )
+			Assert.assertEquals(7, dest[i], 0);
+	}
+}
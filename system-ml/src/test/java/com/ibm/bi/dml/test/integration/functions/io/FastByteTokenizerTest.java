@@ -0,0 +1,240 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.io;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.util.FastByteTokenizer;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+
+/**
+ * Tests the byte-level number parsing and tokenization of FastByteTokenizer 
+ * against Double.parseDouble/Long.parseLong, including corner cases of the 
+ * fast path, special values, invalid inputs, and csv cell handling.
+ */
+public class FastByteTokenizerTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "FastByteTokenizerTest";
+	private final static String TEST_DIR = "functions/io/";
+	
+	private final static String[] VALID_DOUBLES = new String[] {
+		"0", "-0", "+0", "0.0", "-0.0", "5.", "-5.", ".5", "-.5", "+.5", "007", "1.50",
+		"0.1", "0.30000000000000004", "123.456e-5", "1e+5", "1E22", "1e22", "1e-22",
+		"1e23", "1e-23", "-1e23", "9e-308", "1.7976931348623157E308", "4.9E-324", 
+		"2.2250738585072014E-308", "1e400", "1e-400", "1e0001",
+		"9007199254740992", "9007199254740993", "-9007199254740993", 
+		"123456789012345678", "1234567890123456789", "12345678901234567890123",
+		"0.1234567890123456789", "1234567890.123456789", "0.0000000000000000000000001",
+		"00000000000000000000001.5", "NaN", "-NaN", "Infinity", "-Infinity", "+Infinity",
+		"0x1p3", "1d", "2f" };
+	
+	private final static String[] INVALID_DOUBLES = new String[] {
+		"", "-", "+", ".", "-.", "e5", "1e", "1e+", "1e-", "1.2.3", "--1", "+-1", 
+		"1,5", "abc", "1e5.5", "inf", "nan" };
+	
+	private final static String[] VALID_LONGS = new String[] {
+		"0", "-0", "+7", "-7", "007", "123456789012345678", "-123456789012345678", 
+		"1234567890123456789", "9223372036854775807", "-9223372036854775808" };
+	
+	private final static String[] INVALID_LONGS = new String[] {
+		"", "-", "+", "1.5", "1e3", "12a", " 1", "9223372036854775808", 
+		"-9223372036854775809", "12345678901234567890" };
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "X" })   ); 
+	}
+	
+	@Test
+	public void testParseDoubleCornerCases() 
+	{
+		for( String str : VALID_DOUBLES )
+			checkParseDouble(str);
+	}
+	
+	@Test
+	public void testParseDoubleInvalid() 
+	{
+		for( String str : INVALID_DOUBLES ) {
+			try {
+				parseDouble(str);
+				Assert.fail("Expected NumberFormatException for '"+str+"'.");
+			}
+			catch(NumberFormatException ex) {
+				//expected
+			}
+		}
+	}
+	
+	@Test
+	public void testParseDoubleRandom() 
+	{
+		Random rand = new Random(7);
+		for( int i=0; i<100000; i++ ) {
+			double val = (i%2==0) ? 
+				Double.longBitsToDouble(rand.nextLong() & 0x7fefffffffffffffL) :
+				Math.round(rand.nextGaussian()*1e9)/Math.pow(10, rand.nextInt(12));
+			checkParseDouble(Double.toString(val));
+			checkParseDouble(Double.toString(-val));
+		}
+	}
+	
+	@Test
+	public void testParseLong() 
+	{
+		for( String str : VALID_LONGS ) {
+			byte[] b = str.getBytes();
+			Assert.assertEquals(str, Long.parseLong(str), FastByteTokenizer.parseLong(b, 0, b.length));
+		}
+		for( String str : INVALID_LONGS ) {
+			byte[] b = str.getBytes();
+			try {
+				FastByteTokenizer.parseLong(b, 0, b.length);
+				Assert.fail("Expected NumberFormatException for '"+str+"'.");
+			}
+			catch(NumberFormatException ex) {
+				//expected
+			}
+		}
+	}
+	
+	@Test
+	public void testParseIntOverflow() 
+	{
+		byte[] b = "-2147483648".getBytes();
+		Assert.assertEquals(Integer.MIN_VALUE, FastByteTokenizer.parseInt(b, 0, b.length));
+		try {
+			b = "2147483648".getBytes();
+			FastByteTokenizer.parseInt(b, 0, b.length);
+			Assert.fail("Expected NumberFormatException for int overflow.");
+		}
+		catch(NumberFormatException ex) {
+			//expected
+		}
+	}
+	
+	@Test
+	public void testTextCellTokens() 
+	{
+		//repeated delimiters and surrounding whitespace are skipped
+		FastByteTokenizer bt = new FastByteTokenizer(' ');
+		byte[] b = "  7  12   -3.5e2 \t".getBytes();
+		bt.reset(b, b.length);
+		Assert.assertEquals(7, bt.nextInt());
+		Assert.assertEquals(12, bt.nextLong());
+		Assert.assertEquals(-350, bt.nextDouble(), 0);
+		
+		//offsets within a larger buffer (e.g., reused hadoop Text)
+		byte[] b2 = "1 2 3.0 garbage".getBytes();
+		bt.reset(b2, 7);
+		Assert.assertEquals(1, bt.nextInt());
+		Assert.assertEquals(2, bt.nextInt());
+		Assert.assertEquals(3, bt.nextDouble(), 0);
+	}
+	
+	@Test
+	public void testCSVEmptyCells() 
+	{
+		FastByteTokenizer bt = new FastByteTokenizer(',');
+		byte[] b = "1,, 3 ,,".getBytes();
+		bt.reset(b, b.length);
+		Assert.assertEquals(5, bt.countCells());
+		boolean[] empty = new boolean[]{false, true, false, true, true};
+		double[] vals = new double[]{1, 0, 3, 0, 0};
+		checkCells(bt, empty, vals);
+		
+		//empty line has no cells
+		bt.reset(new byte[0], 0);
+		Assert.assertEquals(0, bt.countCells());
+		Assert.assertFalse(bt.hasNextCell());
+	}
+	
+	@Test
+	public void testCSVMultiCharDelimiter() 
+	{
+		FastByteTokenizer bt = new FastByteTokenizer("::");
+		byte[] b = " 1.5 :: ::-2:: 1e3 ::".getBytes();
+		bt.reset(b, b.length);
+		Assert.assertEquals(5, bt.countCells());
+		boolean[] empty = new boolean[]{false, true, false, false, true};
+		double[] vals = new double[]{1.5, 0, -2, 1000, 0};
+		checkCells(bt, empty, vals);
+		
+		//partial delimiter matches are part of the cell
+		b = "1:2::3:".getBytes();
+		bt.reset(b, b.length);
+		Assert.assertEquals(2, bt.countCells());
+		bt.nextCell();
+		try {
+			bt.getCellDouble();
+			Assert.fail("Expected NumberFormatException for cell '1:2'.");
+		}
+		catch(NumberFormatException ex) {
+			//expected
+		}
+		bt.nextCell();
+		Assert.assertFalse(bt.hasNextCell());
+	}
+	
+	/**
+	 * 
+	 * @param bt
+	 * @param empty
+	 * @param vals
+	 */
+	private static void checkCells( FastByteTokenizer bt, boolean[] empty, double[] vals )
+	{
+		for( int j=0; j<empty.length; j++ ) {
+			Assert.assertTrue(bt.hasNextCell());
+			bt.nextCell();
+			Assert.assertEquals("cell "+j, empty[j], bt.isEmptyCell());
+			if( !empty[j] )
+				Assert.assertEquals("cell "+j, vals[j], bt.getCellDouble(), 0);
+		}
+		Assert.assertFalse(bt.hasNextCell());
+	}
+	
+	/**
+	 * 
+	 * @param str
+	 */
+	private static void checkParseDouble( String str )
+	{
+		double expected = Double.parseDouble(str);
+		double actual = parseDouble(str);
+		if( Double.doubleToLongBits(expected) != Double.doubleToLongBits(actual) )
+			Assert.fail("Wrong parsed value for '"+str+"': "+actual+" (expected "+expected+").");
+	}
+	
+	/**
+	 * 
+	 * @param str
+	 * @return
+	 */
+	private static double parseDouble( String str )
+	{
+		//parse from the middle of a larger buffer 
+		byte[] b = ("#"+str+"#").getBytes();
+		return FastByteTokenizer.parseDouble(b, 1, b.length-1);
+	}
+}
@@ -0,0 +1,296 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.io;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.hops.OptimizerUtils;
+import com.ibm.bi.dml.runtime.io.MatrixReader;
+import com.ibm.bi.dml.runtime.io.ReaderTextCell;
+import com.ibm.bi.dml.runtime.io.ReaderTextCellParallel;
+import com.ibm.bi.dml.runtime.matrix.data.InputInfo;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.runtime.util.MapReduceTool;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests that the parallel (two-phase for sparse outputs) text cell and matrix 
+ * market reader produces the same matrices as the sequential reader, for
+ * cells in arbitrary order, rows spanning splits and part files, empty rows, 
+ * and explicitly stored zeros.
+ */
+public class TextCellParallelReadTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "TextCellParallelReadTest";
+	private final static String TEST_DIR = "functions/io/";
+	
+	private final static int rows = 2345;
+	private final static int cols = 432;
+	
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.02;
+	private final static double sparsity3 = 0.0003; //mostly empty rows
+	
+	@Override
+	public void setUp() 
+	{
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "X" })   );  
+	}
+	
+	@Test
+	public void testTextCellDense() {
+		runParallelReadTest(InputInfo.TextCellInputInfo, sparsity1, 1, false, false);
+	}
+	
+	@Test
+	public void testTextCellSparse() {
+		runParallelReadTest(InputInfo.TextCellInputInfo, sparsity2, 1, false, false);
+	}
+	
+	@Test
+	public void testTextCellDenseShuffled() {
+		runParallelReadTest(InputInfo.TextCellInputInfo, sparsity1, 1, true, false);
+	}
+	
+	@Test
+	public void testTextCellSparseShuffled() {
+		runParallelReadTest(InputInfo.TextCellInputInfo, sparsity2, 1, true, false);
+	}
+	
+	@Test
+	public void testTextCellSparseShuffledMultiPartFiles() {
+		runParallelReadTest(InputInfo.TextCellInputInfo, sparsity2, 3, true, false);
+	}
+	
+	@Test
+	public void testTextCellDenseShuffledMultiPartFiles() {
+		runParallelReadTest(InputInfo.TextCellInputInfo, sparsity1, 3, true, false);
+	}
+	
+	@Test
+	public void testTextCellUltraSparse() {
+		runParallelReadTest(InputInfo.TextCellInputInfo, sparsity3, 1, true, false);
+	}
+	
+	@Test
+	public void testTextCellSparseExplicitZeros() {
+		runParallelReadTest(InputInfo.TextCellInputInfo, sparsity2, 1, true, true);
+	}
+	
+	@Test
+	public void testMatrixMarketDense() {
+		runParallelReadTest(InputInfo.MatrixMarketInputInfo, sparsity1, 1, false, false);
+	}
+	
+	@Test
+	public void testMatrixMarketSparse() {
+		runParallelReadTest(InputInfo.MatrixMarketInputInfo, sparsity2, 1, false, false);
+	}
+	
+	@Test
+	public void testMatrixMarketSparseShuffled() {
+		runParallelReadTest(InputInfo.MatrixMarketInputInfo, sparsity2, 1, true, false);
+	}
+	
+	@Test
+	public void testMatrixMarketUltraSparse() {
+		runParallelReadTest(InputInfo.MatrixMarketInputInfo, sparsity3, 1, true, false);
+	}
+	
+	@Test
+	public void testMatrixMarketInvalidDimensions() 
+		throws Exception
+	{
+		getAndLoadTestConfiguration(TEST_NAME);
+		String fname = getFileName();
+		MapReduceTool.deleteFileIfExistOnHDFS(fname);
+		double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity2, 7);
+		writeCells(fname, X, 1, false, false, true);
+		
+		//both readers reject a header with different dimensions
+		boolean parOld = OptimizerUtils.PARALLEL_CP_READ_TEXTFORMATS;
+		OptimizerUtils.PARALLEL_CP_READ_TEXTFORMATS = true;
+		try {
+			for( boolean par : new boolean[]{false, true} ) {
+				try {
+					createReader(InputInfo.MatrixMarketInputInfo, par)
+						.readMatrixFromHDFS(fname, rows+1, cols, -1, -1, -1);
+					Assert.fail("Expected IOException for invalid dimensions (parallel="+par+").");
+				}
+				catch(IOException ex) {
+					//expected
+				}
+			}
+		}
+		finally {
+			OptimizerUtils.PARALLEL_CP_READ_TEXTFORMATS = parOld;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param ii
+	 * @param sparsity
+	 * @param nparts number of part files (single file if 1)
+	 * @param shuffle
+	 * @param zeros
+	 */
+	private void runParallelReadTest( InputInfo ii, double sparsity, int nparts, boolean shuffle, boolean zeros ) 
+	{
+		boolean parOld = OptimizerUtils.PARALLEL_CP_READ_TEXTFORMATS;
+		
+		try
+		{
+			getAndLoadTestConfiguration(TEST_NAME);
+			String fname = getFileName();
+			MapReduceTool.deleteFileIfExistOnHDFS(fname);
+			
+			//generate and write input
+			double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity, 7);
+			boolean mm = (ii == InputInfo.MatrixMarketInputInfo);
+			long nnz = writeCells(fname, X, nparts, shuffle, zeros, mm);
+			
+			//compare parallel read with sequential read
+			OptimizerUtils.PARALLEL_CP_READ_TEXTFORMATS = true;
+			MatrixBlock ret1 = createReader(ii, false).readMatrixFromHDFS(fname, rows, cols, -1, -1, nnz);
+			MatrixBlock ret2 = createReader(ii, true).readMatrixFromHDFS(fname, rows, cols, -1, -1, nnz);
+			
+			Assert.assertEquals(ret1.getNonZeros(), ret2.getNonZeros());
+			Assert.assertEquals(ret1.isInSparseFormat(), ret2.isInSparseFormat());
+			TestUtils.compareMatrices(X, DataConverter.convertToDoubleMatrix(ret2), rows, cols, 0);
+			TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret1), 
+					DataConverter.convertToDoubleMatrix(ret2), rows, cols, 0);
+			
+			//check sorted sparse rows w/o explicit zeros
+			if( ret2.isInSparseFormat() && !ret2.isEmptyBlock(false) ) {
+				for( int i=0; i<rows; i++ ) {
+					double[] vals = ret2.getSparseBlock().values(i);
+					int[] ix = ret2.getSparseBlock().indexes(i);
+					int pos = ret2.getSparseBlock().pos(i);
+					int len = ret2.getSparseBlock().size(i);
+					for( int j=pos; j<pos+len; j++ ) {
+						Assert.assertTrue("Explicit zero in sparse row.", vals[j] != 0);
+						Assert.assertTrue("Unsorted sparse row.", j==pos || ix[j-1] < ix[j]);
+					}
+				}
+			}
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			throw new RuntimeException(ex);
+		}
+		finally {
+			OptimizerUtils.PARALLEL_CP_READ_TEXTFORMATS = parOld;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param ii
+	 * @param parallel
+	 * @return
+	 */
+	private static MatrixReader createReader( InputInfo ii, boolean parallel )
+	{
+		return parallel ? new ReaderTextCellParallel(ii) : new ReaderTextCell(ii);
+	}
+	
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	private static String getFileName() 
+		throws IOException
+	{
+		//absolute path for the local file system 
+		return new File(SCRIPT_DIR + TEST_DIR + INPUT_DIR + "X").getCanonicalPath();
+	}
+	
+	/**
+	 * Writes the non-zero cells (and optionally explicit zeros) of the given
+	 * matrix in text cell or matrix market format, in row-major or random 
+	 * order, to a single file or a directory of part files. 
+	 * 
+	 * @param fname
+	 * @param X
+	 * @param nparts
+	 * @param shuffle
+	 * @param zeros
+	 * @param mm
+	 * @return number of non-zeros
+	 * @throws IOException
+	 */
+	private static long writeCells( String fname, double[][] X, int nparts, boolean shuffle, boolean zeros, boolean mm ) 
+		throws IOException
+	{
+		//collect cells
+		ArrayList<String> cells = new ArrayList<String>();
+		long nnz = 0;
+		for( int i=0; i<X.length; i++ )
+			for( int j=0; j<X[i].length; j++ ) {
+				if( X[i][j] != 0 ) {
+					cells.add((i+1) + " " + (j+1) + " " + X[i][j]);
+					nnz++;
+				}
+				else if( zeros && (i+j) % 97 == 0 )
+					cells.add((i+1) + " " + (j+1) + " 0.0");
+			}
+		if( shuffle )
+			Collections.shuffle(cells, new Random(3));
+		
+		//write single file or part files
+		File f = new File(fname);
+		if( nparts > 1 )
+			f.mkdirs();
+		for( int p=0; p<nparts; p++ ) {
+			File fp = (nparts > 1) ? new File(f, "part-0000"+p) : f;
+			BufferedWriter out = new BufferedWriter(new FileWriter(fp));
+			try {
+				if( mm ) {
+					out.write("%%MatrixMarket matrix coordinate real general\n");
+					out.write("% comment line\n");
+					out.write(X.length + " " + X[0].length + " " + cells.size() + "\n");
+				}
+				for( int i=p; i<cells.size(); i+=nparts ) {
+					out.write(cells.get(i));
+					out.write("\n");
+				}
+			}
+			finally {
+				out.close();
+			}
+		}
+		
+		return nnz;
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.io.binary;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.io.BinaryBlockIndex;
+import com.ibm.bi.dml.runtime.io.ReaderBinaryBlock;
+import com.ibm.bi.dml.runtime.matrix.MatrixCharacteristics;
+import com.ibm.bi.dml.runtime.matrix.data.InputInfo;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.data.OutputInfo;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.runtime.util.IndexRange;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests the block index of binary block files written by CP, i.e., exact nnz 
+ * and range reads that only access the overlapping non-empty blocks.
+ */
+public class BlockIndexRangeReadTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "BlockIndexRangeReadTest";
+	private final static String TEST_DIR = "functions/io/binary/";
+	
+	private final static int rows = 2345;
+	private final static int cols = 1432;
+	private final static int blen = 1000;
+	
+	@Override
+	public void setUp() 
+	{
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "X" })   );  
+	}
+	
+	@Test
+	public void testDenseColumnRange() 
+	{ 
+		runBlockIndexTest( 0.9, new IndexRange(1, rows, 1, 10) ); 
+	}
+	
+	@Test
+	public void testDenseSubMatrixRange() 
+	{ 
+		runBlockIndexTest( 0.9, new IndexRange(997, 2003, 999, 1001) ); 
+	}
+	
+	@Test
+	public void testSparseRowRange() 
+	{ 
+		runBlockIndexTest( 0.01, new IndexRange(1500, 1510, 1, cols) ); 
+	}
+	
+	@Test
+	public void testSparseSubMatrixRange() 
+	{ 
+		runBlockIndexTest( 0.01, new IndexRange(10, 2300, 900, 1400) ); 
+	}
+	
+	@Test
+	public void testEmptyFullRange() 
+	{ 
+		runBlockIndexTest( 0.0, new IndexRange(1, rows, 1, cols) ); 
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @param range
+	 */
+	private void runBlockIndexTest( double sparsity, IndexRange range ) 
+	{
+		try
+		{	
+			TestConfiguration config = getTestConfiguration(TEST_NAME);
+			loadTestConfiguration(config);
+			String fname = SCRIPT_DIR + TEST_DIR + INPUT_DIR + "X";
+			
+			//write binary block matrix (incl block index)
+			double[][] X = getRandomMatrix(rows, cols, -1.0, 1.0, sparsity, 7); 
+			MatrixBlock mb = DataConverter.convertToMatrixBlock(X);
+			MatrixCharacteristics mc = new MatrixCharacteristics(rows, cols, blen, blen);
+			DataConverter.writeMatrixToHDFS(mb, fname, OutputInfo.BinaryBlockOutputInfo, mc);
+			
+			//check exact meta data of block index
+			BinaryBlockIndex ix = BinaryBlockIndex.readIndex(fname);
+			Assert.assertNotNull(ix);
+			Assert.assertEquals(mb.getNonZeros(), ix.getNonZeros());
+			Assert.assertTrue(ix.isCompatible(rows, cols, blen, blen));
+			
+			//check header-only read (exact nnz without blocks)
+			BinaryBlockIndex ixh = BinaryBlockIndex.readIndex(fname, true);
+			Assert.assertNotNull(ixh);
+			Assert.assertEquals(mb.getNonZeros(), ixh.getNonZeros());
+			Assert.assertEquals(0, ixh.getNumBlocks());
+			Assert.assertFalse(ix.hasStatistics());
+			
+			//check optional per-block min/max statistics
+			BinaryBlockIndex ixs = BinaryBlockIndex.readIndex(fname, false, true);
+			Assert.assertNotNull(ixs);
+			Assert.assertTrue(ixs.hasStatistics());
+			Assert.assertEquals(mb.min(), ixs.getMin(), 0);
+			Assert.assertEquals(mb.max(), ixs.getMax(), 0);
+			for( int i=0; i<ixs.getNumBlocks(); i++ ) {
+				int rl = (int)(ixs.getRowIndex(i)-1)*blen;
+				int cl = (int)(ixs.getColumnIndex(i)-1)*blen;
+				MatrixBlock blk = mb.sliceOperations(rl, Math.min(rl+blen, rows)-1, 
+						cl, Math.min(cl+blen, cols)-1, new MatrixBlock());
+				boolean empty = blk.isEmptyBlock(false);
+				Assert.assertEquals(empty ? 0 : blk.min(), ixs.getMin(i), 0);
+				Assert.assertEquals(empty ? 0 : blk.max(), ixs.getMax(i), 0);
+			}
+			
+			//compare range read with slice of full read
+			MatrixBlock mb1 = DataConverter.readMatrixFromHDFS(fname, InputInfo.BinaryBlockInputInfo, rows, cols, blen, blen);
+			MatrixBlock mb2 = new ReaderBinaryBlock(false).readMatrixRangeFromHDFS(fname, rows, cols, blen, blen, range);
+			MatrixBlock mb3 = mb1.sliceOperations((int)range.rowStart-1, (int)range.rowEnd-1, 
+					(int)range.colStart-1, (int)range.colEnd-1, new MatrixBlock());
+			Assert.assertEquals(mb3.getNonZeros(), mb2.getNonZeros());
+			for( int i=0; i<mb3.getNumRows(); i++ )
+				for( int j=0; j<mb3.getNumColumns(); j++ )
+					Assert.assertEquals(mb3.quickGetValue(i, j), mb2.quickGetValue(i, j), 0);
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			throw new RuntimeException(ex);
+		}
+	}
+}
@@ -0,0 +1,312 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.io.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.mapred.JobConf;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.conf.ConfigurationManager;
+import com.ibm.bi.dml.runtime.io.ReaderBinaryBlock;
+import com.ibm.bi.dml.runtime.io.ReaderBinaryBlockMapped;
+import com.ibm.bi.dml.runtime.matrix.MatrixCharacteristics;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixIndexes;
+import com.ibm.bi.dml.runtime.matrix.data.OutputInfo;
+import com.ibm.bi.dml.runtime.matrix.data.SparseRow;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.runtime.util.MapReduceTool;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests that the memory-mapped binary block reader for local files produces
+ * the same matrices as the sequence file reader, for single files and 
+ * directories of part files with arbitrary block order and empty blocks.
+ */
+public class MappedBinaryBlockReadTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "MappedBinaryBlockReadTest";
+	private final static String TEST_DIR = "functions/io/binary/";
+	
+	private final static int rows = 2345;
+	private final static int cols = 432;
+	private final static int cols2 = 2432; //multiple column blocks
+	private final static int blen = 1000;
+	
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.05;
+	
+	@Override
+	public void setUp() 
+	{
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "X" })   );  
+	}
+	
+	@Test
+	public void testDenseSingleFile() 
+	{
+		runMappedReadTest(cols, sparsity1, 1, false);
+	}
+	
+	@Test
+	public void testSparseSingleFile() 
+	{
+		runMappedReadTest(cols, sparsity2, 1, false);
+	}
+	
+	@Test
+	public void testSparseMultiColBlocksSingleFile() 
+	{
+		runMappedReadTest(cols2, sparsity2, 1, false);
+	}
+	
+	@Test
+	public void testDenseMultiPartFiles() 
+	{
+		runMappedReadTest(cols2, sparsity1, 3, false);
+	}
+	
+	@Test
+	public void testSparseMultiPartFiles() 
+	{
+		runMappedReadTest(cols, sparsity2, 3, false);
+	}
+	
+	@Test
+	public void testSparseMultiColBlocksMultiPartFiles() 
+	{
+		runMappedReadTest(cols2, sparsity2, 3, false);
+	}
+	
+	@Test
+	public void testDenseEmptyBlocks() 
+	{
+		runMappedReadTest(cols2, sparsity1, 3, true);
+	}
+	
+	@Test
+	public void testSparseEmptyBlocks() 
+	{
+		runMappedReadTest(cols2, sparsity2, 3, true);
+	}
+	
+	@Test
+	public void testOutOfRangeBlockIndex() 
+		throws Exception
+	{
+		getAndLoadTestConfiguration(TEST_NAME);
+		String fname = getFileName();
+		MapReduceTool.deleteFileIfExistOnHDFS(fname);
+		
+		//single block beyond the last row block
+		MatrixBlock mb = DataConverter.convertToMatrixBlock(getRandomMatrix(blen, cols, -1, 1, sparsity1, 7));
+		ArrayList<MatrixIndexes> ixs = new ArrayList<MatrixIndexes>();
+		ArrayList<MatrixBlock> blocks = new ArrayList<MatrixBlock>();
+		ixs.add(new MatrixIndexes(4, 1));
+		blocks.add(mb);
+		writePartFile(new Path(fname), ixs, blocks);
+		
+		//both readers reject the block
+		Assert.assertTrue(isMappable(fname));
+		try {
+			new ReaderBinaryBlockMapped().readMatrixFromHDFS(fname, rows, cols, blen, blen, -1);
+			Assert.fail("Expected IOException for out-of-range block index.");
+		}
+		catch(IOException ex) {
+			//expected
+		}
+		try {
+			readSequenceFile(fname, cols);
+			Assert.fail("Expected IOException for out-of-range block index.");
+		}
+		catch(IOException ex) {
+			//expected
+		}
+	}
+	
+	/**
+	 * 
+	 * @param ncols
+	 * @param sparsity
+	 * @param nparts number of part files (single file via CP writer if 1)
+	 * @param emptyBlocks
+	 */
+	private void runMappedReadTest( int ncols, double sparsity, int nparts, boolean emptyBlocks ) 
+	{
+		try
+		{
+			getAndLoadTestConfiguration(TEST_NAME);
+			String fname = getFileName();
+			MapReduceTool.deleteFileIfExistOnHDFS(fname);
+			
+			//generate input (w/ all-zero second row block, if required)
+			double[][] X = getRandomMatrix(rows, ncols, -1, 1, sparsity, 7);
+			if( emptyBlocks )
+				for( int i=blen; i<2*blen; i++ )
+					X[i] = new double[ncols];
+			MatrixBlock mb = DataConverter.convertToMatrixBlock(X);
+			
+			//write single file or part files w/ shuffled blocks
+			if( nparts == 1 ) {
+				MatrixCharacteristics mc = new MatrixCharacteristics(rows, ncols, blen, blen);
+				DataConverter.writeMatrixToHDFS(mb, fname, OutputInfo.BinaryBlockOutputInfo, mc);
+			}
+			else
+				writePartFiles(fname, mb, nparts);
+			
+			//compare mapped read with sequence file read
+			Assert.assertTrue(isMappable(fname));
+			MatrixBlock ret1 = readSequenceFile(fname, ncols);
+			MatrixBlock ret2 = new ReaderBinaryBlockMapped().readMatrixFromHDFS(fname, rows, ncols, blen, blen, -1);
+			
+			Assert.assertEquals(mb.getNonZeros(), ret2.getNonZeros());
+			Assert.assertEquals(ret1.getNonZeros(), ret2.getNonZeros());
+			Assert.assertEquals(ret1.isInSparseFormat(), ret2.isInSparseFormat());
+			TestUtils.compareMatrices(X, DataConverter.convertToDoubleMatrix(ret2), rows, ncols, 0);
+			TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret1), 
+					DataConverter.convertToDoubleMatrix(ret2), rows, ncols, 0);
+			
+			//check sorted sparse rows (appended out of order from column blocks)
+			if( ret2.isInSparseFormat() )
+				for( SparseRow row : ret2.getSparseRows() ) {
+					int[] ix = (row != null) ? row.getIndexContainer() : null;
+					for( int j=1; row != null && j<row.size(); j++ )
+						Assert.assertTrue("Unsorted sparse row.", ix[j-1] < ix[j]);
+				}
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	private static String getFileName() 
+		throws IOException
+	{
+		//absolute path for the local file system readers
+		return new File(SCRIPT_DIR + TEST_DIR + INPUT_DIR + "X").getCanonicalPath();
+	}
+	
+	/**
+	 * 
+	 * @param fname
+	 * @param ncols
+	 * @return
+	 * @throws Exception
+	 */
+	private static MatrixBlock readSequenceFile( String fname, int ncols ) 
+		throws Exception
+	{
+		boolean flag = ReaderBinaryBlockMapped.ENABLE_MMAP_LOCAL_READ;
+		ReaderBinaryBlockMapped.ENABLE_MMAP_LOCAL_READ = false;
+		try {
+			return new ReaderBinaryBlock(true).readMatrixFromHDFS(fname, rows, ncols, blen, blen, -1);
+		}
+		finally {
+			ReaderBinaryBlockMapped.ENABLE_MMAP_LOCAL_READ = flag;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param fname
+	 * @return
+	 * @throws IOException
+	 */
+	private static boolean isMappable( String fname ) 
+		throws IOException
+	{
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		return ReaderBinaryBlockMapped.isMappable(FileSystem.getLocal(job), new Path("file:///"+fname));
+	}
+	
+	/**
+	 * Writes the blocks of the given matrix in random order to the given number
+	 * of part files, incl all empty blocks.
+	 * 
+	 * @param fname
+	 * @param mb
+	 * @param nparts
+	 * @throws Exception
+	 */
+	private static void writePartFiles( String fname, MatrixBlock mb, int nparts ) 
+		throws Exception
+	{
+		int nrblks = (mb.getNumRows()+blen-1)/blen;
+		int ncblks = (mb.getNumColumns()+blen-1)/blen;
+		ArrayList<Integer> order = new ArrayList<Integer>();
+		for( int i=0; i<nrblks*ncblks; i++ )
+			order.add(i);
+		Collections.shuffle(order, new Random(3));
+		
+		for( int p=0; p<nparts; p++ ) {
+			ArrayList<MatrixIndexes> ixs = new ArrayList<MatrixIndexes>();
+			ArrayList<MatrixBlock> blocks = new ArrayList<MatrixBlock>();
+			for( int i=p; i<order.size(); i+=nparts ) {
+				int bi = order.get(i) / ncblks;
+				int bj = order.get(i) % ncblks;
+				int rl = bi*blen, ru = Math.min(rl+blen, mb.getNumRows())-1;
+				int cl = bj*blen, cu = Math.min(cl+blen, mb.getNumColumns())-1;
+				ixs.add(new MatrixIndexes(bi+1, bj+1));
+				blocks.add(mb.sliceOperations(rl, ru, cl, cu, new MatrixBlock()));
+			}
+			writePartFile(new Path(fname, "part-0000"+p), ixs, blocks);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param path
+	 * @param ixs
+	 * @param blocks
+	 * @throws IOException
+	 */
+	@SuppressWarnings("deprecation")
+	private static void writePartFile( Path path, ArrayList<MatrixIndexes> ixs, ArrayList<MatrixBlock> blocks ) 
+		throws IOException
+	{
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		FileSystem fs = FileSystem.getLocal(job);
+		SequenceFile.Writer writer = new SequenceFile.Writer(fs, job, path, MatrixIndexes.class, MatrixBlock.class);
+		try {
+			for( int i=0; i<ixs.size(); i++ )
+				writer.append(ixs.get(i), blocks.get(i));
+		}
+		finally {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,213 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.io.slowtest;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.controlprogram.parfor.stat.Timing;
+import com.ibm.bi.dml.runtime.io.IOUtilFunctions;
+import com.ibm.bi.dml.runtime.util.FastByteTokenizer;
+import com.ibm.bi.dml.runtime.util.FastStringTokenizer;
+
+/**
+ * Micro benchmark of the byte-level text parsing (FastByteTokenizer) against the
+ * string-based parsing (FastStringTokenizer, split and Double.parseDouble) used by 
+ * the text cell and csv readers. Besides the timing, all parsed values are checked 
+ * for bitwise equality with the string-based parsing.
+ * 
+ * Note: This benchmark is excluded from the default test runs (slowtest); 
+ * the parsing semantics are covered by FastByteTokenizerTest.
+ * 
+ */
+public class TextParseBenchmarkTest 
+{
+	private final static int rows = 20000;
+	private final static int cols = 50;
+	private final static int runs = 5;
+	
+	@Test
+	public void testTextCellParsing() 
+	{
+		runTextCellBenchmark(false);
+	}
+	
+	@Test
+	public void testTextCellParsingExp() 
+	{
+		runTextCellBenchmark(true);
+	}
+	
+	@Test
+	public void testCSVParsing() 
+	{
+		runCSVBenchmark(",", false);
+	}
+	
+	@Test
+	public void testCSVParsingExp() 
+	{
+		runCSVBenchmark(",", true);
+	}
+	
+	@Test
+	public void testCSVParsingMultiCharDelim() 
+	{
+		runCSVBenchmark("::", false);
+	}
+	
+	/**
+	 * 
+	 * @param exp
+	 */
+	private void runTextCellBenchmark( boolean exp )
+	{
+		Random rand = new Random(7);
+		String[] lines = new String[rows*cols];
+		for( int i=0; i<lines.length; i++ )
+			lines[i] = (i/cols+1)+" "+(i%cols+1)+" "+createValue(rand, exp);
+		byte[][] blines = toBytes(lines);
+		
+		double[] ref = new double[lines.length];
+		double[] res = new double[lines.length];
+		long lref = 0, lres = 0;
+		
+		//string-based parsing
+		Timing time = new Timing(true);
+		FastStringTokenizer st = new FastStringTokenizer(' ');
+		for( int r=0; r<runs; r++ )
+			for( int i=0; i<lines.length; i++ ) {
+				st.reset( lines[i] );
+				lref += st.nextInt() + st.nextInt();
+				ref[i] = st.nextDouble();
+			}
+		double tref = time.stop();
+		
+		//byte-level parsing
+		time.start();
+		FastByteTokenizer bt = new FastByteTokenizer(' ');
+		for( int r=0; r<runs; r++ )
+			for( int i=0; i<blines.length; i++ ) {
+				bt.reset( blines[i], blines[i].length );
+				lres += bt.nextInt() + bt.nextInt();
+				res[i] = bt.nextDouble();
+			}
+		double tres = time.stop();
+		
+		System.out.println("Text cell parsing of "+lines.length+" cells (x"+runs+"): "
+				+ "string-based "+tref+"ms, byte-level "+tres+"ms.");
+		
+		Assert.assertEquals(lref, lres);
+		checkResults(ref, res);
+	}
+	
+	/**
+	 * 
+	 * @param delim
+	 * @param exp
+	 */
+	private void runCSVBenchmark( String delim, boolean exp )
+	{
+		Random rand = new Random(7);
+		String[] lines = new String[rows];
+		for( int i=0; i<rows; i++ ) {
+			StringBuilder sb = new StringBuilder();
+			for( int j=0; j<cols; j++ ) {
+				if( j>0 ) 
+					sb.append(delim);
+				sb.append(createValue(rand, exp));
+			}
+			lines[i] = sb.toString();
+		}
+		byte[][] blines = toBytes(lines);
+		
+		double[] ref = new double[rows*cols];
+		double[] res = new double[rows*cols];
+		
+		//string-based parsing (as in the csv readers before)
+		Timing time = new Timing(true);
+		for( int r=0; r<runs; r++ )
+			for( int i=0; i<lines.length; i++ ) {
+				String[] parts = IOUtilFunctions.split(lines[i].trim(), delim);
+				for( int j=0; j<parts.length; j++ )
+					ref[i*cols+j] = Double.parseDouble(parts[j].trim());
+			}
+		double tref = time.stop();
+		
+		//byte-level parsing
+		time.start();
+		FastByteTokenizer bt = new FastByteTokenizer(delim);
+		for( int r=0; r<runs; r++ )
+			for( int i=0; i<blines.length; i++ ) {
+				bt.reset( blines[i], blines[i].length );
+				for( int j=0; bt.hasNextCell(); j++ ) {
+					bt.nextCell();
+					res[i*cols+j] = bt.getCellDouble();
+				}
+			}
+		double tres = time.stop();
+		
+		System.out.println("CSV parsing of "+(rows*cols)+" cells (x"+runs+"): "
+				+ "string-based "+tref+"ms, byte-level "+tres+"ms.");
+		
+		checkResults(ref, res);
+	}
+	
+	/**
+	 * 
+	 * @param rand
+	 * @param exp
+	 * @return
+	 */
+	private static String createValue( Random rand, boolean exp )
+	{
+		if( exp ) //full precision, incl exponents
+			return Double.toString(Double.longBitsToDouble(rand.nextLong() & 0x7fefffffffffffffL));
+		else if( rand.nextBoolean() ) //short decimals
+			return String.valueOf(Math.round(rand.nextGaussian()*1e6)/1e3);
+		else //integers
+			return String.valueOf(rand.nextInt(1000)-500);
+	}
+	
+	/**
+	 * 
+	 * @param lines
+	 * @return
+	 */
+	private static byte[][] toBytes( String[] lines )
+	{
+		byte[][] ret = new byte[lines.length][];
+		for( int i=0; i<lines.length; i++ )
+			ret[i] = lines[i].getBytes();
+		return ret;
+	}
+	
+	/**
+	 * 
+	 * @param ref
+	 * @param res
+	 */
+	private static void checkResults( double[] ref, double[] res )
+	{
+		for( int i=0; i<ref.length; i++ )
+			if( Double.doubleToLongBits(ref[i]) != Double.doubleToLongBits(res[i]) )
+				Assert.fail("Wrong parsed value at position "+i+": "+res[i]+" (expected "+ref[i]+").");
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.jmlc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.ibm.bi.dml.api.jmlc.BatchedScorer;
+import com.ibm.bi.dml.api.jmlc.Connection;
+import com.ibm.bi.dml.api.jmlc.PreparedScript;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * 
+ * 
+ */
+public class JMLCBatchedScoreTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "m-svm-score";
+	private final static String TEST_DIR = "functions/jmlc/";
+	private final static String MODEL_FILE = "sentiment_model.mtx";
+	private final static double eps = 1e-10;
+	
+	private final static int rows = 107;
+	private final static int cols = 46; //fixed
+	
+	private final static int nThreads = 16;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "predicted_y" })   ); 
+	}
+	
+	@Test
+	public void testJMLCBatchedScoreSmallBatches() 
+		throws IOException
+	{
+		runJMLCBatchedScoreTest(4, 5);
+	}
+	
+	@Test
+	public void testJMLCBatchedScoreLargeBatches() 
+		throws IOException
+	{
+		runJMLCBatchedScoreTest(64, 20);
+	}
+	
+	@Test
+	public void testJMLCBatchedScoreNoWait() 
+		throws IOException
+	{
+		runJMLCBatchedScoreTest(64, 0);
+	}
+	
+	/**
+	 * 
+	 * @param batchSize
+	 * @param latency
+	 * @throws IOException
+	 */
+	private void runJMLCBatchedScoreTest( int batchSize, long latency ) 
+		throws IOException
+	{
+		Connection conn = new Connection();
+		ExecutorService pool = Executors.newFixedThreadPool(nThreads);
+		
+		try
+		{
+			String script = conn.readScript(SCRIPT_DIR + TEST_DIR + TEST_NAME + ".dml");
+			String modelData = conn.readScript(SCRIPT_DIR + TEST_DIR + MODEL_FILE );
+			double[][] W = conn.convertToDoubleMatrix(modelData, rows, cols); 
+			double[][] X = getRandomMatrix(rows, cols, -1, 1, 0.7, 7);
+			
+			PreparedScript pstmt = conn.prepareScript(script, 
+					new String[]{"X","W"}, new String[]{"predicted_y"}, false);
+			pstmt.setMatrix("W", W);
+			
+			//score entire matrix as baseline
+			pstmt.setMatrix("X", X);
+			double[][] expected = pstmt.executeScript().getMatrix("predicted_y");
+			
+			//score individual rows concurrently via batching
+			final BatchedScorer scorer = new BatchedScorer(pstmt, "X", "predicted_y", batchSize, latency);
+			ArrayList<Callable<double[]>> tasks = new ArrayList<Callable<double[]>>();
+			for( final double[] row : X )
+				tasks.add(new Callable<double[]>() {
+					@Override
+					public double[] call() throws Exception {
+						return scorer.score(row);
+					}
+				});
+			List<Future<double[]>> rt = pool.invokeAll(tasks);
+			
+			//compare batched and full results
+			double[][] actual = new double[rows][];
+			for( int i=0; i<rows; i++ )
+				actual[i] = rt.get(i).get();
+			TestUtils.compareMatrices(expected, actual, rows, 1, eps);
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			throw new IOException(ex);
+		}
+		finally
+		{
+			pool.shutdown();
+			if( conn != null )
+				conn.close();
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.jmlc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.ibm.bi.dml.api.jmlc.Connection;
+import com.ibm.bi.dml.api.jmlc.PreparedScript;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * 
+ * 
+ */
+public class JMLCConcurrentScoreTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "m-svm-score";
+	private final static String TEST_DIR = "functions/jmlc/";
+	private final static String MODEL_FILE = "sentiment_model.mtx";
+	private final static double eps = 1e-10;
+	
+	private final static int rows = 107;
+	private final static int cols = 46; //fixed
+	
+	private final static int nRuns = 32;
+	private final static int nThreads = 8;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "predicted_y" })   ); 
+	}
+	
+	@Test
+	public void testJMLCConcurrentScoreDense() 
+		throws IOException
+	{
+		runJMLCConcurrentScoreTest(0.7);
+	}
+	
+	@Test
+	public void testJMLCConcurrentScoreSparse() 
+		throws IOException
+	{
+		runJMLCConcurrentScoreTest(0.1);
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @throws IOException
+	 */
+	private void runJMLCConcurrentScoreTest( double sparsity ) 
+		throws IOException
+	{
+		Connection conn = new Connection();
+		ExecutorService pool = Executors.newFixedThreadPool(nThreads);
+		
+		try
+		{
+			String script = conn.readScript(SCRIPT_DIR + TEST_DIR + TEST_NAME + ".dml");
+			String modelData = conn.readScript(SCRIPT_DIR + TEST_DIR + MODEL_FILE );
+			double[][] W = conn.convertToDoubleMatrix(modelData, rows, cols); 
+			
+			//prepare script and bind model once (shared by all invocations)
+			final PreparedScript pstmt = conn.prepareScript(script, 
+					new String[]{"X","W"}, new String[]{"predicted_y"}, false);
+			pstmt.setMatrix("W", W);
+			
+			//sequential scoring as baseline
+			ArrayList<double[][]> Xset = new ArrayList<double[][]>();
+			ArrayList<double[][]> Yset = new ArrayList<double[][]>();
+			for( int i=0; i<nRuns; i++ ) {
+				double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity, i+7);
+				Xset.add(X);
+				Yset.add(score(pstmt, X));
+			}
+			
+			//concurrent scoring w/ per-invocation inputs
+			ArrayList<Callable<double[][]>> tasks = new ArrayList<Callable<double[][]>>();
+			for( final double[][] X : Xset )
+				tasks.add(new Callable<double[][]>() {
+					@Override
+					public double[][] call() throws Exception {
+						return score(pstmt, X);
+					}
+				});
+			List<Future<double[][]>> rt = pool.invokeAll(tasks);
+			
+			//compare concurrent and sequential results
+			for( int i=0; i<nRuns; i++ )
+				TestUtils.compareMatrices(Yset.get(i), rt.get(i).get(), rows, 1, eps);
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			throw new IOException(ex);
+		}
+		finally
+		{
+			pool.shutdown();
+			if( conn != null )
+				conn.close();
+		}
+	}
+	
+	/**
+	 * 
+	 * @param pstmt
+	 * @param X
+	 * @return
+	 * @throws Exception
+	 */
+	private static double[][] score( PreparedScript pstmt, double[][] X ) 
+		throws Exception
+	{
+		HashMap<String, MatrixBlock> inputs = new HashMap<String, MatrixBlock>();
+		inputs.put("X", DataConverter.convertToMatrixBlock(X));
+		return pstmt.executeScript(inputs).getMatrix("predicted_y");
+	}
+}
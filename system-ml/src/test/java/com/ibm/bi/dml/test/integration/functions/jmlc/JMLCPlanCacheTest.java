@@ -0,0 +1,124 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.jmlc;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.api.jmlc.Connection;
+import com.ibm.bi.dml.api.jmlc.PlanCache;
+import com.ibm.bi.dml.api.jmlc.PreparedScript;
+import com.ibm.bi.dml.api.jmlc.ResultVariables;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * 
+ * 
+ */
+public class JMLCPlanCacheTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "m-svm-score";
+	private final static String TEST_DIR = "functions/jmlc/";
+	private final static String MODEL_FILE = "sentiment_model.mtx";
+	private final static double eps = 1e-10;
+	
+	private final static int rows = 107;
+	private final static int cols = 46; //fixed
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "predicted_y" })   ); 
+	}
+	
+	@Test
+	public void testJMLCPlanCacheReuse() 
+		throws IOException
+	{
+		runJMLCPlanCacheTest(true);
+	}
+	
+	@Test
+	public void testJMLCPlanCacheDisabled() 
+		throws IOException
+	{
+		runJMLCPlanCacheTest(false);
+	}
+	
+	/**
+	 * 
+	 * @param cache
+	 * @throws IOException
+	 */
+	private void runJMLCPlanCacheTest( boolean cache ) 
+		throws IOException
+	{
+		boolean flagOld = PlanCache.ENABLE_PLAN_CACHE;
+		Connection conn = new Connection();
+		
+		try
+		{
+			PlanCache.ENABLE_PLAN_CACHE = cache;
+			PlanCache.clear();
+			
+			String script = conn.readScript(SCRIPT_DIR + TEST_DIR + TEST_NAME + ".dml");
+			String modelData = conn.readScript(SCRIPT_DIR + TEST_DIR + MODEL_FILE );
+			double[][] W = conn.convertToDoubleMatrix(modelData, rows, cols); 
+			double[][] X = getRandomMatrix(rows, cols, -1, 1, 0.7, 7);
+			
+			//prepare same script twice (second from cache, if enabled)
+			String[] inputs = new String[]{"X","W"};
+			String[] outputs = new String[]{"predicted_y"};
+			PreparedScript pstmt1 = conn.prepareScript(script, inputs, outputs, false);
+			PreparedScript pstmt2 = conn.prepareScript(script, inputs, outputs, false);
+			
+			//check cache statistics
+			Assert.assertEquals(cache ? 1 : 0, PlanCache.size());
+			Assert.assertEquals(cache ? 1 : 0, PlanCache.getNumHits());
+			
+			//execute both scripts w/ independent symbol tables
+			pstmt1.setMatrix("W", W);
+			pstmt1.setMatrix("X", X);
+			double[][] Y1 = pstmt1.executeScript().getMatrix("predicted_y");
+			
+			pstmt2.setMatrix("W", W);
+			pstmt2.setMatrix("X", X);
+			ResultVariables rs2 = pstmt2.executeScript();
+			double[][] Y2 = rs2.getMatrix("predicted_y");
+			
+			//compare results of original and cached plan
+			TestUtils.compareMatrices(Y1, Y2, rows, 1, eps);
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			throw new IOException(ex);
+		}
+		finally
+		{
+			PlanCache.ENABLE_PLAN_CACHE = flagOld;
+			PlanCache.clear();
+			if( conn != null )
+				conn.close();
+		}
+	}
+}
@@ -0,0 +1,238 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.jmlc;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.api.jmlc.Connection;
+import com.ibm.bi.dml.api.jmlc.PreparedScript;
+import com.ibm.bi.dml.api.jmlc.ResultVariables;
+import com.ibm.bi.dml.runtime.functionobjects.Builtin;
+import com.ibm.bi.dml.runtime.functionobjects.SwapIndex;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.operators.ReorgOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.UnaryOperator;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * 
+ * 
+ */
+public class JMLCZeroCopyInputTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "m-svm-score";
+	private final static String TEST_DIR = "functions/jmlc/";
+	private final static String MODEL_FILE = "sentiment_model.mtx";
+	private final static double eps = 1e-10;
+	
+	private final static int rows = 107;
+	private final static int cols = 46; //fixed
+	
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.1;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "predicted_y" })   ); 
+	}
+	
+	@Test
+	public void testJMLCZeroCopyDenseInputDense() 
+		throws IOException
+	{
+		runJMLCZeroCopyInputTest(false, sparsity1);
+	}
+	
+	@Test
+	public void testJMLCZeroCopyDenseInputSparse() 
+		throws IOException
+	{
+		runJMLCZeroCopyInputTest(false, sparsity2);
+	}
+	
+	@Test
+	public void testJMLCZeroCopyCSRInputDense() 
+		throws IOException
+	{
+		runJMLCZeroCopyInputTest(true, sparsity1);
+	}
+	
+	@Test
+	public void testJMLCZeroCopyCSRInputSparse() 
+		throws IOException
+	{
+		runJMLCZeroCopyInputTest(true, sparsity2);
+	}
+	
+	@Test
+	public void testZeroCopyDenseWrapCopyOnWrite() 
+		throws Exception
+	{
+		double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity1, 7);
+		double[] Xrm = new double[rows*cols];
+		for( int i=0; i<rows; i++ )
+			System.arraycopy(X[i], 0, Xrm, i*cols, cols);
+		double[] Xcopy = Xrm.clone();
+		
+		//cell update
+		MatrixBlock mb1 = new MatrixBlock(rows, cols, Xrm);
+		mb1.quickSetValue(3, 7, 42);
+		Assert.assertEquals(42, mb1.quickGetValue(3, 7), 0);
+		
+		//in-place left indexing 
+		MatrixBlock mb2 = new MatrixBlock(rows, cols, Xrm);
+		MatrixBlock rhs = DataConverter.convertToMatrixBlock(new double[][]{{11,12},{13,14}});
+		mb2.leftIndexingOperations(rhs, 0, 1, 0, 1, null, true);
+		Assert.assertEquals(14, mb2.quickGetValue(1, 1), 0);
+		
+		//in-place unary operation and reset
+		MatrixBlock mb3 = new MatrixBlock(rows, cols, Xrm);
+		mb3.unaryOperationsInPlace(new UnaryOperator(Builtin.getBuiltinFnObject("abs")));
+		MatrixBlock mb4 = new MatrixBlock(rows, cols, Xrm);
+		mb4.reset();
+		Assert.assertEquals(0, mb4.getNonZeros());
+		
+		//shallow vector transpose of wrapped row vector
+		double[] v = new double[]{1, 2, 3};
+		MatrixBlock mb5 = new MatrixBlock(1, 3, v);
+		MatrixBlock mb5t = (MatrixBlock)mb5.reorgOperations(new ReorgOperator(
+				SwapIndex.getSwapIndexFnObject()), new MatrixBlock(), 0, 0, 0);
+		mb5t.quickSetValue(2, 0, 7);
+		
+		//caller-owned arrays remain unchanged
+		Assert.assertArrayEquals(Xcopy, Xrm, 0);
+		Assert.assertArrayEquals(new double[]{1, 2, 3}, v, 0);
+	}
+	
+	@Test
+	public void testZeroCopyCSRWrapCopyOnWrite() 
+		throws Exception
+	{
+		int[] rowPtr = new int[]{0, 2, 2, 3};
+		int[] colInd = new int[]{0, 2, 1};
+		double[] values = new double[]{1, 2, 3};
+		
+		MatrixBlock mb = new MatrixBlock(3, 3, rowPtr, colInd, values);
+		Assert.assertEquals(3, mb.getNonZeros());
+		Assert.assertEquals(2, mb.quickGetValue(0, 2), 0);
+		mb.quickSetValue(0, 2, 9);
+		mb.quickSetValue(1, 1, 5);
+		Assert.assertEquals(9, mb.quickGetValue(0, 2), 0);
+		
+		//caller-owned arrays remain unchanged
+		Assert.assertArrayEquals(new double[]{1, 2, 3}, values, 0);
+		Assert.assertArrayEquals(new int[]{0, 2, 2, 3}, rowPtr);
+		Assert.assertArrayEquals(new int[]{0, 2, 1}, colInd);
+	}
+	
+	/**
+	 * 
+	 * @param csr
+	 * @param sparsity
+	 * @throws IOException
+	 */
+	private void runJMLCZeroCopyInputTest( boolean csr, double sparsity ) 
+		throws IOException
+	{
+		Connection conn = new Connection();
+		
+		try
+		{
+			String script = conn.readScript(SCRIPT_DIR + TEST_DIR + TEST_NAME + ".dml");
+			String modelData = conn.readScript(SCRIPT_DIR + TEST_DIR + MODEL_FILE );
+			double[][] W = conn.convertToDoubleMatrix(modelData, rows, cols); 
+			double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity, 7);
+			
+			PreparedScript pstmt = conn.prepareScript(script, 
+					new String[]{"X","W"}, new String[]{"predicted_y"}, false);
+			pstmt.setMatrix("W", W);
+			
+			//baseline w/ conversion of 2D array
+			pstmt.setMatrix("X", X);
+			double[][] expected = pstmt.executeScript().getMatrix("predicted_y");
+			
+			//zero-copy binding of row-major or csr arrays
+			double[] Xcopy = null;
+			if( csr ) {
+				int[] rowPtr = new int[rows+1];
+				int nnz = 0;
+				for( int i=0; i<rows; i++ )
+					for( int j=0; j<cols; j++ )
+						nnz += (X[i][j]!=0) ? 1 : 0;
+				int[] colInd = new int[nnz];
+				double[] values = new double[nnz];
+				for( int i=0, pos=0; i<rows; i++ ) {
+					rowPtr[i] = pos;
+					for( int j=0; j<cols; j++ )
+						if( X[i][j]!=0 ) {
+							colInd[pos] = j;
+							values[pos++] = X[i][j];
+						}
+				}
+				rowPtr[rows] = nnz;
+				Xcopy = values.clone();
+				pstmt.setMatrix("X", rowPtr, colInd, values, rows, cols);
+				ResultVariables rs = pstmt.executeScript();
+				TestUtils.compareMatrices(expected, toMatrix(rs.getDenseArray("predicted_y"), rows, 1), rows, 1, eps);
+				TestUtils.compareMatrices(toMatrix(Xcopy, 1, nnz), toMatrix(values, 1, nnz), 1, nnz, 0);
+			}
+			else {
+				double[] Xrm = new double[rows*cols];
+				for( int i=0; i<rows; i++ )
+					System.arraycopy(X[i], 0, Xrm, i*cols, cols);
+				Xcopy = Xrm.clone();
+				pstmt.setMatrix("X", Xrm, rows, cols);
+				ResultVariables rs = pstmt.executeScript();
+				TestUtils.compareMatrices(expected, toMatrix(rs.getDenseArray("predicted_y"), rows, 1), rows, 1, eps);
+				TestUtils.compareMatrices(toMatrix(Xcopy, rows, cols), toMatrix(Xrm, rows, cols), rows, cols, 0);
+			}
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			throw new IOException(ex);
+		}
+		finally
+		{
+			if( conn != null )
+				conn.close();
+		}
+	}
+	
+	/**
+	 * 
+	 * @param arr
+	 * @param rows
+	 * @param cols
+	 * @return
+	 */
+	private static double[][] toMatrix( double[] arr, int rows, int cols )
+	{
+		double[][] ret = new double[rows][cols];
+		for( int i=0; i<rows; i++ )
+			System.arraycopy(arr, i*cols, ret[i], 0, cols);
+		return ret;
+	}
+}
@@ -0,0 +1,252 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.misc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.DMLRuntimeException;
+import com.ibm.bi.dml.runtime.util.KernelThreadPool;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests the shared kernel thread pool with regard to the degree of parallelism 
+ * (k<=1, k greater than the pool size), inline execution of nested calls from 
+ * kernel threads, and error handling via the returned futures.
+ * 
+ */
+public class KernelThreadPoolTest extends AutomatedTestBase 
+{
+	private static final long TIMEOUT = 60000; //deadlock detection
+	
+	@Override
+	public void setUp() 
+	{
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test(timeout = TIMEOUT)
+	public void testSingleThreaded() 
+		throws Exception
+	{
+		for( int k : new int[]{-1, 0, 1} ) {
+			List<ThreadTask> tasks = createTasks(16, 0);
+			checkResults(KernelThreadPool.invokeAll(tasks, k));
+			
+			//all tasks executed by the calling thread
+			for( ThreadTask task : tasks )
+				Assert.assertSame(Thread.currentThread(), task.getThread());
+		}
+	}
+	
+	@Test(timeout = TIMEOUT)
+	public void testParallelismLargerThanPool() 
+		throws Exception
+	{
+		int poolSize = KernelThreadPool.getPoolSize();
+		int k = 4 * poolSize + 3;
+		List<ThreadTask> tasks = createTasks(2 * k, 5);
+		checkResults(KernelThreadPool.invokeAll(tasks, k));
+		
+		//bounded by the pool threads and the calling thread
+		HashSet<Thread> threads = new HashSet<Thread>();
+		for( ThreadTask task : tasks )
+			threads.add(task.getThread());
+		Assert.assertTrue(threads.size() <= poolSize + 1);
+		Assert.assertTrue(tasks.get(0).getMaxConcurrency() <= poolSize + 1);
+	}
+	
+	@Test(timeout = TIMEOUT)
+	public void testNestedInvokeAll() 
+		throws Exception
+	{
+		//outer tasks occupy all pool threads, inner calls must not deadlock
+		int k = KernelThreadPool.getPoolSize() + 1;
+		ArrayList<NestedTask> tasks = new ArrayList<NestedTask>();
+		for( int i=0; i<2*k; i++ )
+			tasks.add(new NestedTask(k));
+		for( Future<Integer> f : KernelThreadPool.invokeAll(tasks, k) )
+			Assert.assertEquals(Integer.valueOf(k), f.get());
+		
+		//nested calls from kernel threads are executed inline
+		for( NestedTask task : tasks )
+			if( task.isKernelThread() )
+				Assert.assertTrue(task.isInline());
+	}
+	
+	@Test(timeout = TIMEOUT)
+	public void testTaskErrors() 
+		throws Exception
+	{
+		for( int k : new int[]{1, 4} ) {
+			ArrayList<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+			for( int i=0; i<8; i++ )
+				tasks.add( (i%3==1) ? new FailingTask(i) : new ThreadTask(i, 0, null) );
+			List<Future<Integer>> rtasks = KernelThreadPool.invokeAll(tasks, k);
+			
+			//errors are exposed via futures w/o affecting other tasks
+			Assert.assertEquals(tasks.size(), rtasks.size());
+			for( int i=0; i<rtasks.size(); i++ ) {
+				if( i%3==1 ) {
+					try {
+						rtasks.get(i).get();
+						Assert.fail("Expected ExecutionException for task "+i+".");
+					}
+					catch(ExecutionException ex) {
+						Assert.assertTrue(ex.getCause() instanceof DMLRuntimeException);
+					}
+				}
+				else
+					Assert.assertEquals(Integer.valueOf(i), rtasks.get(i).get());
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * @param num
+	 * @param sleep
+	 * @return
+	 */
+	private static List<ThreadTask> createTasks( int num, long sleep )
+	{
+		AtomicInteger[] counts = new AtomicInteger[]{new AtomicInteger(0), new AtomicInteger(0)};
+		ArrayList<ThreadTask> ret = new ArrayList<ThreadTask>();
+		for( int i=0; i<num; i++ )
+			ret.add(new ThreadTask(i, sleep, counts));
+		return ret;
+	}
+	
+	/**
+	 * 
+	 * @param rtasks
+	 * @throws Exception
+	 */
+	private static void checkResults( List<Future<Integer>> rtasks ) 
+		throws Exception
+	{
+		for( int i=0; i<rtasks.size(); i++ ) {
+			Assert.assertTrue(rtasks.get(i).isDone());
+			Assert.assertEquals(Integer.valueOf(i), rtasks.get(i).get());
+		}
+	}
+	
+	/**
+	 * Task that records its executing thread and the maximum number 
+	 * of concurrently running tasks.
+	 */
+	private static class ThreadTask implements Callable<Integer>
+	{
+		private final int _id;
+		private final long _sleep;
+		private final AtomicInteger[] _counts; //current, max
+		private Thread _thread = null;
+		
+		protected ThreadTask( int id, long sleep, AtomicInteger[] counts ) {
+			_id = id;
+			_sleep = sleep;
+			_counts = (counts != null) ? counts :
+				new AtomicInteger[]{new AtomicInteger(0), new AtomicInteger(0)};
+		}
+		
+		@Override
+		public Integer call() throws Exception
+		{
+			_thread = Thread.currentThread();
+			int cur = _counts[0].incrementAndGet();
+			synchronized( _counts ) {
+				_counts[1].set(Math.max(_counts[1].get(), cur));
+			}
+			if( _sleep > 0 )
+				Thread.sleep(_sleep);
+			_counts[0].decrementAndGet();
+			return _id;
+		}
+		
+		public Thread getThread() {
+			return _thread;
+		}
+		
+		public int getMaxConcurrency() {
+			return _counts[1].get();
+		}
+	}
+	
+	/**
+	 * Task that itself calls invokeAll with k inner tasks.
+	 */
+	private static class NestedTask implements Callable<Integer>
+	{
+		private final int _k;
+		private boolean _kernelThread = false;
+		private boolean _inline = true;
+		
+		protected NestedTask( int k ) {
+			_k = k;
+		}
+		
+		@Override
+		public Integer call() throws Exception
+		{
+			_kernelThread = KernelThreadPool.isKernelThread();
+			List<ThreadTask> tasks = createTasks(_k, 1);
+			int count = 0;
+			for( Future<Integer> f : KernelThreadPool.invokeAll(tasks, _k) ) {
+				f.get();
+				count++;
+			}
+			for( ThreadTask task : tasks )
+				_inline &= (task.getThread() == Thread.currentThread());
+			return count;
+		}
+		
+		public boolean isKernelThread() {
+			return _kernelThread;
+		}
+		
+		public boolean isInline() {
+			return _inline;
+		}
+	}
+	
+	/**
+	 * Task that always fails.
+	 */
+	private static class FailingTask implements Callable<Integer>
+	{
+		private final int _id;
+		
+		protected FailingTask( int id ) {
+			_id = id;
+		}
+		
+		@Override
+		public Integer call() throws Exception {
+			throw new DMLRuntimeException("Failing task "+_id+".");
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.misc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.DMLRuntimeException;
+import com.ibm.bi.dml.runtime.controlprogram.LocalVariableMap;
+import com.ibm.bi.dml.runtime.instructions.cp.Data;
+import com.ibm.bi.dml.runtime.instructions.cp.DoubleObject;
+import com.ibm.bi.dml.runtime.instructions.cp.IntObject;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests the maintained (identity-based) reference counts of the symbol table
+ * over sequences of put, overwrite, putAll, remove, removeAll, clone and 
+ * deserialize, by comparison with a full scan over all variables.
+ * 
+ */
+public class LocalVariableMapRefCountTest extends AutomatedTestBase 
+{
+	@Override
+	public void setUp() 
+	{
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testPutRemove() 
+	{
+		LocalVariableMap vars = new LocalVariableMap();
+		Data a = new DoubleObject(7);
+		Data b = new DoubleObject(7); //equal value, different object
+		
+		vars.put("a", a);
+		checkReferences(vars, a, 1);
+		checkReferences(vars, b, 0);
+		
+		vars.put("a2", a);
+		vars.put("b", b);
+		checkReferences(vars, a, 2);
+		checkReferences(vars, b, 1);
+		
+		vars.remove("a");
+		checkReferences(vars, a, 1);
+		vars.remove("a2");
+		checkReferences(vars, a, 0);
+		vars.remove("a2"); //non-existing
+		checkReferences(vars, a, 0);
+		checkReferences(vars, b, 1);
+		
+		Assert.assertFalse(vars.hasReferences((Data)null));
+		Assert.assertEquals(0, vars.getNumReferences(null, false));
+	}
+	
+	@Test
+	public void testOverwrite() 
+	{
+		LocalVariableMap vars = new LocalVariableMap();
+		Data a = new IntObject(1);
+		Data b = new IntObject(2);
+		
+		vars.put("x", a);
+		vars.put("x", a); //same object, no double counting
+		checkReferences(vars, a, 1);
+		
+		vars.put("x", b); //overwrite releases old reference
+		checkReferences(vars, a, 0);
+		checkReferences(vars, b, 1);
+		
+		vars.put("y", b);
+		vars.put("x", a);
+		checkReferences(vars, a, 1);
+		checkReferences(vars, b, 1);
+	}
+	
+	@Test
+	public void testPutAllRemoveAll() 
+	{
+		LocalVariableMap vars1 = new LocalVariableMap();
+		LocalVariableMap vars2 = new LocalVariableMap();
+		Data a = new DoubleObject(1);
+		Data b = new DoubleObject(2);
+		
+		vars1.put("a", a);
+		vars1.put("b", b);
+		vars2.put("a", b); //overwritten by putAll
+		vars2.put("c", a);
+		
+		vars2.putAll(vars1);
+		checkReferences(vars2, a, 2);
+		checkReferences(vars2, b, 1);
+		checkReferences(vars1, a, 1);
+		
+		vars2.putAll(vars2); //no-op
+		checkReferences(vars2, a, 2);
+		
+		vars2.removeAll();
+		checkReferences(vars2, a, 0);
+		checkReferences(vars2, b, 0);
+		checkReferences(vars1, b, 1);
+	}
+	
+	@Test
+	public void testCloneDeserialize() 
+		throws DMLRuntimeException
+	{
+		LocalVariableMap vars = new LocalVariableMap();
+		Data a = new IntObject(3);
+		vars.put("a", a);
+		vars.put("a2", a);
+		vars.put("b", new DoubleObject(1.5));
+		
+		//clone shares data objects but maintains its own counts
+		LocalVariableMap vars2 = (LocalVariableMap) vars.clone();
+		checkReferences(vars2, a, 2);
+		vars2.remove("a");
+		checkReferences(vars2, a, 1);
+		checkReferences(vars, a, 2);
+		
+		//deserialized map creates new (distinct) data objects
+		LocalVariableMap vars3 = LocalVariableMap.deserialize(vars.serialize());
+		checkReferences(vars3, a, 0);
+		for( String var : vars3.keySet() )
+			checkReferences(vars3, vars3.get(var), 1);
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void testReadOnlyKeySet() 
+	{
+		LocalVariableMap vars = new LocalVariableMap();
+		vars.put("a", new IntObject(1));
+		vars.keySet().remove("a");
+	}
+	
+	/**
+	 * 
+	 * @param vars
+	 * @param d
+	 * @param expected
+	 */
+	private static void checkReferences( LocalVariableMap vars, Data d, int expected )
+	{
+		//full scan as baseline
+		int scan = 0;
+		for( String var : vars.keySet() )
+			if( vars.get(var) == d )
+				scan++;
+		
+		Assert.assertEquals(expected, scan);
+		Assert.assertEquals(expected, vars.getNumReferences(d, false));
+		Assert.assertEquals(expected, vars.getNumReferences(d, true));
+		Assert.assertEquals(expected > 0, vars.hasReferences(d));
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.misc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.parser.Expression.DataType;
+import com.ibm.bi.dml.parser.Expression.ValueType;
+import com.ibm.bi.dml.runtime.DMLRuntimeException;
+import com.ibm.bi.dml.runtime.controlprogram.LocalVariableMap;
+import com.ibm.bi.dml.runtime.controlprogram.context.ExecutionContext;
+import com.ibm.bi.dml.runtime.controlprogram.context.ExecutionContextFactory;
+import com.ibm.bi.dml.runtime.instructions.cp.CPOperand;
+import com.ibm.bi.dml.runtime.instructions.cp.Data;
+import com.ibm.bi.dml.runtime.instructions.cp.DoubleObject;
+import com.ibm.bi.dml.runtime.instructions.cp.IntObject;
+import com.ibm.bi.dml.runtime.instructions.cp.ScalarObject;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests the slot resolution of operands and the array-backed frame of the 
+ * symbol table, i.e., that slot-based lookups always return the same data 
+ * objects as name-based lookups.
+ * 
+ */
+public class LocalVariableMapSlotTest extends AutomatedTestBase 
+{
+	@Override
+	public void setUp() 
+	{
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testOperandSlots() 
+	{
+		CPOperand a1 = new CPOperand("_slotA", ValueType.DOUBLE, DataType.SCALAR);
+		CPOperand a2 = new CPOperand("_slotA", ValueType.DOUBLE, DataType.SCALAR);
+		CPOperand b = new CPOperand("_slotB", ValueType.DOUBLE, DataType.SCALAR);
+		CPOperand lit = new CPOperand("7", ValueType.INT, DataType.SCALAR, true);
+		
+		Assert.assertTrue(a1.getSlot() >= 0);
+		Assert.assertEquals(a1.getSlot(), a2.getSlot());
+		Assert.assertEquals(a1.getSlot(), LocalVariableMap.getSlot("_slotA"));
+		Assert.assertTrue(b.getSlot() >= 0 && b.getSlot() != a1.getSlot());
+		Assert.assertEquals(-1, lit.getSlot());
+		
+		//re-resolution on name changes
+		a2.set_name("_slotB");
+		Assert.assertEquals(b.getSlot(), a2.getSlot());
+		a2.copy(a1);
+		Assert.assertEquals(a1.getSlot(), a2.getSlot());
+		Assert.assertEquals(-1, new CPOperand().getSlot());
+	}
+	
+	@Test
+	public void testFrameConsistency() 
+	{
+		CPOperand x = new CPOperand("_slotX", ValueType.INT, DataType.SCALAR);
+		CPOperand y = new CPOperand("_slotY", ValueType.INT, DataType.SCALAR);
+		LocalVariableMap vars = new LocalVariableMap();
+		Data a = new IntObject(1);
+		Data b = new IntObject(2);
+		
+		vars.put("_slotX", a);
+		checkLookup(vars, x, a);
+		checkLookup(vars, y, null);
+		
+		vars.put(y.getSlot(), y.getName(), b);
+		checkLookup(vars, y, b);
+		vars.put("_slotY", a); //overwrite by name
+		checkLookup(vars, y, a);
+		Assert.assertEquals(2, vars.getNumReferences(a, false));
+		
+		LocalVariableMap vars2 = (LocalVariableMap) vars.clone();
+		checkLookup(vars2, x, a);
+		checkLookup(vars2, y, a);
+		
+		vars.remove("_slotX");
+		checkLookup(vars, x, null);
+		checkLookup(vars2, x, a);
+		
+		vars.removeAll();
+		checkLookup(vars, y, null);
+		checkLookup(vars2, y, a);
+	}
+	
+	@Test
+	public void testPutBeforeSlotAllocation() 
+	{
+		LocalVariableMap vars = new LocalVariableMap();
+		Data a = new DoubleObject(3);
+		
+		//variable put before its first operand (no slot yet)
+		vars.put("_slotLate", a);
+		CPOperand late = new CPOperand("_slotLate", ValueType.DOUBLE, DataType.SCALAR);
+		Assert.assertTrue(late.getSlot() >= 0);
+		checkLookup(vars, late, a);
+		
+		vars.remove("_slotLate");
+		checkLookup(vars, late, null);
+	}
+	
+	@Test
+	public void testExecutionContext() 
+		throws DMLRuntimeException
+	{
+		ExecutionContext ec = ExecutionContextFactory.createContext();
+		CPOperand x = new CPOperand("_slotEc", ValueType.DOUBLE, DataType.SCALAR);
+		CPOperand lit = new CPOperand("2.5", ValueType.DOUBLE, DataType.SCALAR, true);
+		
+		ec.setScalarOutput(x, new DoubleObject(7));
+		Assert.assertEquals(7, ec.getScalarInput(x).getDoubleValue(), 0);
+		Assert.assertSame(ec.getVariable("_slotEc"), ec.getVariable(x));
+		Assert.assertEquals(2.5, ec.getScalarInput(lit).getDoubleValue(), 0);
+		
+		ec.setScalarOutput("_slotEc", new DoubleObject(9));
+		ScalarObject so = ec.getScalarInput(x);
+		Assert.assertEquals(9, so.getDoubleValue(), 0);
+		
+		ec.removeVariable("_slotEc");
+		try {
+			ec.getScalarInput(x);
+			Assert.fail("Expected exception for unknown variable.");
+		}
+		catch(DMLRuntimeException ex) {
+			//expected
+		}
+	}
+	
+	/**
+	 * 
+	 * @param vars
+	 * @param op
+	 * @param expected
+	 */
+	private void checkLookup( LocalVariableMap vars, CPOperand op, Data expected )
+	{
+		Assert.assertSame(expected, vars.get(op.getName()));
+		Assert.assertSame(expected, vars.get(op.getSlot(), op.getName()));
+	}
+}
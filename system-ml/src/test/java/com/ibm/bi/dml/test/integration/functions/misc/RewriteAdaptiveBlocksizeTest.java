@@ -0,0 +1,198 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.misc;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.api.DMLScript.RUNTIME_PLATFORM;
+import com.ibm.bi.dml.hops.OptimizerUtils;
+import com.ibm.bi.dml.parser.DMLTranslator;
+import com.ibm.bi.dml.runtime.matrix.MatrixCharacteristics;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixValue.CellIndex;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests the cost-based program-wide block size selection, i.e., that larger
+ * blocks are only selected for vectors and sparse inputs, never if a binary
+ * input would require an additional reblock, and that the results are 
+ * independent of the selected block size.
+ * 
+ */
+public class RewriteAdaptiveBlocksizeTest extends AutomatedTestBase 
+{
+	private static final String TEST_NAME1 = "RewriteAdaptiveBlocksize";
+	private static final String TEST_DIR = "functions/misc/";
+	
+	private static final int defaultBlocksize = 1000;
+	private static final double eps = Math.pow(10, -10);
+	
+	@Override
+	public void setUp() 
+	{
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration( TEST_NAME1, new TestConfiguration(TEST_DIR, TEST_NAME1, new String[] { "R" })   );
+	}
+
+	@Test
+	public void testDenseMatrixCP() {
+		//dense block of 2x default size exceeds the default block size
+		runAdaptiveBlocksizeTest(1100, 1100, 1.0, false, RUNTIME_PLATFORM.HYBRID, defaultBlocksize);
+	}
+	
+	@Test
+	public void testSparseMatrixCP() {
+		runAdaptiveBlocksizeTest(2500, 2500, 0.001, false, RUNTIME_PLATFORM.HYBRID, 16*defaultBlocksize);
+	}
+	
+	@Test
+	public void testColumnVectorCP() {
+		runAdaptiveBlocksizeTest(20000, 1, 1.0, false, RUNTIME_PLATFORM.HYBRID, 16*defaultBlocksize);
+	}
+	
+	@Test
+	public void testSparseMatrixBinaryCP() {
+		//binary input with default block size would require a reblock
+		runAdaptiveBlocksizeTest(2500, 2500, 0.001, true, RUNTIME_PLATFORM.HYBRID, defaultBlocksize);
+	}
+	
+	@Test
+	public void testColumnVectorDefaultConfigCP() {
+		runAdaptiveBlocksizeTest(20000, 1, 1.0, false, RUNTIME_PLATFORM.HYBRID, 16*defaultBlocksize, true);
+	}
+	
+	@Test
+	public void testSparseMatrixBinaryDefaultConfigCP() {
+		runAdaptiveBlocksizeTest(2500, 2500, 0.001, true, RUNTIME_PLATFORM.HYBRID, defaultBlocksize, true);
+	}
+	
+	@Test
+	public void testDenseMatrixMR() {
+		runAdaptiveBlocksizeTest(1100, 1100, 1.0, false, RUNTIME_PLATFORM.HADOOP, defaultBlocksize);
+	}
+	
+	@Test
+	public void testSparseMatrixMR() {
+		runAdaptiveBlocksizeTest(2500, 2500, 0.001, false, RUNTIME_PLATFORM.HADOOP, 16*defaultBlocksize);
+	}
+	
+	@Test
+	public void testColumnVectorMR() {
+		runAdaptiveBlocksizeTest(20000, 1, 1.0, false, RUNTIME_PLATFORM.HADOOP, 16*defaultBlocksize);
+	}
+	
+	@Test
+	public void testSparseMatrixBinaryMR() {
+		runAdaptiveBlocksizeTest(2500, 2500, 0.001, true, RUNTIME_PLATFORM.HADOOP, defaultBlocksize);
+	}
+	
+	@Test
+	public void testColumnVectorDefaultConfigMR() {
+		runAdaptiveBlocksizeTest(20000, 1, 1.0, false, RUNTIME_PLATFORM.HADOOP, 16*defaultBlocksize, true);
+	}
+	
+	/**
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @param sparsity
+	 * @param binary
+	 * @param platform
+	 * @param expectedBlocksize
+	 */
+	private void runAdaptiveBlocksizeTest( int rows, int cols, double sparsity, boolean binary, RUNTIME_PLATFORM platform, int expectedBlocksize )
+	{
+		runAdaptiveBlocksizeTest(rows, cols, sparsity, binary, platform, expectedBlocksize, false);
+	}
+	
+	/**
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @param sparsity
+	 * @param binary
+	 * @param platform
+	 * @param expectedBlocksize
+	 * @param defaultConfig
+	 */
+	private void runAdaptiveBlocksizeTest( int rows, int cols, double sparsity, boolean binary, RUNTIME_PLATFORM platform, int expectedBlocksize, boolean defaultConfig )
+	{	
+		boolean oldFlag = OptimizerUtils.ALLOW_ADAPTIVE_BLOCKSIZE;
+		RUNTIME_PLATFORM platformOld = rtplatform;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(TEST_NAME1);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME1 + ".dml";
+			programArgs = new String[]{ "-args", HOME + INPUT_DIR + "X",
+					                             HOME + OUTPUT_DIR + "R" };
+			loadTestConfiguration(config);
+
+			//adaptive block size selection is enabled by default
+			if( defaultConfig )
+				Assert.assertTrue(OptimizerUtils.ALLOW_ADAPTIVE_BLOCKSIZE);
+			else
+				OptimizerUtils.ALLOW_ADAPTIVE_BLOCKSIZE = true;
+			rtplatform = platform;
+			
+			//generate and write input (w/ known nnz for sparsity estimates)
+			double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity, 7);
+			long nnz = 0;
+			for( int i=0; i<rows; i++ )
+				for( int j=0; j<cols; j++ )
+					nnz += (X[i][j] != 0) ? 1 : 0;
+			MatrixCharacteristics mc = new MatrixCharacteristics(rows, cols, defaultBlocksize, defaultBlocksize, nnz);
+			if( binary )
+				writeInputBinaryMatrixWithMTD("X", X, defaultBlocksize, defaultBlocksize, true, mc);
+			else
+				writeInputMatrixWithMTD("X", X, false, mc);
+			
+			runTest(true, false, null, -1); 
+			
+			//check selected block size (remains set after compilation)
+			Assert.assertEquals(expectedBlocksize, DMLTranslator.DMLBlockSize);
+			
+			//compare result with expected colSums(X * X + X)
+			double[][] R = new double[1][cols];
+			for( int i=0; i<rows; i++ )
+				for( int j=0; j<cols; j++ )
+					R[0][j] += X[i][j] * X[i][j] + X[i][j];
+			HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("R");
+			for( int j=0; j<cols; j++ ) {
+				Double val = dmlfile.get(new CellIndex(1, j+1));
+				Assert.assertEquals(R[0][j], (val!=null) ? val : 0, eps);
+			}
+		}
+		catch(Exception ex)
+		{
+			throw new RuntimeException(ex);
+		}
+		finally
+		{
+			OptimizerUtils.ALLOW_ADAPTIVE_BLOCKSIZE = oldFlag;
+			rtplatform = platformOld;
+			DMLTranslator.setDMLBlockSize(defaultBlocksize);
+		}
+	}	
+}
@@ -0,0 +1,103 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.reorg;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.functionobjects.SwapIndex;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.operators.ReorgOperator;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+
+/**
+ * Tests that the multi-threaded cache-blocked transpose produces exactly
+ * the same results (values, nnz, and representation) as the single-threaded 
+ * transpose, for dense and sparse inputs of various shapes.
+ */
+public class FullTransposeMultiThreadedTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "FullTransposeMultiThreadedTest";
+	private final static String TEST_DIR = "functions/reorg/";
+	
+	private final static int k = 4;
+	
+	//square, tall and wide shapes above the 1M cell threshold
+	//(dimensions not aligned with the transpose block size)
+	private final static int[][] SHAPES = new int[][] {
+		{1237, 1043}, {100007, 13}, {13, 100007} };
+	
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.3;
+	private final static double sparsity3 = 0.01;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "R" })   ); 
+	}
+	
+	@Test
+	public void testTransposeDense() throws Exception {
+		runTransposeTest(sparsity1);
+	}
+	
+	@Test
+	public void testTransposeSparseToDense() throws Exception {
+		runTransposeTest(sparsity2);
+	}
+	
+	@Test
+	public void testTransposeSparse() throws Exception {
+		runTransposeTest(sparsity3);
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @throws Exception
+	 */
+	private void runTransposeTest( double sparsity ) 
+		throws Exception
+	{
+		for( int[] shape : SHAPES )
+		{
+			MatrixBlock in = DataConverter.convertToMatrixBlock(
+					getRandomMatrix(shape[0], shape[1], -1, 1, sparsity, 7));
+			in.examSparsity();
+			
+			MatrixBlock ret1 = (MatrixBlock)in.reorgOperations(new ReorgOperator(
+					SwapIndex.getSwapIndexFnObject(), 1), new MatrixBlock(), 0, 0, 0);
+			MatrixBlock retk = (MatrixBlock)in.reorgOperations(new ReorgOperator(
+					SwapIndex.getSwapIndexFnObject(), k), new MatrixBlock(), 0, 0, 0);
+			
+			String msg = shape[0]+"x"+shape[1]+", sparsity="+sparsity+": ";
+			Assert.assertEquals(msg+"rows", shape[1], retk.getNumRows());
+			Assert.assertEquals(msg+"cols", shape[0], retk.getNumColumns());
+			Assert.assertEquals(msg+"nnz", ret1.getNonZeros(), retk.getNonZeros());
+			Assert.assertEquals(msg+"sparse", ret1.isInSparseFormat(), retk.isInSparseFormat());
+			for( int i=0; i<shape[1]; i++ )
+				for( int j=0; j<shape[0]; j++ ) {
+					Assert.assertEquals(msg, in.quickGetValue(j, i), retk.quickGetValue(i, j), 0);
+					Assert.assertEquals(msg, ret1.quickGetValue(i, j), retk.quickGetValue(i, j), 0);
+				}
+		}
+	}
+}
@@ -0,0 +1,233 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.sparse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.functionobjects.Multiply;
+import com.ibm.bi.dml.runtime.functionobjects.Plus;
+import com.ibm.bi.dml.runtime.functionobjects.SwapIndex;
+import com.ibm.bi.dml.runtime.instructions.InstructionUtils;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.data.SparseBlockCSR;
+import com.ibm.bi.dml.runtime.matrix.operators.AggregateBinaryOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.AggregateOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.ReorgOperator;
+import com.ibm.bi.dml.runtime.matrix.operators.ScalarOperator;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests the read-only CSR representation of sparse blocks, i.e., the read 
+ * of sparse and ultra-sparse blocks into CSR, the write of CSR blocks, and 
+ * the parity of operations over CSR and MCSR blocks (incl conversion on update).
+ */
+public class SparseBlockCSRTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "SparseBlockCSRTest";
+	private final static String TEST_DIR = "functions/sparse/";
+	
+	private final static int rows = 1234;
+	private final static int cols = 567;
+	private final static double sparsity1 = 0.05;
+	private final static double sparsity2 = 0.0003; //ultra-sparse
+	private final static double eps = 1e-10;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "R" })   ); 
+	}
+	
+	@Test
+	public void testSparseReadWriteCSR() 
+		throws Exception
+	{
+		runReadWriteTest(sparsity1);
+	}
+	
+	@Test
+	public void testUltraSparseReadWriteCSR() 
+		throws Exception
+	{
+		runReadWriteTest(sparsity2);
+	}
+	
+	@Test
+	public void testSparseOperationsCSR() 
+		throws Exception
+	{
+		runOperationsTest(sparsity1);
+	}
+	
+	@Test
+	public void testUltraSparseOperationsCSR() 
+		throws Exception
+	{
+		runOperationsTest(sparsity2);
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @throws Exception
+	 */
+	private void runReadWriteTest( double sparsity ) 
+		throws Exception
+	{
+		double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity, 7);
+		MatrixBlock mcsr = DataConverter.convertToMatrixBlock(X);
+		mcsr.examSparsity();
+		Assert.assertTrue(mcsr.isInSparseFormat());
+		
+		//read into csr (read-only) and mcsr
+		MatrixBlock csr = deserialize(serialize(mcsr), true);
+		MatrixBlock mcsr2 = deserialize(serialize(mcsr), false);
+		Assert.assertTrue(csr.getSparseBlock() instanceof SparseBlockCSR);
+		Assert.assertFalse(mcsr2.getSparseBlock() instanceof SparseBlockCSR);
+		Assert.assertEquals(mcsr.getNonZeros(), csr.getNonZeros());
+		compareBlocks(mcsr, csr);
+		compareBlocks(mcsr, mcsr2);
+		
+		//write csr block and read back
+		MatrixBlock csr2 = deserialize(serialize(csr), true);
+		MatrixBlock mcsr3 = deserialize(serialize(csr), false);
+		Assert.assertEquals(mcsr.getExactSizeOnDisk(), csr.getExactSizeOnDisk());
+		Assert.assertEquals(mcsr.getNonZeros(), csr2.getNonZeros());
+		compareBlocks(mcsr, csr2);
+		compareBlocks(mcsr, mcsr3);
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @throws Exception
+	 */
+	private void runOperationsTest( double sparsity ) 
+		throws Exception
+	{
+		double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity, 7);
+		MatrixBlock mcsr = DataConverter.convertToMatrixBlock(X);
+		mcsr.examSparsity();
+		MatrixBlock csr = deserialize(serialize(mcsr), true);
+		Assert.assertTrue(csr.getSparseBlock() instanceof SparseBlockCSR);
+		
+		//unary aggregates 
+		for( String opcode : new String[]{"uak+", "uark+", "uack+", "uamax", "uacmin"} ) {
+			compareBlocks(
+				(MatrixBlock)mcsr.aggregateUnaryOperations(InstructionUtils.parseBasicAggregateUnaryOperator(opcode), new MatrixBlock(), 1000, 1000, null, true),
+				(MatrixBlock)csr.aggregateUnaryOperations(InstructionUtils.parseBasicAggregateUnaryOperator(opcode), new MatrixBlock(), 1000, 1000, null, true));
+		}
+		
+		//matrix multiplications (matrix-vector, matrix-matrix)
+		AggregateBinaryOperator abop = new AggregateBinaryOperator(Multiply.getMultiplyFnObject(), 
+				new AggregateOperator(0, Plus.getPlusFnObject()));
+		MatrixBlock v = DataConverter.convertToMatrixBlock(getRandomMatrix(cols, 1, -1, 1, 1.0, 3));
+		MatrixBlock W = DataConverter.convertToMatrixBlock(getRandomMatrix(cols, 7, -1, 1, 0.5, 4));
+		compareBlocks((MatrixBlock)mcsr.aggregateBinaryOperations(mcsr, v, new MatrixBlock(), abop),
+				(MatrixBlock)csr.aggregateBinaryOperations(csr, v, new MatrixBlock(), abop));
+		compareBlocks((MatrixBlock)mcsr.aggregateBinaryOperations(mcsr, W, new MatrixBlock(), abop),
+				(MatrixBlock)csr.aggregateBinaryOperations(csr, W, new MatrixBlock(), abop));
+		
+		//transpose and scalar operations
+		ReorgOperator rop = new ReorgOperator(SwapIndex.getSwapIndexFnObject());
+		compareBlocks((MatrixBlock)mcsr.reorgOperations(rop, new MatrixBlock(), 0, 0, 0),
+				(MatrixBlock)csr.reorgOperations(rop, new MatrixBlock(), 0, 0, 0));
+		ScalarOperator sop = InstructionUtils.parseScalarBinaryOperator("*", false, 2);
+		compareBlocks((MatrixBlock)mcsr.scalarOperations(sop, new MatrixBlock()),
+				(MatrixBlock)csr.scalarOperations(sop, new MatrixBlock()));
+		
+		//row and column range slices
+		compareBlocks(mcsr.sliceOperations(100, 899, 0, cols-1, new MatrixBlock()),
+				csr.sliceOperations(100, 899, 0, cols-1, new MatrixBlock()));
+		compareBlocks(mcsr.sliceOperations(0, rows-1, 13, 213, new MatrixBlock()),
+				csr.sliceOperations(0, rows-1, 13, 213, new MatrixBlock()));
+		compareBlocks(mcsr.sliceOperations(7, 777, 101, 101, new MatrixBlock()),
+				csr.sliceOperations(7, 777, 101, 101, new MatrixBlock()));
+		
+		//left indexing with csr source into dense target
+		MatrixBlock D1 = DataConverter.convertToMatrixBlock(getRandomMatrix(rows+10, cols+10, 1, 2, 1.0, 5));
+		MatrixBlock D2 = DataConverter.convertToMatrixBlock(getRandomMatrix(rows+10, cols+10, 1, 2, 1.0, 5));
+		compareBlocks(D1.leftIndexingOperations(mcsr, 5, rows+4, 5, cols+4, new MatrixBlock(), false),
+				D2.leftIndexingOperations(csr, 5, rows+4, 5, cols+4, new MatrixBlock(), false));
+		
+		//update converts csr to mcsr (w/o modifying other values)
+		csr.quickSetValue(3, 4, 7);
+		mcsr.quickSetValue(3, 4, 7);
+		Assert.assertFalse(csr.getSparseBlock() instanceof SparseBlockCSR);
+		Assert.assertEquals(mcsr.getNonZeros(), csr.getNonZeros());
+		compareBlocks(mcsr, csr);
+	}
+	
+	/**
+	 * 
+	 * @param mb
+	 * @return
+	 * @throws Exception
+	 */
+	private static byte[] serialize( MatrixBlock mb ) 
+		throws Exception
+	{
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(bos);
+		mb.write(dos);
+		dos.close();
+		return bos.toByteArray();
+	}
+	
+	/**
+	 * 
+	 * @param data
+	 * @param readOnly
+	 * @return
+	 * @throws Exception
+	 */
+	private static MatrixBlock deserialize( byte[] data, boolean readOnly ) 
+		throws Exception
+	{
+		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data));
+		MatrixBlock ret = new MatrixBlock();
+		ret.readFields(dis, readOnly);
+		dis.close();
+		return ret;
+	}
+	
+	/**
+	 * 
+	 * @param expected
+	 * @param actual
+	 * @throws Exception
+	 */
+	private static void compareBlocks( MatrixBlock expected, MatrixBlock actual ) 
+		throws Exception
+	{
+		Assert.assertEquals(expected.getNumRows(), actual.getNumRows());
+		Assert.assertEquals(expected.getNumColumns(), actual.getNumColumns());
+		Assert.assertEquals(expected.getNonZeros(), actual.getNonZeros());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected), 
+				DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), eps);
+	}
+}
@@ -0,0 +1,219 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.ternary;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.DMLRuntimeException;
+import com.ibm.bi.dml.runtime.matrix.data.CTableMap;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.runtime.matrix.operators.SimpleOperator;
+import com.ibm.bi.dml.runtime.util.DataConverter;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests that the multi-threaded ctable produces the same results as the 
+ * single-threaded ctable, for all ctable types with matrix inputs and for 
+ * both result maps (unknown output dimensions) and result blocks.
+ */
+public class CTableMultiThreadedTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "CTableMultiThreadedTest";
+	private final static String TEST_DIR = "functions/ternary/";
+	
+	private final static int k = 4;
+	
+	//input size above the parallelization threshold of 64K cells
+	private final static int rows = 2011;
+	private final static int cols = 53;
+	private final static int maxVal = 20;
+	private final static int outDim = 15;
+	private final static double eps = 1e-8;
+	
+	private enum CTableType {
+		MATRIX_MATRIX_MATRIX, //ctable(A,B,W)
+		MATRIX_MATRIX_SCALAR, //ctable(A,B,w)
+		MATRIX_SCALAR_MATRIX, //ctable(A,b,W)
+		MATRIX_SCALAR_SCALAR, //ctable(A,b,w)
+		MATRIX_MATRIX_SCALAR_IGNORE_ZEROS,
+	}
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_DIR, TEST_NAME, new String[] { "R" })   ); 
+	}
+	
+	@Test
+	public void testCTableMatrixMatrixMatrixMap() throws Exception {
+		runCTableTest(CTableType.MATRIX_MATRIX_MATRIX, false);
+	}
+	
+	@Test
+	public void testCTableMatrixMatrixMatrixBlock() throws Exception {
+		runCTableTest(CTableType.MATRIX_MATRIX_MATRIX, true);
+	}
+	
+	@Test
+	public void testCTableMatrixMatrixScalarMap() throws Exception {
+		runCTableTest(CTableType.MATRIX_MATRIX_SCALAR, false);
+	}
+	
+	@Test
+	public void testCTableMatrixMatrixScalarBlock() throws Exception {
+		runCTableTest(CTableType.MATRIX_MATRIX_SCALAR, true);
+	}
+	
+	@Test
+	public void testCTableMatrixScalarMatrixMap() throws Exception {
+		runCTableTest(CTableType.MATRIX_SCALAR_MATRIX, false);
+	}
+	
+	@Test
+	public void testCTableMatrixScalarMatrixBlock() throws Exception {
+		runCTableTest(CTableType.MATRIX_SCALAR_MATRIX, true);
+	}
+	
+	@Test
+	public void testCTableMatrixScalarScalarMap() throws Exception {
+		runCTableTest(CTableType.MATRIX_SCALAR_SCALAR, false);
+	}
+	
+	@Test
+	public void testCTableMatrixScalarScalarBlock() throws Exception {
+		runCTableTest(CTableType.MATRIX_SCALAR_SCALAR, true);
+	}
+	
+	@Test
+	public void testCTableIgnoreZerosMap() throws Exception {
+		runCTableTest(CTableType.MATRIX_MATRIX_SCALAR_IGNORE_ZEROS, false);
+	}
+	
+	@Test
+	public void testCTableIgnoreZerosBlock() throws Exception {
+		runCTableTest(CTableType.MATRIX_MATRIX_SCALAR_IGNORE_ZEROS, true);
+	}
+	
+	@Test
+	public void testCTableInvalidInput() 
+		throws Exception
+	{
+		//input with a single zero (not ignored) raises an error w/ any k
+		MatrixBlock A = createCategories(1.0, 7, false);
+		A.quickSetValue(rows-1, cols-1, 0);
+		for( int par : new int[]{1, k} ) {
+			try {
+				A.ternaryOperations(new SimpleOperator(null, par), 3.0, 1.0, new CTableMap(), null);
+				Assert.fail("Expected error on invalid ctable input not raised (k="+par+").");
+			}
+			catch(DMLRuntimeException ex) {
+				//expected
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * @param type
+	 * @param block
+	 * @throws Exception
+	 */
+	private void runCTableTest( CTableType type, boolean block ) 
+		throws Exception
+	{
+		boolean ignoreZeros = (type == CTableType.MATRIX_MATRIX_SCALAR_IGNORE_ZEROS);
+		
+		//generate categorical inputs (w/ aligned zeros if ignored) and weights
+		MatrixBlock A = createCategories(ignoreZeros ? 0.7 : 1.0, 7, true);
+		MatrixBlock B = DataConverter.convertToMatrixBlock(DataConverter.convertToDoubleMatrix(A));
+		for( int i=0; i<rows; i++ )
+			for( int j=0; j<cols; j++ ) {
+				double v = A.quickGetValue(i, j);
+				if( v != 0 && !Double.isNaN(v) )
+					B.quickSetValue(i, j, (v*7) % maxVal + 1);
+			}
+		MatrixBlock W = DataConverter.convertToMatrixBlock(getRandomMatrix(rows, cols, 0, 1, 1.0, 3));
+		
+		//compute ctable single- and multi-threaded
+		MatrixBlock ret1 = computeCTable(type, A, B, W, 1, block);
+		MatrixBlock ret2 = computeCTable(type, A, B, W, k, block);
+		
+		//compare results
+		Assert.assertEquals(ret1.getNumRows(), ret2.getNumRows());
+		Assert.assertEquals(ret1.getNumColumns(), ret2.getNumColumns());
+		Assert.assertEquals(ret1.getNonZeros(), ret2.getNonZeros());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret1), 
+				DataConverter.convertToDoubleMatrix(ret2), ret1.getNumRows(), ret1.getNumColumns(), eps);
+	}
+	
+	/**
+	 * 
+	 * @param type
+	 * @param A
+	 * @param B
+	 * @param W
+	 * @param par
+	 * @param block
+	 * @return
+	 * @throws Exception
+	 */
+	private static MatrixBlock computeCTable( CTableType type, MatrixBlock A, MatrixBlock B, MatrixBlock W, int par, boolean block ) 
+		throws Exception
+	{
+		SimpleOperator op = new SimpleOperator(null, par);
+		CTableMap map = new CTableMap();
+		MatrixBlock out = block ? new MatrixBlock(outDim, outDim, false) : null;
+		
+		switch( type ) {
+			case MATRIX_MATRIX_MATRIX: A.ternaryOperations(op, B, W, map, out); break;
+			case MATRIX_MATRIX_SCALAR: A.ternaryOperations(op, B, 2.5, false, map, out); break;
+			case MATRIX_SCALAR_MATRIX: A.ternaryOperations(op, 3.0, W, map, out); break;
+			case MATRIX_SCALAR_SCALAR: A.ternaryOperations(op, 3.0, 2.5, map, out); break;
+			case MATRIX_MATRIX_SCALAR_IGNORE_ZEROS: A.ternaryOperations(op, B, 2.5, true, map, out); break;
+		}
+		
+		return block ? out : DataConverter.convertToMatrixBlock(map);
+	}
+	
+	/**
+	 * Creates a dense matrix of categories in [1, maxVal], with zeros
+	 * according to the given sparsity and optionally a few NaNs.
+	 * 
+	 * @param sparsity
+	 * @param seed
+	 * @param nan
+	 * @return
+	 */
+	private MatrixBlock createCategories( double sparsity, long seed, boolean nan )
+	{
+		double[][] X = getRandomMatrix(rows, cols, 1, maxVal, sparsity, seed);
+		for( int i=0; i<rows; i++ )
+			for( int j=0; j<cols; j++ )
+				X[i][j] = Math.floor(X[i][j]);
+		if( nan )
+			for( int i=0; i<rows; i+=97 )
+				X[i][i%cols] = Double.NaN;
+		
+		MatrixBlock mb = DataConverter.convertToMatrixBlock(X);
+		mb.examSparsity();
+		return mb;
+	}
+}
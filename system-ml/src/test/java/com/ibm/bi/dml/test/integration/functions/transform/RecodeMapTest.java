@@ -0,0 +1,139 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.transform;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.bi.dml.runtime.transform.RecodeMap;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.utils.TestUtils;
+
+/**
+ * Tests the compact recode maps with regard to lookups, counting, merging, 
+ * and the in-memory size accounting, where the upfront estimate (used for 
+ * deciding on in-memory transform) must bound the actual size.
+ * 
+ */
+public class RecodeMapTest extends AutomatedTestBase 
+{
+	@Override
+	public void setUp() 
+	{
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testAddMergeLookup() 
+	{
+		RecodeMap map1 = createMap(1000, 7, false);
+		RecodeMap map2 = createMap(1500, 7, false);
+		map1.addAll(map2);
+		
+		Assert.assertEquals(1500, map1.size());
+		for( int i=0; i<1500; i++ )
+			Assert.assertEquals((i<1000) ? 2 : 1, map1.get(getKey(i, 7, false)));
+		Assert.assertEquals(-1, map1.get("missing"));
+		
+		map1.put(getKey(3, 7, false), 42);
+		Assert.assertEquals(42, map1.get(getKey(3, 7, false)));
+		Assert.assertEquals(1500, map1.size());
+	}
+	
+	@Test
+	public void testSizeEstimateSmall() {
+		runSizeEstimateTest(5, 3, false);
+	}
+	
+	@Test
+	public void testSizeEstimateMedium() {
+		runSizeEstimateTest(1234, 12, false);
+	}
+	
+	@Test
+	public void testSizeEstimateLarge() {
+		runSizeEstimateTest(200001, 9, false);
+	}
+	
+	@Test
+	public void testSizeEstimateLargeKeys() {
+		runSizeEstimateTest(10007, 150, false);
+	}
+	
+	@Test
+	public void testSizeEstimateUnicode() {
+		runSizeEstimateTest(10007, 10, true);
+	}
+	
+	/**
+	 * 
+	 * @param n
+	 * @param keyLen
+	 * @param unicode
+	 */
+	private void runSizeEstimateTest( int n, int keyLen, boolean unicode )
+	{
+		RecodeMap map = createMap(n, keyLen, unicode);
+		Assert.assertEquals(n, map.size());
+		
+		long actual = map.getInMemorySize();
+		double avgKeyLen = (double)map.getKeyBytes() / n;
+		long estimate = RecodeMap.estimateInMemorySize(n, avgKeyLen);
+		
+		//estimate is an upper bound, but not overly pessimistic
+		Assert.assertTrue("Estimate "+estimate+" below actual size "+actual+".", actual <= estimate);
+		Assert.assertTrue("Estimate "+estimate+" above 4x actual size "+actual+".", estimate <= 4 * actual);
+		Assert.assertTrue(actual >= map.getKeyBytes() + 16L * n);
+	}
+	
+	/**
+	 * 
+	 * @param n
+	 * @param keyLen
+	 * @param unicode
+	 * @return
+	 */
+	private static RecodeMap createMap( int n, int keyLen, boolean unicode )
+	{
+		RecodeMap map = new RecodeMap();
+		for( int i=0; i<n; i++ )
+			map.add(getKey(i, keyLen, unicode), 1);
+		return map;
+	}
+	
+	/**
+	 * Creates a distinct key of the given length (in characters) with a 
+	 * random (but deterministic) prefix.
+	 * 
+	 * @param i
+	 * @param keyLen
+	 * @param unicode
+	 * @return
+	 */
+	private static String getKey( int i, int keyLen, boolean unicode )
+	{
+		Random rand = new Random(i);
+		StringBuilder sb = new StringBuilder();
+		sb.append(i);
+		while( sb.length() < keyLen )
+			sb.append( unicode ? (char)('\u00e0' + rand.nextInt(20)) : (char)('a' + rand.nextInt(26)) );
+		return sb.toString();
+	}
+}
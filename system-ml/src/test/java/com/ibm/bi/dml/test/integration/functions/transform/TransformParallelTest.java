@@ -0,0 +1,203 @@
+/**
+ * (C) Copyright IBM Corp. 2010, 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.ibm.bi.dml.test.integration.functions.transform;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ibm.bi.dml.api.DMLScript.RUNTIME_PLATFORM;
+import com.ibm.bi.dml.conf.ConfigurationManager;
+import com.ibm.bi.dml.conf.DMLConfig;
+import com.ibm.bi.dml.hops.OptimizerUtils;
+import com.ibm.bi.dml.runtime.io.ReaderBinaryBlock;
+import com.ibm.bi.dml.runtime.io.ReaderTextCSV;
+import com.ibm.bi.dml.runtime.matrix.data.CSVFileFormatProperties;
+import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
+import com.ibm.bi.dml.test.integration.AutomatedTestBase;
+import com.ibm.bi.dml.test.integration.TestConfiguration;
+
+/**
+ * Tests that the multi-threaded CP transform (build and apply over ranges 
+ * of input splits) produces the same outputs as the sequential transform.
+ */
+public class TransformParallelTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME1 = "Transform";
+	private final static String TEST_NAME2 = "Apply";
+	private final static String TEST_DIR = "functions/transform/";
+	
+	private final static String HOMES_DATASET 	= "homes/homes.csv";
+	private final static String HOMES_SPEC 		= "homes/homes.tfspec.json";
+	private final static String HOMES_TFDATA 	= "homes/homes.transformed.csv";
+	private final static String HOMES_OMIT_SPEC = "homes/homesOmit.tfspec.json";
+	private final static String HOMES_OMIT_TFDATA = "homes/homesOmit.transformed.csv";
+	private final static String HOMES2_DATASET 	= "homes2/homes.csv"; //two part files
+	private final static String HOMES2_SPEC 	= "homes2/homes.tfspec.json";
+	private final static String IRIS_DATASET 	= "iris/iris.csv";
+	private final static String IRIS_SPEC 		= "iris/iris.tfspec.json";
+	private final static String IRIS_TFDATA 	= "iris/iris.transformed.csv";
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME1, new TestConfiguration(TEST_DIR, TEST_NAME1, new String[] { "y" })   ); 
+	}
+	
+	@Test
+	public void testIrisParallelCSV() {
+		runTransformParallelTest("iris", "csv");
+	}
+	
+	@Test
+	public void testHomesParallelCSV() {
+		runTransformParallelTest("homes", "csv");
+	}
+	
+	@Test
+	public void testOmitHomesParallelCSV() {
+		runTransformParallelTest("homesomit", "csv");
+	}
+	
+	@Test
+	public void testHomes2ParallelCSV() {
+		runTransformParallelTest("homes2", "csv");
+	}
+	
+	//binary block outputs (direct encoding into disjoint rows of the output block)
+	
+	@Test
+	public void testIrisParallelBB() {
+		runTransformParallelTest("iris", "binary");
+	}
+	
+	@Test
+	public void testHomesParallelBB() {
+		runTransformParallelTest("homes", "binary");
+	}
+	
+	@Test
+	public void testOmitHomesParallelBB() {
+		runTransformParallelTest("homesomit", "binary");
+	}
+	
+	@Test
+	public void testHomes2ParallelBB() {
+		runTransformParallelTest("homes2", "binary");
+	}
+	
+	/**
+	 * 
+	 * @param dataset
+	 * @param ofmt
+	 */
+	private void runTransformParallelTest( String dataset, String ofmt )
+	{
+		String DATASET = null, SPEC = null, TFDATA = null;
+		if( dataset.equals("homes") ) {
+			DATASET = HOMES_DATASET; SPEC = HOMES_SPEC; TFDATA = HOMES_TFDATA;
+		}
+		else if( dataset.equals("homesomit") ) {
+			DATASET = HOMES_DATASET; SPEC = HOMES_OMIT_SPEC; TFDATA = HOMES_OMIT_TFDATA;
+		}
+		else if( dataset.equals("homes2") ) {
+			DATASET = HOMES2_DATASET; SPEC = HOMES2_SPEC; TFDATA = HOMES_TFDATA;
+		}
+		else if( dataset.equals("iris") ) {
+			DATASET = IRIS_DATASET; SPEC = IRIS_SPEC; TFDATA = IRIS_TFDATA;
+		}
+		
+		RUNTIME_PLATFORM rtold = rtplatform;
+		rtplatform = RUNTIME_PLATFORM.HYBRID;
+		boolean parOld = OptimizerUtils.PARALLEL_CP_READ_TEXTFORMATS;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(TEST_NAME1);
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			
+			//run transform and apply sequentially and multi-threaded
+			for( boolean par : new boolean[]{false, true} ) 
+			{
+				OptimizerUtils.PARALLEL_CP_READ_TEXTFORMATS = par;
+				String suffix = par ? "_par" : "_seq";
+				
+				fullDMLScriptName = HOME + TEST_NAME1 + ".dml";
+				programArgs = new String[]{"-nvargs", 
+						"DATA=" + HOME + "input/" + DATASET,
+						"TFSPEC=" + HOME + "input/" + SPEC,
+						"TFMTD=" + HOME + OUTPUT_DIR + "tfmtd" + suffix,
+						"TFDATA=" + HOME + OUTPUT_DIR + "tfout" + suffix,
+						"OFMT=" + ofmt };
+				loadTestConfiguration(config);
+				runTest(true, false, null, -1); 
+				
+				fullDMLScriptName = HOME + TEST_NAME2 + ".dml";
+				programArgs = new String[]{"-nvargs", 
+						"DATA=" + HOME + "input/" + DATASET,
+						"APPLYMTD=" + HOME + OUTPUT_DIR + "tfmtd" + suffix,
+						"TFMTD=" + HOME + OUTPUT_DIR + "test_tfmtd" + suffix,
+						"TFDATA=" + HOME + OUTPUT_DIR + "test_tfout" + suffix,
+						"OFMT=" + ofmt };
+				loadTestConfiguration(config);
+				runTest(true, false, null, -1); 
+			}
+			
+			//compare sequential and multi-threaded outputs (and expected output)
+			ReaderTextCSV csvReader = new ReaderTextCSV(new CSVFileFormatProperties(true, ",", true, 0, null));
+			MatrixBlock exp = csvReader.readMatrixFromHDFS(HOME + "input/" + TFDATA, -1, -1, -1, -1, -1);
+			for( String fname : new String[]{"tfout", "test_tfout"} ) {
+				MatrixBlock out1 = readOutput(HOME + OUTPUT_DIR + fname + "_seq", ofmt, exp);
+				MatrixBlock out2 = readOutput(HOME + OUTPUT_DIR + fname + "_par", ofmt, exp);
+				assertTrue("Different outputs of sequential and parallel transform ("+fname+").", 
+						TransformTest.equals(out1, out2, 0));
+				assertTrue("Incorrect output from parallel transform ("+fname+").", 
+						TransformTest.equals(out2, exp, 1e-10));
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			rtplatform = rtold;
+			OptimizerUtils.PARALLEL_CP_READ_TEXTFORMATS = parOld;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param fname
+	 * @param ofmt
+	 * @param exp
+	 * @return
+	 * @throws Exception
+	 */
+	private static MatrixBlock readOutput( String fname, String ofmt, MatrixBlock exp ) 
+		throws Exception
+	{
+		if( ofmt.equals("csv") ) {
+			ReaderTextCSV reader = new ReaderTextCSV(new CSVFileFormatProperties(false, ",", true, 0, null));
+			return reader.readMatrixFromHDFS(fname, -1, -1, -1, -1, -1);
+		}
+		else {
+			int blen = ConfigurationManager.getConfig().getIntValue(DMLConfig.DEFAULT_BLOCK_SIZE);
+			ReaderBinaryBlock reader = new ReaderBinaryBlock(false);
+			return reader.readMatrixFromHDFS(fname, exp.getNumRows(), exp.getNumColumns(), blen, blen, -1);
+		}
+	}
+}
@@ -17,6 +17,7 @@
 
 package com.ibm.bi.dml.test.integration.functions.transform;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -32,6 +33,7 @@ import com.ibm.bi.dml.runtime.matrix.data.MatrixBlock;
 import com.ibm.bi.dml.test.integration.AutomatedTestBase;
 import com.ibm.bi.dml.test.integration.TestConfiguration;
 import com.ibm.bi.dml.test.utils.TestUtils;
+import com.ibm.bi.dml.utils.Statistics;
 
 public class TransformTest extends AutomatedTestBase 
 {
@@ -488,6 +490,21 @@ public class TransformTest extends AutomatedTestBase
 	
 	// ------------------------------
 	
+	/**
+	 * Checks that binary block outputs on Spark are produced directly by 
+	 * transform, i.e., without a subsequent csv reblock.
+	 * 
+	 * @param ofmt
+	 */
+	private void checkDirectBinaryBlockOutput( String ofmt )
+	{
+		if( ofmt.equals("binary") && (rtplatform == RUNTIME_PLATFORM.SPARK 
+			|| rtplatform == RUNTIME_PLATFORM.HYBRID_SPARK) )
+		{
+			assertFalse(Statistics.getCPHeavyHitterOpCodes().contains("SP_csvrblk"));
+		}
+	}
+	
 	private void runTransformTest( RUNTIME_PLATFORM rt, String ofmt, String dataset, boolean byid )
 	{
 		String DATASET = null, SPEC=null, TFDATA=null;
@@ -532,7 +549,7 @@ public class TransformTest extends AutomatedTestBase
 			/* This is for running the junit test the new way, i.e., construct the arguments directly */
 			String HOME = SCRIPT_DIR + TEST_DIR;
 			fullDMLScriptName = HOME + TEST_NAME1 + ".dml";
-			programArgs = new String[]{"-nvargs", 
+			programArgs = new String[]{"-stats", "-nvargs", 
 											"DATA=" + HOME + "input/" + DATASET,
 											"TFSPEC=" + HOME + "input/" + SPEC,
 											"TFMTD=" + HOME + OUTPUT_DIR + "tfmtd",
@@ -544,9 +561,10 @@ public class TransformTest extends AutomatedTestBase
 	
 			boolean exceptionExpected = false;
 			runTest(true, exceptionExpected, null, -1); 
+			checkDirectBinaryBlockOutput(ofmt);
 			
 			fullDMLScriptName = HOME + TEST_NAME2 + ".dml";
-			programArgs = new String[]{"-nvargs", 
+			programArgs = new String[]{"-stats", "-nvargs", 
 											"DATA=" + HOME + "input/" + DATASET,
 											"APPLYMTD=" + HOME + OUTPUT_DIR + "tfmtd",  // generated above
 											"TFMTD=" + HOME + OUTPUT_DIR + "test_tfmtd",
@@ -558,6 +576,7 @@ public class TransformTest extends AutomatedTestBase
 	
 			exceptionExpected = false;
 			runTest(true, exceptionExpected, null, -1); 
+			checkDirectBinaryBlockOutput(ofmt);
 			
 			try {
 				ReaderTextCSV csvReader=  new ReaderTextCSV(new CSVFileFormatProperties(true, ",", true, 0, null));